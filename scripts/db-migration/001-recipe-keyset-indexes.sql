@@ -0,0 +1,12 @@
+-- Indexes backing the keyset (cursor) paged recipe listings.
+-- Each index matches the (sort key, id) ordering of one listing, so a page is an index range scan.
+
+CREATE INDEX IF NOT EXISTS idx_recipe_creator_id_id ON recipe (creator_id, id);
+CREATE INDEX IF NOT EXISTS idx_recipe_draftid ON recipe (draftid);
+CREATE INDEX IF NOT EXISTS idx_recipe_status_id ON recipe (status, id);
+CREATE INDEX IF NOT EXISTS idx_recipe_status_difficulty_id ON recipe (status, difficultylevel, id);
+CREATE INDEX IF NOT EXISTS idx_recipe_status_rating_id ON recipe (status, (COALESCE(rating, 0)), id);
+
+-- child rows are loaded per batch of recipe ids
+CREATE INDEX IF NOT EXISTS idx_recipe_ingredients_recipe_id ON recipe_ingredients (recipe_id, id);
+CREATE INDEX IF NOT EXISTS idx_recipe_cooking_step_recipe_id ON recipe_cooking_step (recipe_id, id);
@@ -0,0 +1,13 @@
+-- Indexes backing the ranked recipe search (GET /recipe/search).
+-- pg_trgm provides the trigram similarity (%) operator used for typo tolerant name matching.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- The expression must stay identical to SQL_RECIPE_SEARCH_DOCUMENT in PostgresSqlStatementRecipe.
+CREATE INDEX IF NOT EXISTS idx_recipe_search_document ON recipe USING GIN ((
+    setweight(to_tsvector('english', coalesce(name, '')), 'A')
+    || setweight(to_tsvector('english', coalesce(cuisine, '')), 'B')
+    || setweight(to_tsvector('english', coalesce(description, '')), 'C')));
+
+-- also serves the name ILIKE '%...%' lookup
+CREATE INDEX IF NOT EXISTS idx_recipe_name_trgm ON recipe USING GIN (name gin_trgm_ops);
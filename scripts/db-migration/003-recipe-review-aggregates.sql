@@ -0,0 +1,21 @@
+-- Review aggregates of a recipe, kept up to date from every review write by RecipeRatingPipeline,
+-- which coalesces the deltas of the writes per recipe and adds them in the background (see 009).
+-- recipe.rating is derived from them: rating_sum / review_count, or null without reviews.
+-- rating_sum is an exact numeric like the ratings it sums, so adding and taking off deltas leaves
+-- nothing over.
+
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS review_count integer NOT NULL DEFAULT 0;
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS rating_sum numeric NOT NULL DEFAULT 0;
+
+-- reviews are written and removed by recipe and creator
+CREATE INDEX IF NOT EXISTS idx_recipe_review_recipe_id_creator_id ON recipe_review (recipe_id, creator_id);
+
+-- backfill from the existing reviews, same as POST /recipe/rating/recompute
+UPDATE recipe r
+SET review_count = a.review_count,
+    rating_sum = a.rating_sum,
+    rating = CASE WHEN a.review_count > 0 THEN a.rating_sum / a.review_count END
+FROM (SELECT x.id, count(v.id) AS review_count, coalesce(sum(v.rating), 0)::numeric AS rating_sum
+      FROM recipe x LEFT JOIN recipe_review v ON v.recipe_id = x.id
+      GROUP BY x.id) a
+WHERE r.id = a.id;
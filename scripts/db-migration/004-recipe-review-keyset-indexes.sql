@@ -0,0 +1,5 @@
+-- Indexes backing the keyset (cursor) paged reviews of a recipe, newest or highest rated first.
+-- Each index matches the (sort key, id) ordering of one listing, read backwards.
+
+CREATE INDEX IF NOT EXISTS idx_recipe_review_recipe_id_create_datetime_id ON recipe_review (recipe_id, create_datetime, id);
+CREATE INDEX IF NOT EXISTS idx_recipe_review_recipe_id_rating_id ON recipe_review (recipe_id, rating, id);
@@ -0,0 +1,25 @@
+-- Number of reviews of a recipe by stars, the rating rounded and kept between 1 and 5, kept up to
+-- date from every review write along with review_count and rating_sum (see 003).
+
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS stars_1_count integer NOT NULL DEFAULT 0;
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS stars_2_count integer NOT NULL DEFAULT 0;
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS stars_3_count integer NOT NULL DEFAULT 0;
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS stars_4_count integer NOT NULL DEFAULT 0;
+ALTER TABLE recipe ADD COLUMN IF NOT EXISTS stars_5_count integer NOT NULL DEFAULT 0;
+
+-- backfill from the existing reviews, same as POST /recipe/rating/recompute
+UPDATE recipe r
+SET stars_1_count = a.stars_1_count,
+    stars_2_count = a.stars_2_count,
+    stars_3_count = a.stars_3_count,
+    stars_4_count = a.stars_4_count,
+    stars_5_count = a.stars_5_count
+FROM (SELECT recipe_id,
+             count(*) FILTER (WHERE LEAST(GREATEST(round(rating), 1), 5) = 1) AS stars_1_count,
+             count(*) FILTER (WHERE LEAST(GREATEST(round(rating), 1), 5) = 2) AS stars_2_count,
+             count(*) FILTER (WHERE LEAST(GREATEST(round(rating), 1), 5) = 3) AS stars_3_count,
+             count(*) FILTER (WHERE LEAST(GREATEST(round(rating), 1), 5) = 4) AS stars_4_count,
+             count(*) FILTER (WHERE LEAST(GREATEST(round(rating), 1), 5) = 5) AS stars_5_count
+      FROM recipe_review
+      GROUP BY recipe_id) a
+WHERE r.id = a.recipe_id;
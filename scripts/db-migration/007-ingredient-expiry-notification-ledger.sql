@@ -0,0 +1,18 @@
+-- Ledger of the ingredient expiry notifications sent, one row per ingredient, expiry date and
+-- days-before-expiry bucket, written in the same transaction as its notification. The daily expiry
+-- check leaves out the ingredients with a row here (an anti-join), so an ingredient is notified once
+-- per bucket; a changed expiry date is notified again.
+
+CREATE TABLE IF NOT EXISTS ingredient_expiry_notification (
+    user_id integer NOT NULL,
+    ingredient_id integer NOT NULL REFERENCES user_ingredients (id) ON DELETE CASCADE,
+    expiry_date date NOT NULL,
+    days_bucket integer NOT NULL,
+    notification_id integer,
+    create_datetime timestamp NOT NULL DEFAULT now()
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ingredient_expiry_notification ON ingredient_expiry_notification (user_id, ingredient_id, expiry_date, days_bucket);
+
+-- the expiry check reads the ingredients expiring within its buckets
+CREATE INDEX IF NOT EXISTS idx_user_ingredients_expiry_date ON user_ingredients (expiry_date);
@@ -0,0 +1,14 @@
+-- Leases of the daily ingredient expiry check, one row per run date and shard of the user id space
+-- (user_id mod the shard count). A replica claims a shard with a free or expired lease, renews it
+-- while it notifies the shard's users and marks it completed, so each shard is checked by one
+-- replica at a time and the shard of a replica that died is claimed by another once its lease
+-- expires. The rows of a run date are created by its first claim.
+
+CREATE TABLE IF NOT EXISTS ingredient_expiry_check_shard (
+    run_date date NOT NULL,
+    shard integer NOT NULL,
+    owner text,
+    lease_until timestamptz,
+    completed boolean NOT NULL DEFAULT false,
+    PRIMARY KEY (run_date, shard)
+);
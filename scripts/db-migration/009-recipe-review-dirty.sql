@@ -0,0 +1,16 @@
+-- Recipes with review writes whose deltas are not applied to their review aggregates yet, see
+-- RecipeRatingPipeline. A review write adds itself to writes in the same statement and the flush
+-- applying its delta takes it off again, removing the row once none is left. marked_at is the time
+-- of the first write not applied yet, later writes keep it. A row older than
+-- recipe.rating.lost-after-ms lost its deltas with the process that queued them, and its recipe is
+-- recomputed from its reviews. The deltas carry the marked_at of their row and are not applied once
+-- it is gone.
+
+CREATE TABLE IF NOT EXISTS recipe_review_dirty (
+    recipe_id bigint PRIMARY KEY,
+    writes integer NOT NULL,
+    marked_at timestamp NOT NULL DEFAULT now()
+);
+
+-- the lost recipes are looked up by the time of their first write
+CREATE INDEX IF NOT EXISTS idx_recipe_review_dirty_marked_at ON recipe_review_dirty (marked_at);
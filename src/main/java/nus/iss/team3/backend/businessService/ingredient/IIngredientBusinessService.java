@@ -2,5 +2,18 @@ package nus.iss.team3.backend.businessService.ingredient;
 
 public interface IIngredientBusinessService {
 
-  void checkIngredientsExpiry();
+  /**
+   * Run the daily expiry check on the calling thread. Returns false, without checking, when a check
+   * is running already.
+   */
+  boolean checkIngredientsExpiry();
+
+  /**
+   * Start the daily expiry check on a virtual thread of the given name, and return without waiting
+   * for it. Returns false, starting nothing, when a check is running already.
+   */
+  boolean startIngredientsExpiryCheck(String threadName);
+
+  /** Notify the expiry alerts fallen due since the last flush, in batches. */
+  void flushExpiryAlerts();
 }
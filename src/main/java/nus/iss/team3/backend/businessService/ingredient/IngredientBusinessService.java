@@ -1,41 +1,270 @@
 package nus.iss.team3.backend.businessService.ingredient;
 
+import static nus.iss.team3.backend.entity.IngredientExpiryAlert.NOTIFY_DAYS;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import nus.iss.team3.backend.domainService.ingredient.IIngredientService;
 import nus.iss.team3.backend.domainService.notification.INotificationService;
 import nus.iss.team3.backend.entity.ENotificationType;
+import nus.iss.team3.backend.entity.ExpiryCheckShardLease;
+import nus.iss.team3.backend.entity.ExpiryNotification;
+import nus.iss.team3.backend.entity.IngredientExpiryAlert;
+import nus.iss.team3.backend.entity.IngredientExpiryNotice;
 import nus.iss.team3.backend.entity.Notification;
 import nus.iss.team3.backend.entity.UserIngredient;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * The daily ingredient expiry check. The users with ingredients to notify are processed each on a
+ * virtual thread, at most {@code ingredient.expiry-check.concurrency} of them at once. The
+ * notifications of a user are inserted in one batch and committed with their ledger rows on their
+ * own, then pushed to the user by the notification service, which holds the sessions. A user
+ * failing does not stop the others, and a check cut short is finished by the next one, which skips
+ * what was notified.
+ *
+ * <p>The users are split into {@code ingredient.expiry-check.shards} shards by user id, which the
+ * replicas running the check lease one at a time from the database, so each shard is checked by a
+ * single replica and the replicas check theirs in parallel. A lease lasts {@code
+ * ingredient.expiry-check.lease-ms} and is renewed while the shard is checked; the shard of a
+ * replica that died is claimed by the next check once its lease expires. A shard is checked once a
+ * day, the checks after it completed find nothing to claim.
+ *
+ * <p>Between the checks, the expiry alerts fallen due are taken off the alert queue of the
+ * ingredient service every {@code ingredient.expiry-alert.flush-interval-ms}, {@code
+ * ingredient.expiry-alert.batch-size} at a time, and notified like the users of a shard. Every
+ * replica holds the alerts of all the users; the notifications of a user are created one replica at
+ * a time, each leaving out what the ledger has before inserting, so an alert flushed by several
+ * replicas or already notified by the check is notified once. The alerts of a user whose
+ * notification was not created are released back to the queue, which alerts them again on its next
+ * reload if the ledger still does not have them. The flush is skipped while the check runs, so the
+ * two notify one at a time.
+ *
+ * <p>Metrics: {@value #METRIC_USERS} (tagged result=success|failure), {@value
+ * #METRIC_NOTIFICATIONS} (tagged result=created|skipped), {@value #METRIC_SHARDS} (tagged
+ * result=completed|lost|failure), {@value #METRIC_ALERTS} (alerts flushed), {@value
+ * #METRIC_PENDING} (users left to notify) and {@value #METRIC_DURATION}.
+ */
 @Service
 public class IngredientBusinessService implements IIngredientBusinessService {
 
+  public static final String METRIC_USERS = "ingredient.expiry.check.users";
+  public static final String METRIC_NOTIFICATIONS = "ingredient.expiry.check.notifications";
+  public static final String METRIC_SHARDS = "ingredient.expiry.check.shards";
+  public static final String METRIC_ALERTS = "ingredient.expiry.alerts.flushed";
+  public static final String METRIC_PENDING = "ingredient.expiry.check.pending";
+  public static final String METRIC_DURATION = "ingredient.expiry.check.duration";
+
   private static final Logger logger = LogManager.getLogger(IngredientBusinessService.class);
 
   @Autowired private IIngredientService ingredientService;
 
   @Autowired private INotificationService notificationService;
 
+  @Autowired private MeterRegistry meterRegistry;
+
+  // Users processed at once, each holding a database connection while it is notified
+  @Value("${ingredient.expiry-check.concurrency:8}")
+  private int concurrency = 8;
+
+  // Every replica must split the users in the same number of shards
+  @Value("${ingredient.expiry-check.shards:16}")
+  private int shardCount = 16;
+
+  @Value("${ingredient.expiry-check.lease-ms:300000}")
+  private long leaseMillis = 300_000;
+
+  @Value("${ingredient.expiry-alert.batch-size:500}")
+  private int alertBatchSize = 500;
+
+  // This replica in the shard leases, a restarted replica is a new owner
+  private final String owner =
+      System.getenv().getOrDefault("HOSTNAME", "replica") + "/" + UUID.randomUUID();
+
+  // Times the lease renewals
+  private Clock clock = Clock.systemUTC();
+
+  private final AtomicBoolean running = new AtomicBoolean();
+  // held by the check and the alert flush while they notify, the flush skips while the check runs
+  private final ReentrantLock notifying = new ReentrantLock();
+  private final AtomicInteger pendingUsers = new AtomicInteger();
+
+  @PostConstruct
+  public void postConstruct() {
+    if (concurrency <= 0) {
+      throw new IllegalArgumentException("Expiry check concurrency must be greater than 0");
+    }
+    if (shardCount <= 0 || leaseMillis <= 0) {
+      throw new IllegalArgumentException("Expiry check shards and lease must be greater than 0");
+    }
+    if (alertBatchSize <= 0) {
+      throw new IllegalArgumentException("Expiry alert batch size must be greater than 0");
+    }
+    Gauge.builder(METRIC_PENDING, pendingUsers, AtomicInteger::get).register(meterRegistry);
+    logger.info(
+        "Ingredient expiry check concurrency {}, {} shards, owner {}",
+        concurrency,
+        shardCount,
+        owner);
+  }
+
+  @Override
+  public boolean checkIngredientsExpiry() {
+    if (!claimRun()) {
+      return false;
+    }
+    runClaimed();
+    return true;
+  }
+
   @Override
-  @Transactional
-  public void checkIngredientsExpiry() {
+  public boolean startIngredientsExpiryCheck(String threadName) {
+    // claimed before the thread starts, so the caller knows whether it runs
+    if (!claimRun()) {
+      return false;
+    }
+    try {
+      Thread.ofVirtual()
+          .name(threadName)
+          .start(
+              () -> {
+                try {
+                  runClaimed();
+                } catch (RuntimeException e) {
+                  logger.error("Ingredient expiry check failed", e);
+                }
+              });
+    } catch (RuntimeException | Error e) {
+      running.set(false);
+      throw e;
+    }
+    return true;
+  }
+
+  // the scheduled, resumed and manual checks may overlap
+  private boolean claimRun() {
+    if (!running.compareAndSet(false, true)) {
+      logger.info("Ingredient expiry check already running, skipped");
+      return false;
+    }
+    return true;
+  }
+
+  // runs the check claimed by claimRun, and releases it
+  private void runClaimed() {
+    long startNanos = System.nanoTime();
+    // waits for a flush in progress to finish
+    notifying.lock();
+    try {
+      runExpiryCheck();
+    } finally {
+      notifying.unlock();
+      running.set(false);
+      meterRegistry.timer(METRIC_DURATION).record(Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+  }
+
+  @Override
+  public void flushExpiryAlerts() {
+    // the alerts stay queued until the check running is done
+    if (!notifying.tryLock()) {
+      logger.info("Ingredient expiry check running, expiry alerts flush skipped");
+      return;
+    }
+    try {
+      List<IngredientExpiryAlert> due;
+      do {
+        due = ingredientService.pollDueExpiryAlerts(alertBatchSize);
+        if (due == null || due.isEmpty()) {
+          return;
+        }
+        logger.info("Flushing {} due ingredient expiry alerts", due.size());
+        meterRegistry.counter(METRIC_ALERTS).increment(due.size());
+        flushAlerts(due);
+      } while (due.size() == alertBatchSize);
+    } finally {
+      notifying.unlock();
+    }
+  }
+
+  private void flushAlerts(List<IngredientExpiryAlert> due) {
+    // Group the alerts by user and days until expiry, as the check does
+    Map<Integer, Map<Integer, List<UserIngredient>>> userIngredientMap =
+        due.stream()
+            .collect(
+                Collectors.groupingBy(
+                    alert -> alert.getIngredient().getUserId(),
+                    Collectors.groupingBy(
+                        IngredientExpiryAlert::getDaysBeforeExpiry,
+                        Collectors.mapping(
+                            IngredientExpiryAlert::getIngredient, Collectors.toList()))));
+    Set<Integer> notifiedUsers = ConcurrentHashMap.newKeySet();
+    processUsers(userIngredientMap, null, notifiedUsers);
+
+    // released, the next reload of the queue alerts them again unless the ledger has them, as it
+    // does for the ones another check notified first
+    List<IngredientExpiryAlert> failed =
+        due.stream()
+            .filter(alert -> !notifiedUsers.contains(alert.getIngredient().getUserId()))
+            .toList();
+    if (!failed.isEmpty() && !ingredientService.releaseExpiryAlerts(failed)) {
+      logger.error("Failed to release {} expiry alerts, they are not alerted again", failed.size());
+    }
+  }
+
+  private void runExpiryCheck() {
     logger.info("Starting daily ingredient expiry check");
 
     try {
-      // Get all ingredients expiring in next 3 days in one query
-      List<UserIngredient> expiringIngredients = ingredientService.getExpiringIngredientsInRange();
+      LocalDate today = LocalDate.now();
+      int shardsChecked = 0;
+      Integer shard;
+      while ((shard = ingredientService.claimExpiryCheckShard(lease(today, null))) != null) {
+        checkShard(today, shard);
+        shardsChecked++;
+      }
+
+      logger.info("Completed daily ingredient expiry check, {} shards checked", shardsChecked);
+
+    } catch (Exception e) {
+      logger.error("Error during ingredient expiry check", e);
+      throw new RuntimeException("Failed to complete ingredient expiry check", e);
+    }
+  }
+
+  private void checkShard(LocalDate today, int shard) {
+    ExpiryCheckShardLease lease = lease(today, shard);
+    try {
+      // Get the ingredients of the shard expiring in 3 and 1 days not notified yet in one query
+      List<UserIngredient> expiringIngredients =
+          ingredientService.getExpiringIngredientsNotNotified(
+              today, NOTIFY_DAYS, shard, shardCount);
 
       if (expiringIngredients == null || expiringIngredients.isEmpty()) {
-        logger.info("No ingredients found expiring in the next 3 days");
+        logger.info("No ingredients of shard {} to notify expiring in {} days", shard, NOTIFY_DAYS);
+        completeShard(lease);
         return;
       }
 
@@ -48,87 +277,128 @@ public class IngredientBusinessService implements IIngredientBusinessService {
                   Collectors.groupingBy(
                       UserIngredient::getUserId,
                       Collectors.groupingBy(
-                          ingredient -> {
-                            LocalDate expiryDate =
-                                ingredient
-                                    .getExpiryDate()
-                                    .toInstant()
-                                    .atZone(ZoneId.systemDefault())
-                                    .toLocalDate();
-                            return (int) LocalDate.now().until(expiryDate).getDays();
-                          })));
+                          ingredient -> (int) today.until(toLocalDate(ingredient)).getDays())));
 
       // Process notifications for each user
-      userIngredientMap.forEach(
-          (userId, daysMap) -> {
-            try {
-              processUserExpiringIngredients(userId, daysMap);
-            } catch (Exception e) {
-              logger.error("Error processing expiring ingredients for user {}", userId, e);
-            }
-          });
-
-      logger.info("Completed daily ingredient expiry check");
+      if (processUsers(userIngredientMap, lease, null)) {
+        completeShard(lease);
+        logger.info("Checked shard {} of {} users", shard, userIngredientMap.size());
+      }
 
-    } catch (Exception e) {
-      logger.error("Error during ingredient expiry check", e);
-      throw new RuntimeException("Failed to complete ingredient expiry check", e);
+    } catch (RuntimeException e) {
+      // left leased, the shard is checked again once its lease expires
+      meterRegistry.counter(METRIC_SHARDS, "result", "failure").increment();
+      logger.error("Error checking expiry check shard {}", shard, e);
     }
   }
 
-  private void processUserExpiringIngredients(
-      int userId, Map<Integer, List<UserIngredient>> daysMap) {
-    // Get recent notifications once per user
-    List<Notification> recentNotifications =
-        notificationService.getNotificationsForUser(userId, 50);
-
-    logger.debug("Processing expiring ingredients for user {}", userId);
+  private void completeShard(ExpiryCheckShardLease lease) {
+    if (ingredientService.completeExpiryCheckShard(lease)) {
+      meterRegistry.counter(METRIC_SHARDS, "result", "completed").increment();
+    } else {
+      meterRegistry.counter(METRIC_SHARDS, "result", "lost").increment();
+      logger.warn("Expiry check shard {} was claimed by another replica", lease.getShard());
+    }
+  }
 
-    // Process each expiry day group (3 days and 1 day)
-    daysMap.forEach(
-        (daysUntilExpiry, ingredients) -> {
-          // Only process 3-day and 1-day notifications
-          if (daysUntilExpiry != 3 && daysUntilExpiry != 1) {
-            return;
-          }
+  private ExpiryCheckShardLease lease(LocalDate today, Integer shard) {
+    return new ExpiryCheckShardLease(today, shard, shardCount, owner, leaseMillis);
+  }
 
-          // Group ingredients that haven't been notified yet
-          List<UserIngredient> unnotifiedIngredients =
-              ingredients.stream()
-                  .filter(
-                      ingredient ->
-                          !hasExistingNotification(
-                              recentNotifications, ingredient.getId(), daysUntilExpiry))
-                  .collect(Collectors.toList());
-
-          if (!unnotifiedIngredients.isEmpty()) {
-            String title =
-                daysUntilExpiry == 3 ? "Ingredient Expiry Notice" : "Ingredient Expiry Alert";
-
-            // Create consolidated notification for multiple ingredients
-            sendConsolidatedExpiryNotification(
-                userId, unnotifiedIngredients, daysUntilExpiry, title);
+  // Returns whether the users were all processed with the lease held, if there is one. The users
+  // whose notifications were all created are added to notifiedUsers, if given
+  private boolean processUsers(
+      Map<Integer, Map<Integer, List<UserIngredient>>> userIngredientMap,
+      ExpiryCheckShardLease lease,
+      Set<Integer> notifiedUsers) {
+    Semaphore permits = new Semaphore(concurrency);
+    // the alerts may be flushed while a check runs, the gauge counts the users of both
+    pendingUsers.addAndGet(userIngredientMap.size());
+    int submitted = 0;
+    long renewMillis = leaseMillis / 3;
+    long renewedAtMillis = clock.millis();
+    // close() waits for the users submitted, the permits keep the threads started to the cap
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (Map.Entry<Integer, Map<Integer, List<UserIngredient>>> user :
+          userIngredientMap.entrySet()) {
+        permits.acquire();
+        // renewed right before the user is submitted, after the wait for a permit
+        if (lease != null && clock.millis() - renewedAtMillis > renewMillis) {
+          if (!ingredientService.renewExpiryCheckShard(lease)) {
+            permits.release();
+            // the users left are checked by the replica that claimed the shard
+            meterRegistry.counter(METRIC_SHARDS, "result", "lost").increment();
+            logger.warn("Expiry check shard {} lost, stopped checking it", lease.getShard());
+            return false;
           }
-        });
+          renewedAtMillis = clock.millis();
+        }
+        submitted++;
+        executor.execute(
+            () -> {
+              try {
+                boolean notified = processUserExpiringIngredients(user.getKey(), user.getValue());
+                if (notified && notifiedUsers != null) {
+                  notifiedUsers.add(user.getKey());
+                }
+                meterRegistry.counter(METRIC_USERS, "result", "success").increment();
+              } catch (Exception e) {
+                meterRegistry.counter(METRIC_USERS, "result", "failure").increment();
+                logger.error("Error processing expiring ingredients for user {}", user.getKey(), e);
+              } finally {
+                pendingUsers.decrementAndGet();
+                permits.release();
+              }
+            });
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.warn("Ingredient expiry check interrupted, the users left are notified next check");
+      return false;
+    } finally {
+      pendingUsers.addAndGet(submitted - userIngredientMap.size());
+    }
+    return true;
   }
 
-  private boolean hasExistingNotification(
-      List<Notification> notifications, int ingredientId, long daysUntilExpiry) {
-    if (notifications == null || notifications.isEmpty()) {
-      return false;
+  // Returns whether the notifications of the user were all created
+  private boolean processUserExpiringIngredients(
+      int userId, Map<Integer, List<UserIngredient>> daysMap) {
+    logger.debug("Processing expiring ingredients for user {}", userId);
+
+    // One consolidated notification for each expiry day group (3 days and 1 day)
+    List<ExpiryNotification> expiryNotifications = new ArrayList<>();
+    for (Map.Entry<Integer, List<UserIngredient>> days : daysMap.entrySet()) {
+      if (NOTIFY_DAYS.contains(days.getKey())) {
+        expiryNotifications.add(
+            consolidatedExpiryNotification(userId, days.getValue(), days.getKey()));
+      }
+    }
+    if (expiryNotifications.isEmpty()) {
+      return true;
     }
 
-    String searchText = String.format("will expire in %d day", daysUntilExpiry);
-    String ingredientName = ingredientService.getIngredientById(ingredientId).getName();
+    // The notifications of the user in one batch and one transaction, pushed once committed
+    List<Notification> created = notificationService.createExpiryNotifications(expiryNotifications);
+    if (created == null) {
+      throw new RuntimeException("Failed to create notification");
+    }
+    int skipped = expiryNotifications.size() - created.size();
+    meterRegistry.counter(METRIC_NOTIFICATIONS, "result", "created").increment(created.size());
+    if (skipped > 0) {
+      meterRegistry.counter(METRIC_NOTIFICATIONS, "result", "skipped").increment(skipped);
+      logger.info("{} expiry notifications for user {} already sent", skipped, userId);
+    }
+    logger.info("Created {} expiry notifications for user {}", created.size(), userId);
+    return skipped == 0;
+  }
 
-    return notifications.stream()
-        .filter(n -> n.getContent().contains(searchText))
-        .anyMatch(
-            n -> n.getContent().contains(String.format("ingredient '%s' will", ingredientName)));
+  private static LocalDate toLocalDate(UserIngredient ingredient) {
+    return ingredient.getExpiryDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
   }
 
-  private void sendConsolidatedExpiryNotification(
-      int userId, List<UserIngredient> ingredients, long daysUntilExpiry, String title) {
+  private ExpiryNotification consolidatedExpiryNotification(
+      int userId, List<UserIngredient> ingredients, int daysUntilExpiry) {
 
     StringBuilder content = new StringBuilder();
     if (ingredients.size() == 1) {
@@ -157,20 +427,20 @@ public class IngredientBusinessService implements IIngredientBusinessService {
 
     Notification notification = new Notification();
     notification.setUserId(userId);
-    notification.setTitle(title);
+    notification.setTitle(
+        daysUntilExpiry == 3 ? "Ingredient Expiry Notice" : "Ingredient Expiry Alert");
     notification.setContent(content.toString());
     notification.setType(ENotificationType.INFO);
     notification.setIsRead(false);
 
-    try {
-      notificationService.createNotification(notification);
-      logger.info(
-          "Created consolidated expiry notification for user {} with {} ingredients",
-          userId,
-          ingredients.size());
-    } catch (Exception e) {
-      logger.error("Failed to create expiry notification for user {}", userId, e);
-      throw new RuntimeException("Failed to create notification", e);
-    }
+    // The ledger rows mark the ingredients notified, so the next check leaves them out
+    List<IngredientExpiryNotice> notices =
+        ingredients.stream()
+            .map(
+                ingredient ->
+                    new IngredientExpiryNotice(
+                        userId, ingredient.getId(), toLocalDate(ingredient), daysUntilExpiry))
+            .collect(Collectors.toList());
+    return new ExpiryNotification(notification, notices);
   }
 }
@@ -1,11 +1,26 @@
 package nus.iss.team3.backend.businessService.notification;
 
+import java.util.List;
+import nus.iss.team3.backend.entity.ExpiryNotification;
 import nus.iss.team3.backend.entity.Notification;
 
 public interface INotificationBusinessService {
 
   Notification createNotification(Notification notification);
 
+  /**
+   * Creates the notifications in one batch, then pushes them to the sessions of each of their
+   * users, after the transaction commits if there is one.
+   */
+  List<Notification> createNotifications(List<Notification> notifications);
+
+  /**
+   * Creates the ingredient expiry notifications in one batch with their ledger rows, then pushes
+   * the ones created like {@link #createNotifications}. The ones already notified are left out,
+   * null is returned when they could not be created.
+   */
+  List<Notification> createExpiryNotifications(List<ExpiryNotification> expiryNotifications);
+
   boolean markNotificationAsRead(int notificationId, int userId);
 
   boolean markAllNotificationsAsReadForUser(int userId);
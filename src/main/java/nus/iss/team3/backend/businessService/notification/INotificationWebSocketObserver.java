@@ -1,8 +1,11 @@
 package nus.iss.team3.backend.businessService.notification;
 
+import java.util.List;
 import nus.iss.team3.backend.entity.Notification;
 
 public interface INotificationWebSocketObserver {
 
   void sendMessage(String action, int userId, Notification notification);
+
+  void sendMessages(String action, int userId, List<Notification> notifications);
 }
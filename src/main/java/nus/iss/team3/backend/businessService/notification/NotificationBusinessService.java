@@ -1,11 +1,18 @@
 package nus.iss.team3.backend.businessService.notification;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import nus.iss.team3.backend.domainService.notification.INotificationService;
+import nus.iss.team3.backend.entity.ExpiryNotification;
 import nus.iss.team3.backend.entity.Notification;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class NotificationBusinessService implements INotificationBusinessService {
@@ -29,6 +36,27 @@ public class NotificationBusinessService implements INotificationBusinessService
     return null;
   }
 
+  @Override
+  public List<Notification> createNotifications(List<Notification> notifications) {
+    List<Notification> createdNotifications =
+        notificationService.createNotifications(notifications);
+    if (createdNotifications != null) {
+      pushAfterCommit(createdNotifications);
+    }
+    return createdNotifications;
+  }
+
+  @Override
+  public List<Notification> createExpiryNotifications(
+      List<ExpiryNotification> expiryNotifications) {
+    List<Notification> createdNotifications =
+        notificationService.createExpiryNotifications(expiryNotifications);
+    if (createdNotifications != null) {
+      pushAfterCommit(createdNotifications);
+    }
+    return createdNotifications;
+  }
+
   /**
    * @param notificationId
    * @param userId
@@ -58,6 +86,38 @@ public class NotificationBusinessService implements INotificationBusinessService
     return false;
   }
 
+  private void pushAfterCommit(List<Notification> createdNotifications) {
+    Map<Integer, List<Notification>> userNotifications =
+        createdNotifications.stream()
+            .collect(
+                Collectors.groupingBy(
+                    Notification::getUserId, LinkedHashMap::new, Collectors.toList()));
+    // a client told of a notification before it commits would not find it
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              pushToUsers(userNotifications);
+            }
+          });
+    } else {
+      pushToUsers(userNotifications);
+    }
+  }
+
+  private void pushToUsers(Map<Integer, List<Notification>> userNotifications) {
+    userNotifications.forEach(
+        (userId, notifications) -> {
+          try {
+            notificationObserver.sendMessages("create", userId, notifications);
+          } catch (RuntimeException e) {
+            logger.error(
+                "Error pushing {} notifications to user {}", notifications.size(), userId, e);
+          }
+        });
+  }
+
   private void notifyObservers(String message, Integer userId, Notification notification) {
     notificationObserver.sendMessage(message, userId, notification);
   }
@@ -54,6 +54,24 @@ public class NotificationWebSocketObserver extends TextWebSocketHandler
     if (sessions == null || sessions.isEmpty()) {
       return;
     }
+    sendMessage(sessions, action, notification);
+  }
+
+  // the sessions of the user are looked up once for all their notifications
+  @Override
+  public void sendMessages(String action, int userId, List<Notification> notifications) {
+
+    List<WebSocketSession> sessions = userSessions.get(userId);
+    if (sessions == null || sessions.isEmpty()) {
+      return;
+    }
+    for (Notification notification : notifications) {
+      sendMessage(sessions, action, notification);
+    }
+  }
+
+  private void sendMessage(
+      List<WebSocketSession> sessions, String action, Notification notification) {
     for (WebSocketSession session : sessions) {
       if (session != null && session.isOpen()) {
         try {
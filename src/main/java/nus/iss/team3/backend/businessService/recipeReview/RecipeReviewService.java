@@ -2,11 +2,14 @@ package nus.iss.team3.backend.businessService.recipeReview;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import nus.iss.team3.backend.domainService.recipe.IRecipeService;
 import nus.iss.team3.backend.domainService.review.IReviewService;
 import nus.iss.team3.backend.entity.Recipe;
 import nus.iss.team3.backend.entity.RecipeReview;
 import nus.iss.team3.backend.entity.RecipeWithReviews;
+import nus.iss.team3.backend.entity.ReviewPage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Service;
@@ -34,12 +37,17 @@ public class RecipeReviewService implements IRecipeReviewService {
       return null;
     }
 
-    // Get relevant Reviews
-    List<RecipeReview> reviews = reviewService.getReviewsByRecipeId(recipeId);
-    logger.info("Fetched {} reviews for recipe ID: {}", reviews.size(), recipeId);
+    // Get the first page of the relevant Reviews, newest first
+    ReviewPage page =
+        reviewService.getReviewsByRecipeId(recipeId, false, null, ReviewPage.DEFAULT_PAGE_SIZE);
+    logger.info(
+        "Fetched {} of {} reviews for recipe ID: {}",
+        page.getReviews().size(),
+        page.getTotalCount(),
+        recipeId);
 
     // Returns a combination of Recipe and Reviews
-    return new RecipeWithReviews(recipe, reviews);
+    return new RecipeWithReviews(recipe, page.getReviews(), page.getTotalCount());
   }
 
   @Override
@@ -50,12 +58,19 @@ public class RecipeReviewService implements IRecipeReviewService {
     List<Recipe> recipes = recipeService.getAllRecipes();
     List<RecipeWithReviews> recipesWithReviews = new ArrayList<>();
 
+    // Get the first page of the Reviews of all Recipes at once, and group them by Recipe
+    Map<Long, List<RecipeReview>> reviewsByRecipe =
+        reviewService
+            .getReviewsByRecipeIds(
+                recipes.stream().map(Recipe::getId).toList(), ReviewPage.DEFAULT_PAGE_SIZE)
+            .stream()
+            .collect(Collectors.groupingBy(RecipeReview::getRecipeId));
+
     for (Recipe recipe : recipes) {
-      // Get Reviews for each Recipe
-      List<RecipeReview> reviews = reviewService.getReviewsByRecipeId(recipe.getId());
-      // Combining Recipes and Reviews
-      recipesWithReviews.add(new RecipeWithReviews(recipe, reviews));
-      logger.info("Fetched {} all reviews for one recipe ID: {}", reviews.size(), recipe.getId());
+      // Combining Recipes with their Reviews, and the review count maintained on the Recipe
+      List<RecipeReview> reviews = reviewsByRecipe.getOrDefault(recipe.getId(), List.of());
+      long reviewCount = recipe.getReviewCount() == null ? 0 : recipe.getReviewCount();
+      recipesWithReviews.add(new RecipeWithReviews(recipe, reviews, reviewCount));
     }
 
     logger.info("Fetched {} recipes with reviews", recipesWithReviews.size());
@@ -64,31 +79,8 @@ public class RecipeReviewService implements IRecipeReviewService {
 
   @Override
   public void addReview(RecipeReview review) {
-
+    // the review count, rating sum and rating of the recipe follow within a flush of the rating
+    // pipeline
     reviewService.addReview(review);
-
-    // update recipe rating: get all reviews for the recipe, calculate the average rating and update
-    // the recipe
-
-    // not implementing this as a domain event, cause not pub sub....
-    if (review == null || review.getRecipeId() == null) {
-      // unable to continue do rating.
-      return;
-    }
-    List<RecipeReview> reviews = reviewService.getReviewsByRecipeId(review.getRecipeId());
-
-    if (reviews == null || reviews.isEmpty()) {
-      return;
-    }
-    double totalRating = 0;
-    for (RecipeReview r : reviews) {
-      if (r.getRating() == null) {
-        continue;
-      }
-      totalRating += r.getRating();
-    }
-    double avgRating = totalRating / reviews.size();
-
-    recipeService.updateRecipeRating(review.getRecipeId(), avgRating);
   }
 }
@@ -5,7 +5,11 @@ import nus.iss.team3.backend.businessService.ingredient.IIngredientBusinessServi
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -21,15 +25,43 @@ public class ExpiryController {
 
   @Autowired private IIngredientBusinessService ingredientBusinessService;
 
-  @Scheduled(cron = "0 0 0 * * ?")
-  public void checkIngredientsExpiry() {
-    logger.info("executing ingredients expiry check");
-    ingredientBusinessService.checkIngredientsExpiry();
+  @Value("${ingredient.expiry-check.resume-on-startup:true}")
+  private boolean resumeOnStartup;
+
+  // run on a thread of its own, so the other scheduled tasks are not held up by the check. It runs
+  // every few minutes to claim the shards of replicas that died, it finds nothing to do once the
+  // shards of the day are checked
+  @Scheduled(cron = "${ingredient.expiry-check.cron:0 */5 * * * ?}")
+  public void scheduleIngredientsExpiryCheck() {
+    ingredientBusinessService.startIngredientsExpiryCheck("scheduled-ingredient-expiry-check");
+  }
+
+  // the alerts fall due through the day, at the time of day their ingredients expire
+  @Scheduled(fixedDelayString = "${ingredient.expiry-alert.flush-interval-ms:10000}")
+  public void flushExpiryAlerts() {
+    try {
+      ingredientBusinessService.flushExpiryAlerts();
+    } catch (RuntimeException e) {
+      logger.error("Ingredient expiry alert flush failed", e);
+    }
   }
 
+  // a check cut short by a restart is finished, the ingredients it notified are skipped
+  @EventListener(ApplicationReadyEvent.class)
+  public void resumeIngredientsExpiryCheck() {
+    if (resumeOnStartup) {
+      ingredientBusinessService.startIngredientsExpiryCheck("resumed-ingredient-expiry-check");
+    }
+  }
+
+  // accepted once the check is started, it runs on after the response; a conflict when a check is
+  // running already
   @PostMapping("/check")
   public ResponseEntity<?> manualCheck() {
-    checkIngredientsExpiry();
-    return ResponseEntity.ok().build();
+    logger.info("executing ingredients expiry check");
+    if (!ingredientBusinessService.startIngredientsExpiryCheck("manual-ingredient-expiry-check")) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+    return ResponseEntity.accepted().build();
   }
 }
@@ -1,12 +1,16 @@
 package nus.iss.team3.backend.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 import nus.iss.team3.backend.businessService.ingredient.IIngredientBusinessService;
 import nus.iss.team3.backend.domainService.ingredient.IIngredientService;
+import nus.iss.team3.backend.entity.ExpiryCheckShardLease;
+import nus.iss.team3.backend.entity.IngredientExpiryAlert;
 import nus.iss.team3.backend.entity.UserIngredient;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -162,10 +166,90 @@ public class IngredientController {
     }
   }
 
+  @GetMapping("/expiring-not-notified")
+  public ResponseEntity<?> getExpiringIngredientsNotNotified(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate today,
+      @RequestParam List<Integer> days,
+      @RequestParam(defaultValue = "0") int shard,
+      @RequestParam(defaultValue = "1") int shards) {
+    try {
+      List<UserIngredient> expiringIngredients =
+          ingredientService.getExpiringIngredientsNotNotified(today, days, shard, shards);
+      logger.info(
+          "Retrieved {} ingredients expiring in {} days not notified yet",
+          expiringIngredients.size(),
+          days);
+      return new ResponseEntity<>(expiringIngredients, HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Error getting expiring ingredients not notified", e);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+  }
+
+  @PostMapping("/expiry-check/claim")
+  public ResponseEntity<Integer> claimExpiryCheckShard(@RequestBody ExpiryCheckShardLease lease) {
+    try {
+      Integer shard = ingredientService.claimExpiryCheckShard(lease);
+      if (shard == null) {
+        logger.info("No expiry check shard left for {}", lease.getOwner());
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+      }
+      return new ResponseEntity<>(shard, HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Error claiming expiry check shard", e);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+  }
+
+  @PostMapping("/expiry-check/renew")
+  public ResponseEntity<Boolean> renewExpiryCheckShard(@RequestBody ExpiryCheckShardLease lease) {
+    try {
+      return new ResponseEntity<>(ingredientService.renewExpiryCheckShard(lease), HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Error renewing expiry check shard", e);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+  }
+
+  @PostMapping("/expiry-check/complete")
+  public ResponseEntity<Boolean> completeExpiryCheckShard(
+      @RequestBody ExpiryCheckShardLease lease) {
+    try {
+      return new ResponseEntity<>(ingredientService.completeExpiryCheckShard(lease), HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Error completing expiry check shard", e);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+  }
+
+  @PostMapping("/expiry-alert/poll")
+  public ResponseEntity<List<IngredientExpiryAlert>> pollDueExpiryAlerts(@RequestParam int max) {
+    try {
+      return new ResponseEntity<>(ingredientService.pollDueExpiryAlerts(max), HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Error polling due expiry alerts", e);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+  }
+
+  @PostMapping("/expiry-alert/release")
+  public ResponseEntity<Boolean> releaseExpiryAlerts(
+      @RequestBody List<IngredientExpiryAlert> alerts) {
+    try {
+      return new ResponseEntity<>(ingredientService.releaseExpiryAlerts(alerts), HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Error releasing expiry alerts", e);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+  }
+
   @GetMapping("/trigger-expiry-check")
   public ResponseEntity<?> triggerExpiryCheck() {
     try {
-      ingredientBusinessService.checkIngredientsExpiry();
+      if (!ingredientBusinessService.checkIngredientsExpiry()) {
+        logger.info("Manual expiry check skipped, a check is running already");
+        return new ResponseEntity<>(false, HttpStatus.CONFLICT);
+      }
       logger.info("Manual expiry check triggered successfully");
       return new ResponseEntity<>(true, HttpStatus.OK);
     } catch (Exception e) {
@@ -3,6 +3,7 @@ package nus.iss.team3.backend.controller;
 import java.util.List;
 import nus.iss.team3.backend.businessService.notification.INotificationBusinessService;
 import nus.iss.team3.backend.domainService.notification.INotificationService;
+import nus.iss.team3.backend.entity.ExpiryNotification;
 import nus.iss.team3.backend.entity.Notification;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -41,6 +42,55 @@ public class NotificationController {
     }
   }
 
+  @PostMapping("/create-batch")
+  public ResponseEntity<?> createNotifications(@RequestBody List<Notification> notifications) {
+    try {
+      logger.info("Creating {} notifications", notifications == null ? 0 : notifications.size());
+      List<Notification> created = notificationBusinessService.createNotifications(notifications);
+
+      if (created != null) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+      } else {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body("Failed to create notifications");
+      }
+    } catch (IllegalArgumentException e) {
+      logger.error("Invalid notifications", e);
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid notifications");
+    } catch (Exception e) {
+      logger.error("Error creating notifications", e);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body("Error creating notifications");
+    }
+  }
+
+  @PostMapping("/create-expiry-batch")
+  public ResponseEntity<?> createExpiryNotifications(
+      @RequestBody List<ExpiryNotification> expiryNotifications) {
+    try {
+      logger.info(
+          "Creating {} expiry notifications",
+          expiryNotifications == null ? 0 : expiryNotifications.size());
+      // pushed from here, where the sessions of the users are
+      List<Notification> created =
+          notificationBusinessService.createExpiryNotifications(expiryNotifications);
+
+      if (created != null) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+      } else {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body("Failed to create expiry notifications");
+      }
+    } catch (IllegalArgumentException e) {
+      logger.error("Invalid expiry notifications", e);
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid expiry notifications");
+    } catch (Exception e) {
+      logger.error("Error creating expiry notifications", e);
+      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+          .body("Error creating expiry notifications");
+    }
+  }
+
   @GetMapping("/{userId}")
   public ResponseEntity<?> getNotifications(
       @PathVariable int userId, @RequestParam(defaultValue = "10") int limit) {
@@ -1,16 +1,27 @@
 package nus.iss.team3.backend.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import nus.iss.team3.backend.businessService.recipeReview.IRecipeReviewService;
 import nus.iss.team3.backend.domainService.recipe.*;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
+import nus.iss.team3.backend.entity.RecipeSummaryPage;
 import nus.iss.team3.backend.entity.RecipeWithReviews;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controller class to handle web call for recipe related queries.
@@ -31,16 +42,36 @@ public class RecipeController {
 
   private static final String DEAFULT_USER = "-1";
   private static final String DEAFULT_ISBYRATING = "false";
+  private static final String DEAFULT_ISBYSIMILARITY = "false";
+  private static final String DEAFULT_ISBYPANTRY = "false";
   private static final String DEAFULT_ISDESC = "true";
+  // Listings are paged when the request carries a limit, and return the whole list otherwise
+  private static final String PAGED = "limit";
+  // Paged listings return only the fields of a list card with view=summary
+  private static final String SUMMARY_VIEW = "view=summary";
+
+  public static final String EXPORT_FORMAT_JSON = "json";
+  public static final String EXPORT_FORMAT_NDJSON = "ndjson";
+  public static final MediaType MEDIA_TYPE_NDJSON =
+      MediaType.parseMediaType("application/x-ndjson");
+
+  private final ObjectWriter exportWriter;
 
   @Autowired
   public RecipeController(
       IRecipeService recipeService,
       IRecipeReviewService recipeReviewService,
-      IRecipePreferenceContext recipePreferenceContext) {
+      IRecipePreferenceContext recipePreferenceContext,
+      ObjectMapper objectMapper) {
     this.recipeService = recipeService;
     this.recipeReviewService = recipeReviewService;
     this.recipePreferenceContext = recipePreferenceContext;
+    // Let the response buffer decide when to flush, and leave closing the stream to the container
+    this.exportWriter =
+        objectMapper
+            .writerFor(Recipe.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
   }
 
   /**
@@ -161,6 +192,27 @@ public class RecipeController {
     }
   }
 
+  /**
+   * Get one page of all recipes, drafts nested under their main recipe.
+   *
+   * @param limit The page size, capped at RecipePage.MAX_PAGE_SIZE.
+   * @param cursor The nextCursor of the previous page, absent for the first page.
+   * @return Response entity containing the page of recipes.
+   */
+  @GetMapping(params = PAGED)
+  public ResponseEntity<RecipePage> getAllRecipesPage(
+      @RequestParam int limit, @RequestParam(required = false) String cursor) {
+    logger.info("Received request to get recipe page: limit={}, cursor={}", limit, cursor);
+    try {
+      RecipePage page = recipeService.getAllRecipes(cursor, limit);
+      logger.info("Found {} recipes in page", page.getRecipes().size());
+      return new ResponseEntity<>(page, HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Failed to get recipe page: {}", e.getMessage(), e);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+  }
+
   /**
    * Get all published recipes.
    *
@@ -179,6 +231,124 @@ public class RecipeController {
     }
   }
 
+  /**
+   * Get one page of published recipes.
+   *
+   * @param limit The page size, capped at RecipePage.MAX_PAGE_SIZE.
+   * @param cursor The nextCursor of the previous page, absent for the first page.
+   * @return Response entity containing the page of published recipes.
+   */
+  @GetMapping(value = "/published", params = PAGED)
+  public ResponseEntity<RecipePage> getAllPublishedRecipesPage(
+      @RequestParam int limit, @RequestParam(required = false) String cursor) {
+    logger.info("Received request to get published recipe page: limit={}", limit);
+    try {
+      RecipePage page = recipeService.getAllPublishedRecipes(cursor, limit);
+      logger.info("{} published recipes were found in page", page.getRecipes().size());
+      return new ResponseEntity<>(page, HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Failed to get published recipe page: {}", e.getMessage(), e);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+  }
+
+  /**
+   * Get one page of published recipes in the summary view.
+   *
+   * @param limit The page size, capped at RecipePage.MAX_PAGE_SIZE.
+   * @param cursor The nextCursor of the previous page, absent for the first page.
+   * @return Response entity containing the page of published recipe summaries.
+   */
+  @GetMapping(
+      value = "/published",
+      params = {PAGED, SUMMARY_VIEW})
+  public ResponseEntity<RecipeSummaryPage> getAllPublishedRecipeSummaries(
+      @RequestParam int limit, @RequestParam(required = false) String cursor) {
+    logger.info("Received request to get published recipe summary page: limit={}", limit);
+    try {
+      RecipeSummaryPage page = recipeService.getPublishedRecipeSummaries(cursor, limit);
+      logger.info("{} published recipe summaries were found in page", page.getRecipes().size());
+      return new ResponseEntity<>(page, HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Failed to get published recipe summary page: {}", e.getMessage(), e);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+  }
+
+  /**
+   * Search the published recipes by name, cuisine and description, best match first.
+   *
+   * @param q The search text, matched as words and tolerant of typos in the name.
+   * @param limit The maximum number of recipes to return, capped at RecipePage.MAX_PAGE_SIZE.
+   * @return Response entity containing the matching recipes.
+   */
+  @GetMapping("/search")
+  public ResponseEntity<List<Recipe>> searchRecipes(
+      @RequestParam String q,
+      @RequestParam(defaultValue = "" + RecipePage.DEFAULT_PAGE_SIZE) int limit) {
+    logger.info("Received request to search recipes: q={}, limit={}", q, limit);
+    try {
+      List<Recipe> recipes = recipeService.searchRecipes(q, limit);
+      logger.info("{} recipes were found for search", recipes.size());
+      return new ResponseEntity<>(recipes, HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Failed to search recipes: {}", e.getMessage(), e);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+  }
+
+  /**
+   * Export every published recipe, written to the response as it is read from the database, so
+   * memory use does not grow with the size of the catalog.
+   *
+   * @param format "json" for a single JSON array, "ndjson" for one recipe per line.
+   * @return Response entity streaming the published recipes.
+   */
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportPublishedRecipes(
+      @RequestParam(defaultValue = EXPORT_FORMAT_JSON) String format) {
+    logger.info("Received request to export published recipes: format={}", format);
+    boolean isNdjson;
+    if (EXPORT_FORMAT_NDJSON.equalsIgnoreCase(format)) {
+      isNdjson = true;
+    } else if (EXPORT_FORMAT_JSON.equalsIgnoreCase(format)) {
+      isNdjson = false;
+    } else {
+      logger.warn("Unsupported export format: {}", format);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    StreamingResponseBody body =
+        outputStream -> {
+          int[] count = {0};
+          try (SequenceWriter sequenceWriter =
+              isNdjson
+                  ? exportWriter.withRootValueSeparator("\n").writeValues(outputStream)
+                  : exportWriter.writeValuesAsArray(outputStream)) {
+            recipeService.exportPublishedRecipes(
+                recipe -> {
+                  try {
+                    sequenceWriter.write(recipe);
+                    count[0]++;
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+          } catch (UncheckedIOException e) {
+            // the status line is already sent, so all that is left is to log and abort
+            logger.error("Failed to write published recipe export: {}", e.getMessage(), e);
+            throw e.getCause();
+          }
+          if (isNdjson && count[0] > 0) {
+            outputStream.write('\n');
+          }
+          logger.info("{} published recipes were exported", count[0]);
+        };
+    return ResponseEntity.ok()
+        .contentType(isNdjson ? MEDIA_TYPE_NDJSON : MediaType.APPLICATION_JSON)
+        .body(body);
+  }
+
   /**
    * Get all recipes from the same creator by creatorId.
    *
@@ -198,6 +368,30 @@ public class RecipeController {
     }
   }
 
+  /**
+   * Get one page of the recipes from the same creator.
+   *
+   * @param creatorId The creator ID from the path variable.
+   * @param limit The page size, capped at RecipePage.MAX_PAGE_SIZE.
+   * @param cursor The nextCursor of the previous page, absent for the first page.
+   * @return Response entity containing the page of recipes from the creator.
+   */
+  @GetMapping(value = "/creator/{creatorId}", params = PAGED)
+  public ResponseEntity<RecipePage> searchRecipesByCreatorIdPage(
+      @PathVariable int creatorId,
+      @RequestParam int limit,
+      @RequestParam(required = false) String cursor) {
+    logger.info("Received request to retrieve recipe page by creator Id: creatorId={}", creatorId);
+    try {
+      RecipePage page = recipeService.getRecipesByCreatorId(creatorId, cursor, limit);
+      logger.info("Found {} recipes in page under '{}'", page.getRecipes().size(), creatorId);
+      return new ResponseEntity<>(page, HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Failed to search recipe page: {}", e.getMessage(), e);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+  }
+
   /**
    * Get a specific recipe by ID along with its reviews.
    *
@@ -252,21 +446,14 @@ public class RecipeController {
   @GetMapping("/recommend")
   public ResponseEntity<List<Recipe>> getRecipesViaRecommendation(
       @RequestParam(defaultValue = DEAFULT_ISBYRATING) boolean isByRating,
+      @RequestParam(defaultValue = DEAFULT_ISBYSIMILARITY) boolean isBySimilarity,
+      @RequestParam(defaultValue = DEAFULT_ISBYPANTRY) boolean isByPantry,
       @RequestParam(defaultValue = DEAFULT_ISDESC) boolean isDesc,
       @RequestParam(defaultValue = DEAFULT_USER) int userId) {
     try {
       List<Recipe> recipes;
-      if (userId != Integer.parseInt(DEAFULT_USER)) {
-        recipePreferenceContext.setRecommendStrategy(new RecommendByUserReview());
-        logger.info("recommend by user's review start");
-      } else if (isByRating) {
-        recipePreferenceContext.setRecommendStrategy(new RecommendByRating());
-        logger.info("recommend by rating start");
-      } else {
-        recipePreferenceContext.setRecommendStrategy(new RecommendByDifficulty());
-        logger.info("recommend by difficulty start");
-      }
-      recipes = recipePreferenceContext.recommend(recipeService, userId, isDesc);
+      String strategy = selectRecommendStrategy(isByRating, isBySimilarity, isByPantry, userId);
+      recipes = recipePreferenceContext.recommend(strategy, recipeService, userId, isDesc);
       logger.info("Found {} recipes via recommendation", recipes.size());
       return new ResponseEntity<>(recipes, HttpStatus.OK);
     } catch (Exception e) {
@@ -276,6 +463,83 @@ public class RecipeController {
     return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
   }
 
+  /**
+   * Get one page of recipes ordered by preference.
+   *
+   * @return Response entity containing the page of recommended recipes.
+   */
+  @GetMapping(value = "/recommend", params = PAGED)
+  public ResponseEntity<RecipePage> getRecipesViaRecommendationPage(
+      @RequestParam(defaultValue = DEAFULT_ISBYRATING) boolean isByRating,
+      @RequestParam(defaultValue = DEAFULT_ISBYSIMILARITY) boolean isBySimilarity,
+      @RequestParam(defaultValue = DEAFULT_ISBYPANTRY) boolean isByPantry,
+      @RequestParam(defaultValue = DEAFULT_ISDESC) boolean isDesc,
+      @RequestParam(defaultValue = DEAFULT_USER) int userId,
+      @RequestParam int limit,
+      @RequestParam(required = false) String cursor) {
+    try {
+      String strategy = selectRecommendStrategy(isByRating, isBySimilarity, isByPantry, userId);
+      RecipePage page =
+          recipePreferenceContext.recommend(strategy, recipeService, userId, isDesc, cursor, limit);
+      logger.info("Found {} recipes in page via recommendation", page.getRecipes().size());
+      return new ResponseEntity<>(page, HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Failed to search recipe page via recommendation: {}", e.getMessage(), e);
+    }
+
+    return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+  }
+
+  /**
+   * Get one page of recipes ordered by preference, in the summary view.
+   *
+   * @return Response entity containing the page of recommended recipe summaries.
+   */
+  @GetMapping(
+      value = "/recommend",
+      params = {PAGED, SUMMARY_VIEW})
+  public ResponseEntity<RecipeSummaryPage> getRecipeSummariesViaRecommendationPage(
+      @RequestParam(defaultValue = DEAFULT_ISBYRATING) boolean isByRating,
+      @RequestParam(defaultValue = DEAFULT_ISBYSIMILARITY) boolean isBySimilarity,
+      @RequestParam(defaultValue = DEAFULT_ISBYPANTRY) boolean isByPantry,
+      @RequestParam(defaultValue = DEAFULT_ISDESC) boolean isDesc,
+      @RequestParam(defaultValue = DEAFULT_USER) int userId,
+      @RequestParam int limit,
+      @RequestParam(required = false) String cursor) {
+    try {
+      String strategy = selectRecommendStrategy(isByRating, isBySimilarity, isByPantry, userId);
+      RecipeSummaryPage page =
+          recipePreferenceContext.recommendSummaries(
+              strategy, recipeService, userId, isDesc, cursor, limit);
+      logger.info("Found {} recipe summaries in page via recommendation", page.getRecipes().size());
+      return new ResponseEntity<>(page, HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error(
+          "Failed to search recipe summary page via recommendation: {}", e.getMessage(), e);
+    }
+
+    return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+  }
+
+  // the name of the strategy for the request, resolved per request as the strategies are shared
+  private String selectRecommendStrategy(
+      boolean isByRating, boolean isBySimilarity, boolean isByPantry, int userId) {
+    String strategy;
+    if (userId != Integer.parseInt(DEAFULT_USER) && isByPantry) {
+      strategy = IRecipePreferenceContext.STRATEGY_PANTRY;
+    } else if (userId != Integer.parseInt(DEAFULT_USER) && isBySimilarity) {
+      strategy = IRecipePreferenceContext.STRATEGY_SIMILARITY;
+    } else if (userId != Integer.parseInt(DEAFULT_USER)) {
+      strategy = IRecipePreferenceContext.STRATEGY_USER_REVIEW;
+    } else if (isByRating) {
+      strategy = IRecipePreferenceContext.STRATEGY_RATING;
+    } else {
+      strategy = IRecipePreferenceContext.STRATEGY_DIFFICULTY;
+    }
+    logger.info("recommend by {} start", strategy);
+    return strategy;
+  }
+
   @PostMapping("/{id}/rating")
   public ResponseEntity<Boolean> postReviewRating(
       @PathVariable Long id, @RequestBody double rating) {
@@ -290,4 +554,21 @@ public class RecipeController {
       return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
     }
   }
+
+  /**
+   * Recompute the review count, rating sum and rating of every recipe from its reviews.
+   *
+   * @return the number of recipes that were repaired
+   */
+  @PostMapping("/rating/recompute")
+  public ResponseEntity<Integer> recomputeReviewAggregates() {
+    logger.info("Received request to recompute recipe review aggregates");
+    try {
+      int repaired = recipeService.recomputeReviewAggregates();
+      return new ResponseEntity<>(repaired, HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Failed to recompute recipe review aggregates: {}", e.getMessage(), e);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+  }
 }
@@ -4,6 +4,7 @@ import java.util.List;
 import nus.iss.team3.backend.businessService.recipeReview.IRecipeReviewService;
 import nus.iss.team3.backend.domainService.review.IReviewService;
 import nus.iss.team3.backend.entity.RecipeReview;
+import nus.iss.team3.backend.entity.ReviewPage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.http.HttpStatus;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -23,11 +25,15 @@ import org.springframework.web.bind.annotation.RestController;
  * @author Mao Weining
  */
 @RestController
-@RequestMapping("/recipe/{recipeId}/reviews")
+@RequestMapping("/recipe")
 public class ReviewController {
 
   private static final Logger logger = LogManager.getLogger(ReviewController.class);
 
+  private static final String REVIEWS = "/{recipeId}/reviews";
+  // The reviews of a recipe are paged when the request carries a limit
+  private static final String PAGED = "limit";
+
   private final IReviewService reviewService;
 
   private final IRecipeReviewService recipeReviewService;
@@ -44,7 +50,7 @@ public class ReviewController {
    * @param review The review object obtained from the request body.
    * @return Response entity indicating the result of the operation.
    */
-  @PostMapping
+  @PostMapping(REVIEWS)
   public ResponseEntity<String> addReview(
       @PathVariable Long recipeId, @RequestBody RecipeReview review) {
     review.setRecipeId(recipeId);
@@ -70,7 +76,7 @@ public class ReviewController {
    * @param review The updated review object obtained from the request body.
    * @return Response entity indicating the result of the operation.
    */
-  @PutMapping("/{creatorId}")
+  @PutMapping(REVIEWS + "/{creatorId}")
   public ResponseEntity<String> updateReview(
       @PathVariable Long recipeId, @PathVariable Long creatorId, @RequestBody RecipeReview review) {
     review.setRecipeId(recipeId);
@@ -100,7 +106,7 @@ public class ReviewController {
    * @param creatorId The ID of the creator of the review to be deleted.
    * @return Response entity indicating the result of the operation.
    */
-  @DeleteMapping("/{creatorId}")
+  @DeleteMapping(REVIEWS + "/{creatorId}")
   public ResponseEntity<String> deleteReview(
       @PathVariable Long recipeId, @PathVariable Long creatorId) {
     logger.info(
@@ -124,7 +130,7 @@ public class ReviewController {
    * @param recipeId The ID of the recipe for which all reviews are being deleted.
    * @return Response entity indicating the result of the operation.
    */
-  @DeleteMapping
+  @DeleteMapping(REVIEWS)
   public ResponseEntity<String> deleteReviewsByRecipeId(@PathVariable Long recipeId) {
     logger.info("Received request to delete all reviews for recipe ID: {}", recipeId);
     try {
@@ -144,7 +150,7 @@ public class ReviewController {
    * @param creatorId The ID of the creator whose reviews are to be deleted.
    * @return Response entity indicating the result of the operation.
    */
-  @DeleteMapping("/creator/{creatorId}")
+  @DeleteMapping(REVIEWS + "/creator/{creatorId}")
   public ResponseEntity<String> deleteReviewsByCreator(
       @PathVariable Long recipeId, @PathVariable Long creatorId) {
     logger.info("Received request to delete all reviews by creator ID: {}", creatorId);
@@ -166,7 +172,7 @@ public class ReviewController {
    * @param creatorId The ID of the creator of the review.
    * @return Response entity containing the review if found, or a not found status.
    */
-  @GetMapping("/{creatorId}")
+  @GetMapping(REVIEWS + "/{creatorId}")
   public ResponseEntity<RecipeReview> getReviewByRecipeAndCreator(
       @PathVariable Long recipeId, @PathVariable Long creatorId) {
     logger.info(
@@ -187,7 +193,7 @@ public class ReviewController {
    * @param recipeId The ID of the recipe for which reviews are being retrieved.
    * @return Response entity containing the list of reviews for the recipe.
    */
-  @GetMapping
+  @GetMapping(REVIEWS)
   public ResponseEntity<List<RecipeReview>> getReviewsByRecipeId(@PathVariable Long recipeId) {
     logger.info("Received request to get reviews for recipe ID: {}", recipeId);
     List<RecipeReview> reviews = reviewService.getReviewsByRecipeId(recipeId);
@@ -198,13 +204,65 @@ public class ReviewController {
     return new ResponseEntity<>(reviews, HttpStatus.OK);
   }
 
+  /**
+   * Retrieve one page of the reviews for a specific recipe.
+   *
+   * @param recipeId The ID of the recipe for which reviews are being retrieved.
+   * @param isByRating Highest rated first when true, newest first otherwise.
+   * @param limit The maximum number of reviews in the page.
+   * @param cursor The nextCursor of the previous page, absent for the first page.
+   * @return Response entity containing the page of reviews and the total number of reviews.
+   */
+  @GetMapping(value = REVIEWS, params = PAGED)
+  public ResponseEntity<ReviewPage> getReviewsByRecipeIdPage(
+      @PathVariable Long recipeId,
+      @RequestParam(defaultValue = "false") boolean isByRating,
+      @RequestParam int limit,
+      @RequestParam(required = false) String cursor) {
+    logger.info(
+        "Received request to get review page for recipe ID: {}, limit={}, cursor={}",
+        recipeId,
+        limit,
+        cursor);
+    try {
+      ReviewPage page = reviewService.getReviewsByRecipeId(recipeId, isByRating, cursor, limit);
+      logger.info(
+          "Retrieved review page for recipe ID: {}, count: {}", recipeId, page.getReviews().size());
+      return new ResponseEntity<>(page, HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Failed to get review page for recipe ID: {}", recipeId, e);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+  }
+
+  /**
+   * Retrieve the reviews of several recipes in one call.
+   *
+   * @param recipeIds The IDs of the recipes, sent in the body as there may be many.
+   * @param limit The maximum number of reviews of each recipe, the newest.
+   * @return Response entity containing the reviews of the recipes, ordered by recipe.
+   */
+  @PostMapping("/reviews/by-recipe-ids")
+  public ResponseEntity<List<RecipeReview>> getReviewsByRecipeIds(
+      @RequestBody List<Long> recipeIds, @RequestParam int limit) {
+    logger.info(
+        "Received request to get reviews for {} recipes, limit={}", recipeIds.size(), limit);
+    try {
+      List<RecipeReview> reviews = reviewService.getReviewsByRecipeIds(recipeIds, limit);
+      return new ResponseEntity<>(reviews, HttpStatus.OK);
+    } catch (Exception e) {
+      logger.error("Failed to get reviews for {} recipes", recipeIds.size(), e);
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+  }
+
   /**
    * Retrieve all reviews created by a specific creator.
    *
    * @param creatorId The ID of the creator for whom reviews are being retrieved.
    * @return Response entity containing the list of reviews created by the specified creator.
    */
-  @GetMapping("/creator/{creatorId}")
+  @GetMapping(REVIEWS + "/creator/{creatorId}")
   public ResponseEntity<List<RecipeReview>> getReviewsByCreatorId(
       @PathVariable Long recipeId, @PathVariable Long creatorId) {
     logger.info("Received request to get reviews by creator ID: {}", creatorId);
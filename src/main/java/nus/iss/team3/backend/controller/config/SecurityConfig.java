@@ -48,6 +48,8 @@ public class SecurityConfig {
                     .authenticated()
                     .requestMatchers("/user/**")
                     .authenticated()
+                    .requestMatchers("/actuator/**")
+                    .authenticated()
                     .anyRequest()
                     .denyAll())
         .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
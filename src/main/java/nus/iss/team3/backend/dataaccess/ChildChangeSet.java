@@ -0,0 +1,114 @@
+package nus.iss.team3.backend.dataaccess;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import nus.iss.team3.backend.entity.CookingStep;
+import nus.iss.team3.backend.entity.RecipeIngredient;
+
+/**
+ * The writes that bring the stored children of a recipe (its ingredients or cooking steps) in line
+ * with the incoming ones: the rows to insert, the rows to update in place and the ids to delete.
+ * Children that did not change are not written at all.
+ */
+final class ChildChangeSet<T> {
+
+  final List<T> inserts = new ArrayList<>();
+  final List<T> updates = new ArrayList<>();
+  final List<Long> deleteIds = new ArrayList<>();
+
+  private ChildChangeSet() {}
+
+  boolean isEmpty() {
+    return inserts.isEmpty() && updates.isEmpty() && deleteIds.isEmpty();
+  }
+
+  /**
+   * Ingredients are matched by id. An incoming ingredient without a stored id (a new one, or one
+   * copied from another recipe, e.g. a draft) keeps an identical stored row that is not otherwise
+   * matched, instead of replacing it. Matched incoming ingredients take the id of their row.
+   */
+  static ChildChangeSet<RecipeIngredient> forIngredients(
+      List<RecipeIngredient> stored, List<RecipeIngredient> incoming) {
+    ChildChangeSet<RecipeIngredient> changes = new ChildChangeSet<>();
+    Map<Long, RecipeIngredient> unmatched = new LinkedHashMap<>();
+    for (RecipeIngredient ingredient : stored) {
+      unmatched.put(ingredient.getId(), ingredient);
+    }
+
+    List<RecipeIngredient> withoutStoredId = new ArrayList<>();
+    for (RecipeIngredient ingredient : incoming) {
+      RecipeIngredient current =
+          ingredient.getId() == null ? null : unmatched.remove(ingredient.getId());
+      if (current == null) {
+        withoutStoredId.add(ingredient);
+      } else if (!sameIngredient(current, ingredient)) {
+        changes.updates.add(ingredient);
+      }
+    }
+
+    for (RecipeIngredient ingredient : withoutStoredId) {
+      RecipeIngredient identical = removeIdentical(unmatched.values(), ingredient);
+      if (identical != null) {
+        ingredient.setId(identical.getId());
+      } else {
+        ingredient.setId(null);
+        changes.inserts.add(ingredient);
+      }
+    }
+
+    changes.deleteIds.addAll(unmatched.keySet());
+    return changes;
+  }
+
+  /**
+   * Cooking steps are matched by position, as their order is the order of their ids: the first
+   * incoming step rewrites the first stored row if it differs, and so on. Extra incoming steps are
+   * appended, extra stored rows are deleted. Matched incoming steps take the id of their row.
+   */
+  static ChildChangeSet<CookingStep> forCookingSteps(
+      List<CookingStep> stored, List<CookingStep> incoming) {
+    ChildChangeSet<CookingStep> changes = new ChildChangeSet<>();
+    for (int i = 0; i < Math.max(stored.size(), incoming.size()); i++) {
+      if (i >= incoming.size()) {
+        changes.deleteIds.add(stored.get(i).getId());
+        continue;
+      }
+      CookingStep step = incoming.get(i);
+      if (i >= stored.size()) {
+        step.setId(null);
+        changes.inserts.add(step);
+        continue;
+      }
+      CookingStep current = stored.get(i);
+      step.setId(current.getId());
+      if (!Objects.equals(current.getDescription(), step.getDescription())
+          || !Objects.equals(current.getImage(), step.getImage())) {
+        changes.updates.add(step);
+      }
+    }
+    return changes;
+  }
+
+  private static RecipeIngredient removeIdentical(
+      Iterable<RecipeIngredient> candidates, RecipeIngredient ingredient) {
+    Iterator<RecipeIngredient> iterator = candidates.iterator();
+    while (iterator.hasNext()) {
+      RecipeIngredient candidate = iterator.next();
+      if (sameIngredient(candidate, ingredient)) {
+        iterator.remove();
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  private static boolean sameIngredient(RecipeIngredient stored, RecipeIngredient incoming) {
+    return Objects.equals(stored.getName(), incoming.getName())
+        && Objects.equals(stored.getQuantity(), incoming.getQuantity())
+        && Objects.equals(stored.getUom(), incoming.getUom());
+  }
+}
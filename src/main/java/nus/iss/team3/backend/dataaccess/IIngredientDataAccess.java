@@ -1,6 +1,8 @@
 package nus.iss.team3.backend.dataaccess;
 
+import java.time.LocalDate;
 import java.util.List;
+import nus.iss.team3.backend.entity.ExpiryCheckShardLease;
 import nus.iss.team3.backend.entity.UserIngredient;
 
 /**
@@ -24,4 +26,24 @@ public interface IIngredientDataAccess {
   boolean deleteIngredientsByUser(int userId);
 
   List<UserIngredient> getExpiringIngredientsInRange();
+
+  /**
+   * The ingredients of the users in the shard (user id mod shardCount) expiring the given numbers
+   * of days after today, leaving out the ones already notified for that number of days, see the
+   * ingredient expiry notification ledger
+   */
+  List<UserIngredient> getExpiringIngredientsNotNotified(
+      LocalDate today, List<Integer> daysBuckets, int shard, int shardCount);
+
+  /**
+   * Lease a shard of the expiry check of the run date to the owner, one that is neither completed
+   * nor leased to another owner, returns the shard or null when there is none left
+   */
+  Integer claimExpiryCheckShard(ExpiryCheckShardLease lease);
+
+  /** Extend the lease of the owner on the shard, false when the owner lost it */
+  boolean renewExpiryCheckShard(ExpiryCheckShardLease lease);
+
+  /** Mark the shard leased to the owner checked, false when the owner lost it */
+  boolean completeExpiryCheckShard(ExpiryCheckShardLease lease);
 }
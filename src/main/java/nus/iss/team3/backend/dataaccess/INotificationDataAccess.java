@@ -1,6 +1,7 @@
 package nus.iss.team3.backend.dataaccess;
 
 import java.util.List;
+import nus.iss.team3.backend.entity.ExpiryNotification;
 import nus.iss.team3.backend.entity.Notification;
 
 public interface INotificationDataAccess {
@@ -18,4 +19,18 @@ public interface INotificationDataAccess {
   boolean markAllNotificationsAsReadForUser(Integer userId);
 
   Notification createNotification(Notification notification);
+
+  /**
+   * Creates the notifications in one batch, setting the id and create time of each, returns null
+   * when they could not be created
+   */
+  List<Notification> createNotifications(List<Notification> notifications);
+
+  /**
+   * Creates the ingredient expiry notifications in one batch together with the ledger rows of the
+   * ingredients they notify, in one transaction. A notification with an ingredient already in the
+   * ledger is left out, with its ledger rows; returns the notifications created, throwing
+   * IllegalStateException, and creating nothing, when they could not be created
+   */
+  List<Notification> createExpiryNotifications(List<ExpiryNotification> expiryNotifications);
 }
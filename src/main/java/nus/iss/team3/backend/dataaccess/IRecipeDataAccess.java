@@ -1,7 +1,13 @@
 package nus.iss.team3.backend.dataaccess;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipeIngredient;
+import nus.iss.team3.backend.entity.RecipeScore;
+import nus.iss.team3.backend.entity.RecipeSummary;
+import nus.iss.team3.backend.entity.ReviewAggregateDelta;
 
 /**
  * Interface class for RecipeDataAccess, should contain all functionality needed for recipe.
@@ -20,17 +26,99 @@ public interface IRecipeDataAccess {
 
   Recipe getRecipeByDraftId(Long draftRecipeId);
 
+  /**
+   * Get the recipe with its ingredients and cooking steps, and its draft recipe (if any) with the
+   * draft's ingredients and cooking steps.
+   */
+  Recipe getRecipeGraphById(Long recipeId);
+
   List<Recipe> getAllRecipes();
 
   List<Recipe> getAllPublishedRecipes();
 
   List<Recipe> getRecipesByName(String name);
 
+  /**
+   * Ranked search of the published recipes by name, cuisine and description, best match first.
+   * Returns at most {@code limit} recipes.
+   */
+  List<Recipe> searchPublishedRecipes(String query, int limit);
+
   List<Recipe> getRecipeByCreatorId(int creatorId);
 
+  /** The id and rating of each recipe of the creator, without loading the recipes. */
+  List<RecipeScore> getRecipeRatingsByCreatorId(int creatorId);
+
   List<Recipe> getAllPublishedRecipesByDifficulty(boolean isDesc);
 
   List<Recipe> getAllPublishedRecipesByRating(boolean isDesc);
 
   boolean updateRecipeRating(Long recipeId, double rating);
+
+  /**
+   * Recompute the review count, rating sum and rating of every recipe from its reviews, for when
+   * the aggregates kept by the review writes have drifted.
+   *
+   * @return the number of recipes that were repaired
+   */
+  int recomputeReviewAggregates();
+
+  /**
+   * Add the review deltas to the review aggregates and rating of their recipes, at most one delta
+   * per recipe. A delta of a recipe recomputed since its writes were made is not applied.
+   *
+   * @return the number of recipes updated
+   */
+  int applyReviewAggregateDeltas(Collection<ReviewAggregateDelta> deltas);
+
+  /**
+   * Recompute the review aggregates of the recipes whose review writes are still not applied
+   * lostAfterMillis after the first of them, their deltas lost with the process that queued them.
+   *
+   * @return the ids of the recipes recomputed
+   */
+  List<Long> recomputeLostReviewAggregates(long lostAfterMillis);
+
+  /** Get the recipes with the given ids, with their ingredients and cooking steps. */
+  List<Recipe> getRecipesByIds(Collection<Long> recipeIds);
+
+  /**
+   * Keyset paged variants of the list queries. Each returns at most {@code limit} recipes that come
+   * after the given sort key and id, in the same order as the key.
+   */
+  List<Recipe> getRecipesPage(long afterId, int limit);
+
+  List<Recipe> getPublishedRecipesPage(long afterId, int limit);
+
+  List<Recipe> getRecipesByCreatorIdPage(int creatorId, long afterId, int limit);
+
+  List<Recipe> getPublishedRecipesByDifficultyPage(
+      boolean isDesc, int afterDifficulty, long afterId, int limit);
+
+  List<Recipe> getPublishedRecipesByRatingPage(
+      boolean isDesc, double afterRating, long afterId, int limit);
+
+  /**
+   * Summary views of the published keyset pages: the same rows in the same order, with only the
+   * columns of a list card and without ingredients, cooking steps or draft.
+   */
+  List<RecipeSummary> getPublishedRecipeSummariesPage(long afterId, int limit);
+
+  List<RecipeSummary> getPublishedRecipeSummariesByDifficultyPage(
+      boolean isDesc, int afterDifficulty, long afterId, int limit);
+
+  List<RecipeSummary> getPublishedRecipeSummariesByRatingPage(
+      boolean isDesc, double afterRating, long afterId, int limit);
+
+  /**
+   * Read every published recipe, in id order, handing each one (with its ingredients and cooking
+   * steps) to the consumer without holding the whole catalog in memory.
+   */
+  void streamAllPublishedRecipes(Consumer<Recipe> consumer);
+
+  /**
+   * Read the ingredients of every published recipe, in recipe id order, handing each one to the
+   * consumer. Only the recipe id and name of an ingredient are read.
+   */
+  void streamPublishedRecipeIngredients(Consumer<RecipeIngredient> consumer);
 }
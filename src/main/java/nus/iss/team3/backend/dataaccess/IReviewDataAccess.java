@@ -1,7 +1,11 @@
 package nus.iss.team3.backend.dataaccess;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import nus.iss.team3.backend.entity.RecipeReview;
+import nus.iss.team3.backend.entity.ReviewAggregateDelta;
 
 /**
  * Interface class for RecipeReviewDataAccess, should contain all functionality needed for recipe.
@@ -10,19 +14,43 @@ import nus.iss.team3.backend.entity.RecipeReview;
  */
 public interface IReviewDataAccess {
 
-  void addReview(RecipeReview review);
+  // Review writes return the changes they made to the review aggregates of the recipes, one delta
+  // per recipe, which are left to the caller to apply to the recipes. None if nothing changed.
+  List<ReviewAggregateDelta> addReview(RecipeReview review);
 
-  void updateReview(Long recipeId, Long creatorId, RecipeReview review);
+  List<ReviewAggregateDelta> updateReview(Long recipeId, Long creatorId, RecipeReview review);
 
-  void deleteReview(Long recipeId, Long creatorId);
+  List<ReviewAggregateDelta> deleteReview(Long recipeId, Long creatorId);
 
-  void deleteReviewsByRecipeId(Long recipeId);
+  List<ReviewAggregateDelta> deleteReviewsByRecipeId(Long recipeId);
 
-  void deleteReviewsByCreatorId(Long creatorId);
+  List<ReviewAggregateDelta> deleteReviewsByCreatorId(Long creatorId);
 
   RecipeReview getReviewByRecipeAndCreator(Long recipeId, Long creatorId);
 
   List<RecipeReview> getReviewsByRecipeId(Long recipeId);
 
+  /** Get the newest limitPerRecipe reviews of each of several recipes, ordered by recipe. */
+  List<RecipeReview> getReviewsByRecipeIds(Collection<Long> recipeIds, int limitPerRecipe);
+
+  /**
+   * Keyset paged reviews of a recipe. Each returns at most {@code limit} reviews that come after
+   * the given sort key and id, newest or highest rated first.
+   */
+  List<RecipeReview> getNewestReviewsPage(
+      Long recipeId, Timestamp afterCreateDatetime, long afterId, int limit);
+
+  List<RecipeReview> getTopRatedReviewsPage(
+      Long recipeId, double afterRating, long afterId, int limit);
+
+  /** Get the number of reviews of a recipe, 0 if there is no such recipe. */
+  long countReviewsByRecipeId(Long recipeId);
+
   List<RecipeReview> getReviewsByCreatorId(Long creatorId);
+
+  /**
+   * Hand the recipe, creator and rating of every review of a published recipe to the consumer, in
+   * recipe then creator order, without holding them all in memory.
+   */
+  void streamPublishedRecipeRatings(Consumer<RecipeReview> consumer);
 }
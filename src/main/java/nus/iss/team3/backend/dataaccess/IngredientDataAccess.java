@@ -1,17 +1,24 @@
 package nus.iss.team3.backend.dataaccess;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import nus.iss.team3.backend.dataaccess.postgres.IPostgresDataAccess;
+import nus.iss.team3.backend.dataaccess.postgres.IndexedRowMapper;
+import nus.iss.team3.backend.entity.ExpiryCheckShardLease;
 import nus.iss.team3.backend.entity.UserIngredient;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository class to connect to postgres for ingredient Data
@@ -38,10 +45,13 @@ public class IngredientDataAccess implements IIngredientDataAccess {
     sqlInput.put(PostgresSqlStatement.INPUT_INGREDIENT_QUANTITY, ingredient.getQuantity());
     sqlInput.put(PostgresSqlStatement.INPUT_INGREDIENT_EXPIRY_DATE, ingredient.getExpiryDate());
 
-    int result =
-        postgresDataAccess.upsertStatement(PostgresSqlStatement.SQL_INGREDIENT_ADD, sqlInput);
+    // the id is set on the ingredient, so its expiry alerts can be scheduled
+    List<Integer> result =
+        postgresDataAccess.queryStatement(
+            PostgresSqlStatement.SQL_INGREDIENT_ADD, sqlInput, (rs, rowNum) -> rs.getInt(1));
 
-    if (result == 1) {
+    if (result != null && result.size() == 1) {
+      ingredient.setId(result.getFirst());
       logger.info("ingredient created for {}", ingredient.getId());
 
       return true;
@@ -110,8 +120,9 @@ public class IngredientDataAccess implements IIngredientDataAccess {
     Map<String, Object> sqlInput = new HashMap<>();
     sqlInput.put(PostgresSqlStatement.INPUT_INGREDIENT_ID, id);
 
-    List<Map<String, Object>> entityReturned =
-        postgresDataAccess.queryStatement(PostgresSqlStatement.SQL_INGREDIENT_GET_BY_ID, sqlInput);
+    List<UserIngredient> entityReturned =
+        postgresDataAccess.queryStatement(
+            PostgresSqlStatement.SQL_INGREDIENT_GET_BY_ID, sqlInput, new UserIngredientRowMapper());
 
     if (entityReturned == null) {
       logger.error("no entity found for id {}", id);
@@ -119,7 +130,7 @@ public class IngredientDataAccess implements IIngredientDataAccess {
     }
 
     if (entityReturned.size() == 1) {
-      return translateDBRecordToIngredient(entityReturned.getFirst());
+      return entityReturned.getFirst();
     }
 
     return null;
@@ -133,18 +144,16 @@ public class IngredientDataAccess implements IIngredientDataAccess {
   public List<UserIngredient> getIngredientsByName(String name) {
     Map<String, Object> sqlInput = new HashMap<>();
     sqlInput.put(PostgresSqlStatement.INPUT_INGREDIENT_NAME, name);
-    List<Map<String, Object>> entityReturned =
+    List<UserIngredient> entityReturned =
         postgresDataAccess.queryStatement(
-            PostgresSqlStatement.SQL_INGREDIENTS_GET_BY_NAME, sqlInput);
-    List<UserIngredient> returnList = new ArrayList<>();
-    if (entityReturned != null) {
-      for (Map<String, Object> entity : entityReturned) {
-        returnList.add(translateDBRecordToIngredient(entity));
-      }
-    } else {
+            PostgresSqlStatement.SQL_INGREDIENTS_GET_BY_NAME,
+            sqlInput,
+            new UserIngredientRowMapper());
+    if (entityReturned == null) {
       logger.error("No ingredients found for name {}", name);
+      return new ArrayList<>();
     }
-    return returnList;
+    return entityReturned;
   }
 
   /**
@@ -156,18 +165,16 @@ public class IngredientDataAccess implements IIngredientDataAccess {
     Map<String, Object> sqlInput = new HashMap<>();
     sqlInput.put(PostgresSqlStatement.INPUT_INGREDIENT_USER_ACCOUNT_ID, userId);
 
-    List<Map<String, Object>> entityReturned =
+    List<UserIngredient> entityReturned =
         postgresDataAccess.queryStatement(
-            PostgresSqlStatement.SQL_INGREDIENTS_GET_BY_USER_ID, sqlInput);
+            PostgresSqlStatement.SQL_INGREDIENTS_GET_BY_USER_ID,
+            sqlInput,
+            new UserIngredientRowMapper());
     if (entityReturned == null) {
       logger.error("No ingredients found for user {}", userId);
       return new ArrayList<>();
     }
-    List<UserIngredient> returnList = new ArrayList<>();
-    for (Map<String, Object> entity : entityReturned) {
-      returnList.add(translateDBRecordToIngredient(entity));
-    }
-    return returnList;
+    return entityReturned;
   }
 
   @Override
@@ -191,70 +198,142 @@ public class IngredientDataAccess implements IIngredientDataAccess {
     return false;
   }
 
-  // private functions
-  private UserIngredient translateDBRecordToIngredient(Map<String, Object> entity) {
-    UserIngredient returnItem = new UserIngredient();
-
-    if (entity.containsKey(PostgresSqlStatement.COLUMN_INGREDIENT_ID)
-        && (entity.get(PostgresSqlStatement.COLUMN_INGREDIENT_ID) instanceof Integer)) {
-      returnItem.setId((Integer) entity.get(PostgresSqlStatement.COLUMN_INGREDIENT_ID));
-    }
-
-    if (entity.containsKey(PostgresSqlStatement.COLUMN_USER_ID)
-        && (entity.get(PostgresSqlStatement.COLUMN_USER_ID) instanceof Integer)) {
-      returnItem.setUserId((Integer) entity.get(PostgresSqlStatement.COLUMN_USER_ID));
-    }
-
-    if (entity.containsKey(PostgresSqlStatement.COLUMN_INGREDIENT_NAME)
-        && (entity.get(PostgresSqlStatement.COLUMN_INGREDIENT_NAME) instanceof String)) {
-      returnItem.setName((String) entity.get(PostgresSqlStatement.COLUMN_INGREDIENT_NAME));
-    }
+  @Override
+  public List<UserIngredient> getExpiringIngredientsInRange() {
+    List<UserIngredient> entityReturned =
+        postgresDataAccess.queryStatement(
+            PostgresSqlStatement.SQL_GET_EXPIRING_INGREDIENTS,
+            new HashMap<>(),
+            new UserIngredientRowMapper());
 
-    if (entity.containsKey(PostgresSqlStatement.COLUMN_INGREDIENT_QUANTITY)
-        && (entity.get(PostgresSqlStatement.COLUMN_INGREDIENT_QUANTITY) instanceof Double)) {
-      returnItem.setQuantity((Double) entity.get(PostgresSqlStatement.COLUMN_INGREDIENT_QUANTITY));
+    if (entityReturned == null) {
+      logger.error("No expiring ingredients found");
+      return new ArrayList<>();
     }
+    return entityReturned;
+  }
 
-    if (entity.containsKey(PostgresSqlStatement.COLUMN_INGREDIENT_UOM)
-        && (entity.get(PostgresSqlStatement.COLUMN_INGREDIENT_UOM) instanceof String)) {
-      returnItem.setUom((String) entity.get(PostgresSqlStatement.COLUMN_INGREDIENT_UOM));
+  @Override
+  public List<UserIngredient> getExpiringIngredientsNotNotified(
+      LocalDate today, List<Integer> daysBuckets, int shard, int shardCount) {
+    if (daysBuckets == null || daysBuckets.isEmpty()) {
+      return new ArrayList<>();
     }
+    Map<String, Object> sqlInput = new HashMap<>();
+    sqlInput.put(PostgresSqlStatement.INPUT_EXPIRY_TODAY, today);
+    // the range lets the expiry date index narrow the rows before the buckets are matched
+    sqlInput.put(
+        PostgresSqlStatement.INPUT_EXPIRY_FROM_DATE, today.plusDays(Collections.min(daysBuckets)));
+    sqlInput.put(
+        PostgresSqlStatement.INPUT_EXPIRY_TO_DATE,
+        today.plusDays(Collections.max(daysBuckets) + 1));
+    sqlInput.put(PostgresSqlStatement.INPUT_EXPIRY_DAYS_BUCKETS, daysBuckets);
+    sqlInput.put(PostgresSqlStatement.INPUT_EXPIRY_SHARD, shard);
+    sqlInput.put(PostgresSqlStatement.INPUT_EXPIRY_SHARD_COUNT, shardCount);
+
+    List<UserIngredient> entityReturned =
+        postgresDataAccess.queryStatement(
+            PostgresSqlStatement.SQL_GET_EXPIRING_INGREDIENTS_NOT_NOTIFIED,
+            sqlInput,
+            new UserIngredientRowMapper());
 
-    if (entity.containsKey(PostgresSqlStatement.COLUMN_INGREDIENT_EXPIRY_DATE)
-        && (entity.get(PostgresSqlStatement.COLUMN_INGREDIENT_EXPIRY_DATE) instanceof Date)) {
-      returnItem.setExpiryDate(
-          (Date) entity.get(PostgresSqlStatement.COLUMN_INGREDIENT_EXPIRY_DATE));
+    if (entityReturned == null) {
+      logger.error("No expiring ingredients found");
+      return new ArrayList<>();
     }
+    return entityReturned;
+  }
 
-    if (entity.containsKey(PostgresSqlStatement.COLUMN_INGREDIENT_CREATE_DATETIME)
-        && (entity.get(PostgresSqlStatement.COLUMN_INGREDIENT_CREATE_DATETIME)
-            instanceof java.sql.Timestamp timestamp)) {
-      returnItem.setCreateDateTime(timestamp.toInstant().atZone(ZoneId.systemDefault()));
+  @Override
+  @Transactional
+  public Integer claimExpiryCheckShard(ExpiryCheckShardLease lease) {
+    Map<String, Object> sqlInput = shardLeaseInput(lease);
+    postgresDataAccess.upsertStatement(
+        PostgresSqlStatement.SQL_EXPIRY_CHECK_SHARD_DELETE_BEFORE, sqlInput);
+    postgresDataAccess.upsertStatement(
+        PostgresSqlStatement.SQL_EXPIRY_CHECK_SHARD_CREATE, sqlInput);
+
+    List<Integer> claimed =
+        postgresDataAccess.queryStatement(
+            PostgresSqlStatement.SQL_EXPIRY_CHECK_SHARD_CLAIM,
+            sqlInput,
+            (rs, rowNum) -> rs.getInt(1));
+    if (claimed == null || claimed.isEmpty()) {
+      logger.info("No expiry check shard left to claim for {}", lease.getRunDate());
+      return null;
     }
+    logger.info(
+        "Expiry check shard {} of {} claimed by {}",
+        claimed.getFirst(),
+        lease.getRunDate(),
+        lease.getOwner());
+    return claimed.getFirst();
+  }
 
-    if (entity.containsKey(PostgresSqlStatement.COLUMN_INGREDIENT_UPDATE_DATETIME)
-        && (entity.get(PostgresSqlStatement.COLUMN_INGREDIENT_UPDATE_DATETIME)
-            instanceof java.sql.Timestamp timestamp)) {
-      returnItem.setUpdateDateTime(timestamp.toInstant().atZone(ZoneId.systemDefault()));
-    }
-    return returnItem;
+  @Override
+  public boolean renewExpiryCheckShard(ExpiryCheckShardLease lease) {
+    int result =
+        postgresDataAccess.upsertStatement(
+            PostgresSqlStatement.SQL_EXPIRY_CHECK_SHARD_RENEW, shardLeaseInput(lease));
+    return result == 1;
   }
 
   @Override
-  public List<UserIngredient> getExpiringIngredientsInRange() {
-    List<Map<String, Object>> entityReturned =
-        postgresDataAccess.queryStatement(
-            PostgresSqlStatement.SQL_GET_EXPIRING_INGREDIENTS, new HashMap<>());
+  public boolean completeExpiryCheckShard(ExpiryCheckShardLease lease) {
+    int result =
+        postgresDataAccess.upsertStatement(
+            PostgresSqlStatement.SQL_EXPIRY_CHECK_SHARD_COMPLETE, shardLeaseInput(lease));
+    return result == 1;
+  }
 
-    if (entityReturned == null) {
-      logger.error("No expiring ingredients found");
-      return new ArrayList<>();
-    }
+  private static Map<String, Object> shardLeaseInput(ExpiryCheckShardLease lease) {
+    Map<String, Object> sqlInput = new HashMap<>();
+    sqlInput.put(PostgresSqlStatement.INPUT_EXPIRY_CHECK_SHARD_RUN_DATE, lease.getRunDate());
+    sqlInput.put(PostgresSqlStatement.INPUT_EXPIRY_CHECK_SHARD_SHARD, lease.getShard());
+    sqlInput.put(PostgresSqlStatement.INPUT_EXPIRY_CHECK_SHARD_SHARD_COUNT, lease.getShardCount());
+    sqlInput.put(PostgresSqlStatement.INPUT_EXPIRY_CHECK_SHARD_OWNER, lease.getOwner());
+    sqlInput.put(
+        PostgresSqlStatement.INPUT_EXPIRY_CHECK_SHARD_LEASE_MILLIS, lease.getLeaseMillis());
+    return sqlInput;
+  }
 
-    List<UserIngredient> returnList = new ArrayList<>();
-    for (Map<String, Object> entity : entityReturned) {
-      returnList.add(translateDBRecordToIngredient(entity));
+  // Maps a user ingredient row, reading each column by position
+  static class UserIngredientRowMapper extends IndexedRowMapper<UserIngredient> {
+    private final int id = column(PostgresSqlStatement.COLUMN_INGREDIENT_ID);
+    private final int userId = column(PostgresSqlStatement.COLUMN_USER_ID);
+    private final int name = column(PostgresSqlStatement.COLUMN_INGREDIENT_NAME);
+    private final int quantity = column(PostgresSqlStatement.COLUMN_INGREDIENT_QUANTITY);
+    private final int uom = column(PostgresSqlStatement.COLUMN_INGREDIENT_UOM);
+    private final int expiryDate = column(PostgresSqlStatement.COLUMN_INGREDIENT_EXPIRY_DATE);
+    private final int createDatetime =
+        column(PostgresSqlStatement.COLUMN_INGREDIENT_CREATE_DATETIME);
+    private final int updateDatetime =
+        column(PostgresSqlStatement.COLUMN_INGREDIENT_UPDATE_DATETIME);
+
+    @Override
+    protected UserIngredient map(ResultSet rs) throws SQLException {
+      UserIngredient returnItem = new UserIngredient();
+      Integer idValue = getInteger(rs, id);
+      if (idValue != null) {
+        returnItem.setId(idValue);
+      }
+      Integer userIdValue = getInteger(rs, userId);
+      if (userIdValue != null) {
+        returnItem.setUserId(userIdValue);
+      }
+      returnItem.setName(getString(rs, name));
+      returnItem.setQuantity(getDouble(rs, quantity));
+      returnItem.setUom(getString(rs, uom));
+      returnItem.setExpiryDate(getDate(rs, expiryDate));
+      Timestamp created = getTimestamp(rs, createDatetime);
+      if (created != null) {
+        returnItem.setCreateDateTime(created.toInstant().atZone(ZoneId.systemDefault()));
+      }
+      Timestamp updated = getTimestamp(rs, updateDatetime);
+      if (updated != null) {
+        returnItem.setUpdateDateTime(updated.toInstant().atZone(ZoneId.systemDefault()));
+      }
+      return returnItem;
     }
-    return returnList;
   }
 }
@@ -2,19 +2,31 @@ package nus.iss.team3.backend.dataaccess;
 
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatement.*;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import nus.iss.team3.backend.dataaccess.postgres.IPostgresDataAccess;
+import nus.iss.team3.backend.dataaccess.postgres.IndexedRowMapper;
 import nus.iss.team3.backend.entity.ENotificationType;
+import nus.iss.team3.backend.entity.ExpiryNotification;
+import nus.iss.team3.backend.entity.IngredientExpiryNotice;
 import nus.iss.team3.backend.entity.Notification;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public class NotificationDataAccess implements INotificationDataAccess {
@@ -30,13 +42,14 @@ public class NotificationDataAccess implements INotificationDataAccess {
       Map<String, Object> sqlInput = new HashMap<>();
       sqlInput.put(INPUT_NOTIFICATION_USER_ID, userId);
       sqlInput.put("limit", limit);
-      List<Map<String, Object>> result =
-          postgresDataAccess.queryStatement(SQL_NOTIFICATION_GET_FOR_USER, sqlInput);
+      List<Notification> result =
+          postgresDataAccess.queryStatement(
+              SQL_NOTIFICATION_GET_FOR_USER, sqlInput, new NotificationRowMapper());
       if (result == null || result.isEmpty()) {
         logger.warn("Query returned null for user ID: {}. Returning empty list.", userId);
         return Collections.emptyList();
       }
-      return result.stream().map(this::translateDBRecordToNotification).toList();
+      return result;
     } catch (DataAccessException e) {
       logger.error("Error getting notifications for user ID: {}", userId, e);
       return Collections.emptyList();
@@ -48,11 +61,10 @@ public class NotificationDataAccess implements INotificationDataAccess {
     try {
       Map<String, Object> sqlInput = new HashMap<>();
       sqlInput.put(INPUT_NOTIFICATION_USER_ID, userId);
-      List<Map<String, Object>> result =
-          postgresDataAccess.queryStatement(SQL_NOTIFICATION_GET_UNREAD_COUNT, sqlInput);
-      return (result == null || result.isEmpty())
-          ? 0
-          : ((Number) result.getFirst().get("count")).intValue();
+      List<Integer> result =
+          postgresDataAccess.queryStatement(
+              SQL_NOTIFICATION_GET_UNREAD_COUNT, sqlInput, (rs, rowNum) -> rs.getInt(1));
+      return (result == null || result.isEmpty()) ? 0 : result.getFirst();
     } catch (DataAccessException e) {
       logger.error("Error getting unread notification count for user ID: {}", userId, e);
       return 0;
@@ -91,22 +103,18 @@ public class NotificationDataAccess implements INotificationDataAccess {
   @Override
   public Notification createNotification(Notification notification) {
     try {
-      Map<String, Object> sqlInput = new HashMap<>();
-      sqlInput.put(INPUT_NOTIFICATION_USER_ID, notification.getUserId());
-      sqlInput.put(INPUT_NOTIFICATION_TITLE, notification.getTitle());
-      sqlInput.put(INPUT_NOTIFICATION_CONTENT, notification.getContent());
-      sqlInput.put(INPUT_NOTIFICATION_TYPE, notification.getType().name());
-      sqlInput.put(INPUT_NOTIFICATION_IS_READ, notification.getIsRead());
+      Map<String, Object> sqlInput = notificationInput(notification);
 
       logger.info("SQL parameters: {}", sqlInput);
 
-      List<Map<String, Object>> result =
-          postgresDataAccess.queryStatement(SQL_NOTIFICATION_ADD, sqlInput);
+      List<Notification> result =
+          postgresDataAccess.queryStatement(
+              SQL_NOTIFICATION_ADD, sqlInput, new NotificationRowMapper());
       if (result == null || result.isEmpty()) {
         logger.error("Error creating notification for user ID: {}", notification.getUserId());
         return null;
       }
-      Notification temp = translateDBRecordToNotification(result.getFirst());
+      Notification temp = result.getFirst();
 
       notification.setId(temp.getId());
       notification.setCreateDateTime(temp.getCreateDateTime());
@@ -121,33 +129,206 @@ public class NotificationDataAccess implements INotificationDataAccess {
     }
   }
 
-  private Notification translateDBRecordToNotification(Map<String, Object> entity) {
-    Notification notification = new Notification();
-    if (entity.containsKey(COLUMN_NOTIFICATION_ID)) {
-      notification.setId((Integer) entity.get(COLUMN_NOTIFICATION_ID));
+  // one JDBC batch, the ids and create times coming back as its generated keys
+  @Override
+  @Transactional
+  public List<Notification> createNotifications(List<Notification> notifications) {
+    List<Map<String, Object>> sqlInputs = new ArrayList<>(notifications.size());
+    for (Notification notification : notifications) {
+      sqlInputs.add(notificationInput(notification));
+    }
+    List<Map<String, Object>> keys =
+        postgresDataAccess.batchInsertStatement(
+            SQL_NOTIFICATION_ADD_BATCH,
+            sqlInputs,
+            COLUMN_NOTIFICATION_ID,
+            COLUMN_NOTIFICATION_CREATE_DATETIME);
+    if (keys == null || keys.size() != notifications.size()) {
+      logger.error("Error creating {} notifications", notifications.size());
+      return null;
+    }
+    for (int i = 0; i < notifications.size(); i++) {
+      Notification notification = notifications.get(i);
+      notification.setId(((Number) keys.get(i).get(COLUMN_NOTIFICATION_ID)).intValue());
+      Timestamp created = (Timestamp) keys.get(i).get(COLUMN_NOTIFICATION_CREATE_DATETIME);
+      notification.setCreateDateTime(created.toInstant().atZone(ZoneId.systemDefault()));
+    }
+    logger.info("Created {} notifications", notifications.size());
+    return notifications;
+  }
+
+  // a transaction of its own, so a failed batch does not roll back the others of the expiry check
+  // running it
+  @Override
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public List<Notification> createExpiryNotifications(
+      List<ExpiryNotification> expiryNotifications) {
+    // every replica holds the alerts falling due, the ones waiting here for the first find its
+    // ledger rows and leave the notifications out before inserting them
+    if (postgresDataAccess.queryStatement(
+            SQL_EXPIRY_NOTIFICATION_LOCK_USERS,
+            noticeInput(expiryNotifications, false),
+            (rs, rowNum) -> rowNum)
+        == null) {
+      throw new IllegalStateException("Failed to lock the expiry notifications of the users");
+    }
+    List<IngredientExpiryNotice> notified =
+        postgresDataAccess.queryStatement(
+            SQL_EXPIRY_NOTIFICATION_GET_NOTIFIED,
+            noticeInput(expiryNotifications, false),
+            new ExpiryNoticeRowMapper());
+    if (notified == null) {
+      throw new IllegalStateException("Failed to read the expiry ledger");
+    }
+    Set<IngredientExpiryNotice> sent = new HashSet<>(notified);
+    List<ExpiryNotification> unsent =
+        expiryNotifications.stream()
+            .filter(n -> n.getNotices().stream().noneMatch(sent::contains))
+            .toList();
+    if (unsent.size() < expiryNotifications.size()) {
+      logger.info(
+          "Left out {} expiry notifications already sent",
+          expiryNotifications.size() - unsent.size());
+    }
+    if (unsent.isEmpty()) {
+      return new ArrayList<>();
     }
-    if (entity.containsKey(COLUMN_NOTIFICATION_USER_ID)) {
-      notification.setUserId((Integer) entity.get(COLUMN_NOTIFICATION_USER_ID));
+
+    List<Notification> notifications =
+        unsent.stream().map(ExpiryNotification::getNotification).toList();
+    if (createNotifications(notifications) == null) {
+      throw new IllegalStateException(
+          "Failed to create " + notifications.size() + " expiry notifications");
+    }
+    List<Integer> inserted =
+        postgresDataAccess.queryStatement(
+            SQL_EXPIRY_NOTIFICATION_ADD, noticeInput(unsent, true), (rs, rowNum) -> rs.getInt(1));
+    if (inserted == null) {
+      // the ledger is unknown, roll back the notifications rather than send them unrecorded
+      throw new IllegalStateException(
+          "Failed to record the expiry ledger of " + notifications.size() + " notifications");
+    }
+
+    Map<Integer, Long> rowsInserted =
+        inserted.stream().collect(Collectors.groupingBy(id -> id, Collectors.counting()));
+    List<Notification> created = new ArrayList<>();
+    List<Integer> leftOut = new ArrayList<>();
+    for (ExpiryNotification expiryNotification : unsent) {
+      int id = expiryNotification.getNotification().getId();
+      if (rowsInserted.getOrDefault(id, 0L) == expiryNotification.getNotices().size()) {
+        created.add(expiryNotification.getNotification());
+      } else {
+        leftOut.add(id);
+      }
     }
-    if (entity.containsKey(COLUMN_NOTIFICATION_TITLE)) {
-      notification.setTitle((String) entity.get(COLUMN_NOTIFICATION_TITLE));
+    if (!leftOut.isEmpty()) {
+      // another expiry check got to some of their ingredients first, the ingredients not notified
+      // yet are left to the next one
+      Map<String, Object> deleteInput =
+          Map.of(
+              INPUT_EXPIRY_NOTIFICATION_NOTIFICATION_IDS,
+              leftOut.stream().mapToInt(Integer::intValue).toArray());
+      if (postgresDataAccess.upsertStatement(
+                  SQL_EXPIRY_NOTIFICATION_DELETE_FOR_NOTIFICATIONS, deleteInput)
+              < 0
+          || postgresDataAccess.upsertStatement(
+                  SQL_EXPIRY_NOTIFICATION_DELETE_NOTIFICATIONS, deleteInput)
+              != leftOut.size()) {
+        throw new IllegalStateException(
+            "Failed to leave out " + leftOut.size() + " expiry notifications already sent");
+      }
+      logger.info("Left out {} expiry notifications already sent", leftOut.size());
     }
-    if (entity.containsKey(COLUMN_NOTIFICATION_CONTENT)) {
-      notification.setContent((String) entity.get(COLUMN_NOTIFICATION_CONTENT));
+    return created;
+  }
+
+  // the notices of the notifications as parallel arrays, with the ids of their notifications once
+  // created
+  private static Map<String, Object> noticeInput(
+      List<ExpiryNotification> expiryNotifications, boolean withNotificationIds) {
+    int rows = expiryNotifications.stream().mapToInt(n -> n.getNotices().size()).sum();
+    int[] userIds = new int[rows];
+    int[] ingredientIds = new int[rows];
+    String[] expiryDates = new String[rows];
+    int[] daysBuckets = new int[rows];
+    int[] notificationIds = new int[rows];
+    int row = 0;
+    for (ExpiryNotification expiryNotification : expiryNotifications) {
+      for (IngredientExpiryNotice notice : expiryNotification.getNotices()) {
+        userIds[row] = notice.getUserId();
+        ingredientIds[row] = notice.getIngredientId();
+        expiryDates[row] = notice.getExpiryDate().toString();
+        daysBuckets[row] = notice.getDaysBucket();
+        if (withNotificationIds) {
+          notificationIds[row] = expiryNotification.getNotification().getId();
+        }
+        row++;
+      }
     }
-    if (entity.containsKey(COLUMN_NOTIFICATION_TYPE)) {
-      notification.setType(
-          ENotificationType.valueOf((String) entity.get(COLUMN_NOTIFICATION_TYPE)));
+    Map<String, Object> sqlInput = new HashMap<>();
+    sqlInput.put(INPUT_EXPIRY_NOTIFICATION_USER_IDS, userIds);
+    sqlInput.put(INPUT_EXPIRY_NOTIFICATION_INGREDIENT_IDS, ingredientIds);
+    sqlInput.put(INPUT_EXPIRY_NOTIFICATION_EXPIRY_DATES, expiryDates);
+    sqlInput.put(INPUT_EXPIRY_NOTIFICATION_DAYS_BUCKETS, daysBuckets);
+    if (withNotificationIds) {
+      sqlInput.put(INPUT_EXPIRY_NOTIFICATION_NOTIFICATION_IDS, notificationIds);
     }
-    if (entity.containsKey(COLUMN_NOTIFICATION_IS_READ)) {
-      notification.setIsRead((Boolean) entity.get(COLUMN_NOTIFICATION_IS_READ));
+    return sqlInput;
+  }
+
+  private static Map<String, Object> notificationInput(Notification notification) {
+    Map<String, Object> sqlInput = new HashMap<>();
+    sqlInput.put(INPUT_NOTIFICATION_USER_ID, notification.getUserId());
+    sqlInput.put(INPUT_NOTIFICATION_TITLE, notification.getTitle());
+    sqlInput.put(INPUT_NOTIFICATION_CONTENT, notification.getContent());
+    sqlInput.put(INPUT_NOTIFICATION_TYPE, notification.getType().name());
+    sqlInput.put(INPUT_NOTIFICATION_IS_READ, notification.getIsRead());
+    return sqlInput;
+  }
+
+  /** Maps a notification row, or the columns of it returned on insert. */
+  static class ExpiryNoticeRowMapper extends IndexedRowMapper<IngredientExpiryNotice> {
+    private final int userId = column(COLUMN_EXPIRY_NOTIFICATION_USER_ID);
+    private final int ingredientId = column(COLUMN_EXPIRY_NOTIFICATION_INGREDIENT_ID);
+    private final int expiryDate = column(COLUMN_EXPIRY_NOTIFICATION_EXPIRY_DATE);
+    private final int daysBucket = column(COLUMN_EXPIRY_NOTIFICATION_DAYS_BUCKET);
+
+    @Override
+    protected IngredientExpiryNotice map(ResultSet rs) throws SQLException {
+      return new IngredientExpiryNotice(
+          getInteger(rs, userId),
+          getInteger(rs, ingredientId),
+          getDate(rs, expiryDate).toLocalDate(),
+          getInteger(rs, daysBucket));
     }
-    if (entity.containsKey(COLUMN_NOTIFICATION_CREATE_DATETIME)) {
-      notification.setCreateDateTime(
-          ((java.sql.Timestamp) entity.get(COLUMN_NOTIFICATION_CREATE_DATETIME))
-              .toInstant()
-              .atZone(ZoneId.systemDefault()));
+  }
+
+  static class NotificationRowMapper extends IndexedRowMapper<Notification> {
+    private final int id = column(COLUMN_NOTIFICATION_ID);
+    private final int userId = column(COLUMN_NOTIFICATION_USER_ID);
+    private final int title = column(COLUMN_NOTIFICATION_TITLE);
+    private final int content = column(COLUMN_NOTIFICATION_CONTENT);
+    private final int type = column(COLUMN_NOTIFICATION_TYPE);
+    private final int isRead = column(COLUMN_NOTIFICATION_IS_READ);
+    private final int createDatetime = column(COLUMN_NOTIFICATION_CREATE_DATETIME);
+
+    @Override
+    protected Notification map(ResultSet rs) throws SQLException {
+      Notification notification = new Notification();
+      notification.setId(getInteger(rs, id));
+      notification.setUserId(getInteger(rs, userId));
+      notification.setTitle(getString(rs, title));
+      notification.setContent(getString(rs, content));
+      String typeValue = getString(rs, type);
+      if (typeValue != null) {
+        notification.setType(ENotificationType.valueOf(typeValue));
+      }
+      notification.setIsRead(getBoolean(rs, isRead));
+      Timestamp created = getTimestamp(rs, createDatetime);
+      if (created != null) {
+        notification.setCreateDateTime(created.toInstant().atZone(ZoneId.systemDefault()));
+      }
+      return notification;
     }
-    return notification;
   }
 }
@@ -278,7 +278,9 @@ public class PostgresSqlStatement {
           + INPUT_INGREDIENT_QUANTITY
           + ",:"
           + INPUT_INGREDIENT_EXPIRY_DATE
-          + ",now(),now());";
+          + ",now(),now()) RETURNING "
+          + COLUMN_INGREDIENT_ID
+          + ";";
 
   public static final String SQL_INGREDIENT_DELETE =
       "DELETE FROM "
@@ -365,7 +367,8 @@ public class PostgresSqlStatement {
   public static final String INPUT_NOTIFICATION_CREATE_DATETIME = "createDatetime";
 
   // Notification SQL statements
-  public static final String SQL_NOTIFICATION_ADD =
+  // the batch insert leaves the RETURNING clause to the driver, which returns the generated keys
+  public static final String SQL_NOTIFICATION_ADD_BATCH =
       "INSERT INTO "
           + TABLE_NOTIFICATION
           + "("
@@ -391,7 +394,11 @@ public class PostgresSqlStatement {
           + " AS notification_type) ,:"
           + INPUT_NOTIFICATION_IS_READ
           + ","
-          + "now()) RETURNING "
+          + "now())";
+
+  public static final String SQL_NOTIFICATION_ADD =
+      SQL_NOTIFICATION_ADD_BATCH
+          + " RETURNING "
           + COLUMN_NOTIFICATION_ID
           + ","
           + COLUMN_NOTIFICATION_CREATE_DATETIME
@@ -456,4 +463,331 @@ public class PostgresSqlStatement {
           + " i "
           + "WHERE i.expiry_date BETWEEN CURRENT_DATE + INTERVAL '1 day' AND CURRENT_DATE + INTERVAL '3 days' "
           + "ORDER BY i.user_id, i.expiry_date;";
+
+  ////////////////// Ingredient expiry notification ledger
+  // Table
+  public static final String TABLE_EXPIRY_NOTIFICATION = "ingredient_expiry_notification";
+
+  // Ledger column names
+  public static final String COLUMN_EXPIRY_NOTIFICATION_USER_ID = "user_id";
+  public static final String COLUMN_EXPIRY_NOTIFICATION_INGREDIENT_ID = "ingredient_id";
+  public static final String COLUMN_EXPIRY_NOTIFICATION_EXPIRY_DATE = "expiry_date";
+  public static final String COLUMN_EXPIRY_NOTIFICATION_DAYS_BUCKET = "days_bucket";
+  public static final String COLUMN_EXPIRY_NOTIFICATION_NOTIFICATION_ID = "notification_id";
+
+  // Ledger input parameter names
+  public static final String INPUT_EXPIRY_NOTIFICATION_USER_IDS = "userIds";
+  public static final String INPUT_EXPIRY_NOTIFICATION_INGREDIENT_IDS = "ingredientIds";
+  public static final String INPUT_EXPIRY_NOTIFICATION_EXPIRY_DATES = "expiryDates";
+  public static final String INPUT_EXPIRY_NOTIFICATION_DAYS_BUCKETS = "daysBuckets";
+  public static final String INPUT_EXPIRY_NOTIFICATION_NOTIFICATION_IDS = "notificationIds";
+  public static final String INPUT_EXPIRY_TODAY = "today";
+  public static final String INPUT_EXPIRY_FROM_DATE = "fromDate";
+  public static final String INPUT_EXPIRY_TO_DATE = "toDate";
+  public static final String INPUT_EXPIRY_DAYS_BUCKETS = "daysBuckets";
+  public static final String INPUT_EXPIRY_SHARD = "shard";
+  public static final String INPUT_EXPIRY_SHARD_COUNT = "shardCount";
+
+  // The ledger rows of the notices of a batch of notifications in one statement, from parallel
+  // arrays (an int array each for the user, ingredient, bucket and notification, an ISO date string
+  // array for the expiry dates). A row already in the ledger is left as it is and not returned, so
+  // a notification with fewer rows returned than notices sent had another expiry check get to one
+  // of them first
+  public static final String SQL_EXPIRY_NOTIFICATION_ADD =
+      "INSERT INTO "
+          + TABLE_EXPIRY_NOTIFICATION
+          + "("
+          + COLUMN_EXPIRY_NOTIFICATION_USER_ID
+          + ","
+          + COLUMN_EXPIRY_NOTIFICATION_INGREDIENT_ID
+          + ","
+          + COLUMN_EXPIRY_NOTIFICATION_EXPIRY_DATE
+          + ","
+          + COLUMN_EXPIRY_NOTIFICATION_DAYS_BUCKET
+          + ","
+          + COLUMN_EXPIRY_NOTIFICATION_NOTIFICATION_ID
+          + ") SELECT * FROM unnest(CAST(:"
+          + INPUT_EXPIRY_NOTIFICATION_USER_IDS
+          + " AS integer[]), CAST(:"
+          + INPUT_EXPIRY_NOTIFICATION_INGREDIENT_IDS
+          + " AS integer[]), CAST(:"
+          + INPUT_EXPIRY_NOTIFICATION_EXPIRY_DATES
+          + " AS date[]), CAST(:"
+          + INPUT_EXPIRY_NOTIFICATION_DAYS_BUCKETS
+          + " AS integer[]), CAST(:"
+          + INPUT_EXPIRY_NOTIFICATION_NOTIFICATION_IDS
+          + " AS integer[])) ON CONFLICT ("
+          + COLUMN_EXPIRY_NOTIFICATION_USER_ID
+          + ","
+          + COLUMN_EXPIRY_NOTIFICATION_INGREDIENT_ID
+          + ","
+          + COLUMN_EXPIRY_NOTIFICATION_EXPIRY_DATE
+          + ","
+          + COLUMN_EXPIRY_NOTIFICATION_DAYS_BUCKET
+          + ") DO NOTHING RETURNING "
+          + COLUMN_EXPIRY_NOTIFICATION_NOTIFICATION_ID
+          + ";";
+
+  // Serializes the expiry notifications of the users (an int array) until the transaction ends, so
+  // the replicas alerting the same ingredient at once notify it one after the other and the later
+  // ones find it in the ledger. Locked in user order, by the ledger table and the user id
+  public static final String SQL_EXPIRY_NOTIFICATION_LOCK_USERS =
+      "SELECT pg_advisory_xact_lock(CAST(CAST('"
+          + TABLE_EXPIRY_NOTIFICATION
+          + "' AS regclass) AS integer), u."
+          + COLUMN_EXPIRY_NOTIFICATION_USER_ID
+          + ") FROM (SELECT DISTINCT "
+          + COLUMN_EXPIRY_NOTIFICATION_USER_ID
+          + " FROM unnest(CAST(:"
+          + INPUT_EXPIRY_NOTIFICATION_USER_IDS
+          + " AS integer[])) AS n("
+          + COLUMN_EXPIRY_NOTIFICATION_USER_ID
+          + ") ORDER BY "
+          + COLUMN_EXPIRY_NOTIFICATION_USER_ID
+          + ") u;";
+
+  // The notices of a batch, from the parallel arrays of SQL_EXPIRY_NOTIFICATION_ADD, already in
+  // the ledger
+  public static final String SQL_EXPIRY_NOTIFICATION_GET_NOTIFIED =
+      "SELECT l."
+          + COLUMN_EXPIRY_NOTIFICATION_USER_ID
+          + ", l."
+          + COLUMN_EXPIRY_NOTIFICATION_INGREDIENT_ID
+          + ", l."
+          + COLUMN_EXPIRY_NOTIFICATION_EXPIRY_DATE
+          + ", l."
+          + COLUMN_EXPIRY_NOTIFICATION_DAYS_BUCKET
+          + " FROM "
+          + TABLE_EXPIRY_NOTIFICATION
+          + " l JOIN unnest(CAST(:"
+          + INPUT_EXPIRY_NOTIFICATION_USER_IDS
+          + " AS integer[]), CAST(:"
+          + INPUT_EXPIRY_NOTIFICATION_INGREDIENT_IDS
+          + " AS integer[]), CAST(:"
+          + INPUT_EXPIRY_NOTIFICATION_EXPIRY_DATES
+          + " AS date[]), CAST(:"
+          + INPUT_EXPIRY_NOTIFICATION_DAYS_BUCKETS
+          + " AS integer[])) AS n("
+          + COLUMN_EXPIRY_NOTIFICATION_USER_ID
+          + ", "
+          + COLUMN_EXPIRY_NOTIFICATION_INGREDIENT_ID
+          + ", "
+          + COLUMN_EXPIRY_NOTIFICATION_EXPIRY_DATE
+          + ", "
+          + COLUMN_EXPIRY_NOTIFICATION_DAYS_BUCKET
+          + ") USING ("
+          + COLUMN_EXPIRY_NOTIFICATION_USER_ID
+          + ", "
+          + COLUMN_EXPIRY_NOTIFICATION_INGREDIENT_ID
+          + ", "
+          + COLUMN_EXPIRY_NOTIFICATION_EXPIRY_DATE
+          + ", "
+          + COLUMN_EXPIRY_NOTIFICATION_DAYS_BUCKET
+          + ");";
+
+  // The notifications left out of a batch, with the ledger rows written for them
+  public static final String SQL_EXPIRY_NOTIFICATION_DELETE_FOR_NOTIFICATIONS =
+      "DELETE FROM "
+          + TABLE_EXPIRY_NOTIFICATION
+          + " WHERE "
+          + COLUMN_EXPIRY_NOTIFICATION_NOTIFICATION_ID
+          + " = ANY(CAST(:"
+          + INPUT_EXPIRY_NOTIFICATION_NOTIFICATION_IDS
+          + " AS integer[]));";
+
+  public static final String SQL_EXPIRY_NOTIFICATION_DELETE_NOTIFICATIONS =
+      "DELETE FROM "
+          + TABLE_NOTIFICATION
+          + " WHERE "
+          + COLUMN_NOTIFICATION_ID
+          + " = ANY(CAST(:"
+          + INPUT_EXPIRY_NOTIFICATION_NOTIFICATION_IDS
+          + " AS integer[]));";
+
+  // The ingredients of the users of a shard (user_id mod the shard count) expiring in one of the
+  // buckets (days from today) with no ledger row for that bucket, an anti-join on the unique index
+  // of the ledger
+  public static final String SQL_GET_EXPIRING_INGREDIENTS_NOT_NOTIFIED =
+      "SELECT i.* FROM "
+          + TABLE_INGREDIENT
+          + " i WHERE i."
+          + COLUMN_INGREDIENT_EXPIRY_DATE
+          + " >= CAST(:"
+          + INPUT_EXPIRY_FROM_DATE
+          + " AS date) AND i."
+          + COLUMN_INGREDIENT_EXPIRY_DATE
+          + " < CAST(:"
+          + INPUT_EXPIRY_TO_DATE
+          + " AS date) AND CAST(i."
+          + COLUMN_INGREDIENT_EXPIRY_DATE
+          + " AS date) - CAST(:"
+          + INPUT_EXPIRY_TODAY
+          + " AS date) IN (:"
+          + INPUT_EXPIRY_DAYS_BUCKETS
+          + ") AND mod(i."
+          + COLUMN_USER_ID
+          + ", :"
+          + INPUT_EXPIRY_SHARD_COUNT
+          + ") = :"
+          + INPUT_EXPIRY_SHARD
+          + " AND NOT EXISTS (SELECT 1 FROM "
+          + TABLE_EXPIRY_NOTIFICATION
+          + " n WHERE n."
+          + COLUMN_EXPIRY_NOTIFICATION_USER_ID
+          + " = i."
+          + COLUMN_USER_ID
+          + " AND n."
+          + COLUMN_EXPIRY_NOTIFICATION_INGREDIENT_ID
+          + " = i."
+          + COLUMN_INGREDIENT_ID
+          + " AND n."
+          + COLUMN_EXPIRY_NOTIFICATION_EXPIRY_DATE
+          + " = CAST(i."
+          + COLUMN_INGREDIENT_EXPIRY_DATE
+          + " AS date) AND n."
+          + COLUMN_EXPIRY_NOTIFICATION_DAYS_BUCKET
+          + " = CAST(i."
+          + COLUMN_INGREDIENT_EXPIRY_DATE
+          + " AS date) - CAST(:"
+          + INPUT_EXPIRY_TODAY
+          + " AS date)) ORDER BY i."
+          + COLUMN_USER_ID
+          + ", i."
+          + COLUMN_INGREDIENT_EXPIRY_DATE
+          + ";";
+
+  ////////////////// Ingredient expiry check shard leases
+  // Table
+  public static final String TABLE_EXPIRY_CHECK_SHARD = "ingredient_expiry_check_shard";
+
+  // Shard lease column names
+  public static final String COLUMN_EXPIRY_CHECK_SHARD_RUN_DATE = "run_date";
+  public static final String COLUMN_EXPIRY_CHECK_SHARD_SHARD = "shard";
+  public static final String COLUMN_EXPIRY_CHECK_SHARD_OWNER = "owner";
+  public static final String COLUMN_EXPIRY_CHECK_SHARD_LEASE_UNTIL = "lease_until";
+  public static final String COLUMN_EXPIRY_CHECK_SHARD_COMPLETED = "completed";
+
+  // Shard lease input parameter names
+  public static final String INPUT_EXPIRY_CHECK_SHARD_RUN_DATE = "runDate";
+  public static final String INPUT_EXPIRY_CHECK_SHARD_SHARD = "shard";
+  public static final String INPUT_EXPIRY_CHECK_SHARD_SHARD_COUNT = "shardCount";
+  public static final String INPUT_EXPIRY_CHECK_SHARD_OWNER = "owner";
+  public static final String INPUT_EXPIRY_CHECK_SHARD_LEASE_MILLIS = "leaseMillis";
+
+  // The lease ends on the database clock, so the clocks of the replicas do not matter
+  private static final String EXPIRY_CHECK_SHARD_LEASE_UNTIL =
+      "now() + CAST(:"
+          + INPUT_EXPIRY_CHECK_SHARD_LEASE_MILLIS
+          + " AS bigint) * interval '1 millisecond'";
+
+  private static final String EXPIRY_CHECK_SHARD_KEY =
+      COLUMN_EXPIRY_CHECK_SHARD_RUN_DATE
+          + " = CAST(:"
+          + INPUT_EXPIRY_CHECK_SHARD_RUN_DATE
+          + " AS date) AND "
+          + COLUMN_EXPIRY_CHECK_SHARD_SHARD
+          + " = :"
+          + INPUT_EXPIRY_CHECK_SHARD_SHARD;
+
+  // The shards of a run date, created by whichever replica claims first
+  public static final String SQL_EXPIRY_CHECK_SHARD_CREATE =
+      "INSERT INTO "
+          + TABLE_EXPIRY_CHECK_SHARD
+          + " ("
+          + COLUMN_EXPIRY_CHECK_SHARD_RUN_DATE
+          + ","
+          + COLUMN_EXPIRY_CHECK_SHARD_SHARD
+          + ") SELECT CAST(:"
+          + INPUT_EXPIRY_CHECK_SHARD_RUN_DATE
+          + " AS date), s FROM generate_series(0, :"
+          + INPUT_EXPIRY_CHECK_SHARD_SHARD_COUNT
+          + " - 1) s ON CONFLICT ("
+          + COLUMN_EXPIRY_CHECK_SHARD_RUN_DATE
+          + ","
+          + COLUMN_EXPIRY_CHECK_SHARD_SHARD
+          + ") DO NOTHING;";
+
+  // The shards of the days before are of no use once a day is checked
+  public static final String SQL_EXPIRY_CHECK_SHARD_DELETE_BEFORE =
+      "DELETE FROM "
+          + TABLE_EXPIRY_CHECK_SHARD
+          + " WHERE "
+          + COLUMN_EXPIRY_CHECK_SHARD_RUN_DATE
+          + " < CAST(:"
+          + INPUT_EXPIRY_CHECK_SHARD_RUN_DATE
+          + " AS date);";
+
+  // Lease the first shard neither completed nor leased, or whose lease expired with its owner. The
+  // shards being claimed by other replicas are skipped rather than waited for.
+  public static final String SQL_EXPIRY_CHECK_SHARD_CLAIM =
+      "UPDATE "
+          + TABLE_EXPIRY_CHECK_SHARD
+          + " SET "
+          + COLUMN_EXPIRY_CHECK_SHARD_OWNER
+          + " = :"
+          + INPUT_EXPIRY_CHECK_SHARD_OWNER
+          + ", "
+          + COLUMN_EXPIRY_CHECK_SHARD_LEASE_UNTIL
+          + " = "
+          + EXPIRY_CHECK_SHARD_LEASE_UNTIL
+          + " WHERE "
+          + COLUMN_EXPIRY_CHECK_SHARD_RUN_DATE
+          + " = CAST(:"
+          + INPUT_EXPIRY_CHECK_SHARD_RUN_DATE
+          + " AS date) AND "
+          + COLUMN_EXPIRY_CHECK_SHARD_SHARD
+          + " = (SELECT "
+          + COLUMN_EXPIRY_CHECK_SHARD_SHARD
+          + " FROM "
+          + TABLE_EXPIRY_CHECK_SHARD
+          + " WHERE "
+          + COLUMN_EXPIRY_CHECK_SHARD_RUN_DATE
+          + " = CAST(:"
+          + INPUT_EXPIRY_CHECK_SHARD_RUN_DATE
+          + " AS date) AND "
+          + COLUMN_EXPIRY_CHECK_SHARD_SHARD
+          + " < :"
+          + INPUT_EXPIRY_CHECK_SHARD_SHARD_COUNT
+          + " AND NOT "
+          + COLUMN_EXPIRY_CHECK_SHARD_COMPLETED
+          + " AND ("
+          + COLUMN_EXPIRY_CHECK_SHARD_LEASE_UNTIL
+          + " IS NULL OR "
+          + COLUMN_EXPIRY_CHECK_SHARD_LEASE_UNTIL
+          + " < now()) ORDER BY "
+          + COLUMN_EXPIRY_CHECK_SHARD_SHARD
+          + " LIMIT 1 FOR UPDATE SKIP LOCKED) RETURNING "
+          + COLUMN_EXPIRY_CHECK_SHARD_SHARD
+          + ";";
+
+  // Extend the lease, only while the replica still holds it
+  public static final String SQL_EXPIRY_CHECK_SHARD_RENEW =
+      "UPDATE "
+          + TABLE_EXPIRY_CHECK_SHARD
+          + " SET "
+          + COLUMN_EXPIRY_CHECK_SHARD_LEASE_UNTIL
+          + " = "
+          + EXPIRY_CHECK_SHARD_LEASE_UNTIL
+          + " WHERE "
+          + EXPIRY_CHECK_SHARD_KEY
+          + " AND "
+          + COLUMN_EXPIRY_CHECK_SHARD_OWNER
+          + " = :"
+          + INPUT_EXPIRY_CHECK_SHARD_OWNER
+          + " AND NOT "
+          + COLUMN_EXPIRY_CHECK_SHARD_COMPLETED
+          + ";";
+
+  public static final String SQL_EXPIRY_CHECK_SHARD_COMPLETE =
+      "UPDATE "
+          + TABLE_EXPIRY_CHECK_SHARD
+          + " SET "
+          + COLUMN_EXPIRY_CHECK_SHARD_COMPLETED
+          + " = true WHERE "
+          + EXPIRY_CHECK_SHARD_KEY
+          + " AND "
+          + COLUMN_EXPIRY_CHECK_SHARD_OWNER
+          + " = :"
+          + INPUT_EXPIRY_CHECK_SHARD_OWNER
+          + ";";
 }
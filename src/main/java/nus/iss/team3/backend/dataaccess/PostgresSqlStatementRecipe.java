@@ -1,6 +1,7 @@
 /* (C)2024 */
 package nus.iss.team3.backend.dataaccess;
 
+import java.util.List;
 import nus.iss.team3.backend.entity.ERecipeStatus;
 
 /**
@@ -24,6 +25,16 @@ public class PostgresSqlStatementRecipe {
   public static final String INPUT_RECIPE_DRAFT_ID = "draftid";
   public static final String INPUT_RECIPE_CREATE_TIME = "create_datetime";
   public static final String INPUT_RECIPE_UPDATE_TIME = "update_datetime";
+  public static final String INPUT_RECIPE_IDS = "ids";
+
+  // Keyset pagination input parameters
+  public static final String INPUT_PAGE_AFTER_KEY = "after_key";
+  public static final String INPUT_PAGE_AFTER_ID = "after_id";
+  public static final String INPUT_PAGE_LIMIT = "page_limit";
+
+  // Ranked search input parameters
+  public static final String INPUT_SEARCH_QUERY = "search_query";
+  public static final String INPUT_SEARCH_LIMIT = "search_limit";
 
   // Recipe Table and Column names
   public static final String TABLE_RECIPE = "recipe";
@@ -40,10 +51,28 @@ public class PostgresSqlStatementRecipe {
   public static final String COLUMN_RECIPE_DRAFT_ID = "draftid";
   public static final String COLUMN_RECIPE_CREATE_TIME = "create_datetime";
   public static final String COLUMN_RECIPE_UPDATE_TIME = "update_datetime";
+  // review aggregates, kept up to date by every review write, rating is derived from them
+  public static final String COLUMN_RECIPE_REVIEW_COUNT = "review_count";
+  public static final String COLUMN_RECIPE_RATING_SUM = "rating_sum";
+  // the number of reviews by stars, a rating counting as its rounded stars between 1 and 5
+  public static final String COLUMN_RECIPE_STARS_1_COUNT = "stars_1_count";
+  public static final String COLUMN_RECIPE_STARS_2_COUNT = "stars_2_count";
+  public static final String COLUMN_RECIPE_STARS_3_COUNT = "stars_3_count";
+  public static final String COLUMN_RECIPE_STARS_4_COUNT = "stars_4_count";
+  public static final String COLUMN_RECIPE_STARS_5_COUNT = "stars_5_count";
+  public static final List<String> COLUMNS_RECIPE_STARS_COUNT =
+      List.of(
+          COLUMN_RECIPE_STARS_1_COUNT,
+          COLUMN_RECIPE_STARS_2_COUNT,
+          COLUMN_RECIPE_STARS_3_COUNT,
+          COLUMN_RECIPE_STARS_4_COUNT,
+          COLUMN_RECIPE_STARS_5_COUNT);
 
   // Ingredient Input parameters
   public static final String INPUT_INGREDIENT_ID = "ingredient_id";
+  public static final String INPUT_INGREDIENT_IDS = "ingredient_ids";
   public static final String INPUT_INGREDIENT_RECIPE_ID = "recipe_id";
+  public static final String INPUT_INGREDIENT_RECIPE_IDS = "recipe_ids";
   public static final String INPUT_INGREDIENT_NAME = "name";
   public static final String INPUT_INGREDIENT_QUANTITY = "quantity";
   public static final String INPUT_INGREDIENT_UOM = "uom";
@@ -58,7 +87,9 @@ public class PostgresSqlStatementRecipe {
 
   // CookingStep Input parameters
   public static final String INPUT_COOKING_STEP_ID = "cooking_step_id";
+  public static final String INPUT_COOKING_STEP_IDS = "cooking_step_ids";
   public static final String INPUT_COOKING_STEP_RECIPE_ID = "recipe_id";
+  public static final String INPUT_COOKING_STEP_RECIPE_IDS = "recipe_ids";
   public static final String INPUT_COOKING_STEP_DESCRIPTION = "description";
   public static final String INPUT_COOKING_STEP_IMAGE = "image";
 
@@ -145,10 +176,6 @@ public class PostgresSqlStatementRecipe {
           + " = :"
           + INPUT_RECIPE_DIFFICULTY_LEVEL
           + ", "
-          + COLUMN_RECIPE_RATING
-          + " = :"
-          + INPUT_RECIPE_RATING
-          + ", "
           + COLUMN_RECIPE_STATUS
           + " = :"
           + INPUT_RECIPE_STATUS
@@ -178,6 +205,73 @@ public class PostgresSqlStatementRecipe {
           + " = :"
           + INPUT_RECIPE_DRAFT_ID;
 
+  // Graph queries: a recipe row with its ingredients and cooking steps aggregated into one json
+  // column each (see RecipeChildrenJson), so a whole recipe is read in a single statement
+  public static final String COLUMN_RECIPE_INGREDIENTS_JSON = "ingredients_json";
+  public static final String COLUMN_RECIPE_COOKING_STEPS_JSON = "cooking_steps_json";
+  private static final String SQL_RECIPE_GRAPH_SELECT =
+      "SELECT r.*, (SELECT coalesce(json_agg(json_build_array(i."
+          + COLUMN_INGREDIENT_ID
+          + ", i."
+          + COLUMN_INGREDIENT_NAME
+          + ", i."
+          + COLUMN_INGREDIENT_QUANTITY
+          + ", i."
+          + COLUMN_INGREDIENT_UOM
+          + ") ORDER BY i."
+          + COLUMN_INGREDIENT_ID
+          + "), '[]') FROM "
+          + TABLE_INGREDIENT
+          + " i WHERE i."
+          + COLUMN_INGREDIENT_RECIPE_ID
+          + " = r."
+          + COLUMN_RECIPE_ID
+          + ") AS "
+          + COLUMN_RECIPE_INGREDIENTS_JSON
+          + ", (SELECT coalesce(json_agg(json_build_array(s."
+          + COLUMN_COOKING_STEP_ID
+          + ", s."
+          + COLUMN_COOKING_STEP_DESCRIPTION
+          + ", s."
+          + COLUMN_COOKING_STEP_IMAGE
+          + ") ORDER BY s."
+          + COLUMN_COOKING_STEP_ID
+          + "), '[]') FROM "
+          + TABLE_COOKING_STEP
+          + " s WHERE s."
+          + COLUMN_COOKING_STEP_RECIPE_ID
+          + " = r."
+          + COLUMN_RECIPE_ID
+          + ") AS "
+          + COLUMN_RECIPE_COOKING_STEPS_JSON
+          + " FROM "
+          + TABLE_RECIPE
+          + " r";
+  public static final String SQL_RECIPE_GRAPH_GET_BY_ID =
+      SQL_RECIPE_GRAPH_SELECT + " WHERE r." + COLUMN_RECIPE_ID + " = :" + INPUT_RECIPE_ID;
+  public static final String SQL_RECIPE_GRAPH_GET_BY_DRAFT_ID =
+      SQL_RECIPE_GRAPH_SELECT
+          + " WHERE r."
+          + COLUMN_RECIPE_DRAFT_ID
+          + " = :"
+          + INPUT_RECIPE_DRAFT_ID;
+  // the recipe and its draft, as up to two rows
+  public static final String SQL_RECIPE_GRAPH_GET_WITH_DRAFT_BY_ID =
+      SQL_RECIPE_GRAPH_SELECT
+          + " WHERE r."
+          + COLUMN_RECIPE_ID
+          + " IN (:"
+          + INPUT_RECIPE_ID
+          + ", (SELECT "
+          + COLUMN_RECIPE_DRAFT_ID
+          + " FROM "
+          + TABLE_RECIPE
+          + " WHERE "
+          + COLUMN_RECIPE_ID
+          + " = :"
+          + INPUT_RECIPE_ID
+          + "))";
+
   public static final String SQL_RECIPE_GET_BY_CREATOR_ID =
       "SELECT * FROM "
           + TABLE_RECIPE
@@ -185,6 +279,18 @@ public class PostgresSqlStatementRecipe {
           + COLUMN_RECIPE_CREATOR_ID
           + " = :"
           + INPUT_RECIPE_CREATOR_ID;
+  // the id and rating of each recipe of a creator, the candidates of the ranking by user review
+  public static final String SQL_RECIPE_RATINGS_GET_BY_CREATOR_ID =
+      "SELECT "
+          + COLUMN_RECIPE_ID
+          + ", "
+          + COLUMN_RECIPE_RATING
+          + " FROM "
+          + TABLE_RECIPE
+          + " WHERE "
+          + COLUMN_RECIPE_CREATOR_ID
+          + " = :"
+          + INPUT_RECIPE_CREATOR_ID;
   public static final String SQL_RECIPE_GET_ALL = "SELECT * FROM " + TABLE_RECIPE;
   public static final String SQL_RECIPE_GET_ALL_BY_DIFFICULTY =
       "SELECT * FROM " + TABLE_RECIPE + " ORDER BY " + INPUT_RECIPE_DIFFICULTY_LEVEL;
@@ -193,7 +299,7 @@ public class PostgresSqlStatementRecipe {
   public static final String SQL_RECIPE_GET_ALL_BY_DIFFICULTY_DESC =
       "SELECT * FROM " + TABLE_RECIPE + " ORDER BY " + INPUT_RECIPE_DIFFICULTY_LEVEL + " DESC";
   public static final String SQL_RECIPE_GET_ALL_BY_RATING_DESC =
-      "SELECT * FROM " + TABLE_RECIPE + " ORDER BY " + INPUT_RECIPE_RATING + "DESC";
+      "SELECT * FROM " + TABLE_RECIPE + " ORDER BY " + INPUT_RECIPE_RATING + " DESC";
   public static final String SQL_RECIPE_GET_ALL_PUBLISHED =
       "SELECT * FROM "
           + TABLE_RECIPE
@@ -209,6 +315,191 @@ public class PostgresSqlStatementRecipe {
           + " ILIKE :"
           + INPUT_RECIPE_NAME;
 
+  public static final String SQL_RECIPE_GET_BY_IDS =
+      "SELECT * FROM "
+          + TABLE_RECIPE
+          + " WHERE "
+          + COLUMN_RECIPE_ID
+          + " IN (:"
+          + INPUT_RECIPE_IDS
+          + ")";
+
+  // Keyset pagination statements, each fetching the rows after the (sort key, id) of the cursor.
+  // Drafts attached to a main recipe are left out of the owner facing pages, they are loaded
+  // together with their main recipe instead.
+  private static final String SQL_RECIPE_NOT_ATTACHED_DRAFT =
+      " NOT EXISTS (SELECT 1 FROM "
+          + TABLE_RECIPE
+          + " m WHERE m."
+          + COLUMN_RECIPE_DRAFT_ID
+          + " = r."
+          + COLUMN_RECIPE_ID
+          + ")";
+  private static final String SQL_RECIPE_RATING_KEY = "COALESCE(" + COLUMN_RECIPE_RATING + ", 0)";
+  public static final String SQL_RECIPE_GET_PAGE =
+      "SELECT * FROM "
+          + TABLE_RECIPE
+          + " r WHERE r."
+          + COLUMN_RECIPE_ID
+          + " > :"
+          + INPUT_PAGE_AFTER_ID
+          + " AND"
+          + SQL_RECIPE_NOT_ATTACHED_DRAFT
+          + " ORDER BY r."
+          + COLUMN_RECIPE_ID
+          + " LIMIT :"
+          + INPUT_PAGE_LIMIT;
+  public static final String SQL_RECIPE_GET_BY_CREATOR_ID_PAGE =
+      "SELECT * FROM "
+          + TABLE_RECIPE
+          + " r WHERE r."
+          + COLUMN_RECIPE_CREATOR_ID
+          + " = :"
+          + INPUT_RECIPE_CREATOR_ID
+          + " AND r."
+          + COLUMN_RECIPE_ID
+          + " > :"
+          + INPUT_PAGE_AFTER_ID
+          + " AND"
+          + SQL_RECIPE_NOT_ATTACHED_DRAFT
+          + " ORDER BY r."
+          + COLUMN_RECIPE_ID
+          + " LIMIT :"
+          + INPUT_PAGE_LIMIT;
+  public static final String SQL_RECIPE_STREAM_PUBLISHED =
+      SQL_RECIPE_GET_ALL_PUBLISHED + " ORDER BY " + COLUMN_RECIPE_ID;
+
+  public static final String SQL_RECIPE_GET_PUBLISHED_PAGE = sqlPublishedPage("*");
+  public static final String SQL_RECIPE_GET_PUBLISHED_BY_DIFFICULTY_PAGE =
+      sqlPublishedKeysetPage("*", COLUMN_RECIPE_DIFFICULTY_LEVEL, false);
+  public static final String SQL_RECIPE_GET_PUBLISHED_BY_DIFFICULTY_DESC_PAGE =
+      sqlPublishedKeysetPage("*", COLUMN_RECIPE_DIFFICULTY_LEVEL, true);
+  public static final String SQL_RECIPE_GET_PUBLISHED_BY_RATING_PAGE =
+      sqlPublishedKeysetPage("*", SQL_RECIPE_RATING_KEY, false);
+  public static final String SQL_RECIPE_GET_PUBLISHED_BY_RATING_DESC_PAGE =
+      sqlPublishedKeysetPage("*", SQL_RECIPE_RATING_KEY, true);
+
+  // Summary view of the published listings: only the columns of a list card, same order and keys
+  public static final String SQL_RECIPE_SUMMARY_COLUMNS =
+      COLUMN_RECIPE_ID
+          + ", "
+          + COLUMN_RECIPE_NAME
+          + ", "
+          + COLUMN_RECIPE_IMAGE
+          + ", "
+          + COLUMN_RECIPE_RATING
+          + ", "
+          + COLUMN_RECIPE_DIFFICULTY_LEVEL
+          + ", "
+          + COLUMN_RECIPE_COOKING_TIME
+          + ", "
+          + COLUMN_RECIPE_CUISINE
+          + ", "
+          + COLUMN_RECIPE_REVIEW_COUNT
+          + ", "
+          + String.join(", ", COLUMNS_RECIPE_STARS_COUNT);
+  public static final String SQL_RECIPE_SUMMARY_GET_PUBLISHED_PAGE =
+      sqlPublishedPage(SQL_RECIPE_SUMMARY_COLUMNS);
+  public static final String SQL_RECIPE_SUMMARY_GET_PUBLISHED_BY_DIFFICULTY_PAGE =
+      sqlPublishedKeysetPage(SQL_RECIPE_SUMMARY_COLUMNS, COLUMN_RECIPE_DIFFICULTY_LEVEL, false);
+  public static final String SQL_RECIPE_SUMMARY_GET_PUBLISHED_BY_DIFFICULTY_DESC_PAGE =
+      sqlPublishedKeysetPage(SQL_RECIPE_SUMMARY_COLUMNS, COLUMN_RECIPE_DIFFICULTY_LEVEL, true);
+  public static final String SQL_RECIPE_SUMMARY_GET_PUBLISHED_BY_RATING_PAGE =
+      sqlPublishedKeysetPage(SQL_RECIPE_SUMMARY_COLUMNS, SQL_RECIPE_RATING_KEY, false);
+  public static final String SQL_RECIPE_SUMMARY_GET_PUBLISHED_BY_RATING_DESC_PAGE =
+      sqlPublishedKeysetPage(SQL_RECIPE_SUMMARY_COLUMNS, SQL_RECIPE_RATING_KEY, true);
+
+  private static String sqlPublishedPage(String columns) {
+    return "SELECT "
+        + columns
+        + " FROM "
+        + TABLE_RECIPE
+        + " WHERE "
+        + COLUMN_RECIPE_STATUS
+        + " = "
+        + ERecipeStatus.PUBLISHED.code
+        + " AND "
+        + COLUMN_RECIPE_ID
+        + " > :"
+        + INPUT_PAGE_AFTER_ID
+        + " ORDER BY "
+        + COLUMN_RECIPE_ID
+        + " LIMIT :"
+        + INPUT_PAGE_LIMIT;
+  }
+
+  private static String sqlPublishedKeysetPage(String columns, String sortKey, boolean isDesc) {
+    String direction = isDesc ? " DESC" : "";
+    return "SELECT "
+        + columns
+        + " FROM "
+        + TABLE_RECIPE
+        + " WHERE "
+        + COLUMN_RECIPE_STATUS
+        + " = "
+        + ERecipeStatus.PUBLISHED.code
+        + " AND ("
+        + sortKey
+        + ", "
+        + COLUMN_RECIPE_ID
+        + (isDesc ? ") < (:" : ") > (:")
+        + INPUT_PAGE_AFTER_KEY
+        + ", :"
+        + INPUT_PAGE_AFTER_ID
+        + ") ORDER BY "
+        + sortKey
+        + direction
+        + ", "
+        + COLUMN_RECIPE_ID
+        + direction
+        + " LIMIT :"
+        + INPUT_PAGE_LIMIT;
+  }
+
+  // Weighted search document: name ranks above cuisine, cuisine above description. It must stay
+  // identical to the expression of idx_recipe_search_document (scripts/db-migration), otherwise
+  // the planner cannot use that index.
+  private static final String SQL_RECIPE_SEARCH_DOCUMENT =
+      "(setweight(to_tsvector('english', coalesce("
+          + COLUMN_RECIPE_NAME
+          + ", '')), 'A') || setweight(to_tsvector('english', coalesce("
+          + COLUMN_RECIPE_CUISINE
+          + ", '')), 'B') || setweight(to_tsvector('english', coalesce("
+          + COLUMN_RECIPE_DESCRIPTION
+          + ", '')), 'C'))";
+  private static final String SQL_RECIPE_SEARCH_TSQUERY =
+      "websearch_to_tsquery('english', :" + INPUT_SEARCH_QUERY + ")";
+
+  // full-text match on the search document, or a trigram (typo tolerant) match on the name, best
+  // match first
+  public static final String SQL_RECIPE_SEARCH_PUBLISHED =
+      "SELECT * FROM "
+          + TABLE_RECIPE
+          + " WHERE "
+          + COLUMN_RECIPE_STATUS
+          + " = "
+          + ERecipeStatus.PUBLISHED.code
+          + " AND ("
+          + SQL_RECIPE_SEARCH_DOCUMENT
+          + " @@ "
+          + SQL_RECIPE_SEARCH_TSQUERY
+          + " OR "
+          + COLUMN_RECIPE_NAME
+          + " % :"
+          + INPUT_SEARCH_QUERY
+          + ") ORDER BY GREATEST(ts_rank("
+          + SQL_RECIPE_SEARCH_DOCUMENT
+          + ", "
+          + SQL_RECIPE_SEARCH_TSQUERY
+          + "), similarity("
+          + COLUMN_RECIPE_NAME
+          + ", :"
+          + INPUT_SEARCH_QUERY
+          + ")) DESC, "
+          + COLUMN_RECIPE_ID
+          + " LIMIT :"
+          + INPUT_SEARCH_LIMIT;
+
   // SQL statements for Ingredient
   public static final String SQL_INGREDIENT_ADD =
       "INSERT INTO "
@@ -230,8 +521,7 @@ public class PostgresSqlStatementRecipe {
           + INPUT_INGREDIENT_QUANTITY
           + ", :"
           + INPUT_INGREDIENT_UOM
-          + ") RETURNING "
-          + COLUMN_INGREDIENT_ID;
+          + ")";
   public static final String SQL_INGREDIENT_UPDATE =
       "UPDATE "
           + TABLE_INGREDIENT
@@ -258,6 +548,18 @@ public class PostgresSqlStatementRecipe {
           + COLUMN_INGREDIENT_RECIPE_ID
           + " = :"
           + INPUT_INGREDIENT_RECIPE_ID;
+  public static final String SQL_INGREDIENT_DELETE_BY_IDS =
+      "DELETE FROM "
+          + TABLE_INGREDIENT
+          + " WHERE "
+          + COLUMN_INGREDIENT_RECIPE_ID
+          + " = :"
+          + INPUT_INGREDIENT_RECIPE_ID
+          + " AND "
+          + COLUMN_INGREDIENT_ID
+          + " IN (:"
+          + INPUT_INGREDIENT_IDS
+          + ")";
   public static final String SQL_INGREDIENT_GET_BY_RECIPE_ID =
       "SELECT * FROM "
           + TABLE_INGREDIENT
@@ -266,6 +568,38 @@ public class PostgresSqlStatementRecipe {
           + " = :"
           + INPUT_INGREDIENT_RECIPE_ID
           + " ORDER BY id";
+  public static final String SQL_INGREDIENT_GET_BY_RECIPE_IDS =
+      "SELECT * FROM "
+          + TABLE_INGREDIENT
+          + " WHERE "
+          + COLUMN_INGREDIENT_RECIPE_ID
+          + " IN (:"
+          + INPUT_INGREDIENT_RECIPE_IDS
+          + ") ORDER BY "
+          + COLUMN_INGREDIENT_RECIPE_ID
+          + ", "
+          + COLUMN_INGREDIENT_ID;
+
+  // The ingredient names of the published recipes, the input of the pantry index, in recipe order
+  public static final String SQL_INGREDIENT_STREAM_PUBLISHED_NAMES =
+      "SELECT i."
+          + COLUMN_INGREDIENT_RECIPE_ID
+          + ", i."
+          + COLUMN_INGREDIENT_NAME
+          + " FROM "
+          + TABLE_INGREDIENT
+          + " i JOIN "
+          + TABLE_RECIPE
+          + " r ON r."
+          + COLUMN_RECIPE_ID
+          + " = i."
+          + COLUMN_INGREDIENT_RECIPE_ID
+          + " WHERE r."
+          + COLUMN_RECIPE_STATUS
+          + " = "
+          + ERecipeStatus.PUBLISHED.code
+          + " ORDER BY i."
+          + COLUMN_INGREDIENT_RECIPE_ID;
 
   // SQL statements for CookingStep
   public static final String SQL_COOKING_STEP_ADD =
@@ -284,8 +618,7 @@ public class PostgresSqlStatementRecipe {
           + INPUT_COOKING_STEP_DESCRIPTION
           + ", :"
           + INPUT_COOKING_STEP_IMAGE
-          + ") RETURNING "
-          + COLUMN_COOKING_STEP_ID;
+          + ")";
   public static final String SQL_COOKING_STEP_UPDATE =
       "UPDATE "
           + TABLE_COOKING_STEP
@@ -308,6 +641,18 @@ public class PostgresSqlStatementRecipe {
           + COLUMN_COOKING_STEP_RECIPE_ID
           + " = :"
           + INPUT_COOKING_STEP_RECIPE_ID;
+  public static final String SQL_COOKING_STEP_DELETE_BY_IDS =
+      "DELETE FROM "
+          + TABLE_COOKING_STEP
+          + " WHERE "
+          + COLUMN_COOKING_STEP_RECIPE_ID
+          + " = :"
+          + INPUT_COOKING_STEP_RECIPE_ID
+          + " AND "
+          + COLUMN_COOKING_STEP_ID
+          + " IN (:"
+          + INPUT_COOKING_STEP_IDS
+          + ")";
   public static final String SQL_COOKING_STEP_GET_BY_RECIPE_ID =
       "SELECT * FROM "
           + TABLE_COOKING_STEP
@@ -316,10 +661,22 @@ public class PostgresSqlStatementRecipe {
           + " = :"
           + INPUT_COOKING_STEP_RECIPE_ID
           + " ORDER BY id";
+  public static final String SQL_COOKING_STEP_GET_BY_RECIPE_IDS =
+      "SELECT * FROM "
+          + TABLE_COOKING_STEP
+          + " WHERE "
+          + COLUMN_COOKING_STEP_RECIPE_ID
+          + " IN (:"
+          + INPUT_COOKING_STEP_RECIPE_IDS
+          + ") ORDER BY "
+          + COLUMN_COOKING_STEP_RECIPE_ID
+          + ", "
+          + COLUMN_COOKING_STEP_ID;
 
   // RecipeReview Input parameters
   public static final String INPUT_REVIEW_ID = "review_id";
   public static final String INPUT_REVIEW_RECIPE_ID = "recipe_id";
+  public static final String INPUT_REVIEW_RECIPE_IDS = "recipe_ids";
   public static final String INPUT_REVIEW_CREATOR_ID = "creator_id";
   public static final String INPUT_REVIEW_RATING = "rating";
   public static final String INPUT_REVIEW_CREATE_TIME = "create_datetime";
@@ -337,8 +694,236 @@ public class PostgresSqlStatementRecipe {
   public static final String COLUMN_REVIEW_COMMENTS = "comments";
 
   // SQL statements for RecipeReview
+  // Every review write returns the change it makes to the review aggregates of each recipe: the
+  // write is a CTE whose changes per recipe are collected into "delta" and selected, one row of
+  // COLUMNS_REVIEW_DELTA per recipe. The deltas are coalesced and applied to the recipe rows later
+  // with sqlRecipeApplyReviewDeltas, see RecipeRatingPipeline, so a review write does not wait on
+  // the lock of a recipe row that many reviews are written to.
+  public static final String COLUMN_REVIEW_DELTA_RECIPE_ID = "recipe_id";
+  // the marked_at of the TABLE_REVIEW_DIRTY row the write was counted on
+  public static final String COLUMN_REVIEW_DELTA_MARKED_AT = "marked_at";
+  public static final String COLUMN_REVIEW_DELTA_COUNT = "count_delta";
+  public static final String COLUMN_REVIEW_DELTA_RATING = "rating_delta";
+  public static final List<String> COLUMNS_REVIEW_DELTA_STARS =
+      List.of("stars_1_delta", "stars_2_delta", "stars_3_delta", "stars_4_delta", "stars_5_delta");
+  // the number of review writes a delta covers, 1 for the delta of a single write
+  public static final String COLUMN_REVIEW_DELTA_WRITES = "writes";
+  public static final List<String> COLUMNS_REVIEW_DELTA =
+      List.of(
+          COLUMN_REVIEW_DELTA_RECIPE_ID,
+          COLUMN_REVIEW_DELTA_MARKED_AT,
+          COLUMN_REVIEW_DELTA_COUNT,
+          COLUMN_REVIEW_DELTA_RATING,
+          COLUMNS_REVIEW_DELTA_STARS.get(0),
+          COLUMNS_REVIEW_DELTA_STARS.get(1),
+          COLUMNS_REVIEW_DELTA_STARS.get(2),
+          COLUMNS_REVIEW_DELTA_STARS.get(3),
+          COLUMNS_REVIEW_DELTA_STARS.get(4),
+          COLUMN_REVIEW_DELTA_WRITES);
+
+  // Recipes with review writes whose deltas are not applied yet. A review write adds itself to the
+  // writes of its recipes in the same statement, and the flush applying its delta takes it off in
+  // the same statement. marked_at is the time of the first write not applied yet, kept by the later
+  // writes, so a row left long after it names a recipe whose deltas died with their process, even
+  // while reviews keep coming, see SQL_RECIPE_RECOMPUTE_LOST_REVIEW_AGGREGATES. A delta carries the
+  // marked_at of the row it was counted on and applies only while that row is there.
+  public static final String TABLE_REVIEW_DIRTY = "recipe_review_dirty";
+  public static final String COLUMN_REVIEW_DIRTY_RECIPE_ID = "recipe_id";
+  public static final String COLUMN_REVIEW_DIRTY_WRITES = "writes";
+  public static final String COLUMN_REVIEW_DIRTY_MARKED_AT = "marked_at";
+  public static final String INPUT_REVIEW_DIRTY_LOST_AFTER_MS = "lost_after_ms";
+
+  private static final String SQL_REVIEW_SELECT_DELTA =
+      ", dirty AS (INSERT INTO "
+          + TABLE_REVIEW_DIRTY
+          + " ("
+          + COLUMN_REVIEW_DIRTY_RECIPE_ID
+          + ", "
+          + COLUMN_REVIEW_DIRTY_WRITES
+          + ", "
+          + COLUMN_REVIEW_DIRTY_MARKED_AT
+          + ") SELECT "
+          + COLUMN_REVIEW_DELTA_RECIPE_ID
+          + ", 1, now() FROM delta ON CONFLICT ("
+          + COLUMN_REVIEW_DIRTY_RECIPE_ID
+          + ") DO UPDATE SET "
+          + COLUMN_REVIEW_DIRTY_WRITES
+          + " = "
+          + TABLE_REVIEW_DIRTY
+          + "."
+          + COLUMN_REVIEW_DIRTY_WRITES
+          + " + 1 RETURNING "
+          + COLUMN_REVIEW_DIRTY_RECIPE_ID
+          + ", "
+          + COLUMN_REVIEW_DIRTY_MARKED_AT
+          + ") SELECT delta.*, dirty."
+          + COLUMN_REVIEW_DIRTY_MARKED_AT
+          + " AS "
+          + COLUMN_REVIEW_DELTA_MARKED_AT
+          + ", 1 AS "
+          + COLUMN_REVIEW_DELTA_WRITES
+          + " FROM delta JOIN dirty ON dirty."
+          + COLUMN_REVIEW_DIRTY_RECIPE_ID
+          + " = delta."
+          + COLUMN_REVIEW_DELTA_RECIPE_ID;
+
+  /** The name of the input of a delta column in the given row of sqlRecipeApplyReviewDeltas. */
+  public static String inputReviewDelta(String column, int row) {
+    return column + "_" + row;
+  }
+
+  /**
+   * Adds the review deltas of the given number of recipes to their recipe rows in one statement,
+   * the deltas passed as rows of VALUES with the inputs named by inputReviewDelta. The writes they
+   * cover are taken off TABLE_REVIEW_DIRTY, a recipe with none left is removed from it. A delta
+   * whose dirty row is gone, its recipe recomputed from its reviews since, is not applied.
+   */
+  public static String sqlRecipeApplyReviewDeltas(int rows) {
+    StringBuilder values = new StringBuilder();
+    for (int row = 0; row < rows; row++) {
+      values.append(row == 0 ? "(" : ", (");
+      for (int column = 0; column < COLUMNS_REVIEW_DELTA.size(); column++) {
+        String input = ":" + inputReviewDelta(COLUMNS_REVIEW_DELTA.get(column), row);
+        if (COLUMNS_REVIEW_DELTA.get(column).equals(COLUMN_REVIEW_DELTA_MARKED_AT)) {
+          // typed here, a timestamp input reaches VALUES untyped
+          input = "CAST(" + input + " AS timestamp)";
+        }
+        values.append(column == 0 ? "" : ", ").append(input);
+      }
+      values.append(")");
+    }
+    return "WITH d("
+        + String.join(", ", COLUMNS_REVIEW_DELTA)
+        + ") AS (VALUES "
+        + values
+        + "), settled AS (DELETE FROM "
+        + TABLE_REVIEW_DIRTY
+        + " x USING d WHERE x."
+        + COLUMN_REVIEW_DIRTY_RECIPE_ID
+        + " = d."
+        + COLUMN_REVIEW_DELTA_RECIPE_ID
+        + " AND x."
+        + COLUMN_REVIEW_DIRTY_MARKED_AT
+        + " = d."
+        + COLUMN_REVIEW_DELTA_MARKED_AT
+        + " AND x."
+        + COLUMN_REVIEW_DIRTY_WRITES
+        + " <= d."
+        + COLUMN_REVIEW_DELTA_WRITES
+        + " RETURNING x."
+        + COLUMN_REVIEW_DIRTY_RECIPE_ID
+        + "), unsettled AS (UPDATE "
+        + TABLE_REVIEW_DIRTY
+        + " x SET "
+        + COLUMN_REVIEW_DIRTY_WRITES
+        + " = x."
+        + COLUMN_REVIEW_DIRTY_WRITES
+        + " - d."
+        + COLUMN_REVIEW_DELTA_WRITES
+        + " FROM d WHERE x."
+        + COLUMN_REVIEW_DIRTY_RECIPE_ID
+        + " = d."
+        + COLUMN_REVIEW_DELTA_RECIPE_ID
+        + " AND x."
+        + COLUMN_REVIEW_DIRTY_MARKED_AT
+        + " = d."
+        + COLUMN_REVIEW_DELTA_MARKED_AT
+        + " AND x."
+        + COLUMN_REVIEW_DIRTY_WRITES
+        + " > d."
+        + COLUMN_REVIEW_DELTA_WRITES
+        + " RETURNING x."
+        + COLUMN_REVIEW_DIRTY_RECIPE_ID
+        + ") UPDATE "
+        + TABLE_RECIPE
+        + " r SET "
+        + sqlStarsCountColumns("%1$s = r.%1$s + d.stars_%2$d_delta, ")
+        + COLUMN_RECIPE_REVIEW_COUNT
+        + " = r."
+        + COLUMN_RECIPE_REVIEW_COUNT
+        + " + d.count_delta, "
+        + COLUMN_RECIPE_RATING_SUM
+        + " = CASE WHEN r."
+        + COLUMN_RECIPE_REVIEW_COUNT
+        + " + d.count_delta > 0 THEN r."
+        + COLUMN_RECIPE_RATING_SUM
+        + " + d.rating_delta ELSE 0 END, "
+        + COLUMN_RECIPE_RATING
+        + " = CASE WHEN r."
+        + COLUMN_RECIPE_REVIEW_COUNT
+        + " + d.count_delta > 0 THEN (r."
+        + COLUMN_RECIPE_RATING_SUM
+        + " + d.rating_delta) / (r."
+        + COLUMN_RECIPE_REVIEW_COUNT
+        + " + d.count_delta) END FROM d WHERE r."
+        + COLUMN_RECIPE_ID
+        + " = d."
+        + COLUMN_REVIEW_DELTA_RECIPE_ID
+        + " AND d."
+        + COLUMN_REVIEW_DELTA_RECIPE_ID
+        + " IN (SELECT "
+        + COLUMN_REVIEW_DIRTY_RECIPE_ID
+        + " FROM settled UNION ALL SELECT "
+        + COLUMN_REVIEW_DIRTY_RECIPE_ID
+        + " FROM unsettled)";
+  }
+
+  private static final String SQL_REVIEW_MATCHES_RECIPE_AND_CREATOR =
+      COLUMN_REVIEW_RECIPE_ID
+          + " = :"
+          + INPUT_REVIEW_RECIPE_ID
+          + " AND "
+          + COLUMN_REVIEW_CREATOR_ID
+          + " = :"
+          + INPUT_REVIEW_CREATOR_ID;
+
+  private static String sqlStars(String rating) {
+    return "LEAST(GREATEST(round(" + rating + "), 1), 5)";
+  }
+
+  // the format applied to each stars count column, with the column (%1$s) and its stars (%2$d)
+  private static String sqlStarsCountColumns(String format) {
+    StringBuilder sql = new StringBuilder();
+    for (int stars = 1; stars <= COLUMNS_RECIPE_STARS_COUNT.size(); stars++) {
+      sql.append(String.format(format, COLUMNS_RECIPE_STARS_COUNT.get(stars - 1), stars));
+    }
+    return sql.toString();
+  }
+
+  // the stars deltas of the reviews added (sign "") or removed (sign "-")
+  private static String sqlStarsDeltas(String sign) {
+    return sqlStarsCountColumns(
+        ", "
+            + sign
+            + "count(*) FILTER (WHERE "
+            + sqlStars(COLUMN_REVIEW_RATING)
+            + " = %2$d) AS stars_%2$d_delta");
+  }
+
+  // deletes the matching reviews and takes them off the aggregates of their recipes
+  private static String sqlReviewDelete(String condition) {
+    return "WITH deleted AS (DELETE FROM "
+        + TABLE_REVIEW
+        + " WHERE "
+        + condition
+        + " RETURNING "
+        + COLUMN_REVIEW_RECIPE_ID
+        + ", "
+        + COLUMN_REVIEW_RATING
+        + "), delta AS (SELECT "
+        + COLUMN_REVIEW_RECIPE_ID
+        + ", -count(*) AS count_delta, -sum("
+        + COLUMN_REVIEW_RATING
+        + ") AS rating_delta"
+        + sqlStarsDeltas("-")
+        + " FROM deleted GROUP BY "
+        + COLUMN_REVIEW_RECIPE_ID
+        + ")"
+        + SQL_REVIEW_SELECT_DELTA;
+  }
+
   public static final String SQL_REVIEW_ADD =
-      "INSERT INTO "
+      "WITH added AS (INSERT INTO "
           + TABLE_REVIEW
           + " ("
           + COLUMN_REVIEW_RECIPE_ID
@@ -361,9 +946,32 @@ public class PostgresSqlStatementRecipe {
           + INPUT_REVIEW_RATING
           + ", now(), now(), :"
           + INPUT_REVIEW_COMMENTS
-          + ")";
+          + ") RETURNING "
+          + COLUMN_REVIEW_RECIPE_ID
+          + ", "
+          + COLUMN_REVIEW_RATING
+          + "), delta AS (SELECT "
+          + COLUMN_REVIEW_RECIPE_ID
+          + ", count(*) AS count_delta, sum("
+          + COLUMN_REVIEW_RATING
+          + ") AS rating_delta"
+          + sqlStarsDeltas("")
+          + " FROM added GROUP BY "
+          + COLUMN_REVIEW_RECIPE_ID
+          + ")"
+          + SQL_REVIEW_SELECT_DELTA;
+  // the old ratings are locked and read first, so the delta is taken against the latest committed
+  // rating even when the same review is updated concurrently
   public static final String SQL_REVIEW_UPDATE =
-      "UPDATE "
+      "WITH old AS (SELECT "
+          + COLUMN_REVIEW_ID
+          + ", "
+          + COLUMN_REVIEW_RATING
+          + " FROM "
+          + TABLE_REVIEW
+          + " WHERE "
+          + SQL_REVIEW_MATCHES_RECIPE_AND_CREATOR
+          + " FOR UPDATE), updated AS (UPDATE "
           + TABLE_REVIEW
           + " SET "
           + COLUMN_REVIEW_RATING
@@ -377,13 +985,36 @@ public class PostgresSqlStatementRecipe {
           + COLUMN_REVIEW_UPDATE_TIME
           + " = now() "
           + "WHERE "
+          + COLUMN_REVIEW_ID
+          + " IN (SELECT "
+          + COLUMN_REVIEW_ID
+          + " FROM old) RETURNING "
+          + COLUMN_REVIEW_ID
+          + ", "
           + COLUMN_REVIEW_RECIPE_ID
-          + " = :"
-          + INPUT_REVIEW_RECIPE_ID
-          + " AND "
-          + COLUMN_REVIEW_CREATOR_ID
-          + " = :"
-          + INPUT_REVIEW_CREATOR_ID;
+          + ", "
+          + COLUMN_REVIEW_RATING
+          + "), delta AS (SELECT u."
+          + COLUMN_REVIEW_RECIPE_ID
+          + ", 0 AS count_delta, sum(u."
+          + COLUMN_REVIEW_RATING
+          + " - o."
+          + COLUMN_REVIEW_RATING
+          + ") AS rating_delta"
+          + sqlStarsCountColumns(
+              ", sum(("
+                  + sqlStars("u." + COLUMN_REVIEW_RATING)
+                  + " = %2$d)::int - ("
+                  + sqlStars("o." + COLUMN_REVIEW_RATING)
+                  + " = %2$d)::int) AS stars_%2$d_delta")
+          + " FROM updated u JOIN old o ON o."
+          + COLUMN_REVIEW_ID
+          + " = u."
+          + COLUMN_REVIEW_ID
+          + " GROUP BY u."
+          + COLUMN_REVIEW_RECIPE_ID
+          + ")"
+          + SQL_REVIEW_SELECT_DELTA;
   public static final String SQL_RECIPE_UPDATE_RATING =
       "UPDATE "
           + TABLE_RECIPE
@@ -396,7 +1027,114 @@ public class PostgresSqlStatementRecipe {
           + " = :"
           + INPUT_RECIPE_ID;
   public static final String SQL_REVIEW_DELETE =
-      "DELETE FROM "
+      sqlReviewDelete(SQL_REVIEW_MATCHES_RECIPE_AND_CREATOR);
+  public static final String SQL_REVIEW_DELETE_BY_RECIPE_ID =
+      sqlReviewDelete(COLUMN_REVIEW_RECIPE_ID + " = :" + INPUT_REVIEW_RECIPE_ID);
+  public static final String SQL_REVIEW_DELETE_BY_CREATOR_ID =
+      sqlReviewDelete(COLUMN_REVIEW_CREATOR_ID + " = :" + INPUT_REVIEW_CREATOR_ID);
+
+  private static final String SQL_RECIPE_DERIVED_RATING =
+      "CASE WHEN a.review_count > 0 THEN a.rating_sum / a.review_count END";
+  private static final String SQL_RECIPE_SET_REVIEW_AGGREGATES =
+      "UPDATE "
+          + TABLE_RECIPE
+          + " r SET "
+          + sqlStarsCountColumns("%1$s = a.%1$s, ")
+          + COLUMN_RECIPE_REVIEW_COUNT
+          + " = a.review_count, "
+          + COLUMN_RECIPE_RATING_SUM
+          + " = a.rating_sum, "
+          + COLUMN_RECIPE_RATING
+          + " = "
+          + SQL_RECIPE_DERIVED_RATING;
+
+  // Recomputes the review aggregates and rating of every recipe from its reviews, changing only the
+  // recipes that drifted, returns the number of recipes repaired
+  public static final String SQL_RECIPE_RECOMPUTE_REVIEW_AGGREGATES =
+      SQL_RECIPE_SET_REVIEW_AGGREGATES
+          + " FROM ("
+          + sqlRecipeReviewAggregates("")
+          + ") a WHERE r."
+          + COLUMN_RECIPE_ID
+          + " = a."
+          + COLUMN_RECIPE_ID
+          + " AND ("
+          + sqlStarsCountColumns("r.%1$s <> a.%1$s OR ")
+          + "r."
+          + COLUMN_RECIPE_REVIEW_COUNT
+          + " <> a.review_count OR r."
+          + COLUMN_RECIPE_RATING_SUM
+          + " <> a.rating_sum OR r."
+          + COLUMN_RECIPE_RATING
+          + " IS DISTINCT FROM "
+          + SQL_RECIPE_DERIVED_RATING
+          + ")";
+
+  // Recomputes from their reviews the recipes in TABLE_REVIEW_DIRTY whose first unapplied review
+  // write is more than lost_after_ms old and removes them from it, returns the ids of the recipes
+  // recomputed. The deltas of those writes no longer apply, their reviews are counted here. A row a
+  // review write still holds is skipped, the write is counted on the next recovery.
+  public static final String SQL_RECIPE_RECOMPUTE_LOST_REVIEW_AGGREGATES =
+      "WITH lost AS (DELETE FROM "
+          + TABLE_REVIEW_DIRTY
+          + " WHERE "
+          + COLUMN_REVIEW_DIRTY_RECIPE_ID
+          + " IN (SELECT "
+          + COLUMN_REVIEW_DIRTY_RECIPE_ID
+          + " FROM "
+          + TABLE_REVIEW_DIRTY
+          + " WHERE "
+          + COLUMN_REVIEW_DIRTY_MARKED_AT
+          + " < now() - :"
+          + INPUT_REVIEW_DIRTY_LOST_AFTER_MS
+          + " * interval '1 millisecond' FOR UPDATE SKIP LOCKED) RETURNING "
+          + COLUMN_REVIEW_DIRTY_RECIPE_ID
+          + ") "
+          + SQL_RECIPE_SET_REVIEW_AGGREGATES
+          + " FROM ("
+          + sqlRecipeReviewAggregates(
+              " WHERE x."
+                  + COLUMN_RECIPE_ID
+                  + " IN (SELECT "
+                  + COLUMN_REVIEW_DIRTY_RECIPE_ID
+                  + " FROM lost)")
+          + ") a WHERE r."
+          + COLUMN_RECIPE_ID
+          + " = a."
+          + COLUMN_RECIPE_ID
+          + " RETURNING r."
+          + COLUMN_RECIPE_ID;
+
+  // the review aggregates of the recipes matching the filter on "x", computed from their reviews
+  private static String sqlRecipeReviewAggregates(String recipeFilter) {
+    return "SELECT x."
+        + COLUMN_RECIPE_ID
+        + ", count(v."
+        + COLUMN_REVIEW_ID
+        + ") AS review_count, coalesce(sum(v."
+        + COLUMN_REVIEW_RATING
+        + "), 0) AS rating_sum"
+        + sqlStarsCountColumns(
+            ", count(v."
+                + COLUMN_REVIEW_ID
+                + ") FILTER (WHERE "
+                + sqlStars("v." + COLUMN_REVIEW_RATING)
+                + " = %2$d) AS %1$s")
+        + " FROM "
+        + TABLE_RECIPE
+        + " x LEFT JOIN "
+        + TABLE_REVIEW
+        + " v ON v."
+        + COLUMN_REVIEW_RECIPE_ID
+        + " = x."
+        + COLUMN_RECIPE_ID
+        + recipeFilter
+        + " GROUP BY x."
+        + COLUMN_RECIPE_ID;
+  }
+
+  public static final String SQL_REVIEW_GET_BY_RECIPE_AND_CREATOR =
+      "SELECT * FROM "
           + TABLE_REVIEW
           + " WHERE "
           + COLUMN_REVIEW_RECIPE_ID
@@ -406,36 +1144,105 @@ public class PostgresSqlStatementRecipe {
           + COLUMN_REVIEW_CREATOR_ID
           + " = :"
           + INPUT_REVIEW_CREATOR_ID;
-  public static final String SQL_REVIEW_DELETE_BY_RECIPE_ID =
-      "DELETE FROM "
+  public static final String SQL_REVIEW_GET_BY_RECIPE_ID =
+      "SELECT * FROM "
           + TABLE_REVIEW
           + " WHERE "
           + COLUMN_REVIEW_RECIPE_ID
           + " = :"
           + INPUT_REVIEW_RECIPE_ID;
-  public static final String SQL_REVIEW_DELETE_BY_CREATOR_ID =
-      "DELETE FROM "
-          + TABLE_REVIEW
-          + " WHERE "
-          + COLUMN_REVIEW_CREATOR_ID
-          + " = :"
-          + INPUT_REVIEW_CREATOR_ID;
-  public static final String SQL_REVIEW_GET_BY_RECIPE_AND_CREATOR =
-      "SELECT * FROM "
+  // The newest reviews of each of the recipes, at most :page_limit per recipe, each read from the
+  // (recipe_id, create_datetime, id) index of the newest page
+  public static final String SQL_REVIEW_GET_BY_RECIPE_IDS =
+      "SELECT rv.* FROM "
+          + TABLE_RECIPE
+          + " r CROSS JOIN LATERAL (SELECT * FROM "
           + TABLE_REVIEW
           + " WHERE "
           + COLUMN_REVIEW_RECIPE_ID
-          + " = :"
-          + INPUT_REVIEW_RECIPE_ID
-          + " AND "
+          + " = r."
+          + COLUMN_RECIPE_ID
+          + " ORDER BY "
+          + COLUMN_REVIEW_CREATE_TIME
+          + " DESC, "
+          + COLUMN_REVIEW_ID
+          + " DESC LIMIT :"
+          + INPUT_PAGE_LIMIT
+          + ") rv WHERE r."
+          + COLUMN_RECIPE_ID
+          + " IN (:"
+          + INPUT_REVIEW_RECIPE_IDS
+          + ") ORDER BY rv."
+          + COLUMN_REVIEW_RECIPE_ID
+          + ", rv."
+          + COLUMN_REVIEW_CREATE_TIME
+          + " DESC, rv."
+          + COLUMN_REVIEW_ID
+          + " DESC";
+
+  // The ratings of the published recipes, the input of the recipe similarity model, in recipe order
+  public static final String SQL_REVIEW_STREAM_PUBLISHED_RATINGS =
+      "SELECT rv."
+          + COLUMN_REVIEW_RECIPE_ID
+          + ", rv."
           + COLUMN_REVIEW_CREATOR_ID
-          + " = :"
-          + INPUT_REVIEW_CREATOR_ID;
-  public static final String SQL_REVIEW_GET_BY_RECIPE_ID =
-      "SELECT * FROM "
+          + ", rv."
+          + COLUMN_REVIEW_RATING
+          + " FROM "
           + TABLE_REVIEW
-          + " WHERE "
+          + " rv JOIN "
+          + TABLE_RECIPE
+          + " r ON r."
+          + COLUMN_RECIPE_ID
+          + " = rv."
           + COLUMN_REVIEW_RECIPE_ID
+          + " WHERE r."
+          + COLUMN_RECIPE_STATUS
+          + " = "
+          + ERecipeStatus.PUBLISHED.code
+          + " ORDER BY rv."
+          + COLUMN_REVIEW_RECIPE_ID
+          + ", rv."
+          + COLUMN_REVIEW_CREATOR_ID;
+
+  // Keyset paged reviews of a recipe, newest or highest rated first, each backed by an index on
+  // (recipe_id, sort key, id)
+  public static final String SQL_REVIEW_GET_BY_RECIPE_ID_NEWEST_PAGE =
+      sqlReviewKeysetPage(COLUMN_REVIEW_CREATE_TIME);
+  public static final String SQL_REVIEW_GET_BY_RECIPE_ID_TOP_RATED_PAGE =
+      sqlReviewKeysetPage(COLUMN_REVIEW_RATING);
+
+  private static String sqlReviewKeysetPage(String sortKey) {
+    return "SELECT * FROM "
+        + TABLE_REVIEW
+        + " WHERE "
+        + COLUMN_REVIEW_RECIPE_ID
+        + " = :"
+        + INPUT_REVIEW_RECIPE_ID
+        + " AND ("
+        + sortKey
+        + ", "
+        + COLUMN_REVIEW_ID
+        + ") < (:"
+        + INPUT_PAGE_AFTER_KEY
+        + ", :"
+        + INPUT_PAGE_AFTER_ID
+        + ") ORDER BY "
+        + sortKey
+        + " DESC, "
+        + COLUMN_REVIEW_ID
+        + " DESC LIMIT :"
+        + INPUT_PAGE_LIMIT;
+  }
+
+  // the review count maintained on the recipe, see sqlRecipeApplyReviewDeltas
+  public static final String SQL_REVIEW_COUNT_BY_RECIPE_ID =
+      "SELECT "
+          + COLUMN_RECIPE_REVIEW_COUNT
+          + " FROM "
+          + TABLE_RECIPE
+          + " WHERE "
+          + COLUMN_RECIPE_ID
           + " = :"
           + INPUT_REVIEW_RECIPE_ID;
   public static final String SQL_REVIEW_GET_BY_CREATOR_ID =
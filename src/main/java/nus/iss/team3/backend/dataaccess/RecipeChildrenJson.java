@@ -0,0 +1,96 @@
+package nus.iss.team3.backend.dataaccess;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import nus.iss.team3.backend.entity.CookingStep;
+import nus.iss.team3.backend.entity.RecipeIngredient;
+
+/**
+ * Reads the children of a recipe that the graph queries aggregate into one json column each, see
+ * SQL_RECIPE_GRAPH_GET_BY_ID. Every child is a positional array, so the json carries no keys:
+ *
+ * <ul>
+ *   <li>ingredients: [[id, name, quantity, uom], ...]
+ *   <li>cooking steps: [[id, description, image], ...]
+ * </ul>
+ *
+ * <p>The arrays are read with a streaming parser straight into the entities, without building a
+ * json tree or binding by reflection.
+ */
+final class RecipeChildrenJson {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private RecipeChildrenJson() {}
+
+  static List<RecipeIngredient> readIngredients(String json, Long recipeId) throws IOException {
+    List<RecipeIngredient> ingredients = new ArrayList<>();
+    if (json == null) {
+      return ingredients;
+    }
+    try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+      expect(parser.nextToken(), JsonToken.START_ARRAY);
+      JsonToken token;
+      while ((token = parser.nextToken()) == JsonToken.START_ARRAY) {
+        RecipeIngredient ingredient =
+            RecipeIngredient.builder()
+                .id(readLong(parser))
+                .recipeId(recipeId)
+                .name(readString(parser))
+                .quantity(readDouble(parser))
+                .uom(readString(parser))
+                .build();
+        expect(parser.nextToken(), JsonToken.END_ARRAY);
+        ingredients.add(ingredient);
+      }
+      expect(token, JsonToken.END_ARRAY);
+    }
+    return ingredients;
+  }
+
+  static List<CookingStep> readCookingSteps(String json, Long recipeId) throws IOException {
+    List<CookingStep> steps = new ArrayList<>();
+    if (json == null) {
+      return steps;
+    }
+    try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+      expect(parser.nextToken(), JsonToken.START_ARRAY);
+      JsonToken token;
+      while ((token = parser.nextToken()) == JsonToken.START_ARRAY) {
+        CookingStep step =
+            CookingStep.builder()
+                .id(readLong(parser))
+                .recipeId(recipeId)
+                .description(readString(parser))
+                .image(readString(parser))
+                .build();
+        expect(parser.nextToken(), JsonToken.END_ARRAY);
+        steps.add(step);
+      }
+      expect(token, JsonToken.END_ARRAY);
+    }
+    return steps;
+  }
+
+  private static Long readLong(JsonParser parser) throws IOException {
+    return parser.nextToken() == JsonToken.VALUE_NULL ? null : parser.getLongValue();
+  }
+
+  private static Double readDouble(JsonParser parser) throws IOException {
+    return parser.nextToken() == JsonToken.VALUE_NULL ? null : parser.getDoubleValue();
+  }
+
+  private static String readString(JsonParser parser) throws IOException {
+    return parser.nextToken() == JsonToken.VALUE_NULL ? null : parser.getText();
+  }
+
+  private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+    if (actual != expected) {
+      throw new IOException("Unexpected " + actual + " in recipe children json");
+    }
+  }
+}
@@ -1,17 +1,26 @@
 package nus.iss.team3.backend.dataaccess;
 
-import java.sql.Timestamp;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import nus.iss.team3.backend.dataaccess.postgres.IndexedRowMapper;
 import nus.iss.team3.backend.dataaccess.postgres.PostgresDataAccess;
 import nus.iss.team3.backend.entity.CookingStep;
 import nus.iss.team3.backend.entity.ERecipeStatus;
 import nus.iss.team3.backend.entity.Recipe;
 import nus.iss.team3.backend.entity.RecipeIngredient;
-import nus.iss.team3.backend.service.util.SqlUtilities;
+import nus.iss.team3.backend.entity.RecipeScore;
+import nus.iss.team3.backend.entity.RecipeSummary;
+import nus.iss.team3.backend.entity.ReviewAggregateDelta;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -23,10 +32,36 @@ import org.springframework.transaction.annotation.Transactional;
 public class RecipeDataAccess implements IRecipeDataAccess {
 
   private static final Logger logger = LogManager.getLogger(RecipeDataAccess.class);
+  // Upper bound of recipe ids bound into one IN list, well below the driver's parameter limit
+  private static final int CHILD_QUERY_BATCH_SIZE = 1000;
+  // Rows fetched per round trip when streaming, and recipes hydrated per child query
+  private static final int STREAM_FETCH_SIZE = 500;
+  // Recipes per apply of review deltas, 8 bind parameters each
+  private static final int REVIEW_DELTA_BATCH_SIZE = 500;
+
+  // Reads the id returned by an INSERT ... RETURNING id
+  private static final RowMapper<Long> GENERATED_ID_MAPPER = (rs, rowNum) -> rs.getLong(1);
+
+  // How getRecipeById, getRecipeByDraftId and getRecipeGraphById load the children of a recipe:
+  // in the same statement as the recipe (json), or with a query per kind of child (queries)
+  public static final String HYDRATION_JSON = "json";
+  public static final String HYDRATION_QUERIES = "queries";
+
   private final PostgresDataAccess postgresDataAccess;
+  private final boolean isJsonHydration;
 
-  public RecipeDataAccess(PostgresDataAccess postgresDataAccess) {
+  public RecipeDataAccess(
+      PostgresDataAccess postgresDataAccess,
+      @Value("${recipe.hydration:" + HYDRATION_JSON + "}") String hydration) {
     this.postgresDataAccess = postgresDataAccess;
+    if (HYDRATION_JSON.equals(hydration)) {
+      this.isJsonHydration = true;
+    } else if (HYDRATION_QUERIES.equals(hydration)) {
+      this.isJsonHydration = false;
+    } else {
+      throw new IllegalArgumentException("Unknown recipe hydration: " + hydration);
+    }
+    logger.info("Recipe hydration: {}", hydration);
   }
 
   @Override
@@ -39,9 +74,9 @@ public class RecipeDataAccess implements IRecipeDataAccess {
 
       Map<String, Object> recipeParams = buildRecipeParams(recipe);
 
-      List<Map<String, Object>> result =
+      List<Long> result =
           postgresDataAccess.queryStatement(
-              PostgresSqlStatementRecipe.SQL_RECIPE_ADD, recipeParams);
+              PostgresSqlStatementRecipe.SQL_RECIPE_ADD, recipeParams, GENERATED_ID_MAPPER);
 
       if (result == null || result.isEmpty()) {
         logger.warn("Failed to insert recipe, no generated ID returned");
@@ -49,8 +84,7 @@ public class RecipeDataAccess implements IRecipeDataAccess {
       }
 
       // Get the generated recipe ID and set it to the recipe object
-      Long recipeId =
-          ((Number) result.getFirst().get(PostgresSqlStatementRecipe.COLUMN_RECIPE_ID)).longValue();
+      Long recipeId = result.getFirst();
       recipe.setId(recipeId);
       logger.debug("Recipe inserted successfully, generated ID: {}", recipeId);
 
@@ -105,25 +139,10 @@ public class RecipeDataAccess implements IRecipeDataAccess {
       }
       logger.debug("Recipe updated successfully, number of updated rows: {}", updatedRows);
 
-      // Update ingredients: first delete existing ingredients, then insert new ones
-      deleteIngredients(recipe.getId());
-      if (recipe.getIngredients() != null && !recipe.getIngredients().isEmpty()) {
-        insertIngredients(recipe);
-        logger.debug("Ingredients updated successfully");
-      } else {
-        logger.debug("No ingredients to update for the recipe");
-      }
-      logger.debug("Ingredients updated successfully");
-
-      // Update cooking steps: first delete existing steps, then insert new ones
-      deleteCookingSteps(recipe.getId());
-      if (recipe.getCookingSteps() != null && !recipe.getCookingSteps().isEmpty()) {
-        insertCookingSteps(recipe);
-        logger.debug("Cooking steps updated successfully");
-      } else {
-        logger.debug("No cooking steps to update for the recipe");
-      }
-      logger.debug("Cooking steps updated successfully");
+      // Write only the child rows that changed. The recipe row updated above stays locked until
+      // commit, so concurrent updates of the same recipe do not interleave their child writes.
+      writeIngredientChanges(recipe);
+      writeCookingStepChanges(recipe);
 
       logger.debug("Recipe update completed: ID={}", recipe.getId());
       return true;
@@ -166,12 +185,19 @@ public class RecipeDataAccess implements IRecipeDataAccess {
   @Override
   public Recipe getRecipeById(Long recipeId) {
     logger.debug("Querying recipe: ID={}", recipeId);
+    if (isJsonHydration) {
+      return queryRecipeGraph(
+          PostgresSqlStatementRecipe.SQL_RECIPE_GRAPH_GET_BY_ID,
+          PostgresSqlStatementRecipe.INPUT_RECIPE_ID,
+          recipeId);
+    }
     try {
       // Execute the query
-      List<Map<String, Object>> result =
+      List<Recipe> result =
           postgresDataAccess.queryStatement(
               PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_ID,
-              Collections.singletonMap(PostgresSqlStatementRecipe.INPUT_RECIPE_ID, recipeId));
+              Collections.singletonMap(PostgresSqlStatementRecipe.INPUT_RECIPE_ID, recipeId),
+              new RecipeRowMapper());
 
       if (result == null || result.isEmpty()) {
         logger.warn("No recipe found with ID={}", recipeId);
@@ -179,7 +205,7 @@ public class RecipeDataAccess implements IRecipeDataAccess {
       }
 
       // Map the query result to a Recipe object
-      Recipe recipe = mapToRecipe(result.getFirst());
+      Recipe recipe = result.getFirst();
       logger.debug("Recipe mapping successful: ID={}", recipeId);
 
       // Query and set the recipe's ingredients
@@ -206,13 +232,20 @@ public class RecipeDataAccess implements IRecipeDataAccess {
   @Override
   public Recipe getRecipeByDraftId(Long draftRecipeId) {
     logger.debug("Querying by draft recipeId: ID={}", draftRecipeId);
+    if (isJsonHydration) {
+      return queryRecipeGraph(
+          PostgresSqlStatementRecipe.SQL_RECIPE_GRAPH_GET_BY_DRAFT_ID,
+          PostgresSqlStatementRecipe.INPUT_RECIPE_DRAFT_ID,
+          draftRecipeId);
+    }
     try {
       // Execute the query
-      List<Map<String, Object>> result =
+      List<Recipe> result =
           postgresDataAccess.queryStatement(
               PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_DRAFT_ID,
               Collections.singletonMap(
-                  PostgresSqlStatementRecipe.INPUT_RECIPE_DRAFT_ID, draftRecipeId));
+                  PostgresSqlStatementRecipe.INPUT_RECIPE_DRAFT_ID, draftRecipeId),
+              new RecipeRowMapper());
 
       if (result == null || result.isEmpty()) {
         // normal to no have draft recipe record, ok not to log anything.
@@ -220,7 +253,7 @@ public class RecipeDataAccess implements IRecipeDataAccess {
       }
 
       // Map the query result to a Recipe object
-      Recipe recipe = mapToRecipe(result.getFirst());
+      Recipe recipe = result.getFirst();
       logger.debug(
           "Recipe mapping successful: draft ID={}, main Id = {}", draftRecipeId, recipe.getId());
 
@@ -241,23 +274,78 @@ public class RecipeDataAccess implements IRecipeDataAccess {
     }
   }
 
+  @Override
+  public Recipe getRecipeGraphById(Long recipeId) {
+    if (!isJsonHydration) {
+      Recipe recipe = getRecipeById(recipeId);
+      if (recipe != null
+          && recipe.getDraftRecipe() != null
+          && recipe.getDraftRecipe().getId() != null) {
+        recipe.setDraftRecipe(getRecipeById(recipe.getDraftRecipe().getId()));
+      }
+      return recipe;
+    }
+
+    logger.debug("Querying recipe with draft: ID={}", recipeId);
+    try {
+      List<Recipe> result =
+          postgresDataAccess.queryStatement(
+              PostgresSqlStatementRecipe.SQL_RECIPE_GRAPH_GET_WITH_DRAFT_BY_ID,
+              Collections.singletonMap(PostgresSqlStatementRecipe.INPUT_RECIPE_ID, recipeId),
+              new RecipeGraphRowMapper());
+      if (result == null) {
+        return null;
+      }
+      Recipe recipe = null;
+      Recipe draft = null;
+      for (Recipe row : result) {
+        if (Objects.equals(row.getId(), recipeId)) {
+          recipe = row;
+        } else {
+          draft = row;
+        }
+      }
+      if (recipe == null) {
+        logger.warn("No recipe found with ID={}", recipeId);
+        return null;
+      }
+      if (recipe.getDraftRecipe() != null) {
+        // a draft id whose row is gone reads as no draft, as with getRecipeById
+        recipe.setDraftRecipe(draft);
+      }
+      return recipe;
+    } catch (Exception e) {
+      logger.error("Exception occurred while querying recipe with draft: {}", e.getMessage(), e);
+      throw e;
+    }
+  }
+
+  // one statement for the recipe and its children, null when there is no such recipe
+  private Recipe queryRecipeGraph(String sql, String input, Long id) {
+    try {
+      List<Recipe> result =
+          postgresDataAccess.queryStatement(
+              sql, Collections.singletonMap(input, id), new RecipeGraphRowMapper());
+      if (result == null || result.isEmpty()) {
+        return null;
+      }
+      return result.getFirst();
+    } catch (Exception e) {
+      logger.error("Exception occurred while querying recipe: {}", e.getMessage(), e);
+      throw e;
+    }
+  }
+
   @Override
   public List<Recipe> getAllRecipes() {
     logger.debug("Querying all recipes");
     try {
       // Execute the query
-      List<Map<String, Object>> result =
-          postgresDataAccess.queryStatement(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL, null);
+      List<Recipe> result =
+          postgresDataAccess.queryStatement(
+              PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL, null, new RecipeRowMapper());
 
-      List<Recipe> recipes = new ArrayList<>();
-      for (Map<String, Object> row : result) {
-        Recipe recipe = mapToRecipe(row);
-        // Query and set the recipe's ingredients
-        recipe.setIngredients(getIngredientsForRecipe(recipe.getId()));
-        // Query and set the recipe's cooking steps
-        recipe.setCookingSteps(getCookingStepsForRecipe(recipe.getId()));
-        recipes.add(recipe); // Add to the recipe list
-      }
+      List<Recipe> recipes = attachChildren(result);
 
       logger.debug("Querying all recipes completed, count: {}", recipes.size());
       return recipes;
@@ -272,22 +360,14 @@ public class RecipeDataAccess implements IRecipeDataAccess {
     logger.debug("Querying all published recipes");
     try {
       // Execute the query
-      List<Map<String, Object>> result =
+      List<Recipe> result =
           postgresDataAccess.queryStatement(
-              PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_PUBLISHED, null);
+              PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_PUBLISHED, null, new RecipeRowMapper());
 
       if (result == null) {
         return null;
       }
-      List<Recipe> recipes = new ArrayList<>();
-      for (Map<String, Object> row : result) {
-        Recipe recipe = mapToRecipe(row);
-        // Query and set the recipe's ingredients
-        recipe.setIngredients(getIngredientsForRecipe(recipe.getId()));
-        // Query and set the recipe's cooking steps
-        recipe.setCookingSteps(getCookingStepsForRecipe(recipe.getId()));
-        recipes.add(recipe); // Add to the recipe list
-      }
+      List<Recipe> recipes = attachChildren(result);
 
       logger.debug("Querying all published recipes completed, count: {} ", recipes.size());
       return recipes;
@@ -302,21 +382,14 @@ public class RecipeDataAccess implements IRecipeDataAccess {
     logger.debug("Querying recipes by name: Name contains '{}'", name);
     try {
       // Execute the query: use wildcard for fuzzy query
-      List<Map<String, Object>> result =
+      List<Recipe> result =
           postgresDataAccess.queryStatement(
               PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_NAME,
               Collections.singletonMap(
-                  PostgresSqlStatementRecipe.INPUT_RECIPE_NAME, "%" + name + "%"));
+                  PostgresSqlStatementRecipe.INPUT_RECIPE_NAME, "%" + name + "%"),
+              new RecipeRowMapper());
 
-      List<Recipe> recipes = new ArrayList<>();
-      for (Map<String, Object> row : result) {
-        Recipe recipe = mapToRecipe(row);
-        // Query and set the recipe's ingredients
-        recipe.setIngredients(getIngredientsForRecipe(recipe.getId()));
-        // Query and set the recipe's cooking steps
-        recipe.setCookingSteps(getCookingStepsForRecipe(recipe.getId()));
-        recipes.add(recipe);
-      }
+      List<Recipe> recipes = attachChildren(result);
 
       logger.debug("Querying recipes by name completed, found {} records", recipes.size());
       return recipes;
@@ -326,30 +399,49 @@ public class RecipeDataAccess implements IRecipeDataAccess {
     }
   }
 
+  @Override
+  public List<Recipe> searchPublishedRecipes(String query, int limit) {
+    logger.debug("Searching published recipes: query '{}', limit {}", query, limit);
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Search limit must be greater than 0");
+    }
+    Map<String, Object> params = new HashMap<>();
+    params.put(PostgresSqlStatementRecipe.INPUT_SEARCH_QUERY, query);
+    params.put(PostgresSqlStatementRecipe.INPUT_SEARCH_LIMIT, limit);
+    try {
+      List<Recipe> result =
+          postgresDataAccess.queryStatement(
+              PostgresSqlStatementRecipe.SQL_RECIPE_SEARCH_PUBLISHED,
+              params,
+              new RecipeRowMapper());
+      if (result == null) {
+        return new ArrayList<>();
+      }
+      List<Recipe> recipes = attachChildren(result);
+      logger.debug("Searching published recipes completed, found {} records", recipes.size());
+      return recipes;
+    } catch (Exception e) {
+      logger.error("Exception occurred while searching recipes: {}", e.getMessage(), e);
+      throw e;
+    }
+  }
+
   @Override
   public List<Recipe> getRecipeByCreatorId(int creatorId) {
     logger.debug("Querying recipe: creator Id={}", creatorId);
     try {
       // Execute the query
-      List<Map<String, Object>> result =
+      List<Recipe> result =
           postgresDataAccess.queryStatement(
               PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_CREATOR_ID,
               Collections.singletonMap(
-                  PostgresSqlStatementRecipe.INPUT_RECIPE_CREATOR_ID, creatorId));
+                  PostgresSqlStatementRecipe.INPUT_RECIPE_CREATOR_ID, creatorId),
+              new RecipeRowMapper());
       if (result == null || result.isEmpty()) {
         logger.warn("No recipe found with creatorID={} ", creatorId);
         return null;
       }
-      // TODO: fixed set ingredients and cooking steps, and add try-catch structure
-      List<Recipe> recipes = new ArrayList<>();
-      for (Map<String, Object> row : result) {
-        Recipe recipe = mapToRecipe(row);
-        // Query and set the recipe's ingredients
-        recipe.setIngredients(getIngredientsForRecipe(recipe.getId()));
-        // Query and set the recipe's cooking steps
-        recipe.setCookingSteps(getCookingStepsForRecipe(recipe.getId()));
-        recipes.add(recipe); // Add to the recipe list
-      }
+      List<Recipe> recipes = attachChildren(result);
 
       logger.debug("Querying recipes with creatorId completed, count: {}", recipes.size());
       return recipes;
@@ -360,34 +452,41 @@ public class RecipeDataAccess implements IRecipeDataAccess {
     }
   }
 
+  @Override
+  public List<RecipeScore> getRecipeRatingsByCreatorId(int creatorId) {
+    logger.debug("Querying recipe ratings: creator Id={}", creatorId);
+    List<RecipeScore> result =
+        postgresDataAccess.queryStatement(
+            PostgresSqlStatementRecipe.SQL_RECIPE_RATINGS_GET_BY_CREATOR_ID,
+            Collections.singletonMap(PostgresSqlStatementRecipe.INPUT_RECIPE_CREATOR_ID, creatorId),
+            new RecipeRatingMapper());
+    return result == null ? new ArrayList<>() : result;
+  }
+
   @Override
   public List<Recipe> getAllPublishedRecipesByDifficulty(boolean isDesc) {
     logger.info("Querying all recipes by difficulty");
     try {
       // Execute the query
-      List<Map<String, Object>> result;
+      List<Recipe> result;
       if (isDesc) {
         result =
             postgresDataAccess.queryStatement(
-                PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY_DESC, null);
+                PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY_DESC,
+                null,
+                new RecipeRowMapper());
       } else {
         result =
             postgresDataAccess.queryStatement(
-                PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY, null);
+                PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY,
+                null,
+                new RecipeRowMapper());
       }
       if (result == null || result.isEmpty()) {
         return null;
       }
 
-      List<Recipe> recipes = new ArrayList<>();
-      for (Map<String, Object> row : result) {
-        Recipe recipe = mapToRecipe(row);
-        // Query and set the recipe's ingredients
-        recipe.setIngredients(getIngredientsForRecipe(recipe.getId()));
-        // Query and set the recipe's cooking steps
-        recipe.setCookingSteps(getCookingStepsForRecipe(recipe.getId()));
-        recipes.add(recipe); // Add to the recipe list
-      }
+      List<Recipe> recipes = attachChildren(result);
 
       logger.info("Querying all recipes completed by difficulty, count: {}", recipes.size());
       return recipes;
@@ -402,29 +501,25 @@ public class RecipeDataAccess implements IRecipeDataAccess {
     logger.info("Querying all recipes by rating");
     try {
       // Execute the query
-      List<Map<String, Object>> result;
+      List<Recipe> result;
       if (isDesc) {
         result =
             postgresDataAccess.queryStatement(
-                PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING_DESC, null);
+                PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING_DESC,
+                null,
+                new RecipeRowMapper());
       } else {
         result =
             postgresDataAccess.queryStatement(
-                PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING, null);
+                PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING,
+                null,
+                new RecipeRowMapper());
       }
       if (result == null || result.isEmpty()) {
         return null;
       }
 
-      List<Recipe> recipes = new ArrayList<>();
-      for (Map<String, Object> row : result) {
-        Recipe recipe = mapToRecipe(row);
-        // Query and set the recipe's ingredients
-        recipe.setIngredients(getIngredientsForRecipe(recipe.getId()));
-        // Query and set the recipe's cooking steps
-        recipe.setCookingSteps(getCookingStepsForRecipe(recipe.getId()));
-        recipes.add(recipe); // Add to the recipe list
-      }
+      List<Recipe> recipes = attachChildren(result);
 
       logger.info("Querying all recipes by rating completed, count: {}", recipes.size());
       return recipes;
@@ -469,6 +564,277 @@ public class RecipeDataAccess implements IRecipeDataAccess {
     }
   }
 
+  @Override
+  public int recomputeReviewAggregates() {
+    logger.info("Starting to recompute recipe review aggregates");
+    int repaired =
+        postgresDataAccess.upsertStatement(
+            PostgresSqlStatementRecipe.SQL_RECIPE_RECOMPUTE_REVIEW_AGGREGATES, new HashMap<>());
+    if (repaired < 0) {
+      logger.error("Failed to recompute recipe review aggregates");
+      throw new IllegalStateException("Failed to recompute recipe review aggregates");
+    }
+    logger.info("Recomputed recipe review aggregates, {} recipes repaired", repaired);
+    return repaired;
+  }
+
+  @Override
+  @Transactional
+  public int applyReviewAggregateDeltas(Collection<ReviewAggregateDelta> deltas) {
+    // all batches commit or none does, so deltas put back after a failure are never applied twice
+    // in recipe id order, so concurrent applies lock the recipe rows in the same order
+    List<ReviewAggregateDelta> sorted =
+        deltas.stream().sorted(Comparator.comparing(ReviewAggregateDelta::getRecipeId)).toList();
+    int updated = 0;
+    for (int from = 0; from < sorted.size(); from += REVIEW_DELTA_BATCH_SIZE) {
+      List<ReviewAggregateDelta> batch =
+          sorted.subList(from, Math.min(from + REVIEW_DELTA_BATCH_SIZE, sorted.size()));
+      Map<String, Object> params = new HashMap<>();
+      for (int row = 0; row < batch.size(); row++) {
+        ReviewAggregateDelta delta = batch.get(row);
+        params.put(
+            PostgresSqlStatementRecipe.inputReviewDelta(
+                PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_RECIPE_ID, row),
+            delta.getRecipeId());
+        params.put(
+            PostgresSqlStatementRecipe.inputReviewDelta(
+                PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_MARKED_AT, row),
+            delta.getMarkedAt());
+        params.put(
+            PostgresSqlStatementRecipe.inputReviewDelta(
+                PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_COUNT, row),
+            delta.getCountDelta());
+        params.put(
+            PostgresSqlStatementRecipe.inputReviewDelta(
+                PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_RATING, row),
+            delta.getRatingDelta());
+        for (int stars = 1; stars <= 5; stars++) {
+          params.put(
+              PostgresSqlStatementRecipe.inputReviewDelta(
+                  PostgresSqlStatementRecipe.COLUMNS_REVIEW_DELTA_STARS.get(stars - 1), row),
+              delta.getStarsDelta(stars));
+        }
+        params.put(
+            PostgresSqlStatementRecipe.inputReviewDelta(
+                PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_WRITES, row),
+            delta.getWrites());
+      }
+      int result =
+          postgresDataAccess.upsertStatement(
+              PostgresSqlStatementRecipe.sqlRecipeApplyReviewDeltas(batch.size()), params);
+      if (result < 0) {
+        logger.error("Failed to apply review deltas to {} recipes", batch.size());
+        throw new IllegalStateException("Failed to apply review deltas");
+      }
+      updated += result;
+    }
+    logger.debug("Applied review deltas to {} recipes", updated);
+    return updated;
+  }
+
+  // a dirty row written after the snapshot fails the statement rather than being recomputed without
+  // the review of that write, the recipe is recovered on the next run
+  @Override
+  @Transactional(isolation = Isolation.REPEATABLE_READ)
+  public List<Long> recomputeLostReviewAggregates(long lostAfterMillis) {
+    List<Long> recomputed =
+        postgresDataAccess.queryStatement(
+            PostgresSqlStatementRecipe.SQL_RECIPE_RECOMPUTE_LOST_REVIEW_AGGREGATES,
+            Map.of(PostgresSqlStatementRecipe.INPUT_REVIEW_DIRTY_LOST_AFTER_MS, lostAfterMillis),
+            GENERATED_ID_MAPPER);
+    if (recomputed == null) {
+      logger.error("Failed to recompute the review aggregates of recipes with lost deltas");
+      throw new IllegalStateException("Failed to recompute lost review aggregates");
+    }
+    if (!recomputed.isEmpty()) {
+      logger.warn(
+          "Recomputed the review aggregates of {} recipes with lost deltas: {}",
+          recomputed.size(),
+          recomputed);
+    }
+    return recomputed;
+  }
+
+  @Override
+  public List<Recipe> getRecipesByIds(Collection<Long> recipeIds) {
+    if (recipeIds == null || recipeIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+    logger.debug("Querying recipes by ids, count: {}", recipeIds.size());
+    try {
+      List<Recipe> recipes = new ArrayList<>();
+      List<Long> ids = new ArrayList<>(recipeIds);
+      for (int from = 0; from < ids.size(); from += CHILD_QUERY_BATCH_SIZE) {
+        List<Long> batch = ids.subList(from, Math.min(from + CHILD_QUERY_BATCH_SIZE, ids.size()));
+        List<Recipe> result =
+            postgresDataAccess.queryStatement(
+                PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_IDS,
+                Map.of(PostgresSqlStatementRecipe.INPUT_RECIPE_IDS, batch),
+                new RecipeRowMapper());
+        if (result != null) {
+          recipes.addAll(attachChildren(result));
+        }
+      }
+      return recipes;
+    } catch (Exception e) {
+      logger.error("Exception occurred while querying recipes by ids: {}", e.getMessage(), e);
+      throw e;
+    }
+  }
+
+  @Override
+  public List<Recipe> getRecipesPage(long afterId, int limit) {
+    return queryRecipePage(
+        PostgresSqlStatementRecipe.SQL_RECIPE_GET_PAGE, buildPageParams(null, afterId, limit));
+  }
+
+  @Override
+  public List<Recipe> getPublishedRecipesPage(long afterId, int limit) {
+    return queryRecipePage(
+        PostgresSqlStatementRecipe.SQL_RECIPE_GET_PUBLISHED_PAGE,
+        buildPageParams(null, afterId, limit));
+  }
+
+  @Override
+  public List<Recipe> getRecipesByCreatorIdPage(int creatorId, long afterId, int limit) {
+    Map<String, Object> params = buildPageParams(null, afterId, limit);
+    params.put(PostgresSqlStatementRecipe.INPUT_RECIPE_CREATOR_ID, creatorId);
+    return queryRecipePage(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_CREATOR_ID_PAGE, params);
+  }
+
+  @Override
+  public List<Recipe> getPublishedRecipesByDifficultyPage(
+      boolean isDesc, int afterDifficulty, long afterId, int limit) {
+    return queryRecipePage(
+        isDesc
+            ? PostgresSqlStatementRecipe.SQL_RECIPE_GET_PUBLISHED_BY_DIFFICULTY_DESC_PAGE
+            : PostgresSqlStatementRecipe.SQL_RECIPE_GET_PUBLISHED_BY_DIFFICULTY_PAGE,
+        buildPageParams(afterDifficulty, afterId, limit));
+  }
+
+  @Override
+  public List<Recipe> getPublishedRecipesByRatingPage(
+      boolean isDesc, double afterRating, long afterId, int limit) {
+    return queryRecipePage(
+        isDesc
+            ? PostgresSqlStatementRecipe.SQL_RECIPE_GET_PUBLISHED_BY_RATING_DESC_PAGE
+            : PostgresSqlStatementRecipe.SQL_RECIPE_GET_PUBLISHED_BY_RATING_PAGE,
+        buildPageParams(afterRating, afterId, limit));
+  }
+
+  @Override
+  public List<RecipeSummary> getPublishedRecipeSummariesPage(long afterId, int limit) {
+    return querySummaryPage(
+        PostgresSqlStatementRecipe.SQL_RECIPE_SUMMARY_GET_PUBLISHED_PAGE,
+        buildPageParams(null, afterId, limit));
+  }
+
+  @Override
+  public List<RecipeSummary> getPublishedRecipeSummariesByDifficultyPage(
+      boolean isDesc, int afterDifficulty, long afterId, int limit) {
+    return querySummaryPage(
+        isDesc
+            ? PostgresSqlStatementRecipe.SQL_RECIPE_SUMMARY_GET_PUBLISHED_BY_DIFFICULTY_DESC_PAGE
+            : PostgresSqlStatementRecipe.SQL_RECIPE_SUMMARY_GET_PUBLISHED_BY_DIFFICULTY_PAGE,
+        buildPageParams(afterDifficulty, afterId, limit));
+  }
+
+  @Override
+  public List<RecipeSummary> getPublishedRecipeSummariesByRatingPage(
+      boolean isDesc, double afterRating, long afterId, int limit) {
+    return querySummaryPage(
+        isDesc
+            ? PostgresSqlStatementRecipe.SQL_RECIPE_SUMMARY_GET_PUBLISHED_BY_RATING_DESC_PAGE
+            : PostgresSqlStatementRecipe.SQL_RECIPE_SUMMARY_GET_PUBLISHED_BY_RATING_PAGE,
+        buildPageParams(afterRating, afterId, limit));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public void streamAllPublishedRecipes(Consumer<Recipe> consumer) {
+    logger.debug("Streaming all published recipes");
+    List<Recipe> chunk = new ArrayList<>(STREAM_FETCH_SIZE);
+    try {
+      postgresDataAccess.streamStatement(
+          PostgresSqlStatementRecipe.SQL_RECIPE_STREAM_PUBLISHED,
+          null,
+          STREAM_FETCH_SIZE,
+          new RecipeRowMapper(),
+          recipe -> {
+            chunk.add(recipe);
+            if (chunk.size() >= STREAM_FETCH_SIZE) {
+              flushChunk(chunk, consumer);
+            }
+          });
+      flushChunk(chunk, consumer);
+    } catch (Exception e) {
+      logger.error("Exception occurred while streaming published recipes: {}", e.getMessage(), e);
+      throw e;
+    }
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public void streamPublishedRecipeIngredients(Consumer<RecipeIngredient> consumer) {
+    logger.debug("Streaming the ingredients of published recipes");
+    postgresDataAccess.streamStatement(
+        PostgresSqlStatementRecipe.SQL_INGREDIENT_STREAM_PUBLISHED_NAMES,
+        null,
+        STREAM_FETCH_SIZE,
+        new RecipeIngredientMapper(),
+        consumer);
+  }
+
+  // Helper method: Hydrate a chunk of streamed recipes, pass them on and reuse the buffer
+  private void flushChunk(List<Recipe> chunk, Consumer<Recipe> consumer) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    attachChildren(chunk);
+    chunk.forEach(consumer);
+    chunk.clear();
+  }
+
+  private List<Recipe> queryRecipePage(String sql, Map<String, Object> params) {
+    logger.debug("Querying recipe page: {}", params);
+    try {
+      List<Recipe> result = postgresDataAccess.queryStatement(sql, params, new RecipeRowMapper());
+      if (result == null) {
+        return new ArrayList<>();
+      }
+      return attachChildren(result);
+    } catch (Exception e) {
+      logger.error("Exception occurred while querying recipe page: {}", e.getMessage(), e);
+      throw e;
+    }
+  }
+
+  // a summary page is a single query, no children are loaded
+  private List<RecipeSummary> querySummaryPage(String sql, Map<String, Object> params) {
+    logger.debug("Querying recipe summary page: {}", params);
+    try {
+      List<RecipeSummary> result =
+          postgresDataAccess.queryStatement(sql, params, new RecipeSummaryRowMapper());
+      return result == null ? new ArrayList<>() : result;
+    } catch (Exception e) {
+      logger.error("Exception occurred while querying recipe summary page: {}", e.getMessage(), e);
+      throw e;
+    }
+  }
+
+  private Map<String, Object> buildPageParams(Object afterKey, long afterId, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Page limit must be greater than 0");
+    }
+    Map<String, Object> params = new HashMap<>();
+    if (afterKey != null) {
+      params.put(PostgresSqlStatementRecipe.INPUT_PAGE_AFTER_KEY, afterKey);
+    }
+    params.put(PostgresSqlStatementRecipe.INPUT_PAGE_AFTER_ID, afterId);
+    params.put(PostgresSqlStatementRecipe.INPUT_PAGE_LIMIT, limit);
+    return params;
+  }
+
   // Helper method: Build a map of recipe parameters
   private Map<String, Object> buildRecipeParams(Recipe recipe) {
     Map<String, Object> recipeParams = new HashMap<>();
@@ -490,70 +856,6 @@ public class RecipeDataAccess implements IRecipeDataAccess {
     return recipeParams;
   }
 
-  // Helper method: Map database record to Recipe object
-  private Recipe mapToRecipe(Map<String, Object> row) {
-    logger.debug("Mapping database record to Recipe object");
-    logger.debug("mapToRecipe: {}", row);
-    Recipe recipe = new Recipe();
-
-    recipe.setId(
-        row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_ID) != null
-            ? ((Number) row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_ID)).longValue()
-            : null);
-    recipe.setCreatorId(
-        row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_CREATOR_ID) != null
-            ? ((Number) row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_CREATOR_ID)).longValue()
-            : null);
-    recipe.setName(
-        row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_NAME) != null
-            ? (String) row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_NAME)
-            : null);
-    recipe.setImage(
-        row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_IMAGE) != null
-            ? (String) row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_IMAGE)
-            : null);
-    recipe.setDescription(
-        row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_DESCRIPTION) != null
-            ? (String) row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_DESCRIPTION)
-            : null);
-    recipe.setCookingTimeInMin(
-        row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_COOKING_TIME) != null
-            ? ((Number) row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_COOKING_TIME)).intValue()
-            : null);
-    recipe.setDifficultyLevel(
-        row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_DIFFICULTY_LEVEL) != null
-            ? ((Number) row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_DIFFICULTY_LEVEL))
-                .intValue()
-            : null);
-    recipe.setRating(
-        row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_RATING) != null
-            ? ((Number) row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_RATING)).doubleValue()
-            : null);
-    // Convert integer values to ERecipeStatus
-    recipe.setStatus(
-        row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_STATUS) != null
-            ? ERecipeStatus.valueOfCode(
-                ((Number) row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_STATUS)).intValue())
-            : null);
-    recipe.setCuisine(
-        row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_CUISINE) != null
-            ? (String) row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_CUISINE)
-            : null);
-    recipe.setCreateDatetime(
-        row.get("create_datetime") != null ? (Timestamp) row.get("create_datetime") : null);
-    recipe.setUpdateDatetime(
-        row.get("update_datetime") != null ? (Timestamp) row.get("update_datetime") : null);
-
-    if (row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_DRAFT_ID) != null) {
-      Recipe temp = new Recipe();
-      temp.setId(((Number) row.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_DRAFT_ID)).longValue());
-      recipe.setDraftRecipe(temp);
-    }
-
-    logger.debug("Recipe object mapping completed: ID={}", recipe.getId());
-    return recipe;
-  }
-
   private void validateRecipe(Recipe recipe) {
     logger.debug("Validating recipe: {}", recipe.getName());
     if (recipe.getCreatorId() == null
@@ -595,25 +897,30 @@ public class RecipeDataAccess implements IRecipeDataAccess {
       return; // Return directly, do not perform insertion
     }
 
-    for (RecipeIngredient ingredient : recipe.getIngredients()) {
+    insertIngredients(recipe.getId(), recipe.getIngredients());
+    logger.debug("Ingredients insertion completed, Recipe ID={}", recipe.getId());
+  }
+
+  private void insertIngredients(Long recipeId, List<RecipeIngredient> ingredients) {
+    List<Map<String, Object>> batchParams = new ArrayList<>();
+    for (RecipeIngredient ingredient : ingredients) {
       validateIngredient(ingredient);
-      try {
-        Map<String, Object> ingredientParams = new HashMap<>();
-        ingredientParams.put(PostgresSqlStatementRecipe.INPUT_INGREDIENT_RECIPE_ID, recipe.getId());
-        ingredientParams.put(
-            PostgresSqlStatementRecipe.INPUT_INGREDIENT_NAME, ingredient.getName());
-        ingredientParams.put(
-            PostgresSqlStatementRecipe.INPUT_INGREDIENT_QUANTITY, ingredient.getQuantity());
-        ingredientParams.put(PostgresSqlStatementRecipe.INPUT_INGREDIENT_UOM, ingredient.getUom());
-        postgresDataAccess.queryStatement(
-            PostgresSqlStatementRecipe.SQL_INGREDIENT_ADD, ingredientParams);
-        logger.debug("Inserted ingredient: {}", ingredient.getName());
-      } catch (Exception e) {
-        logger.error("Exception occurred while inserting ingredient: {}", e.getMessage(), e);
-        throw e;
-      }
+      Map<String, Object> ingredientParams = new HashMap<>();
+      ingredientParams.put(PostgresSqlStatementRecipe.INPUT_INGREDIENT_RECIPE_ID, recipeId);
+      ingredientParams.put(PostgresSqlStatementRecipe.INPUT_INGREDIENT_NAME, ingredient.getName());
+      ingredientParams.put(
+          PostgresSqlStatementRecipe.INPUT_INGREDIENT_QUANTITY, ingredient.getQuantity());
+      ingredientParams.put(PostgresSqlStatementRecipe.INPUT_INGREDIENT_UOM, ingredient.getUom());
+      batchParams.add(ingredientParams);
+    }
+    // one batch for all ingredients instead of a round trip per ingredient
+    int[] insertedRows =
+        postgresDataAccess.batchUpdateStatement(
+            PostgresSqlStatementRecipe.SQL_INGREDIENT_ADD, batchParams);
+    if (insertedRows == null) {
+      logger.error("Failed to insert ingredients, Recipe ID={}", recipeId);
+      throw new IllegalArgumentException("Failed to insert ingredients");
     }
-    logger.debug("Ingredients insertion completed, Recipe ID={}", recipe.getId());
   }
 
   // Helper method: Delete ingredients associated with the recipe
@@ -644,23 +951,151 @@ public class RecipeDataAccess implements IRecipeDataAccess {
       return; // Return directly, do not perform insertion
     }
 
-    for (CookingStep step : recipe.getCookingSteps()) {
+    insertCookingSteps(recipe.getId(), recipe.getCookingSteps());
+    logger.debug("Cooking steps insertion completed, Recipe ID={}", recipe.getId());
+  }
+
+  private void insertCookingSteps(Long recipeId, List<CookingStep> steps) {
+    List<Map<String, Object>> batchParams = new ArrayList<>();
+    for (CookingStep step : steps) {
       validateCookingStep(step); // Validate non-empty fields
-      try {
+      Map<String, Object> stepParams = new HashMap<>();
+      stepParams.put(PostgresSqlStatementRecipe.INPUT_COOKING_STEP_RECIPE_ID, recipeId);
+      stepParams.put(
+          PostgresSqlStatementRecipe.INPUT_COOKING_STEP_DESCRIPTION, step.getDescription());
+      stepParams.put(PostgresSqlStatementRecipe.INPUT_COOKING_STEP_IMAGE, step.getImage());
+      batchParams.add(stepParams);
+    }
+    // one batch for all steps, in order, so their ids keep the order of the steps
+    int[] insertedRows =
+        postgresDataAccess.batchUpdateStatement(
+            PostgresSqlStatementRecipe.SQL_COOKING_STEP_ADD, batchParams);
+    if (insertedRows == null) {
+      logger.error("Failed to insert cooking steps, Recipe ID={}", recipeId);
+      throw new IllegalArgumentException("Failed to insert cooking steps");
+    }
+  }
+
+  // Helper method: Bring the stored ingredients in line with the recipe, see ChildChangeSet
+  void writeIngredientChanges(Recipe recipe) {
+    Long recipeId = recipe.getId();
+    List<RecipeIngredient> incoming =
+        recipe.getIngredients() == null ? List.of() : recipe.getIngredients();
+    incoming.forEach(this::validateIngredient);
+
+    List<RecipeIngredient> stored =
+        postgresDataAccess.queryStatement(
+            PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID,
+            Map.of(PostgresSqlStatementRecipe.INPUT_INGREDIENT_RECIPE_ID, recipeId),
+            new RecipeIngredientMapper());
+    if (stored == null) {
+      logger.error("Failed to load stored ingredients, Recipe ID={}", recipeId);
+      throw new IllegalArgumentException("Failed to load ingredients");
+    }
+
+    ChildChangeSet<RecipeIngredient> changes = ChildChangeSet.forIngredients(stored, incoming);
+    if (changes.isEmpty()) {
+      logger.debug("Ingredients unchanged, Recipe ID={}", recipeId);
+      return;
+    }
+    logger.debug(
+        "Ingredient changes, Recipe ID={}: {} inserts, {} updates, {} deletes",
+        recipeId,
+        changes.inserts.size(),
+        changes.updates.size(),
+        changes.deleteIds.size());
+
+    if (!changes.deleteIds.isEmpty()) {
+      Map<String, Object> deleteParams = new HashMap<>();
+      deleteParams.put(PostgresSqlStatementRecipe.INPUT_INGREDIENT_RECIPE_ID, recipeId);
+      deleteParams.put(PostgresSqlStatementRecipe.INPUT_INGREDIENT_IDS, changes.deleteIds);
+      if (postgresDataAccess.upsertStatement(
+              PostgresSqlStatementRecipe.SQL_INGREDIENT_DELETE_BY_IDS, deleteParams)
+          < 0) {
+        throw new IllegalArgumentException("Failed to delete ingredients");
+      }
+    }
+    if (!changes.updates.isEmpty()) {
+      List<Map<String, Object>> batchParams = new ArrayList<>();
+      for (RecipeIngredient ingredient : changes.updates) {
+        Map<String, Object> ingredientParams = new HashMap<>();
+        ingredientParams.put(PostgresSqlStatementRecipe.INPUT_INGREDIENT_ID, ingredient.getId());
+        ingredientParams.put(
+            PostgresSqlStatementRecipe.INPUT_INGREDIENT_NAME, ingredient.getName());
+        ingredientParams.put(
+            PostgresSqlStatementRecipe.INPUT_INGREDIENT_QUANTITY, ingredient.getQuantity());
+        ingredientParams.put(PostgresSqlStatementRecipe.INPUT_INGREDIENT_UOM, ingredient.getUom());
+        batchParams.add(ingredientParams);
+      }
+      if (postgresDataAccess.batchUpdateStatement(
+              PostgresSqlStatementRecipe.SQL_INGREDIENT_UPDATE, batchParams)
+          == null) {
+        throw new IllegalArgumentException("Failed to update ingredients");
+      }
+    }
+    if (!changes.inserts.isEmpty()) {
+      insertIngredients(recipeId, changes.inserts);
+    }
+  }
+
+  // Helper method: Bring the stored cooking steps in line with the recipe, see ChildChangeSet
+  void writeCookingStepChanges(Recipe recipe) {
+    Long recipeId = recipe.getId();
+    List<CookingStep> incoming =
+        recipe.getCookingSteps() == null ? List.of() : recipe.getCookingSteps();
+    incoming.forEach(this::validateCookingStep);
+
+    List<CookingStep> stored =
+        postgresDataAccess.queryStatement(
+            PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID,
+            Map.of(PostgresSqlStatementRecipe.INPUT_COOKING_STEP_RECIPE_ID, recipeId),
+            new CookingStepMapper());
+    if (stored == null) {
+      logger.error("Failed to load stored cooking steps, Recipe ID={}", recipeId);
+      throw new IllegalArgumentException("Failed to load cooking steps");
+    }
+
+    ChildChangeSet<CookingStep> changes = ChildChangeSet.forCookingSteps(stored, incoming);
+    if (changes.isEmpty()) {
+      logger.debug("Cooking steps unchanged, Recipe ID={}", recipeId);
+      return;
+    }
+    logger.debug(
+        "Cooking step changes, Recipe ID={}: {} inserts, {} updates, {} deletes",
+        recipeId,
+        changes.inserts.size(),
+        changes.updates.size(),
+        changes.deleteIds.size());
+
+    if (!changes.deleteIds.isEmpty()) {
+      Map<String, Object> deleteParams = new HashMap<>();
+      deleteParams.put(PostgresSqlStatementRecipe.INPUT_COOKING_STEP_RECIPE_ID, recipeId);
+      deleteParams.put(PostgresSqlStatementRecipe.INPUT_COOKING_STEP_IDS, changes.deleteIds);
+      if (postgresDataAccess.upsertStatement(
+              PostgresSqlStatementRecipe.SQL_COOKING_STEP_DELETE_BY_IDS, deleteParams)
+          < 0) {
+        throw new IllegalArgumentException("Failed to delete cooking steps");
+      }
+    }
+    if (!changes.updates.isEmpty()) {
+      List<Map<String, Object>> batchParams = new ArrayList<>();
+      for (CookingStep step : changes.updates) {
         Map<String, Object> stepParams = new HashMap<>();
-        stepParams.put(PostgresSqlStatementRecipe.INPUT_COOKING_STEP_RECIPE_ID, recipe.getId());
+        stepParams.put(PostgresSqlStatementRecipe.INPUT_COOKING_STEP_ID, step.getId());
         stepParams.put(
             PostgresSqlStatementRecipe.INPUT_COOKING_STEP_DESCRIPTION, step.getDescription());
         stepParams.put(PostgresSqlStatementRecipe.INPUT_COOKING_STEP_IMAGE, step.getImage());
-        postgresDataAccess.queryStatement(
-            PostgresSqlStatementRecipe.SQL_COOKING_STEP_ADD, stepParams);
-        logger.debug("Inserted cooking step: {}", step.getDescription());
-      } catch (Exception e) {
-        logger.error("Exception occurred while inserting cooking step: {}", e.getMessage(), e);
-        throw e; // Rethrow the exception to trigger transaction rollback
+        batchParams.add(stepParams);
+      }
+      if (postgresDataAccess.batchUpdateStatement(
+              PostgresSqlStatementRecipe.SQL_COOKING_STEP_UPDATE, batchParams)
+          == null) {
+        throw new IllegalArgumentException("Failed to update cooking steps");
       }
     }
-    logger.debug("Cooking steps insertion completed, Recipe ID={}", recipe.getId());
+    if (!changes.inserts.isEmpty()) {
+      insertCookingSteps(recipeId, changes.inserts);
+    }
   }
 
   // Helper method: Delete cooking steps associated with the recipe
@@ -686,13 +1121,11 @@ public class RecipeDataAccess implements IRecipeDataAccess {
     }
     Map<String, Object> params =
         Map.of(PostgresSqlStatementRecipe.INPUT_INGREDIENT_RECIPE_ID, recipeId);
-    List<Map<String, Object>> result =
-        postgresDataAccess.queryStatement(
-            PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID, params);
-
-    RecipeIngredientMapper mapper = new RecipeIngredientMapper();
     List<RecipeIngredient> ingredients =
-        result.stream().map(mapper::map).collect(Collectors.toList());
+        postgresDataAccess.queryStatement(
+            PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID,
+            params,
+            new RecipeIngredientMapper());
 
     logger.debug("Ingredients loading completed, count={}", ingredients.size());
     return ingredients;
@@ -707,46 +1140,259 @@ public class RecipeDataAccess implements IRecipeDataAccess {
 
     Map<String, Object> params =
         Map.of(PostgresSqlStatementRecipe.INPUT_COOKING_STEP_RECIPE_ID, recipeId);
-    List<Map<String, Object>> result =
-        postgresDataAccess.queryStatement(
-            PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID, params);
-
     List<CookingStep> steps =
-        result.stream()
-            .map(
-                row ->
-                    CookingStep.builder()
-                        .id(
-                            SqlUtilities.getLongValue(
-                                row, PostgresSqlStatementRecipe.COLUMN_COOKING_STEP_ID))
-                        .recipeId(
-                            SqlUtilities.getLongValue(
-                                row, PostgresSqlStatementRecipe.COLUMN_COOKING_STEP_RECIPE_ID))
-                        .description(
-                            SqlUtilities.getStringValue(
-                                row, PostgresSqlStatementRecipe.COLUMN_COOKING_STEP_DESCRIPTION))
-                        .image(
-                            SqlUtilities.getStringValue(
-                                row, PostgresSqlStatementRecipe.COLUMN_COOKING_STEP_IMAGE))
-                        .build())
-            .collect(Collectors.toList());
+        postgresDataAccess.queryStatement(
+            PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID,
+            params,
+            new CookingStepMapper());
 
     logger.debug("Cooking steps loading completed, count={}", steps.size());
     return steps;
   }
 
-  public static class RecipeIngredientMapper {
-    public RecipeIngredient map(Map<String, Object> row) {
+  /**
+   * Hydrate the ingredients and cooking steps of the recipes of a list query with one query per
+   * child table, instead of two queries per recipe.
+   */
+  private List<Recipe> attachChildren(List<Recipe> recipes) {
+    if (recipes.isEmpty()) {
+      return recipes;
+    }
+
+    List<Long> recipeIds =
+        recipes.stream().map(Recipe::getId).filter(Objects::nonNull).distinct().toList();
+    Map<Long, List<RecipeIngredient>> ingredientsByRecipe =
+        getIngredientsForRecipes(recipeIds).stream()
+            .collect(Collectors.groupingBy(RecipeIngredient::getRecipeId));
+    Map<Long, List<CookingStep>> stepsByRecipe =
+        getCookingStepsForRecipes(recipeIds).stream()
+            .collect(Collectors.groupingBy(CookingStep::getRecipeId));
+
+    for (Recipe recipe : recipes) {
+      recipe.setIngredients(
+          new ArrayList<>(ingredientsByRecipe.getOrDefault(recipe.getId(), List.of())));
+      recipe.setCookingSteps(
+          new ArrayList<>(stepsByRecipe.getOrDefault(recipe.getId(), List.of())));
+    }
+    return recipes;
+  }
+
+  // Helper method: Get ingredients of several recipes, ordered by recipe and id
+  private List<RecipeIngredient> getIngredientsForRecipes(Collection<Long> recipeIds) {
+    if (recipeIds == null || recipeIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+    logger.debug("Getting ingredients, recipe count={}", recipeIds.size());
+
+    List<RecipeIngredient> children = new ArrayList<>();
+    List<Long> ids = new ArrayList<>(recipeIds);
+    for (int from = 0; from < ids.size(); from += CHILD_QUERY_BATCH_SIZE) {
+      List<Long> batch = ids.subList(from, Math.min(from + CHILD_QUERY_BATCH_SIZE, ids.size()));
+      List<RecipeIngredient> result =
+          postgresDataAccess.queryStatement(
+              PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_IDS,
+              Map.of(PostgresSqlStatementRecipe.INPUT_INGREDIENT_RECIPE_IDS, batch),
+              new RecipeIngredientMapper());
+      if (result != null) {
+        children.addAll(result);
+      }
+    }
+    return children;
+  }
+
+  // Helper method: Get cooking steps of several recipes, ordered by recipe and id
+  private List<CookingStep> getCookingStepsForRecipes(Collection<Long> recipeIds) {
+    if (recipeIds == null || recipeIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+    logger.debug("Getting cooking steps, recipe count={}", recipeIds.size());
+
+    List<CookingStep> children = new ArrayList<>();
+    List<Long> ids = new ArrayList<>(recipeIds);
+    for (int from = 0; from < ids.size(); from += CHILD_QUERY_BATCH_SIZE) {
+      List<Long> batch = ids.subList(from, Math.min(from + CHILD_QUERY_BATCH_SIZE, ids.size()));
+      List<CookingStep> result =
+          postgresDataAccess.queryStatement(
+              PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_IDS,
+              Map.of(PostgresSqlStatementRecipe.INPUT_COOKING_STEP_RECIPE_IDS, batch),
+              new CookingStepMapper());
+      if (result != null) {
+        children.addAll(result);
+      }
+    }
+    return children;
+  }
+
+  // Maps a recipe row, reading each column by position. The draft recipe is left as a stub that
+  // only carries its id.
+  public static class RecipeRowMapper extends ReviewSummaryRowMapper<Recipe> {
+    private final int id = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_ID);
+    private final int creatorId = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_CREATOR_ID);
+    private final int name = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_NAME);
+    private final int image = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_IMAGE);
+    private final int description = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_DESCRIPTION);
+    private final int cookingTime = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_COOKING_TIME);
+    private final int difficultyLevel =
+        column(PostgresSqlStatementRecipe.COLUMN_RECIPE_DIFFICULTY_LEVEL);
+    private final int rating = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_RATING);
+    private final int status = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_STATUS);
+    private final int cuisine = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_CUISINE);
+    private final int createDatetime = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_CREATE_TIME);
+    private final int updateDatetime = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_UPDATE_TIME);
+    private final int draftId = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_DRAFT_ID);
+
+    @Override
+    protected Recipe map(ResultSet rs) throws SQLException {
+      Recipe recipe = new Recipe();
+      recipe.setId(getLong(rs, id));
+      recipe.setCreatorId(getLong(rs, creatorId));
+      recipe.setName(getString(rs, name));
+      recipe.setImage(getString(rs, image));
+      recipe.setDescription(getString(rs, description));
+      recipe.setCookingTimeInMin(getInteger(rs, cookingTime));
+      recipe.setDifficultyLevel(getInteger(rs, difficultyLevel));
+      recipe.setRating(getDouble(rs, rating));
+      // Convert integer values to ERecipeStatus
+      Integer statusCode = getInteger(rs, status);
+      recipe.setStatus(statusCode != null ? ERecipeStatus.valueOfCode(statusCode) : null);
+      recipe.setCuisine(getString(rs, cuisine));
+      recipe.setCreateDatetime(getTimestamp(rs, createDatetime));
+      recipe.setUpdateDatetime(getTimestamp(rs, updateDatetime));
+      recipe.setReviewCount(getReviewCount(rs));
+      recipe.setRatingHistogram(getRatingHistogram(rs));
+
+      Long draftRecipeId = getLong(rs, draftId);
+      if (draftRecipeId != null) {
+        Recipe temp = new Recipe();
+        temp.setId(draftRecipeId);
+        recipe.setDraftRecipe(temp);
+      }
+      return recipe;
+    }
+  }
+
+  /** A recipe row of the graph queries, with its ingredients and cooking steps. */
+  public static class RecipeGraphRowMapper extends RecipeRowMapper {
+    private final int ingredientsJson =
+        column(PostgresSqlStatementRecipe.COLUMN_RECIPE_INGREDIENTS_JSON);
+    private final int cookingStepsJson =
+        column(PostgresSqlStatementRecipe.COLUMN_RECIPE_COOKING_STEPS_JSON);
+
+    @Override
+    protected Recipe map(ResultSet rs) throws SQLException {
+      Recipe recipe = super.map(rs);
+      try {
+        recipe.setIngredients(
+            RecipeChildrenJson.readIngredients(getString(rs, ingredientsJson), recipe.getId()));
+        recipe.setCookingSteps(
+            RecipeChildrenJson.readCookingSteps(getString(rs, cookingStepsJson), recipe.getId()));
+      } catch (IOException e) {
+        throw new SQLException("Failed to read the children of recipe " + recipe.getId(), e);
+      }
+      return recipe;
+    }
+  }
+
+  public static class RecipeSummaryRowMapper extends ReviewSummaryRowMapper<RecipeSummary> {
+    private final int id = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_ID);
+    private final int name = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_NAME);
+    private final int image = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_IMAGE);
+    private final int rating = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_RATING);
+    private final int difficultyLevel =
+        column(PostgresSqlStatementRecipe.COLUMN_RECIPE_DIFFICULTY_LEVEL);
+    private final int cookingTime = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_COOKING_TIME);
+    private final int cuisine = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_CUISINE);
+
+    @Override
+    protected RecipeSummary map(ResultSet rs) throws SQLException {
+      RecipeSummary summary =
+          new RecipeSummary(
+              getLong(rs, id),
+              getString(rs, name),
+              getString(rs, image),
+              getDouble(rs, rating),
+              getInteger(rs, difficultyLevel),
+              getInteger(rs, cookingTime),
+              getString(rs, cuisine));
+      summary.setReviewCount(getReviewCount(rs));
+      summary.setRatingHistogram(getRatingHistogram(rs));
+      return summary;
+    }
+  }
+
+  /** Reads the review summary columns of a recipe row, see COLUMNS_RECIPE_STARS_COUNT. */
+  abstract static class ReviewSummaryRowMapper<T> extends IndexedRowMapper<T> {
+    private final int reviewCount = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_REVIEW_COUNT);
+    private final int[] starsCounts =
+        PostgresSqlStatementRecipe.COLUMNS_RECIPE_STARS_COUNT.stream()
+            .mapToInt(this::column)
+            .toArray();
+
+    protected final Integer getReviewCount(ResultSet rs) throws SQLException {
+      return getInteger(rs, reviewCount);
+    }
+
+    // the review counts by stars, 1 star first, or null when the query did not select them
+    protected final List<Integer> getRatingHistogram(ResultSet rs) throws SQLException {
+      List<Integer> histogram = new ArrayList<>(starsCounts.length);
+      for (int slot : starsCounts) {
+        Integer count = getInteger(rs, slot);
+        if (count == null) {
+          return null;
+        }
+        histogram.add(count);
+      }
+      return histogram;
+    }
+  }
+
+  // Maps an ingredient row of a recipe, reading each column by position
+  public static class RecipeIngredientMapper extends IndexedRowMapper<RecipeIngredient> {
+    private final int id = column(PostgresSqlStatementRecipe.COLUMN_INGREDIENT_ID);
+    private final int recipeId = column(PostgresSqlStatementRecipe.COLUMN_INGREDIENT_RECIPE_ID);
+    private final int name = column(PostgresSqlStatementRecipe.COLUMN_INGREDIENT_NAME);
+    private final int quantity = column(PostgresSqlStatementRecipe.COLUMN_INGREDIENT_QUANTITY);
+    private final int uom = column(PostgresSqlStatementRecipe.COLUMN_INGREDIENT_UOM);
+
+    @Override
+    protected RecipeIngredient map(ResultSet rs) throws SQLException {
       return RecipeIngredient.builder()
-          .id(SqlUtilities.getLongValue(row, PostgresSqlStatementRecipe.COLUMN_INGREDIENT_ID))
-          .recipeId(
-              SqlUtilities.getLongValue(
-                  row, PostgresSqlStatementRecipe.COLUMN_INGREDIENT_RECIPE_ID))
-          .name(SqlUtilities.getStringValue(row, PostgresSqlStatementRecipe.COLUMN_INGREDIENT_NAME))
-          .quantity(
-              SqlUtilities.getDoubleValue(
-                  row, PostgresSqlStatementRecipe.COLUMN_INGREDIENT_QUANTITY))
-          .uom(SqlUtilities.getStringValue(row, PostgresSqlStatementRecipe.COLUMN_INGREDIENT_UOM))
+          .id(getLong(rs, id))
+          .recipeId(getLong(rs, recipeId))
+          .name(getString(rs, name))
+          .quantity(getDouble(rs, quantity))
+          .uom(getString(rs, uom))
+          .build();
+    }
+  }
+
+  // Maps the id and rating of a recipe, an unrated recipe scores 0
+  public static class RecipeRatingMapper extends IndexedRowMapper<RecipeScore> {
+    private final int id = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_ID);
+    private final int rating = column(PostgresSqlStatementRecipe.COLUMN_RECIPE_RATING);
+
+    @Override
+    protected RecipeScore map(ResultSet rs) throws SQLException {
+      Double score = getDouble(rs, rating);
+      return new RecipeScore(getLong(rs, id), score == null ? 0 : score);
+    }
+  }
+
+  // Maps a cooking step row of a recipe, reading each column by position
+  public static class CookingStepMapper extends IndexedRowMapper<CookingStep> {
+    private final int id = column(PostgresSqlStatementRecipe.COLUMN_COOKING_STEP_ID);
+    private final int recipeId = column(PostgresSqlStatementRecipe.COLUMN_COOKING_STEP_RECIPE_ID);
+    private final int description =
+        column(PostgresSqlStatementRecipe.COLUMN_COOKING_STEP_DESCRIPTION);
+    private final int image = column(PostgresSqlStatementRecipe.COLUMN_COOKING_STEP_IMAGE);
+
+    @Override
+    protected CookingStep map(ResultSet rs) throws SQLException {
+      return CookingStep.builder()
+          .id(getLong(rs, id))
+          .recipeId(getLong(rs, recipeId))
+          .description(getString(rs, description))
+          .image(getString(rs, image))
           .build();
     }
   }
@@ -1,32 +1,53 @@
 package nus.iss.team3.backend.dataaccess;
 
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMNS_REVIEW_DELTA_STARS;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_COMMENTS;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_CREATE_TIME;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_CREATOR_ID;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_COUNT;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_MARKED_AT;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_RATING;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_RECIPE_ID;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_WRITES;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_ID;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_RATING;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_RECIPE_ID;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_UPDATE_TIME;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.INPUT_PAGE_AFTER_ID;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.INPUT_PAGE_AFTER_KEY;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.INPUT_PAGE_LIMIT;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.INPUT_REVIEW_COMMENTS;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.INPUT_REVIEW_CREATOR_ID;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.INPUT_REVIEW_RATING;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.INPUT_REVIEW_RECIPE_ID;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.INPUT_REVIEW_RECIPE_IDS;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_ADD;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_COUNT_BY_RECIPE_ID;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_DELETE;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_DELETE_BY_CREATOR_ID;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_DELETE_BY_RECIPE_ID;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_GET_BY_CREATOR_ID;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_GET_BY_RECIPE_AND_CREATOR;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_GET_BY_RECIPE_ID;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_GET_BY_RECIPE_IDS;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_GET_BY_RECIPE_ID_NEWEST_PAGE;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_GET_BY_RECIPE_ID_TOP_RATED_PAGE;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_STREAM_PUBLISHED_RATINGS;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_UPDATE;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import nus.iss.team3.backend.dataaccess.postgres.IndexedRowMapper;
 import nus.iss.team3.backend.dataaccess.postgres.PostgresDataAccess;
 import nus.iss.team3.backend.entity.RecipeReview;
+import nus.iss.team3.backend.entity.ReviewAggregateDelta;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Repository;
@@ -41,6 +62,9 @@ import org.springframework.transaction.annotation.Transactional;
 public class ReviewDataAccess implements IReviewDataAccess {
 
   private static final Logger logger = LogManager.getLogger(ReviewDataAccess.class);
+  // recipe ids per query, keeps the IN list well below the bind parameter limit
+  private static final int RECIPE_ID_BATCH_SIZE = 1000;
+  private static final int STREAM_FETCH_SIZE = 5000;
   private final PostgresDataAccess postgresDataAccess;
 
   public ReviewDataAccess(PostgresDataAccess postgresDataAccess) {
@@ -49,7 +73,7 @@ public class ReviewDataAccess implements IReviewDataAccess {
 
   @Override
   @Transactional
-  public void addReview(RecipeReview review) {
+  public List<ReviewAggregateDelta> addReview(RecipeReview review) {
     logger.info("Starting to add review for recipe ID: {}", review.getRecipeId());
     try {
       validateReview(review);
@@ -59,12 +83,13 @@ public class ReviewDataAccess implements IReviewDataAccess {
       params.put(INPUT_REVIEW_RATING, review.getRating());
       params.put(INPUT_REVIEW_COMMENTS, review.getComments());
 
-      int result = postgresDataAccess.upsertStatement(SQL_REVIEW_ADD, params);
-      if (result > 0) {
+      List<ReviewAggregateDelta> deltas = writeReviews(SQL_REVIEW_ADD, params);
+      if (!deltas.isEmpty()) {
         logger.info("Added review for recipe ID: {}", review.getRecipeId());
       } else {
         logger.error("Failed to add review for recipe ID: {}", review.getRecipeId());
       }
+      return deltas;
     } catch (Exception e) {
       logger.error("Exception occurred while adding review: {}", e.getMessage(), e);
       throw e; // Rethrow the exception to trigger transaction rollback
@@ -73,7 +98,8 @@ public class ReviewDataAccess implements IReviewDataAccess {
 
   @Override
   @Transactional
-  public void updateReview(Long recipeId, Long creatorId, RecipeReview review) {
+  public List<ReviewAggregateDelta> updateReview(
+      Long recipeId, Long creatorId, RecipeReview review) {
     logger.info(
         "Starting to update review for recipe ID: {} by creator ID: {}", recipeId, creatorId);
     try {
@@ -84,14 +110,14 @@ public class ReviewDataAccess implements IReviewDataAccess {
       params.put(INPUT_REVIEW_RECIPE_ID, recipeId);
       params.put(INPUT_REVIEW_CREATOR_ID, creatorId);
 
-      int result = postgresDataAccess.upsertStatement(SQL_REVIEW_UPDATE, params);
-      if (result > 0) {
+      List<ReviewAggregateDelta> deltas = writeReviews(SQL_REVIEW_UPDATE, params);
+      if (!deltas.isEmpty()) {
         logger.info("Updated review for recipe ID: {} by creator ID: {}", recipeId, creatorId);
       } else {
         logger.error(
             "Failed to update review for recipe ID: {} by creator ID: {}", recipeId, creatorId);
       }
-
+      return deltas;
     } catch (Exception e) {
       logger.error("Exception occurred while updating review: {}", e.getMessage(), e);
       throw e; // Rethrow the exception to trigger transaction rollback
@@ -100,7 +126,7 @@ public class ReviewDataAccess implements IReviewDataAccess {
 
   @Override
   @Transactional
-  public void deleteReview(Long recipeId, Long creatorId) {
+  public List<ReviewAggregateDelta> deleteReview(Long recipeId, Long creatorId) {
     logger.info(
         "Starting to delete review for recipe ID: {} by creator ID: {}", recipeId, creatorId);
     try {
@@ -108,13 +134,14 @@ public class ReviewDataAccess implements IReviewDataAccess {
       params.put(INPUT_REVIEW_RECIPE_ID, recipeId);
       params.put(INPUT_REVIEW_CREATOR_ID, creatorId);
 
-      int result = postgresDataAccess.upsertStatement(SQL_REVIEW_DELETE, params);
-      if (result > 0) {
+      List<ReviewAggregateDelta> deltas = writeReviews(SQL_REVIEW_DELETE, params);
+      if (!deltas.isEmpty()) {
         logger.info("Deleted review for recipe ID: {} by creator ID: {}", recipeId, creatorId);
       } else {
         logger.error(
             "Failed to delete review for recipe ID: {} by creator ID: {}", recipeId, creatorId);
       }
+      return deltas;
     } catch (Exception e) {
       logger.error("Exception occurred while deleting review: {}", e.getMessage(), e);
       throw e; // Rethrow the exception to trigger transaction rollback
@@ -123,18 +150,19 @@ public class ReviewDataAccess implements IReviewDataAccess {
 
   @Override
   @Transactional
-  public void deleteReviewsByRecipeId(Long recipeId) {
+  public List<ReviewAggregateDelta> deleteReviewsByRecipeId(Long recipeId) {
     logger.info("Starting to delete all reviews for recipe ID: {}", recipeId);
     try {
       Map<String, Object> params = new HashMap<>();
       params.put(INPUT_REVIEW_RECIPE_ID, recipeId);
 
-      int result = postgresDataAccess.upsertStatement(SQL_REVIEW_DELETE_BY_RECIPE_ID, params);
-      if (result > 0) {
+      List<ReviewAggregateDelta> deltas = writeReviews(SQL_REVIEW_DELETE_BY_RECIPE_ID, params);
+      if (!deltas.isEmpty()) {
         logger.info("Deleted all reviews for recipe ID: {}", recipeId);
       } else {
         logger.error("Failed to delete all reviews for recipe ID: {}", recipeId);
       }
+      return deltas;
     } catch (Exception e) {
       logger.error("Exception occurred while deleting reviews by recipe ID: {}", e.getMessage(), e);
       throw e; // Rethrow the exception to trigger transaction rollback
@@ -143,18 +171,19 @@ public class ReviewDataAccess implements IReviewDataAccess {
 
   @Override
   @Transactional
-  public void deleteReviewsByCreatorId(Long creatorId) {
+  public List<ReviewAggregateDelta> deleteReviewsByCreatorId(Long creatorId) {
     logger.info("Starting to delete all reviews by creator ID: {}", creatorId);
     try {
       Map<String, Object> params = new HashMap<>();
       params.put(INPUT_REVIEW_CREATOR_ID, creatorId);
 
-      int result = postgresDataAccess.upsertStatement(SQL_REVIEW_DELETE_BY_CREATOR_ID, params);
-      if (result > 0) {
+      List<ReviewAggregateDelta> deltas = writeReviews(SQL_REVIEW_DELETE_BY_CREATOR_ID, params);
+      if (!deltas.isEmpty()) {
         logger.info("Deleted all reviews by creator ID: {}", creatorId);
       } else {
         logger.error("Failed to delete all reviews by creator ID: {}", creatorId);
       }
+      return deltas;
     } catch (Exception e) {
       logger.error(
           "Exception occurred while deleting reviews by creator ID: {}", e.getMessage(), e);
@@ -162,6 +191,13 @@ public class ReviewDataAccess implements IReviewDataAccess {
     }
   }
 
+  // runs a review write, returning its deltas to the review aggregates, none if it failed
+  private List<ReviewAggregateDelta> writeReviews(String sql, Map<String, Object> params) {
+    List<ReviewAggregateDelta> deltas =
+        postgresDataAccess.queryStatement(sql, params, new ReviewAggregateDeltaRowMapper());
+    return deltas == null ? new ArrayList<>() : deltas;
+  }
+
   @Override
   public RecipeReview getReviewByRecipeAndCreator(Long recipeId, Long creatorId) {
     logger.info("Fetching review for recipe ID: {} by creator ID: {}", recipeId, creatorId);
@@ -169,10 +205,11 @@ public class ReviewDataAccess implements IReviewDataAccess {
       Map<String, Object> params = new HashMap<>();
       params.put(INPUT_REVIEW_RECIPE_ID, recipeId);
       params.put(INPUT_REVIEW_CREATOR_ID, creatorId);
-      List<Map<String, Object>> results =
-          postgresDataAccess.queryStatement(SQL_REVIEW_GET_BY_RECIPE_AND_CREATOR, params);
+      List<RecipeReview> results =
+          postgresDataAccess.queryStatement(
+              SQL_REVIEW_GET_BY_RECIPE_AND_CREATOR, params, new RecipeReviewRowMapper());
       if (results != null && !results.isEmpty()) {
-        return mapRowToReview(results.getFirst());
+        return results.getFirst();
       }
     } catch (Exception e) {
       logger.error("Exception occurred while fetching review: {}", e.getMessage(), e);
@@ -186,10 +223,11 @@ public class ReviewDataAccess implements IReviewDataAccess {
     try {
       Map<String, Object> params = new HashMap<>();
       params.put(INPUT_REVIEW_RECIPE_ID, recipeId);
-      List<Map<String, Object>> results =
-          postgresDataAccess.queryStatement(SQL_REVIEW_GET_BY_RECIPE_ID, params);
+      List<RecipeReview> results =
+          postgresDataAccess.queryStatement(
+              SQL_REVIEW_GET_BY_RECIPE_ID, params, new RecipeReviewRowMapper());
       if (results != null) {
-        return mapRowsToReviews(results);
+        return results;
       }
     } catch (Exception e) {
       logger.error("Exception occurred while fetching reviews by recipe ID: {}", e.getMessage(), e);
@@ -197,6 +235,84 @@ public class ReviewDataAccess implements IReviewDataAccess {
     return null;
   }
 
+  @Override
+  public List<RecipeReview> getReviewsByRecipeIds(Collection<Long> recipeIds, int limitPerRecipe) {
+    List<RecipeReview> reviews = new ArrayList<>();
+    if (recipeIds == null || recipeIds.isEmpty()) {
+      return reviews;
+    }
+    logger.info("Fetching reviews for {} recipes", recipeIds.size());
+    List<Long> ids = new ArrayList<>(recipeIds);
+    for (int from = 0; from < ids.size(); from += RECIPE_ID_BATCH_SIZE) {
+      List<Long> batch = ids.subList(from, Math.min(from + RECIPE_ID_BATCH_SIZE, ids.size()));
+      List<RecipeReview> results =
+          postgresDataAccess.queryStatement(
+              SQL_REVIEW_GET_BY_RECIPE_IDS,
+              Map.of(INPUT_REVIEW_RECIPE_IDS, batch, INPUT_PAGE_LIMIT, limitPerRecipe),
+              new RecipeReviewRowMapper());
+      if (results == null) {
+        logger.error("Failed to fetch reviews for {} recipes", batch.size());
+        throw new IllegalStateException("Failed to fetch reviews by recipe IDs");
+      }
+      reviews.addAll(results);
+    }
+    return reviews;
+  }
+
+  @Override
+  public List<RecipeReview> getNewestReviewsPage(
+      Long recipeId, Timestamp afterCreateDatetime, long afterId, int limit) {
+    return queryReviewPage(
+        SQL_REVIEW_GET_BY_RECIPE_ID_NEWEST_PAGE,
+        buildPageParams(recipeId, afterCreateDatetime, afterId, limit));
+  }
+
+  @Override
+  public List<RecipeReview> getTopRatedReviewsPage(
+      Long recipeId, double afterRating, long afterId, int limit) {
+    return queryReviewPage(
+        SQL_REVIEW_GET_BY_RECIPE_ID_TOP_RATED_PAGE,
+        buildPageParams(recipeId, afterRating, afterId, limit));
+  }
+
+  @Override
+  public long countReviewsByRecipeId(Long recipeId) {
+    List<Long> results =
+        postgresDataAccess.queryStatement(
+            SQL_REVIEW_COUNT_BY_RECIPE_ID,
+            Map.of(INPUT_REVIEW_RECIPE_ID, recipeId),
+            (rs, rowNum) -> rs.getLong(1));
+    if (results == null) {
+      logger.error("Failed to count reviews for recipe ID: {}", recipeId);
+      throw new IllegalStateException("Failed to count reviews");
+    }
+    return results.isEmpty() ? 0 : results.getFirst();
+  }
+
+  private List<RecipeReview> queryReviewPage(String sql, Map<String, Object> params) {
+    logger.debug("Querying review page: {}", params);
+    List<RecipeReview> results =
+        postgresDataAccess.queryStatement(sql, params, new RecipeReviewRowMapper());
+    if (results == null) {
+      logger.error("Failed to query review page: {}", params);
+      throw new IllegalStateException("Failed to query review page");
+    }
+    return results;
+  }
+
+  private Map<String, Object> buildPageParams(
+      Long recipeId, Object afterKey, long afterId, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Page limit must be greater than 0");
+    }
+    Map<String, Object> params = new HashMap<>();
+    params.put(INPUT_REVIEW_RECIPE_ID, recipeId);
+    params.put(INPUT_PAGE_AFTER_KEY, afterKey);
+    params.put(INPUT_PAGE_AFTER_ID, afterId);
+    params.put(INPUT_PAGE_LIMIT, limit);
+    return params;
+  }
+
   @Override
   public List<RecipeReview> getReviewsByCreatorId(Long creatorId) {
     logger.info("Fetching reviews by creator ID: {}", creatorId);
@@ -204,10 +320,11 @@ public class ReviewDataAccess implements IReviewDataAccess {
     try {
       Map<String, Object> params = new HashMap<>();
       params.put(INPUT_REVIEW_CREATOR_ID, creatorId);
-      List<Map<String, Object>> results =
-          postgresDataAccess.queryStatement(SQL_REVIEW_GET_BY_CREATOR_ID, params);
+      List<RecipeReview> results =
+          postgresDataAccess.queryStatement(
+              SQL_REVIEW_GET_BY_CREATOR_ID, params, new RecipeReviewRowMapper());
       if (results != null) {
-        return mapRowsToReviews(results);
+        return results;
       }
     } catch (Exception e) {
       logger.error(
@@ -216,48 +333,16 @@ public class ReviewDataAccess implements IReviewDataAccess {
     return null;
   }
 
-  private RecipeReview mapRowToReview(Map<String, Object> row) {
-    logger.debug("Mapping database record to RecipeReview object");
-    logger.info("mapRowToReview: {}", row);
-    RecipeReview review = new RecipeReview();
-
-    review.setId(
-        row.get(COLUMN_REVIEW_ID) != null
-            ? ((Number) row.get(COLUMN_REVIEW_ID)).longValue()
-            : null);
-    review.setRecipeId(
-        row.get(COLUMN_REVIEW_RECIPE_ID) != null
-            ? ((Number) row.get(COLUMN_REVIEW_RECIPE_ID)).longValue()
-            : null);
-    review.setCreatorId(
-        row.get(COLUMN_REVIEW_CREATOR_ID) != null
-            ? ((Number) row.get(COLUMN_REVIEW_CREATOR_ID)).longValue()
-            : null);
-    review.setRating(
-        row.get(COLUMN_REVIEW_RATING) != null
-            ? ((Number) row.get(COLUMN_REVIEW_RATING)).doubleValue()
-            : null);
-    review.setCreateDatetime(
-        row.get(COLUMN_REVIEW_CREATE_TIME) != null
-            ? (Timestamp) row.get(COLUMN_REVIEW_CREATE_TIME)
-            : null);
-    review.setUpdateDatetime(
-        row.get(COLUMN_REVIEW_UPDATE_TIME) != null
-            ? (Timestamp) row.get(COLUMN_REVIEW_UPDATE_TIME)
-            : null);
-    review.setComments(
-        row.get(COLUMN_REVIEW_COMMENTS) != null ? (String) row.get(COLUMN_REVIEW_COMMENTS) : null);
-
-    logger.debug("RecipeReview object mapping completed: ID={}", review.getId());
-    return review;
-  }
-
-  private List<RecipeReview> mapRowsToReviews(List<Map<String, Object>> rows) {
-    List<RecipeReview> reviews = new ArrayList<>();
-    for (Map<String, Object> row : rows) {
-      reviews.add(mapRowToReview(row));
-    }
-    return reviews;
+  @Override
+  @Transactional(readOnly = true)
+  public void streamPublishedRecipeRatings(Consumer<RecipeReview> consumer) {
+    logger.debug("Streaming the ratings of published recipes");
+    postgresDataAccess.streamStatement(
+        SQL_REVIEW_STREAM_PUBLISHED_RATINGS,
+        null,
+        STREAM_FETCH_SIZE,
+        new RecipeReviewRowMapper(),
+        consumer);
   }
 
   private void validateReview(RecipeReview review) {
@@ -269,4 +354,56 @@ public class ReviewDataAccess implements IReviewDataAccess {
       throw new IllegalArgumentException("Required fields for review cannot be null");
     }
   }
+
+  // Maps a recipe review row, reading each column by position
+  static class RecipeReviewRowMapper extends IndexedRowMapper<RecipeReview> {
+    private final int id = column(COLUMN_REVIEW_ID);
+    private final int recipeId = column(COLUMN_REVIEW_RECIPE_ID);
+    private final int creatorId = column(COLUMN_REVIEW_CREATOR_ID);
+    private final int rating = column(COLUMN_REVIEW_RATING);
+    private final int createTime = column(COLUMN_REVIEW_CREATE_TIME);
+    private final int updateTime = column(COLUMN_REVIEW_UPDATE_TIME);
+    private final int comments = column(COLUMN_REVIEW_COMMENTS);
+
+    @Override
+    protected RecipeReview map(ResultSet rs) throws SQLException {
+      RecipeReview review = new RecipeReview();
+      review.setId(getLong(rs, id));
+      review.setRecipeId(getLong(rs, recipeId));
+      review.setCreatorId(getLong(rs, creatorId));
+      review.setRating(getDouble(rs, rating));
+      review.setCreateDatetime(getTimestamp(rs, createTime));
+      review.setUpdateDatetime(getTimestamp(rs, updateTime));
+      review.setComments(getString(rs, comments));
+      return review;
+    }
+  }
+
+  static class ReviewAggregateDeltaRowMapper extends IndexedRowMapper<ReviewAggregateDelta> {
+    private final int recipeId = column(COLUMN_REVIEW_DELTA_RECIPE_ID);
+    private final int markedAt = column(COLUMN_REVIEW_DELTA_MARKED_AT);
+    private final int countDelta = column(COLUMN_REVIEW_DELTA_COUNT);
+    private final int ratingDelta = column(COLUMN_REVIEW_DELTA_RATING);
+    private final int[] starsDeltas =
+        COLUMNS_REVIEW_DELTA_STARS.stream().mapToInt(this::column).toArray();
+    private final int writes = column(COLUMN_REVIEW_DELTA_WRITES);
+
+    @Override
+    protected ReviewAggregateDelta map(ResultSet rs) throws SQLException {
+      int[] stars = new int[starsDeltas.length];
+      for (int i = 0; i < stars.length; i++) {
+        Integer delta = getInteger(rs, starsDeltas[i]);
+        stars[i] = delta == null ? 0 : delta;
+      }
+      Integer count = getInteger(rs, countDelta);
+      Integer writeCount = getInteger(rs, writes);
+      return new ReviewAggregateDelta(
+          getLong(rs, recipeId),
+          getTimestamp(rs, markedAt),
+          count == null ? 0 : count,
+          getBigDecimal(rs, ratingDelta),
+          stars,
+          writeCount == null ? 1 : writeCount);
+    }
+  }
 }
@@ -3,6 +3,8 @@ package nus.iss.team3.backend.dataaccess;
 
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatement.*;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.ZoneId;
 import java.util.Collections;
@@ -10,6 +12,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import nus.iss.team3.backend.dataaccess.postgres.IPostgresDataAccess;
+import nus.iss.team3.backend.dataaccess.postgres.IndexedRowMapper;
 import nus.iss.team3.backend.entity.EUserRole;
 import nus.iss.team3.backend.entity.EUserStatus;
 import nus.iss.team3.backend.entity.UserAccount;
@@ -51,12 +54,13 @@ public class UserAccountDataAccess implements IUserAccountDataAccess {
     Map<String, Object> sqlInput = new HashMap<>();
     sqlInput.put(PostgresSqlStatement.INPUT_USER_ACCOUNT_NAME, name);
 
-    List<Map<String, Object>> temp = postgresDataAccess.queryStatement(sql, sqlInput);
+    List<UserAccount> temp =
+        postgresDataAccess.queryStatement(sql, sqlInput, new UserAccountRowMapper());
     if (temp == null || temp.size() != 1) {
       logger.error("Error with account, please review account : {}", name);
       return null;
     }
-    UserAccount user = mapRowToUserAccount(temp.getFirst());
+    UserAccount user = temp.getFirst();
 
     if (user != null && BCrypt.checkpw(password, user.getPassword())) {
       user.setPassword(null);
@@ -147,10 +151,12 @@ public class UserAccountDataAccess implements IUserAccountDataAccess {
     try {
       Map<String, Object> sqlInput = new HashMap<>();
       sqlInput.put(PostgresSqlStatement.INPUT_USER_ACCOUNT_ID, id);
-      List<Map<String, Object>> result =
+      List<UserAccount> result =
           postgresDataAccess.queryStatement(
-              PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_ID, sqlInput);
-      return (result == null || result.isEmpty()) ? null : mapRowToUserAccount(result.getFirst());
+              PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_ID,
+              sqlInput,
+              new UserAccountRowMapper());
+      return (result == null || result.isEmpty()) ? null : result.getFirst();
     } catch (DataAccessException e) {
       logger.error("Error getting user by ID: {}", id, e);
       return null;
@@ -162,10 +168,12 @@ public class UserAccountDataAccess implements IUserAccountDataAccess {
     try {
       Map<String, Object> sqlInput = new HashMap<>();
       sqlInput.put(PostgresSqlStatement.INPUT_USER_ACCOUNT_NAME, name);
-      List<Map<String, Object>> result =
+      List<UserAccount> result =
           postgresDataAccess.queryStatement(
-              PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_NAME, sqlInput);
-      return (result == null || result.isEmpty()) ? null : mapRowToUserAccount(result.getFirst());
+              PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_NAME,
+              sqlInput,
+              new UserAccountRowMapper());
+      return (result == null || result.isEmpty()) ? null : result.getFirst();
     } catch (DataAccessException e) {
       logger.error("Error getting user by name: {}", name, e);
       return null;
@@ -177,10 +185,12 @@ public class UserAccountDataAccess implements IUserAccountDataAccess {
     try {
       Map<String, Object> sqlInput = new HashMap<>();
       sqlInput.put(PostgresSqlStatement.INPUT_USER_ACCOUNT_EMAIL, email);
-      List<Map<String, Object>> result =
+      List<UserAccount> result =
           postgresDataAccess.queryStatement(
-              PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL, sqlInput);
-      return (result == null || result.isEmpty()) ? null : mapRowToUserAccount(result.getFirst());
+              PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL,
+              sqlInput,
+              new UserAccountRowMapper());
+      return (result == null || result.isEmpty()) ? null : result.getFirst();
     } catch (DataAccessException e) {
       logger.error("Error getting user by email: {}", email, e);
       return null;
@@ -195,13 +205,13 @@ public class UserAccountDataAccess implements IUserAccountDataAccess {
     String sql = PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL;
     try {
 
-      List<Map<String, Object>> results =
-          postgresDataAccess.queryStatement(sql, Collections.emptyMap());
-      if (results == null || results.isEmpty()) {
+      List<UserAccount> users =
+          postgresDataAccess.queryStatement(
+              sql, Collections.emptyMap(), new UserAccountRowMapper());
+      if (users == null || users.isEmpty()) {
         logger.warn("Query returned null. Returning empty list.");
         return Collections.emptyList();
       }
-      List<UserAccount> users = results.stream().map(this::mapRowToUserAccount).toList();
 
       logger.info("Found {} users", users.size());
       return users;
@@ -225,59 +235,42 @@ public class UserAccountDataAccess implements IUserAccountDataAccess {
     return sqlInput;
   }
 
-  private UserAccount mapRowToUserAccount(Map<String, Object> row) {
-    if (row == null) {
-      return null;
-    }
-    try {
+  // Maps a user account row, reading each column by position
+  static class UserAccountRowMapper extends IndexedRowMapper<UserAccount> {
+    private final int id = column(COLUMN_USER_ACCOUNT_ID);
+    private final int name = column(COLUMN_USER_ACCOUNT_NAME);
+    private final int password = column(COLUMN_USER_ACCOUNT_PASSWORD);
+    private final int displayName = column(COLUMN_USER_ACCOUNT_DISPLAY_NAME);
+    private final int email = column(COLUMN_USER_ACCOUNT_EMAIL);
+    private final int status = column(COLUMN_USER_ACCOUNT_STATUS);
+    private final int role = column(COLUMN_USER_ACCOUNT_ROLE);
+    private final int createDatetime = column(COLUMN_USER_ACCOUNT_CREATE_DATETIME);
+    private final int updateDatetime = column(COLUMN_USER_ACCOUNT_UPDATE_DATETIME);
+
+    @Override
+    protected UserAccount map(ResultSet rs) throws SQLException {
       UserAccount userAccount = new UserAccount();
-
-      userAccount.setId(
-          row.get(COLUMN_USER_ACCOUNT_ID) != null
-              ? ((Number) row.get(COLUMN_USER_ACCOUNT_ID)).intValue()
-              : null);
-      userAccount.setName(
-          row.get(COLUMN_USER_ACCOUNT_NAME) != null
-              ? ((String) row.get(COLUMN_USER_ACCOUNT_NAME))
-              : null);
-      userAccount.setPassword(
-          row.get(COLUMN_USER_ACCOUNT_PASSWORD) != null
-              ? ((String) row.get(COLUMN_USER_ACCOUNT_PASSWORD))
-              : null);
-      userAccount.setDisplayName(
-          row.get(COLUMN_USER_ACCOUNT_DISPLAY_NAME) != null
-              ? ((String) row.get(COLUMN_USER_ACCOUNT_DISPLAY_NAME))
-              : null);
-      userAccount.setEmail(
-          row.get(COLUMN_USER_ACCOUNT_EMAIL) != null
-              ? (String) row.get(COLUMN_USER_ACCOUNT_EMAIL)
-              : null);
-      userAccount.setStatus(
-          row.get(COLUMN_USER_ACCOUNT_STATUS) != null
-              ? EUserStatus.valueOfCode(((Number) row.get(COLUMN_USER_ACCOUNT_STATUS)).intValue())
-              : null);
-      userAccount.setRole(
-          row.get(COLUMN_USER_ACCOUNT_ROLE) != null
-              ? EUserRole.valueOfCode(((Number) row.get(COLUMN_USER_ACCOUNT_ROLE)).intValue())
-              : null);
+      userAccount.setId(getInteger(rs, id));
+      userAccount.setName(getString(rs, name));
+      userAccount.setPassword(getString(rs, password));
+      userAccount.setDisplayName(getString(rs, displayName));
+      userAccount.setEmail(getString(rs, email));
+      try {
+        Integer statusCode = getInteger(rs, status);
+        userAccount.setStatus(statusCode != null ? EUserStatus.valueOfCode(statusCode) : null);
+        Integer roleCode = getInteger(rs, role);
+        userAccount.setRole(roleCode != null ? EUserRole.valueOfCode(roleCode) : null);
+      } catch (IllegalArgumentException e) {
+        logger.error("Error mapping row to UserAccount", e);
+        return null;
+      }
+      Timestamp created = getTimestamp(rs, createDatetime);
       userAccount.setCreateDateTime(
-          row.get(COLUMN_USER_ACCOUNT_CREATE_DATETIME) != null
-              ? ((Timestamp) row.get(COLUMN_USER_ACCOUNT_CREATE_DATETIME))
-                  .toInstant()
-                  .atZone(ZoneId.systemDefault())
-              : null);
+          created != null ? created.toInstant().atZone(ZoneId.systemDefault()) : null);
+      Timestamp updated = getTimestamp(rs, updateDatetime);
       userAccount.setUpdateDateTime(
-          row.get(COLUMN_USER_ACCOUNT_UPDATE_DATETIME) != null
-              ? ((Timestamp) row.get(COLUMN_USER_ACCOUNT_UPDATE_DATETIME))
-                  .toInstant()
-                  .atZone(ZoneId.systemDefault())
-              : null);
-
-      logger.debug("RecipeReview object mapping completed: ID={}", userAccount.getId());
+          updated != null ? updated.toInstant().atZone(ZoneId.systemDefault()) : null);
       return userAccount;
-    } catch (Exception e) {
-      logger.error("Error mapping row to UserAccount", e);
-      return null;
     }
   }
 }
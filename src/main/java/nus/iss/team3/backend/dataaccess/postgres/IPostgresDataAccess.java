@@ -3,10 +3,49 @@ package nus.iss.team3.backend.dataaccess.postgres;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import org.springframework.jdbc.core.RowMapper;
 
 public interface IPostgresDataAccess {
 
-  List<Map<String, Object>> queryStatement(String sql, Map<String, ?> inputs);
+  /**
+   * Run a query and map each row with the given RowMapper, see {@link IndexedRowMapper}.
+   *
+   * @return the mapped rows, or null if the query still failed after retrying
+   */
+  <T> List<T> queryStatement(String sql, Map<String, ?> inputs, RowMapper<T> rowMapper);
 
   int upsertStatement(String sql, Map<String, ?> inputs);
+
+  /**
+   * Run the statement once for each set of inputs, sent to the database as a single JDBC batch.
+   *
+   * @return the update count for each set of inputs, or null if the batch still failed after
+   *     retrying
+   */
+  int[] batchUpdateStatement(String sql, List<? extends Map<String, ?>> inputs);
+
+  /**
+   * Run the insert once for each set of inputs as a single JDBC batch, returning the given columns
+   * of each row inserted, in the order of the inputs. The sql must not have a RETURNING clause of
+   * its own, the driver adds one for the key columns.
+   *
+   * @return the key columns of each row inserted, or null if the batch still failed after retrying
+   */
+  List<Map<String, Object>> batchInsertStatement(
+      String sql, List<? extends Map<String, ?>> inputs, String... keyColumns);
+
+  /**
+   * Run a query and hand each mapped row to the consumer as it is read, fetching fetchSize rows
+   * from the database at a time instead of materialising the whole result.
+   *
+   * <p>Postgres only streams with a cursor inside a transaction, so callers should run this in a
+   * (read only) transaction. The statement is not retried, as rows may already have been consumed.
+   */
+  <T> void streamStatement(
+      String sql,
+      Map<String, ?> inputs,
+      int fetchSize,
+      RowMapper<T> rowMapper,
+      Consumer<? super T> consumer);
 }
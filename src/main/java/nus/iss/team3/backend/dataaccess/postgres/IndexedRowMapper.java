@@ -0,0 +1,128 @@
+/* (C)2024 */
+package nus.iss.team3.backend.dataaccess.postgres;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * Base class for RowMappers that read the columns of a row by position, straight from the
+ * ResultSet, instead of going through a case-insensitive map of boxed values per row.
+ *
+ * <p>Subclasses declare the columns they read with {@link #column(String)} and read them with the
+ * typed getters. The position of each column is looked up by label once per ResultSet, so the same
+ * mapper works for "SELECT *", joins and RETURNING clauses. A column missing from the result reads
+ * as null. A mapper remembers the positions of the ResultSet it last read, so it is not thread
+ * safe; use a new instance per query.
+ */
+public abstract class IndexedRowMapper<T> implements RowMapper<T> {
+
+  private final List<String> columns = new ArrayList<>();
+  private int[] positions;
+  private ResultSet resolvedFor;
+
+  /**
+   * Declare a column read by this mapper.
+   *
+   * @param label the column label in the result
+   * @return the slot to pass to the getters for this column
+   */
+  protected final int column(String label) {
+    columns.add(label);
+    return columns.size() - 1;
+  }
+
+  @Override
+  public final T mapRow(ResultSet rs, int rowNum) throws SQLException {
+    if (rs != resolvedFor) {
+      resolvePositions(rs);
+    }
+    return map(rs);
+  }
+
+  /** Map the current row of the ResultSet. */
+  protected abstract T map(ResultSet rs) throws SQLException;
+
+  private void resolvePositions(ResultSet rs) throws SQLException {
+    ResultSetMetaData metaData = rs.getMetaData();
+    int[] resolved = new int[columns.size()];
+    for (int index = 1; index <= metaData.getColumnCount(); index++) {
+      String label = JdbcUtils.lookupColumnName(metaData, index);
+      for (int slot = 0; slot < resolved.length; slot++) {
+        // with duplicate labels, e.g. from a join, the first column wins
+        if (resolved[slot] == 0 && columns.get(slot).equalsIgnoreCase(label)) {
+          resolved[slot] = index;
+        }
+      }
+    }
+    positions = resolved;
+    resolvedFor = rs;
+  }
+
+  protected final boolean hasColumn(int slot) {
+    return positions[slot] != 0;
+  }
+
+  protected final Long getLong(ResultSet rs, int slot) throws SQLException {
+    int position = positions[slot];
+    if (position == 0) {
+      return null;
+    }
+    long value = rs.getLong(position);
+    return rs.wasNull() ? null : value;
+  }
+
+  protected final Integer getInteger(ResultSet rs, int slot) throws SQLException {
+    int position = positions[slot];
+    if (position == 0) {
+      return null;
+    }
+    int value = rs.getInt(position);
+    return rs.wasNull() ? null : value;
+  }
+
+  protected final Double getDouble(ResultSet rs, int slot) throws SQLException {
+    int position = positions[slot];
+    if (position == 0) {
+      return null;
+    }
+    double value = rs.getDouble(position);
+    return rs.wasNull() ? null : value;
+  }
+
+  protected final BigDecimal getBigDecimal(ResultSet rs, int slot) throws SQLException {
+    int position = positions[slot];
+    return position == 0 ? null : rs.getBigDecimal(position);
+  }
+
+  protected final Boolean getBoolean(ResultSet rs, int slot) throws SQLException {
+    int position = positions[slot];
+    if (position == 0) {
+      return null;
+    }
+    boolean value = rs.getBoolean(position);
+    return rs.wasNull() ? null : value;
+  }
+
+  protected final String getString(ResultSet rs, int slot) throws SQLException {
+    int position = positions[slot];
+    return position == 0 ? null : rs.getString(position);
+  }
+
+  protected final Timestamp getTimestamp(ResultSet rs, int slot) throws SQLException {
+    int position = positions[slot];
+    return position == 0 ? null : rs.getTimestamp(position);
+  }
+
+  protected final Date getDate(ResultSet rs, int slot) throws SQLException {
+    int position = positions[slot];
+    return position == 0 ? null : rs.getDate(position);
+  }
+}
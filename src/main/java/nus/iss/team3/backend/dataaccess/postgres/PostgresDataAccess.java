@@ -7,11 +7,18 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSourceUtils;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -39,14 +46,15 @@ public class PostgresDataAccess implements IPostgresDataAccess {
     }
   }
 
-  public List<Map<String, Object>> queryStatement(String sql, Map<String, ?> inputs) {
+  @Override
+  public <T> List<T> queryStatement(String sql, Map<String, ?> inputs, RowMapper<T> rowMapper) {
 
     if (inputs == null) {
       inputs = new HashMap<>();
     }
     for (int i = 0; i < MAX_RETRY; i++) {
       try {
-        return jdbcTemplate.queryForList(sql, inputs);
+        return jdbcTemplate.query(sql, inputs, rowMapper);
       } catch (DataAccessException e) {
         logger.error("[{}/{}] Error when executing query statement: {}", (i + 1), MAX_RETRY, sql);
         logger.error(
@@ -82,4 +90,89 @@ public class PostgresDataAccess implements IPostgresDataAccess {
     }
     return -1;
   }
+
+  @Override
+  public int[] batchUpdateStatement(String sql, List<? extends Map<String, ?>> inputs) {
+
+    SqlParameterSource[] batch = SqlParameterSourceUtils.createBatch(inputs);
+    for (int i = 0; i < MAX_RETRY; i++) {
+      try {
+        return jdbcTemplate.batchUpdate(sql, batch);
+      } catch (DataAccessException e) {
+        logger.error(
+            "[{}/{}]Error when executing batch statement ({} rows): {}",
+            (i + 1),
+            MAX_RETRY,
+            inputs.size(),
+            sql);
+        logger.error(
+            "[{}/{}]Error when executing batch statement: {}", (i + 1), MAX_RETRY, e.getMessage());
+        try {
+          TimeUnit.SECONDS.sleep(BUFFER_BETWEEN_TRY);
+        } catch (InterruptedException ex) {
+          throw new RuntimeException(ex);
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public List<Map<String, Object>> batchInsertStatement(
+      String sql, List<? extends Map<String, ?>> inputs, String... keyColumns) {
+
+    SqlParameterSource[] batch = SqlParameterSourceUtils.createBatch(inputs);
+    for (int i = 0; i < MAX_RETRY; i++) {
+      try {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(sql, batch, keyHolder, keyColumns);
+        return keyHolder.getKeyList();
+      } catch (DataAccessException e) {
+        logger.error(
+            "[{}/{}]Error when executing batch insert ({} rows): {}",
+            (i + 1),
+            MAX_RETRY,
+            inputs.size(),
+            sql);
+        logger.error(
+            "[{}/{}]Error when executing batch insert: {}", (i + 1), MAX_RETRY, e.getMessage());
+        try {
+          TimeUnit.SECONDS.sleep(BUFFER_BETWEEN_TRY);
+        } catch (InterruptedException ex) {
+          throw new RuntimeException(ex);
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public <T> void streamStatement(
+      String sql,
+      Map<String, ?> inputs,
+      int fetchSize,
+      RowMapper<T> rowMapper,
+      Consumer<? super T> consumer) {
+
+    if (inputs == null) {
+      inputs = new HashMap<>();
+    }
+    // a dedicated template, so the fetch size does not leak into the shared one
+    JdbcTemplate streamingTemplate =
+        new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+    streamingTemplate.setFetchSize(fetchSize);
+    try {
+      new NamedParameterJdbcTemplate(streamingTemplate)
+          .query(
+              sql,
+              inputs,
+              resultSet -> {
+                consumer.accept(rowMapper.mapRow(resultSet, resultSet.getRow()));
+              });
+    } catch (DataAccessException e) {
+      logger.error("Error when executing stream statement: {}", sql);
+      logger.error("Error when executing stream statement: {}", e.getMessage());
+      throw e;
+    }
+  }
 }
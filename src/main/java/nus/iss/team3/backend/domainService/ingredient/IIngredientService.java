@@ -1,7 +1,10 @@
 /* (C)2024 */
 package nus.iss.team3.backend.domainService.ingredient;
 
+import java.time.LocalDate;
 import java.util.List;
+import nus.iss.team3.backend.entity.ExpiryCheckShardLease;
+import nus.iss.team3.backend.entity.IngredientExpiryAlert;
 import nus.iss.team3.backend.entity.UserIngredient;
 
 /**
@@ -27,4 +30,34 @@ public interface IIngredientService {
   List<UserIngredient> getExpiringIngredients(Integer userId, int days);
 
   List<UserIngredient> getExpiringIngredientsInRange();
+
+  /**
+   * The ingredients of the users in the shard (user id mod shardCount) expiring the given numbers
+   * of days after today that were not notified for that number of days yet.
+   */
+  List<UserIngredient> getExpiringIngredientsNotNotified(
+      LocalDate today, List<Integer> daysBuckets, int shard, int shardCount);
+
+  /*
+   * Shard leases of the daily expiry check, so replicas share its users without checking the same
+   * ones. A claim returns the shard leased, or null when every shard of the run date is completed
+   * or leased. Renewing or completing returns false once the lease was lost to another replica.
+   */
+  Integer claimExpiryCheckShard(ExpiryCheckShardLease lease);
+
+  boolean renewExpiryCheckShard(ExpiryCheckShardLease lease);
+
+  boolean completeExpiryCheckShard(ExpiryCheckShardLease lease);
+
+  /**
+   * Take the expiry alerts due by now off the alert queue, earliest first, at most max of them. The
+   * queue is kept up to date by the ingredients added, updated and deleted.
+   */
+  List<IngredientExpiryAlert> pollDueExpiryAlerts(int max);
+
+  /**
+   * Give back alerts polled whose notification failed, so the next reload of the alert queue
+   * alerts them again. Returns false when they could not be given back.
+   */
+  boolean releaseExpiryAlerts(List<IngredientExpiryAlert> alerts);
 }
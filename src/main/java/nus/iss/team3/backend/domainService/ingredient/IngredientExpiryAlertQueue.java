@@ -0,0 +1,267 @@
+package nus.iss.team3.backend.domainService.ingredient;
+
+import static nus.iss.team3.backend.entity.IngredientExpiryAlert.NOTIFY_DAYS;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import nus.iss.team3.backend.ProfileConfig;
+import nus.iss.team3.backend.dataaccess.IIngredientDataAccess;
+import nus.iss.team3.backend.entity.IngredientExpiryAlert;
+import nus.iss.team3.backend.entity.IngredientExpiryNotice;
+import nus.iss.team3.backend.entity.UserIngredient;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * The expiry alerts of the ingredients in the order they fall due, so an ingredient is notified at
+ * the time of day it expires, 3 and 1 days before, rather than by the next daily expiry check.
+ *
+ * <p>Only the alerts falling due today and tomorrow are held. They are loaded on startup and
+ * reloaded every {@code ingredient.expiry-alert.reload-cron} from the ingredients not notified yet,
+ * which retries the alerts released after their notification failed and picks up the ingredients
+ * changed through other replicas. The ingredients added, updated and deleted through this replica
+ * are rescheduled right away; their old alerts are marked cancelled and skipped when they come up.
+ *
+ * <p>The queue of every replica holds the alerts of all the users, as the alerts are not tied to
+ * the shards of the daily check. The replicas flushing the same alert notify it one after the
+ * other, and all but the first find it in the ledger and leave it out before creating its
+ * notification.
+ *
+ * <p>Metrics: {@value #METRIC_PENDING}.
+ */
+@Component
+@Profile(ProfileConfig.PROFILE_INGREDIENT)
+public class IngredientExpiryAlertQueue {
+
+  public static final String METRIC_PENDING = "ingredient.expiry.alerts.pending";
+
+  private static final Logger logger = LogManager.getLogger(IngredientExpiryAlertQueue.class);
+  // days after today the alerts are held for, the reload brings in the next day
+  private static final int HORIZON_DAYS = 1;
+
+  private final IIngredientDataAccess ingredientDataAccess;
+  private final Clock clock;
+
+  private final PriorityQueue<Alert> alerts =
+      new PriorityQueue<>(Comparator.comparing((Alert alert) -> alert.dueAt));
+  // the alerts neither cancelled nor polled, by ingredient id
+  private final Map<Integer, List<Alert>> scheduled = new HashMap<>();
+  // the alerts polled and not released, so an ingredient updated after it was alerted is not
+  // alerted again
+  private final Set<IngredientExpiryNotice> polled = new HashSet<>();
+  // the ingredients changed while a load reads the database, left as they are by the load
+  private Set<Integer> changedDuringLoad;
+  private int pending;
+
+  @Autowired
+  public IngredientExpiryAlertQueue(
+      MeterRegistry meterRegistry, IIngredientDataAccess ingredientDataAccess) {
+    this(meterRegistry, ingredientDataAccess, Clock.systemDefaultZone());
+  }
+
+  IngredientExpiryAlertQueue(
+      MeterRegistry meterRegistry, IIngredientDataAccess ingredientDataAccess, Clock clock) {
+    this.ingredientDataAccess = ingredientDataAccess;
+    this.clock = clock;
+    Gauge.builder(METRIC_PENDING, this, IngredientExpiryAlertQueue::size).register(meterRegistry);
+  }
+
+  /** Schedule the alerts of the ingredient falling due from today, replacing the ones it had. */
+  public synchronized void schedule(UserIngredient ingredient) {
+    cancel(ingredient.getId());
+    scheduleAlerts(ingredient, LocalDate.now(clock));
+  }
+
+  /** Replace the ingredient in its alerts, for a change that leaves its expiry date as it is. */
+  public synchronized void update(UserIngredient ingredient) {
+    markChanged(ingredient.getId());
+    List<Alert> ofIngredient = scheduled.get(ingredient.getId());
+    if (ofIngredient != null) {
+      ofIngredient.forEach(alert -> alert.ingredient = ingredient);
+    }
+  }
+
+  public synchronized void cancel(int ingredientId) {
+    markChanged(ingredientId);
+    List<Alert> cancelled = scheduled.remove(ingredientId);
+    if (cancelled != null) {
+      cancelled.forEach(alert -> alert.cancelled = true);
+      pending -= cancelled.size();
+    }
+  }
+
+  public synchronized void cancelUser(int userId) {
+    Iterator<Map.Entry<Integer, List<Alert>>> iterator = scheduled.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Integer, List<Alert>> next = iterator.next();
+      if (next.getValue().getFirst().ingredient.getUserId() == userId) {
+        markChanged(next.getKey());
+        next.getValue().forEach(alert -> alert.cancelled = true);
+        pending -= next.getValue().size();
+        iterator.remove();
+      }
+    }
+  }
+
+  /** Take the alerts due by now off the queue, earliest first, at most max of them. */
+  public synchronized List<IngredientExpiryAlert> pollDue(int max) {
+    Instant now = clock.instant();
+    List<IngredientExpiryAlert> due = new ArrayList<>();
+    while (due.size() < max && !alerts.isEmpty() && !alerts.peek().dueAt.isAfter(now)) {
+      Alert alert = alerts.poll();
+      if (alert.cancelled) {
+        continue;
+      }
+      List<Alert> ofIngredient = scheduled.get(alert.ingredient.getId());
+      ofIngredient.remove(alert);
+      if (ofIngredient.isEmpty()) {
+        scheduled.remove(alert.ingredient.getId());
+      }
+      pending--;
+      polled.add(alert.notice);
+      due.add(new IngredientExpiryAlert(alert.ingredient, alert.daysBeforeExpiry));
+    }
+    return due;
+  }
+
+  /**
+   * Give back alerts polled whose notification failed, so the next load alerts them again if they
+   * are still not notified.
+   */
+  public synchronized void release(List<IngredientExpiryAlert> released) {
+    for (IngredientExpiryAlert alert : released) {
+      if (alert.getIngredient().getExpiryDate() != null) {
+        polled.remove(notice(alert.getIngredient(), alert.getDaysBeforeExpiry()));
+      }
+    }
+  }
+
+  /**
+   * Replace the alerts held with the ones of the ingredients not notified yet, falling due today
+   * and tomorrow. On failure the alerts held are kept.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${ingredient.expiry-alert.reload-cron:0 0 * * * ?}")
+  public void load() {
+    LocalDate today;
+    synchronized (this) {
+      changedDuringLoad = new HashSet<>();
+      today = LocalDate.now(clock);
+    }
+    List<UserIngredient> ingredients = new ArrayList<>();
+    try {
+      // all the users, the ledger keeps the other replicas holding them from notifying them again
+      for (int day = 0; day <= HORIZON_DAYS; day++) {
+        ingredients.addAll(
+            ingredientDataAccess.getExpiringIngredientsNotNotified(
+                today.plusDays(day), NOTIFY_DAYS, 0, 1));
+      }
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        changedDuringLoad = null;
+      }
+      logger.error("Failed to load the ingredient expiry alerts, kept the ones held", e);
+      return;
+    }
+    synchronized (this) {
+      Set<Integer> changed = changedDuringLoad;
+      changedDuringLoad = null;
+      List<Alert> kept =
+          alerts.stream()
+              .filter(alert -> !alert.cancelled && changed.contains(alert.ingredient.getId()))
+              .toList();
+      alerts.clear();
+      scheduled.clear();
+      pending = 0;
+      // the ledger has the alerts of the days before, the load leaves them out
+      polled.removeIf(
+          notice -> notice.getExpiryDate().minusDays(notice.getDaysBucket()).isBefore(today));
+      kept.forEach(this::add);
+      for (UserIngredient ingredient : ingredients) {
+        if (!changed.contains(ingredient.getId()) && !scheduled.containsKey(ingredient.getId())) {
+          scheduleAlerts(ingredient, today);
+        }
+      }
+      logger.info("Loaded {} ingredient expiry alerts", pending);
+    }
+  }
+
+  public synchronized int size() {
+    return pending;
+  }
+
+  private void scheduleAlerts(UserIngredient ingredient, LocalDate today) {
+    if (ingredient.getExpiryDate() == null) {
+      return;
+    }
+    ZonedDateTime expiresAt = ingredient.getExpiryDate().toInstant().atZone(clock.getZone());
+    for (int days : NOTIFY_DAYS) {
+      ZonedDateTime dueAt = expiresAt.minusDays(days);
+      if (dueAt.toLocalDate().isBefore(today)
+          || dueAt.toLocalDate().isAfter(today.plusDays(HORIZON_DAYS))) {
+        continue;
+      }
+      IngredientExpiryNotice notice = notice(ingredient, days);
+      if (!polled.contains(notice)) {
+        add(new Alert(ingredient, days, dueAt.toInstant(), notice));
+      }
+    }
+  }
+
+  private IngredientExpiryNotice notice(UserIngredient ingredient, int days) {
+    LocalDate expiryDate =
+        ingredient.getExpiryDate().toInstant().atZone(clock.getZone()).toLocalDate();
+    return new IngredientExpiryNotice(ingredient.getUserId(), ingredient.getId(), expiryDate, days);
+  }
+
+  private void add(Alert alert) {
+    alerts.add(alert);
+    scheduled.computeIfAbsent(alert.ingredient.getId(), id -> new ArrayList<>()).add(alert);
+    pending++;
+  }
+
+  private void markChanged(int ingredientId) {
+    if (changedDuringLoad != null) {
+      changedDuringLoad.add(ingredientId);
+    }
+  }
+
+  private static class Alert {
+    private UserIngredient ingredient;
+    private final int daysBeforeExpiry;
+    private final Instant dueAt;
+    // the ledger row the alert is notified with
+    private final IngredientExpiryNotice notice;
+    private boolean cancelled;
+
+    private Alert(
+        UserIngredient ingredient,
+        int daysBeforeExpiry,
+        Instant dueAt,
+        IngredientExpiryNotice notice) {
+      this.ingredient = ingredient;
+      this.daysBeforeExpiry = daysBeforeExpiry;
+      this.dueAt = dueAt;
+      this.notice = notice;
+    }
+  }
+}
@@ -10,6 +10,8 @@ import java.util.List;
 import java.util.stream.Collectors;
 import nus.iss.team3.backend.ProfileConfig;
 import nus.iss.team3.backend.dataaccess.IIngredientDataAccess;
+import nus.iss.team3.backend.entity.ExpiryCheckShardLease;
+import nus.iss.team3.backend.entity.IngredientExpiryAlert;
 import nus.iss.team3.backend.entity.UserIngredient;
 import nus.iss.team3.backend.service.util.StringUtilities;
 import org.apache.logging.log4j.LogManager;
@@ -31,6 +33,8 @@ public class IngredientService implements IIngredientService {
 
   @Autowired IIngredientDataAccess ingredientDataAccess;
 
+  @Autowired IngredientExpiryAlertQueue expiryAlertQueue;
+
   @PostConstruct
   public void postConstruct() {
     logger.info("Ingredient Service Logic initialized.");
@@ -44,7 +48,11 @@ public class IngredientService implements IIngredientService {
     ingredient.setCreateDateTime(now);
     ingredient.setUpdateDateTime(now);
 
-    return ingredientDataAccess.addIngredient(ingredient);
+    if (!ingredientDataAccess.addIngredient(ingredient)) {
+      return false;
+    }
+    expiryAlertQueue.schedule(ingredient);
+    return true;
   }
 
   @Override
@@ -56,7 +64,17 @@ public class IngredientService implements IIngredientService {
     }
 
     ingredient.setUpdateDateTime(ZonedDateTime.now());
-    return ingredientDataAccess.updateIngredient(ingredient);
+    if (!ingredientDataAccess.updateIngredient(ingredient)) {
+      return false;
+    }
+    // an ingredient already alerted is alerted again only when it expires on another day
+    if (existingIngredient.getExpiryDate() != null
+        && existingIngredient.getExpiryDate().getTime() == ingredient.getExpiryDate().getTime()) {
+      expiryAlertQueue.update(ingredient);
+    } else {
+      expiryAlertQueue.schedule(ingredient);
+    }
+    return true;
   }
 
   @Override
@@ -65,6 +83,7 @@ public class IngredientService implements IIngredientService {
       logger.info("deleteIngredient failed, due to missing ingredient for {}", id);
       return false;
     }
+    expiryAlertQueue.cancel(id);
     return ingredientDataAccess.deleteIngredientById(id);
   }
 
@@ -93,6 +112,7 @@ public class IngredientService implements IIngredientService {
 
   @Override
   public boolean deleteIngredientsByUser(Integer userId) {
+    expiryAlertQueue.cancelUser(userId);
     return ingredientDataAccess.deleteIngredientsByUser(userId);
   }
 
@@ -145,6 +165,85 @@ public class IngredientService implements IIngredientService {
     }
   }
 
+  @Override
+  public List<UserIngredient> getExpiringIngredientsNotNotified(
+      LocalDate today, List<Integer> daysBuckets, int shard, int shardCount) {
+    if (today == null || daysBuckets == null || daysBuckets.isEmpty()) {
+      throw new IllegalArgumentException("Today and the days buckets must be given");
+    }
+    if (shardCount <= 0 || shard < 0 || shard >= shardCount) {
+      throw new IllegalArgumentException("Shard must be between 0 and the shard count");
+    }
+    logger.info(
+        "Fetching ingredients of shard {}/{} expiring in {} days not notified yet",
+        shard,
+        shardCount,
+        daysBuckets);
+    return ingredientDataAccess.getExpiringIngredientsNotNotified(
+        today, daysBuckets, shard, shardCount);
+  }
+
+  @Override
+  public Integer claimExpiryCheckShard(ExpiryCheckShardLease lease) {
+    validateShardLease(lease, false);
+    return ingredientDataAccess.claimExpiryCheckShard(lease);
+  }
+
+  @Override
+  public boolean renewExpiryCheckShard(ExpiryCheckShardLease lease) {
+    validateShardLease(lease, true);
+    return ingredientDataAccess.renewExpiryCheckShard(lease);
+  }
+
+  @Override
+  public boolean completeExpiryCheckShard(ExpiryCheckShardLease lease) {
+    validateShardLease(lease, true);
+    return ingredientDataAccess.completeExpiryCheckShard(lease);
+  }
+
+  @Override
+  public List<IngredientExpiryAlert> pollDueExpiryAlerts(int max) {
+    if (max <= 0) {
+      throw new IllegalArgumentException("Number of expiry alerts must be greater than 0");
+    }
+    return expiryAlertQueue.pollDue(max);
+  }
+
+  @Override
+  public boolean releaseExpiryAlerts(List<IngredientExpiryAlert> alerts) {
+    if (alerts == null
+        || alerts.stream()
+            .anyMatch(
+                alert ->
+                    alert == null
+                        || alert.getIngredient() == null
+                        || alert.getDaysBeforeExpiry() == null)) {
+      throw new IllegalArgumentException("Expiry alerts must have an ingredient and days");
+    }
+    expiryAlertQueue.release(alerts);
+    return true;
+  }
+
+  private void validateShardLease(ExpiryCheckShardLease lease, boolean isClaimed) {
+    if (lease == null
+        || lease.getRunDate() == null
+        || StringUtilities.isStringNullOrBlank(lease.getOwner())) {
+      throw new IllegalArgumentException("Shard lease must have a run date and an owner");
+    }
+    if (lease.getShardCount() == null || lease.getShardCount() <= 0) {
+      throw new IllegalArgumentException("Shard count must be greater than 0");
+    }
+    if (lease.getLeaseMillis() == null || lease.getLeaseMillis() <= 0) {
+      throw new IllegalArgumentException("Lease duration must be greater than 0");
+    }
+    if (isClaimed
+        && (lease.getShard() == null
+            || lease.getShard() < 0
+            || lease.getShard() >= lease.getShardCount())) {
+      throw new IllegalArgumentException("Shard must be between 0 and the shard count");
+    }
+  }
+
   /**
    * Check whether the input Ingredient contains acceptable values
    *
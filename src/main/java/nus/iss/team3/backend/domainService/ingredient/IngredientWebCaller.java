@@ -1,10 +1,15 @@
 package nus.iss.team3.backend.domainService.ingredient;
 
 import jakarta.annotation.PostConstruct;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 import nus.iss.team3.backend.ProfileConfig;
 import nus.iss.team3.backend.domainService.webservice.IWebserviceCaller;
+import nus.iss.team3.backend.entity.ExpiryCheckShardLease;
+import nus.iss.team3.backend.entity.IngredientExpiryAlert;
 import nus.iss.team3.backend.entity.UserIngredient;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -173,4 +178,87 @@ public class IngredientWebCaller implements IIngredientService {
       return new ArrayList<>();
     }
   }
+
+  @Override
+  public List<UserIngredient> getExpiringIngredientsNotNotified(
+      LocalDate today, List<Integer> daysBuckets, int shard, int shardCount) {
+    String days = daysBuckets.stream().map(String::valueOf).collect(Collectors.joining(","));
+    String url =
+        getUrl(
+            "/ingredient/expiring-not-notified?today="
+                + today
+                + "&days="
+                + days
+                + "&shard="
+                + shard
+                + "&shards="
+                + shardCount);
+    ParameterizedTypeReference<List<UserIngredient>> typeRef =
+        new ParameterizedTypeReference<>() {};
+    ResponseEntity<List<UserIngredient>> response = webServiceCaller.getCall(url, typeRef);
+
+    if (response.getStatusCode().is2xxSuccessful()) {
+      return response.getBody();
+    } else {
+      logger.error(
+          "Failed to retrieve expiring ingredients not notified. Status code: {}",
+          response.getStatusCode());
+      return new ArrayList<>();
+    }
+  }
+
+  @Override
+  public Integer claimExpiryCheckShard(ExpiryCheckShardLease lease) {
+    String url = getUrl("/ingredient/expiry-check/claim");
+    ResponseEntity<Integer> response = webServiceCaller.postCall(url, lease, Integer.class);
+    if (response.getStatusCode().is2xxSuccessful()) {
+      return response.getBody();
+    }
+    logger.error(
+        "Failed to claim an expiry check shard. Status code: {}", response.getStatusCode());
+    return null;
+  }
+
+  @Override
+  public boolean renewExpiryCheckShard(ExpiryCheckShardLease lease) {
+    String url = getUrl("/ingredient/expiry-check/renew");
+    ResponseEntity<Boolean> response = webServiceCaller.postCall(url, lease, Boolean.class);
+    if (response.getStatusCode().is2xxSuccessful()) {
+      if (response.getBody() != null) return response.getBody();
+    }
+    return false;
+  }
+
+  @Override
+  public boolean completeExpiryCheckShard(ExpiryCheckShardLease lease) {
+    String url = getUrl("/ingredient/expiry-check/complete");
+    ResponseEntity<Boolean> response = webServiceCaller.postCall(url, lease, Boolean.class);
+    if (response.getStatusCode().is2xxSuccessful()) {
+      if (response.getBody() != null) return response.getBody();
+    }
+    return false;
+  }
+
+  @Override
+  public List<IngredientExpiryAlert> pollDueExpiryAlerts(int max) {
+    String url = getUrl("/ingredient/expiry-alert/poll?max=" + max);
+    ResponseEntity<IngredientExpiryAlert[]> response =
+        webServiceCaller.postCall(url, null, IngredientExpiryAlert[].class);
+    if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+      return Arrays.asList(response.getBody());
+    }
+    logger.error("Failed to poll due expiry alerts. Status code: {}", response.getStatusCode());
+    return new ArrayList<>();
+  }
+
+  @Override
+  public boolean releaseExpiryAlerts(List<IngredientExpiryAlert> alerts) {
+    String url = getUrl("/ingredient/expiry-alert/release");
+    ResponseEntity<Boolean> response = webServiceCaller.postCall(url, alerts, Boolean.class);
+    if (response.getStatusCode().is2xxSuccessful()) {
+      if (response.getBody() != null) return response.getBody();
+    }
+    logger.error("Failed to release expiry alerts. Status code: {}", response.getStatusCode());
+    return false;
+  }
 }
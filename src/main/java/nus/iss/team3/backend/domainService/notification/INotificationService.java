@@ -1,12 +1,27 @@
 package nus.iss.team3.backend.domainService.notification;
 
 import java.util.List;
+import nus.iss.team3.backend.entity.ExpiryNotification;
 import nus.iss.team3.backend.entity.Notification;
 
 public interface INotificationService {
 
   Notification createNotification(Notification notification);
 
+  /**
+   * Creates the notifications in one batch, for bulk producers. Returns them with their ids and
+   * create times, or null when they could not be created.
+   */
+  List<Notification> createNotifications(List<Notification> notifications);
+
+  /**
+   * Creates the ingredient expiry notifications in one batch and records their ingredients in the
+   * notification ledger, in one transaction. The notifications with an ingredient already notified
+   * for the same expiry date and days bucket are left out of the ones returned, null is returned
+   * when they could not be created.
+   */
+  List<Notification> createExpiryNotifications(List<ExpiryNotification> expiryNotifications);
+
   List<Notification> getNotificationsForUser(int userId, int limit);
 
   int getUnreadNotificationCountForUser(int userId);
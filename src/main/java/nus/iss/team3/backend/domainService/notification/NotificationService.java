@@ -2,6 +2,7 @@ package nus.iss.team3.backend.domainService.notification;
 
 import java.util.List;
 import nus.iss.team3.backend.dataaccess.INotificationDataAccess;
+import nus.iss.team3.backend.entity.ExpiryNotification;
 import nus.iss.team3.backend.entity.Notification;
 import nus.iss.team3.backend.service.util.StringUtilities;
 import org.apache.logging.log4j.LogManager;
@@ -18,6 +19,51 @@ public class NotificationService implements INotificationService {
 
   @Override
   public Notification createNotification(Notification notification) {
+    validateNotification(notification);
+
+    logger.info("Creating notification for user ID: {}", notification.getUserId());
+    return notificationDataAccess.createNotification(notification);
+  }
+
+  @Override
+  public List<Notification> createNotifications(List<Notification> notifications) {
+    if (notifications == null || notifications.isEmpty()) {
+      logger.error("No notifications to create");
+      throw new IllegalArgumentException("Invalid notification data");
+    }
+    notifications.forEach(this::validateNotification);
+
+    logger.info("Creating {} notifications", notifications.size());
+    return notificationDataAccess.createNotifications(notifications);
+  }
+
+  @Override
+  public List<Notification> createExpiryNotifications(
+      List<ExpiryNotification> expiryNotifications) {
+    if (expiryNotifications == null
+        || expiryNotifications.isEmpty()
+        || expiryNotifications.stream()
+            .anyMatch(
+                expiryNotification ->
+                    expiryNotification == null
+                        || expiryNotification.getNotices() == null
+                        || expiryNotification.getNotices().isEmpty())) {
+      logger.error("Invalid expiry notification data: {}", expiryNotifications);
+      throw new IllegalArgumentException("Invalid expiry notification data");
+    }
+    expiryNotifications.forEach(
+        expiryNotification -> validateNotification(expiryNotification.getNotification()));
+
+    logger.info("Creating {} expiry notifications", expiryNotifications.size());
+    try {
+      return notificationDataAccess.createExpiryNotifications(expiryNotifications);
+    } catch (IllegalStateException e) {
+      logger.error("Expiry notifications not created, {}", e.getMessage());
+      return null;
+    }
+  }
+
+  private void validateNotification(Notification notification) {
     // Basic verification
     if (notification == null
         || notification.getUserId() == null
@@ -31,9 +77,6 @@ public class NotificationService implements INotificationService {
     if (notification.getIsRead() == null) {
       notification.setIsRead(false);
     }
-
-    logger.info("Creating notification for user ID: {}", notification.getUserId());
-    return notificationDataAccess.createNotification(notification);
   }
 
   @Override
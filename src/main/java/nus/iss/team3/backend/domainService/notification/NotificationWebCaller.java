@@ -1,9 +1,11 @@
 package nus.iss.team3.backend.domainService.notification;
 
 import jakarta.annotation.PostConstruct;
+import java.util.Arrays;
 import java.util.List;
 import nus.iss.team3.backend.ProfileConfig;
 import nus.iss.team3.backend.domainService.webservice.IWebserviceCaller;
+import nus.iss.team3.backend.entity.ExpiryNotification;
 import nus.iss.team3.backend.entity.Notification;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -120,4 +122,37 @@ public class NotificationWebCaller implements INotificationService {
         response.getStatusCode());
     return null;
   }
+
+  @Override
+  public List<Notification> createNotifications(List<Notification> notifications) {
+    String url = getUrl("/create-batch");
+    ResponseEntity<Notification[]> response =
+        webServiceCaller.postCall(url, notifications, Notification[].class);
+
+    if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+      return Arrays.asList(response.getBody());
+    }
+    logger.error(
+        "Failed to create {} notifications. Status code: {}",
+        notifications.size(),
+        response.getStatusCode());
+    return null;
+  }
+
+  @Override
+  public List<Notification> createExpiryNotifications(
+      List<ExpiryNotification> expiryNotifications) {
+    String url = getUrl("/create-expiry-batch");
+    ResponseEntity<Notification[]> response =
+        webServiceCaller.postCall(url, expiryNotifications, Notification[].class);
+
+    if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+      return Arrays.asList(response.getBody());
+    }
+    logger.error(
+        "Failed to create {} expiry notifications. Status code: {}",
+        expiryNotifications.size(),
+        response.getStatusCode());
+    return null;
+  }
 }
@@ -1,12 +1,40 @@
 package nus.iss.team3.backend.domainService.recipe;
 
 import java.util.List;
+import java.util.Set;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
+import nus.iss.team3.backend.entity.RecipeSummaryPage;
 
 public interface IRecipePreferenceContext {
 
-  void setRecommendStrategy(RecommendStrategy recommendStrategy);
+  // names of the recommend strategies, chosen per request
+  String STRATEGY_DIFFICULTY = "difficulty";
+  String STRATEGY_RATING = "rating";
+  String STRATEGY_USER_REVIEW = "user-review";
+  String STRATEGY_SIMILARITY = "similarity";
+  String STRATEGY_PANTRY = "pantry";
+
+  Set<String> getStrategyNames();
 
   // apply user's preference
-  List<Recipe> recommend(IRecipeService recipeService, int userId, boolean isDesc);
+  List<Recipe> recommend(String strategy, IRecipeService recipeService, int userId, boolean isDesc);
+
+  // apply user's preference, one page at a time
+  RecipePage recommend(
+      String strategy,
+      IRecipeService recipeService,
+      int userId,
+      boolean isDesc,
+      String cursor,
+      int limit);
+
+  // apply user's preference, one page at a time in the summary view
+  RecipeSummaryPage recommendSummaries(
+      String strategy,
+      IRecipeService recipeService,
+      int userId,
+      boolean isDesc,
+      String cursor,
+      int limit);
 }
@@ -1,7 +1,10 @@
 package nus.iss.team3.backend.domainService.recipe;
 
 import java.util.List;
+import java.util.function.Consumer;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
+import nus.iss.team3.backend.entity.RecipeSummaryPage;
 
 /**
  * Interface for RecipeService, contains logic involving recipe.
@@ -30,5 +33,67 @@ public interface IRecipeService {
 
   List<Recipe> getRecipesByUserReview(int userId, boolean isDesc);
 
+  /**
+   * The recipes most similar to the ones the user rated highly, best first, from the recipe
+   * similarity model. For a user who rated nothing yet, the recipes by user review.
+   */
+  List<Recipe> getRecipesBySimilarity(int userId, boolean isDesc);
+
+  /**
+   * The recipes using the most of what the user holds in their pantry, ingredients expiring soon
+   * counting more, best first, from the recipe pantry index. For a user whose pantry matches no
+   * recipe, the recipes by user review.
+   */
+  List<Recipe> getRecipesByPantry(int userId, boolean isDesc);
+
+  /**
+   * The first recipes of the personalised rankings above, at most limit of them. The candidates are
+   * ranked by id and score, and only the recipes returned are loaded in full.
+   */
+  List<Recipe> getRecipesByUserReview(int userId, boolean isDesc, int limit);
+
+  List<Recipe> getRecipesBySimilarity(int userId, boolean isDesc, int limit);
+
+  List<Recipe> getRecipesByPantry(int userId, boolean isDesc, int limit);
+
   boolean updateRecipeRating(Long recipeId, double rating);
+
+  /** Recompute the review aggregates of every recipe, returns the number of recipes repaired. */
+  int recomputeReviewAggregates();
+
+  /*
+   * Keyset paged listings. The cursor is the nextCursor of the previous page (null for the first
+   * page), and limit is capped at RecipePage.MAX_PAGE_SIZE.
+   */
+  RecipePage getAllRecipes(String cursor, int limit);
+
+  RecipePage getAllPublishedRecipes(String cursor, int limit);
+
+  RecipePage getRecipesByCreatorId(int creatorId, String cursor, int limit);
+
+  RecipePage getRecipesByDifficulty(boolean isDesc, String cursor, int limit);
+
+  RecipePage getRecipesByRating(boolean isDesc, String cursor, int limit);
+
+  /*
+   * Summary views of the published keyset paged listings, with only the fields of a list card. A
+   * cursor of the full view is accepted by the summary view of the same listing and vice versa.
+   */
+  RecipeSummaryPage getPublishedRecipeSummaries(String cursor, int limit);
+
+  RecipeSummaryPage getRecipeSummariesByDifficulty(boolean isDesc, String cursor, int limit);
+
+  RecipeSummaryPage getRecipeSummariesByRating(boolean isDesc, String cursor, int limit);
+
+  /**
+   * Ranked search of the published recipes by name, cuisine and description, best match first. The
+   * limit is capped at RecipePage.MAX_PAGE_SIZE.
+   */
+  List<Recipe> searchRecipes(String query, int limit);
+
+  /**
+   * Hand every published recipe, in id order, to the consumer one at a time, so the whole catalog
+   * never has to be held in memory.
+   */
+  void exportPublishedRecipes(Consumer<Recipe> consumer);
 }
@@ -0,0 +1,219 @@
+package nus.iss.team3.backend.domainService.recipe;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import nus.iss.team3.backend.entity.CookingStep;
+import nus.iss.team3.backend.entity.ERecipeStatus;
+import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipeIngredient;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-process cache of fully loaded recipes (with ingredients, cooking steps and draft) by id,
+ * holding at most {@code recipe.cache.max-size} recipes and evicting the least recently used.
+ *
+ * <p>Only recipes that are not drafts are cached; a draft is cached inside the graph of its main
+ * recipe, and evicting the draft id evicts that main recipe too. Callers get copies, so they may
+ * modify what they get back. Every write of a recipe must call {@link #evict(Long)}, see
+ * RecipeStateContext and RecipeService.
+ *
+ * <p>Metrics: {@value #METRIC_REQUESTS} (tagged result=hit|miss), {@value #METRIC_EVICTIONS} and
+ * {@value #METRIC_SIZE}.
+ */
+@Component
+public class RecipeCache {
+
+  public static final String METRIC_REQUESTS = "recipe.cache.requests";
+  public static final String METRIC_EVICTIONS = "recipe.cache.evictions";
+  public static final String METRIC_SIZE = "recipe.cache.size";
+
+  private static final Logger logger = LogManager.getLogger(RecipeCache.class);
+
+  private final Map<Long, Recipe> recipes;
+  private final Map<Long, Long> mainIdByDraftId = new HashMap<>();
+  // bumped by every eviction, so a load that raced with a write is not cached
+  private long invalidations;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter evictions;
+
+  public RecipeCache(
+      MeterRegistry meterRegistry, @Value("${recipe.cache.max-size:1000}") int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Recipe cache size must be greater than 0");
+    }
+    this.recipes =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, Recipe> eldest) {
+            if (size() <= maxSize) {
+              return false;
+            }
+            unlinkDraft(eldest.getValue());
+            evictions.increment();
+            return true;
+          }
+        };
+    this.hits = Counter.builder(METRIC_REQUESTS).tag("result", "hit").register(meterRegistry);
+    this.misses = Counter.builder(METRIC_REQUESTS).tag("result", "miss").register(meterRegistry);
+    this.evictions = Counter.builder(METRIC_EVICTIONS).register(meterRegistry);
+    Gauge.builder(METRIC_SIZE, this, RecipeCache::size).register(meterRegistry);
+    logger.info("Recipe cache initialized, max size {}", maxSize);
+  }
+
+  /**
+   * Get the recipe from the cache, or load it with the loader and cache it.
+   *
+   * @return a copy of the cached recipe, or what the loader returned
+   */
+  public Recipe get(Long recipeId, Function<Long, Recipe> loader) {
+    long invalidationsBeforeLoad;
+    synchronized (this) {
+      Recipe cached = recipes.get(recipeId);
+      if (cached != null) {
+        hits.increment();
+        return copyOf(cached);
+      }
+      invalidationsBeforeLoad = invalidations;
+    }
+    misses.increment();
+
+    Recipe loaded = loader.apply(recipeId);
+    if (loaded == null || loaded.getStatus() == ERecipeStatus.DRAFT) {
+      return loaded;
+    }
+    Recipe copy = copyOf(loaded);
+    synchronized (this) {
+      if (invalidations == invalidationsBeforeLoad) {
+        Recipe replaced = recipes.put(recipeId, copy);
+        if (replaced != null) {
+          unlinkDraft(replaced);
+        }
+        if (copy.getDraftRecipe() != null && copy.getDraftRecipe().getId() != null) {
+          mainIdByDraftId.put(copy.getDraftRecipe().getId(), recipeId);
+        }
+      }
+    }
+    return loaded;
+  }
+
+  /**
+   * Evict the recipe, and the main recipe holding it if it is a draft. Within a transaction it is
+   * evicted again once the transaction completes, so a read in between cannot cache the old rows.
+   */
+  public void evict(Long recipeId) {
+    if (recipeId == null) {
+      return;
+    }
+    evictNow(recipeId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              evictNow(recipeId);
+            }
+          });
+    }
+  }
+
+  public synchronized void clear() {
+    invalidations++;
+    recipes.clear();
+    mainIdByDraftId.clear();
+  }
+
+  public synchronized int size() {
+    return recipes.size();
+  }
+
+  private synchronized void evictNow(Long recipeId) {
+    invalidations++;
+    remove(recipeId);
+    Long mainId = mainIdByDraftId.get(recipeId);
+    if (mainId != null) {
+      remove(mainId);
+    }
+  }
+
+  private void remove(Long recipeId) {
+    Recipe removed = recipes.remove(recipeId);
+    if (removed != null) {
+      unlinkDraft(removed);
+      logger.debug("Evicted recipe {} from cache", recipeId);
+    }
+  }
+
+  private void unlinkDraft(Recipe recipe) {
+    if (recipe.getDraftRecipe() != null && recipe.getDraftRecipe().getId() != null) {
+      mainIdByDraftId.remove(recipe.getDraftRecipe().getId(), recipe.getId());
+    }
+  }
+
+  private static Recipe copyOf(Recipe recipe) {
+    if (recipe == null) {
+      return null;
+    }
+    Recipe copy =
+        new Recipe(
+            recipe.getId(),
+            recipe.getCreatorId(),
+            recipe.getName(),
+            recipe.getImage(),
+            recipe.getDescription(),
+            recipe.getCookingTimeInMin(),
+            recipe.getDifficultyLevel(),
+            recipe.getRating(),
+            recipe.getStatus(),
+            recipe.getCreateDatetime(),
+            recipe.getUpdateDatetime(),
+            null,
+            null,
+            recipe.getCuisine());
+    copy.setReviewCount(recipe.getReviewCount());
+    if (recipe.getRatingHistogram() != null) {
+      copy.setRatingHistogram(new ArrayList<>(recipe.getRatingHistogram()));
+    }
+    if (recipe.getIngredients() != null) {
+      List<RecipeIngredient> ingredients = new ArrayList<>(recipe.getIngredients().size());
+      for (RecipeIngredient ingredient : recipe.getIngredients()) {
+        ingredients.add(
+            new RecipeIngredient(
+                ingredient.getId(),
+                ingredient.getRecipeId(),
+                ingredient.getName(),
+                ingredient.getQuantity(),
+                ingredient.getUom()));
+      }
+      copy.setIngredients(ingredients);
+    }
+    if (recipe.getCookingSteps() != null) {
+      List<CookingStep> steps = new ArrayList<>(recipe.getCookingSteps().size());
+      for (CookingStep step : recipe.getCookingSteps()) {
+        steps.add(
+            CookingStep.builder()
+                .id(step.getId())
+                .recipeId(step.getRecipeId())
+                .description(step.getDescription())
+                .image(step.getImage())
+                .build());
+      }
+      copy.setCookingSteps(steps);
+    }
+    copy.setDraftRecipe(copyOf(recipe.getDraftRecipe()));
+    return copy;
+  }
+}
@@ -0,0 +1,348 @@
+package nus.iss.team3.backend.domainService.recipe;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import nus.iss.team3.backend.ProfileConfig;
+import nus.iss.team3.backend.dataaccess.IRecipeDataAccess;
+import nus.iss.team3.backend.entity.ERecipeStatus;
+import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipeIngredient;
+import nus.iss.team3.backend.entity.UserIngredient;
+import nus.iss.team3.backend.service.util.TopK;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inverted index from ingredient name to the published recipes that use it, to recommend the
+ * recipes a user can cook with what is in their pantry. Each recipe has a slot, and each normalised
+ * ingredient name a bitset of the slots of the recipes using it, so scoring a pantry only touches
+ * the recipes sharing an ingredient with it.
+ *
+ * <p>A recipe scores the weights of the pantry ingredients it uses, an ingredient weighing more the
+ * sooner it expires (up to {@value #EXPIRY_BOOST} more on the day it expires, over {@value
+ * #EXPIRY_WINDOW_DAYS} days), plus up to {@value #COVERAGE_WEIGHT} for the share of its ingredients
+ * the pantry holds, so recipes missing fewer ingredients rank first among equals. Expired
+ * ingredients are left out. Quantities are not compared, as pantry and recipe units differ.
+ *
+ * <p>The index is updated as recipes are written, see RecipeService, and rebuilt every {@code
+ * recipe.pantry.rebuild-interval-ms} in the background to pick up writes made elsewhere.
+ */
+@Component
+@Profile(ProfileConfig.PROFILE_RECIPE)
+public class RecipePantryIndex {
+
+  public static final int MAX_RECOMMENDATIONS = 100;
+  static final int EXPIRY_WINDOW_DAYS = 7;
+  static final double EXPIRY_BOOST = 1.0;
+  static final double COVERAGE_WEIGHT = 0.5;
+
+  private static final Logger logger = LogManager.getLogger(RecipePantryIndex.class);
+
+  private final IRecipeDataAccess recipeDataAccess;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // guarded by lock
+  private Index index = new Index();
+  // the recipes written while a rebuild was loading, carried over onto the rebuilt index
+  private Set<Long> writtenDuringRebuild;
+
+  public RecipePantryIndex(IRecipeDataAccess recipeDataAccess) {
+    this.recipeDataAccess = recipeDataAccess;
+  }
+
+  @Scheduled(fixedDelayString = "${recipe.pantry.rebuild-interval-ms:600000}")
+  public synchronized void rebuild() {
+    long started = System.nanoTime();
+    lock.writeLock().lock();
+    try {
+      writtenDuringRebuild = new HashSet<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    Index built = new Index();
+    Loader loader = new Loader(built);
+    try {
+      recipeDataAccess.streamPublishedRecipeIngredients(loader::add);
+      loader.finish();
+    } catch (RuntimeException e) {
+      logger.error(
+          "Failed to load the recipe ingredients, keeping the previous index: {}", e.getMessage());
+      lock.writeLock().lock();
+      try {
+        writtenDuringRebuild = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+      return;
+    }
+
+    lock.writeLock().lock();
+    try {
+      for (Long recipeId : writtenDuringRebuild) {
+        String[] ingredients = index.get(recipeId);
+        if (ingredients == null) {
+          built.remove(recipeId);
+        } else {
+          built.put(recipeId, ingredients);
+        }
+      }
+      writtenDuringRebuild = null;
+      index = built;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    logger.info(
+        "Rebuilt recipe pantry index of {} recipes and {} ingredients in {} ms",
+        built.size(),
+        built.recipesByIngredient.size(),
+        (System.nanoTime() - started) / 1_000_000);
+  }
+
+  /**
+   * Bring a recipe up to date in the index, with the recipe as it now is in the database, null when
+   * it was deleted. Only published recipes are indexed.
+   */
+  public void update(Long recipeId, Recipe recipe) {
+    if (recipeId == null) {
+      return;
+    }
+    String[] ingredients = null;
+    if (recipe != null && recipe.getStatus() == ERecipeStatus.PUBLISHED) {
+      ingredients = normaliseAll(recipe.getIngredients());
+    }
+    lock.writeLock().lock();
+    try {
+      if (ingredients == null) {
+        index.remove(recipeId);
+      } else {
+        index.put(recipeId, ingredients);
+      }
+      if (writtenDuringRebuild != null) {
+        writtenDuringRebuild.add(recipeId);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(Long recipeId) {
+    update(recipeId, null);
+  }
+
+  /**
+   * The ids of the recipes to cook with the pantry, best first, at most {@code limit} of them.
+   * Empty when no published recipe uses anything in the pantry.
+   */
+  public long[] recommend(Collection<UserIngredient> pantry, int limit) {
+    return recommend(pantry, LocalDate.now(), limit);
+  }
+
+  long[] recommend(Collection<UserIngredient> pantry, LocalDate today, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Limit must be greater than 0");
+    }
+    Map<String, Double> weights = weigh(pantry, today);
+    if (weights.isEmpty()) {
+      return new long[0];
+    }
+    lock.readLock().lock();
+    try {
+      return index.score(weights, Math.min(limit, MAX_RECOMMENDATIONS));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int getRecipeCount() {
+    lock.readLock().lock();
+    try {
+      return index.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** The form an ingredient name is indexed and looked up by, null for a blank name. */
+  static String normalise(String name) {
+    if (name == null) {
+      return null;
+    }
+    String normalised = name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    return normalised.isEmpty() ? null : normalised;
+  }
+
+  // the distinct normalised names of the ingredients
+  private static String[] normaliseAll(List<RecipeIngredient> ingredients) {
+    if (ingredients == null) {
+      return new String[0];
+    }
+    Set<String> names = new LinkedHashSet<>();
+    for (RecipeIngredient ingredient : ingredients) {
+      String name = normalise(ingredient.getName());
+      if (name != null) {
+        names.add(name);
+      }
+    }
+    return names.toArray(new String[0]);
+  }
+
+  // the weight of each ingredient in the pantry, by normalised name, leaving out the expired ones
+  static Map<String, Double> weigh(Collection<UserIngredient> pantry, LocalDate today) {
+    Map<String, Double> weights = new HashMap<>();
+    if (pantry == null) {
+      return weights;
+    }
+    for (UserIngredient ingredient : pantry) {
+      String name = normalise(ingredient.getName());
+      if (name == null) {
+        continue;
+      }
+      double weight = 1;
+      if (ingredient.getExpiryDate() != null) {
+        LocalDate expiry =
+            LocalDate.ofInstant(
+                Instant.ofEpochMilli(ingredient.getExpiryDate().getTime()), ZoneId.systemDefault());
+        long daysLeft = ChronoUnit.DAYS.between(today, expiry);
+        if (daysLeft < 0) {
+          continue;
+        }
+        if (daysLeft < EXPIRY_WINDOW_DAYS) {
+          weight += EXPIRY_BOOST * (EXPIRY_WINDOW_DAYS - daysLeft) / EXPIRY_WINDOW_DAYS;
+        }
+      }
+      // the same ingredient held twice counts once, by its soonest expiry
+      weights.merge(name, weight, Math::max);
+    }
+    return weights;
+  }
+
+  /** Groups the streamed ingredients by recipe into an index, they come in recipe order. */
+  private static final class Loader {
+    private final Index index;
+    private final List<RecipeIngredient> current = new ArrayList<>();
+
+    Loader(Index index) {
+      this.index = index;
+    }
+
+    void add(RecipeIngredient ingredient) {
+      if (ingredient.getRecipeId() == null) {
+        return;
+      }
+      if (!current.isEmpty()) {
+        long last = current.getLast().getRecipeId();
+        if (ingredient.getRecipeId() < last) {
+          throw new IllegalStateException("Ingredients must come in recipe order");
+        }
+        if (ingredient.getRecipeId() != last) {
+          finish();
+        }
+      }
+      current.add(ingredient);
+    }
+
+    void finish() {
+      if (!current.isEmpty()) {
+        index.put(current.getFirst().getRecipeId(), normaliseAll(current));
+        current.clear();
+      }
+    }
+  }
+
+  /** The index itself, not thread safe, guarded by the lock of the RecipePantryIndex. */
+  static final class Index {
+    final Map<String, BitSet> recipesByIngredient = new HashMap<>();
+    private final Map<Long, Integer> slotsByRecipe = new HashMap<>();
+    // by slot, a slot is reused once its recipe is removed
+    private long[] recipeIds = new long[64];
+    private String[][] ingredients = new String[64][];
+    private final BitSet freeSlots = new BitSet();
+    private int slotCount;
+
+    int size() {
+      return slotsByRecipe.size();
+    }
+
+    String[] get(long recipeId) {
+      Integer slot = slotsByRecipe.get(recipeId);
+      return slot == null ? null : ingredients[slot];
+    }
+
+    void put(long recipeId, String[] names) {
+      remove(recipeId);
+      int slot = freeSlots.nextSetBit(0);
+      if (slot >= 0) {
+        freeSlots.clear(slot);
+      } else {
+        slot = slotCount++;
+        if (slot == recipeIds.length) {
+          recipeIds = Arrays.copyOf(recipeIds, slot * 2);
+          ingredients = Arrays.copyOf(ingredients, slot * 2);
+        }
+      }
+      recipeIds[slot] = recipeId;
+      ingredients[slot] = names;
+      slotsByRecipe.put(recipeId, slot);
+      for (String name : names) {
+        recipesByIngredient.computeIfAbsent(name, key -> new BitSet()).set(slot);
+      }
+    }
+
+    void remove(long recipeId) {
+      Integer slot = slotsByRecipe.remove(recipeId);
+      if (slot == null) {
+        return;
+      }
+      for (String name : ingredients[slot]) {
+        BitSet recipes = recipesByIngredient.get(name);
+        recipes.clear(slot);
+        if (recipes.isEmpty()) {
+          recipesByIngredient.remove(name);
+        }
+      }
+      ingredients[slot] = null;
+      freeSlots.set(slot);
+    }
+
+    long[] score(Map<String, Double> weights, int limit) {
+      BitSet candidates = new BitSet(slotCount);
+      double[] scores = new double[slotCount];
+      int[] held = new int[slotCount];
+      for (Map.Entry<String, Double> weight : weights.entrySet()) {
+        BitSet recipes = recipesByIngredient.get(weight.getKey());
+        if (recipes == null) {
+          continue;
+        }
+        candidates.or(recipes);
+        for (int slot = recipes.nextSetBit(0); slot >= 0; slot = recipes.nextSetBit(slot + 1)) {
+          scores[slot] += weight.getValue();
+          held[slot]++;
+        }
+      }
+      TopK top = new TopK(limit);
+      for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+        double coverage = (double) held[slot] / ingredients[slot].length;
+        top.offer(recipeIds[slot], scores[slot] + COVERAGE_WEIGHT * coverage);
+      }
+      return top.drainIds();
+    }
+  }
+}
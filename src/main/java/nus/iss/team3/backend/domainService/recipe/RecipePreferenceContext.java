@@ -1,22 +1,75 @@
 package nus.iss.team3.backend.domainService.recipe;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
+import nus.iss.team3.backend.entity.RecipeSummaryPage;
 import org.springframework.stereotype.Service;
 
+/**
+ * Recommends recipes with the strategy named by each request. The strategies hold no state and the
+ * registry never changes once built, so concurrent requests can use any mix of strategies.
+ */
 @Service
 public class RecipePreferenceContext implements IRecipePreferenceContext {
-  private RecommendStrategy recommendStrategy;
+  private final Map<String, RecommendStrategy> strategies;
+
+  public RecipePreferenceContext() {
+    this(
+        Map.of(
+            STRATEGY_DIFFICULTY, new RecommendByDifficulty(),
+            STRATEGY_RATING, new RecommendByRating(),
+            STRATEGY_USER_REVIEW, new RecommendByUserReview(),
+            STRATEGY_SIMILARITY, new RecommendBySimilarity(),
+            STRATEGY_PANTRY, new RecommendByPantry()));
+  }
+
+  RecipePreferenceContext(Map<String, RecommendStrategy> strategies) {
+    this.strategies = Map.copyOf(strategies);
+  }
 
-  // set user's preference
   @Override
-  public void setRecommendStrategy(RecommendStrategy recommendStrategy) {
-    this.recommendStrategy = recommendStrategy;
+  public Set<String> getStrategyNames() {
+    return strategies.keySet();
   }
 
   // apply user's preference
   @Override
-  public List<Recipe> recommend(IRecipeService recipeService, int userId, boolean isDesc) {
-    return recommendStrategy.recommendRecipes(recipeService, userId, isDesc);
+  public List<Recipe> recommend(
+      String strategy, IRecipeService recipeService, int userId, boolean isDesc) {
+    return getStrategy(strategy).recommendRecipes(recipeService, userId, isDesc);
+  }
+
+  @Override
+  public RecipePage recommend(
+      String strategy,
+      IRecipeService recipeService,
+      int userId,
+      boolean isDesc,
+      String cursor,
+      int limit) {
+    return getStrategy(strategy).recommendRecipes(recipeService, userId, isDesc, cursor, limit);
+  }
+
+  @Override
+  public RecipeSummaryPage recommendSummaries(
+      String strategy,
+      IRecipeService recipeService,
+      int userId,
+      boolean isDesc,
+      String cursor,
+      int limit) {
+    return getStrategy(strategy)
+        .recommendRecipeSummaries(recipeService, userId, isDesc, cursor, limit);
+  }
+
+  private RecommendStrategy getStrategy(String name) {
+    RecommendStrategy strategy = name == null ? null : strategies.get(name);
+    if (strategy == null) {
+      throw new IllegalArgumentException("Unknown recommend strategy: " + name);
+    }
+    return strategy;
   }
 }
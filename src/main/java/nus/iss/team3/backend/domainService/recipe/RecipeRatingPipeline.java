@@ -0,0 +1,190 @@
+package nus.iss.team3.backend.domainService.recipe;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import nus.iss.team3.backend.ProfileConfig;
+import nus.iss.team3.backend.dataaccess.IRecipeDataAccess;
+import nus.iss.team3.backend.entity.ReviewAggregateDelta;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Applies the changes of review writes to the review aggregates and rating of their recipes in the
+ * background. The deltas are coalesced per recipe and flushed every {@code
+ * recipe.rating.flush-interval-ms}, all recipes in one statement, so a burst of reviews on one
+ * recipe updates its row once per flush instead of once per review. A recipe is evicted from the
+ * recipe cache once its deltas are applied.
+ *
+ * <p>Deltas that fail to apply are kept for the next flush. A review write also counts itself
+ * against its recipes in the database, and the flush applying its delta counts it off, so the
+ * deltas still queued when the process dies are not lost for good: every {@code
+ * recipe.rating.recover-interval-ms}, starting on startup, the recipes whose writes are still not
+ * applied {@code recipe.rating.lost-after-ms} after the first of them are recomputed from their
+ * reviews, and the deltas still queued for them anywhere are not applied on top. POST
+ * /recipe/rating/recompute repairs every recipe the same way.
+ *
+ * <p>Metrics: {@value #METRIC_QUEUE_DEPTH} (recipes waiting), {@value #METRIC_LAG} (from the first
+ * queued delta of a recipe to its flush), {@value #METRIC_FAILED_FLUSHES} and {@value
+ * #METRIC_RECOVERED} (recipes recomputed for lost deltas).
+ */
+@Component
+@Profile(ProfileConfig.PROFILE_RECIPE)
+public class RecipeRatingPipeline {
+
+  public static final String METRIC_QUEUE_DEPTH = "recipe.rating.queue.depth";
+  public static final String METRIC_LAG = "recipe.rating.lag";
+  public static final String METRIC_FAILED_FLUSHES = "recipe.rating.flush.failures";
+  public static final String METRIC_RECOVERED = "recipe.rating.recovered";
+
+  private static final Logger logger = LogManager.getLogger(RecipeRatingPipeline.class);
+
+  private final IRecipeDataAccess recipeDataAccess;
+  private final RecipeCache recipeCache;
+  private final ConcurrentHashMap<Long, Pending> pending = new ConcurrentHashMap<>();
+  private final long lostAfterMillis;
+
+  private final Timer lag;
+  private final Counter failedFlushes;
+  private final Counter recovered;
+
+  public RecipeRatingPipeline(
+      IRecipeDataAccess recipeDataAccess,
+      RecipeCache recipeCache,
+      MeterRegistry meterRegistry,
+      @Value("${recipe.rating.lost-after-ms:60000}") long lostAfterMillis) {
+    this.recipeDataAccess = recipeDataAccess;
+    this.recipeCache = recipeCache;
+    this.lostAfterMillis = lostAfterMillis;
+    this.lag = Timer.builder(METRIC_LAG).register(meterRegistry);
+    this.failedFlushes = Counter.builder(METRIC_FAILED_FLUSHES).register(meterRegistry);
+    this.recovered = Counter.builder(METRIC_RECOVERED).register(meterRegistry);
+    Gauge.builder(METRIC_QUEUE_DEPTH, pending, ConcurrentHashMap::size).register(meterRegistry);
+  }
+
+  /**
+   * Queue the deltas of a review write. Within a transaction they are queued once it commits, so a
+   * rolled back write does not change the aggregates.
+   */
+  public void enqueue(List<ReviewAggregateDelta> deltas) {
+    if (deltas == null || deltas.isEmpty()) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              queue(deltas, System.nanoTime());
+            }
+          });
+    } else {
+      queue(deltas, System.nanoTime());
+    }
+  }
+
+  /** Apply the queued deltas of all recipes in one go. */
+  @Scheduled(fixedDelayString = "${recipe.rating.flush-interval-ms:500}")
+  public synchronized void flush() {
+    applyPending();
+  }
+
+  /**
+   * Recompute the recipes whose deltas were lost, queued by a process that died before applying
+   * them. The deltas queued here are applied first, so only those of other processes can count as
+   * lost.
+   */
+  @Scheduled(fixedDelayString = "${recipe.rating.recover-interval-ms:60000}")
+  public synchronized void recoverLostDeltas() {
+    if (!applyPending()) {
+      return;
+    }
+    try {
+      List<Long> recomputed = recipeDataAccess.recomputeLostReviewAggregates(lostAfterMillis);
+      recomputed.forEach(recipeCache::evict);
+      recovered.increment(recomputed.size());
+    } catch (RuntimeException e) {
+      logger.error("Failed to recover lost review deltas: {}", e.getMessage());
+    }
+  }
+
+  // applies the queued deltas, false when they failed to apply and were queued again
+  private boolean applyPending() {
+    if (pending.isEmpty()) {
+      return true;
+    }
+    List<Pending> flushing = new ArrayList<>(pending.size());
+    for (Long recipeId : pending.keySet()) {
+      Pending taken = pending.remove(recipeId);
+      if (taken != null) {
+        flushing.add(taken);
+      }
+    }
+    try {
+      recipeDataAccess.applyReviewAggregateDeltas(flushing.stream().map(Pending::delta).toList());
+    } catch (RuntimeException e) {
+      logger.error(
+          "Failed to apply review deltas of {} recipes, retrying on the next flush: {}",
+          flushing.size(),
+          e.getMessage());
+      failedFlushes.increment();
+      for (Pending retry : flushing) {
+        queue(List.of(retry.delta()), retry.queuedAtNanos());
+      }
+      return false;
+    }
+    long now = System.nanoTime();
+    for (Pending applied : flushing) {
+      lag.record(now - applied.queuedAtNanos(), TimeUnit.NANOSECONDS);
+      recipeCache.evict(applied.delta().getRecipeId());
+    }
+    logger.debug("Applied review deltas of {} recipes", flushing.size());
+    return true;
+  }
+
+  /**
+   * Run a recompute of the aggregates from the reviews once the queued deltas are applied, with no
+   * flush in between, so the recompute does not count the reviews of a delta that is applied after
+   * it.
+   */
+  public synchronized int recompute(IntSupplier recomputation) {
+    flush();
+    return recomputation.getAsInt();
+  }
+
+  public int getQueueDepth() {
+    return pending.size();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    flush();
+  }
+
+  private void queue(List<ReviewAggregateDelta> deltas, long queuedAtNanos) {
+    for (ReviewAggregateDelta delta : deltas) {
+      pending.merge(
+          delta.getRecipeId(),
+          new Pending(delta, queuedAtNanos),
+          (queued, added) ->
+              new Pending(
+                  queued.delta().merge(added.delta()),
+                  Math.min(queued.queuedAtNanos(), added.queuedAtNanos())));
+    }
+  }
+
+  private record Pending(ReviewAggregateDelta delta, long queuedAtNanos) {}
+}
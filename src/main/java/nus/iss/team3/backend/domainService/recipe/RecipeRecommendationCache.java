@@ -0,0 +1,338 @@
+package nus.iss.team3.backend.domainService.recipe;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import nus.iss.team3.backend.ProfileConfig;
+import nus.iss.team3.backend.entity.Recipe;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Precomputed recommendation lists by key, the shared rankings by difficulty and rating and the
+ * personalised lists of each user, holding at most {@code recipe.recommend.cache.max-size} lists
+ * and evicting the least recently used.
+ *
+ * <p>Lists are served stale while they are revalidated: a list is recomputed in the background
+ * every {@code recipe.recommend.refresh-interval-ms}, and marked stale by {@link #invalidate()} on
+ * recipe writes, after which the next request still gets the old list and starts its recomputation.
+ * Only the first request of a key waits for it to be computed, concurrent first requests waiting on
+ * the one computation. Lists not requested for {@code recipe.recommend.cache.idle-ms} are dropped
+ * instead of being recomputed. Rating changes from reviews are not writes here, so the rankings may
+ * lag them by up to the refresh interval.
+ *
+ * <p>The lists handed out are shared and unmodifiable, callers must not modify their recipes.
+ *
+ * <p>Metrics: {@value #METRIC_REQUESTS} (tagged result=hit|stale|miss), {@value #METRIC_REFRESHES}
+ * (tagged result=success|failure) and {@value #METRIC_SIZE}.
+ */
+@Component
+@Profile(ProfileConfig.PROFILE_RECIPE)
+public class RecipeRecommendationCache {
+
+  public static final String METRIC_REQUESTS = "recipe.recommend.cache.requests";
+  public static final String METRIC_REFRESHES = "recipe.recommend.cache.refreshes";
+  public static final String METRIC_SIZE = "recipe.recommend.cache.size";
+
+  private static final Logger logger = LogManager.getLogger(RecipeRecommendationCache.class);
+  private static final int REFRESH_THREADS = 2;
+
+  private final Map<String, Entry> entries;
+  private final long idleNanos;
+  private final Executor executor;
+  // bumped by every invalidation, so a recomputation that raced with a write stays stale
+  private long generation;
+
+  private final Counter hits;
+  private final Counter staleHits;
+  private final Counter misses;
+  private final Counter refreshes;
+  private final Counter failedRefreshes;
+
+  @Autowired
+  public RecipeRecommendationCache(
+      MeterRegistry meterRegistry,
+      @Value("${recipe.recommend.cache.max-size:256}") int maxSize,
+      @Value("${recipe.recommend.cache.idle-ms:1800000}") long idleMillis) {
+    this(
+        meterRegistry,
+        maxSize,
+        idleMillis,
+        Executors.newFixedThreadPool(
+            REFRESH_THREADS,
+            runnable -> {
+              Thread thread = new Thread(runnable, "recipe-recommend-refresh");
+              thread.setDaemon(true);
+              return thread;
+            }));
+  }
+
+  RecipeRecommendationCache(
+      MeterRegistry meterRegistry, int maxSize, long idleMillis, Executor executor) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("Recommendation cache size must be greater than 0");
+    }
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxSize;
+          }
+        };
+    this.idleNanos = idleMillis * 1_000_000L;
+    this.executor = executor;
+    this.hits = Counter.builder(METRIC_REQUESTS).tag("result", "hit").register(meterRegistry);
+    this.staleHits =
+        Counter.builder(METRIC_REQUESTS).tag("result", "stale").register(meterRegistry);
+    this.misses = Counter.builder(METRIC_REQUESTS).tag("result", "miss").register(meterRegistry);
+    this.refreshes =
+        Counter.builder(METRIC_REFRESHES).tag("result", "success").register(meterRegistry);
+    this.failedRefreshes =
+        Counter.builder(METRIC_REFRESHES).tag("result", "failure").register(meterRegistry);
+    Gauge.builder(METRIC_SIZE, this, RecipeRecommendationCache::size).register(meterRegistry);
+    logger.info("Recommendation cache initialized, max size {}", maxSize);
+  }
+
+  /**
+   * Get the list of the key, computing it with the loader on the first request only. A null list
+   * from the loader is returned but not cached.
+   */
+  public List<Recipe> get(String key, Supplier<List<Recipe>> loader) {
+    Entry entry;
+    List<Recipe> cached;
+    boolean revalidate = false;
+    CompletableFuture<List<Recipe>> loading = null;
+    boolean loads = false;
+    synchronized (this) {
+      entry = entries.get(key);
+      if (entry == null) {
+        entry = new Entry();
+        entries.put(key, entry);
+      }
+      entry.loader = loader;
+      entry.readAtNanos = System.nanoTime();
+      entry.hot = true;
+      cached = entry.value;
+      if (cached != null) {
+        revalidate = served(entry);
+      } else {
+        if (entry.loading == null) {
+          entry.loading = new CompletableFuture<>();
+          loads = true;
+        }
+        loading = entry.loading;
+      }
+    }
+    if (cached != null) {
+      if (revalidate) {
+        submit(key, entry);
+      }
+      return cached;
+    }
+    if (!loads) {
+      try {
+        return loading.join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException cause ? cause : e;
+      }
+    }
+    misses.increment();
+    try {
+      List<Recipe> loaded = load(key, entry, loader);
+      loading.complete(loaded);
+      return loaded;
+    } catch (RuntimeException e) {
+      loading.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Mark every list stale, and start recomputing the ones requested since the last scheduled
+   * refresh. Within a transaction they are marked again once the transaction completes, so a
+   * recomputation in between cannot keep the old rows.
+   */
+  public void invalidate() {
+    invalidateNow();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              invalidateNow();
+            }
+          });
+    }
+  }
+
+  /** Recompute every list in the background, dropping the ones not requested for a while. */
+  @Scheduled(fixedDelayString = "${recipe.recommend.refresh-interval-ms:60000}")
+  public void refresh() {
+    List<Map.Entry<String, Entry>> due = new ArrayList<>();
+    synchronized (this) {
+      long now = System.nanoTime();
+      Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<String, Entry> next = iterator.next();
+        Entry entry = next.getValue();
+        if (entry.value == null) {
+          continue;
+        }
+        if (now - entry.readAtNanos > idleNanos) {
+          iterator.remove();
+          logger.debug("Dropped idle recommendation list {}", next.getKey());
+        } else if (!entry.refreshing) {
+          entry.refreshing = true;
+          entry.hot = false;
+          due.add(next);
+        }
+      }
+    }
+    for (Map.Entry<String, Entry> next : due) {
+      submit(next.getKey(), next.getValue());
+    }
+  }
+
+  public synchronized void clear() {
+    generation++;
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (executor instanceof ExecutorService executorService) {
+      executorService.shutdownNow();
+    }
+  }
+
+  private void invalidateNow() {
+    List<Map.Entry<String, Entry>> due = new ArrayList<>();
+    synchronized (this) {
+      generation++;
+      for (Map.Entry<String, Entry> next : entries.entrySet()) {
+        Entry entry = next.getValue();
+        entry.stale = true;
+        if (entry.value != null && entry.hot && !entry.refreshing) {
+          entry.refreshing = true;
+          due.add(next);
+        }
+      }
+    }
+    for (Map.Entry<String, Entry> next : due) {
+      submit(next.getKey(), next.getValue());
+    }
+  }
+
+  // called holding the lock, with a cached value, returns whether to start its recomputation
+  private boolean served(Entry entry) {
+    if (!entry.stale) {
+      hits.increment();
+      return false;
+    }
+    staleHits.increment();
+    if (entry.refreshing) {
+      return false;
+    }
+    entry.refreshing = true;
+    return true;
+  }
+
+  private void submit(String key, Entry entry) {
+    try {
+      executor.execute(() -> recompute(key, entry));
+    } catch (RejectedExecutionException e) {
+      synchronized (this) {
+        entry.refreshing = false;
+      }
+      logger.warn("Recommendation list {} not refreshed: {}", key, e.getMessage());
+    }
+  }
+
+  private void recompute(String key, Entry entry) {
+    Supplier<List<Recipe>> loader;
+    synchronized (this) {
+      loader = entry.loader;
+    }
+    try {
+      load(key, entry, loader);
+      refreshes.increment();
+    } catch (RuntimeException e) {
+      failedRefreshes.increment();
+      logger.error("Failed to refresh recommendation list {}: {}", key, e.getMessage());
+    } finally {
+      synchronized (this) {
+        entry.refreshing = false;
+      }
+    }
+  }
+
+  private List<Recipe> load(String key, Entry entry, Supplier<List<Recipe>> loader) {
+    long generationBeforeLoad;
+    synchronized (this) {
+      generationBeforeLoad = generation;
+    }
+    List<Recipe> loaded;
+    try {
+      loaded = loader.get();
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        entry.loading = null;
+        if (entry.value == null) {
+          entries.remove(key, entry);
+        }
+      }
+      throw e;
+    }
+    List<Recipe> value =
+        loaded == null ? null : Collections.unmodifiableList(new ArrayList<>(loaded));
+    synchronized (this) {
+      entry.loading = null;
+      if (value == null) {
+        if (entry.value == null) {
+          entries.remove(key, entry);
+        }
+      } else if (entries.get(key) == entry) {
+        entry.value = value;
+        entry.stale = generation != generationBeforeLoad;
+      }
+    }
+    logger.debug("Computed recommendation list {}", key);
+    return value;
+  }
+
+  private static class Entry {
+    private List<Recipe> value;
+    private Supplier<List<Recipe>> loader;
+    private CompletableFuture<List<Recipe>> loading;
+    private boolean stale;
+    private boolean refreshing;
+    // requested since the last scheduled refresh
+    private boolean hot;
+    private long readAtNanos;
+  }
+}
@@ -4,12 +4,22 @@ import jakarta.annotation.PostConstruct;
 import java.util.*;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import nus.iss.team3.backend.ProfileConfig;
 import nus.iss.team3.backend.dataaccess.IRecipeDataAccess;
+import nus.iss.team3.backend.domainService.ingredient.IIngredientService;
 import nus.iss.team3.backend.domainService.recipe.status.IRecipeStateContext;
 import nus.iss.team3.backend.entity.ERecipeStatus;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
+import nus.iss.team3.backend.entity.RecipeScore;
+import nus.iss.team3.backend.entity.RecipeSummary;
+import nus.iss.team3.backend.entity.RecipeSummaryPage;
+import nus.iss.team3.backend.entity.UserIngredient;
+import nus.iss.team3.backend.service.util.KeysetCursor;
+import nus.iss.team3.backend.service.util.TopK;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.context.annotation.Profile;
@@ -25,12 +35,52 @@ import org.springframework.stereotype.Service;
 public class RecipeService implements IRecipeService {
 
   private static final Logger logger = LogManager.getLogger(RecipeService.class);
+
+  // Cursor scopes, so a cursor is only accepted by the listing that issued it
+  private static final String CURSOR_SCOPE_ALL = "all";
+  private static final String CURSOR_SCOPE_PUBLISHED = "published";
+  private static final String CURSOR_SCOPE_CREATOR = "creator-";
+  private static final String CURSOR_SCOPE_DIFFICULTY = "difficulty";
+  private static final String CURSOR_SCOPE_RATING = "rating";
+  private static final String CURSOR_SCOPE_DESC = "-desc";
+
+  // Recommendation cache keys, the personalised ones followed by the user id
+  private static final String RECOMMEND_DIFFICULTY = "difficulty";
+  private static final String RECOMMEND_RATING = "rating";
+  private static final String RECOMMEND_USER_REVIEW = "user-review-";
+  private static final String RECOMMEND_SIMILARITY = "similarity-";
+  private static final String RECOMMEND_PANTRY = "pantry-";
+  private static final String RECOMMEND_TOP = "-top-";
+  // the bounded rankings are cached in sizes of this many recipes and cut to the limit asked, so
+  // the pages of a user, asking one more recipe each, share one ranking
+  private static final int RECOMMEND_TOP_SIZE = 100;
+
   private final IRecipeDataAccess recipeDataAccess;
   private final IRecipeStateContext recipeStateContext;
-
-  public RecipeService(IRecipeDataAccess recipeDataAccess, IRecipeStateContext recipeStateContext) {
+  private final RecipeCache recipeCache;
+  private final RecipeRatingPipeline recipeRatingPipeline;
+  private final RecipeSimilarityModel recipeSimilarityModel;
+  private final RecipePantryIndex recipePantryIndex;
+  private final IIngredientService ingredientService;
+  private final RecipeRecommendationCache recommendationCache;
+
+  public RecipeService(
+      IRecipeDataAccess recipeDataAccess,
+      IRecipeStateContext recipeStateContext,
+      RecipeCache recipeCache,
+      RecipeRatingPipeline recipeRatingPipeline,
+      RecipeSimilarityModel recipeSimilarityModel,
+      RecipePantryIndex recipePantryIndex,
+      IIngredientService ingredientService,
+      RecipeRecommendationCache recommendationCache) {
     this.recipeDataAccess = recipeDataAccess;
     this.recipeStateContext = recipeStateContext;
+    this.recipeCache = recipeCache;
+    this.recipeRatingPipeline = recipeRatingPipeline;
+    this.recipeSimilarityModel = recipeSimilarityModel;
+    this.recipePantryIndex = recipePantryIndex;
+    this.ingredientService = ingredientService;
+    this.recommendationCache = recommendationCache;
   }
 
   @PostConstruct
@@ -43,8 +93,11 @@ public class RecipeService implements IRecipeService {
     validateRecipe(recipe, false);
     logger.debug("Adding recipe: {}", recipe.getName());
     // Add recipes to the database using the Data Access Layer approach
+    Long inputId = recipe.getId();
     Recipe result = recipeStateContext.addRecipe(recipe);
     if (result != null && result.getId() != null) {
+      refreshPantryIndex(inputId, recipe.getId());
+      recommendationCache.invalidate();
       logger.debug("Successfully added recipe with ID: {}", recipe.getId());
       return true;
     } else {
@@ -71,8 +124,11 @@ public class RecipeService implements IRecipeService {
 
     logger.debug("Updating recipe with ID: {}", recipe.getId());
     // Updating recipes in the database using a data access layer approach
+    Long inputId = recipe.getId();
     boolean result = recipeStateContext.updateRecipe(recipe);
     if (result) {
+      refreshPantryIndex(inputId, recipe.getId());
+      recommendationCache.invalidate();
       logger.debug("Successfully updated recipe with ID: {}", recipe.getId());
     } else {
       logger.warn("Failed to update recipe with ID: {}", recipe.getId());
@@ -98,7 +154,10 @@ public class RecipeService implements IRecipeService {
       recipeDataAccess.deleteRecipeById(existingRecipe.getDraftRecipe().getId());
     }
     boolean result = recipeDataAccess.deleteRecipeById(recipeId);
+    recipeCache.evict(recipeId);
     if (result) {
+      recipePantryIndex.remove(recipeId);
+      recommendationCache.invalidate();
       logger.debug("Successfully deleted recipe with ID: {}", recipeId);
     } else {
       logger.warn("Failed to delete recipe with ID: {}", recipeId);
@@ -111,13 +170,9 @@ public class RecipeService implements IRecipeService {
     // Check if the incoming recipe ID is null, if it is null then throw an exception
     Objects.requireNonNull(recipeId, "Recipe ID cannot be null");
     logger.debug("Getting recipe with ID: {}", recipeId);
-    // Get the recipe with the specified ID using the method of the data access layer
-    Recipe recipe = recipeDataAccess.getRecipeById(recipeId);
+    Recipe recipe = recipeCache.get(recipeId, this::loadRecipe);
 
     if (recipe != null) {
-      if (recipe.getDraftRecipe() != null && recipe.getDraftRecipe().getId() != null) {
-        recipe.setDraftRecipe(recipeDataAccess.getRecipeById(recipe.getDraftRecipe().getId()));
-      }
       logger.debug("Successfully retrieved recipe with ID: {}", recipeId);
     } else {
       logger.warn("Recipe with ID {} not found", recipeId);
@@ -125,6 +180,11 @@ public class RecipeService implements IRecipeService {
     return recipe;
   }
 
+  // Get the recipe with the specified ID, and its draft, using the data access layer
+  private Recipe loadRecipe(Long recipeId) {
+    return recipeDataAccess.getRecipeGraphById(recipeId);
+  }
+
   @Override
   public List<Recipe> getAllRecipes() {
     logger.debug("Getting all recipes");
@@ -149,6 +209,12 @@ public class RecipeService implements IRecipeService {
     return recipes;
   }
 
+  @Override
+  public void exportPublishedRecipes(Consumer<Recipe> consumer) {
+    logger.debug("Exporting all published recipes");
+    recipeDataAccess.streamAllPublishedRecipes(consumer);
+  }
+
   @Override
   public List<Recipe> getRecipesByCreatorId(int creatorId) {
     // Check if the incoming recipe ID is null, if it is null then throw an exception
@@ -166,21 +232,31 @@ public class RecipeService implements IRecipeService {
 
   @Override
   public List<Recipe> getRecipesByDifficulty(boolean isDesc) {
-    return recipeDataAccess.getAllPublishedRecipesByDifficulty(isDesc);
+    return recommendationCache.get(
+        recommendKey(RECOMMEND_DIFFICULTY, isDesc),
+        () -> recipeDataAccess.getAllPublishedRecipesByDifficulty(isDesc));
   }
 
   @Override
   public List<Recipe> getRecipesByRating(boolean isDesc) {
-    return recipeDataAccess.getAllPublishedRecipesByRating(isDesc);
+    return recommendationCache.get(
+        recommendKey(RECOMMEND_RATING, isDesc),
+        () -> recipeDataAccess.getAllPublishedRecipesByRating(isDesc));
   }
 
   @Override
   public List<Recipe> getRecipesByUserReview(int userId, boolean isDesc) {
+    return recommendationCache.get(
+        recommendKey(RECOMMEND_USER_REVIEW + userId, isDesc),
+        () -> computeRecipesByUserReview(userId, isDesc));
+  }
+
+  private List<Recipe> computeRecipesByUserReview(int userId, boolean isDesc) {
     List<Recipe> recipeList = recipeDataAccess.getRecipeByCreatorId(userId);
     List<Recipe> sortedRecipes;
 
     if (recipeList == null || recipeList.isEmpty()) {
-      return recipeDataAccess.getAllPublishedRecipesByDifficulty(isDesc);
+      return getRecipesByDifficulty(isDesc);
     } else {
       Map<Long, Double> averageRatings =
           recipeList.stream()
@@ -202,7 +278,8 @@ public class RecipeService implements IRecipeService {
 
       logger.debug("get sorted recipeList: {}", sortedRecipes);
 
-      List<Recipe> recipeListTmp = recipeDataAccess.getAllPublishedRecipesByDifficulty(isDesc);
+      // the shared ranking, computed once for every user
+      List<Recipe> recipeListTmp = getRecipesByDifficulty(isDesc);
 
       // use set to delete duplicate recipe
       Set<Long> existingIds = new HashSet<>();
@@ -224,6 +301,215 @@ public class RecipeService implements IRecipeService {
     return sortedRecipes;
   }
 
+  @Override
+  public List<Recipe> getRecipesBySimilarity(int userId, boolean isDesc) {
+    return recommendationCache.get(
+        recommendKey(RECOMMEND_SIMILARITY + userId, isDesc),
+        () -> computeRecipesBySimilarity(userId, isDesc));
+  }
+
+  private List<Recipe> computeRecipesBySimilarity(int userId, boolean isDesc) {
+    long[] ranked = rankBySimilarity(userId, RecipeSimilarityModel.MAX_RECOMMENDATIONS);
+    if (ranked.length == 0) {
+      return getRecipesByUserReview(userId, isDesc);
+    }
+    return getPublishedRecipesInOrder(ranked);
+  }
+
+  @Override
+  public List<Recipe> getRecipesByPantry(int userId, boolean isDesc) {
+    return recommendationCache.get(
+        recommendKey(RECOMMEND_PANTRY + userId, isDesc),
+        () -> computeRecipesByPantry(userId, isDesc));
+  }
+
+  private List<Recipe> computeRecipesByPantry(int userId, boolean isDesc) {
+    long[] ranked = rankByPantry(userId, RecipePantryIndex.MAX_RECOMMENDATIONS);
+    if (ranked.length == 0) {
+      return getRecipesByUserReview(userId, isDesc);
+    }
+    return getPublishedRecipesInOrder(ranked);
+  }
+
+  /**
+   * The user's own recipes by rating, then the published recipes by difficulty, as in {@link
+   * #getRecipesByUserReview(int, boolean)}. The user's recipes are ranked by id and rating in a
+   * bounded heap, and the rest read a page of ids in difficulty order, so only the recipes returned
+   * are loaded. The bounded ranking is cached apart from the full one, ranked up to the limit
+   * rounded up to a multiple of {@value #RECOMMEND_TOP_SIZE} and cut to the limit, which keeps the
+   * order of ranking just the limit.
+   */
+  @Override
+  public List<Recipe> getRecipesByUserReview(int userId, boolean isDesc, int limit) {
+    checkLimit(limit);
+    int size = rankedSize(limit);
+    return top(
+        recommendationCache.get(
+            recommendKey(RECOMMEND_USER_REVIEW + userId, isDesc, size),
+            () -> computeRecipesByUserReview(userId, isDesc, size)),
+        limit);
+  }
+
+  private List<Recipe> computeRecipesByUserReview(int userId, boolean isDesc, int limit) {
+    List<RecipeScore> ownRecipes = recipeDataAccess.getRecipeRatingsByCreatorId(userId);
+    List<Long> ranked = new ArrayList<>();
+    Set<Long> rankedIds = new HashSet<>();
+    if (!ownRecipes.isEmpty()) {
+      TopK top = new TopK(Math.min(limit, ownRecipes.size()));
+      for (RecipeScore candidate : ownRecipes) {
+        top.offer(candidate.getId(), candidate.getScore());
+        rankedIds.add(candidate.getId());
+      }
+      for (long id : top.drainIds()) {
+        ranked.add(id);
+      }
+    }
+    // when there is room left, every recipe of the user is ranked already, so at most that many of
+    // the first limit published recipes are skipped
+    if (ranked.size() < limit) {
+      List<RecipeSummary> byDifficulty =
+          recipeDataAccess.getPublishedRecipeSummariesByDifficultyPage(
+              isDesc, afterDifficulty(null, isDesc), afterId(null, isDesc), limit);
+      for (RecipeSummary summary : byDifficulty) {
+        if (ranked.size() == limit) {
+          break;
+        }
+        if (summary.getId() != null && rankedIds.add(summary.getId())) {
+          ranked.add(summary.getId());
+        }
+      }
+    }
+    logger.debug("Ranked {} recipes by user review for user {}", ranked.size(), userId);
+    return getRecipesInOrder(ranked);
+  }
+
+  @Override
+  public List<Recipe> getRecipesBySimilarity(int userId, boolean isDesc, int limit) {
+    checkLimit(limit);
+    int size = rankedSize(limit);
+    return top(
+        recommendationCache.get(
+            recommendKey(RECOMMEND_SIMILARITY + userId, isDesc, size),
+            () -> computeRecipesBySimilarity(userId, isDesc, size)),
+        limit);
+  }
+
+  private List<Recipe> computeRecipesBySimilarity(int userId, boolean isDesc, int limit) {
+    long[] ranked = rankBySimilarity(userId, limit);
+    if (ranked.length == 0) {
+      return getRecipesByUserReview(userId, isDesc, limit);
+    }
+    return getPublishedRecipesInOrder(ranked);
+  }
+
+  @Override
+  public List<Recipe> getRecipesByPantry(int userId, boolean isDesc, int limit) {
+    checkLimit(limit);
+    int size = rankedSize(limit);
+    return top(
+        recommendationCache.get(
+            recommendKey(RECOMMEND_PANTRY + userId, isDesc, size),
+            () -> computeRecipesByPantry(userId, isDesc, size)),
+        limit);
+  }
+
+  private List<Recipe> computeRecipesByPantry(int userId, boolean isDesc, int limit) {
+    long[] ranked = rankByPantry(userId, limit);
+    if (ranked.length == 0) {
+      return getRecipesByUserReview(userId, isDesc, limit);
+    }
+    return getPublishedRecipesInOrder(ranked);
+  }
+
+  private static String recommendKey(String ranking, boolean isDesc) {
+    return isDesc ? ranking + CURSOR_SCOPE_DESC : ranking;
+  }
+
+  // the first size recipes of a ranking, ranked on their own rather than cut from the full list
+  private static String recommendKey(String ranking, boolean isDesc, int size) {
+    return recommendKey(ranking, isDesc) + RECOMMEND_TOP + size;
+  }
+
+  private static int rankedSize(int limit) {
+    long size = ((long) limit + RECOMMEND_TOP_SIZE - 1) / RECOMMEND_TOP_SIZE * RECOMMEND_TOP_SIZE;
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  private static List<Recipe> top(List<Recipe> ranked, int limit) {
+    return ranked == null || ranked.size() <= limit ? ranked : ranked.subList(0, limit);
+  }
+
+  // the ids the similarity model recommends to the user, empty when it has nothing for them
+  private long[] rankBySimilarity(int userId, int limit) {
+    long[] ranked = recipeSimilarityModel.recommend(userId, limit);
+    if (ranked.length == 0) {
+      logger.debug("No similar recipes for user {}, recommending by user review", userId);
+    } else {
+      logger.debug("Recommending {} similar recipes to user {}", ranked.length, userId);
+    }
+    return ranked;
+  }
+
+  // the ids the pantry index recommends to the user, empty when their pantry matches nothing
+  private long[] rankByPantry(int userId, int limit) {
+    List<UserIngredient> pantry = ingredientService.getIngredientsByUser(userId);
+    long[] ranked =
+        pantry == null || pantry.isEmpty()
+            ? new long[0]
+            : recipePantryIndex.recommend(pantry, limit);
+    if (ranked.length == 0) {
+      logger.debug("No recipes for the pantry of user {}, recommending by user review", userId);
+    } else {
+      logger.debug("Recommending {} recipes for the pantry of user {}", ranked.length, userId);
+    }
+    return ranked;
+  }
+
+  // the recipes of the ranked ids in their order, leaving out recipes unpublished since ranked
+  private List<Recipe> getPublishedRecipesInOrder(long[] ranked) {
+    List<Recipe> published = new ArrayList<>(ranked.length);
+    for (Recipe recipe : getRecipesInOrder(Arrays.stream(ranked).boxed().toList())) {
+      if (recipe.getStatus() == ERecipeStatus.PUBLISHED) {
+        published.add(recipe);
+      }
+    }
+    return published;
+  }
+
+  // the recipes of the ids in their order, leaving out the ones deleted since
+  private List<Recipe> getRecipesInOrder(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    Map<Long, Recipe> recipes = new HashMap<>();
+    for (Recipe recipe : recipeDataAccess.getRecipesByIds(ids)) {
+      recipes.put(recipe.getId(), recipe);
+    }
+    List<Recipe> ordered = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      Recipe recipe = recipes.get(id);
+      if (recipe != null) {
+        ordered.add(recipe);
+      }
+    }
+    return ordered;
+  }
+
+  // the states may move the input onto its main recipe, so both ids are read back; a failure only
+  // leaves the index behind until its next rebuild
+  private void refreshPantryIndex(Long inputId, Long recipeId) {
+    for (Long id : new LinkedHashSet<>(Arrays.asList(inputId, recipeId))) {
+      if (id == null) {
+        continue;
+      }
+      try {
+        recipePantryIndex.update(id, recipeDataAccess.getRecipeById(id));
+      } catch (RuntimeException e) {
+        logger.warn("Failed to refresh recipe {} in the pantry index: {}", id, e.getMessage());
+      }
+    }
+  }
+
   /**
    * @param recipeId
    * @param rating
@@ -232,7 +518,9 @@ public class RecipeService implements IRecipeService {
   @Override
   public boolean updateRecipeRating(Long recipeId, double rating) {
     boolean result = recipeDataAccess.updateRecipeRating(recipeId, rating);
+    recipeCache.evict(recipeId);
     if (result) {
+      recommendationCache.invalidate();
       logger.debug("Successfully updated recipe rating with ID: {}", recipeId);
     } else {
       logger.warn("Failed to update recipe rating with ID: {}", recipeId);
@@ -240,6 +528,222 @@ public class RecipeService implements IRecipeService {
     return result;
   }
 
+  @Override
+  public int recomputeReviewAggregates() {
+    // the queued review deltas are applied first, else they would be counted twice
+    int repaired = recipeRatingPipeline.recompute(recipeDataAccess::recomputeReviewAggregates);
+    if (repaired > 0) {
+      recipeCache.clear();
+      recommendationCache.invalidate();
+    }
+    logger.info("Recomputed review aggregates, {} recipes repaired", repaired);
+    return repaired;
+  }
+
+  @Override
+  public RecipePage getAllRecipes(String cursor, int limit) {
+    int pageSize = capPageSize(limit);
+    KeysetCursor after = KeysetCursor.decode(cursor, CURSOR_SCOPE_ALL);
+    logger.debug("Getting recipe page after {}, size {}", cursor, pageSize);
+    List<Recipe> rows =
+        recipeDataAccess.getRecipesPage(after == null ? 0 : after.getId(), pageSize + 1);
+    RecipePage page = toPage(rows, pageSize, CURSOR_SCOPE_ALL, recipe -> "");
+    attachDraftRecipes(page.getRecipes());
+    return page;
+  }
+
+  @Override
+  public RecipePage getAllPublishedRecipes(String cursor, int limit) {
+    int pageSize = capPageSize(limit);
+    KeysetCursor after = KeysetCursor.decode(cursor, CURSOR_SCOPE_PUBLISHED);
+    logger.debug("Getting published recipe page after {}, size {}", cursor, pageSize);
+    List<Recipe> rows =
+        recipeDataAccess.getPublishedRecipesPage(after == null ? 0 : after.getId(), pageSize + 1);
+    return toPage(rows, pageSize, CURSOR_SCOPE_PUBLISHED, recipe -> "");
+  }
+
+  @Override
+  public RecipePage getRecipesByCreatorId(int creatorId, String cursor, int limit) {
+    int pageSize = capPageSize(limit);
+    String scope = CURSOR_SCOPE_CREATOR + creatorId;
+    KeysetCursor after = KeysetCursor.decode(cursor, scope);
+    logger.debug("Getting recipe page for creator Id {} after {}", creatorId, cursor);
+    List<Recipe> rows =
+        recipeDataAccess.getRecipesByCreatorIdPage(
+            creatorId, after == null ? 0 : after.getId(), pageSize + 1);
+    RecipePage page = toPage(rows, pageSize, scope, recipe -> "");
+    attachDraftRecipes(page.getRecipes());
+    return page;
+  }
+
+  @Override
+  public RecipePage getRecipesByDifficulty(boolean isDesc, String cursor, int limit) {
+    int pageSize = capPageSize(limit);
+    String scope = CURSOR_SCOPE_DIFFICULTY + (isDesc ? CURSOR_SCOPE_DESC : "");
+    KeysetCursor after = KeysetCursor.decode(cursor, scope);
+    List<Recipe> rows =
+        recipeDataAccess.getPublishedRecipesByDifficultyPage(
+            isDesc, afterDifficulty(after, isDesc), afterId(after, isDesc), pageSize + 1);
+    return toPage(rows, pageSize, scope, recipe -> String.valueOf(recipe.getDifficultyLevel()));
+  }
+
+  @Override
+  public RecipePage getRecipesByRating(boolean isDesc, String cursor, int limit) {
+    int pageSize = capPageSize(limit);
+    String scope = CURSOR_SCOPE_RATING + (isDesc ? CURSOR_SCOPE_DESC : "");
+    KeysetCursor after = KeysetCursor.decode(cursor, scope);
+    List<Recipe> rows =
+        recipeDataAccess.getPublishedRecipesByRatingPage(
+            isDesc, afterRating(after, isDesc), afterId(after, isDesc), pageSize + 1);
+    return toPage(rows, pageSize, scope, recipe -> ratingKey(recipe.getRating()));
+  }
+
+  @Override
+  public RecipeSummaryPage getPublishedRecipeSummaries(String cursor, int limit) {
+    int pageSize = capPageSize(limit);
+    KeysetCursor after = KeysetCursor.decode(cursor, CURSOR_SCOPE_PUBLISHED);
+    logger.debug("Getting published recipe summary page after {}, size {}", cursor, pageSize);
+    List<RecipeSummary> rows =
+        recipeDataAccess.getPublishedRecipeSummariesPage(
+            after == null ? 0 : after.getId(), pageSize + 1);
+    return toSummaryPage(rows, pageSize, CURSOR_SCOPE_PUBLISHED, summary -> "");
+  }
+
+  @Override
+  public RecipeSummaryPage getRecipeSummariesByDifficulty(
+      boolean isDesc, String cursor, int limit) {
+    int pageSize = capPageSize(limit);
+    String scope = CURSOR_SCOPE_DIFFICULTY + (isDesc ? CURSOR_SCOPE_DESC : "");
+    KeysetCursor after = KeysetCursor.decode(cursor, scope);
+    List<RecipeSummary> rows =
+        recipeDataAccess.getPublishedRecipeSummariesByDifficultyPage(
+            isDesc, afterDifficulty(after, isDesc), afterId(after, isDesc), pageSize + 1);
+    return toSummaryPage(
+        rows, pageSize, scope, summary -> String.valueOf(summary.getDifficultyLevel()));
+  }
+
+  @Override
+  public RecipeSummaryPage getRecipeSummariesByRating(boolean isDesc, String cursor, int limit) {
+    int pageSize = capPageSize(limit);
+    String scope = CURSOR_SCOPE_RATING + (isDesc ? CURSOR_SCOPE_DESC : "");
+    KeysetCursor after = KeysetCursor.decode(cursor, scope);
+    List<RecipeSummary> rows =
+        recipeDataAccess.getPublishedRecipeSummariesByRatingPage(
+            isDesc, afterRating(after, isDesc), afterId(after, isDesc), pageSize + 1);
+    return toSummaryPage(rows, pageSize, scope, summary -> ratingKey(summary.getRating()));
+  }
+
+  @Override
+  public List<Recipe> searchRecipes(String query, int limit) {
+    if (query == null || query.trim().isEmpty()) {
+      throw new IllegalArgumentException("Search query cannot be empty");
+    }
+    int resultSize = capPageSize(limit);
+    logger.debug("Searching recipes for '{}', size {}", query, resultSize);
+    return recipeDataAccess.searchPublishedRecipes(query.trim(), resultSize);
+  }
+
+  private void checkLimit(int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Limit must be greater than 0");
+    }
+  }
+
+  private int capPageSize(int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Page limit must be greater than 0");
+    }
+    return Math.min(limit, RecipePage.MAX_PAGE_SIZE);
+  }
+
+  // sort keys to continue after, starting from the first row when there is no cursor
+  private int afterDifficulty(KeysetCursor after, boolean isDesc) {
+    if (after == null) {
+      return isDesc ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+    }
+    return parseSortKey(after, Integer::parseInt);
+  }
+
+  private double afterRating(KeysetCursor after, boolean isDesc) {
+    if (after == null) {
+      return isDesc ? Double.MAX_VALUE : -Double.MAX_VALUE;
+    }
+    return parseSortKey(after, Double::parseDouble);
+  }
+
+  private long afterId(KeysetCursor after, boolean isDesc) {
+    if (after == null) {
+      return isDesc ? Long.MAX_VALUE : Long.MIN_VALUE;
+    }
+    return after.getId();
+  }
+
+  // the rating key is COALESCE(rating, 0) in the query, mirror it for the cursor
+  private String ratingKey(Double rating) {
+    return String.valueOf(rating == null ? 0.0 : rating);
+  }
+
+  private <T> T parseSortKey(KeysetCursor cursor, Function<String, T> parser) {
+    try {
+      return parser.apply(cursor.getSortKey());
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+  }
+
+  /** Trim the one row look-ahead and issue the cursor of the last row when there is more. */
+  private RecipePage toPage(
+      List<Recipe> rows, int pageSize, String scope, Function<Recipe, String> sortKey) {
+    if (rows == null) {
+      return new RecipePage(new ArrayList<>(), null);
+    }
+    if (rows.size() <= pageSize) {
+      return new RecipePage(rows, null);
+    }
+    List<Recipe> recipes = new ArrayList<>(rows.subList(0, pageSize));
+    Recipe last = recipes.getLast();
+    return new RecipePage(
+        recipes, new KeysetCursor(scope, sortKey.apply(last), last.getId()).encode());
+  }
+
+  private RecipeSummaryPage toSummaryPage(
+      List<RecipeSummary> rows,
+      int pageSize,
+      String scope,
+      Function<RecipeSummary, String> sortKey) {
+    if (rows == null) {
+      return new RecipeSummaryPage(new ArrayList<>(), null);
+    }
+    if (rows.size() <= pageSize) {
+      return new RecipeSummaryPage(rows, null);
+    }
+    List<RecipeSummary> summaries = new ArrayList<>(rows.subList(0, pageSize));
+    RecipeSummary last = summaries.getLast();
+    return new RecipeSummaryPage(
+        summaries, new KeysetCursor(scope, sortKey.apply(last), last.getId()).encode());
+  }
+
+  /** Replace the draft id stubs of a page with the draft recipes, loaded in one go. */
+  private void attachDraftRecipes(List<Recipe> recipes) {
+    List<Long> draftIds =
+        recipes.stream()
+            .map(Recipe::getDraftRecipe)
+            .filter(draft -> draft != null && draft.getId() != null)
+            .map(Recipe::getId)
+            .toList();
+    if (draftIds.isEmpty()) {
+      return;
+    }
+    Map<Long, Recipe> drafts =
+        recipeDataAccess.getRecipesByIds(draftIds).stream()
+            .collect(Collectors.toMap(Recipe::getId, draft -> draft, (a, b) -> a));
+    for (Recipe recipe : recipes) {
+      if (recipe.getDraftRecipe() != null && recipe.getDraftRecipe().getId() != null) {
+        recipe.setDraftRecipe(drafts.get(recipe.getDraftRecipe().getId()));
+      }
+    }
+  }
+
   // Helper method: Validate the recipe
   private void validateRecipe(Recipe recipe, boolean isUpdate) {
     if (recipe == null) {
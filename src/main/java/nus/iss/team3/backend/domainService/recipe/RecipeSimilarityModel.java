@@ -0,0 +1,506 @@
+package nus.iss.team3.backend.domainService.recipe;
+
+import java.util.Arrays;
+import nus.iss.team3.backend.ProfileConfig;
+import nus.iss.team3.backend.dataaccess.IReviewDataAccess;
+import nus.iss.team3.backend.entity.RecipeReview;
+import nus.iss.team3.backend.service.util.TopK;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Item to item collaborative filtering over the reviews of the published recipes. Two recipes are
+ * similar when the same users rate them alike, measured by the cosine of their ratings after taking
+ * out each user's mean rating. Each recipe keeps its {@value #NEIGHBOURS} most similar recipes, and
+ * a user is recommended the recipes most similar to the ones they rated, weighted by their rating.
+ *
+ * <p>The model is a snapshot of sparse matrices in compressed rows (offsets into flat int and float
+ * arrays, indexed by the position of a recipe or user id in a sorted id array), swapped in whole,
+ * so reads never lock. It is rebuilt every {@code recipe.similarity.rebuild-interval-ms} in the
+ * background. A rebuild reloads the ratings, but only recomputes the neighbours of the recipes that
+ * share a user with a recipe whose ratings changed; the others are carried over.
+ */
+@Component
+@Profile(ProfileConfig.PROFILE_RECIPE)
+public class RecipeSimilarityModel {
+
+  static final int NEIGHBOURS = 50;
+  public static final int MAX_RECOMMENDATIONS = 100;
+
+  private static final Logger logger = LogManager.getLogger(RecipeSimilarityModel.class);
+
+  private final IReviewDataAccess reviewDataAccess;
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  public RecipeSimilarityModel(IReviewDataAccess reviewDataAccess) {
+    this.reviewDataAccess = reviewDataAccess;
+  }
+
+  @Scheduled(fixedDelayString = "${recipe.similarity.rebuild-interval-ms:600000}")
+  public synchronized void rebuild() {
+    long started = System.nanoTime();
+    Ratings ratings = new Ratings();
+    try {
+      reviewDataAccess.streamPublishedRecipeRatings(ratings::add);
+    } catch (RuntimeException e) {
+      logger.error("Failed to load the ratings, keeping the previous model: {}", e.getMessage());
+      return;
+    }
+    Snapshot built = Snapshot.build(ratings, snapshot);
+    snapshot = built;
+    logger.info(
+        "Rebuilt recipe similarity model of {} recipes and {} users, {} recipes recomputed in {}"
+            + " ms",
+        built.recipeIds.length,
+        built.userIds.length,
+        built.recomputed,
+        (System.nanoTime() - started) / 1_000_000);
+  }
+
+  /**
+   * The ids of the recipes to recommend to the user, best first, at most {@code limit} of them and
+   * none the user has rated. Empty when the user has rated nothing the model knows of.
+   */
+  public long[] recommend(long userId, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Limit must be greater than 0");
+    }
+    return snapshot.recommend(userId, Math.min(limit, MAX_RECOMMENDATIONS));
+  }
+
+  /** The ids of the recipes most similar to the given one, most similar first. */
+  public long[] similarRecipes(long recipeId) {
+    return snapshot.similarRecipes(recipeId);
+  }
+
+  public int getRecipeCount() {
+    return snapshot.recipeIds.length;
+  }
+
+  public int getUserCount() {
+    return snapshot.userIds.length;
+  }
+
+  // the number of recipes whose neighbours the last rebuild had to recompute
+  int getRecomputedCount() {
+    return snapshot.recomputed;
+  }
+
+  /** The ratings as streamed, in recipe then user order, grown in place. */
+  static final class Ratings {
+    private long[] recipeIds = new long[1024];
+    private long[] userIds = new long[1024];
+    private float[] ratings = new float[1024];
+    private int size;
+
+    void add(RecipeReview review) {
+      if (review.getRecipeId() == null
+          || review.getCreatorId() == null
+          || review.getRating() == null) {
+        return;
+      }
+      add(review.getRecipeId(), review.getCreatorId(), review.getRating().floatValue());
+    }
+
+    void add(long recipeId, long userId, float rating) {
+      if (size > 0) {
+        long lastRecipe = recipeIds[size - 1];
+        long lastUser = userIds[size - 1];
+        if (recipeId < lastRecipe || (recipeId == lastRecipe && userId < lastUser)) {
+          throw new IllegalStateException("Ratings must come in recipe then user order");
+        }
+        if (recipeId == lastRecipe && userId == lastUser) {
+          ratings[size - 1] = rating;
+          return;
+        }
+      }
+      if (size == recipeIds.length) {
+        int grown = size * 2;
+        recipeIds = Arrays.copyOf(recipeIds, grown);
+        userIds = Arrays.copyOf(userIds, grown);
+        ratings = Arrays.copyOf(ratings, grown);
+      }
+      recipeIds[size] = recipeId;
+      userIds[size] = userId;
+      ratings[size] = rating;
+      size++;
+    }
+  }
+
+  private static final class Snapshot {
+
+    static final Snapshot EMPTY = build(new Ratings(), null);
+
+    // sorted ids, a recipe or user is referred to by its position here
+    final long[] recipeIds;
+    final long[] userIds;
+
+    // the ratings of each recipe, by user: entries recipeOffsets[i] to recipeOffsets[i + 1]
+    final int[] recipeOffsets;
+    final int[] recipeUsers;
+    final float[] recipeRatings;
+    final float[] recipeCentred;
+
+    // the same ratings of each user, by recipe in recipe order
+    final int[] userOffsets;
+    final int[] userRecipes;
+    final float[] userRatings;
+    final float[] userCentred;
+
+    // the most similar recipes of each recipe, most similar first
+    final int[] neighbourOffsets;
+    final int[] neighbourRecipes;
+    final float[] neighbourScores;
+
+    final int recomputed;
+
+    private Snapshot(Ratings ratings, Snapshot previous) {
+      int size = ratings.size;
+      recipeOffsets = new int[countRuns(ratings.recipeIds, size) + 1];
+      recipeIds = new long[recipeOffsets.length - 1];
+      int recipe = -1;
+      for (int row = 0; row < size; row++) {
+        if (recipe < 0 || ratings.recipeIds[row] != recipeIds[recipe]) {
+          recipeIds[++recipe] = ratings.recipeIds[row];
+          recipeOffsets[recipe] = row;
+        }
+      }
+      recipeOffsets[recipeIds.length] = size;
+
+      long[] sortedUsers = Arrays.copyOf(ratings.userIds, size);
+      Arrays.sort(sortedUsers);
+      userIds = Arrays.copyOf(sortedUsers, countRuns(sortedUsers, size));
+      for (int row = 0, user = -1; row < size; row++) {
+        if (user < 0 || sortedUsers[row] != userIds[user]) {
+          userIds[++user] = sortedUsers[row];
+        }
+      }
+
+      recipeUsers = new int[size];
+      recipeRatings = Arrays.copyOf(ratings.ratings, size);
+      userOffsets = new int[userIds.length + 1];
+      for (int row = 0; row < size; row++) {
+        recipeUsers[row] = Arrays.binarySearch(userIds, ratings.userIds[row]);
+        userOffsets[recipeUsers[row] + 1]++;
+      }
+      for (int user = 0; user < userIds.length; user++) {
+        userOffsets[user + 1] += userOffsets[user];
+      }
+      userRecipes = new int[size];
+      userRatings = new float[size];
+      int[] filled = Arrays.copyOf(userOffsets, userIds.length);
+      for (int r = 0; r < recipeIds.length; r++) {
+        for (int row = recipeOffsets[r]; row < recipeOffsets[r + 1]; row++) {
+          int slot = filled[recipeUsers[row]]++;
+          userRecipes[slot] = r;
+          userRatings[slot] = recipeRatings[row];
+        }
+      }
+
+      float[] userMeans = new float[userIds.length];
+      userCentred = new float[size];
+      for (int user = 0; user < userIds.length; user++) {
+        float sum = 0;
+        for (int slot = userOffsets[user]; slot < userOffsets[user + 1]; slot++) {
+          sum += userRatings[slot];
+        }
+        userMeans[user] = sum / (userOffsets[user + 1] - userOffsets[user]);
+        for (int slot = userOffsets[user]; slot < userOffsets[user + 1]; slot++) {
+          userCentred[slot] = userRatings[slot] - userMeans[user];
+        }
+      }
+      recipeCentred = new float[size];
+      float[] norms = new float[recipeIds.length];
+      for (int r = 0; r < recipeIds.length; r++) {
+        double sum = 0;
+        for (int row = recipeOffsets[r]; row < recipeOffsets[r + 1]; row++) {
+          recipeCentred[row] = recipeRatings[row] - userMeans[recipeUsers[row]];
+          sum += recipeCentred[row] * recipeCentred[row];
+        }
+        norms[r] = (float) Math.sqrt(sum);
+      }
+
+      boolean[] dirty = dirtyRecipes(previous);
+      int[][] neighbours = new int[recipeIds.length][];
+      float[][] scores = new float[recipeIds.length][];
+      Neighbourhood neighbourhood = new Neighbourhood(recipeIds.length);
+      int count = 0;
+      for (int r = 0; r < recipeIds.length; r++) {
+        int kept = dirty == null || dirty[r] ? -1 : previous.indexOfRecipe(recipeIds[r]);
+        neighbours[r] = kept < 0 ? null : carriedOver(previous, kept);
+        if (neighbours[r] == null) {
+          neighbourhood.compute(this, r, norms);
+          neighbours[r] = neighbourhood.recipes();
+          scores[r] = neighbourhood.scores();
+          count++;
+        } else {
+          scores[r] =
+              Arrays.copyOfRange(
+                  previous.neighbourScores,
+                  previous.neighbourOffsets[kept],
+                  previous.neighbourOffsets[kept + 1]);
+        }
+      }
+      recomputed = count;
+
+      neighbourOffsets = new int[recipeIds.length + 1];
+      for (int r = 0; r < recipeIds.length; r++) {
+        neighbourOffsets[r + 1] = neighbourOffsets[r] + neighbours[r].length;
+      }
+      neighbourRecipes = new int[neighbourOffsets[recipeIds.length]];
+      neighbourScores = new float[neighbourRecipes.length];
+      for (int r = 0; r < recipeIds.length; r++) {
+        System.arraycopy(
+            neighbours[r], 0, neighbourRecipes, neighbourOffsets[r], neighbours[r].length);
+        System.arraycopy(scores[r], 0, neighbourScores, neighbourOffsets[r], scores[r].length);
+      }
+    }
+
+    static Snapshot build(Ratings ratings, Snapshot previous) {
+      return new Snapshot(ratings, previous);
+    }
+
+    int indexOfRecipe(long recipeId) {
+      return Arrays.binarySearch(recipeIds, recipeId);
+    }
+
+    long[] recommend(long userId, int limit) {
+      int user = Arrays.binarySearch(userIds, userId);
+      if (user < 0) {
+        return new long[0];
+      }
+      // 1 when scored, 2 when rated by the user, so never recommended
+      byte[] state = new byte[recipeIds.length];
+      float[] score = new float[recipeIds.length];
+      int[] touched = new int[Math.min(recipeIds.length, 64)];
+      int count = 0;
+      for (int slot = userOffsets[user]; slot < userOffsets[user + 1]; slot++) {
+        state[userRecipes[slot]] = 2;
+      }
+      for (int slot = userOffsets[user]; slot < userOffsets[user + 1]; slot++) {
+        int rated = userRecipes[slot];
+        for (int n = neighbourOffsets[rated]; n < neighbourOffsets[rated + 1]; n++) {
+          int candidate = neighbourRecipes[n];
+          if (state[candidate] == 2) {
+            continue;
+          }
+          if (state[candidate] == 0) {
+            state[candidate] = 1;
+            if (count == touched.length) {
+              touched = Arrays.copyOf(touched, count * 2);
+            }
+            touched[count++] = candidate;
+          }
+          score[candidate] += neighbourScores[n] * userRatings[slot];
+        }
+      }
+      TopK best = new TopK(limit);
+      for (int i = 0; i < count; i++) {
+        if (score[touched[i]] > 0) {
+          best.offer(recipeIds[touched[i]], score[touched[i]]);
+        }
+      }
+      return best.drainIds();
+    }
+
+    long[] similarRecipes(long recipeId) {
+      int recipe = indexOfRecipe(recipeId);
+      if (recipe < 0) {
+        return new long[0];
+      }
+      long[] similar = new long[neighbourOffsets[recipe + 1] - neighbourOffsets[recipe]];
+      for (int i = 0; i < similar.length; i++) {
+        similar[i] = recipeIds[neighbourRecipes[neighbourOffsets[recipe] + i]];
+      }
+      return similar;
+    }
+
+    /**
+     * The recipes whose neighbours may differ from the previous snapshot: the similarity of two
+     * recipes only changes when the centred ratings of one of them do, which happens when a user of
+     * it rated, re-rated or unrated anything. Null when everything is to be recomputed.
+     */
+    private boolean[] dirtyRecipes(Snapshot previous) {
+      if (previous == null || previous.recipeIds.length == 0) {
+        return null;
+      }
+      boolean[] changed = new boolean[recipeIds.length];
+      boolean[] seenBefore = new boolean[previous.userIds.length];
+      for (int user = 0; user < userIds.length; user++) {
+        int before = Arrays.binarySearch(previous.userIds, userIds[user]);
+        if (before >= 0) {
+          seenBefore[before] = true;
+          if (sameRow(user, previous, before)) {
+            continue;
+          }
+          markRow(previous, before, changed);
+        }
+        for (int slot = userOffsets[user]; slot < userOffsets[user + 1]; slot++) {
+          changed[userRecipes[slot]] = true;
+        }
+      }
+      for (int before = 0; before < previous.userIds.length; before++) {
+        if (!seenBefore[before]) {
+          markRow(previous, before, changed);
+        }
+      }
+
+      boolean[] dirty = new boolean[recipeIds.length];
+      int count = 0;
+      for (int r = 0; r < recipeIds.length; r++) {
+        if (!changed[r]) {
+          continue;
+        }
+        for (int row = recipeOffsets[r]; row < recipeOffsets[r + 1]; row++) {
+          int user = recipeUsers[row];
+          for (int slot = userOffsets[user]; slot < userOffsets[user + 1]; slot++) {
+            count += dirty[userRecipes[slot]] ? 0 : 1;
+            dirty[userRecipes[slot]] = true;
+          }
+        }
+        int before = previous.indexOfRecipe(recipeIds[r]);
+        if (before < 0) {
+          continue;
+        }
+        for (int row = previous.recipeOffsets[before];
+            row < previous.recipeOffsets[before + 1];
+            row++) {
+          int user = previous.recipeUsers[row];
+          for (int slot = previous.userOffsets[user];
+              slot < previous.userOffsets[user + 1];
+              slot++) {
+            int now = indexOfRecipe(previous.recipeIds[previous.userRecipes[slot]]);
+            if (now >= 0) {
+              count += dirty[now] ? 0 : 1;
+              dirty[now] = true;
+            }
+          }
+        }
+      }
+      // past half the recipes, the bookkeeping is not worth it
+      return count > recipeIds.length / 2 ? null : dirty;
+    }
+
+    // whether a user rated the same recipes alike in both snapshots
+    private boolean sameRow(int user, Snapshot previous, int before) {
+      int from = userOffsets[user];
+      int length = userOffsets[user + 1] - from;
+      int fromBefore = previous.userOffsets[before];
+      if (length != previous.userOffsets[before + 1] - fromBefore) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if (recipeIds[userRecipes[from + i]]
+                != previous.recipeIds[previous.userRecipes[fromBefore + i]]
+            || userRatings[from + i] != previous.userRatings[fromBefore + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    // mark the recipes a user of the previous snapshot had rated, that are still there
+    private void markRow(Snapshot previous, int before, boolean[] marked) {
+      for (int slot = previous.userOffsets[before];
+          slot < previous.userOffsets[before + 1];
+          slot++) {
+        int now = indexOfRecipe(previous.recipeIds[previous.userRecipes[slot]]);
+        if (now >= 0) {
+          marked[now] = true;
+        }
+      }
+    }
+
+    // the neighbours of a recipe of the previous snapshot, by their position in this one, null if
+    // one of them is gone
+    private int[] carriedOver(Snapshot previous, int before) {
+      int from = previous.neighbourOffsets[before];
+      int[] carried = new int[previous.neighbourOffsets[before + 1] - from];
+      for (int i = 0; i < carried.length; i++) {
+        carried[i] = indexOfRecipe(previous.recipeIds[previous.neighbourRecipes[from + i]]);
+        if (carried[i] < 0) {
+          return null;
+        }
+      }
+      return carried;
+    }
+
+    private static int countRuns(long[] sorted, int size) {
+      int runs = 0;
+      for (int i = 0; i < size; i++) {
+        if (i == 0 || sorted[i] != sorted[i - 1]) {
+          runs++;
+        }
+      }
+      return runs;
+    }
+  }
+
+  /** Scratch space to find the neighbours of one recipe at a time, reused across recipes. */
+  private static final class Neighbourhood {
+    private final double[] dots;
+    private final int[] stamps;
+    private final int[] touched;
+    private final TopK best = new TopK(NEIGHBOURS);
+    private final long[] bestRecipes = new long[NEIGHBOURS];
+    private final double[] bestScores = new double[NEIGHBOURS];
+    private int found;
+
+    Neighbourhood(int recipes) {
+      dots = new double[recipes];
+      stamps = new int[recipes];
+      touched = new int[recipes];
+    }
+
+    void compute(Snapshot model, int recipe, float[] norms) {
+      int stamp = recipe + 1;
+      int count = 0;
+      for (int row = model.recipeOffsets[recipe]; row < model.recipeOffsets[recipe + 1]; row++) {
+        float centred = model.recipeCentred[row];
+        if (centred == 0) {
+          continue;
+        }
+        int user = model.recipeUsers[row];
+        for (int slot = model.userOffsets[user]; slot < model.userOffsets[user + 1]; slot++) {
+          int other = model.userRecipes[slot];
+          if (other == recipe || model.userCentred[slot] == 0) {
+            continue;
+          }
+          if (stamps[other] != stamp) {
+            stamps[other] = stamp;
+            dots[other] = 0;
+            touched[count++] = other;
+          }
+          dots[other] += centred * model.userCentred[slot];
+        }
+      }
+      for (int i = 0; i < count; i++) {
+        int other = touched[i];
+        double similarity = dots[other] / ((double) norms[recipe] * norms[other]);
+        if (similarity > 0) {
+          best.offer(other, similarity);
+        }
+      }
+      found = best.drainTo(bestRecipes, bestScores);
+    }
+
+    int[] recipes() {
+      int[] recipes = new int[found];
+      for (int i = 0; i < found; i++) {
+        recipes[i] = (int) bestRecipes[i];
+      }
+      return recipes;
+    }
+
+    float[] scores() {
+      float[] scores = new float[found];
+      for (int i = 0; i < found; i++) {
+        scores[i] = (float) bestScores[i];
+      }
+      return scores;
+    }
+  }
+}
@@ -1,11 +1,15 @@
 package nus.iss.team3.backend.domainService.recipe;
 
 import jakarta.annotation.PostConstruct;
+import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import nus.iss.team3.backend.ProfileConfig;
 import nus.iss.team3.backend.domainService.webservice.IWebserviceCaller;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
+import nus.iss.team3.backend.entity.RecipeSummaryPage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,6 +17,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * Implementation of IRecipeService that calls REST APIs using IWebserviceCallerGen.
@@ -24,6 +29,7 @@ import org.springframework.stereotype.Service;
 public class RecipeWebCaller implements IRecipeService {
 
   private static final Logger logger = LogManager.getLogger(RecipeWebCaller.class);
+  private static final String SUMMARY_VIEW = "&view=summary";
   private final IWebserviceCaller webServiceCaller;
   private final String serviceUrl;
   private final String servicePort;
@@ -239,6 +245,89 @@ public class RecipeWebCaller implements IRecipeService {
     }
   }
 
+  @Override
+  public List<Recipe> getRecipesBySimilarity(int userId, boolean isDesc) {
+    String url =
+        getUrl("/recipe/recommend" + "?isBySimilarity=true&isDesc=" + isDesc + "&userId=" + userId);
+    try {
+      ParameterizedTypeReference<List<Recipe>> typeRef = new ParameterizedTypeReference<>() {};
+      ResponseEntity<List<Recipe>> response = webServiceCaller.getCall(url, typeRef);
+      if (response.getStatusCode().is2xxSuccessful()) {
+        return response.getBody();
+      } else {
+        logger.error(
+            "Failed to retrieve recipes by similarity. Status code: {}", response.getStatusCode());
+        return Collections.emptyList();
+      }
+    } catch (Exception e) {
+      logger.error("Error retrieving recipes by similarity: {}", e.getMessage());
+      return Collections.emptyList();
+    }
+  }
+
+  @Override
+  public List<Recipe> getRecipesByPantry(int userId, boolean isDesc) {
+    String url =
+        getUrl("/recipe/recommend" + "?isByPantry=true&isDesc=" + isDesc + "&userId=" + userId);
+    try {
+      ParameterizedTypeReference<List<Recipe>> typeRef = new ParameterizedTypeReference<>() {};
+      ResponseEntity<List<Recipe>> response = webServiceCaller.getCall(url, typeRef);
+      if (response.getStatusCode().is2xxSuccessful()) {
+        return response.getBody();
+      } else {
+        logger.error(
+            "Failed to retrieve recipes by pantry. Status code: {}", response.getStatusCode());
+        return Collections.emptyList();
+      }
+    } catch (Exception e) {
+      logger.error("Error retrieving recipes by pantry: {}", e.getMessage());
+      return Collections.emptyList();
+    }
+  }
+
+  @Override
+  public List<Recipe> getRecipesByUserReview(int userId, boolean isDesc, int limit) {
+    return getFirstRecommended("", userId, isDesc, limit);
+  }
+
+  @Override
+  public List<Recipe> getRecipesBySimilarity(int userId, boolean isDesc, int limit) {
+    return getFirstRecommended("isBySimilarity=true&", userId, isDesc, limit);
+  }
+
+  @Override
+  public List<Recipe> getRecipesByPantry(int userId, boolean isDesc, int limit) {
+    return getFirstRecommended("isByPantry=true&", userId, isDesc, limit);
+  }
+
+  // the first page of a personalised recommendation, at most a page of recipes
+  private List<Recipe> getFirstRecommended(String mode, int userId, boolean isDesc, int limit) {
+    String url =
+        getUrl(
+            "/recipe/recommend?"
+                + mode
+                + "isDesc="
+                + isDesc
+                + "&userId="
+                + userId
+                + "&"
+                + pageQuery(null, limit));
+    try {
+      ResponseEntity<RecipePage> response = webServiceCaller.getCall(url, RecipePage.class);
+      if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+        return response.getBody().getRecipes();
+      } else {
+        logger.error(
+            "Failed to retrieve first recommended recipes. Status code: {}",
+            response.getStatusCode());
+        return Collections.emptyList();
+      }
+    } catch (Exception e) {
+      logger.error("Error retrieving first recommended recipes: {}", e.getMessage());
+      return Collections.emptyList();
+    }
+  }
+
   /**
    * @param recipeId
    * @param rating
@@ -263,4 +352,221 @@ public class RecipeWebCaller implements IRecipeService {
       return false;
     }
   }
+
+  @Override
+  public int recomputeReviewAggregates() {
+    String url = getUrl("/recipe/rating/recompute");
+    try {
+      ResponseEntity<Integer> response = webServiceCaller.postCall(url, null, Integer.class);
+      if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+        return response.getBody();
+      }
+      logger.error(
+          "Failed to recompute recipe review aggregates. Status code: {}",
+          response.getStatusCode());
+    } catch (Exception e) {
+      logger.error("Error recomputing recipe review aggregates: {}", e.getMessage());
+    }
+    return -1;
+  }
+
+  @Override
+  public RecipePage getAllRecipes(String cursor, int limit) {
+    String url = getUrl("/recipe?" + pageQuery(cursor, limit));
+    try {
+      ResponseEntity<RecipePage> response = webServiceCaller.getCall(url, RecipePage.class);
+      if (response.getStatusCode().is2xxSuccessful()) {
+        return response.getBody();
+      } else {
+        logger.error("Failed to retrieve recipe page. Status code: {}", response.getStatusCode());
+        return emptyPage();
+      }
+    } catch (Exception e) {
+      logger.error("Error retrieving recipe page: {}", e.getMessage());
+      return emptyPage();
+    }
+  }
+
+  @Override
+  public RecipePage getAllPublishedRecipes(String cursor, int limit) {
+    String url = getUrl("/recipe/published?" + pageQuery(cursor, limit));
+    try {
+      ResponseEntity<RecipePage> response = webServiceCaller.getCall(url, RecipePage.class);
+      if (response.getStatusCode().is2xxSuccessful()) {
+        return response.getBody();
+      } else {
+        logger.error(
+            "Failed to retrieve published recipe page. Status code: {}", response.getStatusCode());
+        return emptyPage();
+      }
+    } catch (Exception e) {
+      logger.error("Error retrieving published recipe page: {}", e.getMessage());
+      return emptyPage();
+    }
+  }
+
+  @Override
+  public RecipePage getRecipesByCreatorId(int creatorId, String cursor, int limit) {
+    String url = getUrl("/recipe/creator/" + creatorId + "?" + pageQuery(cursor, limit));
+    try {
+      ResponseEntity<RecipePage> response = webServiceCaller.getCall(url, RecipePage.class);
+      if (response.getStatusCode().is2xxSuccessful()) {
+        return response.getBody();
+      } else {
+        logger.error(
+            "Failed to retrieve creator recipe page. Status code: {}", response.getStatusCode());
+        return emptyPage();
+      }
+    } catch (Exception e) {
+      logger.error("Error retrieving creator recipe page: {}", e.getMessage());
+      return emptyPage();
+    }
+  }
+
+  @Override
+  public RecipePage getRecipesByDifficulty(boolean isDesc, String cursor, int limit) {
+    String url =
+        getUrl(
+            "/recipe/recommend?isDesc=" + isDesc + "&isByRating=false&" + pageQuery(cursor, limit));
+    try {
+      ResponseEntity<RecipePage> response = webServiceCaller.getCall(url, RecipePage.class);
+      if (response.getStatusCode().is2xxSuccessful()) {
+        return response.getBody();
+      } else {
+        logger.error(
+            "Failed to retrieve recipe by difficulty page. Status code: {}",
+            response.getStatusCode());
+        return emptyPage();
+      }
+    } catch (Exception e) {
+      logger.error("Error retrieving recipe by difficulty page: {}", e.getMessage());
+      return emptyPage();
+    }
+  }
+
+  @Override
+  public RecipePage getRecipesByRating(boolean isDesc, String cursor, int limit) {
+    String url =
+        getUrl(
+            "/recipe/recommend?isDesc=" + isDesc + "&isByRating=true&" + pageQuery(cursor, limit));
+    try {
+      ResponseEntity<RecipePage> response = webServiceCaller.getCall(url, RecipePage.class);
+      if (response.getStatusCode().is2xxSuccessful()) {
+        return response.getBody();
+      } else {
+        logger.error(
+            "Failed to retrieve recipe by rating page. Status code: {}", response.getStatusCode());
+        return emptyPage();
+      }
+    } catch (Exception e) {
+      logger.error("Error retrieving recipe by rating page: {}", e.getMessage());
+      return emptyPage();
+    }
+  }
+
+  @Override
+  public RecipeSummaryPage getPublishedRecipeSummaries(String cursor, int limit) {
+    return getSummaryPage(
+        "/recipe/published?" + pageQuery(cursor, limit) + SUMMARY_VIEW, "published recipe");
+  }
+
+  @Override
+  public RecipeSummaryPage getRecipeSummariesByDifficulty(
+      boolean isDesc, String cursor, int limit) {
+    return getSummaryPage(
+        "/recipe/recommend?isDesc="
+            + isDesc
+            + "&isByRating=false&"
+            + pageQuery(cursor, limit)
+            + SUMMARY_VIEW,
+        "recipe by difficulty");
+  }
+
+  @Override
+  public RecipeSummaryPage getRecipeSummariesByRating(boolean isDesc, String cursor, int limit) {
+    return getSummaryPage(
+        "/recipe/recommend?isDesc="
+            + isDesc
+            + "&isByRating=true&"
+            + pageQuery(cursor, limit)
+            + SUMMARY_VIEW,
+        "recipe by rating");
+  }
+
+  private RecipeSummaryPage getSummaryPage(String path, String listing) {
+    String url = getUrl(path);
+    try {
+      ResponseEntity<RecipeSummaryPage> response =
+          webServiceCaller.getCall(url, RecipeSummaryPage.class);
+      if (response.getStatusCode().is2xxSuccessful()) {
+        return response.getBody();
+      } else {
+        logger.error(
+            "Failed to retrieve {} summary page. Status code: {}",
+            listing,
+            response.getStatusCode());
+        return new RecipeSummaryPage(Collections.emptyList(), null);
+      }
+    } catch (Exception e) {
+      logger.error("Error retrieving {} summary page: {}", listing, e.getMessage());
+      return new RecipeSummaryPage(Collections.emptyList(), null);
+    }
+  }
+
+  @Override
+  public List<Recipe> searchRecipes(String query, int limit) {
+    // the query is passed as a uri variable, so every reserved character of it is escaped
+    URI url =
+        UriComponentsBuilder.fromUriString(getUrl("/recipe/search"))
+            .queryParam("q", "{q}")
+            .queryParam("limit", limit)
+            .encode()
+            .buildAndExpand(query == null ? "" : query)
+            .toUri();
+    try {
+      ParameterizedTypeReference<List<Recipe>> typeRef = new ParameterizedTypeReference<>() {};
+      ResponseEntity<List<Recipe>> response = webServiceCaller.getCall(url, typeRef);
+      if (response.getStatusCode().is2xxSuccessful()) {
+        return response.getBody();
+      } else {
+        logger.error("Failed to search recipes. Status code: {}", response.getStatusCode());
+        return Collections.emptyList();
+      }
+    } catch (Exception e) {
+      logger.error("Error searching recipes: {}", e.getMessage());
+      return Collections.emptyList();
+    }
+  }
+
+  @Override
+  public void exportPublishedRecipes(Consumer<Recipe> consumer) {
+    // walk the paged listing, so only one page is held at a time on this side
+    String cursor = null;
+    do {
+      String url = getUrl("/recipe/published?" + pageQuery(cursor, RecipePage.MAX_PAGE_SIZE));
+      ResponseEntity<RecipePage> response = webServiceCaller.getCall(url, RecipePage.class);
+      if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+        // stopping quietly would hand out a truncated export as if it were complete
+        throw new IllegalStateException(
+            "Failed to export published recipes. Status code: " + response.getStatusCode());
+      }
+      RecipePage page = response.getBody();
+      if (page.getRecipes() != null) {
+        page.getRecipes().forEach(consumer);
+      }
+      cursor = page.getNextCursor();
+    } while (cursor != null);
+  }
+
+  private String pageQuery(String cursor, int limit) {
+    String query = "limit=" + limit;
+    if (cursor != null && !cursor.isBlank()) {
+      query += "&cursor=" + cursor;
+    }
+    return query;
+  }
+
+  private RecipePage emptyPage() {
+    return new RecipePage(Collections.emptyList(), null);
+  }
 }
@@ -2,6 +2,8 @@ package nus.iss.team3.backend.domainService.recipe;
 
 import java.util.List;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
+import nus.iss.team3.backend.entity.RecipeSummaryPage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -16,4 +18,23 @@ public class RecommendByDifficulty implements RecommendStrategy {
     logger.info("Successfully retrieved {} needed recipes ", recipes.size());
     return recipes;
   }
+
+  @Override
+  public RecipePage recommendRecipes(
+      IRecipeService recipeService, int userId, boolean isDesc, String cursor, int limit) {
+    logger.info("Getting recommend recipe page by difficulty");
+    RecipePage page = recipeService.getRecipesByDifficulty(isDesc, cursor, limit);
+    logger.info("Successfully retrieved {} needed recipes ", page.getRecipes().size());
+    return page;
+  }
+
+  // read with the lean summary query instead of cutting down full recipes
+  @Override
+  public RecipeSummaryPage recommendRecipeSummaries(
+      IRecipeService recipeService, int userId, boolean isDesc, String cursor, int limit) {
+    logger.info("Getting recommend recipe summary page by difficulty");
+    RecipeSummaryPage page = recipeService.getRecipeSummariesByDifficulty(isDesc, cursor, limit);
+    logger.info("Successfully retrieved {} needed recipe summaries ", page.getRecipes().size());
+    return page;
+  }
 }
@@ -0,0 +1,35 @@
+package nus.iss.team3.backend.domainService.recipe;
+
+import java.util.List;
+import nus.iss.team3.backend.entity.Recipe;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Recommends the recipes to cook with what the user holds in their pantry, see RecipePantryIndex.
+ * The ranking is paged by position like the one by user review.
+ */
+public class RecommendByPantry extends RecommendByUserReview {
+  private static final Logger logger = LogManager.getLogger(RecommendByPantry.class);
+  private static final String CURSOR_SCOPE = "pantry-";
+
+  @Override
+  public List<Recipe> recommendRecipes(IRecipeService recipeService, int userId, boolean isDesc) {
+    logger.info("Getting recommend recipes by pantry");
+    List<Recipe> recipes = recipeService.getRecipesByPantry(userId, isDesc);
+    logger.info("Successfully retrieved {} needed recipes ", recipes.size());
+    return recipes;
+  }
+
+  @Override
+  public List<Recipe> recommendRecipes(
+      IRecipeService recipeService, int userId, boolean isDesc, int limit) {
+    logger.info("Getting the first {} recommend recipes by pantry", limit);
+    return recipeService.getRecipesByPantry(userId, isDesc, limit);
+  }
+
+  @Override
+  protected String cursorScope() {
+    return CURSOR_SCOPE;
+  }
+}
@@ -0,0 +1,35 @@
+package nus.iss.team3.backend.domainService.recipe;
+
+import java.util.List;
+import nus.iss.team3.backend.entity.Recipe;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Recommends the recipes similar to the ones the user rated highly, see RecipeSimilarityModel. The
+ * ranking is paged by position like the one by user review.
+ */
+public class RecommendBySimilarity extends RecommendByUserReview {
+  private static final Logger logger = LogManager.getLogger(RecommendBySimilarity.class);
+  private static final String CURSOR_SCOPE = "similarity-";
+
+  @Override
+  public List<Recipe> recommendRecipes(IRecipeService recipeService, int userId, boolean isDesc) {
+    logger.info("Getting recommend recipes by similarity");
+    List<Recipe> recipes = recipeService.getRecipesBySimilarity(userId, isDesc);
+    logger.info("Successfully retrieved {} needed recipes ", recipes.size());
+    return recipes;
+  }
+
+  @Override
+  public List<Recipe> recommendRecipes(
+      IRecipeService recipeService, int userId, boolean isDesc, int limit) {
+    logger.info("Getting the first {} recommend recipes by similarity", limit);
+    return recipeService.getRecipesBySimilarity(userId, isDesc, limit);
+  }
+
+  @Override
+  protected String cursorScope() {
+    return CURSOR_SCOPE;
+  }
+}
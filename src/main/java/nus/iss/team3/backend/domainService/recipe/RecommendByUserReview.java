@@ -1,12 +1,16 @@
 package nus.iss.team3.backend.domainService.recipe;
 
+import java.util.ArrayList;
 import java.util.List;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
+import nus.iss.team3.backend.service.util.KeysetCursor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 public class RecommendByUserReview implements RecommendStrategy {
   private static final Logger logger = LogManager.getLogger(RecommendByUserReview.class);
+  private static final String CURSOR_SCOPE = "user-review-";
 
   @Override
   public List<Recipe> recommendRecipes(IRecipeService recipeService, int userId, boolean isDesc) {
@@ -16,4 +20,87 @@ public class RecommendByUserReview implements RecommendStrategy {
     logger.info("Successfully retrieved {} needed recipes ", recipes.size());
     return recipes;
   }
+
+  @Override
+  public List<Recipe> recommendRecipes(
+      IRecipeService recipeService, int userId, boolean isDesc, int limit) {
+    logger.info("Getting the first {} recommend recipes by user's review", limit);
+    return recipeService.getRecipesByUserReview(userId, isDesc, limit);
+  }
+
+  /**
+   * The personalised ranking is built in memory, so it is paged by position. The cursor holds the
+   * position and id of the last recipe returned; paging resumes after that id when it is still in
+   * the ranking, and after the position otherwise. Only the ranking up to the end of the page, and
+   * one more to tell whether there is a next page, is fetched.
+   */
+  @Override
+  public RecipePage recommendRecipes(
+      IRecipeService recipeService, int userId, boolean isDesc, String cursor, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Page limit must be greater than 0");
+    }
+    int pageSize = Math.min(limit, RecipePage.MAX_PAGE_SIZE);
+    String scope = cursorScope() + userId + (isDesc ? "-desc" : "");
+    KeysetCursor after = KeysetCursor.decode(cursor, scope);
+
+    int position = -1;
+    if (after != null) {
+      try {
+        position = Integer.parseInt(after.getSortKey());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      if (position < 0) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+    }
+
+    int fetched = fetchSize(position + 1, pageSize);
+    List<Recipe> recipes = recommendRecipes(recipeService, userId, isDesc, fetched);
+    if (recipes == null) {
+      return new RecipePage(new ArrayList<>(), null);
+    }
+    int start = startAfter(recipes, after, position);
+    // the last recipe returned moved down the ranking, fetch far enough to fill the page
+    if (start > position + 1 && recipes.size() >= fetched && start + pageSize >= recipes.size()) {
+      fetched = fetchSize(start, pageSize);
+      recipes = recommendRecipes(recipeService, userId, isDesc, fetched);
+      if (recipes == null) {
+        return new RecipePage(new ArrayList<>(), null);
+      }
+      start = startAfter(recipes, after, position);
+    }
+
+    int end = Math.min(start + pageSize, recipes.size());
+    List<Recipe> page = new ArrayList<>(recipes.subList(start, end));
+    String nextCursor = null;
+    if (end < recipes.size() && !page.isEmpty()) {
+      nextCursor =
+          new KeysetCursor(scope, String.valueOf(end - 1), page.getLast().getId()).encode();
+    }
+    return new RecipePage(page, nextCursor);
+  }
+
+  // the page and one recipe past it
+  private static int fetchSize(int start, int pageSize) {
+    return (int) Math.min((long) start + pageSize + 1, Integer.MAX_VALUE);
+  }
+
+  private static int startAfter(List<Recipe> recipes, KeysetCursor after, int position) {
+    if (after == null) {
+      return 0;
+    }
+    for (int i = 0; i < recipes.size(); i++) {
+      if (recipes.get(i).getId() != null && recipes.get(i).getId() == after.getId()) {
+        return i + 1;
+      }
+    }
+    return Math.min(position + 1, recipes.size());
+  }
+
+  // so a cursor is only accepted by the ranking that issued it
+  protected String cursorScope() {
+    return CURSOR_SCOPE;
+  }
 }
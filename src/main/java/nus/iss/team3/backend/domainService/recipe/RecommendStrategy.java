@@ -1,8 +1,41 @@
 package nus.iss.team3.backend.domainService.recipe;
 
+import java.util.ArrayList;
 import java.util.List;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
+import nus.iss.team3.backend.entity.RecipeSummaryPage;
 
 public interface RecommendStrategy {
   List<Recipe> recommendRecipes(IRecipeService recipeService, int userId, boolean isDesc);
+
+  // the first limit recipes of the recommendation, by default read page by page
+  default List<Recipe> recommendRecipes(
+      IRecipeService recipeService, int userId, boolean isDesc, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Limit must be greater than 0");
+    }
+    List<Recipe> recipes = new ArrayList<>();
+    String cursor = null;
+    do {
+      RecipePage page =
+          recommendRecipes(recipeService, userId, isDesc, cursor, limit - recipes.size());
+      if (page == null || page.getRecipes() == null) {
+        break;
+      }
+      recipes.addAll(page.getRecipes());
+      cursor = page.getNextCursor();
+    } while (cursor != null && recipes.size() < limit);
+    return recipes;
+  }
+
+  // one page of the recommendation, continuing after the given cursor
+  RecipePage recommendRecipes(
+      IRecipeService recipeService, int userId, boolean isDesc, String cursor, int limit);
+
+  // the page in the summary view, by default cut down from the full page
+  default RecipeSummaryPage recommendRecipeSummaries(
+      IRecipeService recipeService, int userId, boolean isDesc, String cursor, int limit) {
+    return RecipeSummaryPage.of(recommendRecipes(recipeService, userId, isDesc, cursor, limit));
+  }
 }
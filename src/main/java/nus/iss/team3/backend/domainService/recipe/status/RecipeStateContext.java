@@ -2,6 +2,7 @@ package nus.iss.team3.backend.domainService.recipe.status;
 
 import jakarta.annotation.PostConstruct;
 import nus.iss.team3.backend.dataaccess.IRecipeDataAccess;
+import nus.iss.team3.backend.domainService.recipe.RecipeCache;
 import nus.iss.team3.backend.entity.ERecipeStatus;
 import nus.iss.team3.backend.entity.Recipe;
 import org.apache.logging.log4j.LogManager;
@@ -16,6 +17,7 @@ public class RecipeStateContext implements IRecipeStateContext {
 
   private static final Logger logger = LogManager.getLogger(RecipeStateContext.class);
   @Autowired private IRecipeDataAccess recipeDataAccess;
+  @Autowired private RecipeCache recipeCache;
 
   @Autowired
   @Qualifier(RecipeStateConfiguration.RECIPE_STATE_DRAFT) private IRecipeState recipeStateDraft;
@@ -50,7 +52,12 @@ public class RecipeStateContext implements IRecipeStateContext {
       logger.error("Invalid recipe state: {}", recipe.getStatus());
       throw new IllegalArgumentException("Invalid recipe state");
     }
-    return recipeState.addRecipe(recipe);
+    Long inputId = recipe.getId();
+    try {
+      return recipeState.addRecipe(recipe);
+    } finally {
+      evictFromCache(inputId, recipe);
+    }
   }
 
   /**
@@ -73,7 +80,19 @@ public class RecipeStateContext implements IRecipeStateContext {
       logger.error("Invalid recipe state: {}", recipe.getStatus());
       throw new IllegalArgumentException("Invalid recipe state");
     }
-    return recipeState.updateRecipe(recipe);
+    Long inputId = recipe.getId();
+    try {
+      return recipeState.updateRecipe(recipe);
+    } finally {
+      evictFromCache(inputId, recipe);
+    }
+  }
+
+  // the states may move the input onto its main recipe (recipe.getId() changes) or delete its
+  // draft, evicting both ids also evicts the main recipe of a draft, see RecipeCache
+  private void evictFromCache(Long inputId, Recipe recipe) {
+    recipeCache.evict(inputId);
+    recipeCache.evict(recipe.getId());
   }
 
   private IRecipeState getRecipeState(ERecipeStatus input) {
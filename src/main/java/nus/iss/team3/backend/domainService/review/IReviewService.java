@@ -1,7 +1,9 @@
 package nus.iss.team3.backend.domainService.review;
 
+import java.util.Collection;
 import java.util.List;
 import nus.iss.team3.backend.entity.RecipeReview;
+import nus.iss.team3.backend.entity.ReviewPage;
 
 /**
  * Interface for RecipeReviewService, contains logic involving recipe reviews.
@@ -24,5 +26,18 @@ public interface IReviewService {
 
   List<RecipeReview> getReviewsByRecipeId(Long recipeId);
 
+  /**
+   * Keyset paged reviews of a recipe, newest first, or highest rated first with isByRating. The
+   * cursor is the nextCursor of the previous page (null for the first page), and limit is capped at
+   * ReviewPage.MAX_PAGE_SIZE.
+   */
+  ReviewPage getReviewsByRecipeId(Long recipeId, boolean isByRating, String cursor, int limit);
+
+  /**
+   * Get the newest reviews of several recipes in one call, at most limitPerRecipe of each (capped
+   * at ReviewPage.MAX_PAGE_SIZE), ordered by recipe.
+   */
+  List<RecipeReview> getReviewsByRecipeIds(Collection<Long> recipeIds, int limitPerRecipe);
+
   List<RecipeReview> getReviewsByCreatorId(Long recipeId, Long creatorId);
 }
@@ -1,10 +1,16 @@
 package nus.iss.team3.backend.domainService.review;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import nus.iss.team3.backend.ProfileConfig;
 import nus.iss.team3.backend.dataaccess.IReviewDataAccess;
+import nus.iss.team3.backend.domainService.recipe.RecipeRatingPipeline;
 import nus.iss.team3.backend.entity.RecipeReview;
+import nus.iss.team3.backend.entity.ReviewPage;
+import nus.iss.team3.backend.service.util.KeysetCursor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.context.annotation.Profile;
@@ -13,6 +19,9 @@ import org.springframework.stereotype.Service;
 /**
  * Service class with logic for handling recipe review-related queries.
  *
+ * <p>Review writes also change the review count, rating sum and rating of the recipe. The data
+ * access returns these changes, which the rating pipeline applies to the recipe shortly after.
+ *
  * @author Mao Weining
  */
 @Service
@@ -20,23 +29,33 @@ import org.springframework.stereotype.Service;
 public class ReviewService implements IReviewService {
 
   private static final Logger logger = LogManager.getLogger(ReviewService.class);
+
+  private static final String CURSOR_SCOPE_REVIEWS = "reviews-";
+  private static final String CURSOR_SCOPE_NEWEST = "-newest";
+  private static final String CURSOR_SCOPE_RATING = "-rating";
+  // later than any review, to start the newest first page from the first row
+  private static final Timestamp NEWEST_FIRST_AFTER = Timestamp.valueOf("9999-12-31 00:00:00");
+
   private final IReviewDataAccess recipeReviewDataAccess;
+  private final RecipeRatingPipeline recipeRatingPipeline;
 
-  public ReviewService(IReviewDataAccess recipeReviewDataAccess) {
+  public ReviewService(
+      IReviewDataAccess recipeReviewDataAccess, RecipeRatingPipeline recipeRatingPipeline) {
     this.recipeReviewDataAccess = recipeReviewDataAccess;
+    this.recipeRatingPipeline = recipeRatingPipeline;
   }
 
   @Override
   public void addReview(RecipeReview review) {
     validateReview(review);
-    recipeReviewDataAccess.addReview(review);
+    recipeRatingPipeline.enqueue(recipeReviewDataAccess.addReview(review));
     logger.info("Added review for recipe ID: {}", review.getRecipeId());
   }
 
   @Override
   public void updateReview(Long recipeId, Long creatorId, RecipeReview review) {
     validateReview(review);
-    recipeReviewDataAccess.updateReview(recipeId, creatorId, review);
+    recipeRatingPipeline.enqueue(recipeReviewDataAccess.updateReview(recipeId, creatorId, review));
     logger.info("Updated review for recipe ID: {} by creator ID: {}", recipeId, creatorId);
   }
 
@@ -44,14 +63,14 @@ public class ReviewService implements IReviewService {
   public void deleteReview(Long recipeId, Long creatorId) {
     Objects.requireNonNull(recipeId, "Recipe ID cannot be null");
     Objects.requireNonNull(creatorId, "Creator ID cannot be null");
-    recipeReviewDataAccess.deleteReview(recipeId, creatorId);
+    recipeRatingPipeline.enqueue(recipeReviewDataAccess.deleteReview(recipeId, creatorId));
     logger.info("Deleted review for recipe ID: {} by creator ID: {}", recipeId, creatorId);
   }
 
   @Override
   public void deleteReviewsByRecipeId(Long recipeId) {
     Objects.requireNonNull(recipeId, "Recipe ID cannot be null");
-    recipeReviewDataAccess.deleteReviewsByRecipeId(recipeId);
+    recipeRatingPipeline.enqueue(recipeReviewDataAccess.deleteReviewsByRecipeId(recipeId));
     logger.info("Deleted all reviews for recipe ID: {}", recipeId);
   }
 
@@ -59,7 +78,8 @@ public class ReviewService implements IReviewService {
   public void deleteReviewsByCreatorId(Long recipeId, Long creatorId) {
     Objects.requireNonNull(recipeId, "Recipe ID cannot be null");
     Objects.requireNonNull(creatorId, "Creator ID cannot be null");
-    recipeReviewDataAccess.deleteReviewsByCreatorId(creatorId);
+    // the reviews may be of any recipe, each gets its own delta
+    recipeRatingPipeline.enqueue(recipeReviewDataAccess.deleteReviewsByCreatorId(creatorId));
     logger.info("Deleted all reviews by creator ID: {}", creatorId);
   }
 
@@ -87,6 +107,67 @@ public class ReviewService implements IReviewService {
     return reviews;
   }
 
+  @Override
+  public ReviewPage getReviewsByRecipeId(
+      Long recipeId, boolean isByRating, String cursor, int limit) {
+    Objects.requireNonNull(recipeId, "Recipe ID cannot be null");
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Page limit must be greater than 0");
+    }
+    int pageSize = Math.min(limit, ReviewPage.MAX_PAGE_SIZE);
+    String scope =
+        CURSOR_SCOPE_REVIEWS + recipeId + (isByRating ? CURSOR_SCOPE_RATING : CURSOR_SCOPE_NEWEST);
+    KeysetCursor after = KeysetCursor.decode(cursor, scope);
+    long afterId = after == null ? Long.MAX_VALUE : after.getId();
+    Object afterKey;
+    try {
+      if (isByRating) {
+        afterKey = after == null ? Double.MAX_VALUE : Double.parseDouble(after.getSortKey());
+      } else {
+        afterKey = after == null ? NEWEST_FIRST_AFTER : Timestamp.valueOf(after.getSortKey());
+      }
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+    List<RecipeReview> rows =
+        isByRating
+            ? recipeReviewDataAccess.getTopRatedReviewsPage(
+                recipeId, (Double) afterKey, afterId, pageSize + 1)
+            : recipeReviewDataAccess.getNewestReviewsPage(
+                recipeId, (Timestamp) afterKey, afterId, pageSize + 1);
+    long totalCount = recipeReviewDataAccess.countReviewsByRecipeId(recipeId);
+    logger.info(
+        "Retrieved review page for recipe ID: {}, count: {}, total: {}",
+        recipeId,
+        Math.min(rows.size(), pageSize),
+        totalCount);
+    if (rows.size() <= pageSize) {
+      return new ReviewPage(rows, null, totalCount);
+    }
+    List<RecipeReview> reviews = new ArrayList<>(rows.subList(0, pageSize));
+    RecipeReview last = reviews.getLast();
+    // the timestamp keeps its microseconds in the cursor, so no review of the same second is
+    // skipped
+    String sortKey =
+        isByRating ? String.valueOf(last.getRating()) : String.valueOf(last.getCreateDatetime());
+    return new ReviewPage(
+        reviews, new KeysetCursor(scope, sortKey, last.getId()).encode(), totalCount);
+  }
+
+  @Override
+  public List<RecipeReview> getReviewsByRecipeIds(Collection<Long> recipeIds, int limitPerRecipe) {
+    Objects.requireNonNull(recipeIds, "Recipe IDs cannot be null");
+    if (limitPerRecipe <= 0) {
+      throw new IllegalArgumentException("Page limit must be greater than 0");
+    }
+    List<Long> ids = recipeIds.stream().filter(Objects::nonNull).distinct().toList();
+    List<RecipeReview> reviews =
+        recipeReviewDataAccess.getReviewsByRecipeIds(
+            ids, Math.min(limitPerRecipe, ReviewPage.MAX_PAGE_SIZE));
+    logger.info("Retrieved reviews for {} recipes, count: {}", ids.size(), reviews.size());
+    return reviews;
+  }
+
   @Override
   public List<RecipeReview> getReviewsByCreatorId(Long recipeId, Long creatorId) {
     Objects.requireNonNull(recipeId, "Recipe ID cannot be null");
@@ -1,11 +1,14 @@
 package nus.iss.team3.backend.domainService.review;
 
 import jakarta.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import nus.iss.team3.backend.ProfileConfig;
 import nus.iss.team3.backend.domainService.webservice.IWebserviceCaller;
 import nus.iss.team3.backend.entity.RecipeReview;
+import nus.iss.team3.backend.entity.ReviewPage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
@@ -184,6 +187,51 @@ public class ReviewWebCaller implements IReviewService {
     }
   }
 
+  @Override
+  public ReviewPage getReviewsByRecipeId(
+      Long recipeId, boolean isByRating, String cursor, int limit) {
+    String query = "?limit=" + limit + "&isByRating=" + isByRating;
+    if (cursor != null && !cursor.isBlank()) {
+      query += "&cursor=" + cursor;
+    }
+    String url = getUrl("/recipe/" + recipeId + "/reviews" + query);
+    try {
+      ResponseEntity<ReviewPage> response = webServiceCaller.getCall(url, ReviewPage.class);
+      if (response.getStatusCode().is2xxSuccessful()) {
+        logger.info("Retrieved review page for recipe ID: {}", recipeId);
+        return response.getBody();
+      } else {
+        logger.error(
+            "Failed to retrieve review page by recipeId. Status code: {}",
+            response.getStatusCode());
+        return new ReviewPage(Collections.emptyList(), null, 0);
+      }
+    } catch (Exception e) {
+      logger.error("Error retrieving review page for recipe ID {}: {}", recipeId, e.getMessage());
+      return new ReviewPage(Collections.emptyList(), null, 0);
+    }
+  }
+
+  @Override
+  public List<RecipeReview> getReviewsByRecipeIds(Collection<Long> recipeIds, int limitPerRecipe) {
+    String url = getUrl("/recipe/reviews/by-recipe-ids?limit=" + limitPerRecipe);
+    try {
+      ResponseEntity<RecipeReview[]> response =
+          webServiceCaller.postCall(url, recipeIds, RecipeReview[].class);
+      if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+        logger.info("Retrieved reviews for {} recipes", recipeIds.size());
+        return Arrays.asList(response.getBody());
+      } else {
+        logger.error(
+            "Failed to retrieve reviews by recipeIds. Status code: {}", response.getStatusCode());
+        return Collections.emptyList();
+      }
+    } catch (Exception e) {
+      logger.error("Error retrieving reviews for {} recipes: {}", recipeIds.size(), e.getMessage());
+      return Collections.emptyList();
+    }
+  }
+
   @Override
   public List<RecipeReview> getReviewsByCreatorId(Long recipeId, Long creatorId) {
     String url = getUrl("/recipe/" + recipeId + "/reviews/creator/" + creatorId);
@@ -1,5 +1,6 @@
 package nus.iss.team3.backend.domainService.webservice;
 
+import java.net.URI;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.ResponseEntity;
 
@@ -14,6 +15,9 @@ public interface IWebserviceCaller {
 
   <T> ResponseEntity<T> getCall(String url, ParameterizedTypeReference<T> responseType);
 
+  /** A GET of a url whose query is already encoded, so it is sent as is. */
+  <T> ResponseEntity<T> getCall(URI url, ParameterizedTypeReference<T> responseType);
+
   <T> ResponseEntity<T> postCall(String url, Object request, Class<T> responseType);
 
   <T> ResponseEntity<T> putCall(String url, Object request, Class<T> responseType);
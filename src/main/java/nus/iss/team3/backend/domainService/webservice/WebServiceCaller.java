@@ -1,6 +1,7 @@
 package nus.iss.team3.backend.domainService.webservice;
 
 import jakarta.annotation.PostConstruct;
+import java.net.URI;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
@@ -109,6 +110,45 @@ public class WebServiceCaller implements IWebserviceCaller {
     return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
+  @Override
+  public <T> ResponseEntity<T> getCall(URI url, ParameterizedTypeReference<T> responseType) {
+    logger.info("Executing GET request to URL: {}", url);
+    RestTemplate restTemplate = new RestTemplate();
+    HttpHeaders headers = new HttpHeaders();
+    headers.add("Internal-Service-Call", "true");
+
+    HttpEntity<String> entity = new HttpEntity<>(null, headers);
+    for (int i = 0; i < MAX_RETRY; i++) {
+      try {
+        ResponseEntity<T> response =
+            restTemplate.exchange(url, HttpMethod.GET, entity, responseType);
+        logger.info(
+            "[{}/{}]GET request to URL: {} completed with status: {}",
+            (i + 1),
+            MAX_RETRY,
+            url,
+            response.getStatusCode());
+        if (successfulCall(response)) {
+          return response;
+        }
+      } catch (RestClientException e) {
+        logger.error(
+            "[{}/{}]GET request to URL: {} failed. Error: {}",
+            (i + 1),
+            MAX_RETRY,
+            url,
+            e.getMessage());
+        return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+      }
+      try {
+        TimeUnit.SECONDS.sleep(BUFFER_BETWEEN_TRY);
+      } catch (InterruptedException ex) {
+        throw new RuntimeException(ex);
+      }
+    }
+    return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+  }
+
   @Override
   public <T> ResponseEntity<T> postCall(String url, Object request, Class<T> responseType) {
     logger.info("Executing POST request to URL: {} with payload: {}", url, request);
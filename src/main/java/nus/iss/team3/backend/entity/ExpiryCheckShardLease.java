@@ -0,0 +1,85 @@
+package nus.iss.team3.backend.entity;
+
+import java.time.LocalDate;
+
+/**
+ * The lease of a replica on a shard of the daily ingredient expiry check, the users whose id mod
+ * shardCount is shard. The shard is null when claiming, any free shard of the run date will do.
+ */
+// Entity
+public class ExpiryCheckShardLease {
+
+  private LocalDate runDate;
+  private Integer shard;
+  private Integer shardCount;
+  private String owner;
+  private Long leaseMillis;
+
+  public ExpiryCheckShardLease() {}
+
+  public ExpiryCheckShardLease(
+      LocalDate runDate, Integer shard, Integer shardCount, String owner, Long leaseMillis) {
+    this.runDate = runDate;
+    this.shard = shard;
+    this.shardCount = shardCount;
+    this.owner = owner;
+    this.leaseMillis = leaseMillis;
+  }
+
+  public LocalDate getRunDate() {
+    return runDate;
+  }
+
+  public void setRunDate(LocalDate runDate) {
+    this.runDate = runDate;
+  }
+
+  public Integer getShard() {
+    return shard;
+  }
+
+  public void setShard(Integer shard) {
+    this.shard = shard;
+  }
+
+  public Integer getShardCount() {
+    return shardCount;
+  }
+
+  public void setShardCount(Integer shardCount) {
+    this.shardCount = shardCount;
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+
+  public void setOwner(String owner) {
+    this.owner = owner;
+  }
+
+  public Long getLeaseMillis() {
+    return leaseMillis;
+  }
+
+  public void setLeaseMillis(Long leaseMillis) {
+    this.leaseMillis = leaseMillis;
+  }
+
+  @Override
+  public String toString() {
+    return "ExpiryCheckShardLease{"
+        + "runDate="
+        + runDate
+        + ", shard="
+        + shard
+        + ", shardCount="
+        + shardCount
+        + ", owner='"
+        + owner
+        + '\''
+        + ", leaseMillis="
+        + leaseMillis
+        + '}';
+  }
+}
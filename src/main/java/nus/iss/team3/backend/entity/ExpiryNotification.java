@@ -0,0 +1,38 @@
+package nus.iss.team3.backend.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An ingredient expiry notification with the ledger rows of the ingredients it notifies, created
+ * together or not at all.
+ */
+// Entity
+public class ExpiryNotification {
+
+  private Notification notification;
+  private List<IngredientExpiryNotice> notices = new ArrayList<>();
+
+  public ExpiryNotification() {}
+
+  public ExpiryNotification(Notification notification, List<IngredientExpiryNotice> notices) {
+    this.notification = notification;
+    this.notices = notices;
+  }
+
+  public Notification getNotification() {
+    return notification;
+  }
+
+  public void setNotification(Notification notification) {
+    this.notification = notification;
+  }
+
+  public List<IngredientExpiryNotice> getNotices() {
+    return notices;
+  }
+
+  public void setNotices(List<IngredientExpiryNotice> notices) {
+    this.notices = notices;
+  }
+}
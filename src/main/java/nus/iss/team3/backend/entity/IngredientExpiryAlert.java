@@ -0,0 +1,50 @@
+package nus.iss.team3.backend.entity;
+
+import java.util.List;
+
+/**
+ * An expiry alert that fell due: the ingredient of a user is to be notified that it expires in the
+ * given number of days.
+ */
+// Entity
+public class IngredientExpiryAlert {
+
+  // Days before expiry at which an ingredient is notified
+  public static final List<Integer> NOTIFY_DAYS = List.of(3, 1);
+
+  private UserIngredient ingredient;
+  private Integer daysBeforeExpiry;
+
+  public IngredientExpiryAlert() {}
+
+  public IngredientExpiryAlert(UserIngredient ingredient, Integer daysBeforeExpiry) {
+    this.ingredient = ingredient;
+    this.daysBeforeExpiry = daysBeforeExpiry;
+  }
+
+  public UserIngredient getIngredient() {
+    return ingredient;
+  }
+
+  public void setIngredient(UserIngredient ingredient) {
+    this.ingredient = ingredient;
+  }
+
+  public Integer getDaysBeforeExpiry() {
+    return daysBeforeExpiry;
+  }
+
+  public void setDaysBeforeExpiry(Integer daysBeforeExpiry) {
+    this.daysBeforeExpiry = daysBeforeExpiry;
+  }
+
+  @Override
+  public String toString() {
+    return "IngredientExpiryAlert{"
+        + "ingredient="
+        + ingredient
+        + ", daysBeforeExpiry="
+        + daysBeforeExpiry
+        + '}';
+  }
+}
@@ -0,0 +1,92 @@
+package nus.iss.team3.backend.entity;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * A row of the ingredient expiry notification ledger: the ingredient of a user was notified that
+ * its expiry date is the given number of days away (its bucket).
+ */
+// Entity
+public class IngredientExpiryNotice {
+
+  private Integer userId;
+  private Integer ingredientId;
+  private LocalDate expiryDate;
+  private Integer daysBucket;
+
+  public IngredientExpiryNotice() {}
+
+  public IngredientExpiryNotice(
+      Integer userId, Integer ingredientId, LocalDate expiryDate, Integer daysBucket) {
+    this.userId = userId;
+    this.ingredientId = ingredientId;
+    this.expiryDate = expiryDate;
+    this.daysBucket = daysBucket;
+  }
+
+  public Integer getUserId() {
+    return userId;
+  }
+
+  public void setUserId(Integer userId) {
+    this.userId = userId;
+  }
+
+  public Integer getIngredientId() {
+    return ingredientId;
+  }
+
+  public void setIngredientId(Integer ingredientId) {
+    this.ingredientId = ingredientId;
+  }
+
+  public LocalDate getExpiryDate() {
+    return expiryDate;
+  }
+
+  public void setExpiryDate(LocalDate expiryDate) {
+    this.expiryDate = expiryDate;
+  }
+
+  public Integer getDaysBucket() {
+    return daysBucket;
+  }
+
+  public void setDaysBucket(Integer daysBucket) {
+    this.daysBucket = daysBucket;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof IngredientExpiryNotice other)) {
+      return false;
+    }
+    return Objects.equals(userId, other.userId)
+        && Objects.equals(ingredientId, other.ingredientId)
+        && Objects.equals(expiryDate, other.expiryDate)
+        && Objects.equals(daysBucket, other.daysBucket);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(userId, ingredientId, expiryDate, daysBucket);
+  }
+
+  @Override
+  public String toString() {
+    return "IngredientExpiryNotice{"
+        + "userId="
+        + userId
+        + ", ingredientId="
+        + ingredientId
+        + ", expiryDate="
+        + expiryDate
+        + ", daysBucket="
+        + daysBucket
+        + '}';
+  }
+}
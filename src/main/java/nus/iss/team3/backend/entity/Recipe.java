@@ -20,6 +20,9 @@ public class Recipe {
   private Integer cookingTimeInMin;
   private Integer difficultyLevel;
   private Double rating;
+  // review summary of a list card: the number of reviews, and of reviews with 1 to 5 stars
+  private Integer reviewCount;
+  private List<Integer> ratingHistogram;
 
   private ERecipeStatus status;
 
@@ -130,6 +133,22 @@ public class Recipe {
     this.rating = rating;
   }
 
+  public Integer getReviewCount() {
+    return reviewCount;
+  }
+
+  public void setReviewCount(Integer reviewCount) {
+    this.reviewCount = reviewCount;
+  }
+
+  public List<Integer> getRatingHistogram() {
+    return ratingHistogram;
+  }
+
+  public void setRatingHistogram(List<Integer> ratingHistogram) {
+    this.ratingHistogram = ratingHistogram;
+  }
+
   public ERecipeStatus getStatus() {
     return status;
   }
@@ -208,6 +227,10 @@ public class Recipe {
         + difficultyLevel
         + ", rating="
         + rating
+        + ", reviewCount="
+        + reviewCount
+        + ", ratingHistogram="
+        + ratingHistogram
         + ", status="
         + status
         + ", createDatetime="
@@ -246,6 +269,8 @@ public class Recipe {
         && Objects.equals(cookingTimeInMin, recipe.cookingTimeInMin)
         && Objects.equals(difficultyLevel, recipe.difficultyLevel)
         && Objects.equals(rating, recipe.rating)
+        && Objects.equals(reviewCount, recipe.reviewCount)
+        && Objects.equals(ratingHistogram, recipe.ratingHistogram)
         && status == recipe.status
         && Objects.equals(ingredients, recipe.ingredients)
         && Objects.equals(cookingSteps, recipe.cookingSteps)
@@ -263,6 +288,8 @@ public class Recipe {
         cookingTimeInMin,
         difficultyLevel,
         rating,
+        reviewCount,
+        ratingHistogram,
         status,
         ingredients,
         cookingSteps,
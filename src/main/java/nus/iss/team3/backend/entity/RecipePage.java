@@ -0,0 +1,41 @@
+package nus.iss.team3.backend.entity;
+
+import java.util.List;
+
+/**
+ * One page of a recipe listing, with the cursor to request the page after it.
+ *
+ * <p>nextCursor is null on the last page.
+ */
+// Entity
+public class RecipePage {
+
+  public static final int DEFAULT_PAGE_SIZE = 20;
+  public static final int MAX_PAGE_SIZE = 100;
+
+  private List<Recipe> recipes;
+  private String nextCursor;
+
+  public RecipePage() {}
+
+  public RecipePage(List<Recipe> recipes, String nextCursor) {
+    this.recipes = recipes;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<Recipe> getRecipes() {
+    return recipes;
+  }
+
+  public void setRecipes(List<Recipe> recipes) {
+    this.recipes = recipes;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+}
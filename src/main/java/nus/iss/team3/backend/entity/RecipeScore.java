@@ -0,0 +1,48 @@
+package nus.iss.team3.backend.entity;
+
+import java.util.Objects;
+
+/**
+ * A recipe id with the score it is ranked by, a candidate of a recommendation. Candidates are
+ * ranked without loading the recipes, and only the recipes ranked first are loaded in full.
+ */
+// Entity
+public final class RecipeScore {
+
+  private final long id;
+  private final double score;
+
+  public RecipeScore(long id, double score) {
+    this.id = id;
+    this.score = score;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public double getScore() {
+    return score;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof RecipeScore other)) {
+      return false;
+    }
+    return id == other.id && Double.compare(score, other.score) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, score);
+  }
+
+  @Override
+  public String toString() {
+    return "RecipeScore{" + "id=" + id + ", score=" + score + '}';
+  }
+}
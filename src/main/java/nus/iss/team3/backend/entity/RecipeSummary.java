@@ -0,0 +1,129 @@
+package nus.iss.team3.backend.entity;
+
+import java.util.List;
+
+/**
+ * The fields of a recipe shown on a list card, read without its ingredients, cooking steps or
+ * draft.
+ */
+// Entity
+public class RecipeSummary {
+
+  private Long id;
+  private String name;
+  private String image;
+  private Double rating;
+  private Integer difficultyLevel;
+  private Integer cookingTimeInMin;
+  private String cuisine;
+  // the number of reviews, and of reviews with 1 to 5 stars
+  private Integer reviewCount;
+  private List<Integer> ratingHistogram;
+
+  public RecipeSummary() {}
+
+  public RecipeSummary(
+      Long id,
+      String name,
+      String image,
+      Double rating,
+      Integer difficultyLevel,
+      Integer cookingTimeInMin,
+      String cuisine) {
+    this.id = id;
+    this.name = name;
+    this.image = image;
+    this.rating = rating;
+    this.difficultyLevel = difficultyLevel;
+    this.cookingTimeInMin = cookingTimeInMin;
+    this.cuisine = cuisine;
+  }
+
+  /** The summary of a recipe that is already loaded. */
+  public static RecipeSummary of(Recipe recipe) {
+    RecipeSummary summary =
+        new RecipeSummary(
+            recipe.getId(),
+            recipe.getName(),
+            recipe.getImage(),
+            recipe.getRating(),
+            recipe.getDifficultyLevel(),
+            recipe.getCookingTimeInMin(),
+            recipe.getCuisine());
+    summary.setReviewCount(recipe.getReviewCount());
+    summary.setRatingHistogram(recipe.getRatingHistogram());
+    return summary;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getImage() {
+    return image;
+  }
+
+  public void setImage(String image) {
+    this.image = image;
+  }
+
+  public Double getRating() {
+    return rating;
+  }
+
+  public void setRating(Double rating) {
+    this.rating = rating;
+  }
+
+  public Integer getDifficultyLevel() {
+    return difficultyLevel;
+  }
+
+  public void setDifficultyLevel(Integer difficultyLevel) {
+    this.difficultyLevel = difficultyLevel;
+  }
+
+  public Integer getCookingTimeInMin() {
+    return cookingTimeInMin;
+  }
+
+  public void setCookingTimeInMin(Integer cookingTimeInMin) {
+    this.cookingTimeInMin = cookingTimeInMin;
+  }
+
+  public String getCuisine() {
+    return cuisine;
+  }
+
+  public void setCuisine(String cuisine) {
+    this.cuisine = cuisine;
+  }
+
+  public Integer getReviewCount() {
+    return reviewCount;
+  }
+
+  public void setReviewCount(Integer reviewCount) {
+    this.reviewCount = reviewCount;
+  }
+
+  public List<Integer> getRatingHistogram() {
+    return ratingHistogram;
+  }
+
+  public void setRatingHistogram(List<Integer> ratingHistogram) {
+    this.ratingHistogram = ratingHistogram;
+  }
+}
@@ -0,0 +1,48 @@
+package nus.iss.team3.backend.entity;
+
+import java.util.List;
+
+/**
+ * One page of a recipe listing in the summary view, with the cursor to request the page after it.
+ * The cursor is the same as the one of the full view of the listing, so the two can be mixed.
+ *
+ * <p>nextCursor is null on the last page.
+ */
+// Entity
+public class RecipeSummaryPage {
+
+  private List<RecipeSummary> recipes;
+  private String nextCursor;
+
+  public RecipeSummaryPage() {}
+
+  public RecipeSummaryPage(List<RecipeSummary> recipes, String nextCursor) {
+    this.recipes = recipes;
+    this.nextCursor = nextCursor;
+  }
+
+  /** The summary view of a page of full recipes. */
+  public static RecipeSummaryPage of(RecipePage page) {
+    List<RecipeSummary> summaries =
+        page.getRecipes() == null
+            ? List.of()
+            : page.getRecipes().stream().map(RecipeSummary::of).toList();
+    return new RecipeSummaryPage(summaries, page.getNextCursor());
+  }
+
+  public List<RecipeSummary> getRecipes() {
+    return recipes;
+  }
+
+  public void setRecipes(List<RecipeSummary> recipes) {
+    this.recipes = recipes;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+}
@@ -5,6 +5,9 @@ import java.util.List;
 /**
  * Recipe with Review Class
  *
+ * <p>reviews holds the first page of the reviews, newest first, and reviewCount the number of all
+ * reviews of the recipe; the rest are read with GET /recipe/{recipeId}/reviews?limit=.
+ *
  * @author Mao Weining
  */
 // Entity
@@ -12,12 +15,18 @@ public class RecipeWithReviews {
 
   private Recipe recipe;
   private List<RecipeReview> reviews;
+  private long reviewCount;
 
   public RecipeWithReviews() {}
 
   public RecipeWithReviews(Recipe recipe, List<RecipeReview> reviews) {
+    this(recipe, reviews, reviews == null ? 0 : reviews.size());
+  }
+
+  public RecipeWithReviews(Recipe recipe, List<RecipeReview> reviews, long reviewCount) {
     this.recipe = recipe;
     this.reviews = reviews;
+    this.reviewCount = reviewCount;
   }
 
   public Recipe getRecipe() {
@@ -35,4 +44,12 @@ public class RecipeWithReviews {
   public void setReviews(List<RecipeReview> reviews) {
     this.reviews = reviews;
   }
+
+  public long getReviewCount() {
+    return reviewCount;
+  }
+
+  public void setReviewCount(long reviewCount) {
+    this.reviewCount = reviewCount;
+  }
 }
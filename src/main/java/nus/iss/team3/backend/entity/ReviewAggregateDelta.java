@@ -0,0 +1,146 @@
+package nus.iss.team3.backend.entity;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The change review writes make to the review aggregates of a recipe: its review count, rating sum
+ * and the number of reviews with 1 to 5 stars. Deltas of the same recipe add up with {@link
+ * #merge(ReviewAggregateDelta)}, and count the review writes they cover in {@link #getWrites()}.
+ *
+ * <p>{@link #getMarkedAt()} is the time the first unapplied review write of the recipe was marked
+ * dirty when the writes were made. A delta only applies while that dirty mark is still there: once
+ * the recipe is recomputed from its reviews the mark is gone, and so are the writes it counted.
+ */
+// Entity
+public final class ReviewAggregateDelta {
+
+  private final Long recipeId;
+  private final Timestamp markedAt;
+  private final int countDelta;
+  private final BigDecimal ratingDelta;
+  private final int[] starsDeltas;
+  private final int writes;
+
+  /** The delta of a single review write. */
+  public ReviewAggregateDelta(
+      Long recipeId,
+      Timestamp markedAt,
+      int countDelta,
+      BigDecimal ratingDelta,
+      int[] starsDeltas) {
+    this(recipeId, markedAt, countDelta, ratingDelta, starsDeltas, 1);
+  }
+
+  public ReviewAggregateDelta(
+      Long recipeId,
+      Timestamp markedAt,
+      int countDelta,
+      BigDecimal ratingDelta,
+      int[] starsDeltas,
+      int writes) {
+    if (starsDeltas.length != 5) {
+      throw new IllegalArgumentException("Stars deltas must be given for 1 to 5 stars");
+    }
+    this.recipeId = recipeId;
+    this.markedAt = markedAt;
+    this.countDelta = countDelta;
+    this.ratingDelta = ratingDelta == null ? BigDecimal.ZERO : ratingDelta;
+    this.starsDeltas = starsDeltas.clone();
+    this.writes = writes;
+  }
+
+  /**
+   * The sum of this and another delta of the same recipe. Of deltas marked at different times only
+   * the later one is kept, the earlier mark was recomputed away before the later one was made.
+   */
+  public ReviewAggregateDelta merge(ReviewAggregateDelta other) {
+    if (!recipeId.equals(other.recipeId)) {
+      throw new IllegalArgumentException("Deltas of different recipes cannot be merged");
+    }
+    if (!Objects.equals(markedAt, other.markedAt)) {
+      return other.markedAt != null && (markedAt == null || other.markedAt.after(markedAt))
+          ? other
+          : this;
+    }
+    int[] stars = new int[starsDeltas.length];
+    for (int i = 0; i < stars.length; i++) {
+      stars[i] = starsDeltas[i] + other.starsDeltas[i];
+    }
+    return new ReviewAggregateDelta(
+        recipeId,
+        markedAt,
+        countDelta + other.countDelta,
+        ratingDelta.add(other.ratingDelta),
+        stars,
+        writes + other.writes);
+  }
+
+  public Long getRecipeId() {
+    return recipeId;
+  }
+
+  /** The time the recipe was marked dirty by the first review write not applied yet. */
+  public Timestamp getMarkedAt() {
+    return markedAt;
+  }
+
+  public int getCountDelta() {
+    return countDelta;
+  }
+
+  public BigDecimal getRatingDelta() {
+    return ratingDelta;
+  }
+
+  /** The change in the number of reviews with the given stars, 1 to 5. */
+  public int getStarsDelta(int stars) {
+    return starsDeltas[stars - 1];
+  }
+
+  /** The number of review writes of the recipe this delta adds up. */
+  public int getWrites() {
+    return writes;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ReviewAggregateDelta other)) {
+      return false;
+    }
+    return recipeId.equals(other.recipeId)
+        && Objects.equals(markedAt, other.markedAt)
+        && countDelta == other.countDelta
+        && ratingDelta.compareTo(other.ratingDelta) == 0
+        && Arrays.equals(starsDeltas, other.starsDeltas)
+        && writes == other.writes;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * recipeId.hashCode() + countDelta;
+  }
+
+  @Override
+  public String toString() {
+    return "ReviewAggregateDelta{"
+        + "recipeId="
+        + recipeId
+        + ", markedAt="
+        + markedAt
+        + ", countDelta="
+        + countDelta
+        + ", ratingDelta="
+        + ratingDelta
+        + ", starsDeltas="
+        + Arrays.toString(starsDeltas)
+        + ", writes="
+        + writes
+        + '}';
+  }
+}
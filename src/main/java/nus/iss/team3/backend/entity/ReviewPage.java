@@ -0,0 +1,52 @@
+package nus.iss.team3.backend.entity;
+
+import java.util.List;
+
+/**
+ * One page of the reviews of a recipe, with the cursor to request the page after it and the total
+ * number of reviews of the recipe.
+ *
+ * <p>nextCursor is null on the last page.
+ */
+// Entity
+public class ReviewPage {
+
+  public static final int DEFAULT_PAGE_SIZE = 20;
+  public static final int MAX_PAGE_SIZE = 100;
+
+  private List<RecipeReview> reviews;
+  private String nextCursor;
+  private long totalCount;
+
+  public ReviewPage() {}
+
+  public ReviewPage(List<RecipeReview> reviews, String nextCursor, long totalCount) {
+    this.reviews = reviews;
+    this.nextCursor = nextCursor;
+    this.totalCount = totalCount;
+  }
+
+  public List<RecipeReview> getReviews() {
+    return reviews;
+  }
+
+  public void setReviews(List<RecipeReview> reviews) {
+    this.reviews = reviews;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  public void setTotalCount(long totalCount) {
+    this.totalCount = totalCount;
+  }
+}
@@ -0,0 +1,75 @@
+package nus.iss.team3.backend.service.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset pagination. It carries the sort key and id of the last row of a page,
+ * plus the ordering it was issued for, so a cursor cannot be replayed against another ordering.
+ */
+public class KeysetCursor {
+
+  private static final String SEPARATOR = "|";
+
+  private final String scope;
+  private final String sortKey;
+  private final long id;
+
+  public KeysetCursor(String scope, String sortKey, long id) {
+    this.scope = scope;
+    this.sortKey = sortKey;
+    this.id = id;
+  }
+
+  public String getScope() {
+    return scope;
+  }
+
+  public String getSortKey() {
+    return sortKey;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String encode() {
+    String raw = scope + SEPARATOR + sortKey + SEPARATOR + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decode a cursor issued for the given scope.
+   *
+   * @return the decoded cursor, or null when no cursor is given (first page)
+   * @throws IllegalArgumentException if the cursor is malformed or was issued for another scope
+   */
+  public static KeysetCursor decode(String cursor, String expectedScope) {
+    if (StringUtilities.isStringNullOrBlank(cursor)) {
+      return null;
+    }
+    String raw;
+    try {
+      raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+    int first = raw.indexOf(SEPARATOR);
+    int last = raw.lastIndexOf(SEPARATOR);
+    if (first < 0 || first == last) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+    String scope = raw.substring(0, first);
+    if (!scope.equals(expectedScope)) {
+      throw new IllegalArgumentException("Cursor does not belong to this listing");
+    }
+    try {
+      long id = Long.parseLong(raw.substring(last + 1));
+      return new KeysetCursor(scope, raw.substring(first + 1, last), id);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package nus.iss.team3.backend.service.util;
+
+/**
+ * Keeps the k highest scored ids offered to it, in a min-heap over primitive arrays, so picking the
+ * best k of n candidates takes O(n log k) time and O(k) memory instead of sorting all n. Equal
+ * scores are ranked by the lower id first.
+ *
+ * <p>Not thread safe, use one per selection.
+ */
+public class TopK {
+
+  private final long[] ids;
+  private final double[] scores;
+  private int size;
+
+  public TopK(int k) {
+    if (k <= 0) {
+      throw new IllegalArgumentException("k must be greater than 0");
+    }
+    this.ids = new long[k];
+    this.scores = new double[k];
+  }
+
+  /** Offer a candidate, returns whether it is among the best k so far. */
+  public boolean offer(long id, double score) {
+    if (size < ids.length) {
+      ids[size] = id;
+      scores[size] = score;
+      siftUp(size++);
+      return true;
+    }
+    if (!isBetter(id, score, 0)) {
+      return false;
+    }
+    ids[0] = id;
+    scores[0] = score;
+    siftDown(0);
+    return true;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /** The lowest score kept while the selection is full, so worse candidates can be skipped. */
+  public double threshold() {
+    return size < ids.length ? Double.NEGATIVE_INFINITY : scores[0];
+  }
+
+  /**
+   * Empty the selection into the given arrays, best first. Both must hold at least {@link #size()}
+   * entries; scores may be null when only the ids are needed.
+   */
+  public int drainTo(long[] outIds, double[] outScores) {
+    int count = size;
+    while (size > 0) {
+      int last = --size;
+      outIds[last] = ids[0];
+      if (outScores != null) {
+        outScores[last] = scores[0];
+      }
+      ids[0] = ids[last];
+      scores[0] = scores[last];
+      siftDown(0);
+    }
+    return count;
+  }
+
+  /** The ids kept, best first. Empties the selection. */
+  public long[] drainIds() {
+    long[] out = new long[size];
+    drainTo(out, null);
+    return out;
+  }
+
+  // whether the candidate ranks above the entry at the slot
+  private boolean isBetter(long id, double score, int slot) {
+    return score > scores[slot] || (score == scores[slot] && id < ids[slot]);
+  }
+
+  private void siftUp(int slot) {
+    while (slot > 0) {
+      int parent = (slot - 1) >>> 1;
+      if (!isBetter(ids[parent], scores[parent], slot)) {
+        return;
+      }
+      swap(slot, parent);
+      slot = parent;
+    }
+  }
+
+  private void siftDown(int slot) {
+    while (true) {
+      int worst = slot;
+      int left = 2 * slot + 1;
+      int right = left + 1;
+      if (left < size && isBetter(ids[worst], scores[worst], left)) {
+        worst = left;
+      }
+      if (right < size && isBetter(ids[worst], scores[worst], right)) {
+        worst = right;
+      }
+      if (worst == slot) {
+        return;
+      }
+      swap(slot, worst);
+      slot = worst;
+    }
+  }
+
+  private void swap(int a, int b) {
+    long id = ids[a];
+    ids[a] = ids[b];
+    ids[b] = id;
+    double score = scores[a];
+    scores[a] = scores[b];
+    scores[b] = score;
+  }
+}
@@ -1,26 +1,41 @@
 package nus.iss.team3.backend.businessService;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import nus.iss.team3.backend.businessService.ingredient.IngredientBusinessService;
 import nus.iss.team3.backend.domainService.ingredient.IIngredientService;
-import nus.iss.team3.backend.domainService.notification.NotificationService;
+import nus.iss.team3.backend.domainService.notification.INotificationService;
 import nus.iss.team3.backend.domainService.user.UserAccountService;
 import nus.iss.team3.backend.entity.ENotificationType;
+import nus.iss.team3.backend.entity.ExpiryNotification;
+import nus.iss.team3.backend.entity.IngredientExpiryAlert;
+import nus.iss.team3.backend.entity.IngredientExpiryNotice;
 import nus.iss.team3.backend.entity.Notification;
 import nus.iss.team3.backend.entity.UserIngredient;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.stubbing.Answer;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(SpringExtension.class)
 public class TestIngredientBusinessService {
@@ -29,10 +44,20 @@ public class TestIngredientBusinessService {
 
   @Mock private IIngredientService ingredientService;
 
-  @Mock private NotificationService notificationService;
+  @Mock private INotificationService notificationService;
 
   @Mock private UserAccountService userAccountService;
 
+  @Spy private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @BeforeEach
+  public void setUp() {
+    // one shard left to claim, shard 0
+    when(ingredientService.claimExpiryCheckShard(any())).thenReturn(0, (Integer) null);
+    when(ingredientService.completeExpiryCheckShard(any())).thenReturn(true);
+    when(notificationService.createExpiryNotifications(any())).thenAnswer(allCreated());
+  }
+
   @Test
   public void checkIngredientsExpiry_nullExpiring() {
     // Prepare test data
@@ -40,13 +65,16 @@ public class TestIngredientBusinessService {
     List<UserIngredient> expiringIngredients = null;
 
     // Setup mock behavior
-    when(ingredientService.getExpiringIngredientsInRange()).thenReturn(expiringIngredients);
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(0), eq(16)))
+        .thenReturn(expiringIngredients);
 
     // Execute test
     ingredientBusinessService.checkIngredientsExpiry();
 
     // Verify expected method calls
-    verify(ingredientService, times(1)).getExpiringIngredientsInRange();
+    verify(ingredientService, times(1))
+        .getExpiringIngredientsNotNotified(any(), eq(List.of(3, 1)), eq(0), eq(16));
   }
 
   @Test
@@ -56,13 +84,16 @@ public class TestIngredientBusinessService {
     List<UserIngredient> expiringIngredients = new ArrayList<>();
 
     // Setup mock behavior
-    when(ingredientService.getExpiringIngredientsInRange()).thenReturn(expiringIngredients);
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(0), eq(16)))
+        .thenReturn(expiringIngredients);
 
     // Execute test
     ingredientBusinessService.checkIngredientsExpiry();
 
     // Verify expected method calls
-    verify(ingredientService, times(1)).getExpiringIngredientsInRange();
+    verify(ingredientService, times(1))
+        .getExpiringIngredientsNotNotified(any(), eq(List.of(3, 1)), eq(0), eq(16));
   }
 
   @Test
@@ -91,23 +122,37 @@ public class TestIngredientBusinessService {
     List<UserIngredient> expiringIngredients = Arrays.asList(expiringIn3Days, expiringIn1Day);
 
     // Setup mock behavior
-    when(ingredientService.getExpiringIngredientsInRange()).thenReturn(expiringIngredients);
-    when(notificationService.getNotificationsForUser(eq(userId), anyInt())).thenReturn(List.of());
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(0), eq(16)))
+        .thenReturn(expiringIngredients);
 
     // Execute test
     ingredientBusinessService.checkIngredientsExpiry();
 
     // Verify expected method calls
-    verify(ingredientService, times(1)).getExpiringIngredientsInRange();
-    verify(notificationService, times(2))
-        .createNotification(
+    verify(ingredientService, times(1))
+        .getExpiringIngredientsNotNotified(any(), eq(List.of(3, 1)), eq(0), eq(16));
+    // both notifications of the user in one batch
+    verify(notificationService, times(1))
+        .createExpiryNotifications(
             argThat(
-                notification ->
-                    notification.getUserId() == userId
-                        && (notification.getTitle().equals("Ingredient Expiry Notice")
-                            || notification.getTitle().equals("Ingredient Expiry Alert"))
-                        && notification.getType() == ENotificationType.INFO
-                        && !notification.getIsRead()));
+                expiryNotifications ->
+                    expiryNotifications.size() == 2
+                        && expiryNotifications.stream()
+                            .allMatch(
+                                expiryNotification ->
+                                    expiryNotification.getNotices().size() == 1
+                                        && expiryNotification.getNotification().getUserId()
+                                            == userId
+                                        && expiryNotification.getNotification().getType()
+                                            == ENotificationType.INFO
+                                        && !expiryNotification.getNotification().getIsRead())
+                        && expiryNotifications.stream()
+                            .map(ExpiryNotification::getNotification)
+                            .map(Notification::getTitle)
+                            .toList()
+                            .containsAll(
+                                List.of("Ingredient Expiry Notice", "Ingredient Expiry Alert"))));
   }
 
   @Test
@@ -136,19 +181,21 @@ public class TestIngredientBusinessService {
     List<UserIngredient> expiringIngredients = Arrays.asList(expiringIn3Days, expiringIn1Day);
 
     // Setup mock behavior
-    when(ingredientService.getExpiringIngredientsInRange()).thenReturn(expiringIngredients);
-    when(notificationService.getNotificationsForUser(eq(userId), anyInt())).thenReturn(List.of());
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(0), eq(16)))
+        .thenReturn(expiringIngredients);
 
     // Execute test
     ingredientBusinessService.checkIngredientsExpiry();
 
     // Verify expected method calls
-    verify(ingredientService, times(1)).getExpiringIngredientsInRange();
-    verify(notificationService, never()).createNotification(any());
+    verify(ingredientService, times(1))
+        .getExpiringIngredientsNotNotified(any(), eq(List.of(3, 1)), eq(0), eq(16));
+    verify(notificationService, never()).createExpiryNotifications(any());
   }
 
   @Test
-  public void checkIngredientsExpiryWithExistingNotifications() {
+  public void checkIngredientsExpiry_alreadyNotified() {
     // Prepare test data
     Integer userId = 1;
 
@@ -161,30 +208,37 @@ public class TestIngredientBusinessService {
     expiringIn3Days.setExpiryDate(
         Date.from(LocalDate.now().plusDays(3).atStartOfDay(ZoneId.systemDefault()).toInstant()));
 
-    // Create existing notification
-    Notification existingNotification = new Notification();
-    existingNotification.setContent(
-        String.format(
-            "Your ingredient '%s' will expire in %d day(s), quantity: %.1f%s, please use it before it expires.",
-            expiringIn3Days.getName(), 3, expiringIn3Days.getQuantity(), expiringIn3Days.getUom()));
-
     List<UserIngredient> expiringIngredients = List.of(expiringIn3Days);
 
-    // Setup mock behavior
-    when(ingredientService.getExpiringIngredientsInRange()).thenReturn(expiringIngredients);
-    when(notificationService.getNotificationsForUser(eq(userId), anyInt()))
-        .thenReturn(List.of(existingNotification));
-    when(ingredientService.getIngredientById(1)).thenReturn(expiringIn3Days);
+    // Setup mock behavior, the ledger already holds the ingredient (a concurrent check won)
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(0), eq(16)))
+        .thenReturn(expiringIngredients);
+    when(notificationService.createExpiryNotifications(any())).thenReturn(List.of());
 
     // Execute test
     ingredientBusinessService.checkIngredientsExpiry();
 
-    // Verify that no new notifications are created
+    // Verify that the notification was only attempted through the ledger
+    verify(notificationService, times(1))
+        .createExpiryNotifications(
+            argThat(
+                expiryNotifications ->
+                    expiryNotifications.size() == 1
+                        && expiryNotifications
+                            .get(0)
+                            .getNotices()
+                            .equals(
+                                List.of(
+                                    new IngredientExpiryNotice(
+                                        userId, 1, LocalDate.now().plusDays(3), 3)))));
     verify(notificationService, never()).createNotification(any());
+    verify(ingredientService, never()).getIngredientById(anyInt());
+    assertEquals(1.0, count(IngredientBusinessService.METRIC_NOTIFICATIONS, "skipped"));
   }
 
   @Test
-  public void checkIngredientsExpiryWithExistingNotifications_multipleItem() {
+  public void checkIngredientsExpiry_multipleItem() {
     // Prepare test data
     Integer userId = 1;
 
@@ -214,28 +268,353 @@ public class TestIngredientBusinessService {
       expiringIngredients.add(expiringIn3Days);
     }
 
-    List<Notification> existingNotification = null;
-    // Create existing notification
+    expiringIngredients.get(1).setId(2);
 
     // Setup mock behavior
-    when(ingredientService.getExpiringIngredientsInRange()).thenReturn(expiringIngredients);
-    when(notificationService.getNotificationsForUser(eq(userId), anyInt()))
-        .thenReturn(existingNotification);
-    when(ingredientService.getIngredientById(anyInt()))
-        .thenReturn(expiringIngredients.get(0), expiringIngredients.get(1));
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(0), eq(16)))
+        .thenReturn(expiringIngredients);
 
     // Execute test
     ingredientBusinessService.checkIngredientsExpiry();
 
-    // Verify that no new notifications are created
+    // Verify that one notification is created for both ingredients
     verify(notificationService, times(1))
-        .createNotification(
+        .createExpiryNotifications(
+            argThat(
+                expiryNotifications ->
+                    expiryNotifications.size() == 1
+                        && expiryNotifications.get(0).getNotices().size() == 2
+                        && expiryNotifications.get(0).getNotification().getUserId() == userId
+                        && expiryNotifications
+                            .get(0)
+                            .getNotification()
+                            .getTitle()
+                            .equals("Ingredient Expiry Notice")
+                        && expiryNotifications.get(0).getNotification().getType()
+                            == ENotificationType.INFO
+                        && !expiryNotifications.get(0).getNotification().getIsRead()));
+  }
+
+  @Test
+  public void checkIngredientsExpiry_usersInParallel_atMostConcurrency() {
+    ReflectionTestUtils.setField(ingredientBusinessService, "concurrency", 3);
+    List<UserIngredient> expiringIngredients = new ArrayList<>();
+    for (int userId = 1; userId <= 20; userId++) {
+      expiringIngredients.add(createExpiringIngredient(userId, userId, 3));
+    }
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(0), eq(16)))
+        .thenReturn(expiringIngredients);
+    when(notificationService.createExpiryNotifications(any()))
+        .thenAnswer(
+            invocation -> {
+              maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+              Thread.sleep(20);
+              running.decrementAndGet();
+              return notifications(invocation.getArgument(0));
+            });
+
+    ingredientBusinessService.checkIngredientsExpiry();
+
+    verify(notificationService, times(20)).createExpiryNotifications(any());
+    assertTrue(maxRunning.get() > 1 && maxRunning.get() <= 3, "max running " + maxRunning);
+    assertEquals(20.0, count(IngredientBusinessService.METRIC_USERS, "success"));
+    assertEquals(20.0, count(IngredientBusinessService.METRIC_NOTIFICATIONS, "created"));
+  }
+
+  @Test
+  public void checkIngredientsExpiry_userFails_othersNotified() {
+    List<UserIngredient> expiringIngredients =
+        List.of(
+            createExpiringIngredient(1, 1, 3),
+            createExpiringIngredient(2, 2, 1),
+            createExpiringIngredient(3, 3, 3));
+
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(0), eq(16)))
+        .thenReturn(expiringIngredients);
+    when(notificationService.createExpiryNotifications(any()))
+        .thenAnswer(
+            invocation -> {
+              List<Notification> notifications = notifications(invocation.getArgument(0));
+              int userId = notifications.get(0).getUserId();
+              if (userId == 2) {
+                throw new IllegalStateException("notification service down");
+              }
+              // user 3 already notified, by another check
+              return userId == 3 ? List.of() : notifications;
+            });
+
+    ingredientBusinessService.checkIngredientsExpiry();
+
+    verify(notificationService, times(3)).createExpiryNotifications(any());
+    assertEquals(2.0, count(IngredientBusinessService.METRIC_USERS, "success"));
+    assertEquals(1.0, count(IngredientBusinessService.METRIC_USERS, "failure"));
+    assertEquals(1.0, count(IngredientBusinessService.METRIC_NOTIFICATIONS, "created"));
+    assertEquals(1.0, count(IngredientBusinessService.METRIC_NOTIFICATIONS, "skipped"));
+    assertEquals(1, meterRegistry.get(IngredientBusinessService.METRIC_DURATION).timer().count());
+  }
+
+  @Test
+  public void checkIngredientsExpiry_claimsShardsUntilNoneLeft() {
+    when(ingredientService.claimExpiryCheckShard(any())).thenReturn(3, 7, null);
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(3), eq(16)))
+        .thenReturn(List.of(createExpiringIngredient(1, 3, 3)));
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(7), eq(16)))
+        .thenReturn(List.of());
+
+    ingredientBusinessService.checkIngredientsExpiry();
+
+    verify(ingredientService, times(3))
+        .claimExpiryCheckShard(
+            argThat(lease -> lease.getShard() == null && lease.getShardCount() == 16));
+    verify(ingredientService).completeExpiryCheckShard(argThat(lease -> lease.getShard() == 3));
+    verify(ingredientService).completeExpiryCheckShard(argThat(lease -> lease.getShard() == 7));
+    verify(notificationService, times(1)).createExpiryNotifications(any());
+    assertEquals(2.0, count(IngredientBusinessService.METRIC_SHARDS, "completed"));
+  }
+
+  @Test
+  public void checkIngredientsExpiry_shardFails_leftLeasedAndOthersChecked() {
+    when(ingredientService.claimExpiryCheckShard(any())).thenReturn(0, 1, null);
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(0), eq(16)))
+        .thenThrow(new IllegalStateException("database down"));
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(1), eq(16)))
+        .thenReturn(List.of());
+
+    ingredientBusinessService.checkIngredientsExpiry();
+
+    verify(ingredientService, never())
+        .completeExpiryCheckShard(argThat(lease -> lease.getShard() == 0));
+    verify(ingredientService).completeExpiryCheckShard(argThat(lease -> lease.getShard() == 1));
+    assertEquals(1.0, count(IngredientBusinessService.METRIC_SHARDS, "failure"));
+  }
+
+  @Test
+  public void checkIngredientsExpiry_leaseLost_stopsCheckingShard() {
+    ReflectionTestUtils.setField(ingredientBusinessService, "concurrency", 1);
+    AtomicLong millis = new AtomicLong();
+    Clock clock = mock(Clock.class);
+    when(clock.millis()).thenAnswer(invocation -> millis.get());
+    ReflectionTestUtils.setField(ingredientBusinessService, "clock", clock);
+    List<UserIngredient> expiringIngredients = new ArrayList<>();
+    for (int userId = 1; userId <= 5; userId++) {
+      expiringIngredients.add(createExpiringIngredient(userId, userId, 3));
+    }
+
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(0), eq(16)))
+        .thenReturn(expiringIngredients);
+    // the first user takes a whole lease, so the lease is due for renewal before the second
+    when(notificationService.createExpiryNotifications(any()))
+        .thenAnswer(
+            invocation -> {
+              millis.addAndGet(300_000);
+              return notifications(invocation.getArgument(0));
+            });
+    when(ingredientService.renewExpiryCheckShard(any())).thenReturn(false);
+
+    ingredientBusinessService.checkIngredientsExpiry();
+
+    verify(ingredientService, times(1)).renewExpiryCheckShard(any());
+    verify(notificationService, times(1)).createExpiryNotifications(any());
+    verify(ingredientService, never()).completeExpiryCheckShard(any());
+    assertEquals(1.0, count(IngredientBusinessService.METRIC_SHARDS, "lost"));
+  }
+
+  @Test
+  public void checkIngredientsExpiry_leaseRenewed_shardCompleted() {
+    ReflectionTestUtils.setField(ingredientBusinessService, "concurrency", 1);
+    AtomicLong millis = new AtomicLong();
+    Clock clock = mock(Clock.class);
+    when(clock.millis()).thenAnswer(invocation -> millis.get());
+    ReflectionTestUtils.setField(ingredientBusinessService, "clock", clock);
+    List<UserIngredient> expiringIngredients = new ArrayList<>();
+    for (int userId = 1; userId <= 3; userId++) {
+      expiringIngredients.add(createExpiringIngredient(userId, userId, 3));
+    }
+
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(0), eq(16)))
+        .thenReturn(expiringIngredients);
+    when(notificationService.createExpiryNotifications(any()))
+        .thenAnswer(
+            invocation -> {
+              millis.addAndGet(300_000);
+              return notifications(invocation.getArgument(0));
+            });
+    when(ingredientService.renewExpiryCheckShard(any())).thenReturn(true);
+
+    ingredientBusinessService.checkIngredientsExpiry();
+
+    // renewed before the second and the third user
+    verify(ingredientService, times(2)).renewExpiryCheckShard(any());
+    verify(notificationService, times(3)).createExpiryNotifications(any());
+    verify(ingredientService).completeExpiryCheckShard(argThat(lease -> lease.getShard() == 0));
+  }
+
+  @Test
+  public void flushExpiryAlerts_consolidatedByUserAndDays() {
+    ReflectionTestUtils.setField(ingredientBusinessService, "alertBatchSize", 2);
+    when(ingredientService.pollDueExpiryAlerts(2))
+        .thenReturn(
+            List.of(
+                new IngredientExpiryAlert(createExpiringIngredient(1, 1, 3), 3),
+                new IngredientExpiryAlert(createExpiringIngredient(2, 1, 3), 3)),
+            List.of(new IngredientExpiryAlert(createExpiringIngredient(3, 2, 1), 1)));
+    ingredientBusinessService.flushExpiryAlerts();
+
+    // a full batch is followed by the next one, a partial batch ends the flush
+    verify(ingredientService, times(2)).pollDueExpiryAlerts(2);
+    verify(notificationService)
+        .createExpiryNotifications(
             argThat(
-                notification ->
-                    notification.getUserId() == userId
-                        && (notification.getTitle().equals("Ingredient Expiry Notice")
-                            || notification.getTitle().equals("Ingredient Expiry Alert"))
-                        && notification.getType() == ENotificationType.INFO
-                        && !notification.getIsRead()));
+                expiryNotifications ->
+                    expiryNotifications.size() == 1
+                        && expiryNotifications.get(0).getNotification().getUserId() == 1
+                        && expiryNotifications.get(0).getNotices().size() == 2));
+    verify(notificationService)
+        .createExpiryNotifications(
+            argThat(
+                expiryNotifications ->
+                    expiryNotifications.size() == 1
+                        && expiryNotifications.get(0).getNotification().getUserId() == 2
+                        && expiryNotifications
+                            .get(0)
+                            .getNotification()
+                            .getTitle()
+                            .equals("Ingredient Expiry Alert")));
+    verify(ingredientService, never()).claimExpiryCheckShard(any());
+    verify(ingredientService, never()).releaseExpiryAlerts(any());
+    assertEquals(3.0, meterRegistry.get(IngredientBusinessService.METRIC_ALERTS).counter().count());
+  }
+
+  @Test
+  public void flushExpiryAlerts_notNotified_alertsReleased() {
+    IngredientExpiryAlert created = new IngredientExpiryAlert(createExpiringIngredient(1, 1, 3), 3);
+    IngredientExpiryAlert failed = new IngredientExpiryAlert(createExpiringIngredient(2, 2, 1), 1);
+    IngredientExpiryAlert skipped = new IngredientExpiryAlert(createExpiringIngredient(3, 3, 1), 1);
+    when(ingredientService.pollDueExpiryAlerts(500)).thenReturn(List.of(created, failed, skipped));
+    when(ingredientService.releaseExpiryAlerts(any())).thenReturn(true);
+    when(notificationService.createExpiryNotifications(any()))
+        .thenAnswer(
+            invocation -> {
+              List<Notification> notifications = notifications(invocation.getArgument(0));
+              int userId = notifications.get(0).getUserId();
+              if (userId == 2) {
+                throw new IllegalStateException("notification service down");
+              }
+              // user 3 already notified, by another check
+              return userId == 3 ? List.of() : notifications;
+            });
+
+    ingredientBusinessService.flushExpiryAlerts();
+
+    // the queue alerts them again on its next reload, unless the ledger has them
+    verify(ingredientService)
+        .releaseExpiryAlerts(
+            argThat(alerts -> alerts.size() == 2 && alerts.containsAll(List.of(failed, skipped))));
+  }
+
+  @Test
+  public void flushExpiryAlerts_checkRunning_skipped() {
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(0), eq(16)))
+        .thenReturn(List.of(createExpiringIngredient(1, 1, 3)));
+    // the flush comes up while the check notifies its users
+    when(notificationService.createExpiryNotifications(any()))
+        .thenAnswer(
+            invocation -> {
+              ingredientBusinessService.flushExpiryAlerts();
+              return notifications(invocation.getArgument(0));
+            });
+
+    ingredientBusinessService.checkIngredientsExpiry();
+
+    verify(notificationService, times(1)).createExpiryNotifications(any());
+    verify(ingredientService, never()).pollDueExpiryAlerts(anyInt());
+  }
+
+  @Test
+  public void checkIngredientsExpiry_alreadyRunning_skipped() {
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(0), eq(16)))
+        .thenReturn(List.of(createExpiringIngredient(1, 1, 3)));
+    List<Boolean> overlapping = new ArrayList<>();
+    // a manual check comes in while the scheduled one notifies its users
+    when(notificationService.createExpiryNotifications(any()))
+        .thenAnswer(
+            invocation -> {
+              overlapping.add(ingredientBusinessService.checkIngredientsExpiry());
+              overlapping.add(
+                  ingredientBusinessService.startIngredientsExpiryCheck("manual-check"));
+              return notifications(invocation.getArgument(0));
+            });
+
+    assertTrue(ingredientBusinessService.checkIngredientsExpiry());
+
+    assertEquals(List.of(false, false), overlapping);
+    // shard 0, then none left, by the check running only
+    verify(ingredientService, times(2)).claimExpiryCheckShard(any());
+  }
+
+  @Test
+  public void startIngredientsExpiryCheck_runsOnItsOwnThread() {
+    AtomicReference<String> checkedOn = new AtomicReference<>();
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            any(), eq(List.of(3, 1)), eq(0), eq(16)))
+        .thenAnswer(
+            invocation -> {
+              checkedOn.set(Thread.currentThread().getName());
+              return List.of();
+            });
+
+    assertTrue(ingredientBusinessService.startIngredientsExpiryCheck("manual-check"));
+
+    verify(ingredientService, timeout(5000)).completeExpiryCheckShard(any());
+    assertEquals("manual-check", checkedOn.get());
+  }
+
+  @Test
+  public void flushExpiryAlerts_noneDue() {
+    when(ingredientService.pollDueExpiryAlerts(anyInt())).thenReturn(List.of());
+
+    ingredientBusinessService.flushExpiryAlerts();
+
+    verify(ingredientService, times(1)).pollDueExpiryAlerts(500);
+    verifyNoInteractions(notificationService);
+  }
+
+  private UserIngredient createExpiringIngredient(int id, int userId, int days) {
+    UserIngredient ingredient = new UserIngredient();
+    ingredient.setId(id);
+    ingredient.setUserId(userId);
+    ingredient.setName("Ingredient " + id);
+    ingredient.setQuantity(1.0);
+    ingredient.setUom("kg");
+    ingredient.setExpiryDate(
+        Date.from(LocalDate.now().plusDays(days).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+    return ingredient;
+  }
+
+  // every notification of the batch created
+  private static Answer<List<Notification>> allCreated() {
+    return invocation -> notifications(invocation.getArgument(0));
+  }
+
+  private static List<Notification> notifications(List<ExpiryNotification> expiryNotifications) {
+    return expiryNotifications.stream().map(ExpiryNotification::getNotification).toList();
+  }
+
+  private double count(String metric, String result) {
+    return meterRegistry.get(metric).tag("result", result).counter().count();
   }
 }
@@ -0,0 +1,125 @@
+package nus.iss.team3.backend.businessService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import nus.iss.team3.backend.businessService.notification.INotificationWebSocketObserver;
+import nus.iss.team3.backend.businessService.notification.NotificationBusinessService;
+import nus.iss.team3.backend.domainService.notification.INotificationService;
+import nus.iss.team3.backend.entity.ENotificationType;
+import nus.iss.team3.backend.entity.ExpiryNotification;
+import nus.iss.team3.backend.entity.Notification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(SpringExtension.class)
+public class TestNotificationBusinessService {
+
+  @InjectMocks private NotificationBusinessService notificationBusinessService;
+
+  @Mock private INotificationService notificationService;
+
+  @Mock private INotificationWebSocketObserver notificationObserver;
+
+  @AfterEach
+  public void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  public void createNotifications_pushedPerUser() {
+    Notification first = generateNotification(1, 1);
+    Notification second = generateNotification(2, 2);
+    Notification third = generateNotification(3, 1);
+    List<Notification> notifications = List.of(first, second, third);
+    when(notificationService.createNotifications(notifications)).thenReturn(notifications);
+
+    assertEquals(notifications, notificationBusinessService.createNotifications(notifications));
+
+    verify(notificationObserver, times(1)).sendMessages("create", 1, List.of(first, third));
+    verify(notificationObserver, times(1)).sendMessages("create", 2, List.of(second));
+  }
+
+  @Test
+  public void createNotifications_inTransaction_pushedAfterCommit() {
+    List<Notification> notifications = List.of(generateNotification(1, 1));
+    when(notificationService.createNotifications(notifications)).thenReturn(notifications);
+    TransactionSynchronizationManager.initSynchronization();
+
+    notificationBusinessService.createNotifications(notifications);
+
+    verifyNoInteractions(notificationObserver);
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    verify(notificationObserver, times(1)).sendMessages("create", 1, notifications);
+  }
+
+  @Test
+  public void createNotifications_notCreated_notPushed() {
+    List<Notification> notifications = List.of(generateNotification(1, 1));
+    when(notificationService.createNotifications(notifications)).thenReturn(null);
+
+    assertNull(notificationBusinessService.createNotifications(notifications));
+
+    verifyNoInteractions(notificationObserver);
+  }
+
+  @Test
+  public void createNotifications_pushFails_othersPushed() {
+    List<Notification> notifications =
+        List.of(generateNotification(1, 1), generateNotification(2, 2));
+    when(notificationService.createNotifications(notifications)).thenReturn(notifications);
+    doThrow(new IllegalStateException("session closed"))
+        .when(notificationObserver)
+        .sendMessages(eq("create"), eq(1), anyList());
+
+    assertEquals(notifications, notificationBusinessService.createNotifications(notifications));
+
+    verify(notificationObserver, times(1)).sendMessages(eq("create"), eq(2), anyList());
+  }
+
+  @Test
+  public void createExpiryNotifications_createdPushed() {
+    Notification first = generateNotification(1, 1);
+    Notification second = generateNotification(2, 1);
+    List<ExpiryNotification> expiryNotifications =
+        List.of(
+            new ExpiryNotification(first, List.of()), new ExpiryNotification(second, List.of()));
+    // the second was left out, its ingredients already notified
+    when(notificationService.createExpiryNotifications(expiryNotifications))
+        .thenReturn(List.of(first));
+
+    assertEquals(
+        List.of(first), notificationBusinessService.createExpiryNotifications(expiryNotifications));
+
+    verify(notificationObserver, times(1)).sendMessages("create", 1, List.of(first));
+  }
+
+  @Test
+  public void createExpiryNotifications_notCreated_notPushed() {
+    List<ExpiryNotification> expiryNotifications =
+        List.of(new ExpiryNotification(generateNotification(1, 1), List.of()));
+    when(notificationService.createExpiryNotifications(expiryNotifications)).thenReturn(null);
+
+    assertNull(notificationBusinessService.createExpiryNotifications(expiryNotifications));
+
+    verifyNoInteractions(notificationObserver);
+  }
+
+  private Notification generateNotification(int id, int userId) {
+    Notification notification =
+        new Notification(userId, "test title", "test content", ENotificationType.INFO);
+    notification.setId(id);
+    return notification;
+  }
+}
@@ -5,6 +5,7 @@ import static org.mockito.Mockito.*;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.List;
 import nus.iss.team3.backend.businessService.notification.NotificationWebSocketObserver;
 import nus.iss.team3.backend.entity.ENotificationType;
 import nus.iss.team3.backend.entity.Notification;
@@ -184,6 +185,22 @@ public class TestNotificationWebSocketObserver {
     verify(session2, times(1)).sendMessage(any(TextMessage.class));
   }
 
+  @Test
+  public void sendMessages_eachNotificationToEachSession() throws IOException {
+
+    WebSocketSession session1 = generateSampleWebSocketSession();
+    WebSocketSession session2 = generateSampleWebSocketSession();
+    notificationWebSocketObserver.registerUserSession(1, session1);
+    notificationWebSocketObserver.registerUserSession(1, session2);
+
+    notificationWebSocketObserver.sendMessages(
+        "create", 1, List.of(generateNotification(), generateNotification()));
+    notificationWebSocketObserver.sendMessages("create", 2, List.of(generateNotification()));
+
+    verify(session1, times(2)).sendMessage(any(TextMessage.class));
+    verify(session2, times(2)).sendMessage(any(TextMessage.class));
+  }
+
   private WebSocketSession generateSampleWebSocketSession() {
     WebSocketSession session = mock(WebSocketSession.class);
     when(session.getId()).thenReturn("1");
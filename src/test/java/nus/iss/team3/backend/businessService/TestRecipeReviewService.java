@@ -14,6 +14,7 @@ import nus.iss.team3.backend.domainService.review.IReviewService;
 import nus.iss.team3.backend.entity.Recipe;
 import nus.iss.team3.backend.entity.RecipeReview;
 import nus.iss.team3.backend.entity.RecipeWithReviews;
+import nus.iss.team3.backend.entity.ReviewPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -55,8 +56,9 @@ public class TestRecipeReviewService {
     // Arrange
     Long recipeId = 1L;
     when(mockRecipeService.getRecipeById(recipeId)).thenReturn(sampleRecipe);
-    when(mockReviewService.getReviewsByRecipeId(recipeId))
-        .thenReturn(List.of(sampleRecipeWithReviews.getReviews().getFirst()));
+    when(mockReviewService.getReviewsByRecipeId(
+            recipeId, false, null, ReviewPage.DEFAULT_PAGE_SIZE))
+        .thenReturn(new ReviewPage(sampleRecipeWithReviews.getReviews(), "next", 21));
 
     // Act
     RecipeWithReviews result = recipeReviewService.getRecipeWithReviewsById(recipeId);
@@ -67,9 +69,11 @@ public class TestRecipeReviewService {
     assertEquals(sampleRecipe.getName(), result.getRecipe().getName());
     assertEquals(1, result.getReviews().size());
     assertEquals("Excellent recipe!", result.getReviews().getFirst().getComments());
+    assertEquals(21, result.getReviewCount());
 
+    // only the first page of the reviews, not all of them
     verify(mockRecipeService, times(1)).getRecipeById(recipeId);
-    verify(mockReviewService, times(1)).getReviewsByRecipeId(recipeId);
+    verify(mockReviewService, never()).getReviewsByRecipeId(recipeId);
   }
 
   /** Test getting a recipe with reviews by ID when the recipe is not found. */
@@ -86,14 +90,19 @@ public class TestRecipeReviewService {
     assertNull(result);
     verify(mockRecipeService, times(1)).getRecipeById(recipeId);
     verify(mockReviewService, never()).getReviewsByRecipeId(recipeId);
+    verify(mockReviewService, never())
+        .getReviewsByRecipeId(anyLong(), anyBoolean(), any(), anyInt());
   }
 
   /** Test successfully getting all recipes with reviews. */
   @Test
   void getAllRecipesWithReviews_Success() {
     // Arrange
-    when(mockRecipeService.getAllRecipes()).thenReturn(List.of(sampleRecipe));
-    when(mockReviewService.getReviewsByRecipeId(sampleRecipe.getId()))
+    Recipe unreviewed = new Recipe();
+    unreviewed.setId(2L);
+    sampleRecipe.setReviewCount(1);
+    when(mockRecipeService.getAllRecipes()).thenReturn(List.of(sampleRecipe, unreviewed));
+    when(mockReviewService.getReviewsByRecipeIds(List.of(1L, 2L), ReviewPage.DEFAULT_PAGE_SIZE))
         .thenReturn(List.of(sampleRecipeWithReviews.getReviews().getFirst()));
 
     // Act
@@ -101,228 +110,86 @@ public class TestRecipeReviewService {
 
     // Assert
     assertNotNull(result);
-    assertEquals(1, result.size());
+    assertEquals(2, result.size());
     assertEquals(sampleRecipe.getId(), result.getFirst().getRecipe().getId());
     assertEquals(sampleRecipe.getName(), result.getFirst().getRecipe().getName());
     assertEquals(1, result.getFirst().getReviews().size());
     assertEquals("Excellent recipe!", result.getFirst().getReviews().getFirst().getComments());
+    assertEquals(1, result.getFirst().getReviewCount());
+    assertTrue(result.get(1).getReviews().isEmpty());
+    assertEquals(0, result.get(1).getReviewCount());
 
+    // one call for the reviews of all recipes
     verify(mockRecipeService, times(1)).getAllRecipes();
-    verify(mockReviewService, times(1)).getReviewsByRecipeId(sampleRecipe.getId());
-  }
-
-  /** Test getting all recipes with reviews when there are no recipes. */
-  @Test
-  void getAllRecipesWithReviews_EmptyList() {
-    // Arrange
-    when(mockRecipeService.getAllRecipes()).thenReturn(List.of());
-
-    // Act
-    List<RecipeWithReviews> result = recipeReviewService.getAllRecipesWithReviews();
-
-    // Assert
-    assertNotNull(result);
-    assertTrue(result.isEmpty());
-
-    verify(mockRecipeService, times(1)).getAllRecipes();
+    verify(mockReviewService, times(1)).getReviewsByRecipeIds(any(), anyInt());
     verify(mockReviewService, never()).getReviewsByRecipeId(anyLong());
   }
 
+  /**
+   * Test that all recipes with reviews ask only for the first page of many reviews, and count them
+   * from the recipe.
+   */
   @Test
-  void addReview_nullRecipe() {
-    // Arrange
-    RecipeReview inputReview = null;
-    List<RecipeReview> inputRecipeReviewList = null;
-    when(mockReviewService.getReviewsByRecipeId(anyLong())).thenReturn(inputRecipeReviewList);
-
-    // Act
-    recipeReviewService.addReview(inputReview);
-
-    // Assert
-
-    verify(mockReviewService, times(1)).addReview(any());
-    verify(mockReviewService, never()).getReviewsByRecipeId(anyLong());
-    verify(mockRecipeService, never()).updateRecipeRating(anyLong(), anyDouble());
-  }
-
-  @Test
-  void addReview_nullRecipeId() {
-    // Arrange
-    RecipeReview inputReview = new RecipeReview();
-    inputReview.setRecipeId(null);
-    List<RecipeReview> inputRecipeReviewList = null;
-    when(mockReviewService.getReviewsByRecipeId(anyLong())).thenReturn(inputRecipeReviewList);
-
-    // Act
-    recipeReviewService.addReview(inputReview);
-
-    // Assert
-
-    verify(mockReviewService, times(1)).addReview(any());
-    verify(mockReviewService, never()).getReviewsByRecipeId(anyLong());
-    verify(mockRecipeService, never()).updateRecipeRating(anyLong(), anyDouble());
-  }
-
-  @Test
-  void addReview_validRecipe_nullReviews() {
-    // Arrange
-    RecipeReview inputReview = new RecipeReview();
-    inputReview.setRecipeId(1L);
-    List<RecipeReview> inputRecipeReviewList = null;
-    when(mockReviewService.getReviewsByRecipeId(anyLong())).thenReturn(inputRecipeReviewList);
-
-    // Act
-    recipeReviewService.addReview(inputReview);
-
-    // Assert
-
-    verify(mockReviewService, times(1)).addReview(any());
-    verify(mockReviewService, times(1)).getReviewsByRecipeId(anyLong());
-    verify(mockRecipeService, never()).updateRecipeRating(anyLong(), anyDouble());
-  }
-
-  @Test
-  void addReview_validRecipe_emptyReviews() {
-    // Arrange
-    RecipeReview inputReview = new RecipeReview();
-    inputReview.setRecipeId(1L);
-    List<RecipeReview> inputRecipeReviewList = new ArrayList<>();
-    double averageRating = 4.0;
-    when(mockReviewService.getReviewsByRecipeId(anyLong())).thenReturn(inputRecipeReviewList);
-
-    // Act
-    recipeReviewService.addReview(inputReview);
-
-    // Assert
-
-    verify(mockReviewService, times(1)).addReview(any());
-    verify(mockReviewService, times(1)).getReviewsByRecipeId(anyLong());
-    verify(mockRecipeService, never()).updateRecipeRating(anyLong(), eq(averageRating));
-  }
-
-  @Test
-  void addReview_validRecipe_1Review_nullRating() {
+  void getAllRecipesWithReviews_ManyReviews_FirstPageOnly() {
     // Arrange
-    RecipeReview inputReview = new RecipeReview();
-    inputReview.setRecipeId(1L);
-    List<RecipeReview> inputRecipeReviewList = new ArrayList<>();
-    {
+    List<RecipeReview> reviews = new ArrayList<>();
+    for (long id = 1; id <= ReviewPage.DEFAULT_PAGE_SIZE; id++) {
       RecipeReview review = new RecipeReview();
-      review.setRating(null);
-      inputRecipeReviewList.add(review);
+      review.setId(id);
+      review.setRecipeId(sampleRecipe.getId());
+      reviews.add(review);
     }
-    double averageRating = 0.0;
-    when(mockReviewService.getReviewsByRecipeId(anyLong())).thenReturn(inputRecipeReviewList);
+    sampleRecipe.setReviewCount(ReviewPage.DEFAULT_PAGE_SIZE + 5);
+    when(mockRecipeService.getAllRecipes()).thenReturn(List.of(sampleRecipe));
+    when(mockReviewService.getReviewsByRecipeIds(List.of(1L), ReviewPage.DEFAULT_PAGE_SIZE))
+        .thenReturn(reviews);
 
     // Act
-    recipeReviewService.addReview(inputReview);
+    RecipeWithReviews result = recipeReviewService.getAllRecipesWithReviews().getFirst();
 
     // Assert
-
-    verify(mockReviewService, times(1)).addReview(any());
-    verify(mockReviewService, times(1)).getReviewsByRecipeId(anyLong());
-    verify(mockRecipeService, times(1)).updateRecipeRating(anyLong(), eq(averageRating));
+    assertEquals(ReviewPage.DEFAULT_PAGE_SIZE, result.getReviews().size());
+    assertEquals(1L, result.getReviews().getFirst().getId());
+    assertEquals(ReviewPage.DEFAULT_PAGE_SIZE + 5, result.getReviewCount());
   }
 
+  /** Test getting all recipes with reviews when there are no recipes. */
   @Test
-  void addReview_validRecipe_1Review_validRating() {
+  void getAllRecipesWithReviews_EmptyList() {
     // Arrange
-    RecipeReview inputReview = new RecipeReview();
-    inputReview.setRecipeId(1L);
-    List<RecipeReview> inputRecipeReviewList = new ArrayList<>();
-    {
-      RecipeReview review = new RecipeReview();
-      review.setRating(4.0);
-      inputRecipeReviewList.add(review);
-    }
-    double averageRating = 4.0;
-    when(mockReviewService.getReviewsByRecipeId(anyLong())).thenReturn(inputRecipeReviewList);
+    when(mockRecipeService.getAllRecipes()).thenReturn(List.of());
 
     // Act
-    recipeReviewService.addReview(inputReview);
+    List<RecipeWithReviews> result = recipeReviewService.getAllRecipesWithReviews();
 
     // Assert
+    assertNotNull(result);
+    assertTrue(result.isEmpty());
 
-    verify(mockReviewService, times(1)).addReview(any());
-    verify(mockReviewService, times(1)).getReviewsByRecipeId(anyLong());
-    verify(mockRecipeService, times(1)).updateRecipeRating(anyLong(), eq(averageRating));
+    verify(mockRecipeService, times(1)).getAllRecipes();
+    verify(mockReviewService, never()).getReviewsByRecipeId(anyLong());
   }
 
   @Test
-  void addReview_validRecipe_1Review_validRating_with_compute() {
-    // Arrange
-    RecipeReview inputReview = new RecipeReview();
-    inputReview.setRecipeId(1L);
-    List<RecipeReview> inputRecipeReviewList = new ArrayList<>();
-    {
-      RecipeReview review = new RecipeReview();
-      review.setRating(4.0);
-      inputRecipeReviewList.add(review);
-    }
-    {
-      RecipeReview review = new RecipeReview();
-      review.setRating(2.0);
-      inputRecipeReviewList.add(review);
-    }
-    {
-      RecipeReview review = new RecipeReview();
-      review.setRating(3.0);
-      inputRecipeReviewList.add(review);
-    }
-    {
-      RecipeReview review = new RecipeReview();
-      review.setRating(4.0);
-      inputRecipeReviewList.add(review);
-    }
-    double averageRating = 3.25;
-    when(mockReviewService.getReviewsByRecipeId(anyLong())).thenReturn(inputRecipeReviewList);
-
-    // Act
-    recipeReviewService.addReview(inputReview);
+  void addReview_null() {
+    recipeReviewService.addReview(null);
 
-    // Assert
-
-    verify(mockReviewService, times(1)).addReview(any());
-    verify(mockReviewService, times(1)).getReviewsByRecipeId(anyLong());
-    verify(mockRecipeService, times(1)).updateRecipeRating(anyLong(), eq(averageRating));
+    verify(mockReviewService, times(1)).addReview(null);
   }
 
   @Test
-  void addReview_validRecipe_1Review_validRating_with_compute_withNull() {
+  void addReview_validRecipe_noReviewRescan() {
     // Arrange
     RecipeReview inputReview = new RecipeReview();
     inputReview.setRecipeId(1L);
-    List<RecipeReview> inputRecipeReviewList = new ArrayList<>();
-    {
-      RecipeReview review = new RecipeReview();
-      review.setRating(4.0);
-      inputRecipeReviewList.add(review);
-    }
-    {
-      RecipeReview review = new RecipeReview();
-      review.setRating(2.0);
-      inputRecipeReviewList.add(review);
-    }
-    {
-      RecipeReview review = new RecipeReview();
-      review.setRating(null);
-      inputRecipeReviewList.add(review);
-    }
-    {
-      RecipeReview review = new RecipeReview();
-      review.setRating(4.0);
-      inputRecipeReviewList.add(review);
-    }
-    double averageRating = 2.5;
-    when(mockReviewService.getReviewsByRecipeId(anyLong())).thenReturn(inputRecipeReviewList);
+    inputReview.setRating(4.0);
 
     // Act
     recipeReviewService.addReview(inputReview);
 
-    // Assert
-
-    verify(mockReviewService, times(1)).addReview(any());
-    verify(mockReviewService, times(1)).getReviewsByRecipeId(anyLong());
-    verify(mockRecipeService, times(1)).updateRecipeRating(anyLong(), eq(averageRating));
+    // Assert: the recipe rating is maintained by the review write itself
+    verify(mockReviewService, times(1)).addReview(inputReview);
+    verify(mockReviewService, never()).getReviewsByRecipeId(anyLong());
+    verify(mockRecipeService, never()).updateRecipeRating(anyLong(), anyDouble());
   }
 }
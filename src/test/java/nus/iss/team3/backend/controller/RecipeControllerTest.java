@@ -1,28 +1,36 @@
 package nus.iss.team3.backend.controller;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import nus.iss.team3.backend.businessService.recipeReview.IRecipeReviewService;
 import nus.iss.team3.backend.domainService.recipe.IRecipePreferenceContext;
 import nus.iss.team3.backend.domainService.recipe.IRecipeService;
 import nus.iss.team3.backend.domainService.user.IUserAccountService;
 import nus.iss.team3.backend.entity.ERecipeStatus;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
+import nus.iss.team3.backend.entity.RecipeSummary;
+import nus.iss.team3.backend.entity.RecipeSummaryPage;
 import nus.iss.team3.backend.entity.RecipeWithReviews;
 import nus.iss.team3.backend.service.jwt.JwtRequestFilter;
 import nus.iss.team3.backend.service.jwt.JwtUtil;
@@ -34,6 +42,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -423,7 +432,8 @@ public class RecipeControllerTest {
       recipes.add(recipe1);
     }
 
-    when(recipePreferenceContext.recommend(any(), anyInt(), anyBoolean())).thenReturn(recipes);
+    when(recipePreferenceContext.recommend(any(), any(), anyInt(), anyBoolean()))
+        .thenReturn(recipes);
 
     // Act & Assert: Send GET request and verify response status and returned JSON content
     mockMvc
@@ -434,7 +444,41 @@ public class RecipeControllerTest {
         .andExpect(jsonPath("$[0].name", is("Recipe One")));
 
     // Verify the service layer method is called once
-    verify(recipePreferenceContext, times(1)).recommend(any(), anyInt(), anyBoolean());
+    verify(recipePreferenceContext, times(1))
+        .recommend(
+            eq(IRecipePreferenceContext.STRATEGY_USER_REVIEW), any(), anyInt(), anyBoolean());
+  }
+
+  @Test
+  void getRecipesViaRecommendation_isBySimilarity() throws Exception {
+    Recipe recipe = new Recipe();
+    recipe.setId(3L);
+    when(recipePreferenceContext.recommend(any(), any(), eq(1), anyBoolean()))
+        .thenReturn(List.of(recipe));
+
+    mockMvc
+        .perform(get("/recipe/recommend?userId=1&isBySimilarity=true"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id", is(3)));
+
+    verify(recipePreferenceContext, times(1))
+        .recommend(eq(IRecipePreferenceContext.STRATEGY_SIMILARITY), any(), eq(1), anyBoolean());
+  }
+
+  @Test
+  void getRecipesViaRecommendation_isByPantry() throws Exception {
+    Recipe recipe = new Recipe();
+    recipe.setId(4L);
+    when(recipePreferenceContext.recommend(any(), any(), eq(1), anyBoolean()))
+        .thenReturn(List.of(recipe));
+
+    mockMvc
+        .perform(get("/recipe/recommend?userId=1&isByPantry=true&isBySimilarity=true"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id", is(4)));
+
+    verify(recipePreferenceContext, times(1))
+        .recommend(eq(IRecipePreferenceContext.STRATEGY_PANTRY), any(), eq(1), anyBoolean());
   }
 
   @Test
@@ -455,7 +499,8 @@ public class RecipeControllerTest {
       recipes.add(recipe1);
     }
 
-    when(recipePreferenceContext.recommend(any(), anyInt(), anyBoolean())).thenReturn(recipes);
+    when(recipePreferenceContext.recommend(any(), any(), anyInt(), anyBoolean()))
+        .thenReturn(recipes);
 
     // Act & Assert: Send GET request and verify response status and returned JSON content
     mockMvc
@@ -466,7 +511,8 @@ public class RecipeControllerTest {
         .andExpect(jsonPath("$[0].name", is("Recipe One")));
 
     // Verify the service layer method is called once
-    verify(recipePreferenceContext, times(1)).recommend(any(), anyInt(), anyBoolean());
+    verify(recipePreferenceContext, times(1))
+        .recommend(eq(IRecipePreferenceContext.STRATEGY_RATING), any(), anyInt(), anyBoolean());
   }
 
   @Test
@@ -487,7 +533,8 @@ public class RecipeControllerTest {
       recipes.add(recipe1);
     }
 
-    when(recipePreferenceContext.recommend(any(), anyInt(), anyBoolean())).thenReturn(recipes);
+    when(recipePreferenceContext.recommend(any(), any(), anyInt(), anyBoolean()))
+        .thenReturn(recipes);
 
     // Act & Assert: Send GET request and verify response status and returned JSON content
     mockMvc
@@ -498,7 +545,8 @@ public class RecipeControllerTest {
         .andExpect(jsonPath("$[0].name", is("Recipe One")));
 
     // Verify the service layer method is called once
-    verify(recipePreferenceContext, times(1)).recommend(any(), anyInt(), anyBoolean());
+    verify(recipePreferenceContext, times(1))
+        .recommend(eq(IRecipePreferenceContext.STRATEGY_DIFFICULTY), any(), anyInt(), anyBoolean());
   }
 
   @Test
@@ -522,4 +570,196 @@ public class RecipeControllerTest {
     // Verify the service layer method is called once
     verify(recipeService, times(1)).updateRecipeRating(anyLong(), anyDouble());
   }
+
+  @Test
+  void recomputeReviewAggregates_Success() throws Exception {
+    when(recipeService.recomputeReviewAggregates()).thenReturn(3);
+
+    mockMvc
+        .perform(post("/recipe/rating/recompute"))
+        .andExpect(status().isOk())
+        .andExpect(content().string("3"));
+  }
+
+  @Test
+  void recomputeReviewAggregates_Failure() throws Exception {
+    when(recipeService.recomputeReviewAggregates()).thenThrow(new IllegalStateException("failed"));
+
+    mockMvc.perform(post("/recipe/rating/recompute")).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void getAllPublishedRecipesPage_Success() throws Exception {
+    when(recipeService.getAllPublishedRecipes("abc", 10))
+        .thenReturn(new RecipePage(List.of(sampleRecipe), "next"));
+
+    mockMvc
+        .perform(get("/recipe/published?limit=10&cursor=abc"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.recipes.length()", is(1)))
+        .andExpect(jsonPath("$.nextCursor", is("next")));
+
+    verify(recipeService, times(1)).getAllPublishedRecipes("abc", 10);
+    verify(recipeService, times(0)).getAllPublishedRecipes();
+  }
+
+  @Test
+  void searchRecipes_Success() throws Exception {
+    when(recipeService.searchRecipes("spicy noodles", RecipePage.DEFAULT_PAGE_SIZE))
+        .thenReturn(List.of(sampleRecipe));
+
+    mockMvc
+        .perform(get("/recipe/search").param("q", "spicy noodles"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()", is(1)))
+        .andExpect(jsonPath("$[0].name", is(sampleRecipe.getName())));
+
+    verify(recipeService, times(1)).searchRecipes("spicy noodles", RecipePage.DEFAULT_PAGE_SIZE);
+  }
+
+  @Test
+  void searchRecipes_EmptyQuery_ReturnsBadRequest() throws Exception {
+    when(recipeService.searchRecipes(" ", 5))
+        .thenThrow(new IllegalArgumentException("Search query cannot be empty"));
+
+    mockMvc
+        .perform(get("/recipe/search").param("q", " ").param("limit", "5"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void getAllRecipesPage_InvalidCursor_ReturnsBadRequest() throws Exception {
+    when(recipeService.getAllRecipes("bad", 10))
+        .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+    mockMvc.perform(get("/recipe?limit=10&cursor=bad")).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void searchRecipesByCreatorIdPage_Success() throws Exception {
+    when(recipeService.getRecipesByCreatorId(1, null, 5))
+        .thenReturn(new RecipePage(List.of(sampleRecipe), null));
+
+    mockMvc
+        .perform(get("/recipe/creator/1?limit=5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.recipes[0].id", is(1)));
+  }
+
+  @Test
+  void getRecipesViaRecommendationPage_Success() throws Exception {
+    when(recipePreferenceContext.recommend(any(), any(), eq(-1), eq(true), eq("c1"), eq(20)))
+        .thenReturn(new RecipePage(List.of(sampleRecipe), "c2"));
+
+    mockMvc
+        .perform(get("/recipe/recommend?isByRating=true&limit=20&cursor=c1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.nextCursor", is("c2")));
+
+    verify(recipePreferenceContext, times(1))
+        .recommend(
+            eq(IRecipePreferenceContext.STRATEGY_RATING),
+            any(),
+            eq(-1),
+            eq(true),
+            eq("c1"),
+            eq(20));
+  }
+
+  @Test
+  void getAllPublishedRecipeSummaries_Success() throws Exception {
+    when(recipeService.getPublishedRecipeSummaries("abc", 10))
+        .thenReturn(new RecipeSummaryPage(List.of(RecipeSummary.of(sampleRecipe)), "next"));
+
+    mockMvc
+        .perform(get("/recipe/published?limit=10&cursor=abc&view=summary"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.recipes[0].name", is(sampleRecipe.getName())))
+        .andExpect(jsonPath("$.recipes[0].ingredients").doesNotExist())
+        .andExpect(jsonPath("$.recipes[0].cookingSteps").doesNotExist())
+        .andExpect(jsonPath("$.nextCursor", is("next")));
+
+    verify(recipeService, times(0)).getAllPublishedRecipes("abc", 10);
+  }
+
+  @Test
+  void getRecipeSummariesViaRecommendationPage_Success() throws Exception {
+    when(recipePreferenceContext.recommendSummaries(
+            eq(IRecipePreferenceContext.STRATEGY_DIFFICULTY),
+            any(),
+            eq(-1),
+            eq(false),
+            eq(null),
+            eq(5)))
+        .thenReturn(new RecipeSummaryPage(List.of(RecipeSummary.of(sampleRecipe)), null));
+
+    mockMvc
+        .perform(get("/recipe/recommend?isDesc=false&limit=5&view=summary"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.recipes.length()", is(1)));
+
+    verify(recipePreferenceContext, times(0))
+        .recommend(any(), any(), anyInt(), anyBoolean(), any(), anyInt());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void exportPublishedRecipes_Json() throws Exception {
+    doAnswer(
+            invocation -> {
+              Consumer<Recipe> consumer = invocation.getArgument(0);
+              consumer.accept(sampleRecipe);
+              consumer.accept(sampleRecipe);
+              return null;
+            })
+        .when(recipeService)
+        .exportPublishedRecipes(any());
+
+    MvcResult mvcResult =
+        mockMvc.perform(get("/recipe/export")).andExpect(request().asyncStarted()).andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(mvcResult))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+        .andExpect(jsonPath("$.length()", is(2)))
+        .andExpect(jsonPath("$[0].name", is("Sample Recipe")));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void exportPublishedRecipes_Ndjson() throws Exception {
+    doAnswer(
+            invocation -> {
+              Consumer<Recipe> consumer = invocation.getArgument(0);
+              consumer.accept(sampleRecipe);
+              consumer.accept(sampleRecipe);
+              return null;
+            })
+        .when(recipeService)
+        .exportPublishedRecipes(any());
+
+    MvcResult mvcResult =
+        mockMvc
+            .perform(get("/recipe/export?format=ndjson"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    mockMvc
+        .perform(asyncDispatch(mvcResult))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(RecipeController.MEDIA_TYPE_NDJSON));
+
+    String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+    assertEquals(2, lines.length);
+    for (String line : lines) {
+      assertEquals("Sample Recipe", objectMapper.readValue(line, Recipe.class).getName());
+    }
+  }
+
+  @Test
+  void exportPublishedRecipes_UnknownFormat_ReturnsBadRequest() throws Exception {
+    mockMvc.perform(get("/recipe/export?format=csv")).andExpect(status().isBadRequest());
+
+    verify(recipeService, times(0)).exportPublishedRecipes(any());
+  }
 }
@@ -2,6 +2,7 @@ package nus.iss.team3.backend.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -13,6 +14,7 @@ import nus.iss.team3.backend.businessService.recipeReview.RecipeReviewService;
 import nus.iss.team3.backend.domainService.review.IReviewService;
 import nus.iss.team3.backend.domainService.user.IUserAccountService;
 import nus.iss.team3.backend.entity.RecipeReview;
+import nus.iss.team3.backend.entity.ReviewPage;
 import nus.iss.team3.backend.service.jwt.JwtRequestFilter;
 import nus.iss.team3.backend.service.jwt.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
@@ -176,6 +178,52 @@ public class ReviewControllerTest {
     assertEquals(reviews, response.getBody());
   }
 
+  @Test
+  public void testGetReviewsByRecipeIdPage() {
+    ReviewPage page = new ReviewPage(List.of(new RecipeReview()), "next", 7);
+    when(reviewService.getReviewsByRecipeId(1L, true, null, 10)).thenReturn(page);
+
+    ResponseEntity<ReviewPage> response =
+        reviewController.getReviewsByRecipeIdPage(1L, true, 10, null);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(page, response.getBody());
+  }
+
+  @Test
+  public void testGetReviewsByRecipeIdPage_InvalidCursor() {
+    when(reviewService.getReviewsByRecipeId(1L, false, "bad", 10))
+        .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+    ResponseEntity<ReviewPage> response =
+        reviewController.getReviewsByRecipeIdPage(1L, false, 10, "bad");
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+  }
+
+  @Test
+  public void testGetReviewsByRecipeIds() {
+    List<RecipeReview> reviews = List.of(new RecipeReview());
+    when(reviewService.getReviewsByRecipeIds(List.of(1L, 2L), 20)).thenReturn(reviews);
+
+    ResponseEntity<List<RecipeReview>> response =
+        reviewController.getReviewsByRecipeIds(List.of(1L, 2L), 20);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(reviews, response.getBody());
+  }
+
+  @Test
+  public void testGetReviewsByRecipeIds_Failure() {
+    when(reviewService.getReviewsByRecipeIds(any(), eq(20)))
+        .thenThrow(new IllegalStateException());
+
+    ResponseEntity<List<RecipeReview>> response =
+        reviewController.getReviewsByRecipeIds(List.of(1L), 20);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+  }
+
   @Test
   public void testGetReviewsByRecipeId_ReviewNotFound() {
     List<RecipeReview> reviews = null;
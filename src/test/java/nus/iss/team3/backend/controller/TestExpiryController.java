@@ -1,8 +1,14 @@
 package nus.iss.team3.backend.controller;
 
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import nus.iss.team3.backend.businessService.ingredient.IIngredientBusinessService;
 import nus.iss.team3.backend.domainService.user.IUserAccountService;
@@ -19,7 +25,10 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-@WebMvcTest(ExpiryController.class)
+// the check resumed on startup would call the business service before the test does
+@WebMvcTest(
+    value = ExpiryController.class,
+    properties = "ingredient.expiry-check.resume-on-startup=false")
 public class TestExpiryController {
 
   @MockBean private JwtUtil jwtUtil;
@@ -29,6 +38,8 @@ public class TestExpiryController {
 
   @Autowired private MockMvc mockMvc;
 
+  @Autowired private ExpiryController expiryController;
+
   @MockBean private IIngredientBusinessService ingredientBusinessService;
 
   @BeforeEach
@@ -40,10 +51,32 @@ public class TestExpiryController {
   }
 
   @Test
-  public void expiryCheck_Success() throws Exception {
+  public void expiryCheck_started_accepted() throws Exception {
+    when(ingredientBusinessService.startIngredientsExpiryCheck(anyString())).thenReturn(true);
+
+    mockMvc.perform(post("/expiry/check")).andExpect(status().isAccepted());
+
+    // started on a thread of its own, not run on the request thread
+    verify(ingredientBusinessService, times(1))
+        .startIngredientsExpiryCheck("manual-ingredient-expiry-check");
+    verify(ingredientBusinessService, never()).checkIngredientsExpiry();
+  }
+
+  @Test
+  public void expiryCheck_alreadyRunning_conflict() throws Exception {
+    when(ingredientBusinessService.startIngredientsExpiryCheck(anyString())).thenReturn(false);
+
+    mockMvc.perform(post("/expiry/check")).andExpect(status().isConflict());
+  }
+
+  @Test
+  public void flushExpiryAlerts_failureCaught() {
+    doThrow(new IllegalStateException("database down"))
+        .when(ingredientBusinessService)
+        .flushExpiryAlerts();
 
-    mockMvc.perform(post("/expiry/check"));
+    expiryController.flushExpiryAlerts();
 
-    verify(ingredientBusinessService, times(1)).checkIngredientsExpiry();
+    verify(ingredientBusinessService, atLeastOnce()).flushExpiryAlerts();
   }
 }
@@ -8,6 +8,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
@@ -17,6 +18,8 @@ import java.util.List;
 import nus.iss.team3.backend.businessService.ingredient.IIngredientBusinessService;
 import nus.iss.team3.backend.domainService.ingredient.IIngredientService;
 import nus.iss.team3.backend.domainService.user.IUserAccountService;
+import nus.iss.team3.backend.entity.ExpiryCheckShardLease;
+import nus.iss.team3.backend.entity.IngredientExpiryAlert;
 import nus.iss.team3.backend.entity.UserIngredient;
 import nus.iss.team3.backend.service.jwt.JwtRequestFilter;
 import nus.iss.team3.backend.service.jwt.JwtUtil;
@@ -51,6 +54,7 @@ public class TestIngredientController {
   public void setup() {
     objectMapper = new ObjectMapper();
     objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    objectMapper.registerModule(new JavaTimeModule());
 
     mockMvc =
         MockMvcBuilders.webAppContextSetup(context)
@@ -368,6 +372,118 @@ public class TestIngredientController {
         .andExpect(jsonPath("$[1].id").value(2));
   }
 
+  @Test
+  public void getExpiringIngredientsNotNotified() throws Exception {
+    // Prepare test data
+    List<UserIngredient> expiringIngredients = Arrays.asList(createValidIngredient());
+    expiringIngredients.get(0).setId(1);
+
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            LocalDate.of(2024, 11, 20), List.of(3, 1), 0, 1))
+        .thenReturn(expiringIngredients);
+    mockMvc
+        .perform(
+            get("/ingredient/expiring-not-notified")
+                .param("today", "2024-11-20")
+                .param("days", "3,1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value(1));
+
+    // Test when service rejects the input
+    when(ingredientService.getExpiringIngredientsNotNotified(
+            LocalDate.of(2024, 11, 20), List.of(2), 0, 1))
+        .thenThrow(new IllegalArgumentException("Today and the days buckets must be given"));
+    mockMvc
+        .perform(
+            get("/ingredient/expiring-not-notified")
+                .param("today", "2024-11-20")
+                .param("days", "2"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void claimExpiryCheckShard() throws Exception {
+    ExpiryCheckShardLease lease =
+        new ExpiryCheckShardLease(LocalDate.of(2024, 11, 20), null, 16, "replica-1", 300_000L);
+
+    when(ingredientService.claimExpiryCheckShard(any())).thenReturn(2);
+    mockMvc
+        .perform(
+            post("/ingredient/expiry-check/claim")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lease)))
+        .andExpect(status().isOk())
+        .andExpect(content().string("2"));
+
+    // Test when every shard is checked or leased
+    when(ingredientService.claimExpiryCheckShard(any())).thenReturn(null);
+    mockMvc
+        .perform(
+            post("/ingredient/expiry-check/claim")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lease)))
+        .andExpect(status().isNoContent());
+  }
+
+  @Test
+  public void completeExpiryCheckShard() throws Exception {
+    ExpiryCheckShardLease lease =
+        new ExpiryCheckShardLease(LocalDate.of(2024, 11, 20), 2, 16, "replica-1", 300_000L);
+
+    when(ingredientService.completeExpiryCheckShard(any())).thenReturn(true);
+    mockMvc
+        .perform(
+            post("/ingredient/expiry-check/complete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lease)))
+        .andExpect(status().isOk())
+        .andExpect(content().string("true"));
+  }
+
+  @Test
+  public void pollDueExpiryAlerts() throws Exception {
+    UserIngredient ingredient = new UserIngredient();
+    ingredient.setId(4);
+    when(ingredientService.pollDueExpiryAlerts(100))
+        .thenReturn(List.of(new IngredientExpiryAlert(ingredient, 1)));
+    mockMvc
+        .perform(post("/ingredient/expiry-alert/poll").param("max", "100"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].ingredient.id").value(4))
+        .andExpect(jsonPath("$[0].daysBeforeExpiry").value(1));
+
+    // Test the exception handling
+    when(ingredientService.pollDueExpiryAlerts(0)).thenThrow(new IllegalArgumentException());
+    mockMvc
+        .perform(post("/ingredient/expiry-alert/poll").param("max", "0"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void releaseExpiryAlerts() throws Exception {
+    UserIngredient ingredient = new UserIngredient();
+    ingredient.setId(4);
+    List<IngredientExpiryAlert> alerts = List.of(new IngredientExpiryAlert(ingredient, 1));
+
+    when(ingredientService.releaseExpiryAlerts(any())).thenReturn(true);
+    mockMvc
+        .perform(
+            post("/ingredient/expiry-alert/release")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(alerts)))
+        .andExpect(status().isOk())
+        .andExpect(content().string("true"));
+
+    // Test the exception handling
+    when(ingredientService.releaseExpiryAlerts(any())).thenThrow(new IllegalArgumentException());
+    mockMvc
+        .perform(
+            post("/ingredient/expiry-alert/release")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(alerts)))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   public void triggerExpiryCheck() throws Exception {
     // Prepare test data
@@ -376,7 +492,16 @@ public class TestIngredientController {
     expiringIngredients.get(0).setId(1);
     expiringIngredients.get(1).setId(2);
 
+    when(ingredientBusinessService.checkIngredientsExpiry()).thenReturn(true);
+
     // Test success with default days parameter
     mockMvc.perform(get("/ingredient/trigger-expiry-check")).andExpect(status().isOk());
   }
+
+  @Test
+  public void triggerExpiryCheck_alreadyRunning_conflict() throws Exception {
+    when(ingredientBusinessService.checkIngredientsExpiry()).thenReturn(false);
+
+    mockMvc.perform(get("/ingredient/trigger-expiry-check")).andExpect(status().isConflict());
+  }
 }
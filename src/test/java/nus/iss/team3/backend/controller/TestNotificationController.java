@@ -1,13 +1,18 @@
 package nus.iss.team3.backend.controller;
 
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -15,6 +20,8 @@ import nus.iss.team3.backend.businessService.notification.INotificationBusinessS
 import nus.iss.team3.backend.domainService.notification.NotificationService;
 import nus.iss.team3.backend.domainService.user.IUserAccountService;
 import nus.iss.team3.backend.entity.ENotificationType;
+import nus.iss.team3.backend.entity.ExpiryNotification;
+import nus.iss.team3.backend.entity.IngredientExpiryNotice;
 import nus.iss.team3.backend.entity.Notification;
 import nus.iss.team3.backend.service.jwt.JwtRequestFilter;
 import nus.iss.team3.backend.service.jwt.JwtUtil;
@@ -63,6 +70,28 @@ public class TestNotificationController {
             .build();
   }
 
+  @Test
+  void createNotifications() throws Exception {
+    when(notificationBusinessService.createNotifications(anyList())).thenReturn(mockNotifications);
+
+    mockMvc
+        .perform(
+            post("/notification/create-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(mockNotifications)))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.length()").value(2));
+
+    when(notificationBusinessService.createNotifications(anyList()))
+        .thenThrow(new IllegalArgumentException("Invalid notification data"));
+    mockMvc
+        .perform(
+            post("/notification/create-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(mockNotifications)))
+        .andExpect(status().isBadRequest());
+  }
+
   private Notification createMockNotification(
       Integer userId, String title, String content, ENotificationType type) {
     Notification notification = new Notification(userId, title, content, type);
@@ -102,6 +131,64 @@ public class TestNotificationController {
         .andExpect(content().string("Failed to create notification"));
   }
 
+  @Test
+  void testCreateExpiryNotifications_Success() throws Exception {
+    Notification notification =
+        createMockNotification(1, "Ingredient Expiry Notice", "Fish", ENotificationType.INFO);
+    List<ExpiryNotification> expiryNotifications =
+        List.of(
+            new ExpiryNotification(
+                notification,
+                List.of(new IngredientExpiryNotice(1, 10, LocalDate.of(2024, 11, 23), 3))));
+    when(notificationBusinessService.createExpiryNotifications(anyList()))
+        .thenReturn(List.of(notification));
+
+    mockMvc
+        .perform(
+            post("/notification/create-expiry-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(expiryNotifications)))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.length()").value(1));
+
+    // created and pushed by the business service, on the node holding the sessions
+    verify(notificationService, never()).createExpiryNotifications(anyList());
+  }
+
+  @Test
+  void testCreateExpiryNotifications_Failure() throws Exception {
+    Notification notification =
+        createMockNotification(1, "Ingredient Expiry Notice", "Fish", ENotificationType.INFO);
+    List<ExpiryNotification> expiryNotifications =
+        List.of(
+            new ExpiryNotification(
+                notification,
+                List.of(new IngredientExpiryNotice(1, 10, LocalDate.of(2024, 11, 23), 3))));
+    when(notificationBusinessService.createExpiryNotifications(anyList())).thenReturn(null);
+
+    mockMvc
+        .perform(
+            post("/notification/create-expiry-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(expiryNotifications)))
+        .andExpect(status().isInternalServerError())
+        .andExpect(content().string("Failed to create expiry notifications"));
+  }
+
+  @Test
+  void testCreateExpiryNotifications_Invalid() throws Exception {
+    when(notificationBusinessService.createExpiryNotifications(anyList()))
+        .thenThrow(new IllegalArgumentException("Invalid expiry notification data"));
+
+    mockMvc
+        .perform(
+            post("/notification/create-expiry-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(new ExpiryNotification()))))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().string("Invalid expiry notifications"));
+  }
+
   @Test
   void testGetNotifications_Success() throws Exception {
     when(notificationService.getNotificationsForUser(1, 10)).thenReturn(mockNotifications);
@@ -0,0 +1,208 @@
+package nus.iss.team3.backend.dataaccess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import nus.iss.team3.backend.dataaccess.postgres.PostgresDataAccess;
+import nus.iss.team3.backend.entity.ExpiryCheckShardLease;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * The shard lease SQL of the daily ingredient expiry check against a real Postgres, with two
+ * owners competing for the shards: the FOR UPDATE SKIP LOCKED claim, the lease expiry, the renewal
+ * and the completion. The tests run in a schema of their own, created from the migration and
+ * dropped afterwards.
+ *
+ * <p>Run with {@code EXPIRY_CHECK_TEST_DB_URL=jdbc:postgresql://localhost:5432/<db>
+ * EXPIRY_CHECK_TEST_DB_USER=<user> EXPIRY_CHECK_TEST_DB_PASSWORD=<password> ./gradlew test --tests
+ * '*ExpiryCheckShardLeaseDatabaseTest'}.
+ */
+@EnabledIfEnvironmentVariable(named = "EXPIRY_CHECK_TEST_DB_URL", matches = ".+")
+class ExpiryCheckShardLeaseDatabaseTest {
+
+  private static final String SCHEMA = "expiry_check_shard_test";
+  private static final Path MIGRATION =
+      Path.of("scripts/db-migration/008-ingredient-expiry-check-shard-lease.sql");
+  private static final LocalDate RUN_DATE = LocalDate.of(2026, 10, 18);
+  private static final long LEASE_MILLIS = 300_000;
+
+  private static NamedParameterJdbcTemplate jdbcTemplate;
+
+  private IngredientDataAccess replicaA;
+  private IngredientDataAccess replicaB;
+
+  @BeforeAll
+  static void createSchema() throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty("currentSchema", SCHEMA);
+    DriverManagerDataSource dataSource =
+        new DriverManagerDataSource(
+            System.getenv("EXPIRY_CHECK_TEST_DB_URL"),
+            System.getenv("EXPIRY_CHECK_TEST_DB_USER"),
+            System.getenv("EXPIRY_CHECK_TEST_DB_PASSWORD"));
+    dataSource.setConnectionProperties(properties);
+    jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+
+    jdbcTemplate.getJdbcTemplate().execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    jdbcTemplate.getJdbcTemplate().execute("CREATE SCHEMA " + SCHEMA);
+    jdbcTemplate.getJdbcTemplate().execute(Files.readString(MIGRATION));
+  }
+
+  @AfterAll
+  static void dropSchema() {
+    if (jdbcTemplate != null) {
+      jdbcTemplate.getJdbcTemplate().execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate
+        .getJdbcTemplate()
+        .execute("TRUNCATE " + PostgresSqlStatement.TABLE_EXPIRY_CHECK_SHARD);
+    // each replica with a data access of its own, over the same database
+    replicaA = dataAccess();
+    replicaB = dataAccess();
+  }
+
+  @Test
+  void claim_twoOwnersAtOnce_eachShardToOneOwner() throws Exception {
+    int shardCount = 8;
+    CountDownLatch start = new CountDownLatch(1);
+    try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+      Future<List<Integer>> shardsOfA =
+          executor.submit(() -> claimAll(replicaA, "replica-a", shardCount, start));
+      Future<List<Integer>> shardsOfB =
+          executor.submit(() -> claimAll(replicaB, "replica-b", shardCount, start));
+      start.countDown();
+
+      Set<Integer> claimed = new HashSet<>(shardsOfA.get());
+      for (Integer shard : shardsOfB.get()) {
+        assertTrue(claimed.add(shard), "shard " + shard + " claimed by both owners");
+      }
+      assertEquals(shardCount, claimed.size());
+
+      // the leases held, nothing is left to claim until they expire or complete
+      assertNull(replicaA.claimExpiryCheckShard(lease(null, shardCount, "replica-a")));
+      for (Integer shard : shardsOfA.get()) {
+        assertTrue(replicaA.completeExpiryCheckShard(lease(shard, shardCount, "replica-a")));
+      }
+      for (Integer shard : shardsOfB.get()) {
+        assertTrue(replicaB.completeExpiryCheckShard(lease(shard, shardCount, "replica-b")));
+      }
+    }
+    assertNull(replicaB.claimExpiryCheckShard(lease(null, shardCount, "replica-b")));
+  }
+
+  @Test
+  void claim_leaseExpired_claimedByTheOtherOwner() {
+    assertEquals(Integer.valueOf(0), replicaA.claimExpiryCheckShard(lease(null, 1, "replica-a")));
+    assertNull(replicaB.claimExpiryCheckShard(lease(null, 1, "replica-b")));
+
+    // replica-a died without renewing its lease
+    expireLeases();
+
+    assertEquals(Integer.valueOf(0), replicaB.claimExpiryCheckShard(lease(null, 1, "replica-b")));
+    assertFalse(replicaA.renewExpiryCheckShard(lease(0, 1, "replica-a")));
+    assertFalse(replicaA.completeExpiryCheckShard(lease(0, 1, "replica-a")));
+    assertEquals("replica-b", owner(0));
+    assertTrue(replicaB.completeExpiryCheckShard(lease(0, 1, "replica-b")));
+  }
+
+  @Test
+  void renew_leaseExtended_untilCompleted() {
+    assertEquals(Integer.valueOf(0), replicaA.claimExpiryCheckShard(lease(null, 1, "replica-a")));
+    jdbcTemplate.update(
+        "UPDATE "
+            + PostgresSqlStatement.TABLE_EXPIRY_CHECK_SHARD
+            + " SET lease_until = now() + interval '1 second'",
+        Map.of());
+
+    assertTrue(replicaA.renewExpiryCheckShard(lease(0, 1, "replica-a")));
+
+    // extended by a whole lease, not claimable by the other owner
+    assertTrue(leaseSecondsLeft(0) > 60);
+    assertNull(replicaB.claimExpiryCheckShard(lease(null, 1, "replica-b")));
+    assertFalse(replicaB.renewExpiryCheckShard(lease(0, 1, "replica-b")));
+
+    assertTrue(replicaA.completeExpiryCheckShard(lease(0, 1, "replica-a")));
+    assertFalse(replicaA.renewExpiryCheckShard(lease(0, 1, "replica-a")));
+
+    // a completed shard is not claimed again, even once its lease expired
+    expireLeases();
+    assertNull(replicaB.claimExpiryCheckShard(lease(null, 1, "replica-b")));
+  }
+
+  private static List<Integer> claimAll(
+      IngredientDataAccess replica, String owner, int shardCount, CountDownLatch start)
+      throws InterruptedException {
+    start.await();
+    List<Integer> shards = new ArrayList<>();
+    Integer shard;
+    while ((shard = replica.claimExpiryCheckShard(lease(null, shardCount, owner))) != null) {
+      shards.add(shard);
+    }
+    return shards;
+  }
+
+  private static ExpiryCheckShardLease lease(Integer shard, int shardCount, String owner) {
+    return new ExpiryCheckShardLease(RUN_DATE, shard, shardCount, owner, LEASE_MILLIS);
+  }
+
+  private static IngredientDataAccess dataAccess() {
+    PostgresDataAccess postgresDataAccess = new PostgresDataAccess();
+    ReflectionTestUtils.setField(postgresDataAccess, "jdbcTemplate", jdbcTemplate);
+    IngredientDataAccess ingredientDataAccess = new IngredientDataAccess();
+    ingredientDataAccess.postgresDataAccess = postgresDataAccess;
+    return ingredientDataAccess;
+  }
+
+  private static void expireLeases() {
+    jdbcTemplate.update(
+        "UPDATE "
+            + PostgresSqlStatement.TABLE_EXPIRY_CHECK_SHARD
+            + " SET lease_until = now() - interval '1 second'",
+        Map.of());
+  }
+
+  private static String owner(int shard) {
+    return jdbcTemplate.queryForObject(
+        "SELECT owner FROM "
+            + PostgresSqlStatement.TABLE_EXPIRY_CHECK_SHARD
+            + " WHERE shard = :shard",
+        Map.of("shard", shard),
+        String.class);
+  }
+
+  private static double leaseSecondsLeft(int shard) {
+    return jdbcTemplate.queryForObject(
+        "SELECT EXTRACT(EPOCH FROM lease_until - now()) FROM "
+            + PostgresSqlStatement.TABLE_EXPIRY_CHECK_SHARD
+            + " WHERE shard = :shard",
+        Map.of("shard", shard),
+        Double.class);
+  }
+}
@@ -0,0 +1,151 @@
+package nus.iss.team3.backend.dataaccess;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.mockito.stubbing.Answer;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Test helper: a read-only ResultSet over rows given as column maps, so DAO tests can keep their
+ * rows as maps while the code under test runs its real RowMappers over them.
+ */
+public final class MapResultSet {
+
+  private MapResultSet() {}
+
+  /**
+   * An answer for a stubbed {@code queryStatement(sql, inputs, rowMapper)} that maps the given rows
+   * with the RowMapper passed in, as the real data access would. Null rows answer null, like a
+   * query that failed.
+   */
+  public static Answer<List<?>> rows(List<? extends Map<String, ?>> rows) {
+    return invocation -> {
+      if (rows == null) {
+        return null;
+      }
+      RowMapper<?> rowMapper = invocation.getArgument(2);
+      return mapAll(rows, rowMapper);
+    };
+  }
+
+  /** Map the rows with the given RowMapper, one ResultSet for the whole list. */
+  public static <T> List<T> mapAll(List<? extends Map<String, ?>> rows, RowMapper<T> rowMapper)
+      throws SQLException {
+    List<String> labels = new ArrayList<>();
+    for (Map<String, ?> row : rows) {
+      for (String label : row.keySet()) {
+        if (!labels.contains(label)) {
+          labels.add(label);
+        }
+      }
+    }
+    Object[][] values = new Object[rows.size()][];
+    for (int r = 0; r < rows.size(); r++) {
+      values[r] = new Object[labels.size()];
+      for (int c = 0; c < labels.size(); c++) {
+        values[r][c] = rows.get(r).get(labels.get(c));
+      }
+    }
+    ResultSet resultSet = of(labels.toArray(new String[0]), values);
+    List<T> mapped = new ArrayList<>();
+    int rowNum = 0;
+    while (resultSet.next()) {
+      mapped.add(rowMapper.mapRow(resultSet, rowNum++));
+    }
+    return mapped;
+  }
+
+  /** A ResultSet with the given column labels and rows of values, in column order. */
+  public static ResultSet of(String[] labels, Object[][] values) {
+    ResultSetMetaData metaData =
+        (ResultSetMetaData)
+            Proxy.newProxyInstance(
+                MapResultSet.class.getClassLoader(),
+                new Class<?>[] {ResultSetMetaData.class},
+                (proxy, method, args) ->
+                    switch (method.getName()) {
+                      case "getColumnCount" -> labels.length;
+                      case "getColumnLabel", "getColumnName" -> labels[(Integer) args[0] - 1];
+                      default -> throw new UnsupportedOperationException(method.getName());
+                    });
+
+    int[] cursor = {-1};
+    boolean[] wasNull = {false};
+    return (ResultSet)
+        Proxy.newProxyInstance(
+            MapResultSet.class.getClassLoader(),
+            new Class<?>[] {ResultSet.class},
+            (proxy, method, args) -> {
+              String name = method.getName();
+              switch (name) {
+                case "next":
+                  return ++cursor[0] < values.length;
+                case "getRow":
+                  return cursor[0] + 1;
+                case "getMetaData":
+                  return metaData;
+                case "wasNull":
+                  return wasNull[0];
+                case "hashCode":
+                  return System.identityHashCode(proxy);
+                case "equals":
+                  return proxy == args[0];
+                case "toString":
+                  return "MapResultSet";
+                default:
+                  break;
+              }
+              if (!name.startsWith("get") || args == null || !(args[0] instanceof Integer)) {
+                throw new UnsupportedOperationException(name);
+              }
+              Object value = values[cursor[0]][(Integer) args[0] - 1];
+              wasNull[0] = value == null;
+              return convert(name, value);
+            });
+  }
+
+  // Converts like the driver does for a value of another type, e.g. getInt on a numeric string
+  private static Object convert(String getter, Object value) throws SQLException {
+    return switch (getter) {
+      case "getLong" -> value == null ? 0L : toNumber(value).longValue();
+      case "getInt" -> value == null ? 0 : toNumber(value).intValue();
+      case "getDouble" -> value == null ? 0.0 : toNumber(value).doubleValue();
+      case "getBigDecimal" -> value == null ? null : new BigDecimal(toNumber(value).toString());
+      case "getBoolean" -> value != null && Boolean.parseBoolean(value.toString());
+      case "getString" -> value == null ? null : value.toString();
+      case "getTimestamp" -> (Timestamp) temporal(value, Timestamp.class);
+      case "getDate" ->
+          value instanceof java.util.Date date && !(value instanceof Date)
+              ? new Date(date.getTime())
+              : temporal(value, Date.class);
+      case "getObject" -> value;
+      default -> throw new UnsupportedOperationException(getter);
+    };
+  }
+
+  private static Number toNumber(Object value) throws SQLException {
+    if (value instanceof Number number) {
+      return number;
+    }
+    try {
+      return new BigDecimal(value.toString());
+    } catch (NumberFormatException e) {
+      throw new SQLException("Bad value for a numeric type: " + value);
+    }
+  }
+
+  private static Object temporal(Object value, Class<?> type) throws SQLException {
+    if (value == null || type.isInstance(value)) {
+      return value;
+    }
+    throw new SQLException("Bad value for type " + type.getSimpleName() + ": " + value);
+  }
+}
@@ -1,5 +1,6 @@
 package nus.iss.team3.backend.dataaccess;
 
+import static nus.iss.team3.backend.dataaccess.MapResultSet.rows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -7,23 +8,30 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.function.Consumer;
 import nus.iss.team3.backend.dataaccess.postgres.PostgresDataAccess;
 import nus.iss.team3.backend.entity.CookingStep;
 import nus.iss.team3.backend.entity.ERecipeStatus;
 import nus.iss.team3.backend.entity.Recipe;
 import nus.iss.team3.backend.entity.RecipeIngredient;
+import nus.iss.team3.backend.entity.RecipeScore;
+import nus.iss.team3.backend.entity.RecipeSummary;
+import nus.iss.team3.backend.entity.ReviewAggregateDelta;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
 
 /**
  * Unit test class: RecipeDataAccessTest is used to test various endpoints of the RecipeDataAccess
@@ -34,8 +42,16 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 class RecipeDataAccessTest {
 
+  private static final Timestamp MARKED_AT = Timestamp.valueOf("2024-11-20 10:00:00");
+
   @Mock private PostgresDataAccess postgresDataAccess;
-  @InjectMocks private RecipeDataAccess recipeDataAccess;
+  private RecipeDataAccess recipeDataAccess;
+
+  @BeforeEach
+  void setUp() {
+    // the per-child query hydration; the json hydration is covered by the *_json tests
+    recipeDataAccess = new RecipeDataAccess(postgresDataAccess, RecipeDataAccess.HYDRATION_QUERIES);
+  }
 
   /**
    * Test successful addition of a recipe. Verify that the insert operation is executed as expected
@@ -47,8 +63,10 @@ class RecipeDataAccessTest {
     Recipe recipe = createSampleRecipe();
     Map<String, Object> insertResult = Map.of("id", 1L);
     // Mock the insertion of the recipe to return the generated ID
-    when(postgresDataAccess.queryStatement(anyString(), anyMap()))
-        .thenReturn(Collections.singletonList(insertResult));
+    when(postgresDataAccess.queryStatement(anyString(), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(insertResult)));
+    when(postgresDataAccess.batchUpdateStatement(anyString(), anyList()))
+        .thenAnswer(invocation -> new int[invocation.<List<?>>getArgument(1).size()]);
 
     // Act: Call the method to add the recipe
     Recipe result = recipeDataAccess.addRecipe(recipe);
@@ -58,34 +76,53 @@ class RecipeDataAccessTest {
     assertEquals(1L, recipe.getId());
 
     // Verify that the SQL statement to insert the recipe was called once
-    verify(postgresDataAccess, times(3)).queryStatement(contains("INSERT INTO recipe"), anyMap());
-
-    // Verify that the INSERT statement for each ingredient was called correctly
-    for (RecipeIngredient ingredient : recipe.getIngredients()) {
-      // argThat(params -> { ... }) is a parameter matcher used to verify that the parameters passed
-      // to the upsertStatement method are correct.
-      verify(postgresDataAccess, times(1))
-          .queryStatement(
-              contains("INSERT INTO recipe_ingredients"),
-              argThat(
-                  params ->
-                      Objects.equals(params.get("recipe_id"), 1L)
-                          && Objects.equals(params.get("name"), ingredient.getName())
-                          && Objects.equals(params.get("quantity"), ingredient.getQuantity())
-                          && Objects.equals(params.get("uom"), ingredient.getUom())));
-    }
+    verify(postgresDataAccess, times(1))
+        .queryStatement(contains("INSERT INTO recipe"), anyMap(), any());
 
-    // Verify that the INSERT statement for each cooking step was called correctly
-    for (CookingStep step : recipe.getCookingSteps()) {
-      verify(postgresDataAccess, times(1))
-          .queryStatement(
-              contains("INSERT INTO recipe_cooking_step"),
-              argThat(
-                  params ->
-                      Objects.equals(params.get("recipe_id"), 1L)
-                          && Objects.equals(params.get("description"), step.getDescription())
-                          && Objects.equals(params.get("image"), step.getImage())));
-    }
+    // Verify that all ingredients were inserted in one batch, in order
+    verify(postgresDataAccess, times(1))
+        .batchUpdateStatement(
+            contains("INSERT INTO recipe_ingredients"),
+            argThat(
+                batch -> {
+                  List<RecipeIngredient> ingredients = recipe.getIngredients();
+                  if (batch.size() != ingredients.size()) {
+                    return false;
+                  }
+                  for (int i = 0; i < batch.size(); i++) {
+                    Map<String, ?> params = batch.get(i);
+                    RecipeIngredient ingredient = ingredients.get(i);
+                    if (!(Objects.equals(params.get("recipe_id"), 1L)
+                        && Objects.equals(params.get("name"), ingredient.getName())
+                        && Objects.equals(params.get("quantity"), ingredient.getQuantity())
+                        && Objects.equals(params.get("uom"), ingredient.getUom()))) {
+                      return false;
+                    }
+                  }
+                  return true;
+                }));
+
+    // Verify that all cooking steps were inserted in one batch, in order
+    verify(postgresDataAccess, times(1))
+        .batchUpdateStatement(
+            contains("INSERT INTO recipe_cooking_step"),
+            argThat(
+                batch -> {
+                  List<CookingStep> steps = recipe.getCookingSteps();
+                  if (batch.size() != steps.size()) {
+                    return false;
+                  }
+                  for (int i = 0; i < batch.size(); i++) {
+                    Map<String, ?> params = batch.get(i);
+                    CookingStep step = steps.get(i);
+                    if (!(Objects.equals(params.get("recipe_id"), 1L)
+                        && Objects.equals(params.get("description"), step.getDescription())
+                        && Objects.equals(params.get("image"), step.getImage()))) {
+                      return false;
+                    }
+                  }
+                  return true;
+                }));
 
     // Confirm that no deletes operations were executed
     verify(postgresDataAccess, never()).upsertStatement(contains("DELETE FROM"), anyMap());
@@ -99,8 +136,8 @@ class RecipeDataAccessTest {
     recipe.setCookingSteps(null);
     Map<String, Object> insertResult = Map.of("id", 1L);
     // Mock the insertion of the recipe to return the generated ID
-    when(postgresDataAccess.queryStatement(anyString(), anyMap()))
-        .thenReturn(Collections.singletonList(insertResult));
+    when(postgresDataAccess.queryStatement(anyString(), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(insertResult)));
 
     // Act: Call the method to add the recipe
     Recipe result = recipeDataAccess.addRecipe(recipe);
@@ -110,7 +147,8 @@ class RecipeDataAccessTest {
     assertEquals(1L, recipe.getId());
 
     // Verify that the SQL statement to insert the recipe was called once
-    verify(postgresDataAccess, times(1)).queryStatement(contains("INSERT INTO recipe "), anyMap());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(contains("INSERT INTO recipe "), anyMap(), any());
 
     // Confirm that no deletes operations were executed
     verify(postgresDataAccess, never()).upsertStatement(contains("DELETE FROM"), anyMap());
@@ -124,8 +162,8 @@ class RecipeDataAccessTest {
     recipe.setCookingSteps(new ArrayList<>());
     Map<String, Object> insertResult = Map.of("id", 1L);
     // Mock the insertion of the recipe to return the generated ID
-    when(postgresDataAccess.queryStatement(anyString(), anyMap()))
-        .thenReturn(Collections.singletonList(insertResult));
+    when(postgresDataAccess.queryStatement(anyString(), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(insertResult)));
 
     // Act: Call the method to add the recipe
     Recipe result = recipeDataAccess.addRecipe(recipe);
@@ -135,7 +173,8 @@ class RecipeDataAccessTest {
     assertEquals(1L, recipe.getId());
 
     // Verify that the SQL statement to insert the recipe was called once
-    verify(postgresDataAccess, times(1)).queryStatement(contains("INSERT INTO recipe "), anyMap());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(contains("INSERT INTO recipe "), anyMap(), any());
 
     // Confirm that no deletes operations were executed
     verify(postgresDataAccess, never()).upsertStatement(contains("DELETE FROM"), anyMap());
@@ -151,7 +190,7 @@ class RecipeDataAccessTest {
     // Arrange: Create a sample recipe object
     Recipe recipe = createSampleRecipe();
     // Mock that inserting the recipe returns no results
-    when(postgresDataAccess.queryStatement(anyString(), anyMap())).thenReturn(null);
+    when(postgresDataAccess.queryStatement(anyString(), anyMap(), any())).thenReturn(null);
 
     // Act: Call the method to add the recipe
     Exception exception =
@@ -165,11 +204,12 @@ class RecipeDataAccessTest {
 
     // Verify that only the attempt to insert the recipe was made, without inserting ingredients or
     // cooking steps
-    verify(postgresDataAccess, times(1)).queryStatement(contains("INSERT INTO recipe"), anyMap());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(contains("INSERT INTO recipe"), anyMap(), any());
     verify(postgresDataAccess, never())
-        .queryStatement(contains("INSERT INTO recipe_ingredients"), anyMap());
+        .batchUpdateStatement(contains("INSERT INTO recipe_ingredients"), anyList());
     verify(postgresDataAccess, never())
-        .queryStatement(contains("INSERT INTO recipe_cooking_step"), anyMap());
+        .batchUpdateStatement(contains("INSERT INTO recipe_cooking_step"), anyList());
   }
 
   @Test
@@ -177,8 +217,8 @@ class RecipeDataAccessTest {
     // Arrange: Create a sample recipe object
     Recipe recipe = createSampleRecipe();
     // Mock that inserting the recipe returns no results
-    when(postgresDataAccess.queryStatement(anyString(), anyMap()))
-        .thenReturn(Collections.emptyList());
+    when(postgresDataAccess.queryStatement(anyString(), anyMap(), any()))
+        .thenAnswer(rows(Collections.emptyList()));
 
     // Act: Call the method to add the recipe
     Exception exception =
@@ -192,11 +232,30 @@ class RecipeDataAccessTest {
 
     // Verify that only the attempt to insert the recipe was made, without inserting ingredients or
     // cooking steps
-    verify(postgresDataAccess, times(1)).queryStatement(contains("INSERT INTO recipe"), anyMap());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(contains("INSERT INTO recipe"), anyMap(), any());
+    verify(postgresDataAccess, never())
+        .batchUpdateStatement(contains("INSERT INTO recipe_ingredients"), anyList());
     verify(postgresDataAccess, never())
-        .queryStatement(contains("INSERT INTO recipe_ingredients"), anyMap());
+        .batchUpdateStatement(contains("INSERT INTO recipe_cooking_step"), anyList());
+  }
+
+  @Test
+  void addRecipe_Failure_IngredientBatchFailed() {
+    // Arrange: the recipe is inserted, but the ingredient batch fails
+    Recipe recipe = createSampleRecipe();
+    when(postgresDataAccess.queryStatement(anyString(), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(Map.of("id", 1L))));
+    when(postgresDataAccess.batchUpdateStatement(anyString(), anyList())).thenReturn(null);
+
+    // Act: the failure is raised, so that the transaction rolls back
+    Exception exception =
+        assertThrows(IllegalArgumentException.class, () -> recipeDataAccess.addRecipe(recipe));
+
+    // Assert: the cooking steps are not attempted
+    assertEquals("Failed to insert ingredients", exception.getMessage());
     verify(postgresDataAccess, never())
-        .queryStatement(contains("INSERT INTO recipe_cooking_step"), anyMap());
+        .batchUpdateStatement(contains("INSERT INTO recipe_cooking_step"), anyList());
   }
 
   /**
@@ -217,7 +276,7 @@ class RecipeDataAccessTest {
     assertEquals("Required fields for recipe cannot be null", exception.getMessage());
 
     // Verify that there was no interaction with PostgresDataAccess
-    verify(postgresDataAccess, never()).queryStatement(anyString(), anyMap());
+    verify(postgresDataAccess, never()).queryStatement(anyString(), anyMap(), any());
     verify(postgresDataAccess, never()).upsertStatement(anyString(), anyMap());
   }
 
@@ -287,7 +346,7 @@ class RecipeDataAccessTest {
     assertEquals("Failed to insert recipe", exception.getMessage());
 
     // Verify that there was no interaction with PostgresDataAccess
-    verify(postgresDataAccess, times(1)).queryStatement(anyString(), anyMap());
+    verify(postgresDataAccess, times(1)).queryStatement(anyString(), anyMap(), any());
     verify(postgresDataAccess, never()).upsertStatement(anyString(), anyMap());
   }
 
@@ -300,7 +359,7 @@ class RecipeDataAccessTest {
     // Arrange: Create a sample recipe object
     Recipe recipe = createSampleRecipeWithMultipleIngredientsAndSteps();
     // Mock that an exception is thrown when inserting the recipe
-    when(postgresDataAccess.queryStatement(anyString(), anyMap()))
+    when(postgresDataAccess.queryStatement(anyString(), anyMap(), any()))
         .thenThrow(new RuntimeException("Database insert error"));
 
     // Act & Assert: Calling the method to add the recipe should throw an exception
@@ -311,13 +370,14 @@ class RecipeDataAccessTest {
     assertEquals("Database insert error", exception.getMessage());
 
     // Verify that the SQL statement to insert the recipe was called once
-    verify(postgresDataAccess, times(1)).queryStatement(contains("INSERT INTO recipe"), anyMap());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(contains("INSERT INTO recipe"), anyMap(), any());
 
     // Verify that no insertions for ingredients and steps were executed
     verify(postgresDataAccess, never())
-        .upsertStatement(contains("INSERT INTO recipe_ingredients"), anyMap());
+        .batchUpdateStatement(contains("INSERT INTO recipe_ingredients"), anyList());
     verify(postgresDataAccess, never())
-        .upsertStatement(contains("INSERT INTO recipe_cooking_step"), anyMap());
+        .batchUpdateStatement(contains("INSERT INTO recipe_cooking_step"), anyList());
   }
 
   @Test
@@ -329,8 +389,10 @@ class RecipeDataAccessTest {
     recipe.setDraftRecipe(draftRecipe);
     Map<String, Object> insertResult = Map.of("id", 1L);
     // Mock the insertion of the recipe to return the generated ID
-    when(postgresDataAccess.queryStatement(anyString(), anyMap()))
-        .thenReturn(Collections.singletonList(insertResult));
+    when(postgresDataAccess.queryStatement(anyString(), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(insertResult)));
+    when(postgresDataAccess.batchUpdateStatement(anyString(), anyList()))
+        .thenAnswer(invocation -> new int[invocation.<List<?>>getArgument(1).size()]);
 
     // Act: Call the method to add the recipe
     Recipe result = recipeDataAccess.addRecipe(recipe);
@@ -340,34 +402,53 @@ class RecipeDataAccessTest {
     assertEquals(1L, recipe.getId());
 
     // Verify that the SQL statement to insert the recipe was called once
-    verify(postgresDataAccess, times(3)).queryStatement(contains("INSERT INTO recipe"), anyMap());
-
-    // Verify that the INSERT statement for each ingredient was called correctly
-    for (RecipeIngredient ingredient : recipe.getIngredients()) {
-      // argThat(params -> { ... }) is a parameter matcher used to verify that the parameters passed
-      // to the upsertStatement method are correct.
-      verify(postgresDataAccess, times(1))
-          .queryStatement(
-              contains("INSERT INTO recipe_ingredients"),
-              argThat(
-                  params ->
-                      Objects.equals(params.get("recipe_id"), 1L)
-                          && Objects.equals(params.get("name"), ingredient.getName())
-                          && Objects.equals(params.get("quantity"), ingredient.getQuantity())
-                          && Objects.equals(params.get("uom"), ingredient.getUom())));
-    }
+    verify(postgresDataAccess, times(1))
+        .queryStatement(contains("INSERT INTO recipe"), anyMap(), any());
 
-    // Verify that the INSERT statement for each cooking step was called correctly
-    for (CookingStep step : recipe.getCookingSteps()) {
-      verify(postgresDataAccess, times(1))
-          .queryStatement(
-              contains("INSERT INTO recipe_cooking_step"),
-              argThat(
-                  params ->
-                      Objects.equals(params.get("recipe_id"), 1L)
-                          && Objects.equals(params.get("description"), step.getDescription())
-                          && Objects.equals(params.get("image"), step.getImage())));
-    }
+    // Verify that all ingredients were inserted in one batch, in order
+    verify(postgresDataAccess, times(1))
+        .batchUpdateStatement(
+            contains("INSERT INTO recipe_ingredients"),
+            argThat(
+                batch -> {
+                  List<RecipeIngredient> ingredients = recipe.getIngredients();
+                  if (batch.size() != ingredients.size()) {
+                    return false;
+                  }
+                  for (int i = 0; i < batch.size(); i++) {
+                    Map<String, ?> params = batch.get(i);
+                    RecipeIngredient ingredient = ingredients.get(i);
+                    if (!(Objects.equals(params.get("recipe_id"), 1L)
+                        && Objects.equals(params.get("name"), ingredient.getName())
+                        && Objects.equals(params.get("quantity"), ingredient.getQuantity())
+                        && Objects.equals(params.get("uom"), ingredient.getUom()))) {
+                      return false;
+                    }
+                  }
+                  return true;
+                }));
+
+    // Verify that all cooking steps were inserted in one batch, in order
+    verify(postgresDataAccess, times(1))
+        .batchUpdateStatement(
+            contains("INSERT INTO recipe_cooking_step"),
+            argThat(
+                batch -> {
+                  List<CookingStep> steps = recipe.getCookingSteps();
+                  if (batch.size() != steps.size()) {
+                    return false;
+                  }
+                  for (int i = 0; i < batch.size(); i++) {
+                    Map<String, ?> params = batch.get(i);
+                    CookingStep step = steps.get(i);
+                    if (!(Objects.equals(params.get("recipe_id"), 1L)
+                        && Objects.equals(params.get("description"), step.getDescription())
+                        && Objects.equals(params.get("image"), step.getImage()))) {
+                      return false;
+                    }
+                  }
+                  return true;
+                }));
 
     // Confirm that no deletes operations were executed
     verify(postgresDataAccess, never()).upsertStatement(contains("DELETE FROM"), anyMap());
@@ -443,6 +524,8 @@ class RecipeDataAccessTest {
 
     // Mock the behavior of the database access methods
     when(postgresDataAccess.upsertStatement(anyString(), anyMap())).thenReturn(1);
+    when(postgresDataAccess.batchUpdateStatement(anyString(), anyList()))
+        .thenAnswer(invocation -> new int[invocation.<List<?>>getArgument(1).size()]);
 
     // Act: Call the method to update the recipe
     boolean result = recipeDataAccess.updateRecipe(recipe);
@@ -461,48 +544,160 @@ class RecipeDataAccessTest {
                             params.get(PostgresSqlStatementRecipe.COLUMN_RECIPE_NAME),
                             recipe.getName())));
 
-    // Verify that the DELETE statement for ingredients was called once
+    // Nothing is stored yet, so there is nothing to delete
+    verify(postgresDataAccess, never()).upsertStatement(contains("DELETE FROM"), anyMap());
+
+    // Verify that all ingredients were inserted in one batch, in order
     verify(postgresDataAccess, times(1))
-        .upsertStatement(
-            contains("DELETE FROM recipe_ingredients"),
+        .batchUpdateStatement(
+            contains("INSERT INTO recipe_ingredients"),
             argThat(
-                params ->
-                    Objects.equals(
-                        params.get(PostgresSqlStatementRecipe.INPUT_INGREDIENT_RECIPE_ID), 1L)));
-
-    // Verify that the INSERT statement for each ingredient was called correctly
-    for (RecipeIngredient ingredient : recipe.getIngredients()) {
-      verify(postgresDataAccess, times(1))
-          .queryStatement(
-              contains("INSERT INTO recipe_ingredients"),
-              argThat(
-                  params ->
-                      Objects.equals(params.get("recipe_id"), 1L)
-                          && Objects.equals(params.get("name"), ingredient.getName())
-                          && Objects.equals(params.get("quantity"), ingredient.getQuantity())
-                          && Objects.equals(params.get("uom"), ingredient.getUom())));
-    }
+                batch -> {
+                  List<RecipeIngredient> ingredients = recipe.getIngredients();
+                  if (batch.size() != ingredients.size()) {
+                    return false;
+                  }
+                  for (int i = 0; i < batch.size(); i++) {
+                    Map<String, ?> params = batch.get(i);
+                    RecipeIngredient ingredient = ingredients.get(i);
+                    if (!(Objects.equals(params.get("recipe_id"), 1L)
+                        && Objects.equals(params.get("name"), ingredient.getName())
+                        && Objects.equals(params.get("quantity"), ingredient.getQuantity())
+                        && Objects.equals(params.get("uom"), ingredient.getUom()))) {
+                      return false;
+                    }
+                  }
+                  return true;
+                }));
+
+    // Verify that all cooking steps were inserted in one batch, in order
+    verify(postgresDataAccess, times(1))
+        .batchUpdateStatement(
+            contains("INSERT INTO recipe_cooking_step"),
+            argThat(
+                batch -> {
+                  List<CookingStep> steps = recipe.getCookingSteps();
+                  if (batch.size() != steps.size()) {
+                    return false;
+                  }
+                  for (int i = 0; i < batch.size(); i++) {
+                    Map<String, ?> params = batch.get(i);
+                    CookingStep step = steps.get(i);
+                    if (!(Objects.equals(params.get("recipe_id"), 1L)
+                        && Objects.equals(params.get("description"), step.getDescription())
+                        && Objects.equals(params.get("image"), step.getImage()))) {
+                      return false;
+                    }
+                  }
+                  return true;
+                }));
+  }
+
+  @Test
+  void updateRecipe_unchangedChildren_noChildWrites() {
+    Recipe recipe = createSampleRecipe();
+    recipe.setId(1L);
+    when(postgresDataAccess.upsertStatement(anyString(), anyMap())).thenReturn(1);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID), anyMap(), any()))
+        .thenAnswer(rows(List.of(ingredientRow(11L, "Sugar", 100.0, "grams"))));
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID), anyMap(), any()))
+        .thenAnswer(rows(List.of(cookingStepRow(21L, "Mix ingredients.", "step1.jpg"))));
+
+    assertTrue(recipeDataAccess.updateRecipe(recipe));
+
+    // only the recipe row is written, the unchanged children keep their rows and ids
+    verify(postgresDataAccess, times(1)).upsertStatement(anyString(), anyMap());
+    verify(postgresDataAccess, never()).batchUpdateStatement(anyString(), anyList());
+    assertEquals(11L, recipe.getIngredients().getFirst().getId());
+    assertEquals(21L, recipe.getCookingSteps().getFirst().getId());
+  }
+
+  @Test
+  void updateRecipe_changedChildren_writesOnlyTheChanges() {
+    Recipe recipe = createSampleRecipe();
+    recipe.setId(1L);
+    RecipeIngredient sugar = createIngredient("Sugar", 120.0, "grams");
+    sugar.setId(11L);
+    RecipeIngredient flour = createIngredient("Flour", 200.0, "grams");
+    recipe.setIngredients(List.of(sugar, flour));
+    recipe.setCookingSteps(List.of(createCookingStep("Mix well.", "step1.jpg")));
+    when(postgresDataAccess.upsertStatement(anyString(), anyMap())).thenReturn(1);
+    when(postgresDataAccess.batchUpdateStatement(anyString(), anyList()))
+        .thenAnswer(invocation -> new int[invocation.<List<?>>getArgument(1).size()]);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID), anyMap(), any()))
+        .thenAnswer(
+            rows(
+                List.of(
+                    ingredientRow(11L, "Sugar", 100.0, "grams"),
+                    ingredientRow(12L, "Salt", 5.0, "grams"))));
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID), anyMap(), any()))
+        .thenAnswer(
+            rows(
+                List.of(
+                    cookingStepRow(21L, "Mix ingredients.", "step1.jpg"),
+                    cookingStepRow(22L, "Bake.", "step2.jpg"))));
+
+    assertTrue(recipeDataAccess.updateRecipe(recipe));
 
-    // Verify that the DELETE statement for cooking steps was called once
     verify(postgresDataAccess, times(1))
         .upsertStatement(
-            contains("DELETE FROM recipe_cooking_step"),
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_DELETE_BY_IDS),
+            argThat(params -> List.of(12L).equals(params.get("ingredient_ids"))));
+    verify(postgresDataAccess, times(1))
+        .batchUpdateStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_UPDATE),
             argThat(
-                params ->
-                    Objects.equals(
-                        params.get(PostgresSqlStatementRecipe.INPUT_COOKING_STEP_RECIPE_ID), 1L)));
-
-    // Verify that the INSERT statement for each cooking step was called correctly
-    for (CookingStep step : recipe.getCookingSteps()) {
-      verify(postgresDataAccess, times(1))
-          .queryStatement(
-              contains("INSERT INTO recipe_cooking_step"),
-              argThat(
-                  params ->
-                      Objects.equals(params.get("recipe_id"), 1L)
-                          && Objects.equals(params.get("description"), step.getDescription())
-                          && Objects.equals(params.get("image"), step.getImage())));
-    }
+                batch ->
+                    batch.size() == 1
+                        && Objects.equals(batch.getFirst().get("ingredient_id"), 11L)
+                        && Objects.equals(batch.getFirst().get("quantity"), 120.0)));
+    verify(postgresDataAccess, times(1))
+        .batchUpdateStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_ADD),
+            argThat(
+                batch ->
+                    batch.size() == 1 && Objects.equals(batch.getFirst().get("name"), "Flour")));
+    verify(postgresDataAccess, times(1))
+        .upsertStatement(
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_DELETE_BY_IDS),
+            argThat(params -> List.of(22L).equals(params.get("cooking_step_ids"))));
+    verify(postgresDataAccess, times(1))
+        .batchUpdateStatement(
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_UPDATE),
+            argThat(
+                batch ->
+                    batch.size() == 1
+                        && Objects.equals(batch.getFirst().get("cooking_step_id"), 21L)
+                        && Objects.equals(batch.getFirst().get("description"), "Mix well.")));
+    verify(postgresDataAccess, never())
+        .batchUpdateStatement(eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_ADD), anyList());
+    // no wholesale delete of the children
+    verify(postgresDataAccess, never())
+        .upsertStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_DELETE_BY_RECIPE_ID), anyMap());
+    verify(postgresDataAccess, never())
+        .upsertStatement(
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_DELETE_RECIPE_ID), anyMap());
+  }
+
+  @Test
+  void updateRecipe_storedChildrenNotLoaded_throws() {
+    Recipe recipe = createSampleRecipe();
+    recipe.setId(1L);
+    when(postgresDataAccess.upsertStatement(anyString(), anyMap())).thenReturn(1);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID), anyMap(), any()))
+        .thenReturn(null);
+
+    Exception exception =
+        assertThrows(IllegalArgumentException.class, () -> recipeDataAccess.updateRecipe(recipe));
+
+    assertEquals("Failed to load ingredients", exception.getMessage());
+    verify(postgresDataAccess, never()).batchUpdateStatement(anyString(), anyList());
   }
 
   /**
@@ -701,13 +896,16 @@ class RecipeDataAccessTest {
     Long recipeId = 1L;
     Map<String, Object> recipeRow = createSampleRecipeMap();
     List<Map<String, Object>> recipeResult = Collections.singletonList(recipeRow);
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe WHERE id"), anyMap()))
-        .thenReturn(recipeResult);
+    when(postgresDataAccess.queryStatement(
+            contains("SELECT * FROM recipe WHERE id"), anyMap(), any()))
+        .thenAnswer(rows(recipeResult));
     // Mock the query for ingredients and cooking steps data
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe_ingredients"), anyMap()))
-        .thenReturn(Collections.singletonList(createSampleIngredientMap()));
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe_cooking_step"), anyMap()))
-        .thenReturn(Collections.singletonList(createSampleCookingStepMap()));
+    when(postgresDataAccess.queryStatement(
+            contains("SELECT * FROM recipe_ingredients"), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleIngredientMap())));
+    when(postgresDataAccess.queryStatement(
+            contains("SELECT * FROM recipe_cooking_step"), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleCookingStepMap())));
 
     // Act: Call the method to get the recipe
     Recipe recipe = recipeDataAccess.getRecipeById(recipeId);
@@ -723,15 +921,18 @@ class RecipeDataAccessTest {
     verify(postgresDataAccess, times(1))
         .queryStatement(
             contains("SELECT * FROM recipe WHERE id"),
-            argThat(params -> Objects.equals(params.get("id"), recipeId)));
+            argThat(params -> Objects.equals(params.get("id"), recipeId)),
+            any());
     verify(postgresDataAccess, times(1))
         .queryStatement(
             contains("SELECT * FROM recipe_ingredients"),
-            argThat(params -> Objects.equals(params.get("recipe_id"), recipeId)));
+            argThat(params -> Objects.equals(params.get("recipe_id"), recipeId)),
+            any());
     verify(postgresDataAccess, times(1))
         .queryStatement(
             contains("SELECT * FROM recipe_cooking_step"),
-            argThat(params -> Objects.equals(params.get("recipe_id"), recipeId)));
+            argThat(params -> Objects.equals(params.get("recipe_id"), recipeId)),
+            any());
   }
 
   /**
@@ -742,7 +943,8 @@ class RecipeDataAccessTest {
   void getRecipeById_NotFound_null() {
     // Arrange: Set the recipe ID and mock that the query returns no results
     Long recipeId = 1L;
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe WHERE id"), anyMap()))
+    when(postgresDataAccess.queryStatement(
+            contains("SELECT * FROM recipe WHERE id"), anyMap(), any()))
         .thenReturn(null);
 
     // Act: Call the method to get the recipe
@@ -756,19 +958,136 @@ class RecipeDataAccessTest {
     verify(postgresDataAccess, times(1))
         .queryStatement(
             contains("SELECT * FROM recipe WHERE id"),
-            argThat(params -> Objects.equals(params.get("id"), recipeId)));
+            argThat(params -> Objects.equals(params.get("id"), recipeId)),
+            any());
     verify(postgresDataAccess, never())
-        .queryStatement(contains("SELECT * FROM recipe_ingredients"), anyMap());
+        .queryStatement(contains("SELECT * FROM recipe_ingredients"), anyMap(), any());
     verify(postgresDataAccess, never())
-        .queryStatement(contains("SELECT * FROM recipe_cooking_step"), anyMap());
+        .queryStatement(contains("SELECT * FROM recipe_cooking_step"), anyMap(), any());
+  }
+
+  @Test
+  void getRecipeById_json_singleStatement() {
+    RecipeDataAccess jsonDataAccess =
+        new RecipeDataAccess(postgresDataAccess, RecipeDataAccess.HYDRATION_JSON);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GRAPH_GET_BY_ID), anyMap(), any()))
+        .thenAnswer(
+            rows(
+                List.of(
+                    graphRow(
+                        createSampleRecipeMap(),
+                        "[[5, \"Sugar\", 100.5, \"grams\"], [6, \"Salt\", null, null]]",
+                        "[[8, \"Mix\", null]]"))));
+
+    Recipe recipe = jsonDataAccess.getRecipeById(1L);
+
+    assertEquals("Sample Recipe", recipe.getName());
+    assertEquals(
+        List.of(
+            new RecipeIngredient(5L, 1L, "Sugar", 100.5, "grams"),
+            new RecipeIngredient(6L, 1L, "Salt", null, null)),
+        recipe.getIngredients());
+    assertEquals(
+        List.of(CookingStep.builder().id(8L).recipeId(1L).description("Mix").build()),
+        recipe.getCookingSteps());
+    // the draft is only referenced by id, as with the per-child queries
+    assertEquals(2L, recipe.getDraftRecipe().getId());
+    assertNull(recipe.getDraftRecipe().getIngredients());
+    verify(postgresDataAccess, times(1)).queryStatement(anyString(), anyMap(), any());
+  }
+
+  @Test
+  void getRecipeGraphById_json_recipeAndDraftInOneStatement() {
+    RecipeDataAccess jsonDataAccess =
+        new RecipeDataAccess(postgresDataAccess, RecipeDataAccess.HYDRATION_JSON);
+    Map<String, Object> draftRow = createSampleRecipeMap();
+    draftRow.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_ID, 2L);
+    draftRow.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_NAME, "Sample Draft");
+    draftRow.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_DRAFT_ID, null);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GRAPH_GET_WITH_DRAFT_BY_ID),
+            argThat(params -> Objects.equals(params.get("id"), 1L)),
+            any()))
+        .thenAnswer(
+            rows(
+                List.of(
+                    graphRow(draftRow, "[[9, \"Flour\", 2, \"cups\"]]", "[]"),
+                    graphRow(createSampleRecipeMap(), "[]", "[]"))));
+
+    Recipe recipe = jsonDataAccess.getRecipeGraphById(1L);
+
+    assertEquals(1L, recipe.getId());
+    assertTrue(recipe.getIngredients().isEmpty());
+    Recipe draft = recipe.getDraftRecipe();
+    assertEquals("Sample Draft", draft.getName());
+    assertEquals(
+        List.of(new RecipeIngredient(9L, 2L, "Flour", 2.0, "cups")), draft.getIngredients());
+    verify(postgresDataAccess, times(1)).queryStatement(anyString(), anyMap(), any());
+  }
+
+  @Test
+  void getRecipeGraphById_json_draftRowGone_noDraft() {
+    RecipeDataAccess jsonDataAccess =
+        new RecipeDataAccess(postgresDataAccess, RecipeDataAccess.HYDRATION_JSON);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GRAPH_GET_WITH_DRAFT_BY_ID), anyMap(), any()))
+        .thenAnswer(rows(List.of(graphRow(createSampleRecipeMap(), "[]", "[]"))));
+
+    assertNull(jsonDataAccess.getRecipeGraphById(1L).getDraftRecipe());
+    assertNull(jsonDataAccess.getRecipeGraphById(3L));
+  }
+
+  @Test
+  void getRecipeGraphById_queries_loadsDraftSeparately() {
+    Map<String, Object> draftRow = createSampleRecipeMap();
+    draftRow.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_ID, 2L);
+    draftRow.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_DRAFT_ID, null);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_ID),
+            argThat(params -> Objects.equals(params.get("id"), 1L)),
+            any()))
+        .thenAnswer(rows(List.of(createSampleRecipeMap())));
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_ID),
+            argThat(params -> Objects.equals(params.get("id"), 2L)),
+            any()))
+        .thenAnswer(rows(List.of(draftRow)));
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID), anyMap(), any()))
+        .thenAnswer(rows(List.of()));
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID), anyMap(), any()))
+        .thenAnswer(rows(List.of()));
+
+    Recipe recipe = recipeDataAccess.getRecipeGraphById(1L);
+
+    assertEquals(2L, recipe.getDraftRecipe().getId());
+    assertNotNull(recipe.getDraftRecipe().getIngredients());
+    verify(postgresDataAccess, times(6)).queryStatement(anyString(), anyMap(), any());
+  }
+
+  @Test
+  void constructor_unknownHydration() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new RecipeDataAccess(postgresDataAccess, "lazy"));
+  }
+
+  private Map<String, Object> graphRow(
+      Map<String, Object> recipeRow, String ingredientsJson, String cookingStepsJson) {
+    Map<String, Object> row = new HashMap<>(recipeRow);
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_INGREDIENTS_JSON, ingredientsJson);
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_COOKING_STEPS_JSON, cookingStepsJson);
+    return row;
   }
 
   @Test
   void getRecipeById_NotFound_empty() {
     // Arrange: Set the recipe ID and mock that the query returns no results
     Long recipeId = 1L;
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe WHERE id"), anyMap()))
-        .thenReturn(Collections.emptyList());
+    when(postgresDataAccess.queryStatement(
+            contains("SELECT * FROM recipe WHERE id"), anyMap(), any()))
+        .thenAnswer(rows(Collections.emptyList()));
 
     // Act: Call the method to get the recipe
     Recipe recipe = recipeDataAccess.getRecipeById(recipeId);
@@ -781,11 +1100,12 @@ class RecipeDataAccessTest {
     verify(postgresDataAccess, times(1))
         .queryStatement(
             contains("SELECT * FROM recipe WHERE id"),
-            argThat(params -> Objects.equals(params.get("id"), recipeId)));
+            argThat(params -> Objects.equals(params.get("id"), recipeId)),
+            any());
     verify(postgresDataAccess, never())
-        .queryStatement(contains("SELECT * FROM recipe_ingredients"), anyMap());
+        .queryStatement(contains("SELECT * FROM recipe_ingredients"), anyMap(), any());
     verify(postgresDataAccess, never())
-        .queryStatement(contains("SELECT * FROM recipe_cooking_step"), anyMap());
+        .queryStatement(contains("SELECT * FROM recipe_cooking_step"), anyMap(), any());
   }
 
   /**
@@ -798,7 +1118,7 @@ class RecipeDataAccessTest {
     String name = "Sample";
     // Mock that an exception is thrown when querying recipes
     when(postgresDataAccess.queryStatement(
-            contains("SELECT * FROM recipe WHERE name ILIKE"), anyMap()))
+            contains("SELECT * FROM recipe WHERE name ILIKE"), anyMap(), any()))
         .thenThrow(new RuntimeException("Database query error"));
 
     // Act & Assert: Calling the method to get recipes by name should throw an exception
@@ -812,12 +1132,13 @@ class RecipeDataAccessTest {
     verify(postgresDataAccess, times(1))
         .queryStatement(
             contains("SELECT * FROM recipe WHERE name ILIKE"),
-            argThat(params -> Objects.equals(params.get("name"), "%" + name + "%")));
+            argThat(params -> Objects.equals(params.get("name"), "%" + name + "%")),
+            any());
     // Verify that there are no queries for ingredients and cooking steps
     verify(postgresDataAccess, never())
-        .queryStatement(contains("SELECT * FROM recipe_ingredients"), anyMap());
+        .queryStatement(contains("SELECT * FROM recipe_ingredients"), anyMap(), any());
     verify(postgresDataAccess, never())
-        .queryStatement(contains("SELECT * FROM recipe_cooking_step"), anyMap());
+        .queryStatement(contains("SELECT * FROM recipe_cooking_step"), anyMap(), any());
   }
 
   @Test
@@ -827,15 +1148,15 @@ class RecipeDataAccessTest {
     Map<String, Object> recipeRow = createSampleRecipeMap();
     List<Map<String, Object>> recipeResult = Collections.singletonList(recipeRow);
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_DRAFT_ID), anyMap()))
-        .thenReturn(recipeResult);
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_DRAFT_ID), anyMap(), any()))
+        .thenAnswer(rows(recipeResult));
     // Mock the query for ingredients and cooking steps data
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID), anyMap()))
-        .thenReturn(Collections.singletonList(createSampleIngredientMap()));
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleIngredientMap())));
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID), anyMap()))
-        .thenReturn(Collections.singletonList(createSampleCookingStepMap()));
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleCookingStepMap())));
 
     // Act: Call the method to get the recipe
     Recipe recipe = recipeDataAccess.getRecipeByDraftId(draftRecipeId);
@@ -851,15 +1172,18 @@ class RecipeDataAccessTest {
     verify(postgresDataAccess, times(1))
         .queryStatement(
             eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_DRAFT_ID),
-            argThat(params -> Objects.equals(params.get("draftid"), draftRecipeId)));
+            argThat(params -> Objects.equals(params.get("draftid"), draftRecipeId)),
+            any());
     verify(postgresDataAccess, times(1))
         .queryStatement(
             eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID),
-            argThat(params -> Objects.equals(params.get("recipe_id"), draftRecipeId)));
+            argThat(params -> Objects.equals(params.get("recipe_id"), draftRecipeId)),
+            any());
     verify(postgresDataAccess, times(1))
         .queryStatement(
             eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID),
-            argThat(params -> Objects.equals(params.get("recipe_id"), draftRecipeId)));
+            argThat(params -> Objects.equals(params.get("recipe_id"), draftRecipeId)),
+            any());
   }
 
   @Test
@@ -868,8 +1192,8 @@ class RecipeDataAccessTest {
     Long draftRecipeId = 1L;
     List<Map<String, Object>> recipeResult = null;
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_DRAFT_ID), anyMap()))
-        .thenReturn(recipeResult);
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_DRAFT_ID), anyMap(), any()))
+        .thenAnswer(rows(recipeResult));
     // Mock the query for ingredients and cooking steps data
 
     // Act: Call the method to get the recipe
@@ -882,7 +1206,8 @@ class RecipeDataAccessTest {
     verify(postgresDataAccess, times(1))
         .queryStatement(
             eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_DRAFT_ID),
-            argThat(params -> Objects.equals(params.get("draftid"), draftRecipeId)));
+            argThat(params -> Objects.equals(params.get("draftid"), draftRecipeId)),
+            any());
   }
 
   @Test
@@ -891,8 +1216,8 @@ class RecipeDataAccessTest {
     Long draftRecipeId = 1L;
     List<Map<String, Object>> recipeResult = new ArrayList<>();
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_DRAFT_ID), anyMap()))
-        .thenReturn(recipeResult);
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_DRAFT_ID), anyMap(), any()))
+        .thenAnswer(rows(recipeResult));
     // Mock the query for ingredients and cooking steps data
 
     // Act: Call the method to get the recipe
@@ -905,7 +1230,8 @@ class RecipeDataAccessTest {
     verify(postgresDataAccess, times(1))
         .queryStatement(
             eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_DRAFT_ID),
-            argThat(params -> Objects.equals(params.get("draftid"), draftRecipeId)));
+            argThat(params -> Objects.equals(params.get("draftid"), draftRecipeId)),
+            any());
   }
 
   /**
@@ -917,13 +1243,15 @@ class RecipeDataAccessTest {
     // Arrange: Mock the returned data for all recipes
     Map<String, Object> recipeRow = createSampleRecipeMap();
     List<Map<String, Object>> recipeResult = Collections.singletonList(recipeRow);
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe"), isNull()))
-        .thenReturn(recipeResult);
+    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe"), isNull(), any()))
+        .thenAnswer(rows(recipeResult));
     // Mock the query for ingredients and cooking steps data
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe_ingredients"), anyMap()))
-        .thenReturn(Collections.singletonList(createSampleIngredientMap()));
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe_cooking_step"), anyMap()))
-        .thenReturn(Collections.singletonList(createSampleCookingStepMap()));
+    when(postgresDataAccess.queryStatement(
+            contains("SELECT * FROM recipe_ingredients"), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleIngredientMap())));
+    when(postgresDataAccess.queryStatement(
+            contains("SELECT * FROM recipe_cooking_step"), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleCookingStepMap())));
 
     // Act: Call the method to get all recipes
     List<Recipe> recipes = recipeDataAccess.getAllRecipes();
@@ -938,15 +1266,18 @@ class RecipeDataAccessTest {
     assertEquals(1, recipe.getCookingSteps().size());
 
     // Verify that the SELECT query was called correctly
-    verify(postgresDataAccess, times(1)).queryStatement(contains("SELECT * FROM recipe"), isNull());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(contains("SELECT * FROM recipe"), isNull(), any());
     verify(postgresDataAccess, times(1))
         .queryStatement(
             contains("SELECT * FROM recipe_ingredients"),
-            argThat(params -> Objects.equals(params.get("recipe_id"), 1L)));
+            argThat(params -> List.of(1L).equals(params.get("recipe_ids"))),
+            any());
     verify(postgresDataAccess, times(1))
         .queryStatement(
             contains("SELECT * FROM recipe_cooking_step"),
-            argThat(params -> Objects.equals(params.get("recipe_id"), 1L)));
+            argThat(params -> List.of(1L).equals(params.get("recipe_ids"))),
+            any());
   }
 
   @Test
@@ -969,8 +1300,8 @@ class RecipeDataAccessTest {
       recipeRow.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_DRAFT_ID, null);
     }
     List<Map<String, Object>> recipeResult = Collections.singletonList(recipeRow);
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe"), isNull()))
-        .thenReturn(recipeResult);
+    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe"), isNull(), any()))
+        .thenAnswer(rows(recipeResult));
     // Mock the query for ingredients and cooking steps data
 
     // Act: Call the method to get all recipes
@@ -986,15 +1317,71 @@ class RecipeDataAccessTest {
     assertEquals(0, recipe.getCookingSteps().size());
 
     // Verify that the SELECT query was called correctly
-    verify(postgresDataAccess, times(1)).queryStatement(contains("SELECT * FROM recipe"), isNull());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(contains("SELECT * FROM recipe"), isNull(), any());
     verify(postgresDataAccess, times(0))
         .queryStatement(
             contains("SELECT * FROM recipe_ingredients"),
-            argThat(params -> Objects.equals(params.get("recipe_id"), 1L)));
+            argThat(params -> List.of(1L).equals(params.get("recipe_ids"))),
+            any());
     verify(postgresDataAccess, times(0))
         .queryStatement(
             contains("SELECT * FROM recipe_cooking_step"),
-            argThat(params -> Objects.equals(params.get("recipe_id"), 1L)));
+            argThat(params -> List.of(1L).equals(params.get("recipe_ids"))),
+            any());
+  }
+
+  @Test
+  void getAllRecipes_childrenLoadedOnceForAllRecipes() {
+    // Arrange: two recipes, children for both come back from a single query per table
+    Map<String, Object> firstRow = createSampleRecipeMap();
+    Map<String, Object> secondRow = createSampleRecipeMap();
+    secondRow.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_ID, 2L);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL), isNull(), any()))
+        .thenAnswer(rows(List.of(firstRow, secondRow)));
+
+    Map<String, Object> secondIngredient = createSampleIngredientMap();
+    secondIngredient.put("id", 2L);
+    secondIngredient.put("recipe_id", 2L);
+    Map<String, Object> thirdIngredient = createSampleIngredientMap();
+    thirdIngredient.put("id", 3L);
+    thirdIngredient.put("recipe_id", 2L);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_IDS), anyMap(), any()))
+        .thenAnswer(rows(List.of(createSampleIngredientMap(), secondIngredient, thirdIngredient)));
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_IDS), anyMap(), any()))
+        .thenAnswer(rows(List.of(createSampleCookingStepMap())));
+
+    // Act
+    List<Recipe> recipes = recipeDataAccess.getAllRecipes();
+
+    // Assert: children are grouped back onto the owning recipe, in query order
+    assertEquals(2, recipes.size());
+    assertEquals(1, recipes.get(0).getIngredients().size());
+    assertEquals(1, recipes.get(0).getCookingSteps().size());
+    assertEquals(2, recipes.get(1).getIngredients().size());
+    assertEquals(2L, recipes.get(1).getIngredients().get(0).getId());
+    assertEquals(3L, recipes.get(1).getIngredients().get(1).getId());
+    assertTrue(recipes.get(1).getCookingSteps().isEmpty());
+
+    verify(postgresDataAccess, times(1))
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_IDS),
+            argThat(params -> List.of(1L, 2L).equals(params.get("recipe_ids"))),
+            any());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_IDS),
+            argThat(params -> List.of(1L, 2L).equals(params.get("recipe_ids"))),
+            any());
+    verify(postgresDataAccess, never())
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID), anyMap(), any());
+    verify(postgresDataAccess, never())
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID), anyMap(), any());
   }
 
   @Test
@@ -1002,8 +1389,8 @@ class RecipeDataAccessTest {
     // Arrange: Mock the returned data for all recipes
     Map<String, Object> recipeRow = createSampleRecipeMap();
     List<Map<String, Object>> recipeResult = null;
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe"), isNull()))
-        .thenReturn(recipeResult);
+    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe"), isNull(), any()))
+        .thenAnswer(rows(recipeResult));
 
     // Act: Call the method to get all recipes
     List<Recipe> recipes = recipeDataAccess.getAllPublishedRecipes();
@@ -1012,7 +1399,8 @@ class RecipeDataAccessTest {
     assertNull(recipes);
 
     // Verify that the SELECT query was called correctly
-    verify(postgresDataAccess, times(1)).queryStatement(contains("SELECT * FROM recipe"), isNull());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(contains("SELECT * FROM recipe"), isNull(), any());
   }
 
   @Test
@@ -1020,13 +1408,15 @@ class RecipeDataAccessTest {
     // Arrange: Mock the returned data for all recipes
     Map<String, Object> recipeRow = createSampleRecipeMap();
     List<Map<String, Object>> recipeResult = Collections.singletonList(recipeRow);
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe"), isNull()))
-        .thenReturn(recipeResult);
+    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe"), isNull(), any()))
+        .thenAnswer(rows(recipeResult));
     // Mock the query for ingredients and cooking steps data
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe_ingredients"), anyMap()))
-        .thenReturn(Collections.singletonList(createSampleIngredientMap()));
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe_cooking_step"), anyMap()))
-        .thenReturn(Collections.singletonList(createSampleCookingStepMap()));
+    when(postgresDataAccess.queryStatement(
+            contains("SELECT * FROM recipe_ingredients"), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleIngredientMap())));
+    when(postgresDataAccess.queryStatement(
+            contains("SELECT * FROM recipe_cooking_step"), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleCookingStepMap())));
 
     // Act: Call the method to get all recipes
     List<Recipe> recipes = recipeDataAccess.getAllPublishedRecipes();
@@ -1041,15 +1431,18 @@ class RecipeDataAccessTest {
     assertEquals(1, recipe.getCookingSteps().size());
 
     // Verify that the SELECT query was called correctly
-    verify(postgresDataAccess, times(1)).queryStatement(contains("SELECT * FROM recipe"), isNull());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(contains("SELECT * FROM recipe"), isNull(), any());
     verify(postgresDataAccess, times(1))
         .queryStatement(
             contains("SELECT * FROM recipe_ingredients"),
-            argThat(params -> Objects.equals(params.get("recipe_id"), 1L)));
+            argThat(params -> List.of(1L).equals(params.get("recipe_ids"))),
+            any());
     verify(postgresDataAccess, times(1))
         .queryStatement(
             contains("SELECT * FROM recipe_cooking_step"),
-            argThat(params -> Objects.equals(params.get("recipe_id"), 1L)));
+            argThat(params -> List.of(1L).equals(params.get("recipe_ids"))),
+            any());
   }
 
   /**
@@ -1063,13 +1456,15 @@ class RecipeDataAccessTest {
     Map<String, Object> recipeRow = createSampleRecipeMap();
     List<Map<String, Object>> recipeResult = Collections.singletonList(recipeRow);
     when(postgresDataAccess.queryStatement(
-            contains("SELECT * FROM recipe WHERE name ILIKE"), anyMap()))
-        .thenReturn(recipeResult);
+            contains("SELECT * FROM recipe WHERE name ILIKE"), anyMap(), any()))
+        .thenAnswer(rows(recipeResult));
     // Mock the query for ingredients and cooking steps data
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe_ingredients"), anyMap()))
-        .thenReturn(Collections.singletonList(createSampleIngredientMap()));
-    when(postgresDataAccess.queryStatement(contains("SELECT * FROM recipe_cooking_step"), anyMap()))
-        .thenReturn(Collections.singletonList(createSampleCookingStepMap()));
+    when(postgresDataAccess.queryStatement(
+            contains("SELECT * FROM recipe_ingredients"), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleIngredientMap())));
+    when(postgresDataAccess.queryStatement(
+            contains("SELECT * FROM recipe_cooking_step"), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleCookingStepMap())));
 
     // Act: Call the method to get recipes by name
     List<Recipe> recipes = recipeDataAccess.getRecipesByName(name);
@@ -1086,15 +1481,18 @@ class RecipeDataAccessTest {
     verify(postgresDataAccess, times(1))
         .queryStatement(
             contains("SELECT * FROM recipe WHERE name ILIKE"),
-            argThat(params -> Objects.equals(params.get("name"), "%" + name + "%")));
+            argThat(params -> Objects.equals(params.get("name"), "%" + name + "%")),
+            any());
     verify(postgresDataAccess, times(1))
         .queryStatement(
             contains("SELECT * FROM recipe_ingredients"),
-            argThat(params -> Objects.equals(params.get("recipe_id"), 1L)));
+            argThat(params -> List.of(1L).equals(params.get("recipe_ids"))),
+            any());
     verify(postgresDataAccess, times(1))
         .queryStatement(
             contains("SELECT * FROM recipe_cooking_step"),
-            argThat(params -> Objects.equals(params.get("recipe_id"), 1L)));
+            argThat(params -> List.of(1L).equals(params.get("recipe_ids"))),
+            any());
   }
 
   @Test
@@ -1104,15 +1502,15 @@ class RecipeDataAccessTest {
     Map<String, Object> recipeRow = createSampleRecipeMap();
     List<Map<String, Object>> recipeResult = Collections.singletonList(recipeRow);
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_CREATOR_ID), anyMap()))
-        .thenReturn(recipeResult);
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_CREATOR_ID), anyMap(), any()))
+        .thenAnswer(rows(recipeResult));
     // Mock the query for ingredients and cooking steps data
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID), anyMap()))
-        .thenReturn(Collections.singletonList(createSampleIngredientMap()));
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_IDS), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleIngredientMap())));
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID), anyMap()))
-        .thenReturn(Collections.singletonList(createSampleCookingStepMap()));
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_IDS), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleCookingStepMap())));
 
     // Act: Call the method to get recipes by name
     List<Recipe> recipes = recipeDataAccess.getRecipeByCreatorId(creatorId);
@@ -1129,15 +1527,18 @@ class RecipeDataAccessTest {
     verify(postgresDataAccess, times(1))
         .queryStatement(
             eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_CREATOR_ID),
-            argThat(params -> Objects.equals(params.get("creator_id"), creatorId)));
+            argThat(params -> Objects.equals(params.get("creator_id"), creatorId)),
+            any());
     verify(postgresDataAccess, times(1))
         .queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID),
-            argThat(params -> Objects.equals(params.get("recipe_id"), 1L)));
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_IDS),
+            argThat(params -> List.of(1L).equals(params.get("recipe_ids"))),
+            any());
     verify(postgresDataAccess, times(1))
         .queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID),
-            argThat(params -> Objects.equals(params.get("recipe_id"), 1L)));
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_IDS),
+            argThat(params -> List.of(1L).equals(params.get("recipe_ids"))),
+            any());
   }
 
   @Test
@@ -1146,8 +1547,8 @@ class RecipeDataAccessTest {
     int creatorId = 1;
     List<Map<String, Object>> recipeResult = null;
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_CREATOR_ID), anyMap()))
-        .thenReturn(recipeResult);
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_CREATOR_ID), anyMap(), any()))
+        .thenAnswer(rows(recipeResult));
 
     // Act: Call the method to get recipes by name
     List<Recipe> recipes = recipeDataAccess.getRecipeByCreatorId(creatorId);
@@ -1162,8 +1563,8 @@ class RecipeDataAccessTest {
     int creatorId = 1;
     List<Map<String, Object>> recipeResult = new ArrayList<>();
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_CREATOR_ID), anyMap()))
-        .thenReturn(recipeResult);
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_CREATOR_ID), anyMap(), any()))
+        .thenAnswer(rows(recipeResult));
 
     // Act: Call the method to get recipes by name
     List<Recipe> recipes = recipeDataAccess.getRecipeByCreatorId(creatorId);
@@ -1179,8 +1580,8 @@ class RecipeDataAccessTest {
     Map<String, Object> recipeRow = createSampleRecipeMap();
     List<Map<String, Object>> recipeResult = null;
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY_DESC), isNull()))
-        .thenReturn(recipeResult);
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY_DESC), isNull(), any()))
+        .thenAnswer(rows(recipeResult));
 
     // Act: Call the method to get all recipes
     List<Recipe> recipes = recipeDataAccess.getAllPublishedRecipesByDifficulty(isDesc);
@@ -1191,7 +1592,7 @@ class RecipeDataAccessTest {
     // Verify that the SELECT query was called correctly
     verify(postgresDataAccess, times(1))
         .queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY_DESC), isNull());
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY_DESC), isNull(), any());
   }
 
   @Test
@@ -1200,8 +1601,8 @@ class RecipeDataAccessTest {
     // Arrange: Mock the returned data for all recipes
     List<Map<String, Object>> recipeResult = new ArrayList<>();
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY), isNull()))
-        .thenReturn(recipeResult);
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY), isNull(), any()))
+        .thenAnswer(rows(recipeResult));
 
     // Act: Call the method to get all recipes
     List<Recipe> recipes = recipeDataAccess.getAllPublishedRecipesByDifficulty(isDesc);
@@ -1211,7 +1612,8 @@ class RecipeDataAccessTest {
 
     // Verify that the SELECT query was called correctly
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY), isNull());
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY), isNull(), any());
   }
 
   @Test
@@ -1234,14 +1636,14 @@ class RecipeDataAccessTest {
       cookingStepResult.add(recipeRow);
     }
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY), isNull()))
-        .thenReturn(recipeResult);
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY), isNull(), any()))
+        .thenAnswer(rows(recipeResult));
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID), any()))
-        .thenReturn(ingredientResult);
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_IDS), any(), any()))
+        .thenAnswer(rows(ingredientResult));
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID), any()))
-        .thenReturn(cookingStepResult);
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_IDS), any(), any()))
+        .thenAnswer(rows(cookingStepResult));
 
     // Act: Call the method to get all recipes
     List<Recipe> recipes = recipeDataAccess.getAllPublishedRecipesByDifficulty(isDesc);
@@ -1257,11 +1659,14 @@ class RecipeDataAccessTest {
 
     // Verify that the SELECT query was called correctly
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY), isNull());
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_DIFFICULTY), isNull(), any());
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID), any());
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_IDS), any(), any());
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID), any());
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_IDS), any(), any());
   }
 
   @Test
@@ -1271,8 +1676,8 @@ class RecipeDataAccessTest {
     Map<String, Object> recipeRow = createSampleRecipeMap();
     List<Map<String, Object>> recipeResult = null;
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING_DESC), isNull()))
-        .thenReturn(recipeResult);
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING_DESC), isNull(), any()))
+        .thenAnswer(rows(recipeResult));
 
     // Act: Call the method to get all recipes
     List<Recipe> recipes = recipeDataAccess.getAllPublishedRecipesByRating(isDesc);
@@ -1282,7 +1687,8 @@ class RecipeDataAccessTest {
 
     // Verify that the SELECT query was called correctly
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING_DESC), isNull());
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING_DESC), isNull(), any());
   }
 
   @Test
@@ -1291,8 +1697,8 @@ class RecipeDataAccessTest {
     // Arrange: Mock the returned data for all recipes
     List<Map<String, Object>> recipeResult = new ArrayList<>();
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING), isNull()))
-        .thenReturn(recipeResult);
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING), isNull(), any()))
+        .thenAnswer(rows(recipeResult));
 
     // Act: Call the method to get all recipes
     List<Recipe> recipes = recipeDataAccess.getAllPublishedRecipesByRating(isDesc);
@@ -1302,7 +1708,8 @@ class RecipeDataAccessTest {
 
     // Verify that the SELECT query was called correctly
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING), isNull());
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING), isNull(), any());
   }
 
   @Test
@@ -1325,14 +1732,14 @@ class RecipeDataAccessTest {
       cookingStepResult.add(recipeRow);
     }
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING), isNull()))
-        .thenReturn(recipeResult);
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING), isNull(), any()))
+        .thenAnswer(rows(recipeResult));
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID), any()))
-        .thenReturn(ingredientResult);
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_IDS), any(), any()))
+        .thenAnswer(rows(ingredientResult));
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID), any()))
-        .thenReturn(cookingStepResult);
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_IDS), any(), any()))
+        .thenAnswer(rows(cookingStepResult));
 
     // Act: Call the method to get all recipes
     List<Recipe> recipes = recipeDataAccess.getAllPublishedRecipesByRating(isDesc);
@@ -1348,11 +1755,14 @@ class RecipeDataAccessTest {
 
     // Verify that the SELECT query was called correctly
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING), isNull());
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_ALL_BY_RATING), isNull(), any());
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_ID), any());
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_IDS), any(), any());
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_ID), any());
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_IDS), any(), any());
   }
 
   @Test
@@ -1403,6 +1813,124 @@ class RecipeDataAccessTest {
         .upsertStatement(eq(PostgresSqlStatementRecipe.SQL_RECIPE_UPDATE_RATING), any());
   }
 
+  @Test
+  void recomputeReviewAggregates_returnsRepairedCount() {
+    when(postgresDataAccess.upsertStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_RECOMPUTE_REVIEW_AGGREGATES), anyMap()))
+        .thenReturn(3);
+
+    assertEquals(3, recipeDataAccess.recomputeReviewAggregates());
+  }
+
+  @Test
+  void recomputeReviewAggregates_statementFailed() {
+    when(postgresDataAccess.upsertStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_RECOMPUTE_REVIEW_AGGREGATES), anyMap()))
+        .thenReturn(-1);
+
+    assertThrows(IllegalStateException.class, () -> recipeDataAccess.recomputeReviewAggregates());
+  }
+
+  @Test
+  void applyReviewAggregateDeltas_oneStatementPerBatch_inRecipeIdOrder() {
+    List<ReviewAggregateDelta> deltas = new ArrayList<>();
+    for (long id = 501; id >= 1; id--) {
+      deltas.add(
+          new ReviewAggregateDelta(
+              id, MARKED_AT, 1, BigDecimal.valueOf(4.5), new int[] {0, 0, 0, 0, 1}));
+    }
+    when(postgresDataAccess.upsertStatement(anyString(), anyMap()))
+        .thenAnswer(invocation -> ((Map<?, ?>) invocation.getArgument(1)).size() / 10);
+
+    assertEquals(501, recipeDataAccess.applyReviewAggregateDeltas(deltas));
+
+    verify(postgresDataAccess, times(1))
+        .upsertStatement(
+            eq(PostgresSqlStatementRecipe.sqlRecipeApplyReviewDeltas(500)),
+            argThat(
+                params ->
+                    params.size() == 500 * 10
+                        && params.get("recipe_id_0").equals(1L)
+                        && params.get("marked_at_0").equals(MARKED_AT)
+                        && params.get("recipe_id_499").equals(500L)
+                        && params.get("rating_delta_0").equals(BigDecimal.valueOf(4.5))
+                        && params.get("stars_5_delta_0").equals(1)
+                        && params.get("stars_1_delta_0").equals(0)
+                        && params.get("writes_0").equals(1)));
+    verify(postgresDataAccess, times(1))
+        .upsertStatement(
+            eq(PostgresSqlStatementRecipe.sqlRecipeApplyReviewDeltas(1)),
+            argThat(params -> params.get("recipe_id_0").equals(501L)));
+  }
+
+  @Test
+  void recomputeLostReviewAggregates_returnsRecomputedIds() {
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_RECOMPUTE_LOST_REVIEW_AGGREGATES),
+            eq(Map.of(PostgresSqlStatementRecipe.INPUT_REVIEW_DIRTY_LOST_AFTER_MS, 60000L)),
+            any()))
+        .thenReturn(List.of(3L, 7L));
+
+    assertEquals(List.of(3L, 7L), recipeDataAccess.recomputeLostReviewAggregates(60000L));
+  }
+
+  @Test
+  void recomputeLostReviewAggregates_statementFailed() {
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_RECOMPUTE_LOST_REVIEW_AGGREGATES),
+            anyMap(),
+            any()))
+        .thenReturn(null);
+
+    assertThrows(
+        IllegalStateException.class, () -> recipeDataAccess.recomputeLostReviewAggregates(60000L));
+  }
+
+  @Test
+  void applyReviewAggregateDeltas_laterBatchFailed_throws() {
+    List<ReviewAggregateDelta> deltas = new ArrayList<>();
+    for (long id = 1; id <= 501; id++) {
+      deltas.add(new ReviewAggregateDelta(id, MARKED_AT, 1, BigDecimal.ONE, new int[5]));
+    }
+    when(postgresDataAccess.upsertStatement(
+            eq(PostgresSqlStatementRecipe.sqlRecipeApplyReviewDeltas(500)), anyMap()))
+        .thenReturn(500);
+    when(postgresDataAccess.upsertStatement(
+            eq(PostgresSqlStatementRecipe.sqlRecipeApplyReviewDeltas(1)), anyMap()))
+        .thenReturn(-1);
+
+    // thrown out of the transaction, so the first batch is rolled back with the failed one and the
+    // pipeline puts all the deltas back
+    assertThrows(
+        IllegalStateException.class, () -> recipeDataAccess.applyReviewAggregateDeltas(deltas));
+    verify(postgresDataAccess, times(2)).upsertStatement(anyString(), anyMap());
+  }
+
+  @Test
+  void sqlRecipeApplyReviewDeltas_onlyWhileMarkedDirty() {
+    String sql = PostgresSqlStatementRecipe.sqlRecipeApplyReviewDeltas(1);
+
+    // a delta of a recipe recovered since its write matches no dirty row and is not added
+    assertTrue(sql.contains("CAST(:marked_at_0 AS timestamp)"));
+    assertTrue(sql.contains("x.marked_at = d.marked_at AND x.writes <= d.writes"));
+    assertTrue(sql.contains("x.marked_at = d.marked_at AND x.writes > d.writes"));
+    assertTrue(
+        sql.endsWith(
+            "AND d.recipe_id IN (SELECT recipe_id FROM settled UNION ALL"
+                + " SELECT recipe_id FROM unsettled)"));
+  }
+
+  @Test
+  void applyReviewAggregateDeltas_statementFailed() {
+    when(postgresDataAccess.upsertStatement(anyString(), anyMap())).thenReturn(-1);
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            recipeDataAccess.applyReviewAggregateDeltas(
+                List.of(new ReviewAggregateDelta(1L, MARKED_AT, -1, null, new int[5]))));
+  }
+
   /**
    * Test getting recipes by name when the recipe does not exist. Verify that the method should
    * return an empty list and that there are no queries for ingredients and cooking steps.
@@ -1412,8 +1940,8 @@ class RecipeDataAccessTest {
     // Arrange: Set the search name and mock that the query returns no results
     String name = "Nonexistent";
     when(postgresDataAccess.queryStatement(
-            contains("SELECT * FROM recipe WHERE name ILIKE"), anyMap()))
-        .thenReturn(Collections.emptyList());
+            contains("SELECT * FROM recipe WHERE name ILIKE"), anyMap(), any()))
+        .thenAnswer(rows(Collections.emptyList()));
 
     // Act: Call the method to get recipes by name
     List<Recipe> recipes = recipeDataAccess.getRecipesByName(name);
@@ -1427,11 +1955,66 @@ class RecipeDataAccessTest {
     verify(postgresDataAccess, times(1))
         .queryStatement(
             contains("SELECT * FROM recipe WHERE name ILIKE"),
-            argThat(params -> Objects.equals(params.get("name"), "%" + name + "%")));
+            argThat(params -> Objects.equals(params.get("name"), "%" + name + "%")),
+            any());
     verify(postgresDataAccess, never())
-        .queryStatement(contains("SELECT * FROM recipe_ingredients"), anyMap());
+        .queryStatement(contains("SELECT * FROM recipe_ingredients"), anyMap(), any());
     verify(postgresDataAccess, never())
-        .queryStatement(contains("SELECT * FROM recipe_cooking_step"), anyMap());
+        .queryStatement(contains("SELECT * FROM recipe_cooking_step"), anyMap(), any());
+  }
+
+  @Test
+  void searchPublishedRecipes_Found_attachesChildren() {
+    String query = "spicy noodles";
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_SEARCH_PUBLISHED), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleRecipeMap())));
+    when(postgresDataAccess.queryStatement(
+            contains("SELECT * FROM recipe_ingredients"), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleIngredientMap())));
+    when(postgresDataAccess.queryStatement(
+            contains("SELECT * FROM recipe_cooking_step"), anyMap(), any()))
+        .thenAnswer(rows(Collections.singletonList(createSampleCookingStepMap())));
+
+    List<Recipe> recipes = recipeDataAccess.searchPublishedRecipes(query, 5);
+
+    assertEquals(1, recipes.size());
+    assertEquals(1, recipes.getFirst().getIngredients().size());
+    assertEquals(1, recipes.getFirst().getCookingSteps().size());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_SEARCH_PUBLISHED),
+            argThat(
+                params ->
+                    Objects.equals(params.get(PostgresSqlStatementRecipe.INPUT_SEARCH_QUERY), query)
+                        && Objects.equals(
+                            params.get(PostgresSqlStatementRecipe.INPUT_SEARCH_LIMIT), 5)),
+            any());
+  }
+
+  @Test
+  void searchPublishedRecipes_QueryFailed_ReturnsEmpty() {
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_SEARCH_PUBLISHED), anyMap(), any()))
+        .thenReturn(null);
+
+    assertTrue(recipeDataAccess.searchPublishedRecipes("noodles", 5).isEmpty());
+    assertThrows(
+        IllegalArgumentException.class, () -> recipeDataAccess.searchPublishedRecipes("a", 0));
+  }
+
+  @Test
+  void searchPublishedRecipes_usesIndexedSearchDocument() {
+    // the statement must use the same document expression as idx_recipe_search_document
+    String sql = PostgresSqlStatementRecipe.SQL_RECIPE_SEARCH_PUBLISHED;
+    assertTrue(
+        sql.contains(
+            "(setweight(to_tsvector('english', coalesce(name, '')), 'A') || "
+                + "setweight(to_tsvector('english', coalesce(cuisine, '')), 'B') || "
+                + "setweight(to_tsvector('english', coalesce(description, '')), 'C'))"
+                + " @@ websearch_to_tsquery('english', :search_query)"));
+    assertTrue(sql.contains("name % :search_query"));
+    assertTrue(sql.endsWith("DESC, id LIMIT :search_limit"));
   }
 
   /** Helper method: Create a sample recipe object for testing */
@@ -1530,6 +2113,25 @@ class RecipeDataAccessTest {
   /**
    * Helper method: Create a sample recipe object with multiple ingredients and steps for testing
    */
+  private Map<String, Object> ingredientRow(Long id, String name, double quantity, String uom) {
+    Map<String, Object> row = new HashMap<>();
+    row.put(PostgresSqlStatementRecipe.COLUMN_INGREDIENT_ID, id);
+    row.put(PostgresSqlStatementRecipe.COLUMN_INGREDIENT_RECIPE_ID, 1L);
+    row.put(PostgresSqlStatementRecipe.COLUMN_INGREDIENT_NAME, name);
+    row.put(PostgresSqlStatementRecipe.COLUMN_INGREDIENT_QUANTITY, quantity);
+    row.put(PostgresSqlStatementRecipe.COLUMN_INGREDIENT_UOM, uom);
+    return row;
+  }
+
+  private Map<String, Object> cookingStepRow(Long id, String description, String image) {
+    Map<String, Object> row = new HashMap<>();
+    row.put(PostgresSqlStatementRecipe.COLUMN_COOKING_STEP_ID, id);
+    row.put(PostgresSqlStatementRecipe.COLUMN_COOKING_STEP_RECIPE_ID, 1L);
+    row.put(PostgresSqlStatementRecipe.COLUMN_COOKING_STEP_DESCRIPTION, description);
+    row.put(PostgresSqlStatementRecipe.COLUMN_COOKING_STEP_IMAGE, image);
+    return row;
+  }
+
   private Recipe createSampleRecipeWithMultipleIngredientsAndSteps() {
     Recipe recipe = new Recipe();
     recipe.setCreatorId(1L);
@@ -1557,4 +2159,284 @@ class RecipeDataAccessTest {
 
     return recipe;
   }
+
+  @Test
+  void getPublishedRecipesByRatingPage_descending() {
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_PUBLISHED_BY_RATING_DESC_PAGE),
+            anyMap(),
+            any()))
+        .thenAnswer(rows(List.of(createSampleRecipeMap())));
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_IDS), anyMap(), any()))
+        .thenAnswer(rows(List.of(createSampleIngredientMap())));
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_IDS), anyMap(), any()))
+        .thenAnswer(rows(List.of()));
+
+    List<Recipe> recipes = recipeDataAccess.getPublishedRecipesByRatingPage(true, 4.5, 10L, 21);
+
+    assertEquals(1, recipes.size());
+    assertEquals(1, recipes.getFirst().getIngredients().size());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_PUBLISHED_BY_RATING_DESC_PAGE),
+            argThat(
+                params ->
+                    Objects.equals(params.get("after_key"), 4.5)
+                        && Objects.equals(params.get("after_id"), 10L)
+                        && Objects.equals(params.get("page_limit"), 21)),
+            any());
+  }
+
+  @Test
+  void getPublishedRecipeSummariesByRatingPage_singleQuery_noChildren() {
+    Map<String, Object> row = new HashMap<>();
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_ID, 7L);
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_NAME, "Laksa");
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_IMAGE, "laksa.jpg");
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_RATING, null);
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_DIFFICULTY_LEVEL, 3);
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_COOKING_TIME, 45);
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_CUISINE, "Malaysian");
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_SUMMARY_GET_PUBLISHED_BY_RATING_DESC_PAGE),
+            anyMap(),
+            any()))
+        .thenAnswer(rows(List.of(row)));
+
+    List<RecipeSummary> summaries =
+        recipeDataAccess.getPublishedRecipeSummariesByRatingPage(true, 4.5, 10L, 21);
+
+    assertEquals(1, summaries.size());
+    RecipeSummary summary = summaries.getFirst();
+    assertEquals(7L, summary.getId());
+    assertEquals("Laksa", summary.getName());
+    assertEquals("laksa.jpg", summary.getImage());
+    assertNull(summary.getRating());
+    assertEquals(3, summary.getDifficultyLevel());
+    assertEquals(45, summary.getCookingTimeInMin());
+    assertEquals("Malaysian", summary.getCuisine());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_SUMMARY_GET_PUBLISHED_BY_RATING_DESC_PAGE),
+            argThat(
+                params ->
+                    Objects.equals(params.get("after_key"), 4.5)
+                        && Objects.equals(params.get("after_id"), 10L)
+                        && Objects.equals(params.get("page_limit"), 21)),
+            any());
+    // one query for the whole page
+    verify(postgresDataAccess, times(1)).queryStatement(anyString(), anyMap(), any());
+  }
+
+  @Test
+  void getPublishedRecipeSummariesPage_leanColumnsSameOrder() {
+    String summarySql = PostgresSqlStatementRecipe.SQL_RECIPE_SUMMARY_GET_PUBLISHED_PAGE;
+    assertTrue(
+        summarySql.startsWith(
+            "SELECT id, name, image, rating, difficultylevel, cookingtimeinmin, cuisine,"
+                + " review_count, stars_1_count, stars_2_count, stars_3_count, stars_4_count,"
+                + " stars_5_count FROM"));
+    // same rows and order as the full page, only the select list differs
+    assertEquals(
+        PostgresSqlStatementRecipe.SQL_RECIPE_GET_PUBLISHED_PAGE,
+        summarySql.replace(PostgresSqlStatementRecipe.SQL_RECIPE_SUMMARY_COLUMNS, "*"));
+    assertEquals(
+        PostgresSqlStatementRecipe.SQL_RECIPE_GET_PUBLISHED_BY_DIFFICULTY_PAGE,
+        PostgresSqlStatementRecipe.SQL_RECIPE_SUMMARY_GET_PUBLISHED_BY_DIFFICULTY_PAGE.replace(
+            PostgresSqlStatementRecipe.SQL_RECIPE_SUMMARY_COLUMNS, "*"));
+  }
+
+  @Test
+  void getPublishedRecipeSummariesPage_reviewSummary() {
+    Map<String, Object> row = new HashMap<>();
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_ID, 7L);
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_RATING, 4.25);
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_REVIEW_COUNT, 4);
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_STARS_1_COUNT, 0);
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_STARS_2_COUNT, 0);
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_STARS_3_COUNT, 1);
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_STARS_4_COUNT, 1);
+    row.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_STARS_5_COUNT, 2);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_SUMMARY_GET_PUBLISHED_PAGE), anyMap(), any()))
+        .thenAnswer(rows(List.of(row)));
+
+    RecipeSummary summary = recipeDataAccess.getPublishedRecipeSummariesPage(0, 21).getFirst();
+
+    assertEquals(4.25, summary.getRating());
+    assertEquals(4, summary.getReviewCount());
+    assertEquals(List.of(0, 0, 1, 1, 2), summary.getRatingHistogram());
+  }
+
+  @Test
+  void recipeRowMapper_reviewSummary_nullWhenNotSelected() throws Exception {
+    Map<String, Object> reviewed = new HashMap<>();
+    reviewed.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_ID, 1L);
+    reviewed.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_REVIEW_COUNT, 3);
+    for (String column : PostgresSqlStatementRecipe.COLUMNS_RECIPE_STARS_COUNT) {
+      reviewed.put(column, 0);
+    }
+    reviewed.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_STARS_5_COUNT, 3);
+
+    Recipe recipe =
+        MapResultSet.mapAll(List.of(reviewed), new RecipeDataAccess.RecipeRowMapper()).getFirst();
+    Recipe unselected =
+        MapResultSet.mapAll(
+                List.of(Map.of(PostgresSqlStatementRecipe.COLUMN_RECIPE_ID, 2L)),
+                new RecipeDataAccess.RecipeRowMapper())
+            .getFirst();
+
+    assertEquals(3, recipe.getReviewCount());
+    assertEquals(List.of(0, 0, 0, 0, 3), recipe.getRatingHistogram());
+    assertNull(unselected.getReviewCount());
+    assertNull(unselected.getRatingHistogram());
+  }
+
+  @Test
+  void getPublishedRecipeSummariesPage_nullResult_emptyList() {
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_SUMMARY_GET_PUBLISHED_PAGE), anyMap(), any()))
+        .thenReturn(null);
+
+    assertTrue(recipeDataAccess.getPublishedRecipeSummariesPage(0, 21).isEmpty());
+  }
+
+  @Test
+  void getRecipesByCreatorIdPage_nullResult_emptyList() {
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_GET_BY_CREATOR_ID_PAGE), anyMap(), any()))
+        .thenReturn(null);
+
+    List<Recipe> recipes = recipeDataAccess.getRecipesByCreatorIdPage(1, 0, 21);
+
+    assertNotNull(recipes);
+    assertTrue(recipes.isEmpty());
+  }
+
+  @Test
+  void getRecipesPage_invalidLimit() {
+    assertThrows(IllegalArgumentException.class, () -> recipeDataAccess.getRecipesPage(0, 0));
+    verify(postgresDataAccess, never()).queryStatement(anyString(), anyMap(), any());
+  }
+
+  @Test
+  void getRecipeRatingsByCreatorId_unratedScoresZero() {
+    Map<String, Object> unrated = new HashMap<>();
+    unrated.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_ID, 2L);
+    unrated.put(PostgresSqlStatementRecipe.COLUMN_RECIPE_RATING, null);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_RATINGS_GET_BY_CREATOR_ID), anyMap(), any()))
+        .thenAnswer(
+            rows(
+                List.of(
+                    Map.of(
+                        PostgresSqlStatementRecipe.COLUMN_RECIPE_ID,
+                        1L,
+                        PostgresSqlStatementRecipe.COLUMN_RECIPE_RATING,
+                        4.5),
+                    unrated)));
+
+    assertEquals(
+        List.of(new RecipeScore(1L, 4.5), new RecipeScore(2L, 0)),
+        recipeDataAccess.getRecipeRatingsByCreatorId(7));
+  }
+
+  @Test
+  void getRecipeRatingsByCreatorId_nullResult_emptyList() {
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_RATINGS_GET_BY_CREATOR_ID), anyMap(), any()))
+        .thenReturn(null);
+
+    assertTrue(recipeDataAccess.getRecipeRatingsByCreatorId(7).isEmpty());
+  }
+
+  @Test
+  void getRecipesByIds_emptyInput() {
+    assertTrue(recipeDataAccess.getRecipesByIds(List.of()).isEmpty());
+    verify(postgresDataAccess, never()).queryStatement(anyString(), anyMap(), any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void streamAllPublishedRecipes_hydratesAndForwardsEachRecipe() {
+    Recipe first = new Recipe();
+    first.setId(1L);
+    Recipe second = new Recipe();
+    second.setId(2L);
+    doAnswer(
+            invocation -> {
+              Consumer<Recipe> rowConsumer = invocation.getArgument(4);
+              rowConsumer.accept(first);
+              rowConsumer.accept(second);
+              return null;
+            })
+        .when(postgresDataAccess)
+        .streamStatement(
+            eq(PostgresSqlStatementRecipe.SQL_RECIPE_STREAM_PUBLISHED),
+            isNull(),
+            anyInt(),
+            any(),
+            any());
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_IDS), anyMap(), any()))
+        .thenAnswer(rows(List.of(createSampleIngredientMap())));
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_COOKING_STEP_GET_BY_RECIPE_IDS), anyMap(), any()))
+        .thenAnswer(rows(List.of(createSampleCookingStepMap())));
+
+    List<Recipe> exported = new ArrayList<>();
+    recipeDataAccess.streamAllPublishedRecipes(exported::add);
+
+    assertEquals(List.of(first, second), exported);
+    assertEquals(1, first.getIngredients().size());
+    assertEquals(1, first.getCookingSteps().size());
+    assertTrue(second.getIngredients().isEmpty());
+    // both recipes fall in one chunk, so their children are fetched together
+    verify(postgresDataAccess, times(1))
+        .queryStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_GET_BY_RECIPE_IDS),
+            argThat(params -> List.of(1L, 2L).equals(params.get("recipe_ids"))),
+            any());
+  }
+
+  @Test
+  void streamAllPublishedRecipes_noRows_noChildQueries() {
+    List<Recipe> exported = new ArrayList<>();
+    recipeDataAccess.streamAllPublishedRecipes(exported::add);
+
+    assertTrue(exported.isEmpty());
+    verify(postgresDataAccess, never()).queryStatement(anyString(), anyMap(), any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void streamPublishedRecipeIngredients_mapsRecipeIdAndName() {
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put(PostgresSqlStatementRecipe.COLUMN_INGREDIENT_RECIPE_ID, 2L);
+    row.put(PostgresSqlStatementRecipe.COLUMN_INGREDIENT_NAME, "Egg");
+    doAnswer(
+            invocation -> {
+              RowMapper<RecipeIngredient> rowMapper = invocation.getArgument(3);
+              Consumer<RecipeIngredient> consumer = invocation.getArgument(4);
+              MapResultSet.mapAll(List.of(row), rowMapper).forEach(consumer);
+              return null;
+            })
+        .when(postgresDataAccess)
+        .streamStatement(
+            eq(PostgresSqlStatementRecipe.SQL_INGREDIENT_STREAM_PUBLISHED_NAMES),
+            isNull(),
+            anyInt(),
+            any(),
+            any());
+
+    List<RecipeIngredient> streamed = new ArrayList<>();
+    recipeDataAccess.streamPublishedRecipeIngredients(streamed::add);
+
+    assertEquals(1, streamed.size());
+    assertEquals(2L, streamed.getFirst().getRecipeId());
+    assertEquals("Egg", streamed.getFirst().getName());
+    assertNull(streamed.getFirst().getQuantity());
+  }
 }
@@ -0,0 +1,177 @@
+package nus.iss.team3.backend.dataaccess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import nus.iss.team3.backend.dataaccess.postgres.PostgresDataAccess;
+import nus.iss.team3.backend.entity.RecipeReview;
+import nus.iss.team3.backend.entity.ReviewAggregateDelta;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * The review aggregate SQL of RecipeRatingPipeline against a real Postgres: the dirty mark of the
+ * review writes, the deltas applied by the flush and the recovery of the lost ones. The recipe and
+ * review tables are created with only the columns these statements use, in a schema of their own
+ * dropped afterwards, and the aggregate migrations are run over them.
+ *
+ * <p>Run with {@code RECIPE_RATING_TEST_DB_URL=jdbc:postgresql://localhost:5432/<db>
+ * RECIPE_RATING_TEST_DB_USER=<user> RECIPE_RATING_TEST_DB_PASSWORD=<password> ./gradlew test
+ * --tests '*RecipeReviewAggregatesDatabaseTest'}.
+ */
+@EnabledIfEnvironmentVariable(named = "RECIPE_RATING_TEST_DB_URL", matches = ".+")
+class RecipeReviewAggregatesDatabaseTest {
+
+  private static final String SCHEMA = "recipe_review_aggregates_test";
+  private static final List<Path> MIGRATIONS =
+      List.of(
+          Path.of("scripts/db-migration/003-recipe-review-aggregates.sql"),
+          Path.of("scripts/db-migration/005-recipe-review-stars-counts.sql"),
+          Path.of("scripts/db-migration/009-recipe-review-dirty.sql"));
+  private static final long RECIPE_ID = 1L;
+
+  private static NamedParameterJdbcTemplate jdbcTemplate;
+
+  private ReviewDataAccess reviewDataAccess;
+  private RecipeDataAccess recipeDataAccess;
+
+  @BeforeAll
+  static void createSchema() throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty("currentSchema", SCHEMA);
+    DriverManagerDataSource dataSource =
+        new DriverManagerDataSource(
+            System.getenv("RECIPE_RATING_TEST_DB_URL"),
+            System.getenv("RECIPE_RATING_TEST_DB_USER"),
+            System.getenv("RECIPE_RATING_TEST_DB_PASSWORD"));
+    dataSource.setConnectionProperties(properties);
+    jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+
+    jdbcTemplate.getJdbcTemplate().execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    jdbcTemplate.getJdbcTemplate().execute("CREATE SCHEMA " + SCHEMA);
+    jdbcTemplate
+        .getJdbcTemplate()
+        .execute("CREATE TABLE recipe (id bigint PRIMARY KEY, rating double precision)");
+    jdbcTemplate
+        .getJdbcTemplate()
+        .execute(
+            "CREATE TABLE recipe_review (id bigserial PRIMARY KEY, recipe_id bigint NOT NULL,"
+                + " creator_id bigint NOT NULL, rating double precision NOT NULL,"
+                + " create_datetime timestamp, update_datetime timestamp, comments text)");
+    for (Path migration : MIGRATIONS) {
+      jdbcTemplate.getJdbcTemplate().execute(Files.readString(migration));
+    }
+  }
+
+  @AfterAll
+  static void dropSchema() {
+    if (jdbcTemplate != null) {
+      jdbcTemplate.getJdbcTemplate().execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate
+        .getJdbcTemplate()
+        .execute("TRUNCATE recipe, recipe_review, " + PostgresSqlStatementRecipe.TABLE_REVIEW_DIRTY);
+    jdbcTemplate.update("INSERT INTO recipe (id) VALUES (:id)", Map.of("id", RECIPE_ID));
+    PostgresDataAccess postgresDataAccess = new PostgresDataAccess();
+    ReflectionTestUtils.setField(postgresDataAccess, "jdbcTemplate", jdbcTemplate);
+    reviewDataAccess = new ReviewDataAccess(postgresDataAccess);
+    recipeDataAccess = new RecipeDataAccess(postgresDataAccess, RecipeDataAccess.HYDRATION_JSON);
+  }
+
+  @Test
+  void addReview_busyRecipe_keepsFirstMark() {
+    ReviewAggregateDelta first = addReview(1L, 4.0);
+    ReviewAggregateDelta second = addReview(2L, 5.0);
+
+    // the first write not applied yet is what the recovery goes by
+    assertNotNull(first.getMarkedAt());
+    assertEquals(first.getMarkedAt(), second.getMarkedAt());
+    assertEquals(2, dirtyWrites());
+
+    recipeDataAccess.applyReviewAggregateDeltas(List.of(first.merge(second)));
+
+    assertEquals(2, reviewCount());
+    assertEquals(0, dirtyRows());
+  }
+
+  @Test
+  void applyReviewAggregateDeltas_afterRecovery_notAppliedAgain() {
+    // the flush of this delta keeps failing until another replica recovers the recipe
+    ReviewAggregateDelta delayed = addReview(1L, 4.0);
+
+    assertEquals(List.of(RECIPE_ID), recipeDataAccess.recomputeLostReviewAggregates(0L));
+    assertEquals(1, reviewCount());
+
+    recipeDataAccess.applyReviewAggregateDeltas(List.of(delayed));
+
+    assertEquals(1, reviewCount());
+    assertEquals(0, new BigDecimal("4.0").compareTo(ratingSum()));
+  }
+
+  @Test
+  void applyReviewAggregateDeltas_afterRecoveryAndNewWrite_onlyNewApplied() {
+    ReviewAggregateDelta delayed = addReview(1L, 4.0);
+    recipeDataAccess.recomputeLostReviewAggregates(0L);
+    ReviewAggregateDelta added = addReview(2L, 2.0);
+    assertTrue(added.getMarkedAt().after(delayed.getMarkedAt()));
+
+    // queued apart, on two replicas, and flushed together
+    recipeDataAccess.applyReviewAggregateDeltas(List.of(delayed));
+    assertEquals(1, dirtyWrites());
+    recipeDataAccess.applyReviewAggregateDeltas(List.of(added));
+
+    assertEquals(2, reviewCount());
+    assertEquals(0, new BigDecimal("6.0").compareTo(ratingSum()));
+    assertEquals(0, dirtyRows());
+  }
+
+  private ReviewAggregateDelta addReview(long creatorId, double rating) {
+    List<ReviewAggregateDelta> deltas =
+        reviewDataAccess.addReview(
+            new RecipeReview(null, RECIPE_ID, creatorId, rating, null, null, "comments"));
+    assertEquals(1, deltas.size());
+    return deltas.getFirst();
+  }
+
+  private int reviewCount() {
+    return jdbcTemplate.queryForObject(
+        "SELECT review_count FROM recipe WHERE id = :id", Map.of("id", RECIPE_ID), Integer.class);
+  }
+
+  private BigDecimal ratingSum() {
+    return jdbcTemplate.queryForObject(
+        "SELECT rating_sum FROM recipe WHERE id = :id", Map.of("id", RECIPE_ID), BigDecimal.class);
+  }
+
+  private int dirtyWrites() {
+    return jdbcTemplate.queryForObject(
+        "SELECT writes FROM " + PostgresSqlStatementRecipe.TABLE_REVIEW_DIRTY,
+        Map.of(),
+        Integer.class);
+  }
+
+  private int dirtyRows() {
+    return jdbcTemplate.queryForObject(
+        "SELECT count(*) FROM " + PostgresSqlStatementRecipe.TABLE_REVIEW_DIRTY,
+        Map.of(),
+        Integer.class);
+  }
+}
@@ -1,36 +1,60 @@
 package nus.iss.team3.backend.dataaccess;
 
+import static nus.iss.team3.backend.dataaccess.MapResultSet.rows;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMNS_REVIEW_DELTA_STARS;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_RECIPE_REVIEW_COUNT;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_COMMENTS;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_CREATE_TIME;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_CREATOR_ID;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_COUNT;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_MARKED_AT;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_RATING;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_RECIPE_ID;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_DELTA_WRITES;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_ID;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_RATING;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_RECIPE_ID;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.COLUMN_REVIEW_UPDATE_TIME;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.INPUT_PAGE_AFTER_ID;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.INPUT_PAGE_AFTER_KEY;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.INPUT_PAGE_LIMIT;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_ADD;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_COUNT_BY_RECIPE_ID;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_DELETE;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_DELETE_BY_CREATOR_ID;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_DELETE_BY_RECIPE_ID;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_GET_BY_CREATOR_ID;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_GET_BY_RECIPE_AND_CREATOR;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_GET_BY_RECIPE_ID;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_GET_BY_RECIPE_IDS;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_GET_BY_RECIPE_ID_NEWEST_PAGE;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_GET_BY_RECIPE_ID_TOP_RATED_PAGE;
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_STREAM_PUBLISHED_RATINGS;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.SQL_REVIEW_UPDATE;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.function.Consumer;
 import nus.iss.team3.backend.dataaccess.postgres.PostgresDataAccess;
 import nus.iss.team3.backend.entity.RecipeReview;
+import nus.iss.team3.backend.entity.ReviewAggregateDelta;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.RowMapper;
 
 /**
  * Unit test class: RecipeReviewDataAccessTest is used to test various endpoints of the
@@ -57,11 +81,19 @@ public class RecipeReviewDataAccessTest {
     review.setRating(5.0);
     review.setComments("Great recipe!");
 
-    when(postgresDataAccess.upsertStatement(eq(SQL_REVIEW_ADD), any())).thenReturn(1);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_ADD), any(), any()))
+        .thenAnswer(rows(List.of(deltaRow(1L))));
 
-    recipeReviewDataAccess.addReview(review);
+    List<ReviewAggregateDelta> deltas = recipeReviewDataAccess.addReview(review);
 
-    verify(postgresDataAccess, times(1)).upsertStatement(eq(SQL_REVIEW_ADD), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_REVIEW_ADD), any(), any());
+    assertEquals(1, deltas.size());
+    assertEquals(1L, deltas.getFirst().getRecipeId());
+    assertEquals(Timestamp.valueOf("2024-11-20 10:00:00"), deltas.getFirst().getMarkedAt());
+    assertEquals(1, deltas.getFirst().getCountDelta());
+    assertEquals(new BigDecimal("5.0"), deltas.getFirst().getRatingDelta());
+    assertEquals(1, deltas.getFirst().getStarsDelta(5));
+    assertEquals(0, deltas.getFirst().getStarsDelta(1));
   }
 
   @Test
@@ -72,18 +104,20 @@ public class RecipeReviewDataAccessTest {
     review.setRating(5.0);
     review.setComments("Great recipe!");
 
-    when(postgresDataAccess.upsertStatement(eq(SQL_REVIEW_ADD), any())).thenReturn(0);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_ADD), any(), any()))
+        .thenAnswer(rows(List.of()));
 
-    recipeReviewDataAccess.addReview(review);
+    assertTrue(recipeReviewDataAccess.addReview(review).isEmpty());
 
-    verify(postgresDataAccess, times(1)).upsertStatement(eq(SQL_REVIEW_ADD), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_REVIEW_ADD), any(), any());
   }
 
   @Test
   public void testAddReview_Validation() {
     RecipeReview review = new RecipeReview();
 
-    when(postgresDataAccess.upsertStatement(eq(SQL_REVIEW_ADD), any())).thenReturn(1);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_ADD), any(), any()))
+        .thenAnswer(rows(List.of(deltaRow(1L))));
 
     RuntimeException exception =
         assertThrows(
@@ -113,7 +147,7 @@ public class RecipeReviewDataAccessTest {
 
     review.setRating(3.4);
     recipeReviewDataAccess.addReview(review);
-    verify(postgresDataAccess, times(1)).upsertStatement(eq(SQL_REVIEW_ADD), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_REVIEW_ADD), any(), any());
   }
 
   @Test
@@ -124,11 +158,12 @@ public class RecipeReviewDataAccessTest {
     review.setRating(4.0);
     review.setComments("Updated comment");
 
-    when(postgresDataAccess.upsertStatement(eq(SQL_REVIEW_UPDATE), any())).thenReturn(1);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_UPDATE), any(), any()))
+        .thenAnswer(rows(List.of(deltaRow(1L))));
 
     recipeReviewDataAccess.updateReview(1L, 1L, review);
 
-    verify(postgresDataAccess, times(1)).upsertStatement(eq(SQL_REVIEW_UPDATE), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_REVIEW_UPDATE), any(), any());
   }
 
   @Test
@@ -139,71 +174,76 @@ public class RecipeReviewDataAccessTest {
     review.setRating(4.0);
     review.setComments("Updated comment");
 
-    when(postgresDataAccess.upsertStatement(eq(SQL_REVIEW_UPDATE), any())).thenReturn(0);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_UPDATE), any(), any()))
+        .thenAnswer(rows(List.of()));
 
     recipeReviewDataAccess.updateReview(1L, 1L, review);
 
-    verify(postgresDataAccess, times(1)).upsertStatement(eq(SQL_REVIEW_UPDATE), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_REVIEW_UPDATE), any(), any());
   }
 
   @Test
   public void testDeleteReview_Success() {
-    when(postgresDataAccess.upsertStatement(eq(SQL_REVIEW_DELETE), any())).thenReturn(1);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_DELETE), any(), any()))
+        .thenAnswer(rows(List.of(deltaRow(1L))));
 
     recipeReviewDataAccess.deleteReview(1L, 1L);
 
-    verify(postgresDataAccess, times(1)).upsertStatement(eq(SQL_REVIEW_DELETE), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_REVIEW_DELETE), any(), any());
   }
 
   @Test
   public void testDeleteReview_Failure() {
-    when(postgresDataAccess.upsertStatement(eq(SQL_REVIEW_DELETE), any())).thenReturn(0);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_DELETE), any(), any()))
+        .thenAnswer(rows(List.of()));
 
     recipeReviewDataAccess.deleteReview(1L, 1L);
 
-    verify(postgresDataAccess, times(1)).upsertStatement(eq(SQL_REVIEW_DELETE), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_REVIEW_DELETE), any(), any());
   }
 
   @Test
   public void testDeleteReviewsByRecipeId_Success() {
-    when(postgresDataAccess.upsertStatement(eq(SQL_REVIEW_DELETE_BY_RECIPE_ID), any()))
-        .thenReturn(1);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_DELETE_BY_RECIPE_ID), any(), any()))
+        .thenAnswer(rows(List.of(deltaRow(1L))));
 
     recipeReviewDataAccess.deleteReviewsByRecipeId(1L);
 
-    verify(postgresDataAccess, times(1)).upsertStatement(eq(SQL_REVIEW_DELETE_BY_RECIPE_ID), any());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(eq(SQL_REVIEW_DELETE_BY_RECIPE_ID), any(), any());
   }
 
   @Test
   public void testDeleteReviewsByRecipeId_Failure() {
-    when(postgresDataAccess.upsertStatement(eq(SQL_REVIEW_DELETE_BY_RECIPE_ID), any()))
-        .thenReturn(0);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_DELETE_BY_RECIPE_ID), any(), any()))
+        .thenAnswer(rows(List.of()));
 
     recipeReviewDataAccess.deleteReviewsByRecipeId(1L);
 
-    verify(postgresDataAccess, times(1)).upsertStatement(eq(SQL_REVIEW_DELETE_BY_RECIPE_ID), any());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(eq(SQL_REVIEW_DELETE_BY_RECIPE_ID), any(), any());
   }
 
   @Test
   public void testDeleteReviewsByCreatorId_Success() {
-    when(postgresDataAccess.upsertStatement(eq(SQL_REVIEW_DELETE_BY_CREATOR_ID), any()))
-        .thenReturn(1);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_DELETE_BY_CREATOR_ID), any(), any()))
+        .thenAnswer(rows(List.of(deltaRow(1L))));
 
     recipeReviewDataAccess.deleteReviewsByCreatorId(1L);
 
     verify(postgresDataAccess, times(1))
-        .upsertStatement(eq(SQL_REVIEW_DELETE_BY_CREATOR_ID), any());
+        .queryStatement(eq(SQL_REVIEW_DELETE_BY_CREATOR_ID), any(), any());
   }
 
   @Test
   public void testDeleteReviewsByCreatorId_Failure() {
-    when(postgresDataAccess.upsertStatement(eq(SQL_REVIEW_DELETE_BY_CREATOR_ID), any()))
-        .thenReturn(0);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_DELETE_BY_CREATOR_ID), any(), any()))
+        .thenAnswer(rows(List.of()));
 
     recipeReviewDataAccess.deleteReviewsByCreatorId(1L);
 
     verify(postgresDataAccess, times(1))
-        .upsertStatement(eq(SQL_REVIEW_DELETE_BY_CREATOR_ID), any());
+        .queryStatement(eq(SQL_REVIEW_DELETE_BY_CREATOR_ID), any(), any());
   }
 
   @Test
@@ -218,8 +258,8 @@ public class RecipeReviewDataAccessTest {
     row.put(COLUMN_REVIEW_UPDATE_TIME, new Timestamp(System.currentTimeMillis()));
 
     List<Map<String, Object>> results = Collections.singletonList(row);
-    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_AND_CREATOR), any()))
-        .thenReturn(results);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_AND_CREATOR), any(), any()))
+        .thenAnswer(rows(results));
 
     RecipeReview review = recipeReviewDataAccess.getReviewByRecipeAndCreator(1L, 1L);
 
@@ -243,8 +283,8 @@ public class RecipeReviewDataAccessTest {
     //    row.put(COLUMN_REVIEW_UPDATE_TIME, new Timestamp(System.currentTimeMillis()));
 
     List<Map<String, Object>> results = Collections.singletonList(row);
-    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_AND_CREATOR), any()))
-        .thenReturn(results);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_AND_CREATOR), any(), any()))
+        .thenAnswer(rows(results));
 
     RecipeReview review = recipeReviewDataAccess.getReviewByRecipeAndCreator(1L, 1L);
 
@@ -260,8 +300,8 @@ public class RecipeReviewDataAccessTest {
   public void testGetReviewByRecipeAndCreator_NotFound() {
 
     List<Map<String, Object>> results = null;
-    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_AND_CREATOR), any()))
-        .thenReturn(results);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_AND_CREATOR), any(), any()))
+        .thenAnswer(rows(results));
 
     RecipeReview review = recipeReviewDataAccess.getReviewByRecipeAndCreator(1L, 1L);
 
@@ -272,8 +312,8 @@ public class RecipeReviewDataAccessTest {
   public void testGetReviewByRecipeAndCreator_NotFound2() {
 
     List<Map<String, Object>> results = new ArrayList<>();
-    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_AND_CREATOR), any()))
-        .thenReturn(results);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_AND_CREATOR), any(), any()))
+        .thenAnswer(rows(results));
 
     RecipeReview review = recipeReviewDataAccess.getReviewByRecipeAndCreator(1L, 1L);
 
@@ -292,8 +332,8 @@ public class RecipeReviewDataAccessTest {
     row.put(COLUMN_REVIEW_UPDATE_TIME, new Timestamp(System.currentTimeMillis()));
 
     List<Map<String, Object>> results = Collections.singletonList(row);
-    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_ID), any()))
-        .thenReturn(results);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_ID), any(), any()))
+        .thenAnswer(rows(results));
 
     List<RecipeReview> reviews = recipeReviewDataAccess.getReviewsByRecipeId(1L);
 
@@ -306,14 +346,136 @@ public class RecipeReviewDataAccessTest {
   public void testGetReviewsByRecipeId_Failure() {
 
     List<Map<String, Object>> results = null;
-    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_ID), any()))
-        .thenReturn(results);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_ID), any(), any()))
+        .thenAnswer(rows(results));
 
     List<RecipeReview> reviews = recipeReviewDataAccess.getReviewsByRecipeId(1L);
 
     assertNull(reviews);
   }
 
+  @Test
+  public void testGetReviewsByRecipeIds() {
+    Map<String, Object> row = new HashMap<>();
+    row.put(COLUMN_REVIEW_ID, 3L);
+    row.put(COLUMN_REVIEW_RECIPE_ID, 2L);
+    row.put(COLUMN_REVIEW_CREATOR_ID, 1L);
+    row.put(COLUMN_REVIEW_RATING, 4.0);
+    row.put(COLUMN_REVIEW_COMMENTS, "Nice");
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_IDS), any(), any()))
+        .thenAnswer(rows(List.of(row)));
+
+    List<RecipeReview> reviews = recipeReviewDataAccess.getReviewsByRecipeIds(List.of(1L, 2L), 20);
+
+    assertEquals(1, reviews.size());
+    assertEquals(2L, reviews.getFirst().getRecipeId());
+    // limited per recipe in the query, not after it
+    verify(postgresDataAccess, times(1))
+        .queryStatement(
+            eq(SQL_REVIEW_GET_BY_RECIPE_IDS),
+            argThat(params -> Integer.valueOf(20).equals(params.get(INPUT_PAGE_LIMIT))),
+            any());
+  }
+
+  @Test
+  public void testGetReviewsByRecipeIds_manyIds_queriedInBatches() {
+    List<Long> recipeIds = new ArrayList<>();
+    for (long id = 1; id <= 1500; id++) {
+      recipeIds.add(id);
+    }
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_IDS), any(), any()))
+        .thenAnswer(rows(List.of()));
+
+    List<RecipeReview> reviews = recipeReviewDataAccess.getReviewsByRecipeIds(recipeIds, 20);
+
+    assertTrue(reviews.isEmpty());
+    verify(postgresDataAccess, times(2))
+        .queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_IDS), any(), any());
+  }
+
+  @Test
+  public void testGetReviewsByRecipeIds_empty_noQuery() {
+    assertTrue(recipeReviewDataAccess.getReviewsByRecipeIds(List.of(), 20).isEmpty());
+
+    verify(postgresDataAccess, times(0)).queryStatement(any(), any(), any());
+  }
+
+  @Test
+  public void testGetReviewsByRecipeIds_Failure() {
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_RECIPE_IDS), any(), any()))
+        .thenReturn(null);
+
+    assertThrows(
+        IllegalStateException.class,
+        () -> recipeReviewDataAccess.getReviewsByRecipeIds(List.of(1L), 20));
+  }
+
+  @Test
+  public void testGetNewestReviewsPage() {
+    Timestamp after = Timestamp.valueOf("2024-10-01 12:00:00.123456");
+    Map<String, Object> row = new HashMap<>();
+    row.put(COLUMN_REVIEW_ID, 3L);
+    row.put(COLUMN_REVIEW_RECIPE_ID, 1L);
+    row.put(COLUMN_REVIEW_RATING, 4.0);
+    when(postgresDataAccess.queryStatement(
+            eq(SQL_REVIEW_GET_BY_RECIPE_ID_NEWEST_PAGE),
+            argThat(
+                params ->
+                    after.equals(params.get(INPUT_PAGE_AFTER_KEY))
+                        && Long.valueOf(5L).equals(params.get(INPUT_PAGE_AFTER_ID))
+                        && Integer.valueOf(11).equals(params.get(INPUT_PAGE_LIMIT))),
+            any()))
+        .thenAnswer(rows(List.of(row)));
+
+    List<RecipeReview> reviews = recipeReviewDataAccess.getNewestReviewsPage(1L, after, 5L, 11);
+
+    assertEquals(1, reviews.size());
+    assertEquals(3L, reviews.getFirst().getId());
+  }
+
+  @Test
+  public void testGetTopRatedReviewsPage() {
+    when(postgresDataAccess.queryStatement(
+            eq(SQL_REVIEW_GET_BY_RECIPE_ID_TOP_RATED_PAGE),
+            argThat(params -> Double.valueOf(4.5).equals(params.get(INPUT_PAGE_AFTER_KEY))),
+            any()))
+        .thenAnswer(rows(List.of()));
+
+    assertTrue(recipeReviewDataAccess.getTopRatedReviewsPage(1L, 4.5, 5L, 11).isEmpty());
+  }
+
+  @Test
+  public void testGetReviewsPage_invalidLimitOrFailure() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> recipeReviewDataAccess.getTopRatedReviewsPage(1L, 4.5, 5L, 0));
+
+    when(postgresDataAccess.queryStatement(
+            eq(SQL_REVIEW_GET_BY_RECIPE_ID_NEWEST_PAGE), any(), any()))
+        .thenReturn(null);
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            recipeReviewDataAccess.getNewestReviewsPage(
+                1L, new Timestamp(System.currentTimeMillis()), 5L, 10));
+  }
+
+  @Test
+  public void testCountReviewsByRecipeId() {
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_COUNT_BY_RECIPE_ID), any(), any()))
+        .thenAnswer(rows(List.of(Map.of(COLUMN_RECIPE_REVIEW_COUNT, 42))));
+
+    assertEquals(42, recipeReviewDataAccess.countReviewsByRecipeId(1L));
+  }
+
+  @Test
+  public void testCountReviewsByRecipeId_noRecipe() {
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_COUNT_BY_RECIPE_ID), any(), any()))
+        .thenAnswer(rows(List.of()));
+
+    assertEquals(0, recipeReviewDataAccess.countReviewsByRecipeId(1L));
+  }
+
   @Test
   public void testGetReviewsByCreatorId() {
     Map<String, Object> row = new HashMap<>();
@@ -326,8 +488,8 @@ public class RecipeReviewDataAccessTest {
     row.put(COLUMN_REVIEW_UPDATE_TIME, new Timestamp(System.currentTimeMillis()));
 
     List<Map<String, Object>> results = Collections.singletonList(row);
-    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_CREATOR_ID), any()))
-        .thenReturn(results);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_CREATOR_ID), any(), any()))
+        .thenAnswer(rows(results));
 
     List<RecipeReview> reviews = recipeReviewDataAccess.getReviewsByCreatorId(1L);
 
@@ -340,11 +502,52 @@ public class RecipeReviewDataAccessTest {
   public void testGetReviewsByCreatorId_Failure() {
 
     List<Map<String, Object>> results = null;
-    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_CREATOR_ID), any()))
-        .thenReturn(results);
+    when(postgresDataAccess.queryStatement(eq(SQL_REVIEW_GET_BY_CREATOR_ID), any(), any()))
+        .thenAnswer(rows(results));
 
     List<RecipeReview> reviews = recipeReviewDataAccess.getReviewsByCreatorId(1L);
 
     assertNull(reviews);
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testStreamPublishedRecipeRatings() {
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put(COLUMN_REVIEW_RECIPE_ID, 2L);
+    row.put(COLUMN_REVIEW_CREATOR_ID, 3L);
+    row.put(COLUMN_REVIEW_RATING, 4.5);
+    doAnswer(
+            invocation -> {
+              RowMapper<RecipeReview> rowMapper = invocation.getArgument(3);
+              Consumer<RecipeReview> consumer = invocation.getArgument(4);
+              MapResultSet.mapAll(List.of(row), rowMapper).forEach(consumer);
+              return null;
+            })
+        .when(postgresDataAccess)
+        .streamStatement(eq(SQL_REVIEW_STREAM_PUBLISHED_RATINGS), isNull(), anyInt(), any(), any());
+
+    List<RecipeReview> streamed = new ArrayList<>();
+    recipeReviewDataAccess.streamPublishedRecipeRatings(streamed::add);
+
+    assertEquals(1, streamed.size());
+    assertEquals(2L, streamed.getFirst().getRecipeId());
+    assertEquals(3L, streamed.getFirst().getCreatorId());
+    assertEquals(4.5, streamed.getFirst().getRating());
+    assertNull(streamed.getFirst().getComments());
+  }
+
+  /** A delta row as the review writes return it, one review of 5 stars added. */
+  private Map<String, Object> deltaRow(Long recipeId) {
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put(COLUMN_REVIEW_DELTA_RECIPE_ID, recipeId);
+    row.put(COLUMN_REVIEW_DELTA_MARKED_AT, Timestamp.valueOf("2024-11-20 10:00:00"));
+    row.put(COLUMN_REVIEW_DELTA_COUNT, 1);
+    row.put(COLUMN_REVIEW_DELTA_RATING, new BigDecimal("5.0"));
+    for (int stars = 1; stars <= 5; stars++) {
+      row.put(COLUMNS_REVIEW_DELTA_STARS.get(stars - 1), stars == 5 ? 1 : 0);
+    }
+    row.put(COLUMN_REVIEW_DELTA_WRITES, 1);
+    return row;
+  }
 }
@@ -0,0 +1,214 @@
+package nus.iss.team3.backend.dataaccess;
+
+import static nus.iss.team3.backend.dataaccess.PostgresSqlStatementRecipe.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Map;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import nus.iss.team3.backend.entity.ERecipeStatus;
+import nus.iss.team3.backend.entity.Recipe;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Benchmark: CPU time and allocation per row of the index based RecipeRowMapper, against the map
+ * based translation it replaced (queryForList's ColumnMapRowMapper, then a lookup per column). Both
+ * read the same in-memory ResultSet, so the difference is the mapping alone.
+ *
+ * <p>Run with {@code RUN_BENCHMARKS=true ./gradlew test --tests '*RowMapperBenchmarkTest'}.
+ */
+@EnabledIfEnvironmentVariable(named = "RUN_BENCHMARKS", matches = "true")
+class RowMapperBenchmarkTest {
+
+  private static final int ROWS = 2_000;
+  private static final int WARMUP_ROUNDS = 200;
+  private static final int MEASURED_ROUNDS = 200;
+
+  @Test
+  void recipeRowMapper_vsMapBasedTranslation() throws SQLException {
+    CachedRowSet rowSet = createRecipeRows();
+
+    Measurement mapBased = measure(rowSet, MapBasedRecipeTranslator::new);
+    Measurement indexed = measure(rowSet, RecipeDataAccess.RecipeRowMapper::new);
+
+    System.out.printf(
+        "map based: %.0f ns, %.0f bytes per row%nindexed:   %.0f ns, %.0f bytes per row%n",
+        mapBased.cpuNanosPerRow, mapBased.bytesPerRow, indexed.cpuNanosPerRow, indexed.bytesPerRow);
+    // allocation is deterministic enough to assert on, CPU time is only reported
+    assertTrue(indexed.bytesPerRow < mapBased.bytesPerRow);
+  }
+
+  private Measurement measure(CachedRowSet rowSet, RowMapperFactory factory) throws SQLException {
+    for (int round = 0; round < WARMUP_ROUNDS; round++) {
+      mapAll(rowSet, factory.create());
+    }
+    com.sun.management.ThreadMXBean threadBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long cpuBefore = threadBean.getCurrentThreadCpuTime();
+    long bytesBefore = threadBean.getCurrentThreadAllocatedBytes();
+    for (int round = 0; round < MEASURED_ROUNDS; round++) {
+      mapAll(rowSet, factory.create());
+    }
+    long rows = (long) ROWS * MEASURED_ROUNDS;
+    return new Measurement(
+        (double) (threadBean.getCurrentThreadCpuTime() - cpuBefore) / rows,
+        (double) (threadBean.getCurrentThreadAllocatedBytes() - bytesBefore) / rows);
+  }
+
+  private void mapAll(ResultSet rs, RowMapper<Recipe> rowMapper) throws SQLException {
+    rs.beforeFirst();
+    int rowNum = 0;
+    long checksum = 0;
+    while (rs.next()) {
+      checksum += rowMapper.mapRow(rs, rowNum++).getId();
+    }
+    assertEquals((long) ROWS * (ROWS + 1) / 2, checksum);
+  }
+
+  private CachedRowSet createRecipeRows() throws SQLException {
+    String[] labels = {
+      COLUMN_RECIPE_ID,
+      COLUMN_RECIPE_CREATOR_ID,
+      COLUMN_RECIPE_NAME,
+      COLUMN_RECIPE_IMAGE,
+      COLUMN_RECIPE_DESCRIPTION,
+      COLUMN_RECIPE_COOKING_TIME,
+      COLUMN_RECIPE_DIFFICULTY_LEVEL,
+      COLUMN_RECIPE_RATING,
+      COLUMN_RECIPE_STATUS,
+      COLUMN_RECIPE_CUISINE,
+      COLUMN_RECIPE_CREATE_TIME,
+      COLUMN_RECIPE_UPDATE_TIME,
+      COLUMN_RECIPE_DRAFT_ID
+    };
+    int[] types = {
+      Types.BIGINT,
+      Types.BIGINT,
+      Types.VARCHAR,
+      Types.VARCHAR,
+      Types.VARCHAR,
+      Types.INTEGER,
+      Types.INTEGER,
+      Types.DOUBLE,
+      Types.INTEGER,
+      Types.VARCHAR,
+      Types.TIMESTAMP,
+      Types.TIMESTAMP,
+      Types.BIGINT
+    };
+    RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+    metaData.setColumnCount(labels.length);
+    for (int i = 0; i < labels.length; i++) {
+      metaData.setColumnName(i + 1, labels[i]);
+      metaData.setColumnLabel(i + 1, labels[i]);
+      metaData.setColumnType(i + 1, types[i]);
+      metaData.setNullable(i + 1, ResultSetMetaData.columnNullable);
+    }
+    CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+    rowSet.setMetaData(metaData);
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    for (long id = 1; id <= ROWS; id++) {
+      rowSet.moveToInsertRow();
+      rowSet.updateLong(1, id);
+      rowSet.updateLong(2, id % 50);
+      rowSet.updateString(3, "Recipe " + id);
+      rowSet.updateString(4, "https://example.com/" + id + ".png");
+      rowSet.updateString(5, "A recipe description of moderate length, number " + id);
+      rowSet.updateInt(6, 30);
+      rowSet.updateInt(7, (int) (id % 5));
+      rowSet.updateDouble(8, 4.5);
+      rowSet.updateInt(9, ERecipeStatus.PUBLISHED.code);
+      rowSet.updateString(10, "Chinese");
+      rowSet.updateTimestamp(11, now);
+      rowSet.updateTimestamp(12, now);
+      rowSet.updateNull(13);
+      rowSet.insertRow();
+      rowSet.moveToCurrentRow();
+    }
+    return rowSet;
+  }
+
+  private interface RowMapperFactory {
+    RowMapper<Recipe> create();
+  }
+
+  private static class Measurement {
+    private final double cpuNanosPerRow;
+    private final double bytesPerRow;
+
+    private Measurement(double cpuNanosPerRow, double bytesPerRow) {
+      this.cpuNanosPerRow = cpuNanosPerRow;
+      this.bytesPerRow = bytesPerRow;
+    }
+  }
+
+  // The translation RecipeDataAccess used before the typed RowMappers, kept as the baseline
+  private static class MapBasedRecipeTranslator implements RowMapper<Recipe> {
+    private final ColumnMapRowMapper columnMapRowMapper = new ColumnMapRowMapper();
+
+    @Override
+    public Recipe mapRow(ResultSet rs, int rowNum) throws SQLException {
+      Map<String, Object> row = columnMapRowMapper.mapRow(rs, rowNum);
+      Recipe recipe = new Recipe();
+      recipe.setId(
+          row.get(COLUMN_RECIPE_ID) != null
+              ? ((Number) row.get(COLUMN_RECIPE_ID)).longValue()
+              : null);
+      recipe.setCreatorId(
+          row.get(COLUMN_RECIPE_CREATOR_ID) != null
+              ? ((Number) row.get(COLUMN_RECIPE_CREATOR_ID)).longValue()
+              : null);
+      recipe.setName(
+          row.get(COLUMN_RECIPE_NAME) != null ? (String) row.get(COLUMN_RECIPE_NAME) : null);
+      recipe.setImage(
+          row.get(COLUMN_RECIPE_IMAGE) != null ? (String) row.get(COLUMN_RECIPE_IMAGE) : null);
+      recipe.setDescription(
+          row.get(COLUMN_RECIPE_DESCRIPTION) != null
+              ? (String) row.get(COLUMN_RECIPE_DESCRIPTION)
+              : null);
+      recipe.setCookingTimeInMin(
+          row.get(COLUMN_RECIPE_COOKING_TIME) != null
+              ? ((Number) row.get(COLUMN_RECIPE_COOKING_TIME)).intValue()
+              : null);
+      recipe.setDifficultyLevel(
+          row.get(COLUMN_RECIPE_DIFFICULTY_LEVEL) != null
+              ? ((Number) row.get(COLUMN_RECIPE_DIFFICULTY_LEVEL)).intValue()
+              : null);
+      recipe.setRating(
+          row.get(COLUMN_RECIPE_RATING) != null
+              ? ((Number) row.get(COLUMN_RECIPE_RATING)).doubleValue()
+              : null);
+      recipe.setStatus(
+          row.get(COLUMN_RECIPE_STATUS) != null
+              ? ERecipeStatus.valueOfCode(((Number) row.get(COLUMN_RECIPE_STATUS)).intValue())
+              : null);
+      recipe.setCuisine(
+          row.get(COLUMN_RECIPE_CUISINE) != null ? (String) row.get(COLUMN_RECIPE_CUISINE) : null);
+      recipe.setCreateDatetime(
+          row.get(COLUMN_RECIPE_CREATE_TIME) != null
+              ? (Timestamp) row.get(COLUMN_RECIPE_CREATE_TIME)
+              : null);
+      recipe.setUpdateDatetime(
+          row.get(COLUMN_RECIPE_UPDATE_TIME) != null
+              ? (Timestamp) row.get(COLUMN_RECIPE_UPDATE_TIME)
+              : null);
+      if (row.get(COLUMN_RECIPE_DRAFT_ID) != null) {
+        Recipe temp = new Recipe();
+        temp.setId(((Number) row.get(COLUMN_RECIPE_DRAFT_ID)).longValue());
+        recipe.setDraftRecipe(temp);
+      }
+      return recipe;
+    }
+  }
+}
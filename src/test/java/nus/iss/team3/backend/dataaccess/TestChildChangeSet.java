@@ -0,0 +1,92 @@
+package nus.iss.team3.backend.dataaccess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import nus.iss.team3.backend.entity.CookingStep;
+import nus.iss.team3.backend.entity.RecipeIngredient;
+import org.junit.jupiter.api.Test;
+
+public class TestChildChangeSet {
+
+  @Test
+  public void forIngredients_unchanged_isEmpty() {
+    List<RecipeIngredient> stored = List.of(ingredient(1L, "Sugar", 100.0));
+    List<RecipeIngredient> incoming = List.of(ingredient(1L, "Sugar", 100.0));
+
+    assertTrue(ChildChangeSet.forIngredients(stored, incoming).isEmpty());
+  }
+
+  @Test
+  public void forIngredients_matchedById() {
+    List<RecipeIngredient> stored =
+        List.of(ingredient(1L, "Sugar", 100.0), ingredient(2L, "Salt", 5.0));
+    RecipeIngredient changed = ingredient(1L, "Sugar", 120.0);
+    RecipeIngredient added = ingredient(null, "Flour", 200.0);
+
+    ChildChangeSet<RecipeIngredient> changes =
+        ChildChangeSet.forIngredients(stored, List.of(changed, added));
+
+    assertEquals(List.of(changed), changes.updates);
+    assertEquals(List.of(added), changes.inserts);
+    assertEquals(List.of(2L), changes.deleteIds);
+  }
+
+  @Test
+  public void forIngredients_foreignIds_keepIdenticalRows() {
+    // e.g. a draft's ingredients written back to the published recipe
+    List<RecipeIngredient> stored =
+        List.of(ingredient(1L, "Sugar", 100.0), ingredient(2L, "Salt", 5.0));
+    RecipeIngredient sugar = ingredient(91L, "Sugar", 100.0);
+    RecipeIngredient salt = ingredient(92L, "Salt", 10.0);
+
+    ChildChangeSet<RecipeIngredient> changes =
+        ChildChangeSet.forIngredients(stored, List.of(sugar, salt));
+
+    assertEquals(1L, sugar.getId());
+    assertEquals(List.of(salt), changes.inserts);
+    assertNull(salt.getId());
+    assertTrue(changes.updates.isEmpty());
+    assertEquals(List.of(2L), changes.deleteIds);
+  }
+
+  @Test
+  public void forCookingSteps_matchedByPosition() {
+    List<CookingStep> stored =
+        List.of(step(1L, "Mix"), step(2L, "Bake"), step(3L, "Serve"), step(4L, "Enjoy"));
+    CookingStep first = step(null, "Mix");
+    CookingStep second = step(3L, "Bake well");
+
+    ChildChangeSet<CookingStep> changes =
+        ChildChangeSet.forCookingSteps(stored, List.of(first, second));
+
+    assertEquals(1L, first.getId());
+    assertEquals(2L, second.getId());
+    assertEquals(List.of(second), changes.updates);
+    assertTrue(changes.inserts.isEmpty());
+    assertEquals(List.of(3L, 4L), changes.deleteIds);
+  }
+
+  @Test
+  public void forCookingSteps_extraIncoming_appended() {
+    CookingStep added = step(7L, "Serve");
+
+    ChildChangeSet<CookingStep> changes =
+        ChildChangeSet.forCookingSteps(List.of(step(1L, "Mix")), List.of(step(null, "Mix"), added));
+
+    assertEquals(List.of(added), changes.inserts);
+    assertNull(added.getId());
+    assertTrue(changes.updates.isEmpty());
+    assertTrue(changes.deleteIds.isEmpty());
+  }
+
+  private RecipeIngredient ingredient(Long id, String name, Double quantity) {
+    return RecipeIngredient.builder().id(id).name(name).quantity(quantity).uom("grams").build();
+  }
+
+  private CookingStep step(Long id, String description) {
+    return CookingStep.builder().id(id).description(description).build();
+  }
+}
@@ -1,5 +1,6 @@
 package nus.iss.team3.backend.dataaccess;
 
+import static nus.iss.team3.backend.dataaccess.MapResultSet.rows;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatement.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -7,11 +8,13 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import nus.iss.team3.backend.dataaccess.postgres.PostgresDataAccess;
+import nus.iss.team3.backend.entity.ExpiryCheckShardLease;
 import nus.iss.team3.backend.entity.UserIngredient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -34,24 +37,26 @@ public class TestIngredientDataAccess {
   public void addIngredient_success() {
     UserIngredient ingredient = new UserIngredient();
 
-    when(postgresDataAccess.upsertStatement(eq(SQL_INGREDIENT_ADD), any())).thenReturn(1);
+    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENT_ADD), any(), any()))
+        .thenReturn(List.of(7));
 
     boolean result = ingredientDataAccess.addIngredient(ingredient);
 
     assertTrue(result);
-    verify(postgresDataAccess, times(1)).upsertStatement(eq(SQL_INGREDIENT_ADD), any());
+    assertEquals(7, ingredient.getId());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_INGREDIENT_ADD), any(), any());
   }
 
   @Test
   public void addIngredient_fail() {
     UserIngredient ingredient = new UserIngredient();
 
-    when(postgresDataAccess.upsertStatement(eq(SQL_INGREDIENT_ADD), any())).thenReturn(0);
+    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENT_ADD), any(), any())).thenReturn(null);
 
     boolean result = ingredientDataAccess.addIngredient(ingredient);
 
     assertFalse(result);
-    verify(postgresDataAccess, times(1)).upsertStatement(eq(SQL_INGREDIENT_ADD), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_INGREDIENT_ADD), any(), any());
   }
 
   @Test
@@ -141,13 +146,13 @@ public class TestIngredientDataAccess {
     int ingredientId = 1;
     List<Map<String, Object>> entityReturned = null;
 
-    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENT_GET_BY_ID), any()))
-        .thenReturn(entityReturned);
+    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENT_GET_BY_ID), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     UserIngredient result = ingredientDataAccess.getIngredientById(ingredientId);
 
     assertNull(result);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_INGREDIENT_GET_BY_ID), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_INGREDIENT_GET_BY_ID), any(), any());
   }
 
   @Test
@@ -159,13 +164,13 @@ public class TestIngredientDataAccess {
             add(Map.of("id", 1, "name", "ingredient1", "quantity", 1.0, "uom", "unit1"));
           }
         };
-    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENT_GET_BY_ID), any()))
-        .thenReturn(entityReturned);
+    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENT_GET_BY_ID), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     UserIngredient result = ingredientDataAccess.getIngredientById(ingredientId);
 
     assertEquals(result.getId(), 1);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_INGREDIENT_GET_BY_ID), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_INGREDIENT_GET_BY_ID), any(), any());
   }
 
   @Test
@@ -178,26 +183,27 @@ public class TestIngredientDataAccess {
             add(Map.of("id", 2, "name", "ingredient2", "quantity", 2.0, "uom", "unit2"));
           }
         };
-    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENT_GET_BY_ID), any()))
-        .thenReturn(entityReturned);
+    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENT_GET_BY_ID), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     UserIngredient result = ingredientDataAccess.getIngredientById(ingredientId);
 
     assertNull(result);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_INGREDIENT_GET_BY_ID), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_INGREDIENT_GET_BY_ID), any(), any());
   }
 
   @Test
   public void getIngredientsByName_returnNull() {
     String ingredientName = "ingredientName";
     List<Map<String, Object>> entityReturned = null;
-    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENTS_GET_BY_NAME), any()))
-        .thenReturn(entityReturned);
+    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENTS_GET_BY_NAME), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     List<UserIngredient> result = ingredientDataAccess.getIngredientsByName(ingredientName);
 
     assertEquals(result.size(), 0);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_INGREDIENTS_GET_BY_NAME), any());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(eq(SQL_INGREDIENTS_GET_BY_NAME), any(), any());
   }
 
   @Test
@@ -212,8 +218,8 @@ public class TestIngredientDataAccess {
           }
         };
 
-    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENTS_GET_BY_NAME), any()))
-        .thenReturn(entityReturned);
+    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENTS_GET_BY_NAME), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     List<UserIngredient> result = ingredientDataAccess.getIngredientsByName(ingredientName);
 
@@ -226,7 +232,8 @@ public class TestIngredientDataAccess {
     assertEquals(result.get(1).getQuantity(), 2.0);
     assertEquals(result.get(1).getUom(), "unit2");
 
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_INGREDIENTS_GET_BY_NAME), any());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(eq(SQL_INGREDIENTS_GET_BY_NAME), any(), any());
   }
 
   @Test
@@ -234,13 +241,14 @@ public class TestIngredientDataAccess {
     int userId = 1;
     List<Map<String, Object>> entityReturned = null;
 
-    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENTS_GET_BY_USER_ID), any()))
-        .thenReturn(entityReturned);
+    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENTS_GET_BY_USER_ID), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     List<UserIngredient> result = ingredientDataAccess.getIngredientsByUser(userId);
 
     assertEquals(result.size(), 0);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_INGREDIENTS_GET_BY_USER_ID), any());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(eq(SQL_INGREDIENTS_GET_BY_USER_ID), any(), any());
   }
 
   @Test
@@ -270,8 +278,8 @@ public class TestIngredientDataAccess {
       entityReturned.add(Map.of("id", 2, "name", "ingredient2", "quantity", 2.0, "uom", "unit2"));
     }
 
-    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENTS_GET_BY_USER_ID), any()))
-        .thenReturn(entityReturned);
+    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENTS_GET_BY_USER_ID), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     List<UserIngredient> result = ingredientDataAccess.getIngredientsByUser(userId);
 
@@ -284,7 +292,8 @@ public class TestIngredientDataAccess {
     assertEquals(result.get(1).getName(), "ingredient2");
     assertEquals(result.get(1).getQuantity(), 2.0);
     assertEquals(result.get(1).getUom(), "unit2");
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_INGREDIENTS_GET_BY_USER_ID), any());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(eq(SQL_INGREDIENTS_GET_BY_USER_ID), any(), any());
   }
 
   @Test
@@ -305,11 +314,11 @@ public class TestIngredientDataAccess {
               "user_id",
               "1",
               "expiry_date",
-              1,
+              new Date(2024, 12, 31),
               "create_datetime",
-              2,
+              new Timestamp(2024, 12, 30, 1, 1, 1, 1),
               "update_datetime",
-              3));
+              new Timestamp(2024, 12, 29, 1, 1, 1, 1)));
 
       entityReturned.add(
           Map.of(
@@ -331,13 +340,20 @@ public class TestIngredientDataAccess {
               new Timestamp(2024, 12, 29, 1, 1, 1, 1)));
     }
 
-    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENTS_GET_BY_USER_ID), any()))
-        .thenReturn(entityReturned);
+    when(postgresDataAccess.queryStatement(eq(SQL_INGREDIENTS_GET_BY_USER_ID), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     List<UserIngredient> result = ingredientDataAccess.getIngredientsByUser(userId);
 
     assertEquals(result.size(), 2);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_INGREDIENTS_GET_BY_USER_ID), any());
+    // values of another type are converted the way the driver would convert them
+    assertEquals(1, result.getFirst().getId());
+    assertEquals(1.0, result.getFirst().getQuantity());
+    assertEquals("1", result.getFirst().getName());
+    // unknown columns are ignored
+    assertNull(result.get(1).getName());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(eq(SQL_INGREDIENTS_GET_BY_USER_ID), any(), any());
   }
 
   @Test
@@ -389,13 +405,14 @@ public class TestIngredientDataAccess {
   public void getExpiringIngredientsInRange_null() {
     List<Map<String, Object>> returnValue = null;
 
-    when(postgresDataAccess.queryStatement(eq(SQL_GET_EXPIRING_INGREDIENTS), any()))
-        .thenReturn(returnValue);
+    when(postgresDataAccess.queryStatement(eq(SQL_GET_EXPIRING_INGREDIENTS), any(), any()))
+        .thenAnswer(rows(returnValue));
 
     List<UserIngredient> result = ingredientDataAccess.getExpiringIngredientsInRange();
 
     assertEquals(result.size(), 0);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_GET_EXPIRING_INGREDIENTS), any());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(eq(SQL_GET_EXPIRING_INGREDIENTS), any(), any());
   }
 
   @Test
@@ -408,12 +425,120 @@ public class TestIngredientDataAccess {
           }
         };
 
-    when(postgresDataAccess.queryStatement(eq(SQL_GET_EXPIRING_INGREDIENTS), any()))
-        .thenReturn(returnValue);
+    when(postgresDataAccess.queryStatement(eq(SQL_GET_EXPIRING_INGREDIENTS), any(), any()))
+        .thenAnswer(rows(returnValue));
 
     List<UserIngredient> result = ingredientDataAccess.getExpiringIngredientsInRange();
 
     assertEquals(result.size(), 2);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_GET_EXPIRING_INGREDIENTS), any());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(eq(SQL_GET_EXPIRING_INGREDIENTS), any(), any());
+  }
+
+  @Test
+  public void getExpiringIngredientsNotNotified_rangeOfBuckets() {
+    LocalDate today = LocalDate.of(2024, 11, 20);
+    List<Map<String, Object>> returnValue =
+        new ArrayList<>() {
+          {
+            add(Map.of("id", 1, "name", "ingredient1", "quantity", 1.0, "uom", "unit1"));
+          }
+        };
+
+    when(postgresDataAccess.queryStatement(
+            eq(SQL_GET_EXPIRING_INGREDIENTS_NOT_NOTIFIED), any(), any()))
+        .thenAnswer(rows(returnValue));
+
+    List<UserIngredient> result =
+        ingredientDataAccess.getExpiringIngredientsNotNotified(today, List.of(3, 1), 2, 4);
+
+    assertEquals(1, result.size());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(
+            eq(SQL_GET_EXPIRING_INGREDIENTS_NOT_NOTIFIED),
+            eq(
+                Map.of(
+                    INPUT_EXPIRY_TODAY,
+                    today,
+                    INPUT_EXPIRY_FROM_DATE,
+                    LocalDate.of(2024, 11, 21),
+                    INPUT_EXPIRY_TO_DATE,
+                    LocalDate.of(2024, 11, 24),
+                    INPUT_EXPIRY_DAYS_BUCKETS,
+                    List.of(3, 1),
+                    INPUT_EXPIRY_SHARD,
+                    2,
+                    INPUT_EXPIRY_SHARD_COUNT,
+                    4)),
+            any());
+  }
+
+  @Test
+  public void getExpiringIngredientsNotNotified_null() {
+    when(postgresDataAccess.queryStatement(
+            eq(SQL_GET_EXPIRING_INGREDIENTS_NOT_NOTIFIED), any(), any()))
+        .thenAnswer(rows(null));
+
+    List<UserIngredient> result =
+        ingredientDataAccess.getExpiringIngredientsNotNotified(
+            LocalDate.now(), List.of(3, 1), 0, 1);
+
+    assertEquals(0, result.size());
+  }
+
+  @Test
+  public void getExpiringIngredientsNotNotified_noBuckets() {
+    List<UserIngredient> result =
+        ingredientDataAccess.getExpiringIngredientsNotNotified(LocalDate.now(), List.of(), 0, 1);
+
+    assertEquals(0, result.size());
+    verify(postgresDataAccess, never()).queryStatement(any(), any(), any());
+  }
+
+  @Test
+  public void claimExpiryCheckShard_claimed() {
+    ExpiryCheckShardLease lease =
+        new ExpiryCheckShardLease(LocalDate.of(2024, 11, 20), null, 16, "replica-1", 300_000L);
+
+    when(postgresDataAccess.queryStatement(eq(SQL_EXPIRY_CHECK_SHARD_CLAIM), any(), any()))
+        .thenReturn(List.of(5));
+
+    Integer result = ingredientDataAccess.claimExpiryCheckShard(lease);
+
+    assertEquals(5, result);
+    verify(postgresDataAccess, times(1))
+        .upsertStatement(eq(SQL_EXPIRY_CHECK_SHARD_DELETE_BEFORE), any());
+    verify(postgresDataAccess, times(1))
+        .upsertStatement(
+            eq(SQL_EXPIRY_CHECK_SHARD_CREATE),
+            argThat(
+                sqlInput ->
+                    sqlInput.get(INPUT_EXPIRY_CHECK_SHARD_SHARD_COUNT).equals(16)
+                        && sqlInput.get(INPUT_EXPIRY_CHECK_SHARD_OWNER).equals("replica-1")));
+  }
+
+  @Test
+  public void claimExpiryCheckShard_noneLeft() {
+    ExpiryCheckShardLease lease =
+        new ExpiryCheckShardLease(LocalDate.of(2024, 11, 20), null, 16, "replica-1", 300_000L);
+
+    when(postgresDataAccess.queryStatement(eq(SQL_EXPIRY_CHECK_SHARD_CLAIM), any(), any()))
+        .thenReturn(List.of());
+
+    assertNull(ingredientDataAccess.claimExpiryCheckShard(lease));
+  }
+
+  @Test
+  public void renewAndCompleteExpiryCheckShard() {
+    ExpiryCheckShardLease lease =
+        new ExpiryCheckShardLease(LocalDate.of(2024, 11, 20), 5, 16, "replica-1", 300_000L);
+
+    when(postgresDataAccess.upsertStatement(eq(SQL_EXPIRY_CHECK_SHARD_RENEW), any())).thenReturn(1);
+    when(postgresDataAccess.upsertStatement(eq(SQL_EXPIRY_CHECK_SHARD_COMPLETE), any()))
+        .thenReturn(0);
+
+    assertTrue(ingredientDataAccess.renewExpiryCheckShard(lease));
+    // the lease was lost to another replica
+    assertFalse(ingredientDataAccess.completeExpiryCheckShard(lease));
   }
 }
@@ -1,20 +1,27 @@
 package nus.iss.team3.backend.dataaccess;
 
+import static nus.iss.team3.backend.dataaccess.MapResultSet.rows;
 import static nus.iss.team3.backend.dataaccess.PostgresSqlStatement.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import java.sql.Date;
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import nus.iss.team3.backend.dataaccess.postgres.PostgresDataAccess;
 import nus.iss.team3.backend.entity.ENotificationType;
+import nus.iss.team3.backend.entity.ExpiryNotification;
+import nus.iss.team3.backend.entity.IngredientExpiryNotice;
 import nus.iss.team3.backend.entity.Notification;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -28,6 +35,11 @@ public class TestNotificationDataAccess {
   @BeforeEach
   public void setUp() {
     MockitoAnnotations.openMocks(this);
+    // the users locked and none of their notices in the ledger, unless a test says otherwise
+    when(postgresDataAccess.queryStatement(eq(SQL_EXPIRY_NOTIFICATION_LOCK_USERS), any(), any()))
+        .thenAnswer(invocation -> List.of(0));
+    when(postgresDataAccess.queryStatement(eq(SQL_EXPIRY_NOTIFICATION_GET_NOTIFIED), any(), any()))
+        .thenAnswer(rows(List.of()));
   }
 
   @Test
@@ -35,13 +47,14 @@ public class TestNotificationDataAccess {
     int userId = 1;
     int limit = 10;
 
-    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_GET_FOR_USER), any()))
+    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_GET_FOR_USER), any(), any()))
         .thenReturn(null);
 
     List<Notification> result = notificationDataAccess.getNotificationsForUser(userId, limit);
 
     assertEquals(result.size(), 0);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_NOTIFICATION_GET_FOR_USER), any());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(eq(SQL_NOTIFICATION_GET_FOR_USER), any(), any());
   }
 
   @Test
@@ -50,13 +63,14 @@ public class TestNotificationDataAccess {
     int limit = 10;
 
     List<Map<String, Object>> returnList = new ArrayList<>();
-    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_GET_FOR_USER), any()))
-        .thenReturn(returnList);
+    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_GET_FOR_USER), any(), any()))
+        .thenAnswer(rows(returnList));
 
     List<Notification> result = notificationDataAccess.getNotificationsForUser(userId, limit);
 
     assertEquals(result.size(), 0);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_NOTIFICATION_GET_FOR_USER), any());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(eq(SQL_NOTIFICATION_GET_FOR_USER), any(), any());
   }
 
   @Test
@@ -76,41 +90,42 @@ public class TestNotificationDataAccess {
       map.put("create_datetime", new Timestamp(2024, 1, 1, 0, 0, 0, 0));
       returnList.add(map);
     }
-    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_GET_FOR_USER), any()))
-        .thenReturn(returnList);
+    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_GET_FOR_USER), any(), any()))
+        .thenAnswer(rows(returnList));
 
     List<Notification> result = notificationDataAccess.getNotificationsForUser(userId, limit);
 
     assertEquals(result.size(), 1);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_NOTIFICATION_GET_FOR_USER), any());
+    verify(postgresDataAccess, times(1))
+        .queryStatement(eq(SQL_NOTIFICATION_GET_FOR_USER), any(), any());
   }
 
   @Test
   public void getUnreadNotificationCountForUser_nullResult() {
     int userId = 1;
 
-    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_GET_UNREAD_COUNT), any()))
+    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_GET_UNREAD_COUNT), any(), any()))
         .thenReturn(null);
 
     int result = notificationDataAccess.getUnreadNotificationCountForUser(userId);
 
     assertEquals(0, result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(SQL_NOTIFICATION_GET_UNREAD_COUNT), any());
+        .queryStatement(eq(SQL_NOTIFICATION_GET_UNREAD_COUNT), any(), any());
   }
 
   @Test
   public void getUnreadNotificationCountForUser_emptyResult() {
     int userId = 1;
 
-    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_GET_UNREAD_COUNT), any()))
-        .thenReturn(new ArrayList<>());
+    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_GET_UNREAD_COUNT), any(), any()))
+        .thenAnswer(rows(new ArrayList<>()));
 
     int result = notificationDataAccess.getUnreadNotificationCountForUser(userId);
 
     assertEquals(0, result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(SQL_NOTIFICATION_GET_UNREAD_COUNT), any());
+        .queryStatement(eq(SQL_NOTIFICATION_GET_UNREAD_COUNT), any(), any());
   }
 
   @Test
@@ -123,14 +138,14 @@ public class TestNotificationDataAccess {
       map.put("count", 99);
       returnList.add(map);
     }
-    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_GET_UNREAD_COUNT), any()))
-        .thenReturn(returnList);
+    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_GET_UNREAD_COUNT), any(), any()))
+        .thenAnswer(rows(returnList));
 
     int result = notificationDataAccess.getUnreadNotificationCountForUser(userId);
 
     assertEquals(99, result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(SQL_NOTIFICATION_GET_UNREAD_COUNT), any());
+        .queryStatement(eq(SQL_NOTIFICATION_GET_UNREAD_COUNT), any(), any());
   }
 
   @Test
@@ -227,12 +242,13 @@ public class TestNotificationDataAccess {
     input.setIsRead(true);
 
     List<Map<String, Object>> dbReturn = null;
-    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_ADD), any())).thenReturn(dbReturn);
+    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_ADD), any(), any()))
+        .thenAnswer(rows(dbReturn));
 
     Notification result = notificationDataAccess.createNotification(input);
 
     assertNull(result);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_NOTIFICATION_ADD), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_NOTIFICATION_ADD), any(), any());
   }
 
   @Test
@@ -245,12 +261,13 @@ public class TestNotificationDataAccess {
     input.setIsRead(true);
 
     List<Map<String, Object>> dbReturn = new ArrayList<>();
-    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_ADD), any())).thenReturn(dbReturn);
+    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_ADD), any(), any()))
+        .thenAnswer(rows(dbReturn));
 
     Notification result = notificationDataAccess.createNotification(input);
 
     assertNull(result);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_NOTIFICATION_ADD), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_NOTIFICATION_ADD), any(), any());
   }
 
   @Test
@@ -264,12 +281,13 @@ public class TestNotificationDataAccess {
     List<Map<String, Object>> dbReturn = new ArrayList<>();
     dbReturn.add(Map.of("id", 1));
 
-    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_ADD), any())).thenReturn(dbReturn);
+    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_ADD), any(), any()))
+        .thenAnswer(rows(dbReturn));
 
     Notification result = notificationDataAccess.createNotification(input);
 
     assertNotNull(result);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_NOTIFICATION_ADD), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_NOTIFICATION_ADD), any(), any());
   }
 
   @Test
@@ -286,11 +304,293 @@ public class TestNotificationDataAccess {
     dbReturn.add(Map.of("id", 2));
     dbReturn.add(Map.of("id", 3));
     dbReturn.add(Map.of("id", 4));
-    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_ADD), any())).thenReturn(dbReturn);
+    when(postgresDataAccess.queryStatement(eq(SQL_NOTIFICATION_ADD), any(), any()))
+        .thenAnswer(rows(dbReturn));
 
     Notification result = notificationDataAccess.createNotification(input);
 
     assertNotNull(result);
-    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_NOTIFICATION_ADD), any());
+    verify(postgresDataAccess, times(1)).queryStatement(eq(SQL_NOTIFICATION_ADD), any(), any());
+  }
+
+  @Test
+  public void createExpiryNotifications_oneBatchAndLedgerWritten() {
+    List<ExpiryNotification> expiryNotifications =
+        List.of(
+            expiryNotification(
+                new IngredientExpiryNotice(1, 10, LocalDate.of(2024, 11, 23), 3),
+                new IngredientExpiryNotice(1, 11, LocalDate.of(2024, 11, 23), 3)),
+            expiryNotification(new IngredientExpiryNotice(1, 12, LocalDate.of(2024, 11, 21), 1)));
+
+    whenNotificationsInserted(7, 8);
+    when(postgresDataAccess.queryStatement(eq(SQL_EXPIRY_NOTIFICATION_ADD), any(), any()))
+        .thenAnswer(rows(ledgerRows(7, 7, 8)));
+
+    List<Notification> result =
+        notificationDataAccess.createExpiryNotifications(expiryNotifications);
+
+    assertEquals(List.of(7, 8), result.stream().map(Notification::getId).toList());
+    // the users locked before the ledger is read, and the ledger read before inserting
+    InOrder inOrder = inOrder(postgresDataAccess);
+    inOrder
+        .verify(postgresDataAccess)
+        .queryStatement(
+            eq(SQL_EXPIRY_NOTIFICATION_LOCK_USERS),
+            argThat(
+                sqlInput ->
+                    Arrays.equals(
+                        (int[]) sqlInput.get(INPUT_EXPIRY_NOTIFICATION_USER_IDS),
+                        new int[] {1, 1, 1})),
+            any());
+    inOrder
+        .verify(postgresDataAccess)
+        .queryStatement(eq(SQL_EXPIRY_NOTIFICATION_GET_NOTIFIED), any(), any());
+    inOrder
+        .verify(postgresDataAccess)
+        .batchInsertStatement(
+            eq(SQL_NOTIFICATION_ADD_BATCH),
+            argThat(sqlInputs -> sqlInputs.size() == 2),
+            eq(COLUMN_NOTIFICATION_ID),
+            eq(COLUMN_NOTIFICATION_CREATE_DATETIME));
+    verify(postgresDataAccess, times(1))
+        .queryStatement(
+            eq(SQL_EXPIRY_NOTIFICATION_ADD),
+            argThat(
+                sqlInput ->
+                    Arrays.equals(
+                            (int[]) sqlInput.get(INPUT_EXPIRY_NOTIFICATION_INGREDIENT_IDS),
+                            new int[] {10, 11, 12})
+                        && Arrays.equals(
+                            (String[]) sqlInput.get(INPUT_EXPIRY_NOTIFICATION_EXPIRY_DATES),
+                            new String[] {"2024-11-23", "2024-11-23", "2024-11-21"})
+                        && Arrays.equals(
+                            (int[]) sqlInput.get(INPUT_EXPIRY_NOTIFICATION_NOTIFICATION_IDS),
+                            new int[] {7, 7, 8})),
+            any());
+    verify(postgresDataAccess, never()).upsertStatement(any(), any());
+  }
+
+  @Test
+  public void createExpiryNotifications_oneAlreadyNotified_leftOut() {
+    List<ExpiryNotification> expiryNotifications =
+        List.of(
+            expiryNotification(
+                new IngredientExpiryNotice(1, 10, LocalDate.of(2024, 11, 23), 3),
+                new IngredientExpiryNotice(1, 11, LocalDate.of(2024, 11, 23), 3)),
+            expiryNotification(new IngredientExpiryNotice(1, 12, LocalDate.of(2024, 11, 21), 1)));
+
+    whenNotificationsInserted(7, 8);
+    // ingredient 11 conflicts with a ledger row, so notification 7 has one row of two
+    when(postgresDataAccess.queryStatement(eq(SQL_EXPIRY_NOTIFICATION_ADD), any(), any()))
+        .thenAnswer(rows(ledgerRows(7, 8)));
+    when(postgresDataAccess.upsertStatement(
+            eq(SQL_EXPIRY_NOTIFICATION_DELETE_FOR_NOTIFICATIONS), any()))
+        .thenReturn(1);
+    when(postgresDataAccess.upsertStatement(
+            eq(SQL_EXPIRY_NOTIFICATION_DELETE_NOTIFICATIONS), any()))
+        .thenReturn(1);
+
+    List<Notification> result =
+        notificationDataAccess.createExpiryNotifications(expiryNotifications);
+
+    assertEquals(List.of(8), result.stream().map(Notification::getId).toList());
+    verify(postgresDataAccess, times(1))
+        .upsertStatement(
+            eq(SQL_EXPIRY_NOTIFICATION_DELETE_NOTIFICATIONS),
+            argThat(
+                sqlInput ->
+                    Arrays.equals(
+                        (int[]) sqlInput.get(INPUT_EXPIRY_NOTIFICATION_NOTIFICATION_IDS),
+                        new int[] {7})));
+  }
+
+  @Test
+  public void createExpiryNotifications_inLedger_leftOutBeforeInsert() {
+    List<ExpiryNotification> expiryNotifications =
+        List.of(
+            expiryNotification(
+                new IngredientExpiryNotice(1, 10, LocalDate.of(2024, 11, 23), 3),
+                new IngredientExpiryNotice(1, 11, LocalDate.of(2024, 11, 23), 3)),
+            expiryNotification(new IngredientExpiryNotice(1, 12, LocalDate.of(2024, 11, 21), 1)));
+
+    // another replica notified ingredient 11 while this one waited for the lock of the user
+    when(postgresDataAccess.queryStatement(eq(SQL_EXPIRY_NOTIFICATION_GET_NOTIFIED), any(), any()))
+        .thenAnswer(rows(List.of(noticeRow(1, 11, "2024-11-23", 3))));
+    whenNotificationsInserted(8);
+    when(postgresDataAccess.queryStatement(eq(SQL_EXPIRY_NOTIFICATION_ADD), any(), any()))
+        .thenAnswer(rows(ledgerRows(8)));
+
+    List<Notification> result =
+        notificationDataAccess.createExpiryNotifications(expiryNotifications);
+
+    assertEquals(List.of(8), result.stream().map(Notification::getId).toList());
+    verify(postgresDataAccess, times(1))
+        .batchInsertStatement(
+            eq(SQL_NOTIFICATION_ADD_BATCH),
+            argThat(sqlInputs -> sqlInputs.size() == 1),
+            eq(COLUMN_NOTIFICATION_ID),
+            eq(COLUMN_NOTIFICATION_CREATE_DATETIME));
+    verify(postgresDataAccess, times(1))
+        .queryStatement(
+            eq(SQL_EXPIRY_NOTIFICATION_ADD),
+            argThat(
+                sqlInput ->
+                    Arrays.equals(
+                        (int[]) sqlInput.get(INPUT_EXPIRY_NOTIFICATION_INGREDIENT_IDS),
+                        new int[] {12})),
+            any());
+    verify(postgresDataAccess, never()).upsertStatement(any(), any());
+  }
+
+  @Test
+  public void createExpiryNotifications_allInLedger_nothingInserted() {
+    List<ExpiryNotification> expiryNotifications =
+        List.of(
+            expiryNotification(new IngredientExpiryNotice(1, 10, LocalDate.of(2024, 11, 23), 3)));
+
+    when(postgresDataAccess.queryStatement(eq(SQL_EXPIRY_NOTIFICATION_GET_NOTIFIED), any(), any()))
+        .thenAnswer(rows(List.of(noticeRow(1, 10, "2024-11-23", 3))));
+
+    assertTrue(notificationDataAccess.createExpiryNotifications(expiryNotifications).isEmpty());
+    verify(postgresDataAccess, never()).batchInsertStatement(any(), any(), any(), any());
+    verify(postgresDataAccess, never())
+        .queryStatement(eq(SQL_EXPIRY_NOTIFICATION_ADD), any(), any());
+  }
+
+  @Test
+  public void createExpiryNotifications_lockFailed_throws() {
+    List<ExpiryNotification> expiryNotifications =
+        List.of(
+            expiryNotification(new IngredientExpiryNotice(1, 10, LocalDate.of(2024, 11, 23), 3)));
+
+    when(postgresDataAccess.queryStatement(eq(SQL_EXPIRY_NOTIFICATION_LOCK_USERS), any(), any()))
+        .thenReturn(null);
+
+    assertThrows(
+        IllegalStateException.class,
+        () -> notificationDataAccess.createExpiryNotifications(expiryNotifications));
+    verify(postgresDataAccess, never()).batchInsertStatement(any(), any(), any(), any());
+  }
+
+  @Test
+  public void createExpiryNotifications_ledgerFailed_throws() {
+    List<ExpiryNotification> expiryNotifications =
+        List.of(
+            expiryNotification(new IngredientExpiryNotice(1, 10, LocalDate.of(2024, 11, 23), 3)));
+
+    whenNotificationsInserted(7);
+    when(postgresDataAccess.queryStatement(eq(SQL_EXPIRY_NOTIFICATION_ADD), any(), any()))
+        .thenAnswer(rows(null));
+
+    assertThrows(
+        IllegalStateException.class,
+        () -> notificationDataAccess.createExpiryNotifications(expiryNotifications));
+  }
+
+  @Test
+  public void createExpiryNotifications_notificationsNotCreated_throws() {
+    List<ExpiryNotification> expiryNotifications =
+        List.of(
+            expiryNotification(new IngredientExpiryNotice(1, 10, LocalDate.of(2024, 11, 23), 3)));
+
+    when(postgresDataAccess.batchInsertStatement(
+            eq(SQL_NOTIFICATION_ADD_BATCH),
+            any(),
+            eq(COLUMN_NOTIFICATION_ID),
+            eq(COLUMN_NOTIFICATION_CREATE_DATETIME)))
+        .thenReturn(null);
+
+    assertThrows(
+        IllegalStateException.class,
+        () -> notificationDataAccess.createExpiryNotifications(expiryNotifications));
+    verify(postgresDataAccess, never())
+        .queryStatement(eq(SQL_EXPIRY_NOTIFICATION_ADD), any(), any());
+  }
+
+  @Test
+  public void createNotifications_idsAndCreateTimesSet() {
+    Notification first = new Notification(1, "Title", "content", ENotificationType.INFO);
+    Notification second = new Notification(2, "Title", "content", ENotificationType.WARNING);
+    Timestamp created = Timestamp.valueOf("2024-11-20 10:00:00");
+
+    when(postgresDataAccess.batchInsertStatement(
+            eq(SQL_NOTIFICATION_ADD_BATCH),
+            any(),
+            eq(COLUMN_NOTIFICATION_ID),
+            eq(COLUMN_NOTIFICATION_CREATE_DATETIME)))
+        .thenReturn(
+            List.of(
+                Map.of(COLUMN_NOTIFICATION_ID, 7, COLUMN_NOTIFICATION_CREATE_DATETIME, created),
+                Map.of(COLUMN_NOTIFICATION_ID, 8, COLUMN_NOTIFICATION_CREATE_DATETIME, created)));
+
+    List<Notification> result = notificationDataAccess.createNotifications(List.of(first, second));
+
+    assertEquals(List.of(7, 8), result.stream().map(Notification::getId).toList());
+    assertEquals(created.toInstant(), result.get(1).getCreateDateTime().toInstant());
+    verify(postgresDataAccess, times(1))
+        .batchInsertStatement(
+            eq(SQL_NOTIFICATION_ADD_BATCH),
+            argThat(
+                sqlInputs ->
+                    sqlInputs.size() == 2
+                        && sqlInputs.get(1).get(INPUT_NOTIFICATION_USER_ID).equals(2)
+                        && sqlInputs.get(1).get(INPUT_NOTIFICATION_TYPE).equals("WARNING")),
+            eq(COLUMN_NOTIFICATION_ID),
+            eq(COLUMN_NOTIFICATION_CREATE_DATETIME));
+  }
+
+  @Test
+  public void createNotifications_batchFailed() {
+    Notification notification = new Notification(1, "Title", "content", ENotificationType.INFO);
+
+    when(postgresDataAccess.batchInsertStatement(
+            eq(SQL_NOTIFICATION_ADD_BATCH),
+            any(),
+            eq(COLUMN_NOTIFICATION_ID),
+            eq(COLUMN_NOTIFICATION_CREATE_DATETIME)))
+        .thenReturn(null);
+
+    assertNull(notificationDataAccess.createNotifications(List.of(notification)));
+  }
+
+  private static ExpiryNotification expiryNotification(IngredientExpiryNotice... notices) {
+    return new ExpiryNotification(
+        new Notification(1, "Title", "content", ENotificationType.INFO), List.of(notices));
+  }
+
+  private void whenNotificationsInserted(int... ids) {
+    Timestamp created = Timestamp.valueOf("2024-11-20 10:00:00");
+    List<Map<String, Object>> keys = new ArrayList<>();
+    for (int id : ids) {
+      keys.add(Map.of(COLUMN_NOTIFICATION_ID, id, COLUMN_NOTIFICATION_CREATE_DATETIME, created));
+    }
+    when(postgresDataAccess.batchInsertStatement(
+            eq(SQL_NOTIFICATION_ADD_BATCH),
+            any(),
+            eq(COLUMN_NOTIFICATION_ID),
+            eq(COLUMN_NOTIFICATION_CREATE_DATETIME)))
+        .thenReturn(keys);
+  }
+
+  private static Map<String, Object> noticeRow(
+      int userId, int ingredientId, String expiryDate, int daysBucket) {
+    return Map.of(
+        COLUMN_EXPIRY_NOTIFICATION_USER_ID,
+        userId,
+        COLUMN_EXPIRY_NOTIFICATION_INGREDIENT_ID,
+        ingredientId,
+        COLUMN_EXPIRY_NOTIFICATION_EXPIRY_DATE,
+        Date.valueOf(expiryDate),
+        COLUMN_EXPIRY_NOTIFICATION_DAYS_BUCKET,
+        daysBucket);
+  }
+
+  // the notification ids returned by the ledger insert, one per row inserted
+  private static List<Map<String, Object>> ledgerRows(int... notificationIds) {
+    List<Map<String, Object>> rows = new ArrayList<>();
+    for (int id : notificationIds) {
+      rows.add(Map.of(COLUMN_EXPIRY_NOTIFICATION_NOTIFICATION_ID, id));
+    }
+    return rows;
   }
 }
@@ -0,0 +1,57 @@
+package nus.iss.team3.backend.dataaccess;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import nus.iss.team3.backend.entity.CookingStep;
+import nus.iss.team3.backend.entity.RecipeIngredient;
+import org.junit.jupiter.api.Test;
+
+public class TestRecipeChildrenJson {
+
+  @Test
+  public void readIngredients() throws IOException {
+    List<RecipeIngredient> ingredients =
+        RecipeChildrenJson.readIngredients(
+            "[[1, \"Sugar \\\"fine\\\"\", 1.5e2, \"g\"], [2, null, 3, null]]", 7L);
+
+    assertEquals(
+        List.of(
+            new RecipeIngredient(1L, 7L, "Sugar \"fine\"", 150.0, "g"),
+            new RecipeIngredient(2L, 7L, null, 3.0, null)),
+        ingredients);
+  }
+
+  @Test
+  public void readCookingSteps() throws IOException {
+    List<CookingStep> steps =
+        RecipeChildrenJson.readCookingSteps("[[3, \"Boil\", \"boil.png\"]]", 7L);
+
+    assertEquals(
+        List.of(
+            CookingStep.builder()
+                .id(3L)
+                .recipeId(7L)
+                .description("Boil")
+                .image("boil.png")
+                .build()),
+        steps);
+  }
+
+  @Test
+  public void read_emptyOrNull() throws IOException {
+    assertTrue(RecipeChildrenJson.readIngredients("[]", 7L).isEmpty());
+    assertTrue(RecipeChildrenJson.readCookingSteps(null, 7L).isEmpty());
+  }
+
+  @Test
+  public void read_malformed() {
+    assertThrows(IOException.class, () -> RecipeChildrenJson.readIngredients("{}", 7L));
+    assertThrows(
+        IOException.class, () -> RecipeChildrenJson.readCookingSteps("[[1, \"a\", null, 4]]", 7L));
+    assertThrows(IOException.class, () -> RecipeChildrenJson.readIngredients("[1]", 7L));
+  }
+}
@@ -1,5 +1,6 @@
 package nus.iss.team3.backend.dataaccess;
 
+import static nus.iss.team3.backend.dataaccess.MapResultSet.rows;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -40,14 +41,15 @@ public class TestUserAccountDataAccess {
     String inputName = "user1";
     String inputPassword = BCrypt.hashpw("password", salt);
     List<Map<String, Object>> userAccountList = null;
-    when(postgresDataAccess.queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any()))
-        .thenReturn(userAccountList);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any(), any()))
+        .thenAnswer(rows(userAccountList));
 
     UserAccount result = userAccessDataAccess.authenticateUser(inputName, inputPassword);
 
     assertNull(result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any(), any());
   }
 
   @Test
@@ -63,14 +65,15 @@ public class TestUserAccountDataAccess {
 
       userAccountList.add(userAccount);
     }
-    when(postgresDataAccess.queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any()))
-        .thenReturn(userAccountList);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any(), any()))
+        .thenAnswer(rows(userAccountList));
 
     UserAccount result = userAccessDataAccess.authenticateUser(inputName, inputPassword);
 
     assertNull(result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any(), any());
   }
 
   @Test
@@ -81,14 +84,15 @@ public class TestUserAccountDataAccess {
     {
       userAccountList.add(null);
     }
-    when(postgresDataAccess.queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any()))
-        .thenReturn(userAccountList);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any(), any()))
+        .thenAnswer(rows(userAccountList));
 
     UserAccount result = userAccessDataAccess.authenticateUser(inputName, inputPassword);
 
     assertNull(result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any(), any());
   }
 
   @Test
@@ -112,14 +116,15 @@ public class TestUserAccountDataAccess {
 
       userAccountList.add(userAccount);
     }
-    when(postgresDataAccess.queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any()))
-        .thenReturn(userAccountList);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any(), any()))
+        .thenAnswer(rows(userAccountList));
 
     UserAccount result = userAccessDataAccess.authenticateUser(inputName, inputPassword);
 
     assertNull(result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any(), any());
   }
 
   @Test
@@ -135,15 +140,16 @@ public class TestUserAccountDataAccess {
 
       userAccountList.add(userAccount);
     }
-    when(postgresDataAccess.queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any()))
-        .thenReturn(userAccountList);
+    when(postgresDataAccess.queryStatement(
+            eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any(), any()))
+        .thenAnswer(rows(userAccountList));
 
     UserAccount result = userAccessDataAccess.authenticateUser(inputName, inputPassword);
 
     assertEquals("user1", result.getName());
     assertNull(result.getPassword());
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_AUTHENTICATE_USER), any(), any());
   }
 
   @Test
@@ -272,14 +278,14 @@ public class TestUserAccountDataAccess {
 
     List<Map<String, Object>> entityReturned = null;
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_ID), any()))
-        .thenReturn(entityReturned);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_ID), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     UserAccount result = userAccessDataAccess.getUserById(inputUserId);
 
     assertNull(result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_ID), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_ID), any(), any());
   }
 
   @Test
@@ -288,14 +294,14 @@ public class TestUserAccountDataAccess {
 
     List<Map<String, Object>> entityReturned = new ArrayList<>();
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_ID), any()))
-        .thenReturn(entityReturned);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_ID), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     UserAccount result = userAccessDataAccess.getUserById(inputUserId);
 
     assertNull(result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_ID), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_ID), any(), any());
   }
 
   @Test
@@ -316,14 +322,14 @@ public class TestUserAccountDataAccess {
       entityReturned.add(entity);
     }
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_ID), any()))
-        .thenReturn(entityReturned);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_ID), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     UserAccount result = userAccessDataAccess.getUserById(inputUserId);
 
     assertNotNull(result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_ID), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_ID), any(), any());
   }
 
   @Test
@@ -332,14 +338,14 @@ public class TestUserAccountDataAccess {
 
     List<Map<String, Object>> entityReturned = null;
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_NAME), any()))
-        .thenReturn(entityReturned);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_NAME), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     UserAccount result = userAccessDataAccess.getUserByName(inputName);
 
     assertNull(result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_NAME), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_NAME), any(), any());
   }
 
   @Test
@@ -348,14 +354,14 @@ public class TestUserAccountDataAccess {
 
     List<Map<String, Object>> entityReturned = new ArrayList<>();
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_NAME), any()))
-        .thenReturn(entityReturned);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_NAME), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     UserAccount result = userAccessDataAccess.getUserByName(inputName);
 
     assertNull(result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_NAME), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_NAME), any(), any());
   }
 
   @Test
@@ -376,14 +382,14 @@ public class TestUserAccountDataAccess {
       entityReturned.add(entity);
     }
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_NAME), any()))
-        .thenReturn(entityReturned);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_NAME), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     UserAccount result = userAccessDataAccess.getUserByName(inputName);
 
     assertNotNull(result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_NAME), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_NAME), any(), any());
   }
 
   @Test
@@ -392,14 +398,14 @@ public class TestUserAccountDataAccess {
 
     List<Map<String, Object>> entityReturned = null;
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any()))
-        .thenReturn(entityReturned);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     UserAccount result = userAccessDataAccess.getUserByEmail(inputEmail);
 
     assertNull(result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any(), any());
   }
 
   @Test
@@ -408,14 +414,14 @@ public class TestUserAccountDataAccess {
 
     List<Map<String, Object>> entityReturned = new ArrayList<>();
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any()))
-        .thenReturn(entityReturned);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     UserAccount result = userAccessDataAccess.getUserByEmail(inputEmail);
 
     assertNull(result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any(), any());
   }
 
   @Test
@@ -436,14 +442,14 @@ public class TestUserAccountDataAccess {
       entityReturned.add(entity);
     }
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any()))
-        .thenReturn(entityReturned);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     UserAccount result = userAccessDataAccess.getUserByEmail(inputEmail);
 
     assertNotNull(result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any(), any());
   }
 
   @Test
@@ -464,42 +470,42 @@ public class TestUserAccountDataAccess {
       entityReturned.add(entity);
     }
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any()))
-        .thenReturn(entityReturned);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any(), any()))
+        .thenAnswer(rows(entityReturned));
 
     UserAccount result = userAccessDataAccess.getUserByEmail(inputEmail);
 
     assertNotNull(result);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_BY_EMAIL), any(), any());
   }
 
   @Test
   public void getAllUsers_nullList() {
     List<Map<String, Object>> userAccountList = null;
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any()))
-        .thenReturn(userAccountList);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any(), any()))
+        .thenAnswer(rows(userAccountList));
 
     List<UserAccount> result = userAccessDataAccess.getAllUsers();
 
     assertEquals(result.size(), 0);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any(), any());
   }
 
   @Test
   public void getAllUsers_emptyList() {
     List<Map<String, Object>> userAccountList = new ArrayList<>();
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any()))
-        .thenReturn(userAccountList);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any(), any()))
+        .thenAnswer(rows(userAccountList));
 
     List<UserAccount> result = userAccessDataAccess.getAllUsers();
 
     assertEquals(result.size(), 0);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any(), any());
   }
 
   @Test
@@ -515,14 +521,14 @@ public class TestUserAccountDataAccess {
       userAccountList.add(userAccount);
     }
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any()))
-        .thenReturn(userAccountList);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any(), any()))
+        .thenAnswer(rows(userAccountList));
 
     List<UserAccount> result = userAccessDataAccess.getAllUsers();
 
     assertEquals(result.size(), 1);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any(), any());
   }
 
   @Test
@@ -554,14 +560,14 @@ public class TestUserAccountDataAccess {
       userAccountList.add(userAccount);
     }
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any()))
-        .thenReturn(userAccountList);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any(), any()))
+        .thenAnswer(rows(userAccountList));
 
     List<UserAccount> result = userAccessDataAccess.getAllUsers();
 
     assertEquals(result.size(), 3);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any(), any());
   }
 
   @Test
@@ -577,14 +583,14 @@ public class TestUserAccountDataAccess {
       userAccountList.add(userAccount);
     }
     when(postgresDataAccess.queryStatement(
-            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any()))
-        .thenReturn(userAccountList);
+            eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any(), any()))
+        .thenAnswer(rows(userAccountList));
 
     List<UserAccount> result = userAccessDataAccess.getAllUsers();
 
     assertEquals(result.size(), 1);
     verify(postgresDataAccess, times(1))
-        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any());
+        .queryStatement(eq(PostgresSqlStatement.SQL_USER_ACCOUNT_GET_ALL), any(), any());
   }
 
   private UserAccount createValidUserAccount() {
@@ -0,0 +1,97 @@
+package nus.iss.team3.backend.dataaccess.postgres;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import nus.iss.team3.backend.dataaccess.MapResultSet;
+import org.junit.jupiter.api.Test;
+
+public class TestIndexedRowMapper {
+
+  private static class PairMapper extends IndexedRowMapper<Object[]> {
+    private final int id = column("id");
+    private final int name = column("name");
+    private final int missing = column("missing");
+
+    @Override
+    protected Object[] map(ResultSet rs) throws SQLException {
+      return new Object[] {getLong(rs, id), getString(rs, name), getInteger(rs, missing)};
+    }
+
+    boolean hasMissing() {
+      return hasColumn(missing);
+    }
+  }
+
+  @Test
+  public void mapRow_resolvesColumnsByLabel() throws SQLException {
+    ResultSet rs =
+        MapResultSet.of(new String[] {"NAME", "other", "ID"}, new Object[][] {{"a", 7, 1L}});
+    PairMapper mapper = new PairMapper();
+
+    rs.next();
+    Object[] row = mapper.mapRow(rs, 0);
+
+    assertEquals(1L, row[0]);
+    assertEquals("a", row[1]);
+  }
+
+  @Test
+  public void mapRow_missingColumn_readsNull() throws SQLException {
+    ResultSet rs = MapResultSet.of(new String[] {"id", "name"}, new Object[][] {{1L, "a"}});
+    PairMapper mapper = new PairMapper();
+
+    rs.next();
+    Object[] row = mapper.mapRow(rs, 0);
+
+    assertNull(row[2]);
+    assertFalse(mapper.hasMissing());
+  }
+
+  @Test
+  public void mapRow_nullValue_readsNull() throws SQLException {
+    ResultSet rs = MapResultSet.of(new String[] {"id", "name"}, new Object[][] {{null, null}});
+    PairMapper mapper = new PairMapper();
+
+    rs.next();
+    Object[] row = mapper.mapRow(rs, 0);
+
+    assertNull(row[0]);
+    assertNull(row[1]);
+  }
+
+  @Test
+  public void mapRow_newResultSet_resolvesAgain() throws SQLException {
+    ResultSet first = MapResultSet.of(new String[] {"id", "name"}, new Object[][] {{1L, "a"}});
+    ResultSet second =
+        MapResultSet.of(new String[] {"missing", "name", "id"}, new Object[][] {{3, "b", 2L}});
+    PairMapper mapper = new PairMapper();
+
+    first.next();
+    Object[] firstRow = mapper.mapRow(first, 0);
+    second.next();
+    Object[] secondRow = mapper.mapRow(second, 0);
+
+    assertEquals(1L, firstRow[0]);
+    assertEquals(2L, secondRow[0]);
+    assertEquals("b", secondRow[1]);
+    assertEquals(3, secondRow[2]);
+    assertTrue(mapper.hasMissing());
+  }
+
+  @Test
+  public void mapRow_duplicateLabels_firstColumnWins() throws SQLException {
+    ResultSet rs =
+        MapResultSet.of(new String[] {"id", "name", "id"}, new Object[][] {{1L, "a", 2L}});
+    PairMapper mapper = new PairMapper();
+
+    rs.next();
+    Object[] row = mapper.mapRow(rs, 0);
+
+    assertEquals(1L, row[0]);
+  }
+}
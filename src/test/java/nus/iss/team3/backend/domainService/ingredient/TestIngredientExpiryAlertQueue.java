@@ -0,0 +1,238 @@
+package nus.iss.team3.backend.domainService.ingredient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+import nus.iss.team3.backend.dataaccess.IIngredientDataAccess;
+import nus.iss.team3.backend.entity.IngredientExpiryAlert;
+import nus.iss.team3.backend.entity.UserIngredient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestIngredientExpiryAlertQueue {
+
+  private static final ZonedDateTime START =
+      ZonedDateTime.of(2026, 10, 18, 8, 0, 0, 0, ZoneOffset.UTC);
+
+  private MutableClock clock;
+  private IIngredientDataAccess ingredientDataAccess;
+  private SimpleMeterRegistry meterRegistry;
+  private IngredientExpiryAlertQueue queue;
+
+  @BeforeEach
+  public void setUp() {
+    clock = new MutableClock(START.toInstant());
+    ingredientDataAccess = mock(IIngredientDataAccess.class);
+    meterRegistry = new SimpleMeterRegistry();
+    queue = new IngredientExpiryAlertQueue(meterRegistry, ingredientDataAccess, clock);
+  }
+
+  @Test
+  public void schedule_fallsDueAtTheTimeOfDayItExpires() {
+    // expires in 3 days at 18:00, the 1 day alert is past tomorrow
+    UserIngredient fish = ingredient(1, 1, START.plusDays(3).withHour(18));
+    queue.schedule(fish);
+
+    assertEquals(1, queue.size());
+    assertTrue(queue.pollDue(10).isEmpty());
+
+    clock.advance(Duration.ofHours(10));
+    List<IngredientExpiryAlert> due = queue.pollDue(10);
+
+    assertEquals(1, due.size());
+    assertSame(fish, due.getFirst().getIngredient());
+    assertEquals(3, due.getFirst().getDaysBeforeExpiry());
+    assertEquals(0, queue.size());
+    assertEquals(0.0, meterRegistry.get(IngredientExpiryAlertQueue.METRIC_PENDING).gauge().value());
+  }
+
+  @Test
+  public void schedule_dueTimePassedToday_dueNow() {
+    queue.schedule(ingredient(1, 1, START.plusDays(1).withHour(6)));
+
+    assertEquals(1, queue.pollDue(10).getFirst().getDaysBeforeExpiry());
+  }
+
+  @Test
+  public void schedule_replacesTheAlertsOfTheIngredient() {
+    queue.schedule(ingredient(1, 1, START.plusDays(3)));
+    queue.schedule(ingredient(1, 1, START.plusDays(1).plusHours(2)));
+
+    assertEquals(1, queue.size());
+    clock.advance(Duration.ofHours(3));
+    List<IngredientExpiryAlert> due = queue.pollDue(10);
+
+    assertEquals(1, due.size());
+    assertEquals(1, due.getFirst().getDaysBeforeExpiry());
+  }
+
+  @Test
+  public void schedule_alreadyAlerted_notAlertedAgain() {
+    UserIngredient fish = ingredient(1, 1, START.plusDays(3));
+    queue.schedule(fish);
+    assertEquals(1, queue.pollDue(10).size());
+
+    queue.schedule(fish);
+
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void update_replacesTheIngredientOfItsAlerts() {
+    queue.schedule(ingredient(1, 1, START.plusDays(3)));
+    UserIngredient updated = ingredient(1, 1, START.plusDays(3));
+    updated.setQuantity(0.5);
+
+    queue.update(updated);
+
+    assertSame(updated, queue.pollDue(10).getFirst().getIngredient());
+  }
+
+  @Test
+  public void cancel_alertsSkipped() {
+    queue.schedule(ingredient(1, 1, START.plusDays(3)));
+    queue.schedule(ingredient(2, 1, START.plusDays(1)));
+    queue.schedule(ingredient(3, 2, START.plusDays(1)));
+
+    queue.cancel(1);
+    queue.cancelUser(2);
+
+    assertEquals(1, queue.size());
+    List<IngredientExpiryAlert> due = queue.pollDue(10);
+    assertEquals(1, due.size());
+    assertEquals(2, due.getFirst().getIngredient().getId());
+  }
+
+  @Test
+  public void pollDue_earliestFirst_atMostMax() {
+    queue.schedule(ingredient(1, 1, START.plusDays(3).minusHours(1)));
+    queue.schedule(ingredient(2, 1, START.plusDays(3).minusHours(3)));
+    queue.schedule(ingredient(3, 2, START.plusDays(3).minusHours(2)));
+
+    List<IngredientExpiryAlert> first = queue.pollDue(2);
+    List<IngredientExpiryAlert> second = queue.pollDue(2);
+
+    assertEquals(
+        List.of(2, 3), first.stream().map(alert -> alert.getIngredient().getId()).toList());
+    assertEquals(1, second.getFirst().getIngredient().getId());
+  }
+
+  @Test
+  public void load_alertsOfTodayAndTomorrowNotNotified() {
+    LocalDate today = START.toLocalDate();
+    when(ingredientDataAccess.getExpiringIngredientsNotNotified(
+            eq(today), eq(IngredientExpiryAlert.NOTIFY_DAYS), eq(0), eq(1)))
+        .thenReturn(List.of(ingredient(1, 1, START.plusDays(1))));
+    when(ingredientDataAccess.getExpiringIngredientsNotNotified(
+            eq(today.plusDays(1)), eq(IngredientExpiryAlert.NOTIFY_DAYS), eq(0), eq(1)))
+        .thenReturn(List.of(ingredient(2, 1, START.plusDays(4))));
+    queue.schedule(ingredient(9, 3, START.plusDays(3)));
+
+    queue.load();
+
+    assertEquals(2, queue.size());
+    assertEquals(1, queue.pollDue(10).getFirst().getIngredient().getId());
+    clock.advance(Duration.ofDays(1));
+    assertEquals(2, queue.pollDue(10).getFirst().getIngredient().getId());
+  }
+
+  @Test
+  public void load_fails_alertsKept() {
+    when(ingredientDataAccess.getExpiringIngredientsNotNotified(any(), any(), anyInt(), anyInt()))
+        .thenThrow(new IllegalStateException("database down"));
+    queue.schedule(ingredient(1, 1, START.plusDays(3)));
+
+    queue.load();
+
+    assertEquals(1, queue.size());
+    verify(ingredientDataAccess)
+        .getExpiringIngredientsNotNotified(any(), any(), anyInt(), anyInt());
+  }
+
+  @Test
+  public void release_notifyFailed_alertedAgainOnReload() {
+    // the notification failed, so the ledger still has no row for it
+    when(ingredientDataAccess.getExpiringIngredientsNotNotified(
+            eq(START.toLocalDate()), eq(IngredientExpiryAlert.NOTIFY_DAYS), eq(0), eq(1)))
+        .thenReturn(List.of(ingredient(1, 1, START.plusDays(1))));
+    queue.load();
+    List<IngredientExpiryAlert> due = queue.pollDue(10);
+    assertEquals(1, due.size());
+
+    queue.release(due);
+    queue.load();
+
+    List<IngredientExpiryAlert> again = queue.pollDue(10);
+    assertEquals(1, again.size());
+    assertEquals(1, again.getFirst().getIngredient().getId());
+    assertEquals(1, again.getFirst().getDaysBeforeExpiry());
+  }
+
+  @Test
+  public void load_polledNotReleased_notAlertedAgain() {
+    when(ingredientDataAccess.getExpiringIngredientsNotNotified(
+            eq(START.toLocalDate()), eq(IngredientExpiryAlert.NOTIFY_DAYS), eq(0), eq(1)))
+        .thenReturn(List.of(ingredient(1, 1, START.plusDays(1))));
+    queue.load();
+    assertEquals(1, queue.pollDue(10).size());
+
+    queue.load();
+
+    assertEquals(0, queue.size());
+  }
+
+  private static UserIngredient ingredient(int id, int userId, ZonedDateTime expiresAt) {
+    UserIngredient ingredient = new UserIngredient();
+    ingredient.setId(id);
+    ingredient.setUserId(userId);
+    ingredient.setName("ingredient " + id);
+    ingredient.setUom("kg");
+    ingredient.setQuantity(1.0);
+    ingredient.setExpiryDate(Date.from(expiresAt.toInstant()));
+    return ingredient;
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant instant;
+
+    private MutableClock(Instant instant) {
+      this.instant = instant;
+    }
+
+    private void advance(Duration duration) {
+      instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
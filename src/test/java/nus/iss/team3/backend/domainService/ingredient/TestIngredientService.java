@@ -11,6 +11,8 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import nus.iss.team3.backend.dataaccess.IIngredientDataAccess;
+import nus.iss.team3.backend.entity.ExpiryCheckShardLease;
+import nus.iss.team3.backend.entity.IngredientExpiryAlert;
 import nus.iss.team3.backend.entity.UserIngredient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,6 +28,8 @@ public class TestIngredientService {
 
   @Mock private IIngredientDataAccess ingredientDataAccess;
 
+  @Mock private IngredientExpiryAlertQueue expiryAlertQueue;
+
   @BeforeEach
   public void setUp() {
     ingredientService.postConstruct();
@@ -88,6 +92,7 @@ public class TestIngredientService {
     // valid ingredient with name, uom, quantity, expiryDate and userId
     when(ingredientDataAccess.addIngredient(inputIngredient)).thenReturn(true);
     assertTrue(ingredientService.addIngredient(inputIngredient));
+    verify(expiryAlertQueue, times(1)).schedule(inputIngredient);
   }
 
   @Test
@@ -180,6 +185,17 @@ public class TestIngredientService {
     when(ingredientDataAccess.getIngredientById(1)).thenReturn(inputIngredient);
     when(ingredientDataAccess.updateIngredient(inputIngredient)).thenReturn(true);
     assertTrue(ingredientService.updateIngredient(inputIngredient));
+    verify(expiryAlertQueue, times(1)).update(inputIngredient);
+    verify(expiryAlertQueue, never()).schedule(any());
+
+    // update the expiry date, its alerts are rescheduled
+    UserIngredient existingIngredient = new UserIngredient();
+    existingIngredient.setId(1);
+    existingIngredient.setExpiryDate(
+        Date.from(localDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+    when(ingredientDataAccess.getIngredientById(1)).thenReturn(existingIngredient);
+    assertTrue(ingredientService.updateIngredient(inputIngredient));
+    verify(expiryAlertQueue, times(1)).schedule(inputIngredient);
   }
 
   @Test
@@ -195,6 +211,7 @@ public class TestIngredientService {
     when(ingredientDataAccess.getIngredientById(ingredientId)).thenReturn(existingIngredient);
     when(ingredientDataAccess.deleteIngredientById(ingredientId)).thenReturn(true);
     assertTrue(ingredientService.deleteIngredientById(ingredientId));
+    verify(expiryAlertQueue, times(1)).cancel(ingredientId);
   }
 
   @Test
@@ -207,6 +224,7 @@ public class TestIngredientService {
     // delete an existing ingredient
     when(ingredientDataAccess.deleteIngredientsByUser(userId)).thenReturn(true);
     assertTrue(ingredientService.deleteIngredientsByUser(userId));
+    verify(expiryAlertQueue, times(2)).cancelUser(userId);
   }
 
   @Test
@@ -475,4 +493,91 @@ public class TestIngredientService {
     assertEquals("first apple for user 2", results.get(3).getName());
     assertEquals("second apple for user 2", results.get(4).getName());
   }
+
+  @Test
+  public void getExpiringIngredientsNotNotified() {
+    LocalDate today = LocalDate.now();
+    List<UserIngredient> userIngredients = List.of(new UserIngredient());
+    when(ingredientDataAccess.getExpiringIngredientsNotNotified(today, List.of(3, 1), 1, 4))
+        .thenReturn(userIngredients);
+
+    List<UserIngredient> results =
+        ingredientService.getExpiringIngredientsNotNotified(today, List.of(3, 1), 1, 4);
+
+    assertEquals(userIngredients, results);
+  }
+
+  @Test
+  public void getExpiringIngredientsNotNotified_invalid() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ingredientService.getExpiringIngredientsNotNotified(null, List.of(3, 1), 0, 1));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            ingredientService.getExpiringIngredientsNotNotified(LocalDate.now(), List.of(), 0, 1));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            ingredientService.getExpiringIngredientsNotNotified(LocalDate.now(), List.of(3), 4, 4));
+    verify(ingredientDataAccess, never())
+        .getExpiringIngredientsNotNotified(any(), any(), anyInt(), anyInt());
+  }
+
+  @Test
+  public void claimExpiryCheckShard() {
+    ExpiryCheckShardLease lease =
+        new ExpiryCheckShardLease(LocalDate.now(), null, 16, "replica-1", 300_000L);
+    when(ingredientDataAccess.claimExpiryCheckShard(lease)).thenReturn(3);
+
+    assertEquals(3, ingredientService.claimExpiryCheckShard(lease));
+  }
+
+  @Test
+  public void expiryCheckShardLease_invalid() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            ingredientService.claimExpiryCheckShard(
+                new ExpiryCheckShardLease(LocalDate.now(), null, 16, " ", 300_000L)));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            ingredientService.claimExpiryCheckShard(
+                new ExpiryCheckShardLease(LocalDate.now(), null, 0, "replica-1", 300_000L)));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            ingredientService.renewExpiryCheckShard(
+                new ExpiryCheckShardLease(LocalDate.now(), null, 16, "replica-1", 300_000L)));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            ingredientService.completeExpiryCheckShard(
+                new ExpiryCheckShardLease(LocalDate.now(), 16, 16, "replica-1", 300_000L)));
+    verifyNoInteractions(ingredientDataAccess);
+  }
+
+  @Test
+  public void pollDueExpiryAlerts() {
+    IngredientExpiryAlert alert = new IngredientExpiryAlert(new UserIngredient(), 3);
+    when(expiryAlertQueue.pollDue(10)).thenReturn(List.of(alert));
+
+    assertEquals(List.of(alert), ingredientService.pollDueExpiryAlerts(10));
+    assertThrows(IllegalArgumentException.class, () -> ingredientService.pollDueExpiryAlerts(0));
+  }
+
+  @Test
+  public void releaseExpiryAlerts() {
+    List<IngredientExpiryAlert> alerts =
+        List.of(new IngredientExpiryAlert(new UserIngredient(), 3));
+
+    assertTrue(ingredientService.releaseExpiryAlerts(alerts));
+    verify(expiryAlertQueue).release(alerts);
+
+    assertThrows(IllegalArgumentException.class, () -> ingredientService.releaseExpiryAlerts(null));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ingredientService.releaseExpiryAlerts(List.of(new IngredientExpiryAlert())));
+  }
 }
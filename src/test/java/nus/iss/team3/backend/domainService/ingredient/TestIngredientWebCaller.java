@@ -4,9 +4,12 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import nus.iss.team3.backend.domainService.webservice.IWebserviceCaller;
+import nus.iss.team3.backend.entity.ExpiryCheckShardLease;
+import nus.iss.team3.backend.entity.IngredientExpiryAlert;
 import nus.iss.team3.backend.entity.UserIngredient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -422,6 +425,114 @@ public class TestIngredientWebCaller {
         .getCall(endsWith(endingUrl), any(ParameterizedTypeReference.class));
   }
 
+  @Test
+  public void getExpiringIngredientsNotNotified_Success() {
+    String endingUrl =
+        "/ingredient/expiring-not-notified?today=2024-11-20&days=3,1&shard=1&shards=4";
+    List<UserIngredient> input = new ArrayList<>();
+    input.add(generateSampleUserIngredient());
+    ResponseEntity<List<UserIngredient>> responseEntity =
+        new ResponseEntity<>(input, HttpStatus.OK);
+
+    when(webServiceCaller.getCall(endsWith(endingUrl), any(ParameterizedTypeReference.class)))
+        .thenReturn(responseEntity);
+
+    List<UserIngredient> result =
+        ingredientWebCaller.getExpiringIngredientsNotNotified(
+            LocalDate.of(2024, 11, 20), List.of(3, 1), 1, 4);
+    assertEquals(1, result.size());
+    verify(webServiceCaller, times(1))
+        .getCall(endsWith(endingUrl), any(ParameterizedTypeReference.class));
+  }
+
+  @Test
+  public void getExpiringIngredientsNotNotified_Failure() {
+    String endingUrl =
+        "/ingredient/expiring-not-notified?today=2024-11-20&days=3,1&shard=1&shards=4";
+    ResponseEntity<List<UserIngredient>> responseEntity =
+        new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+    when(webServiceCaller.getCall(endsWith(endingUrl), any(ParameterizedTypeReference.class)))
+        .thenReturn(responseEntity);
+
+    List<UserIngredient> result =
+        ingredientWebCaller.getExpiringIngredientsNotNotified(
+            LocalDate.of(2024, 11, 20), List.of(3, 1), 1, 4);
+
+    assertEquals(0, result.size());
+  }
+
+  @Test
+  public void claimExpiryCheckShard_Success() {
+    String endingUrl = "/ingredient/expiry-check/claim";
+    ExpiryCheckShardLease lease =
+        new ExpiryCheckShardLease(LocalDate.of(2024, 11, 20), null, 16, "replica-1", 300_000L);
+
+    when(webServiceCaller.postCall(endsWith(endingUrl), eq(lease), eq(Integer.class)))
+        .thenReturn(new ResponseEntity<>(4, HttpStatus.OK));
+
+    assertEquals(4, ingredientWebCaller.claimExpiryCheckShard(lease));
+  }
+
+  @Test
+  public void claimExpiryCheckShard_NoneLeft() {
+    String endingUrl = "/ingredient/expiry-check/claim";
+    ExpiryCheckShardLease lease =
+        new ExpiryCheckShardLease(LocalDate.of(2024, 11, 20), null, 16, "replica-1", 300_000L);
+
+    when(webServiceCaller.postCall(endsWith(endingUrl), eq(lease), eq(Integer.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+
+    assertNull(ingredientWebCaller.claimExpiryCheckShard(lease));
+  }
+
+  @Test
+  public void renewAndCompleteExpiryCheckShard() {
+    ExpiryCheckShardLease lease =
+        new ExpiryCheckShardLease(LocalDate.of(2024, 11, 20), 4, 16, "replica-1", 300_000L);
+
+    when(webServiceCaller.postCall(
+            endsWith("/ingredient/expiry-check/renew"), eq(lease), eq(Boolean.class)))
+        .thenReturn(new ResponseEntity<>(true, HttpStatus.OK));
+    when(webServiceCaller.postCall(
+            endsWith("/ingredient/expiry-check/complete"), eq(lease), eq(Boolean.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+    assertTrue(ingredientWebCaller.renewExpiryCheckShard(lease));
+    assertFalse(ingredientWebCaller.completeExpiryCheckShard(lease));
+  }
+
+  @Test
+  public void pollDueExpiryAlerts() {
+    String endingUrl = "/ingredient/expiry-alert/poll?max=500";
+    IngredientExpiryAlert alert = new IngredientExpiryAlert(generateSampleUserIngredient(), 3);
+
+    when(webServiceCaller.postCall(
+            endsWith(endingUrl), isNull(), eq(IngredientExpiryAlert[].class)))
+        .thenReturn(new ResponseEntity<>(new IngredientExpiryAlert[] {alert}, HttpStatus.OK));
+    assertEquals(List.of(alert), ingredientWebCaller.pollDueExpiryAlerts(500));
+
+    when(webServiceCaller.postCall(
+            endsWith(endingUrl), isNull(), eq(IngredientExpiryAlert[].class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+    assertTrue(ingredientWebCaller.pollDueExpiryAlerts(500).isEmpty());
+  }
+
+  @Test
+  public void releaseExpiryAlerts() {
+    String endingUrl = "/ingredient/expiry-alert/release";
+    List<IngredientExpiryAlert> alerts =
+        List.of(new IngredientExpiryAlert(generateSampleUserIngredient(), 3));
+
+    when(webServiceCaller.postCall(endsWith(endingUrl), eq(alerts), eq(Boolean.class)))
+        .thenReturn(new ResponseEntity<>(true, HttpStatus.OK));
+    assertTrue(ingredientWebCaller.releaseExpiryAlerts(alerts));
+
+    when(webServiceCaller.postCall(endsWith(endingUrl), eq(alerts), eq(Boolean.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+    assertFalse(ingredientWebCaller.releaseExpiryAlerts(alerts));
+  }
+
   private UserIngredient generateSampleUserIngredient() {
     UserIngredient ingredient = new UserIngredient();
     ingredient.setId(1);
@@ -3,11 +3,14 @@ package nus.iss.team3.backend.domainService.notification;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import nus.iss.team3.backend.dataaccess.INotificationDataAccess;
 import nus.iss.team3.backend.entity.ENotificationType;
+import nus.iss.team3.backend.entity.ExpiryNotification;
+import nus.iss.team3.backend.entity.IngredientExpiryNotice;
 import nus.iss.team3.backend.entity.Notification;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -190,4 +193,87 @@ public class TestNotificationService {
     assertFalse(result);
     verify(notificationDataAccess).markAllNotificationsAsReadForUser(1);
   }
+
+  @Test
+  void createExpiryNotifications_Success() {
+    Notification notification = new Notification(1, "title", "content", ENotificationType.INFO);
+    List<ExpiryNotification> expiryNotifications =
+        List.of(
+            new ExpiryNotification(
+                notification,
+                List.of(new IngredientExpiryNotice(1, 10, LocalDate.now().plusDays(3), 3))));
+
+    when(notificationDataAccess.createExpiryNotifications(expiryNotifications))
+        .thenReturn(List.of(notification));
+
+    List<Notification> result = notificationService.createExpiryNotifications(expiryNotifications);
+    assertEquals(List.of(notification), result);
+    assertFalse(notification.getIsRead());
+  }
+
+  @Test
+  void createExpiryNotifications_notCreated() {
+    Notification notification = new Notification(1, "title", "content", ENotificationType.INFO);
+    List<ExpiryNotification> expiryNotifications =
+        List.of(
+            new ExpiryNotification(
+                notification,
+                List.of(new IngredientExpiryNotice(1, 10, LocalDate.now().plusDays(3), 3))));
+
+    when(notificationDataAccess.createExpiryNotifications(expiryNotifications))
+        .thenThrow(new IllegalStateException("Failed to create 1 expiry notifications"));
+
+    assertNull(notificationService.createExpiryNotifications(expiryNotifications));
+  }
+
+  @Test
+  void createExpiryNotifications_Failure() {
+    Notification notification = new Notification(1, "title", "content", ENotificationType.INFO);
+
+    assertThrows(
+        IllegalArgumentException.class, () -> notificationService.createExpiryNotifications(null));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> notificationService.createExpiryNotifications(List.of()));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            notificationService.createExpiryNotifications(
+                List.of(new ExpiryNotification(notification, List.of()))));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            notificationService.createExpiryNotifications(
+                List.of(
+                    new ExpiryNotification(
+                        new Notification(),
+                        List.of(new IngredientExpiryNotice(1, 10, LocalDate.now(), 3))))));
+    verify(notificationDataAccess, never()).createExpiryNotifications(any());
+  }
+
+  @Test
+  public void createNotifications() {
+    Notification first = new Notification(1, "Title", "content", ENotificationType.INFO);
+    Notification second = new Notification(2, "Title", "content", ENotificationType.INFO);
+    List<Notification> notifications = List.of(first, second);
+    when(notificationDataAccess.createNotifications(notifications)).thenReturn(notifications);
+
+    assertEquals(notifications, notificationService.createNotifications(notifications));
+    // unread by default
+    assertFalse(second.getIsRead());
+  }
+
+  @Test
+  public void createNotifications_invalid() {
+    assertThrows(
+        IllegalArgumentException.class, () -> notificationService.createNotifications(List.of()));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            notificationService.createNotifications(
+                List.of(
+                    new Notification(1, "Title", "content", ENotificationType.INFO),
+                    new Notification(2, " ", "content", ENotificationType.INFO))));
+    verify(notificationDataAccess, never()).createNotifications(any());
+  }
 }
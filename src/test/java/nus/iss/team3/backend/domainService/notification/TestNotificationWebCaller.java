@@ -6,6 +6,7 @@ import static org.mockito.Mockito.*;
 
 import java.util.List;
 import nus.iss.team3.backend.domainService.webservice.IWebserviceCaller;
+import nus.iss.team3.backend.entity.ExpiryNotification;
 import nus.iss.team3.backend.entity.Notification;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -221,6 +222,29 @@ public class TestNotificationWebCaller {
         .postCall(endsWith(endingUrl), any(Notification.class), eq(Notification.class));
   }
 
+  @Test
+  public void createNotifications_Success() {
+    List<Notification> notifications = List.of(new Notification(), new Notification());
+
+    when(webServiceCaller.postCall(
+            endsWith("/notification/create-batch"), eq(notifications), eq(Notification[].class)))
+        .thenReturn(
+            new ResponseEntity<>(notifications.toArray(new Notification[0]), HttpStatus.CREATED));
+
+    assertEquals(notifications, notificationWebCaller.createNotifications(notifications));
+  }
+
+  @Test
+  public void createNotifications_Failure() {
+    List<Notification> notifications = List.of(new Notification());
+
+    when(webServiceCaller.postCall(
+            endsWith("/notification/create-batch"), eq(notifications), eq(Notification[].class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+
+    assertNull(notificationWebCaller.createNotifications(notifications));
+  }
+
   @Test
   public void createNotification_Success_nullBody() {
     Notification notification = new Notification();
@@ -257,6 +281,38 @@ public class TestNotificationWebCaller {
         .postCall(endsWith(endingUrl), any(Notification.class), eq(Notification.class));
   }
 
+  @Test
+  public void createExpiryNotifications_Success() {
+    Notification notification = generateSampleNotification();
+    List<ExpiryNotification> expiryNotifications =
+        List.of(new ExpiryNotification(notification, List.of()));
+
+    when(webServiceCaller.postCall(
+            endsWith("/notification/create-expiry-batch"),
+            eq(expiryNotifications),
+            eq(Notification[].class)))
+        .thenReturn(new ResponseEntity<>(new Notification[] {notification}, HttpStatus.CREATED));
+
+    List<Notification> result =
+        notificationWebCaller.createExpiryNotifications(expiryNotifications);
+
+    assertEquals(List.of(notification), result);
+  }
+
+  @Test
+  public void createExpiryNotifications_Failure() {
+    List<ExpiryNotification> expiryNotifications =
+        List.of(new ExpiryNotification(generateSampleNotification(), List.of()));
+
+    when(webServiceCaller.postCall(
+            endsWith("/notification/create-expiry-batch"),
+            eq(expiryNotifications),
+            eq(Notification[].class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+
+    assertNull(notificationWebCaller.createExpiryNotifications(expiryNotifications));
+  }
+
   private Notification generateSampleNotification() {
     return new Notification(1, "title", "content", null);
   }
@@ -1,25 +1,44 @@
 package nus.iss.team3.backend.domainService.recipe;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import nus.iss.team3.backend.dataaccess.IRecipeDataAccess;
+import nus.iss.team3.backend.domainService.ingredient.IIngredientService;
 import nus.iss.team3.backend.domainService.recipe.status.IRecipeStateContext;
 import nus.iss.team3.backend.entity.ERecipeStatus;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipeIngredient;
+import nus.iss.team3.backend.entity.RecipePage;
 import nus.iss.team3.backend.entity.RecipeReview;
+import nus.iss.team3.backend.entity.RecipeScore;
+import nus.iss.team3.backend.entity.RecipeSummary;
+import nus.iss.team3.backend.entity.RecipeSummaryPage;
 import nus.iss.team3.backend.entity.RecipeWithReviews;
+import nus.iss.team3.backend.entity.ReviewAggregateDelta;
+import nus.iss.team3.backend.entity.UserIngredient;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
 /**
  * Unit test class: RecipeServiceTest is used to test the methods of the RecipeService class to
@@ -31,6 +50,12 @@ class RecipeServiceTest {
   private IRecipeStateContext mockRecipeContext; // Mocked data access layer
 
   private IRecipeDataAccess mockDataAccess; // Mocked data access layer
+  private RecipeCache recipeCache;
+  private RecipeRatingPipeline recipeRatingPipeline;
+  private RecipeSimilarityModel mockSimilarityModel;
+  private RecipePantryIndex recipePantryIndex;
+  private IIngredientService mockIngredientService;
+  private RecipeRecommendationCache recommendationCache;
   private RecipeService recipeService; // Service class under test
 
   private Recipe sampleRecipe; // Sample recipe object for testing
@@ -44,7 +69,25 @@ class RecipeServiceTest {
   void setUp() {
     mockDataAccess = mock(IRecipeDataAccess.class);
     mockRecipeContext = mock(IRecipeStateContext.class);
-    recipeService = new RecipeService(mockDataAccess, mockRecipeContext);
+    recipeCache = new RecipeCache(new SimpleMeterRegistry(), 10);
+    recipeRatingPipeline =
+        new RecipeRatingPipeline(mockDataAccess, recipeCache, new SimpleMeterRegistry(), 60000L);
+    mockSimilarityModel = mock(RecipeSimilarityModel.class);
+    recipePantryIndex = new RecipePantryIndex(mockDataAccess);
+    mockIngredientService = mock(IIngredientService.class);
+    // recomputations run on the calling thread
+    recommendationCache =
+        new RecipeRecommendationCache(new SimpleMeterRegistry(), 10, 60_000, Runnable::run);
+    recipeService =
+        new RecipeService(
+            mockDataAccess,
+            mockRecipeContext,
+            recipeCache,
+            recipeRatingPipeline,
+            mockSimilarityModel,
+            recipePantryIndex,
+            mockIngredientService,
+            recommendationCache);
 
     // Initialize sample Recipe object
     sampleRecipe = new Recipe();
@@ -241,10 +284,10 @@ class RecipeServiceTest {
     // Act: Call the service layer's updateRecipe method
     boolean result = recipeService.updateRecipe(recipe);
 
-    // Assert: Verify the result is true and the data access layer was called once
+    // Assert: Verify the result is true, the existing recipe was fetched and, once updated, read
+    // back for the pantry index
     assertTrue(result);
-    verify(mockDataAccess, times(1))
-        .getRecipeById(recipe.getId()); // Verify fetching existing recipe
+    verify(mockDataAccess, times(2)).getRecipeById(recipe.getId());
     verify(mockRecipeContext, times(1)).updateRecipe(recipe); // Verify update was called
   }
 
@@ -538,7 +581,7 @@ class RecipeServiceTest {
     recipe.setId(recipeId);
     recipe.setName("Existing Recipe");
 
-    when(mockDataAccess.getRecipeById(recipeId)).thenReturn(recipe);
+    when(mockDataAccess.getRecipeGraphById(recipeId)).thenReturn(recipe);
 
     // Act: Call the service layer's getRecipeById method
     Recipe result = recipeService.getRecipeById(recipeId);
@@ -548,7 +591,7 @@ class RecipeServiceTest {
     assertNotNull(result);
     assertEquals(recipeId, result.getId());
     assertEquals("Existing Recipe", result.getName());
-    verify(mockDataAccess, times(1)).getRecipeById(recipeId);
+    verify(mockDataAccess, times(1)).getRecipeGraphById(recipeId);
   }
 
   @Test
@@ -560,7 +603,7 @@ class RecipeServiceTest {
     recipe.setName("Existing Recipe");
     recipe.setDraftRecipe(new Recipe());
 
-    when(mockDataAccess.getRecipeById(recipeId)).thenReturn(recipe);
+    when(mockDataAccess.getRecipeGraphById(recipeId)).thenReturn(recipe);
 
     // Act: Call the service layer's getRecipeById method
     Recipe result = recipeService.getRecipeById(recipeId);
@@ -570,7 +613,7 @@ class RecipeServiceTest {
     assertNotNull(result);
     assertEquals(recipeId, result.getId());
     assertEquals("Existing Recipe", result.getName());
-    verify(mockDataAccess, times(1)).getRecipeById(recipeId);
+    verify(mockDataAccess, times(1)).getRecipeGraphById(recipeId);
   }
 
   @Test
@@ -585,8 +628,7 @@ class RecipeServiceTest {
     draftRecipe.setId(2L);
     recipe.setDraftRecipe(draftRecipe);
 
-    when(mockDataAccess.getRecipeById(recipeId)).thenReturn(recipe);
-    when(mockDataAccess.getRecipeById(draftRecipe.getId())).thenReturn(draftRecipe);
+    when(mockDataAccess.getRecipeGraphById(recipeId)).thenReturn(recipe);
 
     // Act: Call the service layer's getRecipeById method
     Recipe result = recipeService.getRecipeById(recipeId);
@@ -597,8 +639,98 @@ class RecipeServiceTest {
     assertEquals(recipeId, result.getId());
     assertEquals("Existing Recipe", result.getName());
     assertEquals(2L, result.getDraftRecipe().getId());
-    verify(mockDataAccess, times(1)).getRecipeById(recipeId);
-    verify(mockDataAccess, times(1)).getRecipeById(draftRecipe.getId());
+    // the draft comes with the recipe, no second load
+    verify(mockDataAccess, times(1)).getRecipeGraphById(recipeId);
+    verify(mockDataAccess, never()).getRecipeById(any());
+  }
+
+  @Test
+  void getRecipeById_published_servedFromCache() {
+    Recipe recipe = new Recipe();
+    recipe.setId(1L);
+    recipe.setName("Existing Recipe");
+    recipe.setStatus(ERecipeStatus.PUBLISHED);
+    when(mockDataAccess.getRecipeGraphById(1L)).thenReturn(recipe);
+
+    Recipe first = recipeService.getRecipeById(1L);
+    first.setName("Changed by caller");
+    Recipe second = recipeService.getRecipeById(1L);
+
+    assertEquals("Existing Recipe", second.getName());
+    verify(mockDataAccess, times(1)).getRecipeGraphById(1L);
+  }
+
+  @Test
+  void getRecipeById_draft_notCached() {
+    Recipe recipe = new Recipe();
+    recipe.setId(1L);
+    recipe.setStatus(ERecipeStatus.DRAFT);
+    when(mockDataAccess.getRecipeGraphById(1L)).thenReturn(recipe);
+
+    recipeService.getRecipeById(1L);
+    recipeService.getRecipeById(1L);
+
+    verify(mockDataAccess, times(2)).getRecipeGraphById(1L);
+  }
+
+  @Test
+  void updateRecipeRating_evictsCachedRecipe() {
+    Recipe recipe = new Recipe();
+    recipe.setId(1L);
+    recipe.setStatus(ERecipeStatus.PUBLISHED);
+    when(mockDataAccess.getRecipeGraphById(1L)).thenReturn(recipe);
+    when(mockDataAccess.updateRecipeRating(1L, 4.0)).thenReturn(true);
+
+    recipeService.getRecipeById(1L);
+    recipeService.updateRecipeRating(1L, 4.0);
+    recipeService.getRecipeById(1L);
+
+    verify(mockDataAccess, times(2)).getRecipeGraphById(1L);
+  }
+
+  @Test
+  void recomputeReviewAggregates_repaired_clearsCache() {
+    Recipe recipe = new Recipe();
+    recipe.setId(1L);
+    recipe.setStatus(ERecipeStatus.PUBLISHED);
+    when(mockDataAccess.getRecipeGraphById(1L)).thenReturn(recipe);
+    when(mockDataAccess.recomputeReviewAggregates()).thenReturn(2);
+
+    recipeService.getRecipeById(1L);
+    assertEquals(2, recipeService.recomputeReviewAggregates());
+    recipeService.getRecipeById(1L);
+
+    verify(mockDataAccess, times(2)).getRecipeGraphById(1L);
+  }
+
+  @Test
+  void recomputeReviewAggregates_appliesQueuedDeltasFirst() {
+    recipeRatingPipeline.enqueue(
+        List.of(
+            new ReviewAggregateDelta(
+                1L, null, 1, BigDecimal.valueOf(4.0), new int[] {0, 0, 0, 1, 0})));
+
+    recipeService.recomputeReviewAggregates();
+
+    InOrder inOrder = inOrder(mockDataAccess);
+    inOrder.verify(mockDataAccess).applyReviewAggregateDeltas(any());
+    inOrder.verify(mockDataAccess).recomputeReviewAggregates();
+    assertEquals(0, recipeRatingPipeline.getQueueDepth());
+  }
+
+  @Test
+  void deleteRecipeById_evictsCachedRecipe() {
+    Recipe recipe = new Recipe();
+    recipe.setId(1L);
+    recipe.setStatus(ERecipeStatus.PUBLISHED);
+    when(mockDataAccess.getRecipeGraphById(1L)).thenReturn(recipe);
+    when(mockDataAccess.getRecipeById(1L)).thenReturn(recipe);
+    when(mockDataAccess.deleteRecipeById(1L)).thenReturn(true);
+
+    recipeService.getRecipeById(1L);
+    recipeService.deleteRecipeById(1L);
+
+    assertEquals(0, recipeCache.size());
   }
 
   /**
@@ -614,8 +746,8 @@ class RecipeServiceTest {
     // Verify the exception message is correct
     assertEquals("Recipe ID cannot be null", exception.getMessage());
 
-    // Verify the data access layer's getRecipeById method was not called
-    verify(mockDataAccess, never()).getRecipeById(any());
+    // Verify the data access layer was not called
+    verify(mockDataAccess, never()).getRecipeGraphById(any());
   }
 
   /**
@@ -626,14 +758,14 @@ class RecipeServiceTest {
   void getRecipeById_NotFound() {
     // Arrange: Set the recipe ID and mock the data access layer to return null
     Long recipeId = 1L;
-    when(mockDataAccess.getRecipeById(recipeId)).thenReturn(null);
+    when(mockDataAccess.getRecipeGraphById(recipeId)).thenReturn(null);
 
     // Act: Call the service layer's getRecipeById method
     Recipe result = recipeService.getRecipeById(recipeId);
 
     // Assert: Verify the result is null and the data access layer was called once
     assertNull(result);
-    verify(mockDataAccess, times(1)).getRecipeById(recipeId);
+    verify(mockDataAccess, times(1)).getRecipeGraphById(recipeId);
   }
 
   /**
@@ -842,6 +974,277 @@ class RecipeServiceTest {
     verify(mockDataAccess, times(1)).getAllPublishedRecipesByRating(isDesc);
   }
 
+  @Test
+  void getRecipesBySimilarity_inModelOrder_onlyPublished() {
+    when(mockSimilarityModel.recommend(1L, RecipeSimilarityModel.MAX_RECOMMENDATIONS))
+        .thenReturn(new long[] {3L, 1L, 2L});
+    Recipe first = new Recipe();
+    first.setId(1L);
+    first.setStatus(ERecipeStatus.PUBLISHED);
+    Recipe archived = new Recipe();
+    archived.setId(2L);
+    archived.setStatus(ERecipeStatus.ARCHIVED);
+    Recipe third = new Recipe();
+    third.setId(3L);
+    third.setStatus(ERecipeStatus.PUBLISHED);
+    when(mockDataAccess.getRecipesByIds(List.of(3L, 1L, 2L)))
+        .thenReturn(List.of(first, archived, third));
+
+    List<Recipe> result = recipeService.getRecipesBySimilarity(1, true);
+
+    assertEquals(List.of(third, first), result);
+    verify(mockDataAccess, never()).getRecipeByCreatorId(anyInt());
+  }
+
+  @Test
+  void getRecipesBySimilarity_nothingRated_byUserReview() {
+    when(mockSimilarityModel.recommend(anyLong(), anyInt())).thenReturn(new long[0]);
+    when(mockDataAccess.getRecipeByCreatorId(1)).thenReturn(new ArrayList<>());
+    List<Recipe> byDifficulty = List.of(sampleRecipe);
+    when(mockDataAccess.getAllPublishedRecipesByDifficulty(true)).thenReturn(byDifficulty);
+
+    assertEquals(byDifficulty, recipeService.getRecipesBySimilarity(1, true));
+    verify(mockDataAccess, never()).getRecipesByIds(any());
+  }
+
+  @Test
+  void getRecipesByPantry_mostHeldFirst_onlyPublished() {
+    recipePantryIndex.update(1L, publishedWith(1L, "Egg", "Rice", "Flour"));
+    recipePantryIndex.update(2L, publishedWith(2L, "egg", "rice"));
+    recipePantryIndex.update(3L, publishedWith(3L, "Beef"));
+    when(mockIngredientService.getIngredientsByUser(1))
+        .thenReturn(List.of(pantryItem("egg"), pantryItem("Rice ")));
+    Recipe second = publishedWith(2L);
+    Recipe first = publishedWith(1L);
+    first.setStatus(ERecipeStatus.ARCHIVED);
+    when(mockDataAccess.getRecipesByIds(List.of(2L, 1L))).thenReturn(List.of(first, second));
+
+    assertEquals(List.of(second), recipeService.getRecipesByPantry(1, true));
+  }
+
+  @Test
+  void getRecipesByPantry_emptyPantry_byUserReview() {
+    when(mockIngredientService.getIngredientsByUser(1)).thenReturn(new ArrayList<>());
+    when(mockDataAccess.getRecipeByCreatorId(1)).thenReturn(new ArrayList<>());
+    List<Recipe> byDifficulty = List.of(sampleRecipe);
+    when(mockDataAccess.getAllPublishedRecipesByDifficulty(true)).thenReturn(byDifficulty);
+
+    assertEquals(byDifficulty, recipeService.getRecipesByPantry(1, true));
+    verify(mockDataAccess, never()).getRecipesByIds(any());
+  }
+
+  @Test
+  void getRecipesByUserReviewBounded_ownTopByRating_thenByDifficulty() {
+    when(mockDataAccess.getRecipeRatingsByCreatorId(1))
+        .thenReturn(
+            List.of(new RecipeScore(4L, 3.0), new RecipeScore(5L, 4.5), new RecipeScore(6L, 1.0)));
+    // ranked up to the cached size, then cut to the limit
+    when(mockDataAccess.getPublishedRecipeSummariesByDifficultyPage(
+            eq(true), anyInt(), anyLong(), eq(100)))
+        .thenReturn(
+            List.of(
+                new RecipeSummary(5L, "Recipe 5", null, 4.5, 3, 10, null),
+                new RecipeSummary(8L, "Recipe 8", null, 2.0, 2, 10, null),
+                new RecipeSummary(9L, "Recipe 9", null, 2.0, 1, 10, null)));
+    when(mockDataAccess.getRecipesByIds(List.of(5L, 4L, 6L, 8L, 9L)))
+        .thenReturn(
+            List.of(
+                publishedWith(8L),
+                publishedWith(4L),
+                publishedWith(9L),
+                publishedWith(6L),
+                publishedWith(5L)));
+
+    List<Recipe> result = recipeService.getRecipesByUserReview(1, true, 4);
+
+    assertEquals(List.of(5L, 4L, 6L, 8L), result.stream().map(Recipe::getId).toList());
+    verify(mockDataAccess, never()).getRecipeByCreatorId(anyInt());
+    verify(mockDataAccess, never()).getAllPublishedRecipesByDifficulty(anyBoolean());
+  }
+
+  @Test
+  void getRecipesByUserReviewBounded_ownFillRankedSize_onlyWinnersLoaded() {
+    List<RecipeScore> ownRecipes = new ArrayList<>();
+    for (long id = 1; id <= 150; id++) {
+      ownRecipes.add(new RecipeScore(id, id % 7));
+    }
+    when(mockDataAccess.getRecipeRatingsByCreatorId(1)).thenReturn(ownRecipes);
+    whenRecipesByIdsPublished();
+
+    List<Recipe> result = recipeService.getRecipesByUserReview(1, false, 2);
+
+    assertEquals(List.of(6L, 13L), result.stream().map(Recipe::getId).toList());
+    verify(mockDataAccess, times(1)).getRecipesByIds(argThat(ids -> ids.size() == 100));
+    verify(mockDataAccess, never())
+        .getPublishedRecipeSummariesByDifficultyPage(anyBoolean(), anyInt(), anyLong(), anyInt());
+  }
+
+  @Test
+  void getRecipesByUserReviewBounded_invalidLimit() {
+    assertThrows(
+        IllegalArgumentException.class, () -> recipeService.getRecipesByUserReview(1, true, 0));
+    verify(mockDataAccess, never()).getRecipeRatingsByCreatorId(anyInt());
+  }
+
+  @Test
+  void getRecipesBySimilarityBounded_modelAskedForRankedSize() {
+    when(mockSimilarityModel.recommend(1L, 100)).thenReturn(new long[] {3L, 1L, 4L});
+    when(mockDataAccess.getRecipesByIds(List.of(3L, 1L, 4L)))
+        .thenReturn(List.of(publishedWith(1L), publishedWith(4L), publishedWith(3L)));
+
+    List<Recipe> result = recipeService.getRecipesBySimilarity(1, true, 2);
+
+    assertEquals(List.of(3L, 1L), result.stream().map(Recipe::getId).toList());
+  }
+
+  @Test
+  void getRecipesBySimilarityBounded_pagesShareOneRanking() {
+    long[] ranked = new long[150];
+    for (int i = 0; i < ranked.length; i++) {
+      ranked[i] = i + 1;
+    }
+    when(mockSimilarityModel.recommend(eq(1L), anyInt())).thenReturn(ranked);
+    whenRecipesByIdsPublished();
+
+    // the pages ask one recipe past them, 21, 41, 61...
+    assertEquals(21, recipeService.getRecipesBySimilarity(1, true, 21).size());
+    assertEquals(41, recipeService.getRecipesBySimilarity(1, true, 41).size());
+    List<Recipe> deep = recipeService.getRecipesBySimilarity(1, true, 101);
+
+    assertEquals(101, deep.size());
+    assertEquals(101L, deep.getLast().getId());
+    verify(mockSimilarityModel, times(1)).recommend(1L, 100);
+    verify(mockSimilarityModel, times(1)).recommend(1L, 200);
+  }
+
+  @Test
+  void getRecipesByPantryBounded_emptyPantry_byUserReviewBounded() {
+    when(mockIngredientService.getIngredientsByUser(1)).thenReturn(new ArrayList<>());
+    when(mockDataAccess.getRecipeRatingsByCreatorId(1)).thenReturn(new ArrayList<>());
+    when(mockDataAccess.getPublishedRecipeSummariesByDifficultyPage(
+            eq(true), anyInt(), anyLong(), eq(100)))
+        .thenReturn(List.of(new RecipeSummary(9L, "Recipe 9", null, 2.0, 1, 10, null)));
+    when(mockDataAccess.getRecipesByIds(List.of(9L))).thenReturn(List.of(publishedWith(9L)));
+
+    List<Recipe> result = recipeService.getRecipesByPantry(1, true, 1);
+
+    assertEquals(List.of(9L), result.stream().map(Recipe::getId).toList());
+    verify(mockDataAccess, never()).getAllPublishedRecipesByDifficulty(anyBoolean());
+  }
+
+  @Test
+  void getRecipesByDifficulty_computedOnceForEveryUser() {
+    when(mockDataAccess.getAllPublishedRecipesByDifficulty(true))
+        .thenReturn(List.of(publishedWith(2L), publishedWith(1L)));
+    when(mockDataAccess.getRecipeByCreatorId(anyInt())).thenReturn(new ArrayList<>());
+
+    recipeService.getRecipesByDifficulty(true);
+    recipeService.getRecipesByUserReview(1, true);
+    List<Recipe> result = recipeService.getRecipesByUserReview(2, true);
+
+    assertEquals(List.of(2L, 1L), result.stream().map(Recipe::getId).toList());
+    verify(mockDataAccess, times(1)).getAllPublishedRecipesByDifficulty(true);
+  }
+
+  @Test
+  void deleteRecipeById_recommendationsRecomputed() {
+    when(mockDataAccess.getAllPublishedRecipesByRating(true))
+        .thenReturn(List.of(publishedWith(1L), publishedWith(2L)))
+        .thenReturn(List.of(publishedWith(2L)));
+    recipeService.getRecipesByRating(true);
+    when(mockDataAccess.getRecipeById(1L)).thenReturn(sampleRecipe);
+    when(mockDataAccess.deleteRecipeById(1L)).thenReturn(true);
+
+    recipeService.deleteRecipeById(1L);
+
+    assertEquals(
+        List.of(2L), recipeService.getRecipesByRating(true).stream().map(Recipe::getId).toList());
+    verify(mockDataAccess, times(2)).getAllPublishedRecipesByRating(true);
+  }
+
+  @Test
+  void getRecipesByUserReviewBounded_cachedApartFromFullRanking_sameOrderWarmOrCold() {
+    Recipe first = publishedWith(7L);
+    first.setRating(4.0);
+    Recipe second = publishedWith(3L);
+    second.setRating(4.0);
+    when(mockDataAccess.getRecipeByCreatorId(1))
+        .thenReturn(new ArrayList<>(List.of(first, second)));
+    when(mockDataAccess.getAllPublishedRecipesByDifficulty(true)).thenReturn(new ArrayList<>());
+    when(mockDataAccess.getRecipeRatingsByCreatorId(1))
+        .thenReturn(List.of(new RecipeScore(7L, 4.0), new RecipeScore(3L, 4.0)));
+    when(mockDataAccess.getRecipesByIds(List.of(3L, 7L)))
+        .thenReturn(List.of(publishedWith(7L), publishedWith(3L)));
+
+    // the full ranking keeps equal ratings in list order, the bounded one puts the lower id first
+    List<Recipe> full = recipeService.getRecipesByUserReview(1, true);
+    List<Recipe> computed = recipeService.getRecipesByUserReview(1, true, 2);
+    List<Recipe> cached = recipeService.getRecipesByUserReview(1, true, 2);
+
+    assertEquals(List.of(7L, 3L), full.stream().map(Recipe::getId).toList());
+    assertEquals(List.of(3L, 7L), computed.stream().map(Recipe::getId).toList());
+    assertEquals(List.of(3L, 7L), cached.stream().map(Recipe::getId).toList());
+    verify(mockDataAccess, times(1)).getRecipeRatingsByCreatorId(1);
+  }
+
+  @Test
+  void addRecipe_published_indexedForPantry() {
+    Recipe recipe = publishedWith(null, "Egg");
+    when(mockRecipeContext.addRecipe(recipe))
+        .thenAnswer(
+            invocation -> {
+              recipe.setId(5L);
+              return recipe;
+            });
+    when(mockDataAccess.getRecipeById(5L)).thenReturn(publishedWith(5L, "Egg"));
+
+    recipeService.addRecipe(recipe);
+
+    assertArrayEquals(new long[] {5L}, recipePantryIndex.recommend(List.of(pantryItem("egg")), 10));
+  }
+
+  @Test
+  void deleteRecipeById_removedFromPantryIndex() {
+    recipePantryIndex.update(1L, publishedWith(1L, "Egg"));
+    when(mockDataAccess.getRecipeById(1L)).thenReturn(sampleRecipe);
+    when(mockDataAccess.deleteRecipeById(1L)).thenReturn(true);
+
+    recipeService.deleteRecipeById(1L);
+
+    assertEquals(0, recipePantryIndex.getRecipeCount());
+  }
+
+  // every recipe asked for, published
+  @SuppressWarnings("unchecked")
+  private void whenRecipesByIdsPublished() {
+    when(mockDataAccess.getRecipesByIds(any()))
+        .thenAnswer(
+            invocation ->
+                ((Collection<Long>) invocation.getArgument(0))
+                    .stream().map(id -> publishedWith(id)).toList());
+  }
+
+  private Recipe publishedWith(Long id, String... ingredients) {
+    Recipe recipe = new Recipe();
+    recipe.setId(id);
+    recipe.setName("Recipe " + id);
+    recipe.setCookingTimeInMin(10);
+    recipe.setDifficultyLevel(1);
+    recipe.setStatus(ERecipeStatus.PUBLISHED);
+    List<RecipeIngredient> list = new ArrayList<>();
+    for (String name : ingredients) {
+      list.add(RecipeIngredient.builder().recipeId(id).name(name).build());
+    }
+    recipe.setIngredients(list);
+    return recipe;
+  }
+
+  private UserIngredient pantryItem(String name) {
+    UserIngredient ingredient = new UserIngredient();
+    ingredient.setName(name);
+    return ingredient;
+  }
+
   @Test
   void getRecipesByUserReview_nullRecipeList() {
     int userId = 1;
@@ -1011,4 +1414,206 @@ class RecipeServiceTest {
     assertFalse(result);
     verify(mockDataAccess, times(1)).updateRecipeRating(recipeId, rating);
   }
+
+  private List<Recipe> recipesWithIds(long... ids) {
+    List<Recipe> recipes = new ArrayList<>();
+    for (long id : ids) {
+      Recipe recipe = new Recipe();
+      recipe.setId(id);
+      recipe.setDifficultyLevel((int) id);
+      recipe.setRating(null);
+      recipes.add(recipe);
+    }
+    return recipes;
+  }
+
+  @Test
+  void getAllPublishedRecipesPage_firstPage_hasNextCursor() {
+    // Arrange: one row more than the page size means there is a next page
+    when(mockDataAccess.getPublishedRecipesPage(0, 3)).thenReturn(recipesWithIds(1, 2, 3));
+
+    // Act
+    RecipePage page = recipeService.getAllPublishedRecipes(null, 2);
+
+    // Assert
+    assertEquals(2, page.getRecipes().size());
+    assertEquals(2L, page.getRecipes().getLast().getId());
+    assertNotNull(page.getNextCursor());
+
+    // Act: follow the cursor
+    when(mockDataAccess.getPublishedRecipesPage(2, 3)).thenReturn(recipesWithIds(3));
+    RecipePage nextPage = recipeService.getAllPublishedRecipes(page.getNextCursor(), 2);
+
+    // Assert: last page has no cursor
+    assertEquals(1, nextPage.getRecipes().size());
+    assertNull(nextPage.getNextCursor());
+    verify(mockDataAccess, times(1)).getPublishedRecipesPage(2, 3);
+  }
+
+  @Test
+  void getAllPublishedRecipesPage_limitCapped() {
+    when(mockDataAccess.getPublishedRecipesPage(0, RecipePage.MAX_PAGE_SIZE + 1))
+        .thenReturn(new ArrayList<>());
+
+    RecipePage page = recipeService.getAllPublishedRecipes(null, 10_000);
+
+    assertTrue(page.getRecipes().isEmpty());
+    assertNull(page.getNextCursor());
+    verify(mockDataAccess, times(1)).getPublishedRecipesPage(0, RecipePage.MAX_PAGE_SIZE + 1);
+  }
+
+  @Test
+  void getRecipeSummariesByRating_cursorSharedWithFullView() {
+    // Arrange: the full view issues the cursor after recipe 2, whose rating is null (key 0.0)
+    List<Recipe> rows = recipesWithIds(1, 2, 3);
+    when(mockDataAccess.getPublishedRecipesByRatingPage(true, Double.MAX_VALUE, Long.MAX_VALUE, 3))
+        .thenReturn(rows);
+    String cursor = recipeService.getRecipesByRating(true, null, 2).getNextCursor();
+    when(mockDataAccess.getPublishedRecipeSummariesByRatingPage(true, 0.0, 2L, 3))
+        .thenReturn(List.of(RecipeSummary.of(rows.getLast())));
+
+    // Act: continue in the summary view
+    RecipeSummaryPage page = recipeService.getRecipeSummariesByRating(true, cursor, 2);
+
+    // Assert
+    assertEquals(1, page.getRecipes().size());
+    assertEquals(3L, page.getRecipes().getFirst().getId());
+    assertNull(page.getNextCursor());
+  }
+
+  @Test
+  void getPublishedRecipeSummaries_hasNextCursor_limitCapped() {
+    List<RecipeSummary> rows = new ArrayList<>();
+    for (long id = 1; id <= RecipePage.MAX_PAGE_SIZE + 1; id++) {
+      rows.add(new RecipeSummary(id, "Recipe " + id, null, null, 1, 10, null));
+    }
+    when(mockDataAccess.getPublishedRecipeSummariesPage(0, RecipePage.MAX_PAGE_SIZE + 1))
+        .thenReturn(rows);
+
+    RecipeSummaryPage page = recipeService.getPublishedRecipeSummaries(null, 10_000);
+
+    assertEquals(RecipePage.MAX_PAGE_SIZE, page.getRecipes().size());
+    assertNotNull(page.getNextCursor());
+    // the summary cursor continues the full view of the same listing
+    when(mockDataAccess.getPublishedRecipesPage(RecipePage.MAX_PAGE_SIZE, 3))
+        .thenReturn(new ArrayList<>());
+    recipeService.getAllPublishedRecipes(page.getNextCursor(), 2);
+    verify(mockDataAccess, times(1)).getPublishedRecipesPage(RecipePage.MAX_PAGE_SIZE, 3);
+  }
+
+  @Test
+  void getRecipeSummariesByRating_cursorOfOtherListing_rejected() {
+    when(mockDataAccess.getPublishedRecipeSummariesPage(0, 2))
+        .thenReturn(
+            List.of(
+                new RecipeSummary(1L, "Recipe 1", null, 4.0, 1, 10, null),
+                new RecipeSummary(2L, "Recipe 2", null, 3.0, 1, 10, null)));
+    String cursor = recipeService.getPublishedRecipeSummaries(null, 1).getNextCursor();
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> recipeService.getRecipeSummariesByRating(true, cursor, 5));
+  }
+
+  @Test
+  void searchRecipes_trimsQueryAndCapsLimit() {
+    when(mockDataAccess.searchPublishedRecipes("pasta", RecipePage.MAX_PAGE_SIZE))
+        .thenReturn(recipesWithIds(4, 2));
+
+    List<Recipe> recipes = recipeService.searchRecipes("  pasta ", 10_000);
+
+    assertEquals(List.of(4L, 2L), recipes.stream().map(Recipe::getId).toList());
+    verify(mockDataAccess, times(1)).searchPublishedRecipes("pasta", RecipePage.MAX_PAGE_SIZE);
+  }
+
+  @Test
+  void searchRecipes_invalidInput() {
+    assertThrows(IllegalArgumentException.class, () -> recipeService.searchRecipes(" ", 10));
+    assertThrows(IllegalArgumentException.class, () -> recipeService.searchRecipes(null, 10));
+    assertThrows(IllegalArgumentException.class, () -> recipeService.searchRecipes("pasta", 0));
+    verify(mockDataAccess, never()).searchPublishedRecipes(anyString(), anyInt());
+  }
+
+  @Test
+  void getAllPublishedRecipesPage_invalidLimit() {
+    assertThrows(
+        IllegalArgumentException.class, () -> recipeService.getAllPublishedRecipes(null, 0));
+  }
+
+  @Test
+  void getAllPublishedRecipesPage_cursorFromOtherListing() {
+    when(mockDataAccess.getRecipesByCreatorIdPage(1, 0, 2)).thenReturn(recipesWithIds(1, 2));
+    String creatorCursor = recipeService.getRecipesByCreatorId(1, null, 1).getNextCursor();
+
+    assertNotNull(creatorCursor);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> recipeService.getAllPublishedRecipes(creatorCursor, 1));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> recipeService.getAllPublishedRecipes("not-a-cursor", 1));
+  }
+
+  @Test
+  void getAllRecipesPage_attachesDraftRecipes() {
+    List<Recipe> rows = recipesWithIds(1, 2);
+    Recipe draftStub = new Recipe();
+    draftStub.setId(5L);
+    rows.getFirst().setDraftRecipe(draftStub);
+    when(mockDataAccess.getRecipesPage(0, 3)).thenReturn(rows);
+    Recipe draft = recipesWithIds(5).getFirst();
+    draft.setName("draft");
+    when(mockDataAccess.getRecipesByIds(List.of(5L))).thenReturn(List.of(draft));
+
+    RecipePage page = recipeService.getAllRecipes(null, 2);
+
+    assertEquals(2, page.getRecipes().size());
+    assertNull(page.getNextCursor());
+    assertEquals("draft", page.getRecipes().getFirst().getDraftRecipe().getName());
+    assertNull(page.getRecipes().get(1).getDraftRecipe());
+  }
+
+  @Test
+  void getRecipesByDifficultyPage_descending_usesSortKeyFromCursor() {
+    when(mockDataAccess.getPublishedRecipesByDifficultyPage(
+            true, Integer.MAX_VALUE, Long.MAX_VALUE, 2))
+        .thenReturn(recipesWithIds(4, 3));
+
+    RecipePage page = recipeService.getRecipesByDifficulty(true, null, 1);
+    assertEquals(1, page.getRecipes().size());
+
+    when(mockDataAccess.getPublishedRecipesByDifficultyPage(true, 4, 4L, 2))
+        .thenReturn(recipesWithIds(3));
+    RecipePage nextPage = recipeService.getRecipesByDifficulty(true, page.getNextCursor(), 1);
+
+    assertEquals(3L, nextPage.getRecipes().getFirst().getId());
+    assertNull(nextPage.getNextCursor());
+    // a descending cursor is not valid for the ascending ordering
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> recipeService.getRecipesByDifficulty(false, page.getNextCursor(), 1));
+  }
+
+  @Test
+  void getRecipesByRatingPage_nullRatingTreatedAsZero() {
+    when(mockDataAccess.getPublishedRecipesByRatingPage(
+            eq(false), eq(-Double.MAX_VALUE), eq(Long.MIN_VALUE), eq(2)))
+        .thenReturn(recipesWithIds(1, 2));
+
+    RecipePage page = recipeService.getRecipesByRating(false, null, 1);
+
+    when(mockDataAccess.getPublishedRecipesByRatingPage(false, 0.0, 1L, 2))
+        .thenReturn(recipesWithIds(2));
+    RecipePage nextPage = recipeService.getRecipesByRating(false, page.getNextCursor(), 1);
+    assertEquals(2L, nextPage.getRecipes().getFirst().getId());
+  }
+
+  @Test
+  void exportPublishedRecipes_delegatesToStream() {
+    Consumer<Recipe> consumer = recipe -> {};
+
+    recipeService.exportPublishedRecipes(consumer);
+
+    verify(mockDataAccess, times(1)).streamAllPublishedRecipes(consumer);
+  }
 }
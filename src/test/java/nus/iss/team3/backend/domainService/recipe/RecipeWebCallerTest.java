@@ -3,6 +3,7 @@ package nus.iss.team3.backend.domainService.recipe;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.any;
@@ -10,12 +11,17 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import nus.iss.team3.backend.domainService.webservice.IWebserviceCaller;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
 import nus.iss.team3.backend.entity.RecipeReview;
+import nus.iss.team3.backend.entity.RecipeSummary;
+import nus.iss.team3.backend.entity.RecipeSummaryPage;
 import nus.iss.team3.backend.entity.RecipeWithReviews;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -457,4 +463,152 @@ public class RecipeWebCallerTest {
 
     assertFalse(actualRecipes);
   }
+
+  @Test
+  public void recomputeReviewAggregates_Success() {
+    String url = getUrl("/recipe/rating/recompute");
+    when(webServiceCaller.postCall(eq(url), isNull(), eq(Integer.class)))
+        .thenReturn(new ResponseEntity<>(4, HttpStatus.OK));
+
+    assertEquals(4, recipeWebCaller.recomputeReviewAggregates());
+  }
+
+  @Test
+  public void recomputeReviewAggregates_Failure() {
+    String url = getUrl("/recipe/rating/recompute");
+    when(webServiceCaller.postCall(eq(url), isNull(), eq(Integer.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+    assertEquals(-1, recipeWebCaller.recomputeReviewAggregates());
+  }
+
+  @Test
+  public void testGetAllPublishedRecipesPage_Success() {
+    String url = getUrl("/recipe/published?limit=10&cursor=abc");
+    RecipePage page = new RecipePage(List.of(new Recipe()), "next");
+    when(webServiceCaller.getCall(url, RecipePage.class))
+        .thenReturn(new ResponseEntity<>(page, HttpStatus.OK));
+
+    RecipePage result = recipeWebCaller.getAllPublishedRecipes("abc", 10);
+
+    assertEquals("next", result.getNextCursor());
+    assertEquals(1, result.getRecipes().size());
+  }
+
+  @Test
+  public void testGetRecipesByRatingPage_FirstPage() {
+    String url = getUrl("/recipe/recommend?isDesc=true&isByRating=true&limit=5");
+    when(webServiceCaller.getCall(url, RecipePage.class))
+        .thenReturn(new ResponseEntity<>(new RecipePage(List.of(), null), HttpStatus.OK));
+
+    RecipePage result = recipeWebCaller.getRecipesByRating(true, null, 5);
+
+    assertTrue(result.getRecipes().isEmpty());
+    verify(webServiceCaller, times(1)).getCall(url, RecipePage.class);
+  }
+
+  @Test
+  public void testGetRecipesByCreatorIdPage_Failure() {
+    String url = getUrl("/recipe/creator/3?limit=5");
+    when(webServiceCaller.getCall(url, RecipePage.class))
+        .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+    RecipePage result = recipeWebCaller.getRecipesByCreatorId(3, null, 5);
+
+    assertTrue(result.getRecipes().isEmpty());
+    assertNull(result.getNextCursor());
+  }
+
+  @Test
+  public void testGetRecipesBySimilarityBounded_FirstPage() {
+    String url = getUrl("/recipe/recommend?isBySimilarity=true&isDesc=true&userId=4&limit=3");
+    RecipePage page = new RecipePage(List.of(new Recipe(), new Recipe()), "next");
+    when(webServiceCaller.getCall(url, RecipePage.class))
+        .thenReturn(new ResponseEntity<>(page, HttpStatus.OK));
+
+    List<Recipe> result = recipeWebCaller.getRecipesBySimilarity(4, true, 3);
+
+    assertEquals(2, result.size());
+    verify(webServiceCaller, times(1)).getCall(url, RecipePage.class);
+  }
+
+  @Test
+  public void testGetRecipesByUserReviewBounded_Failure() {
+    String url = getUrl("/recipe/recommend?isDesc=false&userId=4&limit=3");
+    when(webServiceCaller.getCall(url, RecipePage.class))
+        .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+    assertTrue(recipeWebCaller.getRecipesByUserReview(4, false, 3).isEmpty());
+  }
+
+  @Test
+  public void testGetRecipeSummariesByDifficulty_Success() {
+    String url = getUrl("/recipe/recommend?isDesc=false&isByRating=false&limit=5&view=summary");
+    RecipeSummaryPage page = new RecipeSummaryPage(List.of(new RecipeSummary()), "next");
+    when(webServiceCaller.getCall(url, RecipeSummaryPage.class))
+        .thenReturn(new ResponseEntity<>(page, HttpStatus.OK));
+
+    RecipeSummaryPage result = recipeWebCaller.getRecipeSummariesByDifficulty(false, null, 5);
+
+    assertEquals("next", result.getNextCursor());
+    assertEquals(1, result.getRecipes().size());
+  }
+
+  @Test
+  public void testGetPublishedRecipeSummaries_Failure() {
+    String url = getUrl("/recipe/published?limit=5&cursor=abc&view=summary");
+    when(webServiceCaller.getCall(url, RecipeSummaryPage.class))
+        .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+    RecipeSummaryPage result = recipeWebCaller.getPublishedRecipeSummaries("abc", 5);
+
+    assertTrue(result.getRecipes().isEmpty());
+    assertNull(result.getNextCursor());
+  }
+
+  @Test
+  public void testSearchRecipes_Success() {
+    URI url = URI.create(getUrl("/recipe/search?q=mac%20%26%20cheese%20%2B%20ham%231&limit=5"));
+    List<Recipe> recipes = List.of(new Recipe());
+    when(webServiceCaller.getCall(eq(url), any(ParameterizedTypeReference.class)))
+        .thenReturn(new ResponseEntity<>(recipes, HttpStatus.OK));
+
+    List<Recipe> result = recipeWebCaller.searchRecipes("mac & cheese + ham#1", 5);
+
+    assertEquals(recipes, result);
+    verify(webServiceCaller, times(1)).getCall(eq(url), any(ParameterizedTypeReference.class));
+  }
+
+  @Test
+  public void testSearchRecipes_Failure() {
+    when(webServiceCaller.getCall(any(URI.class), any(ParameterizedTypeReference.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+    assertTrue(recipeWebCaller.searchRecipes("pasta", 5).isEmpty());
+  }
+
+  @Test
+  public void testExportPublishedRecipes_WalksAllPages() {
+    Recipe first = new Recipe();
+    Recipe second = new Recipe();
+    when(webServiceCaller.getCall(getUrl("/recipe/published?limit=100"), RecipePage.class))
+        .thenReturn(new ResponseEntity<>(new RecipePage(List.of(first), "c1"), HttpStatus.OK));
+    when(webServiceCaller.getCall(
+            getUrl("/recipe/published?limit=100&cursor=c1"), RecipePage.class))
+        .thenReturn(new ResponseEntity<>(new RecipePage(List.of(second), null), HttpStatus.OK));
+
+    List<Recipe> exported = new ArrayList<>();
+    recipeWebCaller.exportPublishedRecipes(exported::add);
+
+    assertEquals(List.of(first, second), exported);
+  }
+
+  @Test
+  public void testExportPublishedRecipes_Failure() {
+    when(webServiceCaller.getCall(getUrl("/recipe/published?limit=100"), RecipePage.class))
+        .thenReturn(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+
+    assertThrows(
+        IllegalStateException.class, () -> recipeWebCaller.exportPublishedRecipes(recipe -> {}));
+  }
 }
@@ -0,0 +1,134 @@
+package nus.iss.team3.backend.domainService.recipe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import nus.iss.team3.backend.entity.ERecipeStatus;
+import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipeIngredient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestRecipeCache {
+
+  private SimpleMeterRegistry meterRegistry;
+  private RecipeCache recipeCache;
+  private AtomicInteger loads;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    recipeCache = new RecipeCache(meterRegistry, 2);
+    loads = new AtomicInteger();
+  }
+
+  @Test
+  public void get_hitReturnsCopy_andCountsHitsAndMisses() {
+    Recipe loaded = recipe(1L, ERecipeStatus.PUBLISHED);
+    loaded.setIngredients(List.of(new RecipeIngredient(5L, 1L, "Sugar", 1.0, "g")));
+    loaded.setReviewCount(2);
+    loaded.setRatingHistogram(List.of(0, 0, 0, 1, 1));
+
+    recipeCache.get(1L, loader(loaded));
+    Recipe first = recipeCache.get(1L, loader(loaded));
+    Recipe second = recipeCache.get(1L, loader(loaded));
+
+    assertEquals(1, loads.get());
+    assertEquals(loaded, first);
+    assertNotSame(first, second);
+    assertNotSame(first.getIngredients().getFirst(), second.getIngredients().getFirst());
+    assertNotSame(first.getRatingHistogram(), second.getRatingHistogram());
+    assertEquals(2.0, requests("hit"));
+    assertEquals(1.0, requests("miss"));
+  }
+
+  @Test
+  public void get_missingOrDraft_notCached() {
+    recipeCache.get(1L, loader(null));
+    recipeCache.get(1L, loader(null));
+    recipeCache.get(2L, loader(recipe(2L, ERecipeStatus.DRAFT)));
+    recipeCache.get(2L, loader(recipe(2L, ERecipeStatus.DRAFT)));
+
+    assertEquals(4, loads.get());
+    assertEquals(0, recipeCache.size());
+  }
+
+  @Test
+  public void get_full_evictsLeastRecentlyUsed() {
+    recipeCache.get(1L, loader(recipe(1L, ERecipeStatus.PUBLISHED)));
+    recipeCache.get(2L, loader(recipe(2L, ERecipeStatus.PUBLISHED)));
+    recipeCache.get(1L, loader(recipe(1L, ERecipeStatus.PUBLISHED)));
+    recipeCache.get(3L, loader(recipe(3L, ERecipeStatus.PUBLISHED)));
+
+    loads.set(0);
+    recipeCache.get(1L, loader(recipe(1L, ERecipeStatus.PUBLISHED)));
+    recipeCache.get(2L, loader(recipe(2L, ERecipeStatus.PUBLISHED)));
+
+    assertEquals(1, loads.get());
+    assertEquals(2, recipeCache.size());
+    assertEquals(2.0, meterRegistry.get(RecipeCache.METRIC_EVICTIONS).counter().count());
+  }
+
+  @Test
+  public void evict_draftId_evictsMainRecipe() {
+    Recipe main = recipe(1L, ERecipeStatus.PUBLISHED);
+    main.setDraftRecipe(recipe(9L, ERecipeStatus.DRAFT));
+    recipeCache.get(1L, loader(main));
+
+    recipeCache.evict(9L);
+
+    assertEquals(0, recipeCache.size());
+  }
+
+  @Test
+  public void get_evictedWhileLoading_notCached() {
+    Recipe loaded = recipe(1L, ERecipeStatus.PUBLISHED);
+
+    recipeCache.get(
+        1L,
+        id -> {
+          // a write of the recipe lands while the old rows are being read
+          recipeCache.evict(id);
+          return loaded;
+        });
+
+    assertEquals(0, recipeCache.size());
+  }
+
+  @Test
+  public void evict_nullId_ignored() {
+    recipeCache.evict(null);
+    assertNull(recipeCache.get(1L, loader(null)));
+  }
+
+  @Test
+  public void constructor_invalidSize() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new RecipeCache(new SimpleMeterRegistry(), 0));
+  }
+
+  private Function<Long, Recipe> loader(Recipe recipe) {
+    return id -> {
+      loads.incrementAndGet();
+      return recipe;
+    };
+  }
+
+  private double requests(String result) {
+    return meterRegistry.get(RecipeCache.METRIC_REQUESTS).tag("result", result).counter().count();
+  }
+
+  private Recipe recipe(Long id, ERecipeStatus status) {
+    Recipe recipe = new Recipe();
+    recipe.setId(id);
+    recipe.setName("Recipe " + id);
+    recipe.setStatus(status);
+    return recipe;
+  }
+}
@@ -0,0 +1,212 @@
+package nus.iss.team3.backend.domainService.recipe;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import nus.iss.team3.backend.dataaccess.IRecipeDataAccess;
+import nus.iss.team3.backend.entity.ERecipeStatus;
+import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipeIngredient;
+import nus.iss.team3.backend.entity.UserIngredient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestRecipePantryIndex {
+
+  private static final LocalDate TODAY = LocalDate.of(2024, 10, 1);
+
+  private IRecipeDataAccess recipeDataAccess;
+  private RecipePantryIndex index;
+
+  @BeforeEach
+  public void setUp() {
+    recipeDataAccess = mock(IRecipeDataAccess.class);
+    index = new RecipePantryIndex(recipeDataAccess);
+  }
+
+  @Test
+  public void recommend_mostHeldFirst() {
+    index.update(1L, recipe(1L, ERecipeStatus.PUBLISHED, "egg"));
+    index.update(2L, recipe(2L, ERecipeStatus.PUBLISHED, "egg", "rice", "soy sauce"));
+    index.update(3L, recipe(3L, ERecipeStatus.PUBLISHED, "beef"));
+
+    long[] ranked = index.recommend(List.of(item("Egg", null), item("  RICE ", null)), TODAY, 10);
+
+    assertArrayEquals(new long[] {2L, 1L}, ranked);
+  }
+
+  @Test
+  public void recommend_expiringSoon_weighsMore() {
+    index.update(1L, recipe(1L, ERecipeStatus.PUBLISHED, "egg"));
+    index.update(2L, recipe(2L, ERecipeStatus.PUBLISHED, "milk"));
+
+    long[] ranked =
+        index.recommend(
+            List.of(item("egg", TODAY.plusDays(30)), item("milk", TODAY.plusDays(1))), TODAY, 10);
+
+    assertArrayEquals(new long[] {2L, 1L}, ranked);
+  }
+
+  @Test
+  public void recommend_expiredLeftOut() {
+    index.update(1L, recipe(1L, ERecipeStatus.PUBLISHED, "egg"));
+    index.update(2L, recipe(2L, ERecipeStatus.PUBLISHED, "milk"));
+
+    long[] ranked =
+        index.recommend(List.of(item("egg", TODAY.minusDays(1)), item("milk", TODAY)), TODAY, 10);
+
+    assertArrayEquals(new long[] {2L}, ranked);
+  }
+
+  @Test
+  public void recommend_sameHeld_fewerMissingFirst() {
+    index.update(1L, recipe(1L, ERecipeStatus.PUBLISHED, "egg", "flour", "sugar"));
+    index.update(2L, recipe(2L, ERecipeStatus.PUBLISHED, "egg", "flour"));
+
+    long[] ranked = index.recommend(List.of(item("egg", null), item("flour", null)), TODAY, 10);
+
+    assertArrayEquals(new long[] {2L, 1L}, ranked);
+  }
+
+  @Test
+  public void recommend_limited() {
+    for (long id = 1; id <= 5; id++) {
+      index.update(id, recipe(id, ERecipeStatus.PUBLISHED, "egg"));
+    }
+
+    assertArrayEquals(new long[] {1L, 2L}, index.recommend(List.of(item("egg", null)), TODAY, 2));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> index.recommend(List.of(item("egg", null)), TODAY, 0));
+  }
+
+  @Test
+  public void recommend_emptyPantry_nothing() {
+    index.update(1L, recipe(1L, ERecipeStatus.PUBLISHED, "egg"));
+
+    assertEquals(0, index.recommend(List.of(), TODAY, 10).length);
+    assertEquals(0, index.recommend(null, TODAY, 10).length);
+  }
+
+  @Test
+  public void update_unpublishedOrDeleted_removed() {
+    index.update(1L, recipe(1L, ERecipeStatus.PUBLISHED, "egg"));
+    index.update(2L, recipe(2L, ERecipeStatus.PUBLISHED, "egg"));
+
+    index.update(1L, recipe(1L, ERecipeStatus.ARCHIVED, "egg"));
+    index.remove(2L);
+
+    assertEquals(0, index.getRecipeCount());
+    assertEquals(0, index.recommend(List.of(item("egg", null)), TODAY, 10).length);
+  }
+
+  @Test
+  public void update_changedIngredients_reindexed() {
+    index.update(1L, recipe(1L, ERecipeStatus.PUBLISHED, "egg"));
+    index.update(1L, recipe(1L, ERecipeStatus.PUBLISHED, "milk"));
+    // the freed slot is taken by the next recipe
+    index.remove(1L);
+    index.update(2L, recipe(2L, ERecipeStatus.PUBLISHED, "egg"));
+
+    assertEquals(1, index.getRecipeCount());
+    assertEquals(0, index.recommend(List.of(item("milk", null)), TODAY, 10).length);
+    assertArrayEquals(new long[] {2L}, index.recommend(List.of(item("egg", null)), TODAY, 10));
+  }
+
+  @Test
+  public void rebuild_loadsPublishedIngredients() {
+    streamIngredients(ingredient(1L, "Egg"), ingredient(1L, "Rice"), ingredient(2L, "Beef"));
+    index.update(9L, recipe(9L, ERecipeStatus.PUBLISHED, "egg"));
+
+    index.rebuild();
+
+    assertEquals(2, index.getRecipeCount());
+    assertArrayEquals(new long[] {1L}, index.recommend(List.of(item("egg", null)), TODAY, 10));
+  }
+
+  @Test
+  public void rebuild_keepsRecipesWrittenWhileLoading() {
+    doAnswer(
+            invocation -> {
+              Consumer<RecipeIngredient> consumer = invocation.getArgument(0);
+              consumer.accept(ingredient(1L, "egg"));
+              consumer.accept(ingredient(2L, "egg"));
+              // published and unpublished while the rebuild is loading
+              index.update(3L, recipe(3L, ERecipeStatus.PUBLISHED, "egg"));
+              index.remove(1L);
+              return null;
+            })
+        .when(recipeDataAccess)
+        .streamPublishedRecipeIngredients(any());
+
+    index.rebuild();
+
+    assertArrayEquals(new long[] {2L, 3L}, index.recommend(List.of(item("egg", null)), TODAY, 10));
+  }
+
+  @Test
+  public void rebuild_failed_keepsPreviousIndex() {
+    index.update(1L, recipe(1L, ERecipeStatus.PUBLISHED, "egg"));
+    doThrow(new IllegalStateException("Ingredients must come in recipe order"))
+        .when(recipeDataAccess)
+        .streamPublishedRecipeIngredients(any());
+
+    index.rebuild();
+
+    assertArrayEquals(new long[] {1L}, index.recommend(List.of(item("egg", null)), TODAY, 10));
+  }
+
+  @Test
+  public void normalise() {
+    assertEquals("soy sauce", RecipePantryIndex.normalise("  Soy   SAUCE "));
+    assertEquals(null, RecipePantryIndex.normalise("   "));
+    assertEquals(null, RecipePantryIndex.normalise(null));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void streamIngredients(RecipeIngredient... ingredients) {
+    doAnswer(
+            invocation -> {
+              Consumer<RecipeIngredient> consumer = invocation.getArgument(0);
+              for (RecipeIngredient ingredient : ingredients) {
+                consumer.accept(ingredient);
+              }
+              return null;
+            })
+        .when(recipeDataAccess)
+        .streamPublishedRecipeIngredients(any());
+  }
+
+  private Recipe recipe(Long id, ERecipeStatus status, String... ingredients) {
+    Recipe recipe = new Recipe();
+    recipe.setId(id);
+    recipe.setStatus(status);
+    List<RecipeIngredient> list = new ArrayList<>();
+    for (String name : ingredients) {
+      list.add(ingredient(id, name));
+    }
+    recipe.setIngredients(list);
+    return recipe;
+  }
+
+  private RecipeIngredient ingredient(Long recipeId, String name) {
+    return RecipeIngredient.builder().recipeId(recipeId).name(name).build();
+  }
+
+  private UserIngredient item(String name, LocalDate expiry) {
+    UserIngredient ingredient = new UserIngredient();
+    ingredient.setName(name);
+    ingredient.setExpiryDate(expiry == null ? null : Date.valueOf(expiry));
+    return ingredient;
+  }
+}
@@ -1,34 +1,140 @@
 package nus.iss.team3.backend.domainService.recipe;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.times;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import nus.iss.team3.backend.entity.Recipe;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-@ExtendWith(SpringExtension.class)
 public class TestRecipePreferenceContext {
 
-  @InjectMocks private RecipePreferenceContext recipePreferenceContext;
-
   @Test
-  public void recommend() throws IOException {
+  public void recommend() {
     IRecipeService recipeService = mock(IRecipeService.class);
     int userId = 1;
     boolean isDesc = true;
     List<Recipe> returnList = new ArrayList<>();
     RecommendStrategy mockStrategy = mock(RecommendByRating.class);
     when(mockStrategy.recommendRecipes(any(), anyInt(), anyBoolean())).thenReturn(returnList);
-    recipePreferenceContext.setRecommendStrategy(mockStrategy);
-    recipePreferenceContext.recommend(recipeService, userId, isDesc);
+    RecipePreferenceContext recipePreferenceContext =
+        new RecipePreferenceContext(Map.of("mock", mockStrategy));
+
+    recipePreferenceContext.recommend("mock", recipeService, userId, isDesc);
 
     verify(mockStrategy, times(1)).recommendRecipes(any(), anyInt(), anyBoolean());
   }
+
+  @Test
+  public void recommend_unknownStrategy() {
+    RecipePreferenceContext recipePreferenceContext = new RecipePreferenceContext();
+    IRecipeService recipeService = mock(IRecipeService.class);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> recipePreferenceContext.recommend("popularity", recipeService, 1, true));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> recipePreferenceContext.recommend(null, recipeService, 1, true, null, 10));
+  }
+
+  @Test
+  public void getStrategyNames_allStrategies() {
+    assertEquals(
+        Set.of(
+            IRecipePreferenceContext.STRATEGY_DIFFICULTY,
+            IRecipePreferenceContext.STRATEGY_RATING,
+            IRecipePreferenceContext.STRATEGY_USER_REVIEW,
+            IRecipePreferenceContext.STRATEGY_SIMILARITY,
+            IRecipePreferenceContext.STRATEGY_PANTRY),
+        new RecipePreferenceContext().getStrategyNames());
+  }
+
+  /**
+   * Many requests at once, each with its own strategy and user, all against the one shared context.
+   * Every request must get the recipes of its own strategy and user.
+   */
+  @Test
+  public void recommend_concurrentMixedStrategies() throws Exception {
+    IRecipeService recipeService = mock(IRecipeService.class);
+    when(recipeService.getRecipesByDifficulty(anyBoolean()))
+        .thenAnswer(invocation -> List.of(recipe(IRecipePreferenceContext.STRATEGY_DIFFICULTY)));
+    when(recipeService.getRecipesByRating(anyBoolean()))
+        .thenAnswer(invocation -> List.of(recipe(IRecipePreferenceContext.STRATEGY_RATING)));
+    when(recipeService.getRecipesByUserReview(anyInt(), anyBoolean()))
+        .thenAnswer(
+            invocation ->
+                List.of(
+                    recipe(
+                        IRecipePreferenceContext.STRATEGY_USER_REVIEW
+                            + invocation.getArgument(0))));
+    when(recipeService.getRecipesBySimilarity(anyInt(), anyBoolean()))
+        .thenAnswer(
+            invocation ->
+                List.of(
+                    recipe(
+                        IRecipePreferenceContext.STRATEGY_SIMILARITY + invocation.getArgument(0))));
+    RecipePreferenceContext recipePreferenceContext = new RecipePreferenceContext();
+    List<String> strategies =
+        List.of(
+            IRecipePreferenceContext.STRATEGY_DIFFICULTY,
+            IRecipePreferenceContext.STRATEGY_RATING,
+            IRecipePreferenceContext.STRATEGY_USER_REVIEW,
+            IRecipePreferenceContext.STRATEGY_SIMILARITY);
+
+    int requests = 10_000;
+    ExecutorService executor = Executors.newFixedThreadPool(32);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<String>> mismatches = new ArrayList<>();
+    try {
+      for (int i = 0; i < requests; i++) {
+        String strategy = strategies.get(i % strategies.size());
+        int userId = i;
+        String expected =
+            strategy.equals(IRecipePreferenceContext.STRATEGY_DIFFICULTY)
+                    || strategy.equals(IRecipePreferenceContext.STRATEGY_RATING)
+                ? strategy
+                : strategy + userId;
+        mismatches.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  String actual =
+                      recipePreferenceContext
+                          .recommend(strategy, recipeService, userId, true)
+                          .getFirst()
+                          .getName();
+                  return expected.equals(actual) ? null : expected + " got " + actual;
+                }));
+      }
+      start.countDown();
+      List<String> wrong = new ArrayList<>();
+      for (Future<String> mismatch : mismatches) {
+        if (mismatch.get() != null) {
+          wrong.add(mismatch.get());
+        }
+      }
+      assertEquals(List.of(), wrong);
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(recipeService, times(requests / 4)).getRecipesByDifficulty(true);
+    verify(recipeService, times(requests / 4)).getRecipesBySimilarity(anyInt(), eq(true));
+  }
+
+  private Recipe recipe(String name) {
+    Recipe recipe = new Recipe();
+    recipe.setName(name);
+    return recipe;
+  }
 }
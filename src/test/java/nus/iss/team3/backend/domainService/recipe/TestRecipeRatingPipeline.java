@@ -0,0 +1,222 @@
+package nus.iss.team3.backend.domainService.recipe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import nus.iss.team3.backend.dataaccess.IRecipeDataAccess;
+import nus.iss.team3.backend.entity.ERecipeStatus;
+import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.ReviewAggregateDelta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TestRecipeRatingPipeline {
+
+  private static final Timestamp MARKED_AT = Timestamp.valueOf("2024-11-20 10:00:00");
+
+  private IRecipeDataAccess recipeDataAccess;
+  private SimpleMeterRegistry meterRegistry;
+  private RecipeCache recipeCache;
+  private RecipeRatingPipeline pipeline;
+  private List<List<ReviewAggregateDelta>> applied;
+
+  @BeforeEach
+  public void setUp() {
+    recipeDataAccess = mock(IRecipeDataAccess.class);
+    meterRegistry = new SimpleMeterRegistry();
+    recipeCache = new RecipeCache(meterRegistry, 10);
+    pipeline = new RecipeRatingPipeline(recipeDataAccess, recipeCache, meterRegistry, 60000L);
+    applied = new ArrayList<>();
+    when(recipeDataAccess.applyReviewAggregateDeltas(anyCollection()))
+        .thenAnswer(
+            invocation -> {
+              Collection<ReviewAggregateDelta> deltas = invocation.getArgument(0);
+              applied.add(new ArrayList<>(deltas));
+              return deltas.size();
+            });
+  }
+
+  @Test
+  public void flush_coalescesDeltasPerRecipe_intoOneApply() {
+    pipeline.enqueue(List.of(delta(1L, 1, "4.0", 4)));
+    pipeline.enqueue(List.of(delta(1L, 1, "5.0", 5), delta(2L, 1, "3.0", 3)));
+    pipeline.enqueue(List.of(delta(1L, -1, "-4.0", 4)));
+
+    assertEquals(2, pipeline.getQueueDepth());
+    assertEquals(2.0, meterRegistry.get(RecipeRatingPipeline.METRIC_QUEUE_DEPTH).gauge().value());
+
+    pipeline.flush();
+
+    assertEquals(1, applied.size());
+    List<ReviewAggregateDelta> deltas =
+        applied.getFirst().stream()
+            .sorted((a, b) -> a.getRecipeId().compareTo(b.getRecipeId()))
+            .toList();
+    assertEquals(
+        new ReviewAggregateDelta(
+            1L, MARKED_AT, 1, new BigDecimal("5.0"), new int[] {0, 0, 0, 0, 1}, 3),
+        deltas.get(0));
+    assertEquals(delta(2L, 1, "3.0", 3), deltas.get(1));
+    assertEquals(0, pipeline.getQueueDepth());
+    assertEquals(2, meterRegistry.get(RecipeRatingPipeline.METRIC_LAG).timer().count());
+  }
+
+  @Test
+  public void flush_deltaMarkedAfterRecovery_replacesEarlierOne() {
+    Timestamp recoveredAt = Timestamp.valueOf("2024-11-20 10:05:00");
+    // the recipe was recomputed between the two writes, with the review of the first one
+    pipeline.enqueue(List.of(delta(1L, 1, "4.0", 4)));
+    pipeline.enqueue(List.of(delta(1L, recoveredAt, 1, "2.0", 2)));
+    pipeline.enqueue(List.of(delta(1L, 1, "5.0", 5)));
+
+    pipeline.flush();
+
+    assertEquals(List.of(delta(1L, recoveredAt, 1, "2.0", 2)), applied.getFirst());
+  }
+
+  @Test
+  public void flush_evictsAppliedRecipes() {
+    recipeCache.get(1L, id -> recipe(id));
+    recipeCache.get(2L, id -> recipe(id));
+
+    pipeline.enqueue(List.of(delta(1L, 1, "4.0", 4)));
+    pipeline.flush();
+
+    assertEquals(1, recipeCache.size());
+  }
+
+  @Test
+  public void flush_applyFailed_keepsDeltasForNextFlush() {
+    doThrow(new IllegalStateException("Failed to apply review deltas"))
+        .doAnswer(
+            invocation -> {
+              Collection<ReviewAggregateDelta> deltas = invocation.getArgument(0);
+              applied.add(new ArrayList<>(deltas));
+              return deltas.size();
+            })
+        .when(recipeDataAccess)
+        .applyReviewAggregateDeltas(anyCollection());
+
+    pipeline.enqueue(List.of(delta(1L, 1, "4.0", 4)));
+    pipeline.flush();
+
+    assertEquals(1, pipeline.getQueueDepth());
+    assertEquals(
+        1.0, meterRegistry.get(RecipeRatingPipeline.METRIC_FAILED_FLUSHES).counter().count());
+
+    pipeline.enqueue(List.of(delta(1L, 1, "2.0", 2)));
+    pipeline.flush();
+
+    assertEquals(1, applied.size());
+    assertEquals(
+        new ReviewAggregateDelta(
+            1L, MARKED_AT, 2, new BigDecimal("6.0"), new int[] {0, 1, 0, 1, 0}, 2),
+        applied.getFirst().getFirst());
+    assertEquals(0, pipeline.getQueueDepth());
+  }
+
+  @Test
+  public void flush_nothingQueued_noApply() {
+    pipeline.enqueue(List.of());
+    pipeline.enqueue(null);
+    pipeline.flush();
+
+    verify(recipeDataAccess, never()).applyReviewAggregateDeltas(any());
+  }
+
+  @Test
+  public void enqueue_inTransaction_queuedAfterCommit() {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      pipeline.enqueue(List.of(delta(1L, 1, "4.0", 4)));
+      assertEquals(0, pipeline.getQueueDepth());
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    assertEquals(1, pipeline.getQueueDepth());
+  }
+
+  @Test
+  public void recoverLostDeltas_appliesQueuedDeltasFirst_thenEvictsRecomputedRecipes() {
+    recipeCache.get(1L, id -> recipe(id));
+    recipeCache.get(2L, id -> recipe(id));
+    when(recipeDataAccess.recomputeLostReviewAggregates(60000L)).thenReturn(List.of(2L));
+
+    pipeline.enqueue(List.of(delta(1L, 1, "4.0", 4)));
+    pipeline.recoverLostDeltas();
+
+    InOrder inOrder = inOrder(recipeDataAccess);
+    inOrder.verify(recipeDataAccess).applyReviewAggregateDeltas(anyCollection());
+    inOrder.verify(recipeDataAccess).recomputeLostReviewAggregates(60000L);
+    assertEquals(0, recipeCache.size());
+    assertEquals(1.0, meterRegistry.get(RecipeRatingPipeline.METRIC_RECOVERED).counter().count());
+  }
+
+  @Test
+  public void recoverLostDeltas_applyFailed_recomputesNothing() {
+    doThrow(new IllegalStateException("Failed to apply review deltas"))
+        .when(recipeDataAccess)
+        .applyReviewAggregateDeltas(anyCollection());
+
+    pipeline.enqueue(List.of(delta(1L, 1, "4.0", 4)));
+    pipeline.recoverLostDeltas();
+
+    verify(recipeDataAccess, never()).recomputeLostReviewAggregates(anyLong());
+    assertEquals(1, pipeline.getQueueDepth());
+  }
+
+  @Test
+  public void recompute_flushesFirst() {
+    pipeline.enqueue(List.of(delta(1L, 1, "4.0", 4)));
+
+    int repaired =
+        pipeline.recompute(
+            () -> {
+              assertEquals(1, applied.size());
+              return 0;
+            });
+
+    assertEquals(0, repaired);
+    verify(recipeDataAccess, times(1)).applyReviewAggregateDeltas(anyCollection());
+  }
+
+  private ReviewAggregateDelta delta(Long recipeId, int count, String rating, int stars) {
+    return delta(recipeId, MARKED_AT, count, rating, stars);
+  }
+
+  private ReviewAggregateDelta delta(
+      Long recipeId, Timestamp markedAt, int count, String rating, int stars) {
+    int[] starsDeltas = new int[5];
+    starsDeltas[stars - 1] = count;
+    return new ReviewAggregateDelta(recipeId, markedAt, count, new BigDecimal(rating), starsDeltas);
+  }
+
+  private Recipe recipe(Long id) {
+    Recipe recipe = new Recipe();
+    recipe.setId(id);
+    recipe.setStatus(ERecipeStatus.PUBLISHED);
+    return recipe;
+  }
+}
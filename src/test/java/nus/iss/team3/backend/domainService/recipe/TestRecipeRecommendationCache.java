@@ -0,0 +1,242 @@
+package nus.iss.team3.backend.domainService.recipe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import nus.iss.team3.backend.entity.Recipe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestRecipeRecommendationCache {
+
+  private SimpleMeterRegistry meterRegistry;
+  // background recomputations, run by the test
+  private List<Runnable> queued;
+  private RecipeRecommendationCache cache;
+  private AtomicInteger loads;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    queued = new ArrayList<>();
+    cache = new RecipeRecommendationCache(meterRegistry, 2, 60_000, queued::add);
+    loads = new AtomicInteger();
+  }
+
+  @Test
+  public void get_computedOnce_andCountsHitsAndMisses() {
+    List<Recipe> first = cache.get("difficulty", loader());
+    List<Recipe> second = cache.get("difficulty", loader());
+
+    assertEquals(1, loads.get());
+    assertSame(first, second);
+    assertEquals(List.of(1L), ids(first));
+    assertThrows(UnsupportedOperationException.class, () -> second.add(new Recipe()));
+    assertEquals(1.0, requests("hit"));
+    assertEquals(1.0, requests("miss"));
+  }
+
+  @Test
+  public void invalidate_servesStaleWhileRecomputing() {
+    cache.get("difficulty", loader());
+
+    cache.invalidate();
+    List<Recipe> stale = cache.get("difficulty", loader());
+
+    assertEquals(List.of(1L), ids(stale));
+    assertEquals(1, queued.size());
+    assertEquals(1.0, requests("stale"));
+
+    runQueued();
+    assertEquals(List.of(2L), ids(cache.get("difficulty", loader())));
+    assertEquals(1.0, refreshes("success"));
+  }
+
+  @Test
+  public void invalidate_listNotRequestedSinceLastRefresh_recomputedOnNextRequest() {
+    cache.get("difficulty", loader());
+    cache.refresh();
+    runQueued();
+
+    cache.invalidate();
+    assertEquals(0, queued.size());
+
+    assertEquals(List.of(2L), ids(cache.get("difficulty", loader())));
+    assertEquals(1, queued.size());
+  }
+
+  @Test
+  public void invalidate_duringRecompute_listStaysStale() {
+    AtomicInteger calls = new AtomicInteger();
+    Supplier<List<Recipe>> loader =
+        () -> {
+          if (calls.incrementAndGet() == 2) {
+            cache.invalidate();
+          }
+          return List.of(recipe(calls.get()));
+        };
+    cache.get("rating", loader);
+    cache.invalidate();
+
+    runQueued();
+    List<Recipe> served = cache.get("rating", loader);
+
+    assertEquals(List.of(2L), ids(served));
+    assertEquals(1, queued.size());
+    runQueued();
+    assertEquals(List.of(3L), ids(cache.get("rating", loader)));
+  }
+
+  @Test
+  public void refresh_recomputesRequestedLists() {
+    cache.get("difficulty", loader());
+
+    cache.refresh();
+    cache.refresh();
+    runQueued();
+
+    assertEquals(2, loads.get());
+    assertEquals(List.of(2L), ids(cache.get("difficulty", loader())));
+  }
+
+  @Test
+  public void refresh_dropsIdleLists() throws InterruptedException {
+    cache = new RecipeRecommendationCache(meterRegistry, 2, 0, queued::add);
+    cache.get("difficulty", loader());
+    Thread.sleep(2);
+
+    cache.refresh();
+
+    assertEquals(0, cache.size());
+    assertEquals(0, queued.size());
+  }
+
+  @Test
+  public void recomputeFails_keepsList() {
+    cache.get("difficulty", loader());
+    cache.invalidate();
+
+    cache.get(
+        "difficulty",
+        () -> {
+          throw new IllegalStateException("database down");
+        });
+    runQueued();
+
+    assertEquals(List.of(1L), ids(cache.get("difficulty", loader())));
+    assertEquals(1.0, refreshes("failure"));
+  }
+
+  @Test
+  public void firstLoadFails_notCached() {
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            cache.get(
+                "difficulty",
+                () -> {
+                  throw new IllegalStateException("database down");
+                }));
+
+    assertEquals(0, cache.size());
+    assertEquals(List.of(1L), ids(cache.get("difficulty", loader())));
+  }
+
+  @Test
+  public void nullList_returnedNotCached() {
+    assertNull(cache.get("difficulty", () -> null));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void leastRecentlyUsedEvicted() {
+    cache.get("a", loader());
+    cache.get("b", loader());
+    cache.get("a", loader());
+    cache.get("c", loader());
+
+    assertEquals(2, cache.size());
+    // computed again
+    assertEquals(List.of(4L), ids(cache.get("b", loader())));
+  }
+
+  @Test
+  public void get_concurrentFirstRequests_computedOnce() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    Supplier<List<Recipe>> slowLoader =
+        () -> {
+          loads.incrementAndGet();
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return List.of(recipe(1));
+        };
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<List<Recipe>>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> cache.get("difficulty", slowLoader)));
+      }
+      Thread.sleep(50);
+      release.countDown();
+
+      List<Recipe> first = results.getFirst().get(5, TimeUnit.SECONDS);
+      for (Future<List<Recipe>> result : results) {
+        assertSame(first, result.get(5, TimeUnit.SECONDS));
+      }
+      assertEquals(1, loads.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Supplier<List<Recipe>> loader() {
+    return () -> List.of(recipe(loads.incrementAndGet()));
+  }
+
+  private void runQueued() {
+    List<Runnable> running = new ArrayList<>(queued);
+    queued.clear();
+    running.forEach(Runnable::run);
+  }
+
+  private double requests(String result) {
+    return meterRegistry
+        .get(RecipeRecommendationCache.METRIC_REQUESTS)
+        .tag("result", result)
+        .counter()
+        .count();
+  }
+
+  private double refreshes(String result) {
+    return meterRegistry
+        .get(RecipeRecommendationCache.METRIC_REFRESHES)
+        .tag("result", result)
+        .counter()
+        .count();
+  }
+
+  private static List<Long> ids(List<Recipe> recipes) {
+    return recipes.stream().map(Recipe::getId).toList();
+  }
+
+  private static Recipe recipe(long id) {
+    Recipe recipe = new Recipe();
+    recipe.setId(id);
+    return recipe;
+  }
+}
@@ -0,0 +1,148 @@
+package nus.iss.team3.backend.domainService.recipe;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import nus.iss.team3.backend.dataaccess.IReviewDataAccess;
+import nus.iss.team3.backend.entity.RecipeReview;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+public class TestRecipeSimilarityModel {
+
+  private IReviewDataAccess reviewDataAccess;
+  private RecipeSimilarityModel model;
+
+  @BeforeEach
+  public void setUp() {
+    reviewDataAccess = mock(IReviewDataAccess.class);
+    model = new RecipeSimilarityModel(reviewDataAccess);
+  }
+
+  @Test
+  public void similarRecipes_ratedAlike() {
+    // recipes 1 and 2 are rated alike, 3 the other way round
+    List<RecipeReview> reviews = new ArrayList<>();
+    reviews.addAll(List.of(review(1, 1, 5), review(2, 1, 5), review(3, 1, 1)));
+    reviews.addAll(List.of(review(1, 2, 4), review(2, 2, 4), review(3, 2, 2)));
+    reviews.addAll(List.of(review(1, 3, 1), review(2, 3, 1), review(3, 3, 5)));
+    reviews.addAll(List.of(review(1, 4, 5), review(4, 4, 2)));
+    streams(reviews);
+
+    model.rebuild();
+
+    assertEquals(4, model.getRecipeCount());
+    assertEquals(4, model.getUserCount());
+    assertArrayEquals(new long[] {2}, model.similarRecipes(1));
+    assertArrayEquals(new long[] {1}, model.similarRecipes(2));
+  }
+
+  @Test
+  public void recommend_similarToRated_notRated() {
+    List<RecipeReview> reviews = new ArrayList<>();
+    reviews.addAll(List.of(review(1, 1, 5), review(2, 1, 5), review(3, 1, 1)));
+    reviews.addAll(List.of(review(1, 2, 4), review(2, 2, 4), review(3, 2, 2)));
+    reviews.addAll(List.of(review(1, 3, 1), review(2, 3, 1), review(3, 3, 5)));
+    reviews.addAll(List.of(review(1, 4, 5), review(4, 4, 2)));
+    streams(reviews);
+    model.rebuild();
+
+    assertArrayEquals(new long[] {2}, model.recommend(4, 10));
+    assertArrayEquals(new long[0], model.recommend(99, 10));
+    assertThrows(IllegalArgumentException.class, () -> model.recommend(4, 0));
+  }
+
+  @Test
+  public void rebuild_recomputesOnlyAffectedRecipes_sameAsFullBuild() {
+    Random random = new Random(42);
+    List<RecipeReview> before = new ArrayList<>();
+    for (long user = 1; user <= 300; user++) {
+      for (int i = 0; i < 4; i++) {
+        before.add(review(1 + random.nextInt(400), user, 1 + random.nextInt(5)));
+      }
+    }
+    streams(before);
+    model.rebuild();
+    assertEquals(model.getRecipeCount(), model.getRecomputedCount());
+
+    model.rebuild();
+    assertEquals(0, model.getRecomputedCount());
+
+    List<RecipeReview> after = new ArrayList<>(before);
+    after.removeIf(review -> review.getCreatorId() == 7L);
+    after.add(review(3, 7, 2));
+    after.add(review(5, 301, 4));
+    after.add(review(before.getFirst().getRecipeId(), 301, 5));
+    streams(after);
+    model.rebuild();
+
+    RecipeSimilarityModel fresh = new RecipeSimilarityModel(reviewDataAccess);
+    fresh.rebuild();
+    assertTrue(model.getRecomputedCount() < model.getRecipeCount() / 2);
+    assertEquals(fresh.getRecipeCount(), model.getRecipeCount());
+    for (long recipe = 1; recipe <= 400; recipe++) {
+      assertArrayEquals(fresh.similarRecipes(recipe), model.similarRecipes(recipe));
+    }
+    for (long user = 1; user <= 301; user++) {
+      assertArrayEquals(fresh.recommend(user, 20), model.recommend(user, 20));
+    }
+  }
+
+  @Test
+  public void rebuild_loadFailed_keepsPreviousModel() {
+    streams(List.of(review(1, 1, 5), review(2, 1, 4)));
+    model.rebuild();
+    doThrow(new QueryTimeoutException("timeout"))
+        .when(reviewDataAccess)
+        .streamPublishedRecipeRatings(any());
+
+    model.rebuild();
+
+    assertEquals(2, model.getRecipeCount());
+  }
+
+  @Test
+  public void ratings_outOfOrder() {
+    RecipeSimilarityModel.Ratings ratings = new RecipeSimilarityModel.Ratings();
+    ratings.add(2, 1, 5);
+    assertThrows(IllegalStateException.class, () -> ratings.add(1, 1, 5));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void streams(List<RecipeReview> reviews) {
+    // in recipe then creator order, as the query returns them
+    List<RecipeReview> sorted =
+        reviews.stream()
+            .sorted(
+                Comparator.comparing(RecipeReview::getRecipeId)
+                    .thenComparing(RecipeReview::getCreatorId))
+            .toList();
+    doAnswer(
+            invocation -> {
+              sorted.forEach(invocation.<Consumer<RecipeReview>>getArgument(0));
+              return null;
+            })
+        .when(reviewDataAccess)
+        .streamPublishedRecipeRatings(any());
+  }
+
+  private RecipeReview review(long recipeId, long creatorId, double rating) {
+    RecipeReview review = new RecipeReview();
+    review.setRecipeId(recipeId);
+    review.setCreatorId(creatorId);
+    review.setRating(rating);
+    return review;
+  }
+}
@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -34,4 +35,18 @@ public class TestRecommendByDifficulty {
 
     verify(mockRecommendByDifficulty, times(1)).getRecipesByDifficulty(anyBoolean());
   }
+
+  @Test
+  public void recommendBounded_readsPagesUntilLimit() {
+    IRecipeService mockRecipeService = mock(RecipeService.class);
+    when(mockRecipeService.getRecipesByDifficulty(true, null, 3))
+        .thenReturn(new RecipePage(TestRecommendByUserReview.ranking(1, 2), "next"));
+    when(mockRecipeService.getRecipesByDifficulty(true, "next", 1))
+        .thenReturn(new RecipePage(TestRecommendByUserReview.ranking(3), "after"));
+
+    List<Recipe> actuals = recommendByDifficulty.recommendRecipes(mockRecipeService, 1, true, 3);
+
+    assertEquals(List.of(1L, 2L, 3L), actuals.stream().map(Recipe::getId).toList());
+    verify(mockRecipeService, never()).getRecipesByDifficulty(true, "after", 0);
+  }
 }
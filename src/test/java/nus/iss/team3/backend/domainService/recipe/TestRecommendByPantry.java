@@ -0,0 +1,79 @@
+package nus.iss.team3.backend.domainService.recipe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
+import org.junit.jupiter.api.Test;
+
+public class TestRecommendByPantry {
+
+  private final RecommendByPantry recommendByPantry = new RecommendByPantry();
+
+  @Test
+  public void recommend() {
+    IRecipeService mockRecipeService = mock(IRecipeService.class);
+    List<Recipe> ranking = ranking(4, 2);
+    when(mockRecipeService.getRecipesByPantry(1, true)).thenReturn(ranking);
+
+    assertEquals(ranking, recommendByPantry.recommendRecipes(mockRecipeService, 1, true));
+  }
+
+  @Test
+  public void recommendPage() {
+    IRecipeService mockRecipeService = mock(IRecipeService.class);
+    when(mockRecipeService.getRecipesByPantry(eq(1), eq(true), anyInt()))
+        .thenAnswer(TestRecommendByUserReview.firstOf(ranking(7, 3, 9)));
+
+    RecipePage first = recommendByPantry.recommendRecipes(mockRecipeService, 1, true, null, 2);
+    RecipePage second =
+        recommendByPantry.recommendRecipes(mockRecipeService, 1, true, first.getNextCursor(), 2);
+
+    assertEquals(List.of(7L, 3L), first.getRecipes().stream().map(Recipe::getId).toList());
+    assertEquals(List.of(9L), second.getRecipes().stream().map(Recipe::getId).toList());
+    verify(mockRecipeService, times(2)).getRecipesByPantry(eq(1), eq(true), anyInt());
+  }
+
+  @Test
+  public void recommendBounded() {
+    IRecipeService mockRecipeService = mock(IRecipeService.class);
+    List<Recipe> ranking = ranking(4, 2);
+    when(mockRecipeService.getRecipesByPantry(1, true, 2)).thenReturn(ranking);
+
+    assertEquals(ranking, recommendByPantry.recommendRecipes(mockRecipeService, 1, true, 2));
+  }
+
+  @Test
+  public void recommendPage_cursorOfSimilarityRanking_rejected() {
+    IRecipeService mockRecipeService = mock(IRecipeService.class);
+    when(mockRecipeService.getRecipesBySimilarity(eq(1), eq(true), anyInt()))
+        .thenAnswer(TestRecommendByUserReview.firstOf(ranking(7, 3, 9)));
+    String cursor =
+        new RecommendBySimilarity()
+            .recommendRecipes(mockRecipeService, 1, true, null, 1)
+            .getNextCursor();
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> recommendByPantry.recommendRecipes(mockRecipeService, 1, true, cursor, 1));
+  }
+
+  private List<Recipe> ranking(long... ids) {
+    List<Recipe> ranking = new ArrayList<>();
+    for (long id : ids) {
+      Recipe recipe = new Recipe();
+      recipe.setId(id);
+      ranking.add(recipe);
+    }
+    return ranking;
+  }
+}
@@ -0,0 +1,62 @@
+package nus.iss.team3.backend.domainService.recipe;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
+import org.junit.jupiter.api.Test;
+
+public class TestRecommendBySimilarity {
+
+  private final RecommendBySimilarity recommendBySimilarity = new RecommendBySimilarity();
+
+  @Test
+  public void recommendPage() {
+    IRecipeService mockRecipeService = mock(IRecipeService.class);
+    List<Recipe> ranking = TestRecommendByUserReview.ranking(7, 3, 9);
+    when(mockRecipeService.getRecipesBySimilarity(eq(1), eq(true), anyInt()))
+        .thenAnswer(TestRecommendByUserReview.firstOf(ranking));
+
+    RecipePage first = recommendBySimilarity.recommendRecipes(mockRecipeService, 1, true, null, 2);
+    RecipePage second =
+        recommendBySimilarity.recommendRecipes(
+            mockRecipeService, 1, true, first.getNextCursor(), 2);
+
+    assertEquals(List.of(7L, 3L), first.getRecipes().stream().map(Recipe::getId).toList());
+    assertEquals(List.of(9L), second.getRecipes().stream().map(Recipe::getId).toList());
+    verify(mockRecipeService, times(2)).getRecipesBySimilarity(eq(1), eq(true), anyInt());
+  }
+
+  @Test
+  public void recommendBounded() {
+    IRecipeService mockRecipeService = mock(IRecipeService.class);
+    List<Recipe> ranking = TestRecommendByUserReview.ranking(7, 3);
+    when(mockRecipeService.getRecipesBySimilarity(1, true, 2)).thenReturn(ranking);
+
+    assertEquals(ranking, recommendBySimilarity.recommendRecipes(mockRecipeService, 1, true, 2));
+  }
+
+  @Test
+  public void recommendPage_cursorOfUserReviewRanking_rejected() {
+    IRecipeService mockRecipeService = mock(IRecipeService.class);
+    List<Recipe> ranking = TestRecommendByUserReview.ranking(7, 3, 9);
+    when(mockRecipeService.getRecipesByUserReview(eq(1), eq(true), anyInt()))
+        .thenAnswer(TestRecommendByUserReview.firstOf(ranking));
+    String cursor =
+        new RecommendByUserReview()
+            .recommendRecipes(mockRecipeService, 1, true, null, 1)
+            .getNextCursor();
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> recommendBySimilarity.recommendRecipes(mockRecipeService, 1, true, cursor, 1));
+  }
+}
@@ -1,7 +1,10 @@
 package nus.iss.team3.backend.domainService.recipe;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.times;
 
@@ -9,9 +12,12 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import nus.iss.team3.backend.entity.Recipe;
+import nus.iss.team3.backend.entity.RecipePage;
+import nus.iss.team3.backend.entity.RecipeSummaryPage;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.stubbing.Answer;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 @ExtendWith(SpringExtension.class)
@@ -33,4 +39,95 @@ public class TestRecommendByUserReview {
 
     verify(mockRecommendByUserReview, times(1)).getRecipesByUserReview(anyInt(), anyBoolean());
   }
+
+  @Test
+  public void recommendPage() {
+    IRecipeService mockRecipeService = mock(RecipeService.class);
+    List<Recipe> ranking = ranking(7, 3, 9);
+    when(mockRecipeService.getRecipesByUserReview(eq(1), eq(true), anyInt()))
+        .thenAnswer(firstOf(ranking));
+
+    RecipePage first = recommendByUserReview.recommendRecipes(mockRecipeService, 1, true, null, 2);
+    assertEquals(2, first.getRecipes().size());
+    assertEquals(3L, first.getRecipes().getLast().getId());
+    assertNotNull(first.getNextCursor());
+
+    RecipePage second =
+        recommendByUserReview.recommendRecipes(
+            mockRecipeService, 1, true, first.getNextCursor(), 2);
+    assertEquals(1, second.getRecipes().size());
+    assertEquals(9L, second.getRecipes().getFirst().getId());
+    assertNull(second.getNextCursor());
+    // only the ranking up to the end of each page and one past it is fetched
+    verify(mockRecipeService).getRecipesByUserReview(1, true, 3);
+    verify(mockRecipeService).getRecipesByUserReview(1, true, 5);
+    verify(mockRecipeService, never()).getRecipesByUserReview(anyInt(), anyBoolean());
+  }
+
+  @Test
+  public void recommendPage_lastRecipeMovedDown_fetchesFarEnoughToFillPage() {
+    IRecipeService mockRecipeService = mock(RecipeService.class);
+    List<Recipe> ranking = ranking(7, 3, 9, 4, 5);
+    when(mockRecipeService.getRecipesByUserReview(eq(1), eq(true), anyInt()))
+        .thenAnswer(firstOf(ranking));
+    RecipePage first = recommendByUserReview.recommendRecipes(mockRecipeService, 1, true, null, 1);
+    // 7 was returned first, then two recipes overtook it
+    List<Recipe> reranked = ranking(3, 9, 7, 4, 5);
+    doAnswer(firstOf(reranked))
+        .when(mockRecipeService)
+        .getRecipesByUserReview(eq(1), eq(true), anyInt());
+
+    RecipePage second =
+        recommendByUserReview.recommendRecipes(
+            mockRecipeService, 1, true, first.getNextCursor(), 2);
+
+    assertEquals(List.of(4L, 5L), second.getRecipes().stream().map(Recipe::getId).toList());
+    assertNull(second.getNextCursor());
+    verify(mockRecipeService).getRecipesByUserReview(1, true, 6);
+  }
+
+  @Test
+  public void recommendBounded() {
+    IRecipeService mockRecipeService = mock(RecipeService.class);
+    List<Recipe> ranking = ranking(7, 3);
+    when(mockRecipeService.getRecipesByUserReview(1, true, 2)).thenReturn(ranking);
+
+    assertEquals(ranking, recommendByUserReview.recommendRecipes(mockRecipeService, 1, true, 2));
+  }
+
+  @Test
+  public void recommendSummaryPage_cutDownFromRanking() {
+    IRecipeService mockRecipeService = mock(RecipeService.class);
+    Recipe recipe = new Recipe();
+    recipe.setId(7L);
+    recipe.setName("Laksa");
+    recipe.setIngredients(List.of());
+    when(mockRecipeService.getRecipesByUserReview(eq(1), eq(true), anyInt()))
+        .thenReturn(List.of(recipe));
+
+    RecipeSummaryPage page =
+        recommendByUserReview.recommendRecipeSummaries(mockRecipeService, 1, true, null, 2);
+
+    assertEquals(1, page.getRecipes().size());
+    assertEquals("Laksa", page.getRecipes().getFirst().getName());
+    assertNull(page.getNextCursor());
+  }
+
+  static List<Recipe> ranking(long... ids) {
+    List<Recipe> ranking = new ArrayList<>();
+    for (long id : ids) {
+      Recipe recipe = new Recipe();
+      recipe.setId(id);
+      ranking.add(recipe);
+    }
+    return ranking;
+  }
+
+  // answers a bounded ranking call with the first limit recipes of the ranking
+  static Answer<List<Recipe>> firstOf(List<Recipe> ranking) {
+    return invocation -> {
+      int limit = invocation.getArgument(2);
+      return new ArrayList<>(ranking.subList(0, Math.min(limit, ranking.size())));
+    };
+  }
 }
@@ -1,15 +1,28 @@
 package nus.iss.team3.backend.domainService.review;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import nus.iss.team3.backend.dataaccess.IReviewDataAccess;
+import nus.iss.team3.backend.domainService.recipe.RecipeRatingPipeline;
 import nus.iss.team3.backend.entity.RecipeReview;
+import nus.iss.team3.backend.entity.ReviewAggregateDelta;
+import nus.iss.team3.backend.entity.ReviewPage;
+import nus.iss.team3.backend.service.util.KeysetCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -26,6 +39,8 @@ public class ReviewServiceTest {
 
   @Mock private IReviewDataAccess recipeReviewDataAccess;
 
+  @Mock private RecipeRatingPipeline recipeRatingPipeline;
+
   @InjectMocks private ReviewService reviewService;
 
   @BeforeEach
@@ -39,10 +54,16 @@ public class ReviewServiceTest {
     review.setRecipeId(1L);
     review.setCreatorId(1L);
     review.setRating(5.0);
+    List<ReviewAggregateDelta> deltas =
+        List.of(
+            new ReviewAggregateDelta(
+                1L, null, 1, BigDecimal.valueOf(5.0), new int[] {0, 0, 0, 0, 1}));
+    when(recipeReviewDataAccess.addReview(review)).thenReturn(deltas);
 
     reviewService.addReview(review);
 
     verify(recipeReviewDataAccess, times(1)).addReview(review);
+    verify(recipeRatingPipeline, times(1)).enqueue(deltas);
   }
 
   @Test
@@ -112,11 +133,93 @@ public class ReviewServiceTest {
     verify(recipeReviewDataAccess, times(1)).deleteReviewsByRecipeId(1L);
   }
 
+  @Test
+  public void testGetReviewsByRecipeIds_skipsNullAndDuplicateIds() {
+    List<RecipeReview> reviews = List.of(new RecipeReview());
+    when(recipeReviewDataAccess.getReviewsByRecipeIds(List.of(1L, 2L), 20)).thenReturn(reviews);
+
+    assertEquals(
+        reviews, reviewService.getReviewsByRecipeIds(Arrays.asList(1L, null, 2L, 1L), 20));
+  }
+
+  @Test
+  public void testGetReviewsByRecipeIds_limitCapped() {
+    reviewService.getReviewsByRecipeIds(List.of(1L), ReviewPage.MAX_PAGE_SIZE + 1);
+
+    verify(recipeReviewDataAccess, times(1))
+        .getReviewsByRecipeIds(List.of(1L), ReviewPage.MAX_PAGE_SIZE);
+  }
+
+  @Test
+  public void testGetReviewsByRecipeIds_invalidLimit_throws() {
+    assertThrows(
+        IllegalArgumentException.class, () -> reviewService.getReviewsByRecipeIds(List.of(1L), 0));
+  }
+
+  @Test
+  public void testGetReviewsByRecipeIdPage_newestFirst_cursorKeepsMicroseconds() {
+    Timestamp newest = Timestamp.valueOf("2024-10-02 08:00:00.654321");
+    Timestamp older = Timestamp.valueOf("2024-10-01 08:00:00.123456");
+    when(recipeReviewDataAccess.getNewestReviewsPage(eq(1L), any(), eq(Long.MAX_VALUE), eq(3)))
+        .thenReturn(
+            List.of(review(9L, 4.0, newest), review(8L, 5.0, older), review(7L, 3.0, older)));
+    when(recipeReviewDataAccess.countReviewsByRecipeId(1L)).thenReturn(5L);
+
+    ReviewPage page = reviewService.getReviewsByRecipeId(1L, false, null, 2);
+
+    assertEquals(2, page.getReviews().size());
+    assertEquals(5L, page.getTotalCount());
+    // the next page continues after the last review, to the microsecond
+    when(recipeReviewDataAccess.getNewestReviewsPage(1L, older, 8L, 3))
+        .thenReturn(List.of(review(7L, 3.0, older)));
+    ReviewPage next = reviewService.getReviewsByRecipeId(1L, false, page.getNextCursor(), 2);
+    assertEquals(1, next.getReviews().size());
+    assertNull(next.getNextCursor());
+  }
+
+  @Test
+  public void testGetReviewsByRecipeIdPage_byRating_lastPage() {
+    when(recipeReviewDataAccess.getTopRatedReviewsPage(1L, Double.MAX_VALUE, Long.MAX_VALUE, 11))
+        .thenReturn(List.of(review(8L, 5.0, null)));
+
+    ReviewPage page = reviewService.getReviewsByRecipeId(1L, true, null, 10);
+
+    assertEquals(1, page.getReviews().size());
+    assertNull(page.getNextCursor());
+  }
+
+  @Test
+  public void testGetReviewsByRecipeIdPage_limitCapped() {
+    reviewService.getReviewsByRecipeId(1L, true, null, 1000);
+
+    verify(recipeReviewDataAccess, times(1))
+        .getTopRatedReviewsPage(eq(1L), anyDouble(), anyLong(), eq(ReviewPage.MAX_PAGE_SIZE + 1));
+  }
+
+  @Test
+  public void testGetReviewsByRecipeIdPage_invalidLimitOrCursor() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> reviewService.getReviewsByRecipeId(1L, false, null, 0));
+    // a cursor of another recipe, or of the other ordering
+    String otherRecipe = new KeysetCursor("reviews-2-newest", "2024-10-01 08:00:00", 1L).encode();
+    String otherOrder = new KeysetCursor("reviews-1-rating", "4.0", 1L).encode();
+    String badKey = new KeysetCursor("reviews-1-newest", "yesterday", 1L).encode();
+    for (String cursor : List.of(otherRecipe, otherOrder, badKey)) {
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> reviewService.getReviewsByRecipeId(1L, false, cursor, 10));
+    }
+    verify(recipeReviewDataAccess, times(0))
+        .getNewestReviewsPage(any(), any(), anyLong(), anyInt());
+  }
+
   @Test
   public void testDeleteReviewsByCreatorId_Success() {
     reviewService.deleteReviewsByCreatorId(1L, 1L);
 
     verify(recipeReviewDataAccess, times(1)).deleteReviewsByCreatorId(1L);
+    verify(recipeRatingPipeline, times(1)).enqueue(any());
   }
 
   @Test
@@ -162,4 +265,13 @@ public class ReviewServiceTest {
 
     assertEquals(reviews, result);
   }
+
+  private RecipeReview review(Long id, Double rating, Timestamp createDatetime) {
+    RecipeReview review = new RecipeReview();
+    review.setId(id);
+    review.setRecipeId(1L);
+    review.setRating(rating);
+    review.setCreateDatetime(createDatetime);
+    return review;
+  }
 }
@@ -10,6 +10,7 @@ import java.util.Collections;
 import java.util.List;
 import nus.iss.team3.backend.domainService.webservice.IWebserviceCaller;
 import nus.iss.team3.backend.entity.RecipeReview;
+import nus.iss.team3.backend.entity.ReviewPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
@@ -211,6 +212,56 @@ public class ReviewWebCallerTest {
     assertEquals(expectedReviews, actualReviews);
   }
 
+  /** Test the paged getReviewsByRecipeId when the operation is successful. */
+  @Test
+  public void testGetReviewsByRecipeIdPage_Success() {
+    ReviewPage expectedPage = new ReviewPage(List.of(new RecipeReview()), "next", 3);
+    String url = "http://localhost:8080/recipe/1/reviews?limit=10&isByRating=true&cursor=abc";
+    when(webServiceCaller.getCall(eq(url), eq(ReviewPage.class)))
+        .thenReturn(new ResponseEntity<>(expectedPage, HttpStatus.OK));
+
+    assertEquals(expectedPage, reviewWebCaller.getReviewsByRecipeId(1L, true, "abc", 10));
+  }
+
+  /** Test the paged getReviewsByRecipeId when the operation fails. */
+  @Test
+  public void testGetReviewsByRecipeIdPage_Failure() {
+    String url = "http://localhost:8080/recipe/1/reviews?limit=10&isByRating=false";
+    when(webServiceCaller.getCall(eq(url), eq(ReviewPage.class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+    ReviewPage page = reviewWebCaller.getReviewsByRecipeId(1L, false, null, 10);
+
+    assertEquals(Collections.emptyList(), page.getReviews());
+    assertEquals(0L, page.getTotalCount());
+  }
+
+  /** Test getReviewsByRecipeIds when the operation is successful. */
+  @Test
+  public void testGetReviewsByRecipeIds_Success() {
+    List<Long> recipeIds = List.of(1L, 2L);
+    RecipeReview[] expectedReviews = {new RecipeReview(), new RecipeReview()};
+    String url = "http://localhost:8080/recipe/reviews/by-recipe-ids?limit=20";
+    when(webServiceCaller.postCall(eq(url), eq(recipeIds), eq(RecipeReview[].class)))
+        .thenReturn(new ResponseEntity<>(expectedReviews, HttpStatus.OK));
+
+    List<RecipeReview> actualReviews = reviewWebCaller.getReviewsByRecipeIds(recipeIds, 20);
+
+    verify(webServiceCaller, times(1)).postCall(eq(url), eq(recipeIds), eq(RecipeReview[].class));
+    assertEquals(Arrays.asList(expectedReviews), actualReviews);
+  }
+
+  /** Test getReviewsByRecipeIds when the operation fails. */
+  @Test
+  public void testGetReviewsByRecipeIds_Failure() {
+    List<Long> recipeIds = List.of(1L);
+    String url = "http://localhost:8080/recipe/reviews/by-recipe-ids?limit=20";
+    when(webServiceCaller.postCall(eq(url), eq(recipeIds), eq(RecipeReview[].class)))
+        .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+
+    assertEquals(Collections.emptyList(), reviewWebCaller.getReviewsByRecipeIds(recipeIds, 20));
+  }
+
   /** Test getReviewsByCreatorId when the operation is successful. */
   @Test
   public void testGetReviewsByCreatorId_Success() {
@@ -0,0 +1,42 @@
+package nus.iss.team3.backend.service.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class TestKeysetCursor {
+
+  @Test
+  public void encodeDecode_roundTrip() {
+    String cursor = new KeysetCursor("rating-desc", "4.5", 42L).encode();
+
+    KeysetCursor decoded = KeysetCursor.decode(cursor, "rating-desc");
+
+    assertEquals("rating-desc", decoded.getScope());
+    assertEquals("4.5", decoded.getSortKey());
+    assertEquals(42L, decoded.getId());
+  }
+
+  @Test
+  public void decode_blank_returnsNull() {
+    assertNull(KeysetCursor.decode(null, "all"));
+    assertNull(KeysetCursor.decode(" ", "all"));
+  }
+
+  @Test
+  public void decode_otherScope_throws() {
+    String cursor = new KeysetCursor("all", "", 1L).encode();
+
+    assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor, "published"));
+  }
+
+  @Test
+  public void decode_malformed_throws() {
+    assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("%%%", "all"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> KeysetCursor.decode(new KeysetCursor("all", "", 1L).encode() + "x", "all"));
+  }
+}
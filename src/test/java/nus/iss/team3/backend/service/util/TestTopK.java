@@ -0,0 +1,58 @@
+package nus.iss.team3.backend.service.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class TestTopK {
+
+  @Test
+  public void drainIds_bestFirst_tiesByLowerId() {
+    TopK topK = new TopK(3);
+    topK.offer(1, 0.5);
+    topK.offer(2, 0.9);
+    topK.offer(3, 0.1);
+    topK.offer(4, 0.9);
+    assertFalse(topK.offer(5, 0.2));
+
+    assertEquals(0.5, topK.threshold());
+    assertArrayEquals(new long[] {2, 4, 1}, topK.drainIds());
+    assertEquals(0, topK.size());
+  }
+
+  @Test
+  public void drainTo_matchesFullSort() {
+    Random random = new Random(7);
+    double[] scores = random.doubles(1000).map(d -> Math.floor(d * 50)).toArray();
+    TopK topK = new TopK(25);
+    for (int id = 0; id < scores.length; id++) {
+      topK.offer(id, scores[id]);
+    }
+    long[] ids = new long[25];
+    double[] kept = new double[25];
+    assertEquals(25, topK.drainTo(ids, kept));
+
+    long[] expected =
+        IntStream.range(0, scores.length)
+            .boxed()
+            .sorted(
+                Comparator.<Integer>comparingDouble(id -> -scores[id])
+                    .thenComparing(Comparator.naturalOrder()))
+            .limit(25)
+            .mapToLong(Integer::longValue)
+            .toArray();
+    assertArrayEquals(expected, ids);
+    assertEquals(scores[(int) expected[0]], kept[0]);
+  }
+
+  @Test
+  public void constructor_invalidK() {
+    assertThrows(IllegalArgumentException.class, () -> new TopK(0));
+  }
+}